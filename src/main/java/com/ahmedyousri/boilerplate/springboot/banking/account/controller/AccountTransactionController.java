@@ -1,6 +1,7 @@
 package com.ahmedyousri.boilerplate.springboot.banking.account.controller;
 
 import com.ahmedyousri.boilerplate.springboot.banking.account.service.AccountService;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.annotation.RequestDeadline;
 import com.ahmedyousri.boilerplate.springboot.model.generated.AccountBalanceResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -28,6 +29,7 @@ public class AccountTransactionController {
      * @return Updated account balance
      */
     @PostMapping("/deposit")
+    @RequestDeadline(millis = 20_000)
     public ResponseEntity<AccountBalanceResponse> deposit(
             @PathVariable UUID accountId,
             @RequestParam BigDecimal amount,
@@ -46,6 +48,7 @@ public class AccountTransactionController {
      * @return Updated account balance
      */
     @PostMapping("/withdraw")
+    @RequestDeadline(millis = 20_000)
     public ResponseEntity<AccountBalanceResponse> withdraw(
             @PathVariable UUID accountId,
             @RequestParam BigDecimal amount,
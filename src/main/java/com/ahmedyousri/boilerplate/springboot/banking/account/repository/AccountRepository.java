@@ -4,9 +4,14 @@ import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
 import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountStatus;
 import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountType;
 import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,6 +31,10 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
     
     Optional<Account> findByIban(String iban);
     
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
+    
+    List<Account> findByIbanIn(Collection<String> ibans);
+    
     boolean existsByAccountNumber(String accountNumber);
     
     boolean existsByIban(String iban);
@@ -39,4 +48,33 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
     List<Account> findByStatus(AccountStatus status);
     
     List<Account> findByStatusAndInterestRateNotNull(AccountStatus status);
+    
+    /**
+     * Find the accounts with IDs in a range, such as a shard of a batch job.
+     * 
+     * @param firstId The lowest ID
+     * @param lastId  The highest ID
+     * @return The accounts
+     */
+    List<Account> findByIdBetween(UUID firstId, UUID lastId);
+    
+    /**
+     * Find the accounts with a status and IDs in a range, such as a shard of a batch job.
+     * 
+     * @param status  The account status
+     * @param firstId The lowest ID
+     * @param lastId  The highest ID
+     * @return The accounts
+     */
+    List<Account> findByStatusAndIdBetween(AccountStatus status, UUID firstId, UUID lastId);
+    
+    /**
+     * Find an account and lock its row until the end of the transaction.
+     * 
+     * @param id The account ID
+     * @return The locked account
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") UUID id);
 }
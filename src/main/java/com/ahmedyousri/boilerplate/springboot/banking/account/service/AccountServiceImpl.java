@@ -59,6 +59,8 @@ public class AccountServiceImpl implements AccountService {
     private final com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService accountingService;
     private final com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.BlockchainService blockchainService;
     private final com.ahmedyousri.boilerplate.springboot.banking.customer.repository.CustomerRepository customerRepository;
+    private final com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.service.ConfirmationTracker confirmationTracker;
+    private final com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.ChainSubmitter chainSubmitter;
     
     /**
      * Perform a debit operation on an account (money leaving the account).
@@ -390,7 +392,7 @@ public class AccountServiceImpl implements AccountService {
                 );
             
             com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse response =
-                blockchainService.executeCommand(command);
+                chainSubmitter.submit(command);
             
             if (!response.isSuccessful()) {
                 throw new BusinessRuleException(
@@ -421,6 +423,9 @@ public class AccountServiceImpl implements AccountService {
             // 4. Save the updated account
             accountRepository.save(account);
             
+            // 5. Track confirmations of the blockchain transaction on the recorded transaction
+            confirmationTracker.track(response.getTransactionHash(), referenceId.toString());
+            
             log.info("Deposited {} {} to account {} (Blockchain TX: {})", 
                     amount, account.getCurrencyCode(), accountId, response.getTransactionHash());
             
@@ -501,7 +506,7 @@ public class AccountServiceImpl implements AccountService {
                 );
             
             com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse response =
-                blockchainService.executeCommand(command);
+                chainSubmitter.submit(command);
             
             if (!response.isSuccessful()) {
                 throw new BusinessRuleException(
@@ -537,6 +542,9 @@ public class AccountServiceImpl implements AccountService {
             // 4. Save the updated account
             accountRepository.save(account);
             
+            // 5. Track confirmations of the blockchain transaction on the recorded transaction
+            confirmationTracker.track(response.getTransactionHash(), referenceId.toString());
+            
             log.info("Withdrew {} {} from account {} (Blockchain TX: {})", 
                     amount, account.getCurrencyCode(), accountId, response.getTransactionHash());
             
@@ -5,6 +5,8 @@ import com.ahmedyousri.boilerplate.springboot.banking.account.repository.Account
 import com.ahmedyousri.boilerplate.springboot.banking.accounting.entity.JournalEntry;
 import com.ahmedyousri.boilerplate.springboot.banking.accounting.mapper.AccountingMapper;
 import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.model.AnchorVerification;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.service.LedgerAnchor;
 import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
 import com.ahmedyousri.boilerplate.springboot.banking.customer.service.CurrentCustomerService;
 import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
@@ -34,6 +36,7 @@ public class AccountingController {
     private final AccountRepository accountRepository;
     private final CurrentCustomerService currentCustomerService;
     private final AccountingMapper accountingMapper;
+    private final LedgerAnchor ledgerAnchor;
     
     /**
      * Get journal entries by reference.
@@ -94,6 +97,32 @@ public class AccountingController {
         return ResponseEntity.ok(journalEntryDTO);
     }
     
+    /**
+     * Verify a journal entry against the Merkle root it was anchored under.
+     * The response carries the inclusion proof and the chain transaction of the root,
+     * so the check can be repeated independently of this service.
+     * 
+     * @param journalEntryId The journal entry ID
+     * @return The proof and the outcome of the check
+     */
+    @GetMapping("/journal-entries/{journalEntryId}/anchor-proof")
+    public ResponseEntity<AnchorVerification> verifyJournalEntryAnchor(@PathVariable UUID journalEntryId) {
+        Customer customer = currentCustomerService.getCurrentCustomer();
+        
+        // Check if the journal entry belongs to the customer
+        JournalEntry journalEntry = accountingService.getJournalEntryById(journalEntryId);
+        boolean belongsToCustomer = journalEntry.getEntryLines().stream()
+                .anyMatch(line -> line.getAccount().getCustomer().getId().equals(customer.getId()));
+        
+        if (!belongsToCustomer) {
+            throw new BusinessRuleException(
+                    "Journal entry does not belong to the authenticated customer", 
+                    "JOURNAL_ENTRY_OWNERSHIP_VIOLATION");
+        }
+        
+        return ResponseEntity.ok(ledgerAnchor.verify(journalEntryId));
+    }
+    
     /**
      * Get the account balance from journal entries.
      * 
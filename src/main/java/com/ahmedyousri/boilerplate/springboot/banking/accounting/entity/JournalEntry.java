@@ -27,7 +27,7 @@ public class JournalEntry {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
     
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     private String reference;  // Reference to the original operation (e.g., transfer ID)
     
     @Column(nullable = false)
@@ -5,9 +5,12 @@ import com.ahmedyousri.boilerplate.springboot.banking.accounting.entity.JournalE
 import com.ahmedyousri.boilerplate.springboot.banking.accounting.entity.JournalEntryLine;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -59,4 +62,17 @@ public interface JournalEntryLineRepository extends JpaRepository<JournalEntryLi
      */
     @Query("SELECT SUM(jel.amount) FROM JournalEntryLine jel WHERE jel.account = ?1 AND jel.entryType = 'CREDIT'")
     BigDecimal sumCreditAmountsByAccount(Account account);
+    
+    /**
+     * Calculate the balances of a batch of accounts from the journal entries dated up to a point
+     * in time, with credits increasing and debits decreasing the balance.
+     * 
+     * @param accountIds The account IDs
+     * @param asOf The latest entry date to include
+     * @return Rows of account ID and balance; accounts without entries are omitted
+     */
+    @Query("SELECT jel.account.id, SUM(CASE WHEN jel.entryType = 'CREDIT' THEN jel.amount ELSE -jel.amount END) "
+            + "FROM JournalEntryLine jel WHERE jel.account.id IN :accountIds AND jel.journalEntry.entryDate <= :asOf "
+            + "GROUP BY jel.account.id")
+    List<Object[]> sumBalancesAsOf(@Param("accountIds") Collection<UUID> accountIds, @Param("asOf") LocalDateTime asOf);
 }
@@ -2,9 +2,12 @@ package com.ahmedyousri.boilerplate.springboot.banking.accounting.repository;
 
 import com.ahmedyousri.boilerplate.springboot.banking.accounting.entity.JournalEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -22,6 +25,15 @@ public interface JournalEntryRepository extends JpaRepository<JournalEntry, UUID
      */
     List<JournalEntry> findByReference(String reference);
     
+    /**
+     * Find which of the given references already have journal entries.
+     * 
+     * @param references The references to check
+     * @return The references that have at least one journal entry
+     */
+    @Query("SELECT DISTINCT j.reference FROM JournalEntry j WHERE j.reference IN :references")
+    List<String> findExistingReferences(@Param("references") Collection<String> references);
+    
     /**
      * Find journal entries within a date range.
      * 
@@ -4,6 +4,7 @@ import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
 import com.ahmedyousri.boilerplate.springboot.banking.accounting.entity.JournalEntry;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -29,7 +30,29 @@ public interface AccountingService {
             BigDecimal amount, 
             String description,
             UUID referenceId);
-    
+
+    /**
+     * Create a journal entry for a transfer between accounts in different currencies.
+     * The source is debited into the clearing account of its currency, and the destination is
+     * credited from the clearing account of its own, so each currency balances on its own and
+     * the clearing accounts carry the position taken in each.
+     *
+     * @param sourceAccount The source account
+     * @param sourceAmount The amount debited, in the currency of the source account
+     * @param destinationAccount The destination account
+     * @param destinationAmount The amount credited, in the currency of the destination account
+     * @param description Description of the transfer
+     * @param referenceId Reference to the original operation
+     * @return Created journal entry
+     */
+    JournalEntry createExchangeJournalEntry(
+            Account sourceAccount,
+            BigDecimal sourceAmount,
+            Account destinationAccount,
+            BigDecimal destinationAmount,
+            String description,
+            UUID referenceId);
+
     /**
      * Create a journal entry for a deposit.
      * 
@@ -45,6 +68,17 @@ public interface AccountingService {
             String description,
             UUID referenceId);
     
+    /**
+     * Create deposit journal entries for a batch of deposits in one transaction.
+     * Deposits whose reference already has a journal entry are skipped, so a batch
+     * that is posted again has no effect. References are unique in the journal, so a
+     * batch posted concurrently with the same deposits fails instead of posting them twice.
+     * 
+     * @param deposits The deposits to post
+     * @return Created journal entries, one per deposit that was not posted before
+     */
+    List<JournalEntry> createDepositJournalEntries(List<DepositPosting> deposits);
+    
     /**
      * Create a journal entry for a withdrawal.
      * 
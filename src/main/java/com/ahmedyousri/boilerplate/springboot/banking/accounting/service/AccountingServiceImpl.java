@@ -5,6 +5,7 @@ import com.ahmedyousri.boilerplate.springboot.banking.accounting.entity.JournalE
 import com.ahmedyousri.boilerplate.springboot.banking.accounting.entity.JournalEntryLine;
 import com.ahmedyousri.boilerplate.springboot.banking.accounting.repository.JournalEntryLineRepository;
 import com.ahmedyousri.boilerplate.springboot.banking.accounting.repository.JournalEntryRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.service.LedgerAnchor;
 import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
 import com.ahmedyousri.boilerplate.springboot.banking.system.service.SystemAccountService;
 import com.ahmedyousri.boilerplate.springboot.banking.util.MoneyUtil;
@@ -17,7 +18,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the AccountingService interface.
@@ -31,6 +37,7 @@ public class AccountingServiceImpl implements AccountingService {
     private final JournalEntryRepository journalEntryRepository;
     private final JournalEntryLineRepository journalEntryLineRepository;
     private final SystemAccountService systemAccountService;
+    private final LedgerAnchor ledgerAnchor;
     
     @Override
     @Transactional(isolation = Isolation.SERIALIZABLE)
@@ -75,9 +82,46 @@ public class AccountingServiceImpl implements AccountingService {
         }
         
         // Save journal entry
-        return journalEntryRepository.save(journalEntry);
+        return anchor(journalEntryRepository.save(journalEntry));
     }
-    
+
+    @Override
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    public JournalEntry createExchangeJournalEntry(
+            Account sourceAccount,
+            BigDecimal sourceAmount,
+            Account destinationAccount,
+            BigDecimal destinationAmount,
+            String description,
+            UUID referenceId) {
+
+        Account sourceClearingAccount = systemAccountService.getClearingAccount(sourceAccount.getCurrencyCode());
+        Account destinationClearingAccount = systemAccountService.getClearingAccount(destinationAccount.getCurrencyCode());
+
+        JournalEntry journalEntry = new JournalEntry();
+        journalEntry.setReference(referenceId.toString());
+        journalEntry.setDescription(description);
+        journalEntry.setEntryDate(LocalDateTime.now());
+
+        // The source currency is sold into its clearing account
+        journalEntry.addEntryLine(line(sourceAccount, JournalEntryLine.EntryType.DEBIT, sourceAmount,
+                "Exchange out to " + destinationAccount.getAccountNumber()));
+        journalEntry.addEntryLine(line(sourceClearingAccount, JournalEntryLine.EntryType.CREDIT, sourceAmount,
+                "Exchange of " + sourceAccount.getCurrencyCode() + " to " + destinationAccount.getCurrencyCode()));
+
+        // and the destination currency is bought out of its own
+        journalEntry.addEntryLine(line(destinationClearingAccount, JournalEntryLine.EntryType.DEBIT, destinationAmount,
+                "Exchange of " + sourceAccount.getCurrencyCode() + " to " + destinationAccount.getCurrencyCode()));
+        journalEntry.addEntryLine(line(destinationAccount, JournalEntryLine.EntryType.CREDIT, destinationAmount,
+                "Exchange in from " + sourceAccount.getAccountNumber()));
+
+        if (!validateJournalEntryBalance(journalEntry)) {
+            throw new BusinessRuleException("Journal entry is not balanced", "UNBALANCED_JOURNAL_ENTRY");
+        }
+
+        return anchor(journalEntryRepository.save(journalEntry));
+    }
+
     @Override
     @Transactional(isolation = Isolation.SERIALIZABLE)
     public JournalEntry createDepositJournalEntry(
@@ -86,6 +130,40 @@ public class AccountingServiceImpl implements AccountingService {
             String description,
             UUID referenceId) {
         
+        return anchor(journalEntryRepository.save(buildDepositJournalEntry(account, amount, description, referenceId)));
+    }
+    
+    @Override
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    public List<JournalEntry> createDepositJournalEntries(List<DepositPosting> deposits) {
+        if (deposits.isEmpty()) {
+            return List.of();
+        }
+        
+        // Skip deposits that were already posted, and duplicates within the batch
+        Set<String> posted = new HashSet<>(journalEntryRepository.findExistingReferences(
+                deposits.stream().map(deposit -> deposit.getReferenceId().toString()).collect(Collectors.toList())));
+        
+        List<JournalEntry> journalEntries = new ArrayList<>(deposits.size());
+        for (DepositPosting deposit : deposits) {
+            if (posted.add(deposit.getReferenceId().toString())) {
+                journalEntries.add(buildDepositJournalEntry(
+                        deposit.getAccount(), deposit.getAmount(), deposit.getDescription(), deposit.getReferenceId()));
+            }
+        }
+        
+        log.debug("Posting {} of {} deposits", journalEntries.size(), deposits.size());
+        List<JournalEntry> saved = journalEntryRepository.saveAll(journalEntries);
+        ledgerAnchor.append(saved);
+        return saved;
+    }
+    
+    private JournalEntry buildDepositJournalEntry(
+            Account account, 
+            BigDecimal amount, 
+            String description,
+            UUID referenceId) {
+        
         // Create journal entry
         JournalEntry journalEntry = new JournalEntry();
         journalEntry.setReference(referenceId.toString());
@@ -112,12 +190,12 @@ public class AccountingServiceImpl implements AccountingService {
         journalEntry.addEntryLine(debitLine);
         journalEntry.addEntryLine(creditLine);
         
-        // Validate and save journal entry
+        // Validate journal entry
         if (!validateJournalEntryBalance(journalEntry)) {
             throw new BusinessRuleException("Journal entry is not balanced", "UNBALANCED_JOURNAL_ENTRY");
         }
         
-        return journalEntryRepository.save(journalEntry);
+        return journalEntry;
     }
     
     /**
@@ -178,7 +256,30 @@ public class AccountingServiceImpl implements AccountingService {
             throw new BusinessRuleException("Journal entry is not balanced", "UNBALANCED_JOURNAL_ENTRY");
         }
         
-        return journalEntryRepository.save(journalEntry);
+        return anchor(journalEntryRepository.save(journalEntry));
+    }
+    
+    /**
+     * Hand a saved journal entry to the ledger anchor, which batches it for the chain when
+     * anchoring is enabled.
+     * 
+     * @param journalEntry The saved journal entry
+     * @return The same journal entry
+     */
+    private JournalEntry anchor(JournalEntry journalEntry) {
+        ledgerAnchor.append(journalEntry);
+        return journalEntry;
+    }
+
+    private static JournalEntryLine line(Account account, JournalEntryLine.EntryType entryType, BigDecimal amount,
+                                         String description) {
+        JournalEntryLine line = new JournalEntryLine();
+        line.setAccount(account);
+        line.setEntryType(entryType);
+        line.setAmount(amount);
+        line.setCurrencyCode(account.getCurrencyCode());
+        line.setDescription(description);
+        return line;
     }
     
     @Override
@@ -276,6 +377,6 @@ public class AccountingServiceImpl implements AccountingService {
             throw new BusinessRuleException("Journal entry is not balanced", "UNBALANCED_JOURNAL_ENTRY");
         }
         
-        return journalEntryRepository.save(journalEntry);
+        return anchor(journalEntryRepository.save(journalEntry));
     }
 }
@@ -0,0 +1,34 @@
+package com.ahmedyousri.boilerplate.springboot.banking.accounting.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * A deposit to be posted as part of a batch.
+ */
+@Value
+public class DepositPosting {
+
+    /**
+     * The account receiving the deposit.
+     */
+    Account account;
+
+    /**
+     * The deposit amount.
+     */
+    BigDecimal amount;
+
+    /**
+     * Description of the deposit.
+     */
+    String description;
+
+    /**
+     * Reference to the original operation, used to skip deposits that were already posted.
+     */
+    UUID referenceId;
+}
@@ -5,10 +5,10 @@ import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountStat
 import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
 import com.ahmedyousri.boilerplate.springboot.banking.account.service.AccountService;
 import com.ahmedyousri.boilerplate.springboot.banking.audit.service.AuditService;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.config.ClusterConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.model.Shard;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.service.JobCoordinator;
 import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.service.ReconciliationService;
-import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.RecurringTransfer;
-import com.ahmedyousri.boilerplate.springboot.banking.transfer.repository.RecurringTransferRepository;
-import com.ahmedyousri.boilerplate.springboot.banking.transfer.service.TransferService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +19,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
 /**
@@ -31,36 +32,46 @@ public class BatchService {
     
     private static final Logger log = LoggerFactory.getLogger(BatchService.class);
     
+    private static final String END_OF_DAY_JOB = "end-of-day";
+    
+    private static final String CLEANUP_JOB = "data-cleanup";
+    
     private final AccountRepository accountRepository;
     private final AccountService accountService;
-    private final TransferService transferService;
-    private final RecurringTransferRepository recurringTransferRepository;
+    private final RecurringTransferProcessor recurringTransferProcessor;
     private final ReconciliationService reconciliationService;
     private final AuditService auditService;
+    private final JobCoordinator jobCoordinator;
+    private final ClusterConfig clusterConfig;
     
     /**
      * Perform end-of-day processing.
-     * This method is scheduled to run at midnight every day.
+     * This method is scheduled to run at midnight every day. The accounts and recurring transfers
+     * are split into shards across the nodes of the cluster, so each shard is processed by one node.
+     * Each recurring transfer is executed in a transaction of its own and skipped once executed for
+     * the day, so a transfer that fails leaves the rest of its shard to commit, and a shard run
+     * again after a failure does not execute its transfers twice.
      */
     @Scheduled(cron = "0 0 0 * * *") // Midnight every day
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     public void performEndOfDayProcessing() {
         log.info("Starting end-of-day processing");
         
         try {
-            // Process scheduled transfers
-            processScheduledTransfers();
-            
-            // Generate statements
-            generateStatements();
-            
-            // Perform reconciliation
-            performReconciliation();
+            int shards = jobCoordinator.run(END_OF_DAY_JOB, LocalDate.now().toString(), clusterConfig.getShards(), shard -> {
+                // Process scheduled transfers
+                processScheduledTransfers(shard);
+                
+                // Generate statements
+                generateStatements(shard);
+                
+                // Perform reconciliation
+                performReconciliation(shard);
+            });
             
             // Log the successful end-of-day processing
             auditService.logSystemOperation(
                     "END_OF_DAY_PROCESSING",
-                    "End-of-day processing completed successfully",
+                    "End-of-day processing completed successfully for " + shards + " shards on this node",
                     "SYSTEM",
                     true
             );
@@ -83,45 +94,20 @@ public class BatchService {
      * Process scheduled transfers.
      * This method processes recurring transfers that are due today.
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     public void processScheduledTransfers() {
-        log.info("Processing scheduled transfers");
-        
-        LocalDate today = LocalDate.now();
-        LocalDateTime todayEndOfDay = today.atTime(23, 59, 59);
-        
-        // Find recurring transfers that are due today
-        List<RecurringTransfer> dueTransfers = recurringTransferRepository.findByNextExecutionAtLessThanEqual(todayEndOfDay);
-        
-        log.info("Found {} recurring transfers due for execution", dueTransfers.size());
-        
-        for (RecurringTransfer recurringTransfer : dueTransfers) {
-            try {
-                // Execute the transfer
-                transferService.executeRecurringTransfer(recurringTransfer);
-                
-                // Update the next execution date
-                recurringTransfer.setLastExecutionDate(today);
-                recurringTransfer.calculateNextExecutionDate();
-                recurringTransferRepository.save(recurringTransfer);
-                
-                log.info("Executed recurring transfer: {}", recurringTransfer.getId());
-            } catch (Exception e) {
-                log.error("Error executing recurring transfer {}: {}", recurringTransfer.getId(), e.getMessage(), e);
-                
-                // Log the failed transfer
-                auditService.logFinancialOperation(
-                        "RECURRING_TRANSFER_EXECUTION",
-                        recurringTransfer.getSourceAccount().getId(),
-                        recurringTransfer.getAmount(),
-                        "Failed to execute recurring transfer: " + e.getMessage(),
-                        "SYSTEM",
-                        false
-                );
-            }
-        }
-        
-        log.info("Scheduled transfers processing completed");
+        processScheduledTransfers(Shard.ALL);
+    }
+    
+    /**
+     * Process the scheduled transfers of a shard.
+     * This method processes the recurring transfers of the shard that are due today, each in a
+     * transaction of its own. The shard is read in a serializable transaction of the processor
+     * rather than in the transaction the shard of the end-of-day job runs in.
+     * 
+     * @param shard The shard of recurring transfers
+     */
+    public void processScheduledTransfers(Shard shard) {
+        recurringTransferProcessor.processDue(shard);
     }
     
     /**
@@ -130,7 +116,18 @@ public class BatchService {
      */
     @Transactional(isolation = Isolation.SERIALIZABLE)
     public void generateStatements() {
-        log.info("Generating statements");
+        generateStatements(Shard.ALL);
+    }
+    
+    /**
+     * Generate statements for the accounts of a shard.
+     * This method generates monthly statements for the accounts of the shard if it's the last day of the month.
+     * 
+     * @param shard The shard of accounts
+     */
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    public void generateStatements(Shard shard) {
+        log.info("Generating statements for shard {} of {}", shard.getIndex(), shard.getCount());
         
         LocalDate today = LocalDate.now();
         
@@ -139,7 +136,8 @@ public class BatchService {
             log.info("Generating monthly statements for all accounts");
             
             // Find all active accounts
-            List<Account> activeAccounts = accountRepository.findByStatus(AccountStatus.ACTIVE);
+            List<Account> activeAccounts = accountRepository.findByStatusAndIdBetween(
+                    AccountStatus.ACTIVE, shard.getFirstId(), shard.getLastId());
             
             for (Account account : activeAccounts) {
                 try {
@@ -172,11 +170,22 @@ public class BatchService {
      */
     @Transactional(isolation = Isolation.SERIALIZABLE)
     public void performReconciliation() {
-        log.info("Performing reconciliation");
+        performReconciliation(Shard.ALL);
+    }
+    
+    /**
+     * Perform reconciliation for the accounts of a shard.
+     * This method reconciles the account balances with the transaction history.
+     * 
+     * @param shard The shard of accounts
+     */
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    public void performReconciliation(Shard shard) {
+        log.info("Performing reconciliation for shard {} of {}", shard.getIndex(), shard.getCount());
         
         try {
-            // Perform reconciliation for all accounts
-            reconciliationService.reconcileAllAccounts();
+            // Perform reconciliation for the accounts of the shard
+            reconciliationService.reconcileAccounts(shard);
             
             log.info("Reconciliation completed successfully");
         } catch (Exception e) {
@@ -194,17 +203,22 @@ public class BatchService {
     
     /**
      * Clean up old data.
-     * This method is scheduled to run once a month to clean up old data.
+     * This method is scheduled to run once a month to clean up old data, on a single node of the cluster.
      */
     @Scheduled(cron = "0 0 0 1 * *") // Midnight on the first day of each month
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     public void cleanupOldData() {
         log.info("Starting old data cleanup");
         
         try {
-            // Clean up old audit logs (older than 1 year)
-            LocalDateTime oneYearAgo = LocalDateTime.now().minusYears(1);
-            // Implement cleanup logic here
+            boolean ran = jobCoordinator.runOnce(CLEANUP_JOB, YearMonth.now().toString(), () -> {
+                // Clean up old audit logs (older than 1 year)
+                LocalDateTime oneYearAgo = LocalDateTime.now().minusYears(1);
+                // Implement cleanup logic here
+            });
+            if (!ran) {
+                log.info("Old data cleanup ran on another node");
+                return;
+            }
             
             // Log the successful cleanup
             auditService.logSystemOperation(
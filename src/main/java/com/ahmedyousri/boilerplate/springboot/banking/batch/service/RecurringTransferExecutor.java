@@ -0,0 +1,50 @@
+package com.ahmedyousri.boilerplate.springboot.banking.batch.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.RecurringTransfer;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.repository.RecurringTransferRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.service.TransferService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Executes the recurring transfers due in a batch run, one transaction per transfer, so a
+ * transfer that fails rolls back on its own instead of the whole shard it belongs to.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecurringTransferExecutor {
+
+    private final RecurringTransferRepository recurringTransferRepository;
+
+    private final TransferService transferService;
+
+    /**
+     * Execute a recurring transfer and move it on to its next execution date in the same
+     * transaction. A transfer already executed on the day is left as it is, so a shard can be
+     * run again after a failure without executing its transfers twice.
+     *
+     * @param recurringTransferId The recurring transfer ID
+     * @param today               The date of the run
+     * @return Whether the transfer was executed
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, isolation = Isolation.SERIALIZABLE)
+    public boolean execute(UUID recurringTransferId, LocalDate today) {
+        RecurringTransfer recurringTransfer = recurringTransferRepository.findById(recurringTransferId).orElse(null);
+        if (recurringTransfer == null || today.equals(recurringTransfer.getLastExecutionDate())) {
+            return false;
+        }
+
+        transferService.executeRecurringTransfer(recurringTransfer);
+
+        recurringTransfer.setLastExecutionDate(today);
+        recurringTransfer.calculateNextExecutionDate();
+        recurringTransferRepository.save(recurringTransfer);
+        return true;
+    }
+}
@@ -0,0 +1,78 @@
+package com.ahmedyousri.boilerplate.springboot.banking.batch.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.audit.service.AuditService;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.model.Shard;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.RecurringTransfer;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.repository.RecurringTransferRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Processes the recurring transfers of a shard that are due in a batch run. Kept apart from the
+ * batch service, so the shard is read in a serializable transaction of its own rather than in
+ * the transaction the shard runs in.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecurringTransferProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(RecurringTransferProcessor.class);
+
+    private final RecurringTransferRepository recurringTransferRepository;
+
+    private final RecurringTransferExecutor recurringTransferExecutor;
+
+    private final AuditService auditService;
+
+    /**
+     * Execute the recurring transfers of a shard that are due today, each in a transaction of
+     * its own, so a transfer that fails leaves the rest of the shard to commit.
+     *
+     * @param shard The shard of recurring transfers
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, isolation = Isolation.SERIALIZABLE)
+    public void processDue(Shard shard) {
+        log.info("Processing scheduled transfers of shard {} of {}", shard.getIndex(), shard.getCount());
+
+        LocalDate today = LocalDate.now();
+        LocalDateTime todayEndOfDay = today.atTime(23, 59, 59);
+
+        // Find recurring transfers that are due today
+        List<RecurringTransfer> dueTransfers = recurringTransferRepository.findByNextExecutionAtLessThanEqualAndIdBetween(
+                todayEndOfDay, shard.getFirstId(), shard.getLastId());
+
+        log.info("Found {} recurring transfers due for execution", dueTransfers.size());
+
+        for (RecurringTransfer recurringTransfer : dueTransfers) {
+            try {
+                // Execute the transfer and update the next execution date
+                if (recurringTransferExecutor.execute(recurringTransfer.getId(), today)) {
+                    log.info("Executed recurring transfer: {}", recurringTransfer.getId());
+                }
+            } catch (Exception e) {
+                log.error("Error executing recurring transfer {}: {}", recurringTransfer.getId(), e.getMessage(), e);
+
+                // Log the failed transfer
+                auditService.logFinancialOperation(
+                        "RECURRING_TRANSFER_EXECUTION",
+                        recurringTransfer.getSourceAccount().getId(),
+                        recurringTransfer.getAmount(),
+                        "Failed to execute recurring transfer: " + e.getMessage(),
+                        "SYSTEM",
+                        false
+                );
+            }
+        }
+
+        log.info("Scheduled transfers processing completed");
+    }
+}
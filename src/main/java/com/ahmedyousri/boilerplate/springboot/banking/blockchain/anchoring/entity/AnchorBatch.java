@@ -0,0 +1,63 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.entity;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing the Merkle root of the journal entries posted in one anchoring window,
+ * and the chain transaction that commits it.
+ */
+@Entity
+@Table(name = "anchor_batches")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnchorBatch {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "window_start", nullable = false)
+    private LocalDateTime windowStart;
+
+    @Column(name = "window_end", nullable = false)
+    private LocalDateTime windowEnd;
+
+    @Column(name = "leaf_count", nullable = false)
+    private int leafCount;
+
+    /**
+     * The hex-encoded Merkle root.
+     */
+    @Column(name = "merkle_root", nullable = false, length = 64)
+    private String merkleRoot;
+
+    /**
+     * The hash of the chain transaction carrying the root, or null until it is published.
+     */
+    @Column(name = "blockchain_tx_hash")
+    private String blockchainTxHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "chain_status")
+    private ChainStatus chainStatus;
+
+    @Column(name = "block_height")
+    private Long blockHeight;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
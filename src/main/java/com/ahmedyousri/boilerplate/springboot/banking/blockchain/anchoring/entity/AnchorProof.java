@@ -0,0 +1,46 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Entity representing the inclusion proof of one journal entry in its anchor batch.
+ */
+@Entity
+@Table(name = "anchor_proofs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnchorProof {
+
+    @Id
+    @Column(name = "journal_entry_id", updatable = false, nullable = false)
+    private UUID journalEntryId;
+
+    @Column(name = "batch_id", nullable = false)
+    private UUID batchId;
+
+    @Column(name = "leaf_index", nullable = false)
+    private int leafIndex;
+
+    /**
+     * The hex-encoded leaf hash of the journal entry at the time it was anchored.
+     */
+    @Column(name = "leaf_hash", nullable = false, length = 64)
+    private String leafHash;
+
+    /**
+     * The hex-encoded sibling hashes from the leaf up to the root, concatenated.
+     */
+    @Column(name = "path", nullable = false, length = 2048)
+    private String path;
+}
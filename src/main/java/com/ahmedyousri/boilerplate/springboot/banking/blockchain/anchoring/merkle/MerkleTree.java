@@ -0,0 +1,187 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.merkle;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only SHA-256 Merkle tree with the shape and domain-separated hashing of RFC 6962:
+ * leaves are hashed as {@code H(0x00 || data)} and interior nodes as {@code H(0x01 || left || right)},
+ * and a tree of n leaves splits at the largest power of two below n.
+ *
+ * <p>Appending keeps a frontier with the root of each complete subtree, so both an append and
+ * the root are O(log n). Inclusion proofs for every leaf are produced together in one
+ * O(n log n) pass once the tree is complete. Not thread safe.</p>
+ */
+public final class MerkleTree {
+
+    /**
+     * The length of a hash in bytes.
+     */
+    public static final int HASH_LENGTH = 32;
+
+    private final List<byte[]> leaves = new ArrayList<>();
+
+    /**
+     * The root of the complete subtree of 2^level leaves at each level, or null if there is none.
+     */
+    private final List<byte[]> frontier = new ArrayList<>();
+
+    /**
+     * Append a leaf.
+     *
+     * @param leafHash The leaf hash, as returned by {@link #leafHash(byte[])}
+     */
+    public void append(byte[] leafHash) {
+        leaves.add(leafHash);
+        byte[] node = leafHash;
+        int level = 0;
+        while (level < frontier.size() && frontier.get(level) != null) {
+            node = nodeHash(frontier.get(level), node);
+            frontier.set(level, null);
+            level++;
+        }
+        if (level == frontier.size()) {
+            frontier.add(node);
+        } else {
+            frontier.set(level, node);
+        }
+    }
+
+    /**
+     * Get the number of leaves.
+     *
+     * @return The number of leaves
+     */
+    public int size() {
+        return leaves.size();
+    }
+
+    /**
+     * Get the hash of a leaf.
+     *
+     * @param index The leaf index
+     * @return The leaf hash
+     */
+    public byte[] getLeaf(int index) {
+        return leaves.get(index);
+    }
+
+    /**
+     * Compute the root by folding the frontier from the smallest subtree up.
+     *
+     * @return The root hash; the hash of the empty string for an empty tree
+     */
+    public byte[] root() {
+        byte[] root = null;
+        for (byte[] peak : frontier) {
+            if (peak != null) {
+                root = root == null ? peak : nodeHash(peak, root);
+            }
+        }
+        return root != null ? root : digest().digest();
+    }
+
+    /**
+     * Compute the inclusion proof of every leaf.
+     *
+     * @return For each leaf, the sibling hashes from the leaf up to the root
+     */
+    public List<List<byte[]>> proofs() {
+        List<List<byte[]>> paths = new ArrayList<>(leaves.size());
+        for (int i = 0; i < leaves.size(); i++) {
+            paths.add(new ArrayList<>());
+        }
+        if (!leaves.isEmpty()) {
+            subtree(0, leaves.size(), paths);
+        }
+        return paths;
+    }
+
+    /**
+     * Verify an inclusion proof, following RFC 9162 section 2.1.3.2.
+     *
+     * @param leafHash The leaf hash
+     * @param index    The leaf index
+     * @param size     The number of leaves in the tree
+     * @param path     The sibling hashes from the leaf up to the root
+     * @param root     The expected root
+     * @return True if the proof shows the leaf at that index in the tree with that root
+     */
+    public static boolean verify(byte[] leafHash, long index, long size, List<byte[]> path, byte[] root) {
+        if (index < 0 || index >= size) {
+            return false;
+        }
+        long fn = index;
+        long sn = size - 1;
+        byte[] hash = leafHash;
+        for (byte[] sibling : path) {
+            if (sn == 0) {
+                return false;
+            }
+            if ((fn & 1) == 1 || fn == sn) {
+                hash = nodeHash(sibling, hash);
+                while ((fn & 1) == 0 && fn != 0) {
+                    fn >>= 1;
+                    sn >>= 1;
+                }
+            } else {
+                hash = nodeHash(hash, sibling);
+            }
+            fn >>= 1;
+            sn >>= 1;
+        }
+        return sn == 0 && MessageDigest.isEqual(hash, root);
+    }
+
+    /**
+     * Hash leaf data.
+     *
+     * @param data The leaf data
+     * @return {@code H(0x00 || data)}
+     */
+    public static byte[] leafHash(byte[] data) {
+        MessageDigest digest = digest();
+        digest.update((byte) 0x00);
+        return digest.digest(data);
+    }
+
+    /**
+     * Hash two child nodes.
+     *
+     * @param left  The left child
+     * @param right The right child
+     * @return {@code H(0x01 || left || right)}
+     */
+    public static byte[] nodeHash(byte[] left, byte[] right) {
+        MessageDigest digest = digest();
+        digest.update((byte) 0x01);
+        digest.update(left);
+        return digest.digest(right);
+    }
+
+    private byte[] subtree(int from, int to, List<List<byte[]>> paths) {
+        if (to - from == 1) {
+            return leaves.get(from);
+        }
+        int split = Integer.highestOneBit(to - from - 1);
+        byte[] left = subtree(from, from + split, paths);
+        byte[] right = subtree(from + split, to, paths);
+        for (int i = from; i < from + split; i++) {
+            paths.get(i).add(right);
+        }
+        for (int i = from + split; i < to; i++) {
+            paths.get(i).add(left);
+        }
+        return nodeHash(left, right);
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
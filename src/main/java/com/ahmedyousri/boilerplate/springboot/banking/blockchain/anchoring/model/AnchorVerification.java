@@ -0,0 +1,61 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.model;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The result of checking a journal entry against its anchored Merkle root.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnchorVerification {
+
+    private UUID journalEntryId;
+
+    private UUID batchId;
+
+    private int leafIndex;
+
+    private int leafCount;
+
+    /**
+     * The hex-encoded leaf hash recorded when the entry was anchored.
+     */
+    private String leafHash;
+
+    /**
+     * The hex-encoded sibling hashes from the leaf up to the root.
+     */
+    private List<String> path;
+
+    private String merkleRoot;
+
+    private String blockchainTxHash;
+
+    private ChainStatus chainStatus;
+
+    private Long blockHeight;
+
+    /**
+     * Whether the entry as stored today still hashes to the anchored leaf.
+     */
+    private boolean leafMatches;
+
+    /**
+     * Whether the proof leads from the leaf to the anchored root.
+     */
+    private boolean proofValid;
+
+    /**
+     * Whether the entry is unchanged and included under the root.
+     */
+    private boolean verified;
+}
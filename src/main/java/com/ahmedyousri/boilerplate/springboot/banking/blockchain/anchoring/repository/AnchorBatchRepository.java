@@ -0,0 +1,43 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.repository;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.entity.AnchorBatch;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for accessing AnchorBatch entities.
+ */
+@Repository
+public interface AnchorBatchRepository extends JpaRepository<AnchorBatch, UUID> {
+
+    /**
+     * Find the batches whose root has not been published yet, oldest first.
+     *
+     * @return The unpublished batches
+     */
+    List<AnchorBatch> findByBlockchainTxHashIsNullOrderByWindowEndAsc();
+
+    /**
+     * Record the chain state of a batch.
+     *
+     * @param id          The batch ID
+     * @param txHash      The hash of the chain transaction carrying the root
+     * @param chainStatus The chain state
+     * @param blockHeight The inclusion height, or null if not included
+     * @return The number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE AnchorBatch b SET b.blockchainTxHash = :txHash, b.chainStatus = :chainStatus, "
+            + "b.blockHeight = :blockHeight WHERE b.id = :id")
+    int updateChainStatus(@Param("id") UUID id,
+                          @Param("txHash") String txHash,
+                          @Param("chainStatus") ChainStatus chainStatus,
+                          @Param("blockHeight") Long blockHeight);
+}
@@ -0,0 +1,40 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.repository;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.entity.AnchorProof;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for accessing AnchorProof entities.
+ */
+@Repository
+public interface AnchorProofRepository extends JpaRepository<AnchorProof, UUID> {
+
+    /**
+     * Find which of the given journal entries already have an inclusion proof.
+     *
+     * @param journalEntryIds The journal entry IDs to check
+     * @return The IDs that are already anchored
+     */
+    @Query("SELECT p.journalEntryId FROM AnchorProof p WHERE p.journalEntryId IN :ids")
+    List<UUID> findExistingJournalEntryIds(@Param("ids") Collection<UUID> journalEntryIds);
+
+    /**
+     * Find journal entries created before a point in time that have no inclusion proof.
+     *
+     * @param before   The point in time
+     * @param pageable The page to return
+     * @return The IDs of the unanchored entries, oldest first
+     */
+    @Query("SELECT j.id FROM JournalEntry j WHERE j.createdAt < :before AND NOT EXISTS "
+            + "(SELECT p.journalEntryId FROM AnchorProof p WHERE p.journalEntryId = j.id) ORDER BY j.createdAt, j.id")
+    List<UUID> findUnanchoredJournalEntryIds(@Param("before") LocalDateTime before, Pageable pageable);
+}
@@ -0,0 +1,75 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.entity.JournalEntry;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.repository.JournalEntryRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.entity.AnchorBatch;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.entity.AnchorProof;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.repository.AnchorBatchRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.repository.AnchorProofRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Persists anchor batches and their inclusion proofs.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnchorWriter {
+
+    private final AnchorBatchRepository batchRepository;
+    private final AnchorProofRepository proofRepository;
+    private final JournalEntryRepository journalEntryRepository;
+
+    /**
+     * Save a batch together with the proofs of all its entries.
+     *
+     * @param batch  The batch
+     * @param proofs The proofs
+     */
+    @Transactional
+    public void save(AnchorBatch batch, List<AnchorProof> proofs) {
+        batchRepository.save(batch);
+        proofRepository.saveAll(proofs);
+    }
+
+    /**
+     * Record the chain state of a batch.
+     *
+     * @param batchId     The batch ID
+     * @param txHash      The hash of the chain transaction carrying the root, or null to publish it again
+     * @param chainStatus The chain state
+     * @param blockHeight The inclusion height, or null if not included
+     */
+    @Transactional
+    public void updateChainStatus(UUID batchId, String txHash, ChainStatus chainStatus, Long blockHeight) {
+        batchRepository.updateChainStatus(batchId, txHash, chainStatus, blockHeight);
+    }
+
+    /**
+     * Compute the leaf hashes of stored journal entries.
+     *
+     * @param journalEntryIds The journal entry IDs
+     * @return The leaf hash of each entry found, in the given order
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, byte[]> loadLeaves(Collection<UUID> journalEntryIds) {
+        Map<UUID, JournalEntry> entries = new LinkedHashMap<>();
+        journalEntryRepository.findAllById(journalEntryIds).forEach(entry -> entries.put(entry.getId(), entry));
+        Map<UUID, byte[]> leaves = new LinkedHashMap<>();
+        for (UUID id : journalEntryIds) {
+            JournalEntry entry = entries.get(id);
+            if (entry != null) {
+                leaves.put(id, LedgerAnchor.leafHash(entry));
+            }
+        }
+        return leaves;
+    }
+}
@@ -0,0 +1,474 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.entity.JournalEntry;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.entity.JournalEntryLine;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.repository.JournalEntryRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.entity.AnchorBatch;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.entity.AnchorProof;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.merkle.MerkleTree;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.model.AnchorVerification;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.repository.AnchorBatchRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.repository.AnchorProofRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.service.ConfirmationTracker;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxBroadcaster;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.service.JobCoordinator;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.ResourceNotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Anchors the ledger on chain in batches instead of mirroring every operation.
+ *
+ * <p>When anchoring is enabled, each committed journal entry is hashed into the incremental
+ * Merkle tree of the current time window; posting never waits on the chain. When the window
+ * closes, the root and an inclusion proof for every entry are stored in one transaction, and
+ * the root is committed on chain as the memo of a single self-send signed by the system
+ * account. Chain volume is one transaction per non-empty window, however many entries it holds.
+ * Roots that could not be published are retried at the next window, and a root whose
+ * transaction is never included is published again.</p>
+ *
+ * <p>Entries committed before a restart that never reached a closed window are picked up from
+ * the database when anchoring starts. Every node closes the windows of its own entries, but
+ * recovery and publishing run on one node per window, so a root is not published once by
+ * every node.</p>
+ */
+@Service
+public class LedgerAnchor {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerAnchor.class);
+
+    /**
+     * Prefix of the memo carrying a root, followed by the batch ID, leaf count and root.
+     */
+    static final String MEMO_PREFIX = "bankito-anchor:v1:";
+
+    private static final String RECOVERY_JOB = "ledger-anchor-recovery";
+
+    private static final String PUBLISH_JOB = "ledger-anchor-publish";
+
+    private static final int QUERY_CHUNK_SIZE = 1000;
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final BlockchainConfig blockchainConfig;
+
+    private final AnchorWriter anchorWriter;
+
+    private final AnchorBatchRepository batchRepository;
+
+    private final AnchorProofRepository proofRepository;
+
+    private final JournalEntryRepository journalEntryRepository;
+
+    private final CosmosTxBroadcaster txBroadcaster;
+
+    private final ConfirmationTracker confirmationTracker;
+
+    private final JobCoordinator jobCoordinator;
+
+    private final TaskScheduler taskScheduler;
+
+    private final Object lock = new Object();
+
+    private Window window = new Window(LocalDateTime.now());
+
+    private ScheduledFuture<?> windows;
+
+    public LedgerAnchor(BlockchainConfig blockchainConfig,
+                        AnchorWriter anchorWriter,
+                        AnchorBatchRepository batchRepository,
+                        AnchorProofRepository proofRepository,
+                        JournalEntryRepository journalEntryRepository,
+                        CosmosTxBroadcaster txBroadcaster,
+                        ConfirmationTracker confirmationTracker,
+                        JobCoordinator jobCoordinator,
+                        TaskScheduler taskScheduler) {
+        this.blockchainConfig = blockchainConfig;
+        this.anchorWriter = anchorWriter;
+        this.batchRepository = batchRepository;
+        this.proofRepository = proofRepository;
+        this.journalEntryRepository = journalEntryRepository;
+        this.txBroadcaster = txBroadcaster;
+        this.confirmationTracker = confirmationTracker;
+        this.jobCoordinator = jobCoordinator;
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * Recover unanchored entries and start closing windows, if anchoring is enabled.
+     */
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        jobCoordinator.runOnce(RECOVERY_JOB, runKey(), () -> recover(now));
+        long windowMs = Math.max(1, blockchainConfig.getAnchoringWindowMs());
+        windows = taskScheduler.scheduleWithFixedDelay(this::runWindow, Instant.now().plusMillis(windowMs),
+                Duration.ofMillis(windowMs));
+        log.info("Ledger anchoring started with {} ms windows", windowMs);
+    }
+
+    /**
+     * Stop closing windows. Entries of the open window are recovered on the next start.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (windows != null) {
+            windows.cancel(true);
+        }
+    }
+
+    /**
+     * Check whether the ledger is anchored in batches rather than mirrored operation by operation.
+     *
+     * @return True if anchoring is enabled
+     */
+    public boolean isEnabled() {
+        return blockchainConfig.isAnchoringEnabled();
+    }
+
+    /**
+     * Add a journal entry to the current window once the posting transaction commits.
+     *
+     * @param journalEntry The saved journal entry
+     */
+    public void append(JournalEntry journalEntry) {
+        append(List.of(journalEntry));
+    }
+
+    /**
+     * Add journal entries to the current window once the posting transaction commits.
+     *
+     * @param journalEntries The saved journal entries
+     */
+    public void append(Collection<JournalEntry> journalEntries) {
+        if (!isEnabled() || journalEntries.isEmpty()) {
+            return;
+        }
+
+        // Hash now, while the entry and its lines are loaded
+        Map<UUID, byte[]> leaves = new LinkedHashMap<>();
+        for (JournalEntry journalEntry : journalEntries) {
+            leaves.put(journalEntry.getId(), leafHash(journalEntry));
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(leaves);
+                }
+            });
+        } else {
+            add(leaves);
+        }
+    }
+
+    /**
+     * Check a journal entry against its anchored root.
+     *
+     * @param journalEntryId The journal entry ID
+     * @return The proof and the outcome of the check
+     */
+    @Transactional(readOnly = true)
+    public AnchorVerification verify(UUID journalEntryId) {
+        AnchorProof proof = proofRepository.findById(journalEntryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Anchor proof", "journalEntryId", journalEntryId));
+        AnchorBatch batch = batchRepository.findById(proof.getBatchId())
+                .orElseThrow(() -> new ResourceNotFoundException("Anchor batch", "id", proof.getBatchId()));
+        JournalEntry journalEntry = journalEntryRepository.findById(journalEntryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Journal entry", "id", journalEntryId));
+
+        byte[] currentLeaf = leafHash(journalEntry);
+        List<byte[]> path = splitPath(proof.getPath());
+        boolean leafMatches = HEX.formatHex(currentLeaf).equals(proof.getLeafHash());
+        boolean proofValid = MerkleTree.verify(HEX.parseHex(proof.getLeafHash()), proof.getLeafIndex(),
+                batch.getLeafCount(), path, HEX.parseHex(batch.getMerkleRoot()));
+
+        return AnchorVerification.builder()
+                .journalEntryId(journalEntryId)
+                .batchId(batch.getId())
+                .leafIndex(proof.getLeafIndex())
+                .leafCount(batch.getLeafCount())
+                .leafHash(proof.getLeafHash())
+                .path(path.stream().map(HEX::formatHex).toList())
+                .merkleRoot(batch.getMerkleRoot())
+                .blockchainTxHash(batch.getBlockchainTxHash())
+                .chainStatus(batch.getChainStatus())
+                .blockHeight(batch.getBlockHeight())
+                .leafMatches(leafMatches)
+                .proofValid(proofValid)
+                .verified(leafMatches && proofValid)
+                .build();
+    }
+
+    /**
+     * Get the number of entries in the open window.
+     *
+     * @return The number of entries
+     */
+    public int getPendingCount() {
+        synchronized (lock) {
+            return window.tree.size();
+        }
+    }
+
+    /**
+     * Close the current window: store its root and proofs, then publish unpublished roots
+     * unless another node publishes them for this window.
+     *
+     * @return The stored batch, or null if the window was empty or could not be stored
+     */
+    AnchorBatch closeWindow() {
+        LocalDateTime now = LocalDateTime.now();
+        Window closed;
+        synchronized (lock) {
+            closed = window;
+            window = new Window(now);
+        }
+
+        AnchorBatch batch = null;
+        if (closed.tree.size() > 0) {
+            try {
+                batch = persist(closed, now);
+            } catch (Exception e) {
+                log.warn("Could not store anchor batch of {} entries, retrying in the next window: {}",
+                        closed.tree.size(), e.getMessage());
+                synchronized (lock) {
+                    Window retry = new Window(closed.start);
+                    closed.append(retry);
+                    window.append(retry);
+                    window = retry;
+                }
+                return null;
+            }
+        }
+
+        if (txBroadcaster.isEnabled()) {
+            jobCoordinator.runOnce(PUBLISH_JOB, runKey(), this::publishPending);
+        }
+        return batch;
+    }
+
+    /**
+     * Compute the leaf hash of a journal entry from a length-prefixed encoding of its ID,
+     * reference, description and lines, with lines in a canonical order. Amounts are encoded
+     * without trailing zeros, so the hash does not depend on the scale the database returns.
+     *
+     * @param journalEntry The journal entry
+     * @return The leaf hash
+     */
+    static byte[] leafHash(JournalEntry journalEntry) {
+        StringBuilder encoded = new StringBuilder("journal-entry:v1;");
+        field(encoded, String.valueOf(journalEntry.getId()));
+        field(encoded, journalEntry.getReference());
+        field(encoded, journalEntry.getDescription());
+
+        List<String> lines = new ArrayList<>(journalEntry.getEntryLines().size());
+        for (JournalEntryLine line : journalEntry.getEntryLines()) {
+            StringBuilder encodedLine = new StringBuilder();
+            field(encodedLine, String.valueOf(line.getAccount().getId()));
+            field(encodedLine, line.getEntryType().name());
+            field(encodedLine, line.getAmount().stripTrailingZeros().toPlainString());
+            field(encodedLine, line.getCurrencyCode());
+            lines.add(encodedLine.toString());
+        }
+        lines.sort(Comparator.naturalOrder());
+        lines.forEach(line -> field(encoded, line));
+
+        return MerkleTree.leafHash(encoded.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void runWindow() {
+        try {
+            closeWindow();
+        } catch (Exception e) {
+            log.warn("Anchoring window failed: {}", e.getMessage());
+        }
+    }
+
+    private void add(Map<UUID, byte[]> leaves) {
+        synchronized (lock) {
+            leaves.forEach(window::append);
+        }
+    }
+
+    private AnchorBatch persist(Window closed, LocalDateTime windowEnd) {
+        // An entry recovered at startup may also have been appended by its own commit
+        Set<UUID> anchored = new HashSet<>();
+        for (int from = 0; from < closed.ids.size(); from += QUERY_CHUNK_SIZE) {
+            anchored.addAll(proofRepository.findExistingJournalEntryIds(
+                    closed.ids.subList(from, Math.min(from + QUERY_CHUNK_SIZE, closed.ids.size()))));
+        }
+
+        Window remaining = closed;
+        if (!anchored.isEmpty()) {
+            remaining = new Window(closed.start);
+            for (int i = 0; i < closed.ids.size(); i++) {
+                if (!anchored.contains(closed.ids.get(i))) {
+                    remaining.append(closed.ids.get(i), closed.tree.getLeaf(i));
+                }
+            }
+            if (remaining.tree.size() == 0) {
+                return null;
+            }
+        }
+
+        AnchorBatch batch = AnchorBatch.builder()
+                .id(UUID.randomUUID())
+                .windowStart(remaining.start)
+                .windowEnd(windowEnd)
+                .leafCount(remaining.tree.size())
+                .merkleRoot(HEX.formatHex(remaining.tree.root()))
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        List<List<byte[]>> paths = remaining.tree.proofs();
+        List<AnchorProof> proofs = new ArrayList<>(paths.size());
+        for (int i = 0; i < paths.size(); i++) {
+            StringBuilder path = new StringBuilder(paths.get(i).size() * MerkleTree.HASH_LENGTH * 2);
+            paths.get(i).forEach(sibling -> path.append(HEX.formatHex(sibling)));
+            proofs.add(AnchorProof.builder()
+                    .journalEntryId(remaining.ids.get(i))
+                    .batchId(batch.getId())
+                    .leafIndex(i)
+                    .leafHash(HEX.formatHex(remaining.tree.getLeaf(i)))
+                    .path(path.toString())
+                    .build());
+        }
+
+        anchorWriter.save(batch, proofs);
+        log.info("Anchored {} journal entries in batch {} with root {}", batch.getLeafCount(), batch.getId(), batch.getMerkleRoot());
+        return batch;
+    }
+
+    private void publishPending() {
+        for (AnchorBatch batch : batchRepository.findByBlockchainTxHashIsNullOrderByWindowEndAsc()) {
+            String txHash;
+            try {
+                txHash = txBroadcaster.send(txBroadcaster.getSignerAddress(), BigDecimal.ONE,
+                        blockchainConfig.getCosmosSigningFeeDenom(), memo(batch))
+                        .get(blockchainConfig.getTimeoutMs(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Could not publish anchor batch {}, retrying in the next window: {}", batch.getId(), e.getMessage());
+                return;
+            }
+
+            UUID batchId = batch.getId();
+            anchorWriter.updateChainStatus(batchId, txHash, ChainStatus.SUBMITTED, null);
+            log.info("Published root of anchor batch {} in transaction {}", batchId, txHash);
+            confirmationTracker.track(txHash, null).thenAccept(confirmation -> {
+                if (confirmation.getStatus() == ChainStatus.FAILED) {
+                    anchorWriter.updateChainStatus(batchId, null, ChainStatus.FAILED, null);
+                } else if (confirmation.getStatus() != ChainStatus.SUBMITTED) {
+                    anchorWriter.updateChainStatus(batchId, txHash, confirmation.getStatus(), confirmation.getHeight());
+                }
+            });
+        }
+    }
+
+    private void recover(LocalDateTime before) {
+        int recovered = 0;
+        for (int page = 0; ; page++) {
+            List<UUID> ids = proofRepository.findUnanchoredJournalEntryIds(before, PageRequest.of(page, QUERY_CHUNK_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+            add(anchorWriter.loadLeaves(ids));
+            recovered += ids.size();
+        }
+        if (recovered > 0) {
+            log.info("Recovered {} unanchored journal entries", recovered);
+        }
+    }
+
+    /**
+     * Key a run by the window it falls in, so the nodes closing the same window share it.
+     */
+    private String runKey() {
+        return "window-" + System.currentTimeMillis() / Math.max(1, blockchainConfig.getAnchoringWindowMs());
+    }
+
+    private static String memo(AnchorBatch batch) {
+        return MEMO_PREFIX + batch.getId() + ":" + batch.getLeafCount() + ":" + batch.getMerkleRoot();
+    }
+
+    private static List<byte[]> splitPath(String path) {
+        int width = MerkleTree.HASH_LENGTH * 2;
+        List<byte[]> siblings = new ArrayList<>(path.length() / width);
+        for (int from = 0; from + width <= path.length(); from += width) {
+            siblings.add(HEX.parseHex(path, from, from + width));
+        }
+        return siblings;
+    }
+
+    private static void field(StringBuilder encoded, String value) {
+        String text = value != null ? value : "";
+        encoded.append(text.length()).append(':').append(text).append(';');
+    }
+
+    /**
+     * The entries of one anchoring window, in the order they were appended.
+     */
+    private static final class Window {
+
+        private final LocalDateTime start;
+
+        private final List<UUID> ids = new ArrayList<>();
+
+        private final Set<UUID> members = new HashSet<>();
+
+        private final MerkleTree tree = new MerkleTree();
+
+        private Window(LocalDateTime start) {
+            this.start = start;
+        }
+
+        private void append(UUID id, byte[] leafHash) {
+            if (members.add(id)) {
+                ids.add(id);
+                tree.append(leafHash);
+            }
+        }
+
+        private void append(Window target) {
+            for (int i = 0; i < ids.size(); i++) {
+                target.append(ids.get(i), tree.getLeaf(i));
+            }
+        }
+    }
+}
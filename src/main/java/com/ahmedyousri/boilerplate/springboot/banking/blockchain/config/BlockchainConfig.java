@@ -7,6 +7,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 
+import java.util.List;
+
 /**
  * Configuration for the blockchain integration.
  * This class loads configuration properties from the blockchain.properties file.
@@ -33,6 +35,9 @@ public class BlockchainConfig {
     @Value("${blockchain.confirmation.blocks:1}")
     private int confirmationBlocks;
     
+    @Value("${blockchain.confirmation.timeout.blocks:100}")
+    private int confirmationTimeoutBlocks;
+    
     @Value("${blockchain.timeout.ms:30000}")
     private long timeoutMs;
     
@@ -78,12 +83,24 @@ public class BlockchainConfig {
     @Value("${blockchain.retry.delay.ms:1000}")
     private long retryDelayMs;
     
+    @Value("${blockchain.retry.max.delay.ms:5000}")
+    private long retryMaxDelayMs;
+    
     @Value("${blockchain.events.enabled:true}")
     private boolean eventsEnabled;
     
     @Value("${blockchain.events.polling.interval.ms:15000}")
     private long eventsPollingIntervalMs;
     
+    @Value("${blockchain.events.queue.capacity:1024}")
+    private int eventsQueueCapacity;
+    
+    @Value("${blockchain.events.reconnect.max.delay.ms:30000}")
+    private long eventsReconnectMaxDelayMs;
+
+    @Value("${blockchain.events.ping.interval.ms:10000}")
+    private long eventsPingIntervalMs;
+    
     @Value("${blockchain.transaction.receipts.enabled:true}")
     private boolean transactionReceiptsEnabled;
     
@@ -105,6 +122,102 @@ public class BlockchainConfig {
     @Value("${blockchain.transaction.batching.max.wait.ms:5000}")
     private long transactionBatchingMaxWaitMs;
     
+    @Value("${blockchain.mock.block.time.ms:500}")
+    private long mockBlockTimeMs;
+    
+    @Value("${blockchain.mock.block.max.transactions:50000}")
+    private int mockBlockMaxTransactions;
+    
+    @Value("${blockchain.mock.validation.parallelism:0}")
+    private int mockValidationParallelism;
+    
+    @Value("${blockchain.mock.store.enabled:false}")
+    private boolean mockStoreEnabled;
+    
+    @Value("${blockchain.mock.store.directory:data/mock-chain}")
+    private String mockStoreDirectory;
+    
+    @Value("${blockchain.mock.store.segment.size.bytes:67108864}")
+    private int mockStoreSegmentSizeBytes;
+    
+    @Value("${blockchain.mock.store.snapshot.interval.blocks:1000}")
+    private int mockStoreSnapshotIntervalBlocks;
+    
+    @Value("${blockchain.mock.heap.max.blocks:1000}")
+    private int mockHeapMaxBlocks;
+    
+    @Value("${blockchain.cosmos.signing.enabled:false}")
+    private boolean cosmosSigningEnabled;
+    
+    @Value("${blockchain.cosmos.signing.parallelism:0}")
+    private int cosmosSigningParallelism;
+    
+    @Value("${blockchain.cosmos.signing.gas.limit:200000}")
+    private long cosmosSigningGasLimit;
+    
+    @Value("${blockchain.cosmos.signing.fee.amount:0}")
+    private String cosmosSigningFeeAmount;
+    
+    @Value("${blockchain.cosmos.signing.fee.denom:stake}")
+    private String cosmosSigningFeeDenom;
+    
+    @Value("${blockchain.cosmos.grpc.enabled:false}")
+    private boolean cosmosGrpcEnabled;
+    
+    @Value("${blockchain.cosmos.grpc.endpoint:localhost:9090}")
+    private String cosmosGrpcEndpoint;
+    
+    @Value("${blockchain.cosmos.grpc.keepalive.ms:30000}")
+    private long cosmosGrpcKeepAliveMs;
+    
+    @Value("${blockchain.sync.range.blocks:100}")
+    private int syncRangeBlocks;
+    
+    @Value("${blockchain.sync.parallelism:4}")
+    private int syncParallelism;
+    
+    @Value("${blockchain.sync.start.height:0}")
+    private long syncStartHeight;
+    
+    @Value("${blockchain.sync.denom:stake}")
+    private String syncDenom;
+    
+    @Value("${blockchain.sync.ignored.senders:}")
+    private List<String> syncIgnoredSenders;
+    
+    @Value("${blockchain.resilience.bulkhead.max.concurrent:16}")
+    private int resilienceBulkheadMaxConcurrent;
+    
+    @Value("${blockchain.resilience.bulkhead.max.wait.ms:100}")
+    private long resilienceBulkheadMaxWaitMs;
+    
+    @Value("${blockchain.resilience.breaker.failure.threshold:5}")
+    private int resilienceBreakerFailureThreshold;
+    
+    @Value("${blockchain.resilience.breaker.open.ms:10000}")
+    private long resilienceBreakerOpenMs;
+    
+    @Value("${blockchain.resilience.hedge.delay.ms:250}")
+    private long resilienceHedgeDelayMs;
+    
+    @Value("${blockchain.anchoring.enabled:false}")
+    private boolean anchoringEnabled;
+    
+    @Value("${blockchain.anchoring.window.ms:10000}")
+    private long anchoringWindowMs;
+    
+    @Value("${blockchain.reconciliation.enabled:false}")
+    private boolean reconciliationEnabled;
+    
+    @Value("${blockchain.reconciliation.interval.ms:3600000}")
+    private long reconciliationIntervalMs;
+    
+    @Value("${blockchain.reconciliation.concurrency:16}")
+    private int reconciliationConcurrency;
+    
+    @Value("${blockchain.reconciliation.batch.size:1000}")
+    private int reconciliationBatchSize;
+    
     /**
      * Log the configuration.
      */
@@ -115,6 +228,7 @@ public class BlockchainConfig {
         log.info("Gas Limit: {}", gasLimit);
         log.info("Gas Price: {}", gasPrice);
         log.info("Confirmation Blocks: {}", confirmationBlocks);
+        log.info("Confirmation Timeout (blocks): {}", confirmationTimeoutBlocks);
         log.info("Timeout (ms): {}", timeoutMs);
         log.info("Mock Enabled: {}", mockEnabled);
         log.info("Testnet Enabled: {}", testnetEnabled);
@@ -127,8 +241,12 @@ public class BlockchainConfig {
         log.info("Contract Auto Deploy: {}", contractAutoDeploy);
         log.info("Retry Max Attempts: {}", retryMaxAttempts);
         log.info("Retry Delay (ms): {}", retryDelayMs);
+        log.info("Retry Max Delay (ms): {}", retryMaxDelayMs);
         log.info("Events Enabled: {}", eventsEnabled);
         log.info("Events Polling Interval (ms): {}", eventsPollingIntervalMs);
+        log.info("Events Queue Capacity: {}", eventsQueueCapacity);
+        log.info("Events Reconnect Max Delay (ms): {}", eventsReconnectMaxDelayMs);
+        log.info("Events Ping Interval (ms): {}", eventsPingIntervalMs);
         log.info("Transaction Receipts Enabled: {}", transactionReceiptsEnabled);
         log.info("Sync Enabled: {}", syncEnabled);
         log.info("Sync Interval (ms): {}", syncIntervalMs);
@@ -136,5 +254,36 @@ public class BlockchainConfig {
         log.info("Transaction Batching Enabled: {}", transactionBatchingEnabled);
         log.info("Transaction Batching Max Size: {}", transactionBatchingMaxSize);
         log.info("Transaction Batching Max Wait (ms): {}", transactionBatchingMaxWaitMs);
+        log.info("Mock Block Time (ms): {}", mockBlockTimeMs);
+        log.info("Mock Block Max Transactions: {}", mockBlockMaxTransactions);
+        log.info("Mock Validation Parallelism: {}", mockValidationParallelism);
+        log.info("Mock Store Enabled: {}", mockStoreEnabled);
+        log.info("Mock Store Directory: {}", mockStoreDirectory);
+        log.info("Mock Store Segment Size (bytes): {}", mockStoreSegmentSizeBytes);
+        log.info("Mock Store Snapshot Interval (blocks): {}", mockStoreSnapshotIntervalBlocks);
+        log.info("Mock Heap Max Blocks: {}", mockHeapMaxBlocks);
+        log.info("Cosmos Signing Enabled: {}", cosmosSigningEnabled);
+        log.info("Cosmos Signing Parallelism: {}", cosmosSigningParallelism);
+        log.info("Cosmos Signing Gas Limit: {}", cosmosSigningGasLimit);
+        log.info("Cosmos Signing Fee: {}{}", cosmosSigningFeeAmount, cosmosSigningFeeDenom);
+        log.info("Cosmos gRPC Enabled: {}", cosmosGrpcEnabled);
+        log.info("Cosmos gRPC Endpoint: {}", cosmosGrpcEndpoint);
+        log.info("Cosmos gRPC Keep-Alive (ms): {}", cosmosGrpcKeepAliveMs);
+        log.info("Sync Range (blocks): {}", syncRangeBlocks);
+        log.info("Sync Parallelism: {}", syncParallelism);
+        log.info("Sync Start Height: {}", syncStartHeight);
+        log.info("Sync Denom: {}", syncDenom);
+        log.info("Sync Ignored Senders: {}", syncIgnoredSenders);
+        log.info("Resilience Bulkhead Max Concurrent: {}", resilienceBulkheadMaxConcurrent);
+        log.info("Resilience Bulkhead Max Wait (ms): {}", resilienceBulkheadMaxWaitMs);
+        log.info("Resilience Breaker Failure Threshold: {}", resilienceBreakerFailureThreshold);
+        log.info("Resilience Breaker Open (ms): {}", resilienceBreakerOpenMs);
+        log.info("Resilience Hedge Delay (ms): {}", resilienceHedgeDelayMs);
+        log.info("Anchoring Enabled: {}", anchoringEnabled);
+        log.info("Anchoring Window (ms): {}", anchoringWindowMs);
+        log.info("Reconciliation Enabled: {}", reconciliationEnabled);
+        log.info("Reconciliation Interval (ms): {}", reconciliationIntervalMs);
+        log.info("Reconciliation Concurrency: {}", reconciliationConcurrency);
+        log.info("Reconciliation Batch Size: {}", reconciliationBatchSize);
     }
 }
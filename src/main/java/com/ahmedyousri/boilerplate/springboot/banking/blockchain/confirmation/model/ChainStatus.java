@@ -0,0 +1,26 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model;
+
+/**
+ * On-chain state of a submitted transaction.
+ */
+public enum ChainStatus {
+    /**
+     * Accepted by the node and waiting to be included in a block.
+     */
+    SUBMITTED,
+
+    /**
+     * Included in a committed block, with fewer confirmations than required.
+     */
+    INCLUDED,
+
+    /**
+     * Included with at least the required number of confirmations.
+     */
+    CONFIRMED,
+
+    /**
+     * Included with a failed result, or not included before the deadline.
+     */
+    FAILED
+}
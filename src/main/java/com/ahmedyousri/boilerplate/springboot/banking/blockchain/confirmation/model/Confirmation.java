@@ -0,0 +1,46 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The on-chain state of a tracked transaction.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Confirmation {
+
+    /**
+     * The hash of the transaction.
+     */
+    private String txHash;
+
+    /**
+     * The reference of the ledger transactions settled by it, or null.
+     */
+    private String reference;
+
+    /**
+     * The on-chain state.
+     */
+    private ChainStatus status;
+
+    /**
+     * The height of the block including the transaction, or 0 before inclusion.
+     */
+    private long height;
+
+    /**
+     * The number of committed blocks from the including block to the head, inclusive.
+     */
+    private int confirmations;
+
+    /**
+     * The result code of the transaction; 0 means success.
+     */
+    private int code;
+}
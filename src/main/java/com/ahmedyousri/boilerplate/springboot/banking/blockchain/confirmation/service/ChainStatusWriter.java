@@ -0,0 +1,46 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.Confirmation;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.repository.TransactionRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.repository.TransferRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Writes the on-chain state of tracked transactions to the transfers and ledger transactions
+ * they settle.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChainStatusWriter {
+
+    private final TransferRepository transferRepository;
+    private final TransactionRepository transactionRepository;
+
+    /**
+     * Write a batch of state changes in one transaction.
+     *
+     * @param confirmations The latest state of each changed transaction
+     */
+    @Transactional
+    public void write(Collection<Confirmation> confirmations) {
+        for (Confirmation confirmation : confirmations) {
+            boolean included = confirmation.getStatus() != ChainStatus.SUBMITTED && confirmation.getHeight() > 0;
+            Long height = included ? confirmation.getHeight() : null;
+            Integer count = included ? confirmation.getConfirmations() : null;
+            transferRepository.updateChainStatus(confirmation.getTxHash(), confirmation.getStatus(), height, count);
+            if (confirmation.getReference() != null) {
+                transactionRepository.updateChainStatus(confirmation.getReference(), confirmation.getTxHash(),
+                        confirmation.getStatus(), height, count);
+            } else {
+                // Transactions settled with others, such as netted transfers, were linked when submitted
+                transactionRepository.updateChainStatusByTxHash(confirmation.getTxHash(), confirmation.getStatus(),
+                        height, count);
+            }
+        }
+    }
+}
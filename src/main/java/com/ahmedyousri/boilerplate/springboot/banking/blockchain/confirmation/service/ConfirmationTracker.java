@@ -0,0 +1,391 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.Confirmation;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.listener.ChainEventListener;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.model.ChainEvent;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.model.ChainEventType;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.source.TendermintRpcClient;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.metrics.ChainMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks submitted transactions until they have {@code blockchain.confirmation.blocks}
+ * confirmations, and records their state on the transfers and ledger transactions they settle.
+ *
+ * <p>All tracked transactions share one loop, driven by new block events with a fixed-delay
+ * poll of the chain head as a backstop. Inclusion is taken from transaction events when they
+ * arrive, and otherwise from one search over the blocks committed since the previous pass, so
+ * the cost of a pass does not grow with the number of outstanding transactions. Included
+ * transactions are indexed by the height at which they reach the required confirmations and
+ * submitted ones by the height at which they expire, so each pass only visits the
+ * transactions whose state changes.</p>
+ *
+ * <p>State changes of a pass are written in one batch; waiters are notified once the batch
+ * is written. The time from tracking to inclusion and the number of outstanding transactions
+ * are reported as metrics.</p>
+ */
+@Service
+public class ConfirmationTracker implements ChainEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfirmationTracker.class);
+
+    private final BlockchainConfig blockchainConfig;
+
+    private final TendermintRpcClient rpcClient;
+
+    private final ChainStatusWriter statusWriter;
+
+    private final ChainMetrics chainMetrics;
+
+    private final TaskScheduler taskScheduler;
+
+    private final Map<String, Tracked> tracked = new ConcurrentHashMap<>();
+
+    private final Queue<Tracked> registrations = new ConcurrentLinkedQueue<>();
+
+    private final Queue<ChainEvent> inclusions = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean passRequested = new AtomicBoolean();
+
+    private final AtomicLong headHeight = new AtomicLong(-1);
+
+    /**
+     * Held by a pass, so passes requested by events and by the poll run one at a time.
+     */
+    private final Object passLock = new Object();
+
+    // State below is only accessed by the pass holding the lock
+
+    private final NavigableMap<Long, List<Tracked>> byConfirmationHeight = new TreeMap<>();
+
+    private final NavigableMap<Long, List<Tracked>> byDeadlineHeight = new TreeMap<>();
+
+    private final Map<String, Tracked> unwritten = new LinkedHashMap<>();
+
+    private final List<Tracked> finished = new ArrayList<>();
+
+    private int submittedCount;
+
+    private long scannedHeight = -1;
+
+    private long rescanFrom = Long.MAX_VALUE;
+
+    private ScheduledFuture<?> polls;
+
+    private volatile boolean running;
+
+    public ConfirmationTracker(BlockchainConfig blockchainConfig,
+                               TendermintRpcClient rpcClient,
+                               ChainStatusWriter statusWriter,
+                               ChainMetrics chainMetrics,
+                               TaskScheduler taskScheduler) {
+        this.blockchainConfig = blockchainConfig;
+        this.rpcClient = rpcClient;
+        this.statusWriter = statusWriter;
+        this.chainMetrics = chainMetrics;
+        this.taskScheduler = taskScheduler;
+        chainMetrics.gauge("blockchain.confirmation.outstanding", "Transactions not yet confirmed or failed",
+                tracked, Map::size);
+    }
+
+    /**
+     * Start tracking, unless the mock chain is in use.
+     */
+    @PostConstruct
+    public void initialize() {
+        if (blockchainConfig.isMockEnabled()) {
+            log.info("Confirmation tracking disabled while the mock blockchain is enabled");
+            return;
+        }
+        start();
+    }
+
+    /**
+     * Start the shared loop.
+     */
+    public void start() {
+        running = true;
+        long interval = Math.max(1, blockchainConfig.getEventsPollingIntervalMs());
+        polls = taskScheduler.scheduleWithFixedDelay(this::poll, Instant.now().plusMillis(interval), Duration.ofMillis(interval));
+        log.info("Confirmation tracking started, requiring {} confirmations", requiredConfirmations());
+    }
+
+    /**
+     * Stop the shared loop.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (polls != null) {
+            polls.cancel(true);
+        }
+    }
+
+    /**
+     * Track a submitted transaction. Inside a database transaction, tracking starts once it
+     * commits, so state is never written for records that were rolled back.
+     *
+     * @param txHash    The hash of the submitted transaction
+     * @param reference The reference of the ledger transactions it settles, or null
+     * @return A future completed once the transaction is confirmed or has failed; completed
+     *         immediately with the submitted state if tracking is not running
+     */
+    public CompletableFuture<Confirmation> track(String txHash, String reference) {
+        Tracked transaction = new Tracked(txHash, reference, headHeight.get());
+        if (!running || txHash == null || txHash.isBlank()) {
+            return CompletableFuture.completedFuture(transaction.toConfirmation(0));
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    register(transaction);
+                }
+            });
+            return transaction.future;
+        }
+        return register(transaction).future;
+    }
+
+    /**
+     * Get the number of transactions not yet confirmed or failed.
+     *
+     * @return The number of outstanding transactions
+     */
+    public int getOutstandingCount() {
+        return tracked.size();
+    }
+
+    /**
+     * Advance tracking on new blocks and on events for tracked transactions.
+     *
+     * @param event The chain event
+     */
+    @Override
+    public void onChainEvent(ChainEvent event) {
+        if (!running) {
+            return;
+        }
+        if (event.getType() == ChainEventType.NEW_BLOCK) {
+            requestPass(event.getHeight());
+        } else if (event.getType() == ChainEventType.TX && tracked.containsKey(event.getTxHash())) {
+            inclusions.add(event);
+            requestPass(event.getHeight());
+        }
+    }
+
+    private Tracked register(Tracked transaction) {
+        Tracked existing = tracked.putIfAbsent(transaction.txHash, transaction);
+        if (existing != null) {
+            return existing;
+        }
+        registrations.add(transaction);
+        return transaction;
+    }
+
+    private void requestPass(long height) {
+        headHeight.accumulateAndGet(height, Math::max);
+        if (passRequested.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                passRequested.set(false);
+                runPass(headHeight.get());
+            }, Instant.now());
+        }
+    }
+
+    private void poll() {
+        synchronized (passLock) {
+            try {
+                if (!tracked.isEmpty() || !unwritten.isEmpty()) {
+                    runPass(rpcClient.getHead().getHeight());
+                }
+            } catch (Exception e) {
+                log.warn("Confirmation poll failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void runPass(long height) {
+        synchronized (passLock) {
+            try {
+                pass(height);
+            } catch (Exception e) {
+                log.warn("Confirmation pass failed at height {}: {}", height, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Run one pass of the shared loop for a chain head.
+     *
+     * @param height The height of the chain head
+     */
+    void pass(long height) {
+        long head = headHeight.accumulateAndGet(height, Math::max);
+
+        Tracked registration;
+        while ((registration = registrations.poll()) != null) {
+            registration.deadlineHeight = head + Math.max(1, blockchainConfig.getConfirmationTimeoutBlocks());
+            byDeadlineHeight.computeIfAbsent(registration.deadlineHeight, key -> new ArrayList<>()).add(registration);
+            // The head seen when tracking started may already include the transaction
+            rescanFrom = Math.min(rescanFrom, (registration.submittedHeight < 0 ? head : registration.submittedHeight) - 1);
+            submittedCount++;
+            unwritten.put(registration.txHash, registration);
+        }
+
+        ChainEvent inclusion;
+        while ((inclusion = inclusions.poll()) != null) {
+            include(inclusion, head);
+        }
+
+        // Transactions not reported by events are found with one search over the new blocks
+        if (submittedCount > 0) {
+            long from = Math.min(scannedHeight < 0 ? head : scannedHeight, rescanFrom);
+            if (from < head) {
+                for (ChainEvent tx : rpcClient.searchTxs(from, head)) {
+                    include(tx, head);
+                }
+            }
+        }
+        scannedHeight = head;
+        rescanFrom = Long.MAX_VALUE;
+
+        for (Tracked transaction : pollUpTo(byDeadlineHeight, head)) {
+            if (transaction.status == ChainStatus.SUBMITTED) {
+                submittedCount--;
+                transaction.code = -1;
+                finish(transaction, ChainStatus.FAILED);
+                log.warn("Transaction {} was not included by height {}", transaction.txHash, transaction.deadlineHeight);
+            }
+        }
+        for (Tracked transaction : pollUpTo(byConfirmationHeight, head)) {
+            if (transaction.status == ChainStatus.INCLUDED) {
+                finish(transaction, ChainStatus.CONFIRMED);
+            }
+        }
+
+        write(head);
+    }
+
+    private void include(ChainEvent tx, long head) {
+        Tracked transaction = tracked.get(tx.getTxHash());
+        if (transaction == null || transaction.status != ChainStatus.SUBMITTED || transaction.deadlineHeight < 0) {
+            return;
+        }
+        submittedCount--;
+        transaction.height = tx.getHeight();
+        transaction.code = tx.getCode();
+        chainMetrics.recordInclusion(System.nanoTime() - transaction.trackedNanos, tx.getCode() == 0);
+        if (tx.getCode() != 0) {
+            finish(transaction, ChainStatus.FAILED);
+            return;
+        }
+        transaction.status = ChainStatus.INCLUDED;
+        unwritten.put(transaction.txHash, transaction);
+        long confirmationHeight = tx.getHeight() + requiredConfirmations() - 1;
+        byConfirmationHeight.computeIfAbsent(confirmationHeight, key -> new ArrayList<>()).add(transaction);
+    }
+
+    private void finish(Tracked transaction, ChainStatus status) {
+        transaction.status = status;
+        unwritten.put(transaction.txHash, transaction);
+        finished.add(transaction);
+    }
+
+    private void write(long head) {
+        if (unwritten.isEmpty()) {
+            return;
+        }
+        List<Confirmation> changes = new ArrayList<>(unwritten.size());
+        unwritten.values().forEach(transaction -> changes.add(transaction.toConfirmation(head)));
+
+        // Unwritten changes are retried on the next pass
+        statusWriter.write(changes);
+        unwritten.clear();
+
+        for (Tracked transaction : finished) {
+            tracked.remove(transaction.txHash, transaction);
+            transaction.future.complete(transaction.toConfirmation(head));
+        }
+        finished.clear();
+    }
+
+    private int requiredConfirmations() {
+        return Math.max(1, blockchainConfig.getConfirmationBlocks());
+    }
+
+    private static List<Tracked> pollUpTo(NavigableMap<Long, List<Tracked>> index, long height) {
+        List<Tracked> due = new ArrayList<>();
+        Map<Long, List<Tracked>> head = index.headMap(height, true);
+        head.values().forEach(due::addAll);
+        head.clear();
+        return due;
+    }
+
+    /**
+     * A tracked transaction.
+     */
+    private static final class Tracked {
+
+        private final String txHash;
+
+        private final String reference;
+
+        private final long submittedHeight;
+
+        private final long trackedNanos = System.nanoTime();
+
+        private final CompletableFuture<Confirmation> future = new CompletableFuture<>();
+
+        private ChainStatus status = ChainStatus.SUBMITTED;
+
+        private long height;
+
+        private int code;
+
+        private long deadlineHeight = -1;
+
+        private Tracked(String txHash, String reference, long submittedHeight) {
+            this.txHash = txHash;
+            this.reference = reference;
+            this.submittedHeight = submittedHeight;
+        }
+
+        private Confirmation toConfirmation(long head) {
+            return Confirmation.builder()
+                    .txHash(txHash)
+                    .reference(reference)
+                    .status(status)
+                    .height(height)
+                    .confirmations(height > 0 && head >= height ? (int) (head - height + 1) : 0)
+                    .code(code)
+                    .build();
+        }
+    }
+}
@@ -6,37 +6,62 @@ import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.Deposit
 import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.FinancialCommand;
 import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.TransferCommand;
 import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.WithdrawCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxBroadcaster;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.metrics.ChainMetrics;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.metrics.ChainStage;
 import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.AccountBalance;
 import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse;
 import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.TransactionRecord;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.service.AccountAddressRegistry;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.resilience.ChainEndpoint;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.resilience.ChainEndpoints;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.resilience.ChainUnavailableException;
 import com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.BlockchainService;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.model.Deadline;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.DeadlineExceededException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Production-ready service for interacting with Cosmos SDK blockchain
+ * Production-ready service for interacting with Cosmos SDK blockchain.
+ * Every node call goes through the guard of its endpoint; reads are retried and hedged, and
+ * commands fail fast while the endpoint they need is unavailable. Transaction queries are decoded
+ * as they stream in, and histories are paged from the node as they are consumed. Commands and
+ * node calls are timed by {@link ChainMetrics}.
  */
 @Service("cosmosBlockchainService")
 public class CosmosBlockchainService implements BlockchainService {
     private static final Logger logger = LoggerFactory.getLogger(CosmosBlockchainService.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
-    private final Executor executor = Executors.newFixedThreadPool(5);
+    private static final int HISTORY_PAGE_SIZE = 100;
+    private final Executor executor;
     
     private final RestTemplate restTemplate;
+    private final AccountAddressRegistry accountAddressRegistry;
+    private final CosmosTxBroadcaster txBroadcaster;
+    private final ChainEndpoints chainEndpoints;
+    private final ChainMetrics chainMetrics;
     private final String restEndpoint;
     private final String rpcEndpoint;
     private final String faucetEndpoint;
@@ -46,19 +71,22 @@ public class CosmosBlockchainService implements BlockchainService {
     private final String aliceAddress = "cosmos186yzfgjzdlgekev8nga3yk8h7zeavxxrzlzrw9";
     private final String alicePrivateKey = "alice_key"; // In production, this would be securely stored
     
-    // Bob's account for testing
-    private final String bobAddress = "cosmos1wdtem7vfw6ymewcu8dr4rz5xlhjj225ah3k9z0";
-    
-    // Map to store account ID to blockchain address mapping
-    private final Map<UUID, String> accountAddressMap = new HashMap<>();
-
     public CosmosBlockchainService(
             RestTemplate restTemplate,
+            AccountAddressRegistry accountAddressRegistry,
+            CosmosTxBroadcaster txBroadcaster,
+            ChainEndpoints chainEndpoints,
+            ChainMetrics chainMetrics,
             @Value("${blockchain.cosmos.rest-endpoint:http://0.0.0.0:1317}") String restEndpoint,
             @Value("${blockchain.cosmos.rpc-endpoint:http://0.0.0.0:26657}") String rpcEndpoint,
             @Value("${blockchain.cosmos.faucet-endpoint:http://0.0.0.0:4500}") String faucetEndpoint,
             @Value("${blockchain.cosmos.chain-id:quicktest}") String chainId) {
         this.restTemplate = restTemplate;
+        this.accountAddressRegistry = accountAddressRegistry;
+        this.txBroadcaster = txBroadcaster;
+        this.chainEndpoints = chainEndpoints;
+        this.chainMetrics = chainMetrics;
+        this.executor = chainMetrics.monitor(Executors.newFixedThreadPool(5), "cosmos-blockchain");
         this.restEndpoint = restEndpoint;
         this.rpcEndpoint = rpcEndpoint;
         this.faucetEndpoint = faucetEndpoint;
@@ -76,7 +104,8 @@ public class CosmosBlockchainService implements BlockchainService {
             String url = rpcEndpoint + "/status";
             logger.info("Getting blockchain status from: {}", url);
             
-            String response = restTemplate.getForObject(url, String.class);
+            String response = chainMetrics.time(ChainStage.BLOCK_LOOKUP,
+                    () -> chainEndpoints.getRpc().read(() -> restTemplate.getForObject(url, String.class)));
             logger.debug("Blockchain status response: {}", response);
             
             return response;
@@ -96,7 +125,8 @@ public class CosmosBlockchainService implements BlockchainService {
             String url = restEndpoint + "/cosmos/bank/v1beta1/balances/" + address;
             logger.info("Getting balance from: {}", url);
             
-            String response = restTemplate.getForObject(url, String.class);
+            String response = chainMetrics.time(ChainStage.BALANCE_LOOKUP,
+                    () -> chainEndpoints.getRest().read(() -> restTemplate.getForObject(url, String.class)));
             logger.debug("Balance response for address {}: {}", address, response);
             
             return response;
@@ -117,15 +147,32 @@ public class CosmosBlockchainService implements BlockchainService {
      */
     public String sendTokens(String fromAddress, String toAddress, BigDecimal amount, String denom, String privateKey) {
         try {
-            // For compatibility with existing code, we'll use the faucet to send tokens
-            // In a real implementation, you would use the private key to sign and broadcast a transaction
-            return sendTokensFromFaucet(toAddress, amount, denom);
+            // Without local signing we fall back to the faucet, which ignores the sender
+            return send(toAddress, amount, denom);
         } catch (Exception e) {
             logger.error("Error sending tokens: {}", e.getMessage(), e);
             throw new RuntimeException("Error sending tokens: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Send tokens from the system account, signing locally when enabled and using the faucet otherwise
+     * @param toAddress Recipient address
+     * @param amount Amount to send
+     * @param denom Token denomination (e.g., "stake")
+     * @return Transaction hash
+     */
+    private String send(String toAddress, BigDecimal amount, String denom) {
+        if (!txBroadcaster.isEnabled()) {
+            return sendTokensFromFaucet(toAddress, amount, denom);
+        }
+        
+        logger.info("Sending {} {} to {} signed by {}", amount, denom, toAddress, txBroadcaster.getSignerAddress());
+        String txHash = chainMetrics.time(ChainStage.BROADCAST, () -> txBroadcaster.send(toAddress, amount, denom, null).join());
+        logger.info("Tokens sent successfully. Hash: {}", txHash);
+        return txHash;
+    }
+    
     /**
      * Send tokens using the faucet
      * @param toAddress Recipient address
@@ -152,7 +199,8 @@ public class CosmosBlockchainService implements BlockchainService {
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
             
             String url = faucetEndpoint + "/credit";
-            ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
+            ResponseEntity<String> response = chainMetrics.time(ChainStage.FAUCET,
+                    () -> chainEndpoints.getFaucet().call(() -> restTemplate.postForEntity(url, entity, String.class)));
             logger.debug("Faucet response: {}", response.getBody());
             
             // Parse the transaction hash from the response
@@ -162,15 +210,19 @@ public class CosmosBlockchainService implements BlockchainService {
             if (txHash == null || txHash.isEmpty()) {
                 // For testing purposes, generate a unique transaction hash
                 txHash = "TX_" + UUID.randomUUID().toString();
+                chainMetrics.countFabricatedHash("missing");
                 logger.info("Faucet did not return a transaction hash, using generated hash: {}", txHash);
             }
             
             logger.info("Tokens sent successfully. Hash: {}", txHash);
             return txHash;
+        } catch (ChainUnavailableException | DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error sending tokens from faucet: {}", e.getMessage(), e);
             // For testing purposes, generate a unique transaction hash
             String txHash = "TX_ERROR_" + UUID.randomUUID().toString();
+            chainMetrics.countFabricatedHash("error");
             logger.info("Error sending tokens, using generated hash: {}", txHash);
             return txHash;
         }
@@ -186,7 +238,8 @@ public class CosmosBlockchainService implements BlockchainService {
             String url = rpcEndpoint + "/blockchain?limit=" + limit;
             logger.info("Getting latest blocks from: {}", url);
             
-            String response = restTemplate.getForObject(url, String.class);
+            String response = chainMetrics.time(ChainStage.BLOCK_LOOKUP,
+                    () -> chainEndpoints.getRpc().read(() -> restTemplate.getForObject(url, String.class)));
             logger.debug("Latest blocks response (limit={}): {}", limit, response);
             
             return response;
@@ -197,23 +250,12 @@ public class CosmosBlockchainService implements BlockchainService {
     }
     
     /**
-     * Get or generate an account address for a given account ID
+     * Get or register the account address for a given account ID
      * @param accountId Account ID
      * @return Blockchain address
      */
     private String getAccountAddress(UUID accountId) {
-        return accountAddressMap.computeIfAbsent(accountId, id -> {
-            // For production, we'll use a deterministic mapping based on the account ID
-            // In a real implementation, you would store this mapping in a database
-            
-            // Use the first 8 characters of the account ID to create a unique identifier
-            String shortId = accountId.toString().substring(0, 8);
-            
-            // For now, we'll return Bob's address for all accounts
-            // In a real implementation, you would create a new address for each account
-            logger.info("Mapping account {} to blockchain address {}", accountId, bobAddress);
-            return bobAddress;
-        });
+        return accountAddressRegistry.getAddress(accountId);
     }
     
     /**
@@ -240,18 +282,14 @@ public class CosmosBlockchainService implements BlockchainService {
                     denom
             );
             
-            // Get the block information
-            JsonNode blockInfo = getBlockInfo(txHash);
-            String blockHash = blockInfo.path("block_id").path("hash").asText();
-            long blockNumber = Long.parseLong(blockInfo.path("block").path("header").path("height").asText());
-            
+            // The transaction is not in a block yet; inclusion is reported by the confirmation tracker
             return BlockchainResponse.builder()
                     .successful(true)
                     .transactionHash(txHash)
-                    .blockHash(blockHash)
-                    .blockNumber(blockNumber)
                     .timestamp(LocalDateTime.now())
                     .build();
+        } catch (DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error executing deposit command: {}", e.getMessage(), e);
             return BlockchainResponse.builder()
@@ -278,26 +316,21 @@ public class CosmosBlockchainService implements BlockchainService {
             // Use "stake" denomination
             String denom = "stake";
             
-            // For now, we'll use the faucet to simulate a withdrawal
-            // In a real implementation, you would use proper key management to sign transactions
-            String txHash = sendTokensFromFaucet(
+            // Signed by the system account when local signing is enabled, otherwise simulated with the faucet
+            String txHash = send(
                     toAddress,
                     command.getAmount(),
                     denom
             );
             
-            // Get the block information
-            JsonNode blockInfo = getBlockInfo(txHash);
-            String blockHash = blockInfo.path("block_id").path("hash").asText();
-            long blockNumber = Long.parseLong(blockInfo.path("block").path("header").path("height").asText());
-            
+            // The transaction is not in a block yet; inclusion is reported by the confirmation tracker
             return BlockchainResponse.builder()
                     .successful(true)
                     .transactionHash(txHash)
-                    .blockHash(blockHash)
-                    .blockNumber(blockNumber)
                     .timestamp(LocalDateTime.now())
                     .build();
+        } catch (DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error executing withdraw command: {}", e.getMessage(), e);
             return BlockchainResponse.builder()
@@ -321,26 +354,21 @@ public class CosmosBlockchainService implements BlockchainService {
             // Use "stake" denomination
             String denom = "stake";
             
-            // For now, we'll use the faucet to simulate a transfer
-            // In a real implementation, you would use proper key management to sign transactions
-            String txHash = sendTokensFromFaucet(
+            // Signed by the system account when local signing is enabled, otherwise simulated with the faucet
+            String txHash = send(
                     toAddress,
                     command.getAmount(),
                     denom
             );
             
-            // Get the block information
-            JsonNode blockInfo = getBlockInfo(txHash);
-            String blockHash = blockInfo.path("block_id").path("hash").asText();
-            long blockNumber = Long.parseLong(blockInfo.path("block").path("header").path("height").asText());
-            
+            // The transaction is not in a block yet; inclusion is reported by the confirmation tracker
             return BlockchainResponse.builder()
                     .successful(true)
                     .transactionHash(txHash)
-                    .blockHash(blockHash)
-                    .blockNumber(blockNumber)
                     .timestamp(LocalDateTime.now())
                     .build();
+        } catch (DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error executing transfer command: {}", e.getMessage(), e);
             return BlockchainResponse.builder()
@@ -351,70 +379,22 @@ public class CosmosBlockchainService implements BlockchainService {
         }
     }
     
-    /**
-     * Get block information for a transaction
-     * @param txHash Transaction hash
-     * @return Block information
-     */
-    private JsonNode getBlockInfo(String txHash) {
-        try {
-            // Check if this is a generated transaction hash
-            if (txHash.startsWith("TX_")) {
-                // For testing purposes, return a mock block info
-                String mockBlockInfo = "{\n" +
-                        "  \"block_id\": {\n" +
-                        "    \"hash\": \"BLOCK_HASH_" + System.currentTimeMillis() + "\"\n" +
-                        "  },\n" +
-                        "  \"block\": {\n" +
-                        "    \"header\": {\n" +
-                        "      \"height\": \"1\"\n" +
-                        "    }\n" +
-                        "  }\n" +
-                        "}";
-                return objectMapper.readTree(mockBlockInfo);
-            }
-            
-            // First, get the transaction details to find the block height
-            String txUrl = restEndpoint + "/cosmos/tx/v1beta1/txs/" + txHash;
-            logger.info("Getting transaction details from: {}", txUrl);
-            
-            String txResponse = restTemplate.getForObject(txUrl, String.class);
-            JsonNode txJson = objectMapper.readTree(txResponse);
-            
-            // Extract the block height from the transaction response
-            String blockHeight = txJson.path("tx_response").path("height").asText();
-            
-            // Now get the block information using the block height
-            String blockUrl = rpcEndpoint + "/block?height=" + blockHeight;
-            logger.info("Getting block info from: {}", blockUrl);
-            
-            String blockResponse = restTemplate.getForObject(blockUrl, String.class);
-            return objectMapper.readTree(blockResponse).path("result");
-        } catch (Exception e) {
-            logger.error("Error getting block info for transaction {}: {}", txHash, e.getMessage(), e);
-            
-            // For testing purposes, return a mock block info
-            try {
-                String mockBlockInfo = "{\n" +
-                        "  \"block_id\": {\n" +
-                        "    \"hash\": \"BLOCK_HASH_" + System.currentTimeMillis() + "\"\n" +
-                        "  },\n" +
-                        "  \"block\": {\n" +
-                        "    \"header\": {\n" +
-                        "      \"height\": \"1\"\n" +
-                        "    }\n" +
-                        "  }\n" +
-                        "}";
-                return objectMapper.readTree(mockBlockInfo);
-            } catch (Exception ex) {
-                throw new RuntimeException("Error creating mock block info", ex);
-            }
-        }
-    }
-
     @Override
     public BlockchainResponse executeCommand(FinancialCommand command) {
         logger.info("Executing command: {}", command.getClass().getSimpleName());
+        return chainMetrics.time(command, () -> execute(command));
+    }
+    
+    private BlockchainResponse execute(FinancialCommand command) {
+        // Fail fast rather than tie up the caller while the endpoint is known to be down
+        ChainEndpoint endpoint = commandEndpoint(command);
+        if (!endpoint.isAvailable()) {
+            return BlockchainResponse.builder()
+                    .successful(false)
+                    .errorCode("CHAIN_UNAVAILABLE")
+                    .errorMessage("The " + endpoint.getName() + " endpoint is unavailable")
+                    .build();
+        }
         
         try {
             if (command instanceof DepositCommand) {
@@ -430,6 +410,8 @@ public class CosmosBlockchainService implements BlockchainService {
                         .errorMessage("Unsupported command type: " + command.getClass().getSimpleName())
                         .build();
             }
+        } catch (DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error executing command: {}", e.getMessage(), e);
             return BlockchainResponse.builder()
@@ -440,9 +422,21 @@ public class CosmosBlockchainService implements BlockchainService {
         }
     }
 
+    /**
+     * Get the endpoint a command is submitted to
+     * @param command The command
+     * @return The faucet for deposits and unsigned sends, otherwise the REST endpoint that receives signed broadcasts
+     */
+    private ChainEndpoint commandEndpoint(FinancialCommand command) {
+        if (command instanceof DepositCommand || !txBroadcaster.isEnabled()) {
+            return chainEndpoints.getFaucet();
+        }
+        return chainEndpoints.getRest();
+    }
+
     @Override
     public CompletableFuture<BlockchainResponse> executeCommandAsync(FinancialCommand command) {
-        return CompletableFuture.supplyAsync(() -> executeCommand(command), executor);
+        return CompletableFuture.supplyAsync(Deadline.propagate(() -> executeCommand(command)), executor);
     }
 
     @Override
@@ -489,76 +483,20 @@ public class CosmosBlockchainService implements BlockchainService {
 
     @Override
     public CompletableFuture<AccountBalance> getAccountBalanceAsync(UUID accountId) {
-        return CompletableFuture.supplyAsync(() -> getAccountBalance(accountId), executor);
+        return CompletableFuture.supplyAsync(Deadline.propagate(() -> getAccountBalance(accountId)), executor);
     }
 
     @Override
     public List<TransactionRecord> getTransactionHistory(UUID accountId, int limit) {
         logger.info("Getting transaction history for account: {}", accountId);
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
         
-        try {
-            // Get the account address
-            String address = getAccountAddress(accountId);
-            
-            // Query the blockchain for transactions involving the address
-            String url = restEndpoint + "/cosmos/tx/v1beta1/txs?events=transfer.recipient='" + address + "'&events=transfer.sender='" + address + "'&pagination.limit=" + limit;
-            logger.info("Getting transaction history from: {}", url);
-            
-            String response = restTemplate.getForObject(url, String.class);
-            
-            // Parse the response
-            JsonNode responseJson = objectMapper.readTree(response);
-            JsonNode txs = responseJson.path("tx_responses");
-            
-            List<TransactionRecord> transactions = new ArrayList<>();
-            
-            if (txs.isArray()) {
-                for (JsonNode tx : txs) {
-                    String txHash = tx.path("txhash").asText();
-                    String blockHeight = tx.path("height").asText();
-                    LocalDateTime timestamp = LocalDateTime.parse(tx.path("timestamp").asText());
-                    
-                    // Get the transaction details
-                    JsonNode txDetails = getTxDetails(txHash);
-                    
-                    // Parse the amount and currency
-                    BigDecimal amount = BigDecimal.ZERO;
-                    String currencyCode = "stake";
-                    
-                    JsonNode messages = txDetails.path("body").path("messages");
-                    if (messages.isArray() && messages.size() > 0) {
-                        JsonNode message = messages.get(0);
-                        if (message.path("@type").asText().equals("/cosmos.bank.v1beta1.MsgSend")) {
-                            JsonNode amountNode = message.path("amount").get(0);
-                            amount = new BigDecimal(amountNode.path("amount").asText("0"));
-                            currencyCode = amountNode.path("denom").asText("stake");
-                        }
-                    }
-                    
-                    // Determine if this is a credit or debit
-                    String fromAddress = txDetails.path("body").path("messages").get(0).path("from_address").asText();
-                    String toAddress = txDetails.path("body").path("messages").get(0).path("to_address").asText();
-                    
-                    String description = fromAddress.equals(address) ? "Sent to " + toAddress : "Received from " + fromAddress;
-                    
-                    TransactionRecord transaction = TransactionRecord.builder()
-                            .hash(txHash)
-                            .transactionHash(txHash)
-                            .blockHash(tx.path("block_hash").asText())
-                            .blockNumber(Long.parseLong(blockHeight))
-                            .createdAt(timestamp)
-                            .confirmedAt(timestamp)
-                            .status("COMPLETED")
-                            .amount(amount)
-                            .currencyCode(currencyCode)
-                            .description(description)
-                            .build();
-                    
-                    transactions.add(transaction);
-                }
-            }
-            
-            return transactions;
+        try (Stream<TransactionRecord> history = streamTransactionHistory(accountId, Math.min(limit, HISTORY_PAGE_SIZE))) {
+            return history.limit(limit).collect(Collectors.toList());
+        } catch (ChainUnavailableException | DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error getting transaction history: {}", e.getMessage(), e);
             throw new RuntimeException("Error getting transaction history: " + e.getMessage(), e);
@@ -567,7 +505,17 @@ public class CosmosBlockchainService implements BlockchainService {
 
     @Override
     public CompletableFuture<List<TransactionRecord>> getTransactionHistoryAsync(UUID accountId, int limit) {
-        return CompletableFuture.supplyAsync(() -> getTransactionHistory(accountId, limit), executor);
+        return CompletableFuture.supplyAsync(Deadline.propagate(() -> getTransactionHistory(accountId, limit)), executor);
+    }
+
+    /**
+     * Stream the transaction history of an account, newest first. Received and sent transactions
+     * are searched separately and merged by height; each search fetches its next page only when
+     * the stream reaches it.
+     */
+    @Override
+    public Stream<TransactionRecord> streamTransactionHistory(UUID accountId) {
+        return streamTransactionHistory(accountId, HISTORY_PAGE_SIZE);
     }
 
     @Override
@@ -575,46 +523,19 @@ public class CosmosBlockchainService implements BlockchainService {
         logger.info("Getting transaction: {}", transactionHash);
         
         try {
-            // Get the transaction details
-            JsonNode txDetails = getTxDetails(transactionHash);
-            
-            // Get the transaction response
             String url = restEndpoint + "/cosmos/tx/v1beta1/txs/" + transactionHash;
-            String response = restTemplate.getForObject(url, String.class);
-            JsonNode txResponse = objectMapper.readTree(response).path("tx_response");
-            
-            // Parse the amount and currency
-            BigDecimal amount = BigDecimal.ZERO;
-            String currencyCode = "stake";
-            
-            JsonNode messages = txDetails.path("body").path("messages");
-            if (messages.isArray() && messages.size() > 0) {
-                JsonNode message = messages.get(0);
-                if (message.path("@type").asText().equals("/cosmos.bank.v1beta1.MsgSend")) {
-                    JsonNode amountNode = message.path("amount").get(0);
-                    amount = new BigDecimal(amountNode.path("amount").asText("0"));
-                    currencyCode = amountNode.path("denom").asText("stake");
-                }
+            TransactionRecord transaction = chainMetrics.time(ChainStage.TX_LOOKUP,
+                    () -> chainEndpoints.getRest().read(() -> restTemplate.execute(url, HttpMethod.GET, null,
+                            response -> CosmosTxDecoder.decodeTx(response.getBody()))));
+            if (transaction == null) {
+                return null;
             }
             
-            // Get the from and to addresses
-            String fromAddress = txDetails.path("body").path("messages").get(0).path("from_address").asText();
-            String toAddress = txDetails.path("body").path("messages").get(0).path("to_address").asText();
-            
-            String description = "Transfer from " + fromAddress + " to " + toAddress;
-            
-            return TransactionRecord.builder()
-                    .hash(transactionHash)
-                    .transactionHash(transactionHash)
-                    .blockHash(txResponse.path("block_hash").asText())
-                    .blockNumber(Long.parseLong(txResponse.path("height").asText()))
-                    .createdAt(LocalDateTime.parse(txResponse.path("timestamp").asText()))
-                    .confirmedAt(LocalDateTime.parse(txResponse.path("timestamp").asText()))
-                    .status("COMPLETED")
-                    .amount(amount)
-                    .currencyCode(currencyCode)
-                    .description(description)
-                    .build();
+            transaction.setDescription("Transfer from " + transaction.getFrom() + " to " + transaction.getTo());
+            resolveAccounts(transaction);
+            return transaction;
+        } catch (ChainUnavailableException | DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error getting transaction: {}", e.getMessage(), e);
             throw new RuntimeException("Error getting transaction: " + e.getMessage(), e);
@@ -623,21 +544,169 @@ public class CosmosBlockchainService implements BlockchainService {
 
     @Override
     public CompletableFuture<TransactionRecord> getTransactionAsync(String transactionHash) {
-        return CompletableFuture.supplyAsync(() -> getTransaction(transactionHash), executor);
+        return CompletableFuture.supplyAsync(Deadline.propagate(() -> getTransaction(transactionHash)), executor);
+    }
+    
+    private Stream<TransactionRecord> streamTransactionHistory(UUID accountId, int pageSize) {
+        String address = getAccountAddress(accountId);
+        Iterator<TransactionRecord> history = new NewestFirst(
+                new TxSearch("transfer.recipient='" + address + "'", pageSize),
+                new TxSearch("transfer.sender='" + address + "'", pageSize));
+        
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(history, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .map(transaction -> {
+                    transaction.setDescription(address.equals(transaction.getFrom())
+                            ? "Sent to " + transaction.getTo()
+                            : "Received from " + transaction.getFrom());
+                    resolveAccounts(transaction);
+                    return transaction;
+                });
+    }
+    
+    private void resolveAccounts(TransactionRecord transaction) {
+        if (transaction.getFrom() != null) {
+            transaction.setFromAccount(accountAddressRegistry.findAccountId(transaction.getFrom()).orElse(null));
+        }
+        if (transaction.getTo() != null) {
+            transaction.setToAccount(accountAddressRegistry.findAccountId(transaction.getTo()).orElse(null));
+        }
     }
     
     /**
-     * Get transaction details
-     * @param txHash Transaction hash
-     * @return Transaction details
+     * Pages through the results of one tx search, newest first. The next page is requested with
+     * the key returned by the previous one, or by offset when the node does not return keys, as
+     * tx search on most nodes does not.
      */
-    private JsonNode getTxDetails(String txHash) throws Exception {
-        String url = restEndpoint + "/cosmos/tx/v1beta1/txs/" + txHash;
-        logger.info("Getting transaction details from: {}", url);
+    private final class TxSearch implements Iterator<TransactionRecord> {
+        
+        private final String query;
+        private final int pageSize;
+        private Iterator<TransactionRecord> page = Collections.emptyIterator();
+        private String nextKey;
+        private long offset;
+        private boolean exhausted;
+        
+        private TxSearch(String query, int pageSize) {
+            this.query = query;
+            this.pageSize = pageSize;
+        }
         
-        String response = restTemplate.getForObject(url, String.class);
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext() && !exhausted) {
+                fetchPage();
+            }
+            return page.hasNext();
+        }
         
-        return objectMapper.readTree(response).path("tx");
+        @Override
+        public TransactionRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+        
+        private void fetchPage() {
+            StringBuilder url = new StringBuilder(restEndpoint)
+                    .append("/cosmos/tx/v1beta1/txs?events=").append(encode(query))
+                    .append("&order_by=ORDER_BY_DESC&pagination.limit=").append(pageSize);
+            if (nextKey != null) {
+                url.append("&pagination.key=").append(encode(nextKey));
+            } else if (offset > 0) {
+                url.append("&pagination.offset=").append(offset);
+            }
+            URI uri = URI.create(url.toString());
+            logger.debug("Getting transaction history page from: {}", uri);
+            
+            CosmosTxDecoder.TxPage result = chainMetrics.time(ChainStage.HISTORY_PAGE,
+                    () -> chainEndpoints.getRest().read(() -> restTemplate.execute(uri, HttpMethod.GET, null,
+                            response -> CosmosTxDecoder.decodeSearch(response.getBody(), pageSize))));
+            
+            List<TransactionRecord> records = result.getRecords();
+            offset += records.size();
+            nextKey = result.getNextKey() == null || result.getNextKey().isEmpty() ? null : result.getNextKey();
+            exhausted = records.size() < pageSize || (result.getTotal() > 0 && offset >= result.getTotal());
+            page = records.iterator();
+        }
+    }
+    
+    /**
+     * Merges two newest-first histories. A transaction found by both searches, such as a transfer
+     * to oneself, is returned once.
+     */
+    private static final class NewestFirst implements Iterator<TransactionRecord> {
+        
+        private final PeekingIterator first;
+        private final PeekingIterator second;
+        private final Set<String> returnedAtHeight = new HashSet<>();
+        private long height = Long.MIN_VALUE;
+        
+        private NewestFirst(Iterator<TransactionRecord> first, Iterator<TransactionRecord> second) {
+            this.first = new PeekingIterator(first);
+            this.second = new PeekingIterator(second);
+        }
+        
+        @Override
+        public boolean hasNext() {
+            while (true) {
+                TransactionRecord head = first.peek();
+                TransactionRecord other = second.peek();
+                if (head == null && other == null) {
+                    return false;
+                }
+                TransactionRecord candidate = other == null || (head != null && head.getBlockNumber() >= other.getBlockNumber()) ? head : other;
+                if (candidate.getBlockNumber() != height || !returnedAtHeight.contains(candidate.getHash())) {
+                    return true;
+                }
+                (candidate == head ? first : second).next();
+            }
+        }
+        
+        @Override
+        public TransactionRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            TransactionRecord head = first.peek();
+            TransactionRecord other = second.peek();
+            TransactionRecord next = other == null || (head != null && head.getBlockNumber() >= other.getBlockNumber())
+                    ? first.next()
+                    : second.next();
+            if (next.getBlockNumber() != height) {
+                height = next.getBlockNumber();
+                returnedAtHeight.clear();
+            }
+            returnedAtHeight.add(next.getHash());
+            return next;
+        }
+    }
+    
+    private static final class PeekingIterator {
+        
+        private final Iterator<TransactionRecord> delegate;
+        private TransactionRecord peeked;
+        
+        private PeekingIterator(Iterator<TransactionRecord> delegate) {
+            this.delegate = delegate;
+        }
+        
+        private TransactionRecord peek() {
+            if (peeked == null && delegate.hasNext()) {
+                peeked = delegate.next();
+            }
+            return peeked;
+        }
+        
+        private TransactionRecord next() {
+            TransactionRecord next = peek();
+            peeked = null;
+            return next;
+        }
+    }
+    
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
     }
     
     /**
@@ -1,5 +1,11 @@
 package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos;
 
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxBroadcaster;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.metrics.ChainMetrics;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.service.AccountAddressRegistry;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.resilience.ChainEndpoints;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.config.DeadlineClientHttpRequestFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -23,13 +29,21 @@ public class CosmosSDKConfiguration {
     @Value("${cosmos.chain.id:quicktest}")
     private String chainId;
 
+    /**
+     * The REST client for the node. Without timeouts a hung node would hold every calling
+     * thread indefinitely; within a request, calls also time out at the request deadline.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(BlockchainConfig blockchainConfig) {
+        return new RestTemplate(new DeadlineClientHttpRequestFactory(blockchainConfig.getTimeoutMs()));
     }
 
     @Bean
-    public CosmosBlockchainService cosmosBlockchainService(RestTemplate restTemplate) {
-        return new CosmosBlockchainService(restTemplate, restEndpoint, rpcEndpoint, faucetEndpoint, chainId);
+    public CosmosBlockchainService cosmosBlockchainService(RestTemplate restTemplate,
+                                                           AccountAddressRegistry accountAddressRegistry,
+                                                           CosmosTxBroadcaster txBroadcaster,
+                                                           ChainEndpoints chainEndpoints,
+                                                           ChainMetrics chainMetrics) {
+        return new CosmosBlockchainService(restTemplate, accountAddressRegistry, txBroadcaster, chainEndpoints, chainMetrics, restEndpoint, rpcEndpoint, faucetEndpoint, chainId);
     }
 }
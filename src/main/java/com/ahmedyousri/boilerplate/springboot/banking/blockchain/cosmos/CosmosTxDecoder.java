@@ -0,0 +1,287 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.TransactionRecord;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes tx responses of the Cosmos REST gateway token by token into {@link TransactionRecord}s.
+ *
+ * <p>Only the fields a record needs are read; events, logs, signatures, fees and every message
+ * after the first are skipped without being materialized, so decoding a page allocates little more
+ * than the records it returns. Decoding stops as soon as the requested number of records has
+ * been read.</p>
+ */
+public final class CosmosTxDecoder {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final String DEFAULT_DENOM = "stake";
+
+    private static final String MSG_SEND = "/cosmos.bank.v1beta1.MsgSend";
+
+    private CosmosTxDecoder() {
+    }
+
+    /**
+     * Decode a page of {@code GET /cosmos/tx/v1beta1/txs} results.
+     *
+     * @param in         The response body
+     * @param maxRecords The number of records after which decoding stops
+     * @return The page
+     * @throws IOException If the body is not valid JSON
+     */
+    public static TxPage decodeSearch(InputStream in, int maxRecords) throws IOException {
+        TxPage page = new TxPage();
+        try (JsonParser parser = JSON.createParser(in)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("tx_responses".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        page.records.add(readTxResponse(parser));
+                        if (page.records.size() >= maxRecords) {
+                            page.truncated = true;
+                            return page;
+                        }
+                    }
+                } else if ("pagination".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String paginationField = parser.currentName();
+                        parser.nextToken();
+                        if ("next_key".equals(paginationField)) {
+                            page.nextKey = text(parser);
+                        } else if ("total".equals(paginationField)) {
+                            page.total = Math.max(page.total, number(parser));
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else if ("total".equals(field)) {
+                    page.total = Math.max(page.total, number(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Decode the result of {@code GET /cosmos/tx/v1beta1/txs/{hash}}.
+     *
+     * @param in The response body
+     * @return The transaction, or null if the body has no tx response
+     * @throws IOException If the body is not valid JSON
+     */
+    public static TransactionRecord decodeTx(InputStream in) throws IOException {
+        try (JsonParser parser = JSON.createParser(in)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() == JsonToken.START_OBJECT && "tx_response".equals(field)) {
+                    return readTxResponse(parser);
+                }
+                parser.skipChildren();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Read a tx response object; the parser is on its start token and is left on its end token.
+     */
+    private static TransactionRecord readTxResponse(JsonParser parser) throws IOException {
+        TransactionRecord record = TransactionRecord.builder()
+                .amount(BigDecimal.ZERO)
+                .currencyCode(DEFAULT_DENOM)
+                .blockHash("")
+                .build();
+        long code = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "txhash" -> {
+                    record.setHash(text(parser));
+                    record.setTransactionHash(record.getHash());
+                }
+                case "height" -> record.setBlockNumber(number(parser));
+                case "code" -> code = number(parser);
+                case "gas_wanted" -> record.setGasLimit(number(parser));
+                case "gas_used" -> record.setGasUsed(number(parser));
+                case "timestamp" -> {
+                    record.setCreatedAt(timestamp(text(parser)));
+                    record.setConfirmedAt(record.getCreatedAt());
+                }
+                case "block_hash" -> record.setBlockHash(text(parser));
+                default -> {
+                    if ("tx".equals(field) && value == JsonToken.START_OBJECT) {
+                        readTx(parser, record);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        record.setStatus(code == 0 ? "COMPLETED" : "FAILED");
+        return record;
+    }
+
+    private static void readTx(JsonParser parser, TransactionRecord record) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (!"body".equals(field) || value != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String bodyField = parser.currentName();
+                JsonToken bodyValue = parser.nextToken();
+                if ("messages".equals(bodyField) && bodyValue == JsonToken.START_ARRAY) {
+                    if (parser.nextToken() == JsonToken.START_OBJECT) {
+                        readMessage(parser, record);
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private static void readMessage(JsonParser parser, TransactionRecord record) throws IOException {
+        String type = null;
+        String amount = null;
+        String denom = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "@type" -> type = text(parser);
+                case "from_address" -> record.setFrom(text(parser));
+                case "to_address" -> record.setTo(text(parser));
+                default -> {
+                    if ("amount".equals(field) && value == JsonToken.START_ARRAY && amount == null) {
+                        if (parser.nextToken() == JsonToken.START_OBJECT) {
+                            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                                String coinField = parser.currentName();
+                                parser.nextToken();
+                                if ("amount".equals(coinField)) {
+                                    amount = text(parser);
+                                } else if ("denom".equals(coinField)) {
+                                    denom = text(parser);
+                                } else {
+                                    parser.skipChildren();
+                                }
+                            }
+                            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                                parser.skipChildren();
+                            }
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+
+        record.setType(type);
+        if (MSG_SEND.equals(type) && amount != null) {
+            record.setAmount(new BigDecimal(amount));
+            record.setCurrencyCode(denom != null ? denom : DEFAULT_DENOM);
+        }
+    }
+
+    private static String text(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+    }
+
+    /**
+     * Read a number that the gateway may encode either as a JSON number or as a string.
+     */
+    private static long number(JsonParser parser) throws IOException {
+        return parser.getValueAsLong(0);
+    }
+
+    private static LocalDateTime timestamp(String timestamp) {
+        if (timestamp == null || timestamp.isEmpty()) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(timestamp).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Expected " + expected + " but found " + actual);
+        }
+    }
+
+    /**
+     * A page of tx search results.
+     */
+    public static final class TxPage {
+
+        private final List<TransactionRecord> records = new ArrayList<>();
+
+        private String nextKey;
+
+        private long total;
+
+        private boolean truncated;
+
+        /**
+         * Get the records of the page, in response order.
+         *
+         * @return The records
+         */
+        public List<TransactionRecord> getRecords() {
+            return records;
+        }
+
+        /**
+         * Get the key of the next page.
+         *
+         * @return The key, or null if the node did not return one
+         */
+        public String getNextKey() {
+            return nextKey;
+        }
+
+        /**
+         * Get the total number of matching transactions, if the node counted them.
+         *
+         * @return The total, or 0 if unknown
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * Check whether decoding stopped at the record limit before the end of the body.
+         *
+         * @return True if the rest of the body was not read
+         */
+        public boolean isTruncated() {
+            return truncated;
+        }
+    }
+}
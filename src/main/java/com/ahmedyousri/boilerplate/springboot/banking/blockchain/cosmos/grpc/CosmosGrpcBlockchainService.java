@@ -0,0 +1,194 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.grpc;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.FinancialCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.CosmosBlockchainService;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.AccountBalance;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.TransactionRecord;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.service.AccountAddressRegistry;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.BlockchainService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Cosmos implementation of the BlockchainService interface over the gRPC query and tx services.
+ * Queries are issued as concurrent calls on the shared channel and decoded field by field, so the
+ * async methods never park a thread while waiting for the node. Commands are delegated to the
+ * {@link CosmosBlockchainService}; its signed broadcasts go over gRPC as well, because the
+ * {@link CosmosGrpcClient} replaces the REST broadcast transport when this service is enabled.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "blockchain.cosmos.grpc.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class CosmosGrpcBlockchainService implements BlockchainService {
+
+    private static final Logger log = LoggerFactory.getLogger(CosmosGrpcBlockchainService.class);
+
+    private static final String DEFAULT_DENOM = "stake";
+
+    private final CosmosGrpcClient grpcClient;
+    private final AccountAddressRegistry accountAddressRegistry;
+    private final CosmosBlockchainService cosmosBlockchainService;
+
+    @Override
+    public BlockchainResponse executeCommand(FinancialCommand command) {
+        return cosmosBlockchainService.executeCommand(command);
+    }
+
+    @Override
+    public CompletableFuture<BlockchainResponse> executeCommandAsync(FinancialCommand command) {
+        return cosmosBlockchainService.executeCommandAsync(command);
+    }
+
+    @Override
+    public AccountBalance getAccountBalance(UUID accountId) {
+        try {
+            return CosmosGrpcClient.join(getAccountBalanceAsync(accountId));
+        } catch (Exception e) {
+            log.error("Error getting account balance: {}", e.getMessage(), e);
+            throw new RuntimeException("Error getting account balance: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<AccountBalance> getAccountBalanceAsync(UUID accountId) {
+        String address = accountAddressRegistry.getAddress(accountId);
+        return grpcClient.getAllBalances(address).thenCombine(grpcClient.getLatestHeight(), (balances, height) -> {
+            BigDecimal balance = BigDecimal.ZERO;
+            String currencyCode = DEFAULT_DENOM;
+            if (!balances.isEmpty()) {
+                balance = new BigDecimal(balances.get(0).getAmount());
+                currencyCode = balances.get(0).getDenom();
+            }
+            return AccountBalance.builder()
+                    .accountId(accountId)
+                    .balance(balance)
+                    .currencyCode(currencyCode)
+                    .address(address)
+                    .blockNumber(height)
+                    .timestamp(LocalDateTime.now())
+                    .build();
+        });
+    }
+
+    @Override
+    public List<TransactionRecord> getTransactionHistory(UUID accountId, int limit) {
+        try {
+            return CosmosGrpcClient.join(getTransactionHistoryAsync(accountId, limit));
+        } catch (Exception e) {
+            log.error("Error getting transaction history: {}", e.getMessage(), e);
+            throw new RuntimeException("Error getting transaction history: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get the transaction history of an account asynchronously. Received and sent transactions
+     * are searched concurrently, merged newest first, and the block hashes of their heights are
+     * fetched concurrently as well.
+     *
+     * @param accountId The ID of the account
+     * @param limit     The maximum number of transactions to return
+     * @return A future that will complete with the transaction history
+     */
+    @Override
+    public CompletableFuture<List<TransactionRecord>> getTransactionHistoryAsync(UUID accountId, int limit) {
+        String address = accountAddressRegistry.getAddress(accountId);
+        CompletableFuture<List<CosmosGrpcClient.TxResult>> received = grpcClient.searchTxs("transfer.recipient='" + address + "'", limit);
+        CompletableFuture<List<CosmosGrpcClient.TxResult>> sent = grpcClient.searchTxs("transfer.sender='" + address + "'", limit);
+
+        return received.thenCombine(sent, (receivedTxs, sentTxs) -> {
+            Map<String, CosmosGrpcClient.TxResult> merged = new LinkedHashMap<>();
+            receivedTxs.forEach(tx -> merged.put(tx.getTxHash(), tx));
+            sentTxs.forEach(tx -> merged.putIfAbsent(tx.getTxHash(), tx));
+            List<CosmosGrpcClient.TxResult> txs = new ArrayList<>(merged.values());
+            txs.sort(Comparator.comparingLong(CosmosGrpcClient.TxResult::getHeight).reversed());
+            return txs.size() > limit ? txs.subList(0, limit) : txs;
+        }).thenCompose(txs -> {
+            Map<Long, CompletableFuture<String>> blockHashes = new HashMap<>();
+            txs.forEach(tx -> blockHashes.computeIfAbsent(tx.getHeight(), grpcClient::getBlockHash));
+            return CompletableFuture.allOf(blockHashes.values().toArray(new CompletableFuture[0])).thenApply(ignored -> {
+                List<TransactionRecord> transactions = new ArrayList<>(txs.size());
+                for (CosmosGrpcClient.TxResult tx : txs) {
+                    String description = tx.getFromAddress().equals(address)
+                            ? "Sent to " + tx.getToAddress()
+                            : "Received from " + tx.getFromAddress();
+                    transactions.add(toRecord(tx, blockHashes.get(tx.getHeight()).join(), description));
+                }
+                return transactions;
+            });
+        });
+    }
+
+    /**
+     * Stream the transaction history of an account through the {@link CosmosBlockchainService},
+     * whose REST tx search pages by key or offset.
+     */
+    @Override
+    public Stream<TransactionRecord> streamTransactionHistory(UUID accountId) {
+        return cosmosBlockchainService.streamTransactionHistory(accountId);
+    }
+
+    @Override
+    public TransactionRecord getTransaction(String transactionHash) {
+        try {
+            return CosmosGrpcClient.join(getTransactionAsync(transactionHash));
+        } catch (Exception e) {
+            log.error("Error getting transaction: {}", e.getMessage(), e);
+            throw new RuntimeException("Error getting transaction: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<TransactionRecord> getTransactionAsync(String transactionHash) {
+        return grpcClient.getTx(transactionHash).thenCompose(tx -> grpcClient.getBlockHash(tx.getHeight())
+                .thenApply(blockHash -> toRecord(tx, blockHash,
+                        "Transfer from " + tx.getFromAddress() + " to " + tx.getToAddress())));
+    }
+
+    private TransactionRecord toRecord(CosmosGrpcClient.TxResult tx, String blockHash, String description) {
+        LocalDateTime timestamp = parseTimestamp(tx.getTimestamp());
+        return TransactionRecord.builder()
+                .hash(tx.getTxHash())
+                .transactionHash(tx.getTxHash())
+                .from(tx.getFromAddress())
+                .to(tx.getToAddress())
+                .fromAccount(accountAddressRegistry.findAccountId(tx.getFromAddress()).orElse(null))
+                .toAccount(accountAddressRegistry.findAccountId(tx.getToAddress()).orElse(null))
+                .blockHash(blockHash)
+                .blockNumber(tx.getHeight())
+                .createdAt(timestamp)
+                .confirmedAt(timestamp)
+                .status(tx.getCode() == 0 ? "COMPLETED" : "FAILED")
+                .amount(new BigDecimal(tx.getAmount()))
+                .currencyCode(tx.getDenom().isEmpty() ? DEFAULT_DENOM : tx.getDenom())
+                .description(description)
+                .build();
+    }
+
+    private static LocalDateTime parseTimestamp(String timestamp) {
+        try {
+            return OffsetDateTime.parse(timestamp).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.grpc;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.AccountSequenceManager;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxEncoder;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxTransport;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.MethodDescriptor;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.StreamObserver;
+import lombok.Value;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client for the Cosmos SDK gRPC query and transaction services.
+ *
+ * <p>All calls share one channel, so concurrent requests are multiplexed as HTTP/2 streams over
+ * a single connection instead of each holding a pooled HTTP/1.1 connection. Method descriptors
+ * are declared by hand with a pass-through byte marshaller, and messages are encoded and decoded
+ * field by field with {@link ProtoFields}, so no generated stubs are needed and responses are
+ * not materialized as object trees.</p>
+ */
+public class CosmosGrpcClient implements CosmosTxTransport {
+
+    static final MethodDescriptor<byte[], byte[]> ALL_BALANCES = unary("cosmos.bank.v1beta1.Query/AllBalances");
+
+    static final MethodDescriptor<byte[], byte[]> ACCOUNT = unary("cosmos.auth.v1beta1.Query/Account");
+
+    static final MethodDescriptor<byte[], byte[]> GET_LATEST_BLOCK = unary("cosmos.base.tendermint.v1beta1.Service/GetLatestBlock");
+
+    static final MethodDescriptor<byte[], byte[]> GET_BLOCK_BY_HEIGHT = unary("cosmos.base.tendermint.v1beta1.Service/GetBlockByHeight");
+
+    static final MethodDescriptor<byte[], byte[]> GET_TX = unary("cosmos.tx.v1beta1.Service/GetTx");
+
+    static final MethodDescriptor<byte[], byte[]> GET_TXS_EVENT = unary("cosmos.tx.v1beta1.Service/GetTxsEvent");
+
+    static final MethodDescriptor<byte[], byte[]> BROADCAST_TX = unary("cosmos.tx.v1beta1.Service/BroadcastTx");
+
+    private static final int BROADCAST_MODE_SYNC = 2;
+
+    private static final int ORDER_BY_ASC = 1;
+
+    private static final int ORDER_BY_DESC = 2;
+
+    private final Channel channel;
+
+    private final long timeoutMs;
+
+    /**
+     * Create a client.
+     *
+     * @param channel   The shared channel
+     * @param timeoutMs The deadline applied to each call
+     */
+    public CosmosGrpcClient(Channel channel, long timeoutMs) {
+        this.channel = channel;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Get all balances of an address.
+     *
+     * @param address The account address
+     * @return The balances
+     */
+    public CompletableFuture<List<Coin>> getAllBalances(String address) {
+        byte[] request = ProtoFields.encode(out -> out.writeString(1, address));
+        return call(ALL_BALANCES, request).thenApply(response -> {
+            List<Coin> balances = new ArrayList<>();
+            for (ProtoFields coin : ProtoFields.parse(response).messages(1)) {
+                balances.add(new Coin(coin.string(1), coin.string(2)));
+            }
+            return balances;
+        });
+    }
+
+    /**
+     * Get the height of the latest block.
+     *
+     * @return The height
+     */
+    public CompletableFuture<Long> getLatestHeight() {
+        return call(GET_LATEST_BLOCK, new byte[0])
+                .thenApply(response -> ProtoFields.parse(response).message(2).message(1).varint(3));
+    }
+
+    /**
+     * Get the hash of the block at a height.
+     *
+     * @param height The block height
+     * @return The block hash as upper-case hex
+     */
+    public CompletableFuture<String> getBlockHash(long height) {
+        byte[] request = ProtoFields.encode(out -> out.writeInt64(1, height));
+        return call(GET_BLOCK_BY_HEIGHT, request)
+                .thenApply(response -> HexFormat.of().withUpperCase().formatHex(ProtoFields.parse(response).message(1).bytes(1)));
+    }
+
+    /**
+     * Get a transaction by hash.
+     *
+     * @param hash The transaction hash
+     * @return The transaction
+     */
+    public CompletableFuture<TxResult> getTx(String hash) {
+        byte[] request = ProtoFields.encode(out -> out.writeString(1, hash));
+        return call(GET_TX, request).thenApply(response -> {
+            ProtoFields fields = ProtoFields.parse(response);
+            return toTxResult(fields.message(1), fields.message(2));
+        });
+    }
+
+    /**
+     * Search transactions by event query, newest first.
+     *
+     * @param query The event query, e.g. {@code transfer.recipient='cosmos1...'}
+     * @param limit The maximum number of transactions
+     * @return The matching transactions
+     */
+    public CompletableFuture<List<TxResult>> searchTxs(String query, int limit) {
+        return searchTxsPage(query, 1, limit, false).thenApply(TxPage::getTxs);
+    }
+
+    /**
+     * Get one page of the transactions matching an event query.
+     *
+     * @param query     The event query, e.g. {@code tx.height>=10 AND tx.height<=20}
+     * @param page      The page number, starting at 1
+     * @param limit     The page size
+     * @param ascending True to order by height ascending, false for newest first
+     * @return The page and the total number of matches
+     */
+    public CompletableFuture<TxPage> searchTxsPage(String query, int page, int limit, boolean ascending) {
+        byte[] request = ProtoFields.encode(out -> {
+            out.writeEnum(3, ascending ? ORDER_BY_ASC : ORDER_BY_DESC);
+            out.writeUInt64(4, page);
+            out.writeUInt64(5, limit);
+            out.writeString(6, query);
+        });
+        return call(GET_TXS_EVENT, request).thenApply(response -> {
+            ProtoFields fields = ProtoFields.parse(response);
+            List<ProtoFields> txs = fields.messages(1);
+            List<ProtoFields> txResponses = fields.messages(2);
+            List<TxResult> results = new ArrayList<>(txResponses.size());
+            for (int i = 0; i < txResponses.size(); i++) {
+                results.add(toTxResult(i < txs.size() ? txs.get(i) : ProtoFields.parse(new byte[0]), txResponses.get(i)));
+            }
+            return new TxPage(results, fields.varint(4));
+        });
+    }
+
+    /**
+     * Broadcast a signed transaction asynchronously.
+     *
+     * @param txBytes The encoded {@code TxRaw}
+     * @return The result of the mempool check
+     */
+    public CompletableFuture<BroadcastResult> broadcastSyncAsync(byte[] txBytes) {
+        byte[] request = ProtoFields.encode(out -> {
+            out.writeByteArray(1, txBytes);
+            out.writeEnum(2, BROADCAST_MODE_SYNC);
+        });
+        return call(BROADCAST_TX, request).thenApply(response -> {
+            ProtoFields txResponse = ProtoFields.parse(response).message(1);
+            return new BroadcastResult((int) txResponse.varint(4), txResponse.string(2), txResponse.string(6));
+        });
+    }
+
+    @Override
+    public BroadcastResult broadcastSync(byte[] txBytes) {
+        return join(broadcastSyncAsync(txBytes));
+    }
+
+    @Override
+    public AccountSequenceManager.AccountInfo loadAccount(String address) {
+        byte[] request = ProtoFields.encode(out -> out.writeString(1, address));
+        ProtoFields account = ProtoFields.parse(join(call(ACCOUNT, request))).message(1).message(2);
+        return new AccountSequenceManager.AccountInfo(account.varint(3), account.varint(4));
+    }
+
+    /**
+     * Wait for a call and unwrap its failure.
+     *
+     * @param future The call
+     * @param <T>    The result type
+     * @return The result
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private CompletableFuture<byte[]> call(MethodDescriptor<byte[], byte[]> method, byte[] request) {
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        ClientCalls.asyncUnaryCall(
+                channel.newCall(method, CallOptions.DEFAULT.withDeadlineAfter(timeoutMs, TimeUnit.MILLISECONDS)),
+                request,
+                new StreamObserver<>() {
+                    @Override
+                    public void onNext(byte[] value) {
+                        future.complete(value);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        future.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        // The value has already been delivered to onNext
+                    }
+                });
+        return future;
+    }
+
+    private static TxResult toTxResult(ProtoFields tx, ProtoFields txResponse) {
+        List<BankSend> bankSends = new ArrayList<>(1);
+        List<ProtoFields> messages = tx.message(1).messages(1);
+        for (int i = 0; i < messages.size(); i++) {
+            if (!CosmosTxEncoder.MSG_SEND_TYPE_URL.equals(messages.get(i).string(1))) {
+                continue;
+            }
+            ProtoFields msgSend = messages.get(i).message(2);
+            List<Coin> coins = new ArrayList<>(1);
+            for (ProtoFields coin : msgSend.messages(3)) {
+                coins.add(new Coin(coin.string(1), coin.string(2)));
+            }
+            bankSends.add(new BankSend(i, msgSend.string(1), msgSend.string(2), coins));
+        }
+
+        String fromAddress = "";
+        String toAddress = "";
+        String amount = "0";
+        String denom = "";
+        if (!bankSends.isEmpty() && bankSends.get(0).getMessageIndex() == 0) {
+            BankSend first = bankSends.get(0);
+            fromAddress = first.getFromAddress();
+            toAddress = first.getToAddress();
+            if (!first.getAmount().isEmpty()) {
+                denom = first.getAmount().get(0).getDenom();
+                amount = first.getAmount().get(0).getAmount();
+            }
+        }
+
+        return new TxResult(
+                txResponse.varint(1),
+                txResponse.string(2),
+                (int) txResponse.varint(4),
+                txResponse.string(6),
+                txResponse.string(12),
+                fromAddress,
+                toAddress,
+                amount,
+                denom,
+                bankSends);
+    }
+
+    private static MethodDescriptor<byte[], byte[]> unary(String fullMethodName) {
+        return MethodDescriptor.<byte[], byte[]>newBuilder()
+                .setType(MethodDescriptor.MethodType.UNARY)
+                .setFullMethodName(fullMethodName)
+                .setRequestMarshaller(ByteMarshaller.INSTANCE)
+                .setResponseMarshaller(ByteMarshaller.INSTANCE)
+                .build();
+    }
+
+    /**
+     * A coin amount.
+     */
+    @Value
+    public static class Coin {
+
+        /**
+         * The denomination.
+         */
+        String denom;
+
+        /**
+         * The amount in base units.
+         */
+        String amount;
+    }
+
+    /**
+     * A transaction with its first bank send message decoded.
+     */
+    @Value
+    public static class TxResult {
+
+        /**
+         * The block height.
+         */
+        long height;
+
+        /**
+         * The transaction hash.
+         */
+        String txHash;
+
+        /**
+         * The ABCI result code, 0 on success.
+         */
+        int code;
+
+        /**
+         * The raw log.
+         */
+        String rawLog;
+
+        /**
+         * The block time as an RFC 3339 string.
+         */
+        String timestamp;
+
+        /**
+         * The sender of the first bank send, empty if there is none.
+         */
+        String fromAddress;
+
+        /**
+         * The recipient of the first bank send, empty if there is none.
+         */
+        String toAddress;
+
+        /**
+         * The amount of the first bank send in base units.
+         */
+        String amount;
+
+        /**
+         * The denomination of the first bank send.
+         */
+        String denom;
+
+        /**
+         * All bank send messages in the transaction.
+         */
+        List<BankSend> bankSends;
+    }
+
+    /**
+     * A bank send message and its position in the transaction.
+     */
+    @Value
+    public static class BankSend {
+
+        /**
+         * The index of the message in the transaction body.
+         */
+        int messageIndex;
+
+        /**
+         * The sender address.
+         */
+        String fromAddress;
+
+        /**
+         * The recipient address.
+         */
+        String toAddress;
+
+        /**
+         * The coins sent.
+         */
+        List<Coin> amount;
+    }
+
+    /**
+     * A page of transaction search results.
+     */
+    @Value
+    public static class TxPage {
+
+        /**
+         * The transactions on this page.
+         */
+        List<TxResult> txs;
+
+        /**
+         * The total number of matching transactions.
+         */
+        long total;
+    }
+
+    /**
+     * Marshaller that passes serialized messages through unchanged.
+     */
+    static final class ByteMarshaller implements MethodDescriptor.Marshaller<byte[]> {
+
+        static final ByteMarshaller INSTANCE = new ByteMarshaller();
+
+        @Override
+        public InputStream stream(byte[] value) {
+            return new ByteArrayInputStream(value);
+        }
+
+        @Override
+        public byte[] parse(InputStream stream) {
+            try {
+                return stream.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.grpc;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration for the Cosmos gRPC transport. A single channel is shared by all queries and
+ * broadcasts; keep-alive pings hold the connection open between bursts of traffic.
+ */
+@Configuration
+@ConditionalOnProperty(name = "blockchain.cosmos.grpc.enabled", havingValue = "true")
+public class CosmosGrpcConfiguration {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ManagedChannel cosmosGrpcChannel(BlockchainConfig blockchainConfig) {
+        return NettyChannelBuilder.forTarget(blockchainConfig.getCosmosGrpcEndpoint())
+                .usePlaintext()
+                .keepAliveTime(blockchainConfig.getCosmosGrpcKeepAliveMs(), TimeUnit.MILLISECONDS)
+                .keepAliveWithoutCalls(true)
+                .build();
+    }
+
+    /**
+     * The gRPC client, which also replaces the REST transport for signed broadcasts.
+     */
+    @Bean
+    @Primary
+    public CosmosGrpcClient cosmosGrpcClient(ManagedChannel cosmosGrpcChannel, BlockchainConfig blockchainConfig) {
+        return new CosmosGrpcClient(cosmosGrpcChannel, blockchainConfig.getTimeoutMs());
+    }
+}
@@ -0,0 +1,154 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.grpc;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schema-less view of a decoded protobuf message, used instead of generated classes for the
+ * handful of Cosmos query and transaction types the gRPC client reads. Length-delimited fields
+ * are kept as raw bytes and decoded lazily, so nested messages that are never read cost nothing.
+ */
+final class ProtoFields {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Map<Integer, List<Object>> values;
+
+    private ProtoFields(Map<Integer, List<Object>> values) {
+        this.values = values;
+    }
+
+    /**
+     * Decode the top-level fields of a message.
+     *
+     * @param message The encoded message
+     * @return The fields
+     */
+    static ProtoFields parse(byte[] message) {
+        Map<Integer, List<Object>> values = new HashMap<>();
+        try {
+            CodedInputStream input = CodedInputStream.newInstance(message);
+            int tag;
+            while ((tag = input.readTag()) != 0) {
+                Object value;
+                switch (WireFormat.getTagWireType(tag)) {
+                    case WireFormat.WIRETYPE_VARINT:
+                        value = input.readUInt64();
+                        break;
+                    case WireFormat.WIRETYPE_FIXED64:
+                        value = input.readFixed64();
+                        break;
+                    case WireFormat.WIRETYPE_FIXED32:
+                        value = (long) input.readFixed32();
+                        break;
+                    case WireFormat.WIRETYPE_LENGTH_DELIMITED:
+                        value = input.readByteArray();
+                        break;
+                    default:
+                        input.skipField(tag);
+                        continue;
+                }
+                values.computeIfAbsent(WireFormat.getTagFieldNumber(tag), key -> new ArrayList<>(1)).add(value);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid protobuf message", e);
+        }
+        return new ProtoFields(values);
+    }
+
+    /**
+     * Get a length-delimited field.
+     *
+     * @param field The field number
+     * @return The bytes of the last occurrence, or an empty array if absent
+     */
+    byte[] bytes(int field) {
+        List<Object> occurrences = values.get(field);
+        return occurrences == null ? EMPTY : (byte[]) occurrences.get(occurrences.size() - 1);
+    }
+
+    /**
+     * Get a string field.
+     *
+     * @param field The field number
+     * @return The string, or an empty string if absent
+     */
+    String string(int field) {
+        return new String(bytes(field), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get a varint field.
+     *
+     * @param field The field number
+     * @return The value, or 0 if absent
+     */
+    long varint(int field) {
+        List<Object> occurrences = values.get(field);
+        return occurrences == null ? 0L : (Long) occurrences.get(occurrences.size() - 1);
+    }
+
+    /**
+     * Get an embedded message field.
+     *
+     * @param field The field number
+     * @return The decoded message, empty if absent
+     */
+    ProtoFields message(int field) {
+        return parse(bytes(field));
+    }
+
+    /**
+     * Get all occurrences of a repeated embedded message field.
+     *
+     * @param field The field number
+     * @return The decoded messages in wire order
+     */
+    List<ProtoFields> messages(int field) {
+        List<Object> occurrences = values.get(field);
+        if (occurrences == null) {
+            return List.of();
+        }
+        List<ProtoFields> messages = new ArrayList<>(occurrences.size());
+        for (Object occurrence : occurrences) {
+            messages.add(parse((byte[]) occurrence));
+        }
+        return messages;
+    }
+
+    /**
+     * Encode a message.
+     *
+     * @param writer Writes the fields
+     * @return The encoded message
+     */
+    static byte[] encode(FieldWriter writer) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+            writer.write(out);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the fields of a message.
+     */
+    @FunctionalInterface
+    interface FieldWriter {
+        void write(CodedOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,136 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing;
+
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Hands out account sequence numbers per signer without waiting for earlier transactions
+ * to be committed, so many signed transactions can be in flight within one block.
+ *
+ * <p>Sequences are reserved optimistically from a local counter that is loaded from the chain
+ * on first use. When the chain rejects a transaction, the signer is resynchronized to the
+ * sequence the chain expects. Each resynchronization starts a new generation; failures
+ * reported for reservations from an older generation are ignored, so a burst of rejections
+ * caused by one gap only resets the counter once.</p>
+ */
+public class AccountSequenceManager {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountSequenceManager.class);
+
+    private final Function<String, AccountInfo> accountLoader;
+
+    private final Map<String, SignerState> signers = new ConcurrentHashMap<>();
+
+    /**
+     * Create a sequence manager.
+     *
+     * @param accountLoader Loads the committed account number and sequence of an address from the chain
+     */
+    public AccountSequenceManager(Function<String, AccountInfo> accountLoader) {
+        this.accountLoader = accountLoader;
+    }
+
+    /**
+     * Reserve the next sequence number of a signer.
+     *
+     * @param address The signer address
+     * @return The reservation
+     */
+    public Reservation reserve(String address) {
+        SignerState state = signers.computeIfAbsent(address, key -> new SignerState());
+        synchronized (state) {
+            if (!state.loaded) {
+                load(address, state);
+            }
+            return new Reservation(state.accountNumber, state.nextSequence++, state.generation);
+        }
+    }
+
+    /**
+     * Resynchronize a signer after the chain rejected a transaction.
+     *
+     * @param address          The signer address
+     * @param failed           The reservation of the rejected transaction
+     * @param expectedSequence The sequence the chain expects next, or null to reload it from the chain
+     * @return True if the counter was reset, false if a newer resynchronization already happened
+     */
+    public boolean resynchronize(String address, Reservation failed, Long expectedSequence) {
+        SignerState state = signers.computeIfAbsent(address, key -> new SignerState());
+        synchronized (state) {
+            if (failed.getGeneration() != state.generation) {
+                return false;
+            }
+            state.generation++;
+            if (expectedSequence != null) {
+                log.warn("Resynchronizing sequence of {} from {} to {}", address, state.nextSequence, expectedSequence);
+                state.nextSequence = expectedSequence;
+            } else {
+                load(address, state);
+            }
+            return true;
+        }
+    }
+
+    private void load(String address, SignerState state) {
+        AccountInfo account = accountLoader.apply(address);
+        log.info("Loaded account {} with number {} and sequence {}", address, account.getAccountNumber(), account.getSequence());
+        state.accountNumber = account.getAccountNumber();
+        state.nextSequence = account.getSequence();
+        state.loaded = true;
+    }
+
+    /**
+     * A reserved sequence number.
+     */
+    @Value
+    public static class Reservation {
+
+        /**
+         * The signer's account number.
+         */
+        long accountNumber;
+
+        /**
+         * The reserved sequence.
+         */
+        long sequence;
+
+        /**
+         * The resynchronization generation the reservation belongs to.
+         */
+        long generation;
+    }
+
+    /**
+     * The committed state of an account on the chain.
+     */
+    @Value
+    public static class AccountInfo {
+
+        /**
+         * The account number.
+         */
+        long accountNumber;
+
+        /**
+         * The next sequence.
+         */
+        long sequence;
+    }
+
+    private static final class SignerState {
+
+        private boolean loaded;
+
+        private long accountNumber;
+
+        private long nextSequence;
+
+        private long generation;
+    }
+}
@@ -0,0 +1,69 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing;
+
+import com.ahmedyousri.boilerplate.springboot.banking.util.Bech32;
+import com.ahmedyousri.boilerplate.springboot.banking.util.Ripemd160;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * A secp256k1 key that signs Cosmos transactions, with the account address derived from it.
+ */
+public class CosmosSigner {
+
+    private final byte[] privateKey;
+
+    private final byte[] publicKey;
+
+    private final String address;
+
+    /**
+     * Create a signer.
+     *
+     * @param privateKeyHex The 32-byte private key as hex, optionally prefixed with "0x"
+     * @param addressPrefix The bech32 address prefix, e.g. "cosmos"
+     */
+    public CosmosSigner(String privateKeyHex, String addressPrefix) {
+        String hex = privateKeyHex.startsWith("0x") ? privateKeyHex.substring(2) : privateKeyHex;
+        this.privateKey = HexFormat.of().parseHex(hex);
+        this.publicKey = Secp256k1.publicKey(privateKey);
+        this.address = Bech32.encode(addressPrefix, Ripemd160.digest(sha256(publicKey)));
+    }
+
+    /**
+     * Sign an encoded sign doc.
+     *
+     * @param signDoc The encoded {@code SignDoc}
+     * @return The 64-byte signature
+     */
+    public byte[] sign(byte[] signDoc) {
+        return Secp256k1.sign(sha256(signDoc), privateKey);
+    }
+
+    /**
+     * Get the compressed public key.
+     *
+     * @return The 33-byte public key
+     */
+    public byte[] getPublicKey() {
+        return publicKey.clone();
+    }
+
+    /**
+     * Get the account address.
+     *
+     * @return The bech32 address
+     */
+    public String getAddress() {
+        return address;
+    }
+
+    static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.service.AccountAddressRegistry;
+import com.ahmedyousri.boilerplate.springboot.banking.util.DaemonThreads;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Signs bank sends locally with the system account key and broadcasts them without waiting
+ * for each one to be committed.
+ *
+ * <p>Each send reserves a sequence from the {@link AccountSequenceManager} and is signed on a
+ * dedicated pool, so signing runs in parallel. Broadcasts for a signer are chained in sequence
+ * order, because the chain's mempool rejects a sequence that arrives before its predecessor.
+ * Broadcasts use {@code BROADCAST_MODE_SYNC}, which returns after the mempool check, so many
+ * transactions from the same signer can land in one block. When the chain reports an account
+ * sequence mismatch, the signer is resynchronized and the send is re-signed with a new sequence.</p>
+ */
+@Service
+public class CosmosTxBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(CosmosTxBroadcaster.class);
+
+    /**
+     * ABCI code of {@code ErrWrongSequence} in the Cosmos SDK.
+     */
+    static final int SEQUENCE_MISMATCH_CODE = 32;
+
+    private static final Pattern EXPECTED_SEQUENCE = Pattern.compile("expected (\\d+), got (\\d+)");
+
+    private final BlockchainConfig blockchainConfig;
+
+    private final CosmosTxTransport transport;
+
+    private final Object broadcastLaneLock = new Object();
+
+    private CosmosSigner signer;
+
+    private AccountSequenceManager sequenceManager;
+
+    private ExecutorService signingExecutor;
+
+    private ExecutorService broadcastExecutor;
+
+    // Completes when the most recently reserved transaction has been broadcast
+    private CompletableFuture<?> broadcastLane = CompletableFuture.completedFuture(null);
+
+    public CosmosTxBroadcaster(BlockchainConfig blockchainConfig, CosmosTxTransport transport) {
+        this.blockchainConfig = blockchainConfig;
+        this.transport = transport;
+    }
+
+    /**
+     * Load the signing key and start the signing pool if local signing is enabled.
+     */
+    @PostConstruct
+    public void initialize() {
+        if (!blockchainConfig.isCosmosSigningEnabled()) {
+            return;
+        }
+
+        signer = new CosmosSigner(blockchainConfig.getSystemAccountPrivateKey(), AccountAddressRegistry.ADDRESS_PREFIX);
+        sequenceManager = new AccountSequenceManager(transport::loadAccount);
+
+        int parallelism = blockchainConfig.getCosmosSigningParallelism() > 0
+                ? blockchainConfig.getCosmosSigningParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        signingExecutor = Executors.newFixedThreadPool(parallelism, DaemonThreads.named("cosmos-signer-"));
+        broadcastExecutor = Executors.newSingleThreadExecutor(DaemonThreads.named("cosmos-broadcast-"));
+        log.info("Local signing enabled for {} with {} signing threads", signer.getAddress(), parallelism);
+    }
+
+    /**
+     * Stop the signing pool.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (signingExecutor != null) {
+            signingExecutor.shutdownNow();
+            broadcastExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Check whether local signing is enabled.
+     *
+     * @return True if sends are signed locally
+     */
+    public boolean isEnabled() {
+        return signer != null;
+    }
+
+    /**
+     * Get the address of the signing account.
+     *
+     * @return The bech32 address
+     */
+    public String getSignerAddress() {
+        return signer.getAddress();
+    }
+
+    /**
+     * Sign and broadcast a bank send from the signing account.
+     *
+     * @param toAddress The recipient address
+     * @param amount    The amount in base units
+     * @param denom     The token denomination
+     * @param memo      The memo, may be null
+     * @return A future completed with the transaction hash once the chain has accepted the transaction into its mempool
+     */
+    public CompletableFuture<String> send(String toAddress, BigDecimal amount, String denom, String memo) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Local signing is not enabled");
+        }
+        byte[] message = CosmosTxEncoder.msgSend(signer.getAddress(), toAddress, amount.toPlainString(), denom);
+        return submit(CosmosTxEncoder.txBody(message, memo), 1);
+    }
+
+    private CompletableFuture<String> submit(byte[] body, int attempt) {
+        AccountSequenceManager.Reservation reservation;
+        CompletableFuture<CosmosTxTransport.BroadcastResult> broadcast;
+
+        synchronized (broadcastLaneLock) {
+            reservation = sequenceManager.reserve(signer.getAddress());
+            AccountSequenceManager.Reservation reserved = reservation;
+            CompletableFuture<byte[]> signed = CompletableFuture.supplyAsync(() -> sign(body, reserved), signingExecutor);
+            broadcast = broadcastLane
+                    .handle((ignored, error) -> null)
+                    .thenCombine(signed, (ignored, txBytes) -> txBytes)
+                    .thenApplyAsync(transport::broadcastSync, broadcastExecutor);
+            broadcastLane = broadcast;
+        }
+
+        AccountSequenceManager.Reservation reserved = reservation;
+        return broadcast.handle((result, error) -> {
+            if (error != null) {
+                // The outcome is unknown, so reload the sequence from the chain but do not resend
+                sequenceManager.resynchronize(signer.getAddress(), reserved, null);
+                return CompletableFuture.<String>failedFuture(error);
+            }
+            if (result.getCode() == 0) {
+                return CompletableFuture.completedFuture(result.getTxHash());
+            }
+
+            Long expected = result.getCode() == SEQUENCE_MISMATCH_CODE ? parseExpectedSequence(result.getRawLog()) : null;
+            // A rejected transaction does not consume its sequence, so the chain expects it again
+            sequenceManager.resynchronize(signer.getAddress(), reserved, expected != null ? expected : reserved.getSequence());
+            if (result.getCode() == SEQUENCE_MISMATCH_CODE && attempt < blockchainConfig.getRetryMaxAttempts()) {
+                log.debug("Sequence {} rejected, re-signing (attempt {})", reserved.getSequence(), attempt + 1);
+                return submit(body, attempt + 1);
+            }
+            return CompletableFuture.<String>failedFuture(new IllegalStateException(
+                    "Broadcast rejected with code " + result.getCode() + ": " + result.getRawLog()));
+        }).thenCompose(future -> future);
+    }
+
+    private byte[] sign(byte[] body, AccountSequenceManager.Reservation reservation) {
+        byte[] authInfo = CosmosTxEncoder.authInfo(
+                signer.getPublicKey(),
+                reservation.getSequence(),
+                blockchainConfig.getCosmosSigningGasLimit(),
+                blockchainConfig.getCosmosSigningFeeAmount(),
+                blockchainConfig.getCosmosSigningFeeDenom());
+        byte[] signDoc = CosmosTxEncoder.signDoc(body, authInfo, blockchainConfig.getCosmosChainId(), reservation.getAccountNumber());
+        return CosmosTxEncoder.txRaw(body, authInfo, signer.sign(signDoc));
+    }
+
+    static Long parseExpectedSequence(String rawLog) {
+        Matcher matcher = EXPECTED_SEQUENCE.matcher(rawLog);
+        return matcher.find() ? Long.valueOf(matcher.group(1)) : null;
+    }
+}
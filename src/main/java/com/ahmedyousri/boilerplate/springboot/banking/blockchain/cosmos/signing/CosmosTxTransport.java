@@ -0,0 +1,47 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing;
+
+import lombok.Value;
+
+/**
+ * The chain operations needed to broadcast signed transactions.
+ */
+public interface CosmosTxTransport {
+
+    /**
+     * Broadcast a signed transaction and wait for the mempool check.
+     *
+     * @param txBytes The encoded {@code TxRaw}
+     * @return The result of the mempool check
+     */
+    BroadcastResult broadcastSync(byte[] txBytes);
+
+    /**
+     * Load the committed account number and sequence of an address.
+     *
+     * @param address The account address
+     * @return The account state
+     */
+    AccountSequenceManager.AccountInfo loadAccount(String address);
+
+    /**
+     * The result of a broadcast.
+     */
+    @Value
+    class BroadcastResult {
+
+        /**
+         * The ABCI result code, 0 on success.
+         */
+        int code;
+
+        /**
+         * The transaction hash.
+         */
+        String txHash;
+
+        /**
+         * The raw log, which carries the error message on failure.
+         */
+        String rawLog;
+    }
+}
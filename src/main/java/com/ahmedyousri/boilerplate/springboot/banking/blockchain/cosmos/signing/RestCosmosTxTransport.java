@@ -0,0 +1,70 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Transaction transport over the Cosmos REST gateway.
+ */
+@Component
+public class RestCosmosTxTransport implements CosmosTxTransport {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final BlockchainConfig blockchainConfig;
+
+    private final RestTemplate restTemplate;
+
+    public RestCosmosTxTransport(BlockchainConfig blockchainConfig, RestTemplate restTemplate) {
+        this.blockchainConfig = blockchainConfig;
+        this.restTemplate = restTemplate;
+    }
+
+    @Override
+    public BroadcastResult broadcastSync(byte[] txBytes) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("tx_bytes", Base64.getEncoder().encodeToString(txBytes));
+        requestBody.put("mode", "BROADCAST_MODE_SYNC");
+
+        String response = restTemplate.postForObject(
+                blockchainConfig.getCosmosRestEndpoint() + "/cosmos/tx/v1beta1/txs",
+                new HttpEntity<>(requestBody, headers),
+                String.class);
+        try {
+            JsonNode txResponse = objectMapper.readTree(response).path("tx_response");
+            return new BroadcastResult(
+                    txResponse.path("code").asInt(0),
+                    txResponse.path("txhash").asText(),
+                    txResponse.path("raw_log").asText(""));
+        } catch (Exception e) {
+            throw new IllegalStateException("Invalid broadcast response: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public AccountSequenceManager.AccountInfo loadAccount(String address) {
+        String response = restTemplate.getForObject(
+                blockchainConfig.getCosmosRestEndpoint() + "/cosmos/auth/v1beta1/accounts/" + address, String.class);
+        try {
+            JsonNode account = objectMapper.readTree(response).path("account");
+            return new AccountSequenceManager.AccountInfo(
+                    account.path("account_number").asLong(0),
+                    account.path("sequence").asLong(0));
+        } catch (Exception e) {
+            throw new IllegalStateException("Invalid account response for " + address + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.lang.reflect.Method;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * ECDSA over secp256k1 as used by Cosmos SDK accounts: compressed public keys and
+ * 64-byte {@code r || s} signatures with low-S normalization.
+ *
+ * <p>Signing uses the vendored {@code org.bitcoin.NativeSecp256k1} binding when it is on the
+ * classpath and its native library is loaded. Otherwise it falls back to a pure-Java
+ * implementation with Jacobian coordinates and RFC 6979 deterministic nonces. The fallback is
+ * not constant-time, so hosts holding production keys should provide the native library.</p>
+ */
+public final class Secp256k1 {
+
+    private static final Logger log = LoggerFactory.getLogger(Secp256k1.class);
+
+    private static final BigInteger P = new BigInteger("FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFEFFFFFC2F", 16);
+
+    private static final BigInteger N = new BigInteger("FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFEBAAEDCE6AF48A03BBFD25E8CD0364141", 16);
+
+    private static final BigInteger HALF_N = N.shiftRight(1);
+
+    private static final BigInteger[] G = {
+            new BigInteger("79BE667EF9DCBBAC55A06295CE870B07029BFCDB2DCE28D959F2815B16F81798", 16),
+            new BigInteger("483ADA7726A3C4655DA4FBFC0E1108A8FD17B448A68554199C47D08FFB10D4B8", 16),
+            BigInteger.ONE};
+
+    private static final BigInteger SEVEN = BigInteger.valueOf(7);
+
+    private static final Method NATIVE_SIGN = loadNativeSign();
+
+    private Secp256k1() {
+    }
+
+    /**
+     * Derive the compressed public key of a private key.
+     *
+     * @param privateKey The 32-byte private key
+     * @return The 33-byte compressed public key
+     */
+    public static byte[] publicKey(byte[] privateKey) {
+        BigInteger d = toScalar(privateKey);
+        BigInteger[] point = toAffine(multiply(G, d));
+        byte[] compressed = new byte[33];
+        compressed[0] = (byte) (point[1].testBit(0) ? 0x03 : 0x02);
+        System.arraycopy(toBytes32(point[0]), 0, compressed, 1, 32);
+        return compressed;
+    }
+
+    /**
+     * Sign a 32-byte message hash.
+     *
+     * @param hash       The SHA-256 hash of the message
+     * @param privateKey The 32-byte private key
+     * @return The 64-byte {@code r || s} signature with low S
+     */
+    public static byte[] sign(byte[] hash, byte[] privateKey) {
+        if (NATIVE_SIGN != null) {
+            try {
+                return fromDer((byte[]) NATIVE_SIGN.invoke(null, hash, privateKey));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                log.warn("Native secp256k1 signing failed, using pure-Java fallback: {}", e.getMessage());
+            }
+        }
+
+        BigInteger d = toScalar(privateKey);
+        BigInteger z = new BigInteger(1, hash).mod(N);
+        Rfc6979 nonces = new Rfc6979(privateKey, toBytes32(z));
+        while (true) {
+            BigInteger k = nonces.next();
+            BigInteger r = toAffine(multiply(G, k))[0].mod(N);
+            if (r.signum() == 0) {
+                continue;
+            }
+            BigInteger s = k.modInverse(N).multiply(z.add(r.multiply(d))).mod(N);
+            if (s.signum() == 0) {
+                continue;
+            }
+            if (s.compareTo(HALF_N) > 0) {
+                s = N.subtract(s);
+            }
+            return concat(toBytes32(r), toBytes32(s));
+        }
+    }
+
+    /**
+     * Verify a signature.
+     *
+     * @param hash      The SHA-256 hash of the message
+     * @param signature The 64-byte {@code r || s} signature
+     * @param publicKey The 33-byte compressed public key
+     * @return True if the signature is valid
+     */
+    public static boolean verify(byte[] hash, byte[] signature, byte[] publicKey) {
+        BigInteger r = new BigInteger(1, Arrays.copyOfRange(signature, 0, 32));
+        BigInteger s = new BigInteger(1, Arrays.copyOfRange(signature, 32, 64));
+        if (r.signum() == 0 || r.compareTo(N) >= 0 || s.signum() == 0 || s.compareTo(N) >= 0) {
+            return false;
+        }
+
+        BigInteger z = new BigInteger(1, hash).mod(N);
+        BigInteger w = s.modInverse(N);
+        BigInteger[] point = add(multiply(G, z.multiply(w).mod(N)), multiply(decompress(publicKey), r.multiply(w).mod(N)));
+        return point != null && toAffine(point)[0].mod(N).equals(r);
+    }
+
+    private static BigInteger[] decompress(byte[] publicKey) {
+        BigInteger x = new BigInteger(1, Arrays.copyOfRange(publicKey, 1, 33));
+        BigInteger y = x.pow(3).add(SEVEN).mod(P).modPow(P.add(BigInteger.ONE).shiftRight(2), P);
+        if (y.testBit(0) != (publicKey[0] == 0x03)) {
+            y = P.subtract(y);
+        }
+        return new BigInteger[]{x, y, BigInteger.ONE};
+    }
+
+    private static BigInteger[] multiply(BigInteger[] point, BigInteger scalar) {
+        BigInteger[] result = null;
+        for (int i = scalar.bitLength() - 1; i >= 0; i--) {
+            result = doublePoint(result);
+            if (scalar.testBit(i)) {
+                result = add(result, point);
+            }
+        }
+        return result;
+    }
+
+    private static BigInteger[] doublePoint(BigInteger[] point) {
+        if (point == null || point[1].signum() == 0) {
+            return null;
+        }
+        BigInteger x = point[0], y = point[1], z = point[2];
+        BigInteger ySquared = y.multiply(y).mod(P);
+        BigInteger s = x.multiply(ySquared).shiftLeft(2).mod(P);
+        BigInteger m = x.multiply(x).multiply(BigInteger.valueOf(3)).mod(P);
+        BigInteger x3 = m.multiply(m).subtract(s.shiftLeft(1)).mod(P);
+        BigInteger y3 = m.multiply(s.subtract(x3)).subtract(ySquared.multiply(ySquared).shiftLeft(3)).mod(P);
+        BigInteger z3 = y.multiply(z).shiftLeft(1).mod(P);
+        return new BigInteger[]{x3, y3, z3};
+    }
+
+    private static BigInteger[] add(BigInteger[] p1, BigInteger[] p2) {
+        if (p1 == null) {
+            return p2;
+        }
+        if (p2 == null) {
+            return p1;
+        }
+        BigInteger z1Squared = p1[2].multiply(p1[2]).mod(P);
+        BigInteger z2Squared = p2[2].multiply(p2[2]).mod(P);
+        BigInteger u1 = p1[0].multiply(z2Squared).mod(P);
+        BigInteger u2 = p2[0].multiply(z1Squared).mod(P);
+        BigInteger s1 = p1[1].multiply(z2Squared).multiply(p2[2]).mod(P);
+        BigInteger s2 = p2[1].multiply(z1Squared).multiply(p1[2]).mod(P);
+        if (u1.equals(u2)) {
+            return s1.equals(s2) ? doublePoint(p1) : null;
+        }
+
+        BigInteger h = u2.subtract(u1).mod(P);
+        BigInteger r = s2.subtract(s1).mod(P);
+        BigInteger hSquared = h.multiply(h).mod(P);
+        BigInteger hCubed = hSquared.multiply(h).mod(P);
+        BigInteger u1hSquared = u1.multiply(hSquared).mod(P);
+        BigInteger x3 = r.multiply(r).subtract(hCubed).subtract(u1hSquared.shiftLeft(1)).mod(P);
+        BigInteger y3 = r.multiply(u1hSquared.subtract(x3)).subtract(s1.multiply(hCubed)).mod(P);
+        BigInteger z3 = h.multiply(p1[2]).multiply(p2[2]).mod(P);
+        return new BigInteger[]{x3, y3, z3};
+    }
+
+    private static BigInteger[] toAffine(BigInteger[] point) {
+        BigInteger zInverse = point[2].modInverse(P);
+        BigInteger zInverseSquared = zInverse.multiply(zInverse).mod(P);
+        return new BigInteger[]{
+                point[0].multiply(zInverseSquared).mod(P),
+                point[1].multiply(zInverseSquared).multiply(zInverse).mod(P),
+                BigInteger.ONE};
+    }
+
+    private static BigInteger toScalar(byte[] privateKey) {
+        BigInteger d = new BigInteger(1, privateKey);
+        if (privateKey.length != 32 || d.signum() == 0 || d.compareTo(N) >= 0) {
+            throw new IllegalArgumentException("Invalid secp256k1 private key");
+        }
+        return d;
+    }
+
+    private static byte[] toBytes32(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length == 32) {
+            return bytes;
+        }
+        byte[] result = new byte[32];
+        int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, result, 32 - length, length);
+        return result;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private static byte[] fromDer(byte[] der) {
+        // SEQUENCE { INTEGER r, INTEGER s }
+        int offset = 2;
+        int rLength = der[offset + 1];
+        BigInteger r = new BigInteger(1, Arrays.copyOfRange(der, offset + 2, offset + 2 + rLength));
+        offset += 2 + rLength;
+        int sLength = der[offset + 1];
+        BigInteger s = new BigInteger(1, Arrays.copyOfRange(der, offset + 2, offset + 2 + sLength));
+        if (s.compareTo(HALF_N) > 0) {
+            s = N.subtract(s);
+        }
+        return concat(toBytes32(r), toBytes32(s));
+    }
+
+    private static Method loadNativeSign() {
+        try {
+            Class<?> context = Class.forName("org.bitcoin.Secp256k1Context");
+            if (!(Boolean) context.getMethod("isEnabled").invoke(null)) {
+                return null;
+            }
+            Method sign = Class.forName("org.bitcoin.NativeSecp256k1").getMethod("sign", byte[].class, byte[].class);
+            log.info("Using native secp256k1 signing");
+            return sign;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * RFC 6979 deterministic nonce generator using HMAC-SHA256.
+     */
+    private static final class Rfc6979 {
+
+        private final Mac mac;
+
+        private byte[] k = new byte[32];
+
+        private byte[] v = new byte[32];
+
+        Rfc6979(byte[] privateKey, byte[] hash) {
+            try {
+                mac = Mac.getInstance("HmacSHA256");
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+            Arrays.fill(v, (byte) 0x01);
+            k = hmac(k, v, new byte[]{0x00}, privateKey, hash);
+            v = hmac(k, v);
+            k = hmac(k, v, new byte[]{0x01}, privateKey, hash);
+            v = hmac(k, v);
+        }
+
+        BigInteger next() {
+            while (true) {
+                v = hmac(k, v);
+                BigInteger candidate = new BigInteger(1, v);
+                k = hmac(k, v, new byte[]{0x00});
+                v = hmac(k, v);
+                if (candidate.signum() > 0 && candidate.compareTo(N) < 0) {
+                    return candidate;
+                }
+            }
+        }
+
+        private byte[] hmac(byte[] key, byte[]... parts) {
+            try {
+                mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Invalid HMAC key", e);
+            }
+            for (byte[] part : parts) {
+                mac.update(part);
+            }
+            return mac.doFinal();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.listener;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.model.ChainEvent;
+
+/**
+ * Receives chain events from the event subscriber.
+ *
+ * <p>Events are delivered one at a time on the subscriber's dispatch thread, in the order they
+ * were received. After a reconnect, events near the reconnect height may be delivered again, so
+ * listeners must be idempotent.</p>
+ */
+public interface ChainEventListener {
+
+    /**
+     * Handle a chain event.
+     *
+     * @param event The event
+     */
+    void onChainEvent(ChainEvent event);
+}
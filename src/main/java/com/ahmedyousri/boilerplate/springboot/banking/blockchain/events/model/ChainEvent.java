@@ -0,0 +1,41 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A block or transaction event observed on the chain.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChainEvent {
+
+    /**
+     * The event type.
+     */
+    private ChainEventType type;
+
+    /**
+     * The height of the block.
+     */
+    private long height;
+
+    /**
+     * The hash of the block, or null if the node did not report it.
+     */
+    private String blockHash;
+
+    /**
+     * The hash of the transaction, for transaction events.
+     */
+    private String txHash;
+
+    /**
+     * The result code of the transaction, for transaction events; 0 means success.
+     */
+    private int code;
+}
@@ -0,0 +1,16 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.model;
+
+/**
+ * Types of chain events delivered to listeners.
+ */
+public enum ChainEventType {
+    /**
+     * A block was committed.
+     */
+    NEW_BLOCK,
+
+    /**
+     * A transaction was included in a committed block.
+     */
+    TX
+}
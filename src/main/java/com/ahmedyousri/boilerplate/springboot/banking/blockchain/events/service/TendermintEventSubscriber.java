@@ -0,0 +1,441 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.listener.ChainEventListener;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.model.ChainEvent;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.model.ChainEventType;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.source.TendermintRpcClient;
+import com.ahmedyousri.boilerplate.springboot.banking.util.DaemonThreads;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Subscribes to new block and transaction events over the Tendermint RPC websocket and delivers
+ * them to the registered {@link ChainEventListener}s.
+ *
+ * <p>Received events are put on a bounded queue drained by a single dispatch thread. The next
+ * websocket message is only requested while the queue has room, so a slow listener pushes back
+ * on the connection instead of growing the heap; a node that gives up on the slow subscriber
+ * closes the connection, which is handled like any other disconnect.</p>
+ *
+ * <p>The open connection is pinged every {@code blockchain.events.ping.interval.ms}; a ping that
+ * cannot be sent means the connection was dropped, even if the close was never delivered.
+ * After a disconnect the subscriber reconnects with exponential backoff. Before it resumes
+ * reading the new subscription it backfills the transactions committed since the last block it
+ * saw with {@code tx_search}, followed by the current head block, so no height is skipped.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "blockchain.events.enabled", havingValue = "true")
+public class TendermintEventSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(TendermintEventSubscriber.class);
+
+    static final String NEW_BLOCK_QUERY = "tm.event='NewBlock'";
+
+    static final String TX_QUERY = "tm.event='Tx'";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final BlockchainConfig blockchainConfig;
+
+    private final TendermintRpcClient rpcClient;
+
+    private final List<ChainEventListener> listeners;
+
+    private final TaskScheduler taskScheduler;
+
+    private final HttpClient httpClient;
+
+    private final BlockingQueue<ChainEvent> queue;
+
+    private final AtomicLong connection = new AtomicLong();
+
+    private final AtomicReference<WebSocket> paused = new AtomicReference<>();
+
+    private final AtomicInteger reconnectAttempts = new AtomicInteger();
+
+    private ScheduledFuture<?> pings;
+
+    private Thread dispatcher;
+
+    private volatile WebSocket webSocket;
+
+    private volatile long webSocketConnection;
+
+    private volatile boolean running;
+
+    private volatile long lastHeight = -1;
+
+    private volatile long backfilledHeight = -1;
+
+    public TendermintEventSubscriber(BlockchainConfig blockchainConfig,
+                                     TendermintRpcClient rpcClient,
+                                     List<ChainEventListener> listeners,
+                                     TaskScheduler taskScheduler) {
+        this.blockchainConfig = blockchainConfig;
+        this.rpcClient = rpcClient;
+        this.listeners = listeners;
+        this.taskScheduler = taskScheduler;
+        this.httpClient = HttpClient.newHttpClient();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, blockchainConfig.getEventsQueueCapacity()));
+    }
+
+    /**
+     * Connect and start dispatching, unless the mock chain is in use.
+     */
+    @PostConstruct
+    public void initialize() {
+        if (blockchainConfig.isMockEnabled()) {
+            log.info("Chain event subscription disabled while the mock blockchain is enabled");
+            return;
+        }
+        start();
+    }
+
+    /**
+     * Connect and start dispatching.
+     */
+    public void start() {
+        running = true;
+        dispatcher = DaemonThreads.named("chain-events-dispatch-").newThread(this::dispatch);
+        dispatcher.start();
+        taskScheduler.schedule(this::connect, Instant.now());
+        long pingInterval = Math.max(1, blockchainConfig.getEventsPingIntervalMs());
+        pings = taskScheduler.scheduleWithFixedDelay(this::ping, Instant.now().plusMillis(pingInterval),
+                Duration.ofMillis(pingInterval));
+        log.info("Chain event subscription started for {} with {} listeners", websocketUri(), listeners.size());
+    }
+
+    /**
+     * Close the subscription and stop dispatching.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (pings != null) {
+            pings.cancel(true);
+        }
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        WebSocket current = webSocket;
+        if (current != null) {
+            current.abort();
+        }
+    }
+
+    /**
+     * Check whether the websocket subscription is currently open.
+     *
+     * @return True if connected
+     */
+    public boolean isConnected() {
+        WebSocket current = webSocket;
+        return current != null && !current.isInputClosed();
+    }
+
+    /**
+     * Get the height of the latest block event received.
+     *
+     * @return The height, or -1 before the first block
+     */
+    public long getLastHeight() {
+        return lastHeight;
+    }
+
+    /**
+     * Get the number of events waiting to be dispatched.
+     *
+     * @return The queue size
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void connect() {
+        if (!running) {
+            return;
+        }
+        long id = connection.incrementAndGet();
+        try {
+            WebSocket socket = httpClient.newWebSocketBuilder()
+                    .connectTimeout(Duration.ofMillis(blockchainConfig.getTimeoutMs()))
+                    .buildAsync(websocketUri(), new Listener(id))
+                    .get(blockchainConfig.getTimeoutMs(), TimeUnit.MILLISECONDS);
+            webSocket = socket;
+            webSocketConnection = id;
+            socket.sendText(subscribeRequest(1, NEW_BLOCK_QUERY), true).get(blockchainConfig.getTimeoutMs(), TimeUnit.MILLISECONDS);
+            socket.sendText(subscribeRequest(2, TX_QUERY), true).get(blockchainConfig.getTimeoutMs(), TimeUnit.MILLISECONDS);
+
+            // The subscription is already buffering, so nothing committed after the backfill head is missed
+            if (lastHeight >= 0) {
+                backfill();
+            }
+            reconnectAttempts.set(0);
+            log.info("Chain event subscription connected at height {}", lastHeight);
+            socket.request(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Chain event subscription failed to connect: {}", e.getMessage());
+            WebSocket current = webSocket;
+            if (current != null) {
+                current.abort();
+            }
+            reconnect(id);
+        }
+    }
+
+    /**
+     * Ping the open connection. A node that closes the connection while no message is requested
+     * is otherwise only noticed once the next message is requested, which may never happen.
+     */
+    private void ping() {
+        WebSocket socket = webSocket;
+        long id = webSocketConnection;
+        if (!running || socket == null || connection.get() != id) {
+            return;
+        }
+        try {
+            socket.sendPing(ByteBuffer.allocate(0)).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    dropped(socket, id, error);
+                }
+            });
+        } catch (Exception e) {
+            dropped(socket, id, e);
+        }
+    }
+
+    private void dropped(WebSocket socket, long id, Throwable error) {
+        log.warn("Chain event subscription ping failed: {}", error.getMessage());
+        socket.abort();
+        reconnect(id);
+    }
+
+    private void reconnect(long id) {
+        if (!running || !connection.compareAndSet(id, id + 1)) {
+            return;
+        }
+        long maxDelay = Math.max(1, blockchainConfig.getEventsReconnectMaxDelayMs());
+        long delay = Math.min(maxDelay, Math.max(1, blockchainConfig.getRetryDelayMs()) << Math.min(reconnectAttempts.getAndIncrement(), 16));
+        log.info("Chain event subscription reconnecting in {} ms", delay);
+        taskScheduler.schedule(this::connect, Instant.now().plusMillis(delay));
+    }
+
+    private void backfill() throws InterruptedException {
+        ChainEvent head = rpcClient.getHead();
+        if (head.getHeight() <= lastHeight) {
+            return;
+        }
+
+        List<ChainEvent> txs = rpcClient.searchTxs(lastHeight, head.getHeight());
+        for (ChainEvent tx : txs) {
+            queue.put(tx);
+        }
+        queue.put(head);
+        log.info("Backfilled {} transactions from height {} to {}", txs.size(), lastHeight + 1, head.getHeight());
+        backfilledHeight = head.getHeight();
+        lastHeight = head.getHeight();
+    }
+
+    private void dispatch() {
+        while (running) {
+            ChainEvent event;
+            try {
+                event = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            WebSocket waiting = paused.getAndSet(null);
+            if (waiting != null) {
+                waiting.request(1);
+            }
+            for (ChainEventListener listener : listeners) {
+                try {
+                    listener.onChainEvent(event);
+                } catch (Exception e) {
+                    log.warn("Chain event listener {} failed on {} at height {}: {}",
+                            listener.getClass().getSimpleName(), event.getType(), event.getHeight(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void deliver(WebSocket socket, String message) {
+        ChainEvent event = parse(message);
+        if (event != null) {
+            try {
+                queue.put(event);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        // Only ask for the next message while the queue has room for it
+        if (queue.remainingCapacity() > 0) {
+            socket.request(1);
+            return;
+        }
+        paused.set(socket);
+        if (queue.remainingCapacity() > 0 && paused.compareAndSet(socket, null)) {
+            socket.request(1);
+        }
+    }
+
+    /**
+     * Parse a websocket message into an event.
+     *
+     * @return The event, or null for subscription acknowledgements and events already delivered
+     */
+    private ChainEvent parse(String message) {
+        JsonNode json = read(message);
+        if (json.has("error")) {
+            throw new IllegalStateException("Subscription error: " + json.path("error").path("data").asText(json.path("error").toString()));
+        }
+        JsonNode data = json.path("result").path("data");
+        String type = data.path("type").asText();
+        JsonNode value = data.path("value");
+
+        if (type.endsWith("/NewBlock")) {
+            long height = value.path("block").path("header").path("height").asLong();
+            if (height <= lastHeight) {
+                return null;
+            }
+            lastHeight = height;
+            return ChainEvent.builder()
+                    .type(ChainEventType.NEW_BLOCK)
+                    .height(height)
+                    .blockHash(value.path("block_id").path("hash").asText(null))
+                    .build();
+        }
+
+        if (type.endsWith("/Tx")) {
+            JsonNode txResult = value.path("TxResult");
+            long height = txResult.path("height").asLong();
+            if (height <= backfilledHeight) {
+                return null;
+            }
+            JsonNode hashes = json.path("result").path("events").path("tx.hash");
+            return ChainEvent.builder()
+                    .type(ChainEventType.TX)
+                    .height(height)
+                    .txHash(hashes.size() > 0 ? hashes.get(0).asText() : txHash(txResult.path("tx").asText()))
+                    .code(txResult.path("result").path("code").asInt())
+                    .build();
+        }
+        return null;
+    }
+
+    private URI websocketUri() {
+        return URI.create(blockchainConfig.getCosmosRpcEndpoint().replaceFirst("^http", "ws") + "/websocket");
+    }
+
+    private static String subscribeRequest(int id, String query) {
+        return objectMapper.createObjectNode()
+                .put("jsonrpc", "2.0")
+                .put("method", "subscribe")
+                .put("id", id)
+                .set("params", objectMapper.createObjectNode().put("query", query))
+                .toString();
+    }
+
+    /**
+     * Compute the hash of a transaction from its base64 encoding, as Tendermint does.
+     */
+    static String txHash(String base64Tx) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(Base64.getDecoder().decode(base64Tx));
+            return HexFormat.of().withUpperCase().formatHex(digest);
+        } catch (Exception e) {
+            throw new IllegalStateException("Invalid transaction encoding", e);
+        }
+    }
+
+    private static JsonNode read(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("Invalid response from Tendermint RPC", e);
+        }
+    }
+
+    /**
+     * Receives the messages of one websocket connection.
+     */
+    private final class Listener implements WebSocket.Listener {
+
+        private final long id;
+
+        private final List<CharSequence> parts = new ArrayList<>();
+
+        private Listener(long id) {
+            this.id = id;
+        }
+
+        @Override
+        public void onOpen(WebSocket socket) {
+            // Messages are requested once the connection is subscribed and backfilled
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket socket, CharSequence data, boolean last) {
+            parts.add(data);
+            if (!last) {
+                socket.request(1);
+                return null;
+            }
+            String message = String.join("", parts);
+            parts.clear();
+            try {
+                deliver(socket, message);
+            } catch (Exception e) {
+                log.warn("Chain event subscription dropped: {}", e.getMessage());
+                socket.abort();
+                reconnect(id);
+            }
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket socket, int statusCode, String reason) {
+            log.warn("Chain event subscription closed by node: {} {}", statusCode, reason);
+            reconnect(id);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket socket, Throwable error) {
+            log.warn("Chain event subscription failed: {}", error.getMessage());
+            reconnect(id);
+        }
+    }
+}
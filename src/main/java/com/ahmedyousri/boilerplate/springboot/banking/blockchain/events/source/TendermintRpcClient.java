@@ -0,0 +1,85 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.source;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.model.ChainEvent;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.model.ChainEventType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the chain head and committed transactions from the Tendermint RPC endpoint.
+ * Results are returned as chain events so they can be handled like pushed events.
+ */
+@Component
+public class TendermintRpcClient {
+
+    static final int PAGE_SIZE = 100;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final BlockchainConfig blockchainConfig;
+
+    private final RestTemplate restTemplate;
+
+    public TendermintRpcClient(BlockchainConfig blockchainConfig, RestTemplate restTemplate) {
+        this.blockchainConfig = blockchainConfig;
+        this.restTemplate = restTemplate;
+    }
+
+    /**
+     * Get the latest committed block.
+     *
+     * @return A block event for the chain head
+     */
+    public ChainEvent getHead() {
+        String url = blockchainConfig.getCosmosRpcEndpoint() + "/status";
+        JsonNode syncInfo = read(restTemplate.getForObject(url, String.class)).path("result").path("sync_info");
+        return ChainEvent.builder()
+                .type(ChainEventType.NEW_BLOCK)
+                .height(syncInfo.path("latest_block_height").asLong())
+                .blockHash(syncInfo.path("latest_block_hash").asText(null))
+                .build();
+    }
+
+    /**
+     * Get the transactions committed in a range of blocks, with one paged search for the range.
+     *
+     * @param afterHeight The height after which to search, exclusive
+     * @param toHeight    The last height, inclusive
+     * @return Transaction events, ordered by height
+     */
+    public List<ChainEvent> searchTxs(long afterHeight, long toHeight) {
+        String url = blockchainConfig.getCosmosRpcEndpoint() + "/tx_search?query={query}&page={page}&per_page={perPage}&order_by={order}";
+        String query = "\"tx.height>" + afterHeight + " AND tx.height<=" + toHeight + "\"";
+
+        List<ChainEvent> txs = new ArrayList<>();
+        for (int page = 1; ; page++) {
+            JsonNode result = read(restTemplate.getForObject(url, String.class, query, page, PAGE_SIZE, "\"asc\"")).path("result");
+            JsonNode results = result.path("txs");
+            for (JsonNode tx : results) {
+                txs.add(ChainEvent.builder()
+                        .type(ChainEventType.TX)
+                        .height(tx.path("height").asLong())
+                        .txHash(tx.path("hash").asText())
+                        .code(tx.path("tx_result").path("code").asInt())
+                        .build());
+            }
+            if (results.size() < PAGE_SIZE || (long) page * PAGE_SIZE >= result.path("total_count").asLong()) {
+                return txs;
+            }
+        }
+    }
+
+    private static JsonNode read(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("Invalid response from Tendermint RPC", e);
+        }
+    }
+}
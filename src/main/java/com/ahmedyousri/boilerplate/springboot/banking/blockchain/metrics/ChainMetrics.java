@@ -0,0 +1,150 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.metrics;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.FinancialCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Latency metrics of chain operations, published on the actuator metrics endpoint.
+ *
+ * <p>Commands are timed end to end by command type and result, and each node call by the stage
+ * it belongs to, so the latency of a deposit splits into the faucet or broadcast call and the
+ * wait for inclusion. Timers publish percentiles and histogram buckets. Transaction hashes made
+ * up locally instead of returned by the node are counted, and the pools that run asynchronous
+ * chain calls report their active and queued tasks.</p>
+ */
+@Component
+public class ChainMetrics {
+
+    private static final Duration MAX_CALL = Duration.ofMinutes(1);
+
+    private static final Duration MAX_INCLUSION = Duration.ofMinutes(10);
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public ChainMetrics(BlockchainConfig blockchainConfig, MeterRegistry meterRegistry) {
+        this.registry = blockchainConfig.isMetricsEnabled() ? meterRegistry : new SimpleMeterRegistry();
+    }
+
+    /**
+     * Time a node call as a stage of a chain operation.
+     *
+     * @param stage The stage
+     * @param call  The call
+     * @param <T>   The result type
+     * @return The result
+     */
+    public <T> T time(ChainStage stage, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "failure";
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(timer("blockchain.stage.duration", "stage", stage.tag(), "outcome", outcome, MAX_CALL));
+        }
+    }
+
+    /**
+     * Time the execution of a command, tagged with the error code of unsuccessful responses.
+     *
+     * @param command   The command
+     * @param execution The execution
+     * @return The response
+     */
+    public BlockchainResponse time(FinancialCommand command, Supplier<BlockchainResponse> execution) {
+        Timer.Sample sample = Timer.start(registry);
+        BlockchainResponse response = null;
+        try {
+            response = execution.get();
+            return response;
+        } finally {
+            String result = response == null ? "exception"
+                    : response.isSuccessful() ? "success"
+                    : response.getErrorCode() != null ? response.getErrorCode() : "failure";
+            sample.stop(timer("blockchain.command.duration", "command", command.getClass().getSimpleName(), "result", result, MAX_CALL));
+        }
+    }
+
+    /**
+     * Record the time from submitting a transaction until a block included it.
+     *
+     * @param nanos     The time in nanoseconds
+     * @param succeeded False if the transaction was included with a failure code
+     */
+    public void recordInclusion(long nanos, boolean succeeded) {
+        timer("blockchain.tx.inclusion", "result", succeeded ? "success" : "failure", null, null, MAX_INCLUSION)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count a transaction hash that was made up locally because the node returned none.
+     *
+     * @param reason Why there was no hash, such as {@code missing} or {@code error}
+     */
+    public void countFabricatedHash(String reason) {
+        Counter.builder("blockchain.tx.fabricated")
+                .description("Transaction hashes made up locally, such as TX_ERROR_ hashes")
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Report a value as a gauge.
+     *
+     * @param name        The gauge name
+     * @param description The gauge description
+     * @param state       The object the value is read from
+     * @param value       Reads the value
+     * @param <T>         The state type
+     */
+    public <T> void gauge(String name, String description, T state, ToDoubleFunction<T> value) {
+        Gauge.builder(name, state, value).description(description).register(registry);
+    }
+
+    /**
+     * Report the active, queued and completed tasks of a pool.
+     *
+     * @param executor The pool
+     * @param name     The pool name, used as the metrics tag
+     * @return The pool, wrapped to time its tasks
+     */
+    public ExecutorService monitor(ExecutorService executor, String name) {
+        return ExecutorServiceMetrics.monitor(registry, executor, name);
+    }
+
+    private Timer timer(String name, String tag, String value, String otherTag, String otherValue, Duration max) {
+        String key = name + '|' + value + '|' + otherValue;
+        return timers.computeIfAbsent(key, ignored -> {
+            Timer.Builder builder = Timer.builder(name)
+                    .tag(tag, value)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(max);
+            if (otherTag != null) {
+                builder.tag(otherTag, otherValue);
+            }
+            return builder.register(registry);
+        });
+    }
+}
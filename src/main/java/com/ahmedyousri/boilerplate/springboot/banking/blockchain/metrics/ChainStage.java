@@ -0,0 +1,46 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.metrics;
+
+/**
+ * A stage of a chain operation, timed separately so the latency of a command can be broken down.
+ */
+public enum ChainStage {
+
+    /**
+     * Crediting an address through the faucet.
+     */
+    FAUCET,
+
+    /**
+     * Signing and broadcasting a transaction.
+     */
+    BROADCAST,
+
+    /**
+     * Looking up a transaction by hash.
+     */
+    TX_LOOKUP,
+
+    /**
+     * Looking up the latest block or blocks.
+     */
+    BLOCK_LOOKUP,
+
+    /**
+     * Looking up the balance of an address.
+     */
+    BALANCE_LOOKUP,
+
+    /**
+     * Fetching a page of transaction history.
+     */
+    HISTORY_PAGE;
+
+    /**
+     * Get the value of the stage metrics tag.
+     *
+     * @return The lower-case stage name
+     */
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
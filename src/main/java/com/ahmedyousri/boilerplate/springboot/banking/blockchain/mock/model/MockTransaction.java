@@ -41,6 +41,16 @@ public class MockTransaction {
      */
     private String to;
     
+    /**
+     * The ID of the sender account.
+     */
+    private UUID fromAccountId;
+    
+    /**
+     * The ID of the recipient account.
+     */
+    private UUID toAccountId;
+    
     /**
      * The amount of the transaction.
      */
@@ -1,712 +1,987 @@
-//package com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.service;
-//
-//import model.mock.blockchain.banking.com.ahmedyousri.boilerplate.springboot.MockAccount;
-//import model.mock.blockchain.banking.com.ahmedyousri.boilerplate.springboot.MockBlock;
-//import model.mock.blockchain.banking.com.ahmedyousri.boilerplate.springboot.MockTransaction;
-//import model.blockchain.banking.com.ahmedyousri.boilerplate.springboot.AccountBalance;
-//import model.blockchain.banking.com.ahmedyousri.boilerplate.springboot.TransactionRecord;
-//import util.banking.com.ahmedyousri.boilerplate.springboot.MoneyUtil;
-//import lombok.Getter;
-//import org.slf4j.Logger;
-//import org.slf4j.LoggerFactory;
-//import org.springframework.stereotype.Component;
-//import org.springframework.beans.factory.annotation.Autowired;
-//import jakarta.annotation.PostConstruct;
-//import java.math.BigDecimal;
-//import java.security.MessageDigest;
-//import java.security.NoSuchAlgorithmException;
-//import java.time.LocalDateTime;
-//import java.util.*;
-//import java.util.concurrent.ConcurrentHashMap;
-//import java.util.concurrent.atomic.AtomicLong;
-//import java.util.stream.Collectors;
-//
-///**
-// * Maintains the state of the mock blockchain.
-// * This class is used to simulate a blockchain for testing and development.
-// */
-//@Component
-//public class MockBlockchainState {
-//
-//    private static final Logger log = LoggerFactory.getLogger(MockBlockchainState.class);
-//
-//    /**
-//     * The map of accounts by ID.
-//     */
-//    @Getter
-//    private final Map<UUID, MockAccount> accountsById = new ConcurrentHashMap<>();
-//
-//    /**
-//     * The map of accounts by address.
-//     */
-//    @Getter
-//    private final Map<String, MockAccount> accountsByAddress = new ConcurrentHashMap<>();
-//
-//    /**
-//     * The map of transactions by hash.
-//     */
-//    @Getter
-//    private final Map<String, MockTransaction> transactionsByHash = new ConcurrentHashMap<>();
-//
-//    /**
-//     * The map of blocks by hash.
-//     */
-//    @Getter
-//    private final Map<String, MockBlock> blocksByHash = new ConcurrentHashMap<>();
-//
-//    /**
-//     * The map of blocks by number.
-//     */
-//    @Getter
-//    private final Map<Long, MockBlock> blocksByNumber = new ConcurrentHashMap<>();
-//
-//    /**
-//     * The list of pending transactions.
-//     */
-//    @Getter
-//    private final List<MockTransaction> pendingTransactions = Collections.synchronizedList(new ArrayList<>());
-//
-//    /**
-//     * The current block number.
-//     */
-//    private final AtomicLong currentBlockNumber = new AtomicLong(0);
-//
-//    /**
-//     * The genesis block.
-//     */
-//    @Getter
-//    private MockBlock genesisBlock;
-//
-//    /**
-//     * The latest block.
-//     */
-//    @Getter
-//    private MockBlock latestBlock;
-//
-//    /**
-//     * Initialize the mock blockchain state.
-//     * This method is called automatically when the bean is created.
-//     */
-//    @PostConstruct
-//    public void initialize() {
-//        log.info("Initializing mock blockchain state");
-//
-//        // Create genesis block
-//        genesisBlock = createGenesisBlock();
-//        latestBlock = genesisBlock;
-//
-//        log.info("Mock blockchain initialized with genesis block: {}", genesisBlock.getHash());
-//    }
-//
-//    /**
-//     * Ensure the blockchain is initialized.
-//     * This method checks if the blockchain has been initialized and initializes it if not.
-//     */
-//    private void ensureInitialized() {
-//        if (genesisBlock == null || latestBlock == null) {
-//            initialize();
-//        }
-//    }
-//
-//    /**
-//     * Create a new account.
-//     *
-//     * @param id           The ID of the account
-//     * @param currencyCode The currency code of the account
-//     * @return The created account
-//     */
-//    public synchronized MockAccount createAccount(UUID id, String currencyCode) {
-//        String address = generateAddress(id);
-//
-//        MockAccount account = MockAccount.builder()
-//                .id(id)
-//                .address(address)
-//                .balance(BigDecimal.ZERO)
-//                .currencyCode(currencyCode)
-//                .nonce(0)
-//                .createdAt(LocalDateTime.now())
-//                .updatedAt(LocalDateTime.now())
-//                .transactionHashes(new ArrayList<>())
-//                .isContract(false)
-//                .status(MockAccount.AccountStatus.ACTIVE)
-//                .build();
-//
-//        accountsById.put(id, account);
-//        accountsByAddress.put(address, account);
-//
-//        log.info("Created account with ID: {} and address: {}", id, address);
-//
-//        return account;
-//    }
-//
-//    /**
-//     * Get an account by ID.
-//     *
-//     * @param id The ID of the account
-//     * @return The account, or null if not found
-//     */
-//    public MockAccount getAccountById(UUID id) {
-//        return accountsById.get(id);
-//    }
-//
-//    /**
-//     * Get an account by address.
-//     *
-//     * @param address The address of the account
-//     * @return The account, or null if not found
-//     */
-//    public MockAccount getAccountByAddress(String address) {
-//        return accountsByAddress.get(address);
-//    }
-//
-//    /**
-//     * Create a new transaction.
-//     *
-//     * @param fromAccountId The ID of the sender account
-//     * @param toAccountId   The ID of the recipient account
-//     * @param amount        The amount of the transaction
-//     * @param description   The description of the transaction
-//     * @param currencyCode  The currency code of the transaction
-//     * @return The created transaction
-//     * @throws IllegalArgumentException If the sender or recipient account is not found
-//     * @throws IllegalStateException    If the sender account has insufficient funds
-//     */
-//    public synchronized MockTransaction createTransaction(
-//            UUID fromAccountId,
-//            UUID toAccountId,
-//            BigDecimal amount,
-//            String description,
-//            String currencyCode
-//    ) {
-//        MockAccount fromAccount = getAccountById(fromAccountId);
-//        if (fromAccount == null) {
-//            throw new IllegalArgumentException("Sender account not found: " + fromAccountId);
-//        }
-//
-//        MockAccount toAccount = getAccountById(toAccountId);
-//        if (toAccount == null) {
-//            throw new IllegalArgumentException("Recipient account not found: " + toAccountId);
-//        }
-//
-//        // Check if the sender has sufficient funds
-//        if (fromAccount.getBalance().compareTo(amount) < 0) {
-//            throw new IllegalStateException("Insufficient funds in account: " + fromAccountId);
-//        }
-//
-//        // Create the transaction
-//        UUID transactionId = UUID.randomUUID();
-//        String hash = generateTransactionHash(fromAccount.getAddress(), toAccount.getAddress(), amount, fromAccount.getNonce());
-//
-//        MockTransaction transaction = MockTransaction.builder()
-//                .id(transactionId)
-//                .hash(hash)
-//                .from(fromAccount.getAddress())
-//                .to(toAccount.getAddress())
-//                .amount(amount)
-//                .currencyCode(currencyCode)
-//                .nonce(fromAccount.incrementNonce())
-//                .gasPrice(21000000000L)
-//                .gasLimit(21000)
-//                .gasUsed(21000)
-//                .createdAt(LocalDateTime.now())
-//                .status(MockTransaction.TransactionStatus.PENDING)
-//                .type(MockTransaction.TransactionType.TRANSFER)
-//                .description(description)
-//                .referenceId(transactionId.toString())
-//                .metadata(new HashMap<>())
-//                .build();
-//
-//        // Add the transaction to the pending transactions
-//        pendingTransactions.add(transaction);
-//        transactionsByHash.put(hash, transaction);
-//
-//        // Add the transaction hash to the accounts
-//        fromAccount.addTransactionHash(hash);
-//        toAccount.addTransactionHash(hash);
-//
-//        log.info("Created transaction with hash: {} from: {} to: {} amount: {}", hash, fromAccountId, toAccountId, amount);
-//
-//        return transaction;
-//    }
-//
-//    /**
-//     * Process pending transactions and create a new block.
-//     *
-//     * @return The created block
-//     */
-//    public synchronized MockBlock mineBlock() {
-//        // Ensure the blockchain is initialized
-//        ensureInitialized();
-//
-//        if (pendingTransactions.isEmpty()) {
-//            log.info("No pending transactions to mine");
-//            return null;
-//        }
-//
-//        // Create a new block
-//        long blockNumber = currentBlockNumber.incrementAndGet();
-//        String blockHash = generateBlockHash(blockNumber, latestBlock.getHash(), pendingTransactions);
-//
-//        MockBlock block = MockBlock.builder()
-//                .number(blockNumber)
-//                .hash(blockHash)
-//                .parentHash(latestBlock.getHash())
-//                .timestamp(LocalDateTime.now())
-//                .miner("0x0000000000000000000000000000000000000000")
-//                .difficulty(1)
-//                .totalDifficulty(latestBlock.getTotalDifficulty() + 1)
-//                .size(1000)
-//                .gasLimit(8000000)
-//                .gasUsed(0)
-//                .nonce("0x0000000000000000")
-//                .extraData("0x")
-//                .transactionHashes(new ArrayList<>())
-//                .transactions(new ArrayList<>())
-//                .status(MockBlock.BlockStatus.PENDING)
-//                .build();
-//
-//        // Add transactions to the block
-//        List<MockTransaction> transactionsToProcess = new ArrayList<>(pendingTransactions);
-//        long totalGasUsed = 0;
-//
-//        for (MockTransaction transaction : transactionsToProcess) {
-//            // Process the transaction
-//            try {
-//                processTransaction(transaction);
-//
-//                // Add the transaction to the block
-//                block.addTransaction(transaction);
-//                totalGasUsed += transaction.getGasUsed();
-//            } catch (Exception e) {
-//                log.error("Failed to process transaction: {}", transaction.getHash(), e);
-//                transaction.fail(e.getMessage());
-//            }
-//        }
-//
-//        // Update block gas used
-//        block.setGasUsed(totalGasUsed);
-//
-//        // Confirm the block
-//        block.confirm();
-//
-//        // Add the block to the blockchain
-//        blocksByHash.put(blockHash, block);
-//        blocksByNumber.put(blockNumber, block);
-//        latestBlock = block;
-//
-//        // Clear pending transactions
-//        pendingTransactions.removeAll(transactionsToProcess);
-//
-//        log.info("Mined block: {} with {} transactions", blockHash, block.getTransactionCount());
-//
-//        return block;
-//    }
-//
-//    /**
-//     * Process a transaction.
-//     *
-//     * @param transaction The transaction to process
-//     * @throws IllegalArgumentException If the sender or recipient account is not found
-//     * @throws IllegalStateException    If the sender account has insufficient funds
-//     */
-//    private void processTransaction(MockTransaction transaction) {
-//        MockAccount fromAccount = getAccountByAddress(transaction.getFrom());
-//        if (fromAccount == null) {
-//            throw new IllegalArgumentException("Sender account not found: " + transaction.getFrom());
-//        }
-//
-//        MockAccount toAccount = getAccountByAddress(transaction.getTo());
-//        if (toAccount == null) {
-//            throw new IllegalArgumentException("Recipient account not found: " + transaction.getTo());
-//        }
-//
-//        // Check if the sender has sufficient funds
-//        if (fromAccount.getBalance().compareTo(transaction.getAmount()) < 0) {
-//            throw new IllegalStateException("Insufficient funds in account: " + fromAccount.getId());
-//        }
-//
-//        // Transfer the funds
-//        fromAccount.debit(transaction.getAmount());
-//        toAccount.credit(transaction.getAmount());
-//
-//        // Update the transaction status
-//        transaction.setStatus(MockTransaction.TransactionStatus.CONFIRMED);
-//    }
-//
-//    /**
-//     * Create the genesis block.
-//     *
-//     * @return The genesis block
-//     */
-//    private MockBlock createGenesisBlock() {
-//        String blockHash = generateBlockHash(0, "0x0000000000000000000000000000000000000000000000000000000000000000", Collections.emptyList());
-//
-//        MockBlock block = MockBlock.builder()
-//                .number(0)
-//                .hash(blockHash)
-//                .parentHash("0x0000000000000000000000000000000000000000000000000000000000000000")
-//                .timestamp(LocalDateTime.now())
-//                .miner("0x0000000000000000000000000000000000000000")
-//                .difficulty(1)
-//                .totalDifficulty(1)
-//                .size(1000)
-//                .gasLimit(8000000)
-//                .gasUsed(0)
-//                .nonce("0x0000000000000000")
-//                .extraData("0x")
-//                .transactionHashes(new ArrayList<>())
-//                .transactions(new ArrayList<>())
-//                .status(MockBlock.BlockStatus.CONFIRMED)
-//                .build();
-//
-//        blocksByHash.put(blockHash, block);
-//        blocksByNumber.put(0L, block);
-//
-//        return block;
-//    }
-//
-//    /**
-//     * Generate a blockchain address for an account.
-//     *
-//     * @param id The ID of the account
-//     * @return The generated address
-//     */
-//    private String generateAddress(UUID id) {
-//        try {
-//            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-//            byte[] hash = digest.digest(id.toString().getBytes());
-//
-//            // Convert the hash to a hex string
-//            StringBuilder hexString = new StringBuilder();
-//            for (byte b : hash) {
-//                String hex = Integer.toHexString(0xff & b);
-//                if (hex.length() == 1) {
-//                    hexString.append('0');
-//                }
-//                hexString.append(hex);
-//            }
-//
-//            // Return the first 40 characters prefixed with "0x"
-//            return "0x" + hexString.substring(0, 40);
-//        } catch (NoSuchAlgorithmException e) {
-//            throw new RuntimeException("Failed to generate address", e);
-//        }
-//    }
-//
-//    /**
-//     * Generate a hash for a transaction.
-//     *
-//     * @param from  The address of the sender
-//     * @param to    The address of the recipient
-//     * @param amount The amount of the transaction
-//     * @param nonce The nonce of the transaction
-//     * @return The generated hash
-//     */
-//    private String generateTransactionHash(String from, String to, BigDecimal amount, long nonce) {
-//        try {
-//            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-//            String data = from + to + amount.toString() + nonce + System.nanoTime();
-//            byte[] hash = digest.digest(data.getBytes());
-//
-//            // Convert the hash to a hex string
-//            StringBuilder hexString = new StringBuilder();
-//            for (byte b : hash) {
-//                String hex = Integer.toHexString(0xff & b);
-//                if (hex.length() == 1) {
-//                    hexString.append('0');
-//                }
-//                hexString.append(hex);
-//            }
-//
-//            // Return the hash prefixed with "0x"
-//            return "0x" + hexString.toString();
-//        } catch (NoSuchAlgorithmException e) {
-//            throw new RuntimeException("Failed to generate transaction hash", e);
-//        }
-//    }
-//
-//    /**
-//     * Generate a hash for a block.
-//     *
-//     * @param blockNumber The number of the block
-//     * @param parentHash  The hash of the parent block
-//     * @param transactions The list of transactions in the block
-//     * @return The generated hash
-//     */
-//    private String generateBlockHash(long blockNumber, String parentHash, List<MockTransaction> transactions) {
-//        try {
-//            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-//
-//            // Concatenate transaction hashes
-//            String transactionHashes = transactions.stream()
-//                    .map(MockTransaction::getHash)
-//                    .collect(Collectors.joining());
-//
-//            String data = blockNumber + parentHash + transactionHashes + System.nanoTime();
-//            byte[] hash = digest.digest(data.getBytes());
-//
-//            // Convert the hash to a hex string
-//            StringBuilder hexString = new StringBuilder();
-//            for (byte b : hash) {
-//                String hex = Integer.toHexString(0xff & b);
-//                if (hex.length() == 1) {
-//                    hexString.append('0');
-//                }
-//                hexString.append(hex);
-//            }
-//
-//            // Return the hash prefixed with "0x"
-//            return "0x" + hexString.toString();
-//        } catch (NoSuchAlgorithmException e) {
-//            throw new RuntimeException("Failed to generate block hash", e);
-//        }
-//    }
-//
-//    /**
-//     * Get the balance of an account.
-//     *
-//     * @param accountId The ID of the account
-//     * @return The balance of the account
-//     * @throws IllegalArgumentException If the account is not found
-//     */
-//    public BigDecimal getBalance(UUID accountId) {
-//        MockAccount account = getAccountById(accountId);
-//        if (account == null) {
-//            throw new IllegalArgumentException("Account not found: " + accountId);
-//        }
-//
-//        return MoneyUtil.round(account.getBalance());
-//    }
-//
-//    /**
-//     * Get a transaction by hash.
-//     *
-//     * @param hash The hash of the transaction
-//     * @return The transaction, or null if not found
-//     */
-//    public MockTransaction getTransactionByHash(String hash) {
-//        return transactionsByHash.get(hash);
-//    }
-//
-//    /**
-//     * Get a block by hash.
-//     *
-//     * @param hash The hash of the block
-//     * @return The block, or null if not found
-//     */
-//    public MockBlock getBlockByHash(String hash) {
-//        return blocksByHash.get(hash);
-//    }
-//
-//    /**
-//     * Get a block by number.
-//     *
-//     * @param number The number of the block
-//     * @return The block, or null if not found
-//     */
-//    public MockBlock getBlockByNumber(long number) {
-//        return blocksByNumber.get(number);
-//    }
-//
-//    /**
-//     * Get the current block number.
-//     *
-//     * @return The current block number
-//     */
-//    public long getCurrentBlockNumber() {
-//        return currentBlockNumber.get();
-//    }
-//
-//    /**
-//     * Get the transaction count for an account.
-//     *
-//     * @param accountId The ID of the account
-//     * @return The transaction count
-//     * @throws IllegalArgumentException If the account is not found
-//     */
-//    public int getTransactionCount(UUID accountId) {
-//        MockAccount account = getAccountById(accountId);
-//        if (account == null) {
-//            throw new IllegalArgumentException("Account not found: " + accountId);
-//        }
-//
-//        return account.getTransactionHashes().size();
-//    }
-//
-//    /**
-//     * Get the transaction history for an account.
-//     *
-//     * @param accountId The ID of the account
-//     * @return The list of transactions
-//     * @throws IllegalArgumentException If the account is not found
-//     */
-//    public List<MockTransaction> getTransactionHistory(UUID accountId) {
-//        MockAccount account = getAccountById(accountId);
-//        if (account == null) {
-//            throw new IllegalArgumentException("Account not found: " + accountId);
-//        }
-//
-//        return account.getTransactionHashes().stream()
-//                .map(this::getTransactionByHash)
-//                .filter(Objects::nonNull)
-//                .collect(Collectors.toList());
-//    }
-//
-//    /**
-//     * Get transactions for an account.
-//     *
-//     * @param accountId The ID of the account
-//     * @return The list of transaction records
-//     * @throws IllegalArgumentException If the account is not found
-//     */
-//    public List<TransactionRecord> getTransactions(UUID accountId) {
-//        List<MockTransaction> transactions = getTransactionHistory(accountId);
-//
-//        return transactions.stream()
-//                .map(this::convertToTransactionRecord)
-//                .collect(Collectors.toList());
-//    }
-//
-//    /**
-//     * Get a transaction by hash.
-//     *
-//     * @param hash The hash of the transaction
-//     * @return The transaction record
-//     */
-//    public TransactionRecord getTransaction(String hash) {
-//        MockTransaction transaction = getTransactionByHash(hash);
-//        if (transaction == null) {
-//            return null;
-//        }
-//
-//        return convertToTransactionRecord(transaction);
-//    }
-//
-//    /**
-//     * Convert a MockTransaction to a TransactionRecord.
-//     *
-//     * @param transaction The mock transaction
-//     * @return The transaction record
-//     */
-//    private TransactionRecord convertToTransactionRecord(MockTransaction transaction) {
-//        MockAccount fromAccount = getAccountByAddress(transaction.getFrom());
-//        MockAccount toAccount = getAccountByAddress(transaction.getTo());
-//
-//        return TransactionRecord.builder()
-//                .hash(transaction.getHash())
-//                .transactionHash(transaction.getHash())
-//                .from(transaction.getFrom())
-//                .to(transaction.getTo())
-//                .fromAccount(fromAccount != null ? fromAccount.getId() : null)
-//                .toAccount(toAccount != null ? toAccount.getId() : null)
-//                .amount(transaction.getAmount())
-//                .currencyCode(transaction.getCurrencyCode())
-//                .nonce(transaction.getNonce())
-//                .gasPrice(transaction.getGasPrice())
-//                .gasLimit(transaction.getGasLimit())
-//                .gasUsed(transaction.getGasUsed())
-//                .createdAt(transaction.getCreatedAt())
-//                .confirmedAt(transaction.getConfirmedAt())
-//                .blockNumber(transaction.getBlockNumber())
-//                .status(transaction.getStatus().name())
-//                .type(transaction.getType().name())
-//                .description(transaction.getDescription())
-//                .referenceId(transaction.getReferenceId())
-//                .build();
-//    }
-//
-//    /**
-//     * Deposit funds into an account.
-//     *
-//     * @param accountId    The ID of the account
-//     * @param amount       The amount to deposit
-//     * @param description  The description of the deposit
-//     * @param currencyCode The currency code of the deposit
-//     * @return The transaction hash
-//     */
-//    public String deposit(UUID accountId, BigDecimal amount, String description, String currencyCode) {
-//        log.info("Depositing {} {} into account {}", amount, currencyCode, accountId);
-//
-//        // Ensure the blockchain is initialized
-//        ensureInitialized();
-//
-//        // Get or create the account
-//        MockAccount account = getAccountById(accountId);
-//        if (account == null) {
-//            account = createAccount(accountId, currencyCode);
-//        }
-//
-//        // Create a transaction from the system account to the target account
-//        UUID systemAccountId = UUID.fromString("00000000-0000-0000-0000-000000000001");
-//        MockAccount systemAccount = getAccountById(systemAccountId);
-//        if (systemAccount == null) {
-//            systemAccount = createAccount(systemAccountId, currencyCode);
-//            // Give the system account a large balance
-//            systemAccount.credit(new BigDecimal("1000000.00"));
-//        } else {
-//            // Ensure the system account has enough balance
-//            if (systemAccount.getBalance().compareTo(amount) < 0) {
-//                systemAccount.credit(new BigDecimal("1000000.00"));
-//            }
-//        }
-//
-//        // Create a transaction (the actual crediting will happen during mineBlock)
-//        MockTransaction transaction = createTransaction(
-//                systemAccountId,
-//                accountId,
-//                amount,
-//                description,
-//                currencyCode
-//        );
-//
-//        // Mine a block to confirm the transaction
-//        mineBlock();
-//
-//        return transaction.getHash();
-//    }
-//
-//    /**
-//     * Get the account balance.
-//     *
-//     * @param accountId The ID of the account
-//     * @return The account balance
-//     */
-//    public AccountBalance getAccountBalance(UUID accountId) {
-//        log.info("Getting account balance for account: {}", accountId);
-//
-//        MockAccount account = getAccountById(accountId);
-//        if (account == null) {
-//            throw new IllegalArgumentException("Account not found: " + accountId);
-//        }
-//
-//        return AccountBalance.builder()
-//                .accountId(accountId)
-//                .balance(account.getBalance())
-//                .currencyCode(account.getCurrencyCode())
-//                .address(account.getAddress())
-//                .blockNumber(getCurrentBlockNumber())
-//                .timestamp(LocalDateTime.now())
-//                .build();
-//    }
-//
-//    /**
-//     * Reset the blockchain state.
-//     */
-//    public synchronized void reset() {
-//        log.info("Resetting mock blockchain state");
-//
-//        accountsById.clear();
-//        accountsByAddress.clear();
-//        transactionsByHash.clear();
-//        blocksByHash.clear();
-//        blocksByNumber.clear();
-//        pendingTransactions.clear();
-//        currentBlockNumber.set(0);
-//
-//        // Create genesis block
-//        genesisBlock = createGenesisBlock();
-//        latestBlock = genesisBlock;
-//
-//        log.info("Mock blockchain reset with genesis block: {}", genesisBlock.getHash());
-//    }
-//}
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.model.MockAccount;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.model.MockBlock;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.model.MockTransaction;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.store.MockBlockLog;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.AccountBalance;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.TransactionRecord;
+import com.ahmedyousri.boilerplate.springboot.banking.util.MoneyUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the state of the mock blockchain.
+ * Transactions are admitted concurrently into a lock-free mempool and a single
+ * block producer packs them into blocks on a fixed block time. When the block store is
+ * enabled, blocks are appended to a {@link MockBlockLog} and only the most recent ones are kept on heap.
+ */
+@Component
+@ConditionalOnProperty(name = "blockchain.mock.enabled", havingValue = "true")
+public class MockBlockchainState {
+
+    private static final Logger log = LoggerFactory.getLogger(MockBlockchainState.class);
+
+    /**
+     * The ID of the system account that mints deposits and burns withdrawals.
+     */
+    public static final UUID SYSTEM_ACCOUNT_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    private static final String ZERO_HASH = "0x0000000000000000000000000000000000000000000000000000000000000000";
+
+    private static final String ZERO_ADDRESS = "0x0000000000000000000000000000000000000000";
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    /**
+     * Accounts by ID.
+     */
+    @Getter
+    private final Map<UUID, MockAccount> accountsById = new ConcurrentHashMap<>();
+
+    /**
+     * Accounts by address.
+     */
+    @Getter
+    private final Map<String, MockAccount> accountsByAddress = new ConcurrentHashMap<>();
+
+    /**
+     * Transactions by hash.
+     */
+    @Getter
+    private final Map<String, MockTransaction> transactionsByHash = new ConcurrentHashMap<>();
+
+    /**
+     * Blocks by hash.
+     */
+    @Getter
+    private final Map<String, MockBlock> blocksByHash = new ConcurrentHashMap<>();
+
+    /**
+     * Blocks by number.
+     */
+    @Getter
+    private final Map<Long, MockBlock> blocksByNumber = new ConcurrentHashMap<>();
+
+    /**
+     * Admitted transactions waiting to be included in a block.
+     */
+    private final Queue<MockTransaction> mempool = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Size of the mempool, tracked separately because ConcurrentLinkedQueue.size() is O(n).
+     */
+    private final AtomicInteger mempoolSize = new AtomicInteger();
+
+    /**
+     * Futures waiting for a transaction to be included in a block.
+     */
+    private final Map<String, CompletableFuture<MockTransaction>> inclusionWaiters = new ConcurrentHashMap<>();
+
+    /**
+     * The current block number.
+     */
+    private final AtomicLong currentBlockNumber = new AtomicLong(0);
+
+    /**
+     * Nonce of the system account, kept outside the account monitor as every deposit and withdrawal uses it.
+     */
+    private final AtomicLong systemNonce = new AtomicLong(0);
+
+    /**
+     * Guards block production so only one block is assembled at a time.
+     */
+    private final Object blockLock = new Object();
+
+    private final long blockTimeMs;
+
+    private final int maxTransactionsPerBlock;
+
+    private final ForkJoinPool validationPool;
+
+    private final int heapMaxBlocks;
+
+    private final int snapshotIntervalBlocks;
+
+    /**
+     * The durable block log, or null if the chain is kept in memory only.
+     */
+    private final MockBlockLog blockLog;
+
+    private ScheduledExecutorService blockProducer;
+
+    /**
+     * The genesis block.
+     */
+    @Getter
+    private volatile MockBlock genesisBlock;
+
+    /**
+     * The latest block.
+     */
+    @Getter
+    private volatile MockBlock latestBlock;
+
+    public MockBlockchainState(BlockchainConfig blockchainConfig) {
+        this.blockTimeMs = Math.max(1, blockchainConfig.getMockBlockTimeMs());
+        this.maxTransactionsPerBlock = Math.max(1, blockchainConfig.getMockBlockMaxTransactions());
+        int parallelism = blockchainConfig.getMockValidationParallelism() > 0
+                ? blockchainConfig.getMockValidationParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        this.validationPool = new ForkJoinPool(parallelism);
+        this.heapMaxBlocks = Math.max(1, blockchainConfig.getMockHeapMaxBlocks());
+        this.snapshotIntervalBlocks = Math.max(1, blockchainConfig.getMockStoreSnapshotIntervalBlocks());
+        this.blockLog = blockchainConfig.isMockStoreEnabled()
+                ? MockBlockLog.open(Path.of(blockchainConfig.getMockStoreDirectory()), blockchainConfig.getMockStoreSegmentSizeBytes())
+                : null;
+        this.genesisBlock = createGenesisBlock();
+        this.latestBlock = genesisBlock;
+        if (blockLog != null) {
+            restore();
+        }
+    }
+
+    /**
+     * Rebuild accounts from the committed state of the block log, which is the last snapshot
+     * plus the blocks after it, and the hot blocks and the account histories of the blocks
+     * after the snapshot or in the heap window. Older transactions are read from the log by hash.
+     */
+    private void restore() {
+        blockLog.getCommittedAccounts().forEach((accountId, committed) -> {
+            MockAccount account = createAccount(accountId, committed.getCurrencyCode());
+            account.setBalance(committed.getBalance());
+            account.setNonce(committed.getNonce());
+        });
+        systemNonce.set(blockLog.getCommittedSystemNonce());
+
+        long lastHeight = blockLog.getLastHeight();
+        long historyFrom = Math.min(blockLog.getSnapshotHeight() + 1, lastHeight - heapMaxBlocks + 1);
+        blockLog.forEachTransaction(historyFrom, (hash, fromAccountId, toAccountId) -> {
+            if (!SYSTEM_ACCOUNT_ID.equals(fromAccountId)) {
+                accountsById.get(fromAccountId).getTransactionHashes().add(hash);
+            }
+            if (!SYSTEM_ACCOUNT_ID.equals(toAccountId)) {
+                accountsById.get(toAccountId).getTransactionHashes().add(hash);
+            }
+        });
+
+        for (long height = Math.max(1, lastHeight - heapMaxBlocks + 1); height <= lastHeight; height++) {
+            MockBlock block = blockLog.readBlock(height);
+            blocksByHash.put(block.getHash(), block);
+            blocksByNumber.put(height, block);
+            for (MockTransaction transaction : block.getTransactions()) {
+                transactionsByHash.put(transaction.getHash(), transaction);
+            }
+            latestBlock = block;
+        }
+        currentBlockNumber.set(lastHeight);
+
+        log.info("Restored mock chain at height {} with {} accounts", lastHeight, accountsById.size());
+    }
+
+    /**
+     * Start the block producer.
+     */
+    @PostConstruct
+    public void initialize() {
+        log.info("Starting mock block producer with block time {} ms and at most {} transactions per block",
+                blockTimeMs, maxTransactionsPerBlock);
+
+        blockProducer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mock-block-producer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        blockProducer.scheduleAtFixedRate(this::produceBlockSafely, blockTimeMs, blockTimeMs, TimeUnit.MILLISECONDS);
+
+        log.info("Mock blockchain initialized with genesis block: {}", genesisBlock.getHash());
+    }
+
+    /**
+     * Stop the block producer and the validation pool.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (blockProducer != null) {
+            blockProducer.shutdownNow();
+        }
+        validationPool.shutdownNow();
+        if (blockLog != null) {
+            synchronized (blockLock) {
+                blockLog.close();
+            }
+        }
+    }
+
+    /**
+     * Create a new account, or return the existing one.
+     *
+     * @param id           The ID of the account
+     * @param currencyCode The currency code of the account
+     * @return The account
+     */
+    public MockAccount createAccount(UUID id, String currencyCode) {
+        return accountsById.computeIfAbsent(id, accountId -> {
+            String address = addressOf(accountId);
+            LocalDateTime now = LocalDateTime.now();
+
+            MockAccount account = MockAccount.builder()
+                    .id(accountId)
+                    .address(address)
+                    .balance(BigDecimal.ZERO)
+                    .currencyCode(currencyCode)
+                    .nonce(0)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .transactionHashes(new ArrayList<>())
+                    .isContract(false)
+                    .status(MockAccount.AccountStatus.ACTIVE)
+                    .build();
+
+            accountsByAddress.put(address, account);
+            log.debug("Created account with ID: {} and address: {}", accountId, address);
+            return account;
+        });
+    }
+
+    /**
+     * Get an account by ID.
+     *
+     * @param id The ID of the account
+     * @return The account, or null if not found
+     */
+    public MockAccount getAccountById(UUID id) {
+        return accountsById.get(id);
+    }
+
+    /**
+     * Get an account by address.
+     *
+     * @param address The address of the account
+     * @return The account, or null if not found
+     */
+    public MockAccount getAccountByAddress(String address) {
+        return accountsByAddress.get(address);
+    }
+
+    /**
+     * Submit a deposit minted by the system account.
+     *
+     * @param accountId    The ID of the account to credit
+     * @param amount       The amount to deposit
+     * @param description  The description of the deposit
+     * @param currencyCode The currency code of the deposit
+     * @return The admitted transaction
+     */
+    public MockTransaction submitDeposit(UUID accountId, BigDecimal amount, String description, String currencyCode) {
+        MockAccount account = createAccount(accountId, currencyCode);
+        return admit(systemAccount(currencyCode), account, amount, currencyCode, description, null);
+    }
+
+    /**
+     * Submit a withdrawal burned into the system account.
+     *
+     * @param accountId   The ID of the account to debit
+     * @param amount      The amount to withdraw
+     * @param description The description of the withdrawal
+     * @return The admitted transaction
+     * @throws IllegalArgumentException If the account is not found
+     * @throws IllegalStateException    If the account has insufficient funds
+     */
+    public MockTransaction submitWithdrawal(UUID accountId, BigDecimal amount, String description) {
+        MockAccount account = requireAccount(accountId);
+        return admit(account, systemAccount(account.getCurrencyCode()), amount, account.getCurrencyCode(), description, null);
+    }
+
+    /**
+     * Submit a transfer between two accounts.
+     *
+     * @param fromAccountId The ID of the sender account
+     * @param toAccountId   The ID of the recipient account
+     * @param amount        The amount of the transaction
+     * @param description   The description of the transaction
+     * @param currencyCode  The currency code of the transaction
+     * @param referenceId   The reference ID of the transaction
+     * @return The admitted transaction
+     * @throws IllegalArgumentException If the sender account is not found
+     * @throws IllegalStateException    If the sender account has insufficient funds
+     */
+    public MockTransaction submitTransfer(
+            UUID fromAccountId,
+            UUID toAccountId,
+            BigDecimal amount,
+            String description,
+            String currencyCode,
+            String referenceId
+    ) {
+        MockAccount fromAccount = requireAccount(fromAccountId);
+        MockAccount toAccount = createAccount(toAccountId, currencyCode);
+        return admit(fromAccount, toAccount, amount, currencyCode, description, referenceId);
+    }
+
+    /**
+     * Validate a transaction and apply its balance changes, then queue it for the next block.
+     * Validation only takes the monitors of the accounts involved, so unrelated
+     * transactions are admitted in parallel.
+     */
+    private MockTransaction admit(
+            MockAccount fromAccount,
+            MockAccount toAccount,
+            BigDecimal amount,
+            String currencyCode,
+            String description,
+            String referenceId
+    ) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        if (fromAccount.getStatus() != MockAccount.AccountStatus.ACTIVE) {
+            throw new IllegalStateException("Account is not active: " + fromAccount.getId());
+        }
+
+        boolean mint = isSystemAccount(fromAccount);
+        boolean burn = isSystemAccount(toAccount);
+
+        if (!mint) {
+            fromAccount.debit(amount);
+        }
+        if (!burn) {
+            toAccount.credit(amount);
+        }
+
+        long nonce = mint ? systemNonce.incrementAndGet() : fromAccount.incrementNonce();
+        String hash = generateTransactionHash(fromAccount.getAddress(), toAccount.getAddress(), amount, currencyCode, nonce);
+
+        MockTransaction transaction = MockTransaction.builder()
+                .id(UUID.randomUUID())
+                .hash(hash)
+                .from(fromAccount.getAddress())
+                .to(toAccount.getAddress())
+                .fromAccountId(fromAccount.getId())
+                .toAccountId(toAccount.getId())
+                .amount(amount)
+                .currencyCode(currencyCode)
+                .nonce(nonce)
+                .gasPrice(21000000000L)
+                .gasLimit(21000)
+                .gasUsed(21000)
+                .createdAt(LocalDateTime.now())
+                .status(MockTransaction.TransactionStatus.PENDING)
+                .type(MockTransaction.TransactionType.TRANSFER)
+                .description(description)
+                .referenceId(referenceId != null ? referenceId : hash)
+                .build();
+
+        transactionsByHash.put(hash, transaction);
+        if (!mint) {
+            fromAccount.addTransactionHash(hash);
+        }
+        if (!burn) {
+            toAccount.addTransactionHash(hash);
+        }
+
+        mempool.offer(transaction);
+        mempoolSize.incrementAndGet();
+
+        log.debug("Admitted transaction {} from: {} to: {} amount: {}", hash, fromAccount.getId(), toAccount.getId(), amount);
+
+        return transaction;
+    }
+
+    /**
+     * Wait for a transaction to be included in a block.
+     *
+     * @param hash The hash of the transaction
+     * @return A future that completes with the transaction once it leaves the mempool
+     */
+    public CompletableFuture<MockTransaction> awaitInclusion(String hash) {
+        MockTransaction transaction = getTransactionByHash(hash);
+        if (transaction == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Transaction not found: " + hash));
+        }
+        if (transaction.getStatus() != MockTransaction.TransactionStatus.PENDING) {
+            return CompletableFuture.completedFuture(transaction);
+        }
+
+        CompletableFuture<MockTransaction> future = inclusionWaiters.computeIfAbsent(hash, h -> new CompletableFuture<>());
+
+        // The producer may have included the transaction between the status check and the registration
+        if (transaction.getStatus() != MockTransaction.TransactionStatus.PENDING) {
+            inclusionWaiters.remove(hash);
+            future.complete(transaction);
+        }
+        return future;
+    }
+
+    /**
+     * Mine the pending transactions into a new block.
+     *
+     * @return The created block, or null if there are no pending transactions
+     */
+    public MockBlock mineBlock() {
+        if (mempoolSize.get() == 0) {
+            log.debug("No pending transactions to mine");
+            return null;
+        }
+        return produceBlock();
+    }
+
+    private void produceBlockSafely() {
+        try {
+            produceBlock();
+        } catch (Exception e) {
+            log.error("Error producing mock block: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Drain up to the per-block limit from the mempool and append a new block.
+     * Empty blocks are produced too so block heights keep advancing, as on a Tendermint chain.
+     *
+     * @return The created block
+     */
+    public MockBlock produceBlock() {
+        synchronized (blockLock) {
+            List<MockTransaction> batch = drainMempool();
+            List<MockTransaction> included = validate(batch);
+
+            MockBlock parent = latestBlock;
+            long blockNumber = parent.getNumber() + 1;
+            String blockHash = generateBlockHash(blockNumber, parent.getHash(), included);
+
+            MockBlock block = MockBlock.builder()
+                    .number(blockNumber)
+                    .hash(blockHash)
+                    .parentHash(parent.getHash())
+                    .timestamp(LocalDateTime.now())
+                    .miner(ZERO_ADDRESS)
+                    .difficulty(1)
+                    .totalDifficulty(parent.getTotalDifficulty() + 1)
+                    .size(1000)
+                    .gasLimit(8000000)
+                    .gasUsed(0)
+                    .nonce("0x0000000000000000")
+                    .extraData("0x")
+                    .transactionHashes(new ArrayList<>(included.size()))
+                    .transactions(new ArrayList<>(included.size()))
+                    .status(MockBlock.BlockStatus.PENDING)
+                    .build();
+
+            long totalGasUsed = 0;
+            for (MockTransaction transaction : included) {
+                block.addTransaction(transaction);
+                totalGasUsed += transaction.getGasUsed();
+            }
+            block.setGasUsed(totalGasUsed);
+            block.confirm();
+
+            blocksByHash.put(blockHash, block);
+            blocksByNumber.put(blockNumber, block);
+            currentBlockNumber.set(blockNumber);
+            latestBlock = block;
+
+            if (!inclusionWaiters.isEmpty()) {
+                for (MockTransaction transaction : batch) {
+                    CompletableFuture<MockTransaction> waiter = inclusionWaiters.remove(transaction.getHash());
+                    if (waiter != null) {
+                        waiter.complete(transaction);
+                    }
+                }
+            }
+
+            if (blockLog != null) {
+                persist(block);
+            }
+
+            if (!batch.isEmpty()) {
+                log.debug("Produced block {} ({}) with {} transactions", blockNumber, blockHash, included.size());
+            }
+            return block;
+        }
+    }
+
+    /**
+     * Append the blocks from the end of the log up to a block, evicting each block that falls out
+     * of the heap window and writing a snapshot every configured number of blocks. A block that
+     * fails to append is not evicted, and is appended again before the next block.
+     */
+    private void persist(MockBlock block) {
+        for (long height = blockLog.getLastHeight() + 1; height <= block.getNumber(); height++) {
+            try {
+                blockLog.append(blocksByNumber.get(height));
+            } catch (RuntimeException e) {
+                log.error("Failed to persist mock block {}, {} blocks are not yet durable: {}",
+                        height, block.getNumber() - height + 1, e.getMessage(), e);
+                return;
+            }
+
+            evict(height - heapMaxBlocks);
+
+            if (height % snapshotIntervalBlocks == 0) {
+                try {
+                    blockLog.writeSnapshot();
+                } catch (RuntimeException e) {
+                    log.error("Failed to write mock chain snapshot at block {}: {}", height, e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private void evict(long height) {
+        if (height < 1) {
+            return;
+        }
+        MockBlock block = blocksByNumber.remove(height);
+        if (block == null) {
+            return;
+        }
+        blocksByHash.remove(block.getHash());
+        for (String hash : block.getTransactionHashes()) {
+            transactionsByHash.remove(hash);
+        }
+    }
+
+    private List<MockTransaction> drainMempool() {
+        List<MockTransaction> batch = new ArrayList<>(Math.min(mempoolSize.get(), maxTransactionsPerBlock));
+        MockTransaction transaction;
+        while (batch.size() < maxTransactionsPerBlock && (transaction = mempool.poll()) != null) {
+            batch.add(transaction);
+        }
+        mempoolSize.addAndGet(-batch.size());
+        return batch;
+    }
+
+    /**
+     * Check the transactions of a block in parallel against the state of their accounts when the
+     * block is produced, and drop the ones that fail: a sender or recipient that was frozen or
+     * closed after the transaction was admitted. Funds, amounts and nonces are checked at
+     * admission, where the debit holds the monitor of the account. A dropped transaction has
+     * its balance changes reverted; one whose credit the recipient has already spent cannot be
+     * reverted and stays in the block.
+     */
+    private List<MockTransaction> validate(List<MockTransaction> batch) {
+        if (batch.isEmpty()) {
+            return batch;
+        }
+
+        List<String> errors;
+        try {
+            errors = validationPool.submit(() -> batch.parallelStream()
+                    .map(this::check)
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errors = batch.stream().map(this::check).collect(Collectors.toList());
+        } catch (ExecutionException | RejectedExecutionException e) {
+            // The batch has left the mempool, so it is checked on this thread rather than lost
+            log.warn("Parallel validation failed, validating {} transactions sequentially: {}", batch.size(), e.getMessage());
+            errors = batch.stream().map(this::check).collect(Collectors.toList());
+        }
+
+        List<MockTransaction> valid = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            MockTransaction transaction = batch.get(i);
+            String error = errors.get(i);
+            if (error == null || !revert(transaction)) {
+                valid.add(transaction);
+                continue;
+            }
+            log.warn("Dropping transaction {}: {}", transaction.getHash(), error);
+            transaction.fail(error);
+        }
+        return valid.size() == batch.size() ? batch : valid;
+    }
+
+    /**
+     * Check that the accounts of a transaction are still active, without changing them.
+     *
+     * @return The reason the transaction is invalid, or null if it is valid
+     */
+    private String check(MockTransaction transaction) {
+        for (MockAccount account : List.of(requireAccount(transaction.getFromAccountId()),
+                requireAccount(transaction.getToAccountId()))) {
+            if (!isSystemAccount(account) && account.getStatus() != MockAccount.AccountStatus.ACTIVE) {
+                return "Account is not active: " + account.getId();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Undo the balance changes of a transaction.
+     *
+     * @return Whether the changes were undone; false if the recipient no longer holds the amount
+     */
+    private boolean revert(MockTransaction transaction) {
+        MockAccount fromAccount = getAccountById(transaction.getFromAccountId());
+        MockAccount toAccount = getAccountById(transaction.getToAccountId());
+        if (!isSystemAccount(toAccount)) {
+            try {
+                toAccount.debit(transaction.getAmount());
+            } catch (IllegalStateException e) {
+                log.warn("Keeping transaction {}, its recipient {} has already spent the amount",
+                        transaction.getHash(), toAccount.getId());
+                return false;
+            }
+        }
+        if (!isSystemAccount(fromAccount)) {
+            fromAccount.credit(transaction.getAmount());
+        }
+        return true;
+    }
+
+    private MockAccount requireAccount(UUID accountId) {
+        MockAccount account = getAccountById(accountId);
+        if (account == null) {
+            throw new IllegalArgumentException("Account not found: " + accountId);
+        }
+        return account;
+    }
+
+    private MockAccount systemAccount(String currencyCode) {
+        return createAccount(SYSTEM_ACCOUNT_ID, currencyCode);
+    }
+
+    private boolean isSystemAccount(MockAccount account) {
+        return SYSTEM_ACCOUNT_ID.equals(account.getId());
+    }
+
+    /**
+     * Create the genesis block.
+     *
+     * @return The genesis block
+     */
+    private MockBlock createGenesisBlock() {
+        String blockHash = generateBlockHash(0, ZERO_HASH, Collections.emptyList());
+
+        MockBlock block = MockBlock.builder()
+                .number(0)
+                .hash(blockHash)
+                .parentHash(ZERO_HASH)
+                .timestamp(LocalDateTime.now())
+                .miner(ZERO_ADDRESS)
+                .difficulty(1)
+                .totalDifficulty(1)
+                .size(1000)
+                .gasLimit(8000000)
+                .gasUsed(0)
+                .nonce("0x0000000000000000")
+                .extraData("0x")
+                .transactionHashes(new ArrayList<>())
+                .transactions(new ArrayList<>())
+                .status(MockBlock.BlockStatus.CONFIRMED)
+                .build();
+
+        blocksByHash.put(blockHash, block);
+        blocksByNumber.put(0L, block);
+
+        return block;
+    }
+
+    /**
+     * Derive the blockchain address of an account.
+     *
+     * @param id The ID of the account
+     * @return The address
+     */
+    public static String addressOf(UUID id) {
+        byte[] hash = sha256(id.toString());
+        return "0x" + HEX.formatHex(hash, 0, 20);
+    }
+
+    /**
+     * Generate a deterministic hash for a transaction.
+     * The sender nonce makes the hash unique, so no clock input is needed.
+     *
+     * @param from         The address of the sender
+     * @param to           The address of the recipient
+     * @param amount       The amount of the transaction
+     * @param currencyCode The currency code of the transaction
+     * @param nonce        The nonce of the transaction
+     * @return The generated hash
+     */
+    static String generateTransactionHash(String from, String to, BigDecimal amount, String currencyCode, long nonce) {
+        String data = from + '|' + to + '|' + amount.stripTrailingZeros().toPlainString() + '|' + currencyCode + '|' + nonce;
+        return "0x" + HEX.formatHex(sha256(data));
+    }
+
+    /**
+     * Generate a deterministic hash for a block from its height, parent and transactions.
+     *
+     * @param blockNumber  The number of the block
+     * @param parentHash   The hash of the parent block
+     * @param transactions The list of transactions in the block
+     * @return The generated hash
+     */
+    static String generateBlockHash(long blockNumber, String parentHash, List<MockTransaction> transactions) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        digest.update(Long.toString(blockNumber).getBytes(StandardCharsets.UTF_8));
+        digest.update(parentHash.getBytes(StandardCharsets.UTF_8));
+        for (MockTransaction transaction : transactions) {
+            digest.update(transaction.getHash().getBytes(StandardCharsets.UTF_8));
+        }
+        return "0x" + HEX.formatHex(digest.digest());
+    }
+
+    private static byte[] sha256(String data) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        return digest.digest(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get the balance of an account.
+     *
+     * @param accountId The ID of the account
+     * @return The balance of the account
+     * @throws IllegalArgumentException If the account is not found
+     */
+    public BigDecimal getBalance(UUID accountId) {
+        return MoneyUtil.round(requireAccount(accountId).getBalance());
+    }
+
+    /**
+     * Get a transaction by hash.
+     *
+     * @param hash The hash of the transaction
+     * @return The transaction, or null if not found
+     */
+    public MockTransaction getTransactionByHash(String hash) {
+        MockTransaction transaction = transactionsByHash.get(hash);
+        if (transaction == null && blockLog != null) {
+            transaction = blockLog.readTransaction(hash);
+        }
+        return transaction;
+    }
+
+    /**
+     * Get a block by hash.
+     *
+     * @param hash The hash of the block
+     * @return The block, or null if not found
+     */
+    public MockBlock getBlockByHash(String hash) {
+        MockBlock block = blocksByHash.get(hash);
+        if (block == null && blockLog != null) {
+            block = blockLog.readBlock(hash);
+        }
+        return block;
+    }
+
+    /**
+     * Get a block by number.
+     *
+     * @param number The number of the block
+     * @return The block, or null if not found
+     */
+    public MockBlock getBlockByNumber(long number) {
+        MockBlock block = blocksByNumber.get(number);
+        if (block == null && blockLog != null) {
+            block = blockLog.readBlock(number);
+        }
+        return block;
+    }
+
+    /**
+     * Get the current block number.
+     *
+     * @return The current block number
+     */
+    public long getCurrentBlockNumber() {
+        return currentBlockNumber.get();
+    }
+
+    /**
+     * Get the number of transactions waiting in the mempool.
+     *
+     * @return The mempool size
+     */
+    public int getPendingTransactionCount() {
+        return mempoolSize.get();
+    }
+
+    /**
+     * Get a snapshot of the transactions waiting in the mempool.
+     *
+     * @return The pending transactions
+     */
+    public List<MockTransaction> getPendingTransactions() {
+        return new ArrayList<>(mempool);
+    }
+
+    /**
+     * Get the transaction history for an account, newest first.
+     *
+     * @param accountId The ID of the account
+     * @return The list of transactions
+     * @throws IllegalArgumentException If the account is not found
+     */
+    public List<MockTransaction> getTransactionHistory(UUID accountId) {
+        MockAccount account = requireAccount(accountId);
+
+        List<String> hashes;
+        synchronized (account) {
+            hashes = new ArrayList<>(account.getTransactionHashes());
+        }
+        Collections.reverse(hashes);
+
+        return hashes.stream()
+                .map(this::getTransactionByHash)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get transactions for an account.
+     *
+     * @param accountId The ID of the account
+     * @return The list of transaction records
+     * @throws IllegalArgumentException If the account is not found
+     */
+    public List<TransactionRecord> getTransactions(UUID accountId) {
+        return getTransactionHistory(accountId).stream()
+                .map(this::convertToTransactionRecord)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get a transaction by hash.
+     *
+     * @param hash The hash of the transaction
+     * @return The transaction record, or null if not found
+     */
+    public TransactionRecord getTransaction(String hash) {
+        MockTransaction transaction = getTransactionByHash(hash);
+        if (transaction == null) {
+            return null;
+        }
+
+        return convertToTransactionRecord(transaction);
+    }
+
+    /**
+     * Convert a MockTransaction to a TransactionRecord.
+     *
+     * @param transaction The mock transaction
+     * @return The transaction record
+     */
+    public TransactionRecord convertToTransactionRecord(MockTransaction transaction) {
+        return TransactionRecord.builder()
+                .hash(transaction.getHash())
+                .transactionHash(transaction.getHash())
+                .from(transaction.getFrom())
+                .to(transaction.getTo())
+                .fromAccount(transaction.getFromAccountId())
+                .toAccount(transaction.getToAccountId())
+                .amount(transaction.getAmount())
+                .currencyCode(transaction.getCurrencyCode())
+                .nonce(transaction.getNonce())
+                .gasPrice(transaction.getGasPrice())
+                .gasLimit(transaction.getGasLimit())
+                .gasUsed(transaction.getGasUsed())
+                .createdAt(transaction.getCreatedAt())
+                .confirmedAt(transaction.getConfirmedAt())
+                .blockHash(transaction.getBlockHash())
+                .blockNumber(transaction.getBlockNumber())
+                .transactionIndex(transaction.getTransactionIndex())
+                .status(transaction.getStatus().name())
+                .type(transaction.getType().name())
+                .input(transaction.getInput())
+                .description(transaction.getDescription())
+                .referenceId(transaction.getReferenceId())
+                .build();
+    }
+
+    /**
+     * Get the account balance.
+     *
+     * @param accountId The ID of the account
+     * @return The account balance
+     * @throws IllegalArgumentException If the account is not found
+     */
+    public AccountBalance getAccountBalance(UUID accountId) {
+        MockAccount account = requireAccount(accountId);
+
+        return AccountBalance.builder()
+                .accountId(accountId)
+                .balance(account.getBalance())
+                .currencyCode(account.getCurrencyCode())
+                .address(account.getAddress())
+                .blockNumber(getCurrentBlockNumber())
+                .timestamp(LocalDateTime.now())
+                .exists(true)
+                .build();
+    }
+
+    /**
+     * Reset the blockchain state.
+     */
+    public void reset() {
+        synchronized (blockLock) {
+            log.info("Resetting mock blockchain state");
+
+            mempool.clear();
+            mempoolSize.set(0);
+            inclusionWaiters.values().forEach(waiter ->
+                    waiter.completeExceptionally(new IllegalStateException("Mock blockchain was reset")));
+            inclusionWaiters.clear();
+            accountsById.clear();
+            accountsByAddress.clear();
+            transactionsByHash.clear();
+            blocksByHash.clear();
+            blocksByNumber.clear();
+            currentBlockNumber.set(0);
+            systemNonce.set(0);
+            if (blockLog != null) {
+                blockLog.reset();
+            }
+
+            genesisBlock = createGenesisBlock();
+            latestBlock = genesisBlock;
+
+            log.info("Mock blockchain reset with genesis block: {}", genesisBlock.getHash());
+        }
+    }
+}
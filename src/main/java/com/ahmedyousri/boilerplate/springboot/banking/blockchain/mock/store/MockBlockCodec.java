@@ -0,0 +1,290 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.store;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.model.MockBlock;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.model.MockTransaction;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.service.MockBlockchainState;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of mock blocks and their transactions.
+ * Hashes are stored as raw 32-byte digests and addresses as the 16-byte account IDs
+ * they are derived from, so a typical transfer encodes to roughly 130 bytes.
+ *
+ * <pre>
+ * block := number:i64 hash:32 parentHash:32 timestamp:i64 gasUsed:i64 txCount:i32 tx*
+ * tx    := length:i32 hash:32 from:uuid to:uuid nonce:i64 createdAt:i64 gasUsed:i32 type:i8
+ *          amountScale:i32 amountUnscaled:bytes currency:str description:str referenceId:str
+ * </pre>
+ */
+public final class MockBlockCodec {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private static final int NULL_LENGTH = -1;
+
+    private MockBlockCodec() {
+    }
+
+    /**
+     * Encode a block into the buffer at its current position.
+     *
+     * @param block  The block to encode
+     * @param buffer The target buffer
+     * @throws java.nio.BufferOverflowException If the buffer is too small
+     */
+    public static void encode(MockBlock block, ByteBuffer buffer) {
+        buffer.putLong(block.getNumber());
+        putHash(buffer, block.getHash());
+        putHash(buffer, block.getParentHash());
+        buffer.putLong(toEpochMillis(block.getTimestamp()));
+        buffer.putLong(block.getGasUsed());
+
+        List<MockTransaction> transactions = block.getTransactions() != null ? block.getTransactions() : List.of();
+        buffer.putInt(transactions.size());
+        for (MockTransaction transaction : transactions) {
+            int lengthPosition = buffer.position();
+            buffer.putInt(0);
+            int start = buffer.position();
+
+            putHash(buffer, transaction.getHash());
+            putUuid(buffer, transaction.getFromAccountId());
+            putUuid(buffer, transaction.getToAccountId());
+            buffer.putLong(transaction.getNonce());
+            buffer.putLong(toEpochMillis(transaction.getCreatedAt()));
+            buffer.putInt((int) transaction.getGasUsed());
+            buffer.put((byte) transaction.getType().ordinal());
+            buffer.putInt(transaction.getAmount().scale());
+            putBytes(buffer, transaction.getAmount().unscaledValue().toByteArray());
+            putString(buffer, transaction.getCurrencyCode());
+            putString(buffer, transaction.getDescription());
+            putString(buffer, transaction.getReferenceId());
+
+            buffer.putInt(lengthPosition, buffer.position() - start);
+        }
+    }
+
+    /**
+     * Upper bound of the encoded size of a block, used to size write buffers.
+     *
+     * @param block The block
+     * @return The maximum number of bytes {@link #encode} may write
+     */
+    public static int maxEncodedSize(MockBlock block) {
+        int size = 8 + 32 + 32 + 8 + 8 + 4;
+        if (block.getTransactions() != null) {
+            for (MockTransaction transaction : block.getTransactions()) {
+                size += 4 + 32 + 16 + 16 + 8 + 8 + 4 + 1 + 4
+                        + 4 + transaction.getAmount().unscaledValue().bitLength() / 8 + 1
+                        + maxStringSize(transaction.getCurrencyCode())
+                        + maxStringSize(transaction.getDescription())
+                        + maxStringSize(transaction.getReferenceId());
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Decode a block from the buffer at its current position.
+     * Transactions are returned confirmed at their position in the block.
+     *
+     * @param buffer The source buffer
+     * @return The decoded block
+     */
+    public static MockBlock decode(ByteBuffer buffer) {
+        long number = buffer.getLong();
+        String hash = getHash(buffer);
+        String parentHash = getHash(buffer);
+        LocalDateTime timestamp = fromEpochMillis(buffer.getLong());
+        long gasUsed = buffer.getLong();
+        int count = buffer.getInt();
+
+        MockBlock block = MockBlock.builder()
+                .number(number)
+                .hash(hash)
+                .parentHash(parentHash)
+                .timestamp(timestamp)
+                .miner("0x0000000000000000000000000000000000000000")
+                .difficulty(1)
+                .totalDifficulty(number + 1)
+                .size(1000)
+                .gasLimit(8000000)
+                .gasUsed(gasUsed)
+                .nonce("0x0000000000000000")
+                .extraData("0x")
+                .transactionHashes(new ArrayList<>(count))
+                .transactions(new ArrayList<>(count))
+                .status(MockBlock.BlockStatus.CONFIRMED)
+                .build();
+
+        for (int i = 0; i < count; i++) {
+            buffer.getInt();
+            String txHash = getHash(buffer);
+            UUID fromAccountId = getUuid(buffer);
+            UUID toAccountId = getUuid(buffer);
+            long nonce = buffer.getLong();
+            LocalDateTime createdAt = fromEpochMillis(buffer.getLong());
+            long txGasUsed = buffer.getInt();
+            MockTransaction.TransactionType type = MockTransaction.TransactionType.values()[buffer.get()];
+            int scale = buffer.getInt();
+            BigDecimal amount = new BigDecimal(new BigInteger(getBytes(buffer)), scale);
+
+            MockTransaction transaction = MockTransaction.builder()
+                    .id(UUID.nameUUIDFromBytes(txHash.getBytes(StandardCharsets.UTF_8)))
+                    .hash(txHash)
+                    .from(MockBlockchainState.addressOf(fromAccountId))
+                    .to(MockBlockchainState.addressOf(toAccountId))
+                    .fromAccountId(fromAccountId)
+                    .toAccountId(toAccountId)
+                    .amount(amount)
+                    .nonce(nonce)
+                    .gasPrice(21000000000L)
+                    .gasLimit(21000)
+                    .gasUsed(txGasUsed)
+                    .createdAt(createdAt)
+                    .type(type)
+                    .currencyCode(getString(buffer))
+                    .description(getString(buffer))
+                    .referenceId(getString(buffer))
+                    .build();
+
+            block.getTransactions().add(transaction);
+            block.getTransactionHashes().add(txHash);
+            transaction.confirm(hash, number, i);
+            transaction.setConfirmedAt(timestamp);
+        }
+        return block;
+    }
+
+    /**
+     * Visit the hash and account IDs of each transaction in an encoded block without decoding the rest.
+     *
+     * @param buffer  The source buffer, positioned at the start of the block
+     * @param visitor The visitor
+     * @return The block number
+     */
+    public static long scan(ByteBuffer buffer, TransactionVisitor visitor) {
+        long number = buffer.getLong();
+        buffer.position(buffer.position() + 32 + 32 + 8 + 8);
+        int count = buffer.getInt();
+
+        for (int i = 0; i < count; i++) {
+            int length = buffer.getInt();
+            int start = buffer.position();
+            String txHash = getHash(buffer);
+            UUID fromAccountId = getUuid(buffer);
+            UUID toAccountId = getUuid(buffer);
+            visitor.visit(txHash, fromAccountId, toAccountId);
+            buffer.position(start + length);
+        }
+        return number;
+    }
+
+    /**
+     * Read the block hash of an encoded block without moving the buffer position.
+     *
+     * @param buffer The source buffer, positioned at the start of the block
+     * @return The block hash
+     */
+    public static String peekHash(ByteBuffer buffer) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(buffer.position() + 8);
+        return getHash(view);
+    }
+
+    /**
+     * Callback for {@link #scan}.
+     */
+    @FunctionalInterface
+    public interface TransactionVisitor {
+
+        /**
+         * Visit a transaction.
+         *
+         * @param hash          The transaction hash
+         * @param fromAccountId The sender account ID
+         * @param toAccountId   The recipient account ID
+         */
+        void visit(String hash, UUID fromAccountId, UUID toAccountId);
+    }
+
+    /**
+     * Convert a hash string to the 8-byte key used by the primitive indexes.
+     *
+     * @param hash The hash ("0x" followed by 64 hex characters)
+     * @return The first 8 bytes of the hash as a long
+     */
+    public static long hashKey(String hash) {
+        return HexFormat.fromHexDigitsToLong(hash, 2, 18);
+    }
+
+    static void putHash(ByteBuffer buffer, String hash) {
+        buffer.put(HEX.parseHex(hash, 2, hash.length()));
+    }
+
+    static String getHash(ByteBuffer buffer) {
+        byte[] bytes = new byte[32];
+        buffer.get(bytes);
+        return "0x" + HEX.formatHex(bytes);
+    }
+
+    static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+    }
+
+    static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    static byte[] getBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(NULL_LENGTH);
+            return;
+        }
+        putBytes(buffer, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int maxStringSize(String value) {
+        return 4 + (value == null ? 0 : value.length() * 3);
+    }
+
+    static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toInstant(ZoneOffset.UTC).toEpochMilli() : 0L;
+    }
+
+    static LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+}
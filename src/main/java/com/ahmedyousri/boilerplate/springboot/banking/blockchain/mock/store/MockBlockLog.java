@@ -0,0 +1,561 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.store;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.model.MockBlock;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.model.MockTransaction;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.service.MockBlockchainState;
+import com.ahmedyousri.boilerplate.springboot.banking.util.LongLongHashMap;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only block log for the mock chain.
+ * Blocks are written to fixed-size memory-mapped segment files as
+ * {@code length:i32 crc32c:i32 payload} records, where the payload is encoded by {@link MockBlockCodec}.
+ * The log keeps an offset index by height, primitive hash indexes for blocks and transactions,
+ * and the committed account state, which is periodically written to a snapshot so a restart
+ * only has to replay the blocks after it.
+ */
+public class MockBlockLog implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(MockBlockLog.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final int SNAPSHOT_MAGIC = 0x4D4B5331;
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    /**
+     * Record location by height, packed as segment index (high 32 bits) and offset (low 32 bits).
+     */
+    private volatile long[] heightIndex = new long[1024];
+
+    private volatile long lastHeight;
+
+    private final LongLongHashMap blockHashIndex = new LongLongHashMap(1024, -1L);
+
+    private final LongLongHashMap transactionHashIndex = new LongLongHashMap(1 << 16, -1L);
+
+    private final Map<UUID, CommittedAccount> committedAccounts = new HashMap<>();
+
+    private long committedSystemNonce;
+
+    private long snapshotHeight;
+
+    private ByteBuffer scratch = ByteBuffer.allocate(64 * 1024);
+
+    /**
+     * Account state as of the last appended block.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class CommittedAccount {
+
+        /**
+         * The currency code of the account.
+         */
+        private String currencyCode;
+
+        /**
+         * The balance of the account.
+         */
+        private BigDecimal balance;
+
+        /**
+         * The highest nonce used by the account.
+         */
+        private long nonce;
+    }
+
+    private static final class Segment {
+        private final long baseHeight;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+
+        private Segment(long baseHeight, FileChannel channel, MappedByteBuffer buffer) {
+            this.baseHeight = baseHeight;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * Open the log, rebuilding the indexes and the committed state from the snapshot and the segments after it.
+     *
+     * @param directory   The directory holding the segment files
+     * @param segmentSize The size of each segment file in bytes
+     * @return The opened log
+     * @throws UncheckedIOException If the log cannot be opened
+     */
+    public static MockBlockLog open(Path directory, int segmentSize) {
+        MockBlockLog blockLog = new MockBlockLog(directory, segmentSize);
+        try {
+            blockLog.recover();
+        } catch (IOException e) {
+            blockLog.close();
+            throw new UncheckedIOException("Failed to open mock block log in " + directory, e);
+        }
+        return blockLog;
+    }
+
+    private MockBlockLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+
+        List<Path> segmentFiles;
+        try (Stream<Path> files = Files.list(directory)) {
+            segmentFiles = files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        boolean truncated = false;
+        for (Path path : segmentFiles) {
+            if (truncated) {
+                log.warn("Deleting mock block log segment after a corrupt record: {}", path);
+                Files.delete(path);
+                continue;
+            }
+            Segment segment = mapSegment(path, parseBaseHeight(path), 0);
+            segments.add(segment);
+            truncated = !indexSegment(segments.size() - 1, segment);
+        }
+
+        long replayFrom = loadSnapshot() + 1;
+        for (long height = replayFrom; height <= lastHeight; height++) {
+            applyCommitted(readBlock(height));
+        }
+
+        log.info("Opened mock block log in {} at height {} (snapshot {}, replayed {} blocks, {} segments)",
+                directory, lastHeight, snapshotHeight, Math.max(0, lastHeight - replayFrom + 1), segments.size());
+    }
+
+    /**
+     * Index the records of a segment.
+     *
+     * @return False if the segment ended with a corrupt record
+     */
+    private boolean indexSegment(int segmentIndex, Segment segment) {
+        ByteBuffer view = segment.buffer.duplicate();
+        int position = 0;
+        CRC32C crc = new CRC32C();
+
+        while (position + RECORD_HEADER_SIZE <= view.capacity()) {
+            int length = view.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || position + RECORD_HEADER_SIZE + length > view.capacity()) {
+                log.warn("Truncating mock block log at {}:{}: invalid record length {}", segment.baseHeight, position, length);
+                return truncate(segment, position);
+            }
+
+            crc.reset();
+            crc.update(view.slice(position + RECORD_HEADER_SIZE, length));
+            if ((int) crc.getValue() != view.getInt(position + 4)) {
+                log.warn("Truncating mock block log at {}:{}: checksum mismatch", segment.baseHeight, position);
+                return truncate(segment, position);
+            }
+
+            ByteBuffer payload = view.slice(position + RECORD_HEADER_SIZE, length);
+            long height = payload.getLong(0);
+            if (height != lastHeight + 1) {
+                log.warn("Truncating mock block log at {}:{}: expected height {} but found {}",
+                        segment.baseHeight, position, lastHeight + 1, height);
+                return truncate(segment, position);
+            }
+            index(height, segmentIndex, position, payload);
+            position += RECORD_HEADER_SIZE + length;
+        }
+
+        segment.writePosition = position;
+        return true;
+    }
+
+    private boolean truncate(Segment segment, int position) {
+        segment.buffer.putInt(position, 0);
+        segment.writePosition = position;
+        return false;
+    }
+
+    private void index(long height, int segmentIndex, int position, ByteBuffer payload) {
+        blockHashIndex.put(MockBlockCodec.hashKey(MockBlockCodec.peekHash(payload)), height);
+        MockBlockCodec.scan(payload.duplicate(), (hash, from, to) ->
+                transactionHashIndex.put(MockBlockCodec.hashKey(hash), height));
+
+        long[] index = heightIndex;
+        if (height >= index.length) {
+            long[] grown = new long[(int) Math.max(index.length * 2L, height + 1)];
+            System.arraycopy(index, 0, grown, 0, index.length);
+            index = grown;
+            heightIndex = grown;
+        }
+        index[(int) height] = ((long) segmentIndex << 32) | (position & 0xFFFFFFFFL);
+        lastHeight = height;
+    }
+
+    /**
+     * Append a block. The block must directly follow the last appended block.
+     *
+     * @param block The block to append
+     * @throws IllegalArgumentException If the block does not follow the last block
+     * @throws UncheckedIOException     If a new segment cannot be created
+     */
+    public synchronized void append(MockBlock block) {
+        if (block.getNumber() != lastHeight + 1) {
+            throw new IllegalArgumentException("Expected block " + (lastHeight + 1) + " but got " + block.getNumber());
+        }
+
+        int maxSize = MockBlockCodec.maxEncodedSize(block);
+        if (scratch.capacity() < maxSize) {
+            scratch = ByteBuffer.allocate(Integer.highestOneBit(maxSize) << 1);
+        }
+        scratch.clear();
+        MockBlockCodec.encode(block, scratch);
+        scratch.flip();
+        int length = scratch.remaining();
+
+        CRC32C crc = new CRC32C();
+        crc.update(scratch.duplicate());
+
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.writePosition + RECORD_HEADER_SIZE + length > segment.buffer.capacity()) {
+            segment = newSegment(block.getNumber(), RECORD_HEADER_SIZE + length);
+        }
+
+        int position = segment.writePosition;
+        MappedByteBuffer buffer = segment.buffer;
+        int end = position + RECORD_HEADER_SIZE + length;
+        if (end + 4 <= buffer.capacity()) {
+            // Terminate the log explicitly in case the space after a truncated record still holds old data
+            buffer.putInt(end, 0);
+        }
+        buffer.put(position + RECORD_HEADER_SIZE, scratch, 0, length);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        // The length is written last; a zero length marks the end of the log
+        buffer.putInt(position, length);
+        buffer.force(position, Math.min(end + 4, buffer.capacity()) - position);
+        segment.writePosition = end;
+
+        index(block.getNumber(), segments.size() - 1, position, buffer.slice(position + RECORD_HEADER_SIZE, length));
+        applyCommitted(block);
+    }
+
+    private Segment newSegment(long baseHeight, int minimumSize) {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, baseHeight, SEGMENT_SUFFIX));
+        try {
+            Segment segment = mapSegment(path, baseHeight, Math.max(segmentSize, minimumSize));
+            segments.add(segment);
+            log.debug("Rolled mock block log to new segment {}", path);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create mock block log segment " + path, e);
+        }
+    }
+
+    private Segment mapSegment(Path path, long baseHeight, int size) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long mappedSize = Math.max(size, channel.size());
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize);
+        return new Segment(baseHeight, channel, buffer);
+    }
+
+    private static long parseBaseHeight(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Read a block by height.
+     *
+     * @param height The block height
+     * @return The decoded block, or null if the height is not in the log
+     */
+    public MockBlock readBlock(long height) {
+        if (height < 1 || height > lastHeight) {
+            return null;
+        }
+        long location = heightIndex[(int) height];
+        Segment segment = segments.get((int) (location >>> 32));
+        ByteBuffer view = segment.buffer.duplicate();
+        view.position((int) location + RECORD_HEADER_SIZE);
+        return MockBlockCodec.decode(view);
+    }
+
+    /**
+     * Read a block by hash.
+     *
+     * @param hash The block hash
+     * @return The decoded block, or null if it is not in the log
+     */
+    public MockBlock readBlock(String hash) {
+        MockBlock block = readBlock(blockHashIndex.get(MockBlockCodec.hashKey(hash)));
+        return block != null && block.getHash().equals(hash) ? block : null;
+    }
+
+    /**
+     * Read a transaction by hash.
+     *
+     * @param hash The transaction hash
+     * @return The decoded transaction, or null if it is not in the log
+     */
+    public MockTransaction readTransaction(String hash) {
+        MockBlock block = readBlock(transactionHashIndex.get(MockBlockCodec.hashKey(hash)));
+        if (block == null) {
+            return null;
+        }
+        return block.getTransactions().stream()
+                .filter(transaction -> transaction.getHash().equals(hash))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Visit the transactions of the blocks from a height to the end of the log in order,
+     * decoding only hashes and account IDs.
+     *
+     * @param fromHeight The height of the first block to visit
+     * @param visitor    The visitor
+     */
+    public void forEachTransaction(long fromHeight, MockBlockCodec.TransactionVisitor visitor) {
+        long[] index = heightIndex;
+        for (long height = Math.max(1, fromHeight); height <= lastHeight; height++) {
+            long location = index[(int) height];
+            ByteBuffer view = segments.get((int) (location >>> 32)).buffer.duplicate();
+            view.position((int) location + RECORD_HEADER_SIZE);
+            MockBlockCodec.scan(view, visitor);
+        }
+    }
+
+    /**
+     * Get the height of the last appended block.
+     *
+     * @return The height, or 0 if the log is empty
+     */
+    public long getLastHeight() {
+        return lastHeight;
+    }
+
+    /**
+     * Get the height of the last snapshot written or loaded.
+     *
+     * @return The height, or 0 if there is no snapshot
+     */
+    public synchronized long getSnapshotHeight() {
+        return snapshotHeight;
+    }
+
+    /**
+     * Get the committed account state.
+     *
+     * @return An unmodifiable view of the committed accounts
+     */
+    public synchronized Map<UUID, CommittedAccount> getCommittedAccounts() {
+        return Collections.unmodifiableMap(new HashMap<>(committedAccounts));
+    }
+
+    /**
+     * Get the highest nonce used by the system account.
+     *
+     * @return The system nonce
+     */
+    public synchronized long getCommittedSystemNonce() {
+        return committedSystemNonce;
+    }
+
+    /**
+     * Apply the transfers of a block to the committed state, using the same mint/burn
+     * rules as mempool admission.
+     */
+    private void applyCommitted(MockBlock block) {
+        for (MockTransaction transaction : block.getTransactions()) {
+            UUID fromAccountId = transaction.getFromAccountId();
+            UUID toAccountId = transaction.getToAccountId();
+            CommittedAccount from = committedAccount(fromAccountId, transaction.getCurrencyCode());
+            CommittedAccount to = committedAccount(toAccountId, transaction.getCurrencyCode());
+
+            if (MockBlockchainState.SYSTEM_ACCOUNT_ID.equals(fromAccountId)) {
+                committedSystemNonce = Math.max(committedSystemNonce, transaction.getNonce());
+            } else {
+                from.setBalance(from.getBalance().subtract(transaction.getAmount()));
+                from.setNonce(Math.max(from.getNonce(), transaction.getNonce()));
+            }
+            if (!MockBlockchainState.SYSTEM_ACCOUNT_ID.equals(toAccountId)) {
+                to.setBalance(to.getBalance().add(transaction.getAmount()));
+            }
+        }
+    }
+
+    private CommittedAccount committedAccount(UUID accountId, String currencyCode) {
+        return committedAccounts.computeIfAbsent(accountId, id -> new CommittedAccount(currencyCode, BigDecimal.ZERO, 0));
+    }
+
+    /**
+     * Write the committed state at the last appended height to the snapshot file.
+     * The file is replaced atomically, so a crash leaves the previous snapshot intact.
+     *
+     * @throws UncheckedIOException If the snapshot cannot be written
+     */
+    public synchronized void writeSnapshot() {
+        Path target = directory.resolve(SNAPSHOT_FILE);
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 8 + 8 + 4 + committedAccounts.size() * 96);
+        buffer.putInt(SNAPSHOT_MAGIC);
+        buffer.putLong(lastHeight);
+        buffer.putLong(committedSystemNonce);
+        buffer.putInt(committedAccounts.size());
+        for (Map.Entry<UUID, CommittedAccount> entry : committedAccounts.entrySet()) {
+            CommittedAccount account = entry.getValue();
+            byte[] unscaled = account.getBalance().unscaledValue().toByteArray();
+            byte[] currency = account.getCurrencyCode() != null
+                    ? account.getCurrencyCode().getBytes(StandardCharsets.UTF_8)
+                    : new byte[0];
+            if (buffer.remaining() < 16 + 8 + 4 + 4 + unscaled.length + 4 + currency.length) {
+                ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2 + unscaled.length + currency.length);
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+            MockBlockCodec.putUuid(buffer, entry.getKey());
+            buffer.putLong(account.getNonce());
+            buffer.putInt(account.getBalance().scale());
+            MockBlockCodec.putBytes(buffer, unscaled);
+            MockBlockCodec.putBytes(buffer, currency);
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write mock chain snapshot", e);
+        }
+        try {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to publish mock chain snapshot", e);
+        }
+        snapshotHeight = lastHeight;
+        log.debug("Wrote mock chain snapshot at height {} with {} accounts", lastHeight, committedAccounts.size());
+    }
+
+    /**
+     * Load the snapshot into the committed state.
+     *
+     * @return The snapshot height, or 0 if there is no usable snapshot
+     */
+    private long loadSnapshot() throws IOException {
+        Path path = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < 24 || buffer.getInt() != SNAPSHOT_MAGIC) {
+            log.warn("Ignoring unreadable mock chain snapshot {}", path);
+            return 0;
+        }
+        long height = buffer.getLong();
+        if (height > lastHeight) {
+            log.warn("Ignoring mock chain snapshot at height {} beyond the end of the log ({})", height, lastHeight);
+            return 0;
+        }
+
+        committedSystemNonce = buffer.getLong();
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            UUID accountId = MockBlockCodec.getUuid(buffer);
+            long nonce = buffer.getLong();
+            int scale = buffer.getInt();
+            BigDecimal balance = new BigDecimal(new BigInteger(MockBlockCodec.getBytes(buffer)), scale);
+            String currencyCode = new String(MockBlockCodec.getBytes(buffer), StandardCharsets.UTF_8);
+            committedAccounts.put(accountId, new CommittedAccount(currencyCode.isEmpty() ? null : currencyCode, balance, nonce));
+        }
+        snapshotHeight = height;
+        return height;
+    }
+
+    /**
+     * Delete all segments and the snapshot.
+     */
+    public synchronized void reset() {
+        List<Segment> existing = new ArrayList<>(segments);
+        segments.clear();
+        closeSegments(existing);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.toList()) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to reset mock block log", e);
+        }
+        heightIndex = new long[1024];
+        lastHeight = 0;
+        snapshotHeight = 0;
+        blockHashIndex.clear();
+        transactionHashIndex.clear();
+        committedAccounts.clear();
+        committedSystemNonce = 0;
+    }
+
+    @Override
+    public synchronized void close() {
+        closeSegments(segments);
+    }
+
+    private static void closeSegments(List<Segment> toClose) {
+        for (Segment segment : toClose) {
+            try {
+                segment.channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close mock block log segment: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity mapping a banking account to the blockchain address that holds its funds.
+ * Each account has exactly one address and each address belongs to exactly one account.
+ */
+@Entity
+@Table(name = "blockchain_addresses")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountAddress {
+
+    /**
+     * The ID of the banking account.
+     */
+    @Id
+    @Column(name = "account_id", updatable = false, nullable = false)
+    private UUID accountId;
+
+    /**
+     * The bech32 blockchain address of the account.
+     */
+    @Column(name = "address", nullable = false, unique = true, length = 128)
+    private String address;
+
+    /**
+     * The timestamp when the address was registered.
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,37 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.repository;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.entity.AccountAddress;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for managing AccountAddress entities.
+ */
+@Repository
+public interface AccountAddressRepository extends JpaRepository<AccountAddress, UUID> {
+
+    /**
+     * Find the mapping for a blockchain address.
+     *
+     * @param address The blockchain address
+     * @return Optional containing the mapping if found
+     */
+    Optional<AccountAddress> findByAddress(String address);
+
+    /**
+     * Find the next batch of mappings ordered by account ID, for keyset-paginated bulk loading.
+     *
+     * @param afterAccountId The last account ID of the previous batch
+     * @param pageable       The batch size (the page number is ignored)
+     * @return The mappings with an account ID greater than the given one
+     */
+    @Query("SELECT a FROM AccountAddress a WHERE a.accountId > :afterAccountId ORDER BY a.accountId")
+    List<AccountAddress> findBatchAfter(@Param("afterAccountId") UUID afterAccountId, Pageable pageable);
+}
@@ -0,0 +1,256 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.entity.AccountAddress;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.repository.AccountAddressRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.util.Bech32;
+import com.ahmedyousri.boilerplate.springboot.banking.util.LongLongHashMap;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent, thread-safe registry of the blockchain address of each banking account.
+ *
+ * <p>Addresses are derived deterministically from the account ID, so the forward lookup
+ * needs no per-account storage: it re-derives the address and checks that it is registered.
+ * The reverse lookup (address to account) keys a primitive hash map on the first 8 bytes of
+ * the address payload and stores account IDs in a flat {@code long[]}, so there are no
+ * per-entry objects and millions of accounts fit in a few tens of megabytes. Addresses that
+ * were registered explicitly rather than derived, and the rare addresses whose 8-byte prefix
+ * collides with another account, are kept in small concurrent maps on the side.</p>
+ */
+@Service
+public class AccountAddressRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountAddressRegistry.class);
+
+    /**
+     * The bech32 prefix of account addresses.
+     */
+    public static final String ADDRESS_PREFIX = "cosmos";
+
+    private static final int ADDRESS_LENGTH = 20;
+
+    private static final String DERIVATION_DOMAIN = "bankito-account:";
+
+    private static final int PRELOAD_BATCH_SIZE = 10_000;
+
+    private static final int REGISTRATION_LOCK_STRIPES = 64;
+
+    private static final long NO_SLOT = -1L;
+
+    private static final UUID NIL_ACCOUNT_ID = new UUID(0L, 0L);
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final AccountAddressRepository accountAddressRepository;
+
+    private final LongLongHashMap addressIndex = new LongLongHashMap(1024, NO_SLOT);
+
+    private final Map<UUID, String> explicitAddresses = new ConcurrentHashMap<>();
+
+    private final Map<String, UUID> collidingAddresses = new ConcurrentHashMap<>();
+
+    private final Object[] registrationLocks = new Object[REGISTRATION_LOCK_STRIPES];
+
+    private final Object indexLock = new Object();
+
+    // Account IDs by slot, most significant bits at 2 * slot and least significant at 2 * slot + 1
+    private volatile long[] accountIds = new long[2048];
+
+    private int slotCount;
+
+    public AccountAddressRegistry(AccountAddressRepository accountAddressRepository) {
+        this.accountAddressRepository = accountAddressRepository;
+        for (int i = 0; i < registrationLocks.length; i++) {
+            registrationLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Bulk-load all registered addresses into the in-memory indexes.
+     */
+    @PostConstruct
+    public void preload() {
+        long start = System.currentTimeMillis();
+        UUID after = NIL_ACCOUNT_ID;
+        int loaded = 0;
+
+        List<AccountAddress> batch;
+        do {
+            batch = accountAddressRepository.findBatchAfter(after, PageRequest.of(0, PRELOAD_BATCH_SIZE));
+            for (AccountAddress mapping : batch) {
+                index(mapping.getAccountId(), mapping.getAddress());
+            }
+            loaded += batch.size();
+            if (!batch.isEmpty()) {
+                after = batch.get(batch.size() - 1).getAccountId();
+            }
+        } while (batch.size() == PRELOAD_BATCH_SIZE);
+
+        log.info("Loaded {} account addresses in {} ms", loaded, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Get the address of an account, registering its derived address on first use.
+     *
+     * @param accountId The account ID
+     * @return The bech32 address
+     */
+    public String getAddress(UUID accountId) {
+        String address = findAddress(accountId);
+        if (address != null) {
+            return address;
+        }
+
+        synchronized (registrationLocks[Math.floorMod(accountId.hashCode(), REGISTRATION_LOCK_STRIPES)]) {
+            address = findAddress(accountId);
+            if (address != null) {
+                return address;
+            }
+            return register(accountId, deriveAddress(accountId));
+        }
+    }
+
+    /**
+     * Find the account that owns an address.
+     *
+     * @param address The bech32 address
+     * @return The account ID, or empty if the address is not registered or malformed
+     */
+    public Optional<UUID> findAccountId(String address) {
+        byte[] payload;
+        try {
+            payload = Bech32.decode(ADDRESS_PREFIX, address);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (payload.length < Long.BYTES) {
+            return Optional.ofNullable(collidingAddresses.get(address));
+        }
+
+        UUID candidate = accountAt(addressIndex.get(ByteBuffer.wrap(payload).getLong()));
+        if (candidate != null && address.equals(addressOf(candidate))) {
+            return Optional.of(candidate);
+        }
+        return Optional.ofNullable(collidingAddresses.get(address));
+    }
+
+    /**
+     * Get the number of registered addresses.
+     *
+     * @return The number of addresses
+     */
+    public int size() {
+        synchronized (indexLock) {
+            return slotCount + collidingAddresses.size();
+        }
+    }
+
+    /**
+     * Derive the address of an account: the first 20 bytes of a SHA-256 digest of the account ID,
+     * bech32-encoded with the {@value #ADDRESS_PREFIX} prefix.
+     *
+     * @param accountId The account ID
+     * @return The derived address
+     */
+    public static String deriveAddress(UUID accountId) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        byte[] hash = digest.digest((DERIVATION_DOMAIN + accountId).getBytes(StandardCharsets.UTF_8));
+        return Bech32.encode(ADDRESS_PREFIX, Arrays.copyOf(hash, ADDRESS_LENGTH));
+    }
+
+    private String findAddress(UUID accountId) {
+        String explicit = explicitAddresses.get(accountId);
+        if (explicit != null) {
+            return explicit;
+        }
+        String derived = deriveAddress(accountId);
+        return findAccountId(derived).filter(accountId::equals).isPresent() ? derived : null;
+    }
+
+    private String addressOf(UUID accountId) {
+        String explicit = explicitAddresses.get(accountId);
+        return explicit != null ? explicit : deriveAddress(accountId);
+    }
+
+    private String register(UUID accountId, String address) {
+        try {
+            accountAddressRepository.save(AccountAddress.builder()
+                    .accountId(accountId)
+                    .address(address)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            log.info("Registered blockchain address {} for account {}", address, accountId);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance registered the account first; adopt its mapping
+            AccountAddress existing = accountAddressRepository.findById(accountId).orElseThrow(() -> e);
+            address = existing.getAddress();
+        }
+        index(accountId, address);
+        return address;
+    }
+
+    private void index(UUID accountId, String address) {
+        byte[] payload = Bech32.decode(ADDRESS_PREFIX, address);
+
+        synchronized (indexLock) {
+            if (!address.equals(deriveAddress(accountId))) {
+                explicitAddresses.put(accountId, address);
+            }
+            if (payload.length < Long.BYTES) {
+                collidingAddresses.put(address, accountId);
+                return;
+            }
+
+            long key = ByteBuffer.wrap(payload).getLong();
+            UUID existing = accountAt(addressIndex.get(key));
+            if (existing != null) {
+                if (!existing.equals(accountId)) {
+                    collidingAddresses.put(address, accountId);
+                }
+                return;
+            }
+
+            long[] ids = accountIds;
+            if (2 * slotCount + 1 >= ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            ids[2 * slotCount] = accountId.getMostSignificantBits();
+            ids[2 * slotCount + 1] = accountId.getLeastSignificantBits();
+            // Publish the columns before the slot so readers that find the slot also see its account
+            accountIds = ids;
+            addressIndex.put(key, slotCount++);
+        }
+    }
+
+    private UUID accountAt(long slot) {
+        if (slot == NO_SLOT) {
+            return null;
+        }
+        long[] ids = accountIds;
+        return new UUID(ids[(int) (2 * slot)], ids[(int) (2 * slot + 1)]);
+    }
+}
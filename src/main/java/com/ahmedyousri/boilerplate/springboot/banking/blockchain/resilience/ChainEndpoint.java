@@ -0,0 +1,310 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.resilience;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.model.Deadline;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.model.DeadlineStage;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.service.DeadlineGuard;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Guards the calls to one chain endpoint.
+ *
+ * <p>A bulkhead bounds the calls in flight, so a slow endpoint ties up at most that many
+ * threads; callers that cannot get a permit within a short wait are refused. A circuit breaker
+ * refuses calls outright after repeated failures, so callers fail fast instead of waiting for
+ * timeouts. Refused calls throw {@link ChainUnavailableException}.</p>
+ *
+ * <p>Idempotent reads are also retried with jittered exponential backoff, and hedged: when the
+ * first request has not answered within the hedge delay, a duplicate is sent and the first
+ * answer wins. Hedges are only sent while the breaker is closed and the bulkhead has a free
+ * permit, so they never add load to an endpoint that is already struggling.</p>
+ *
+ * <p>Within a request with a deadline, no call or retry is started once the deadline has
+ * passed, and hedged reads wait no longer than the budget left.</p>
+ */
+public class ChainEndpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(ChainEndpoint.class);
+
+    private final String name;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final Semaphore bulkhead;
+
+    private final long bulkheadWaitMs;
+
+    private final int maxAttempts;
+
+    private final long retryDelayMs;
+
+    private final long retryMaxDelayMs;
+
+    private final long hedgeDelayMs;
+
+    private final long timeoutMs;
+
+    private final Executor executor;
+
+    private final DeadlineGuard deadlineGuard;
+
+    private final Counter succeeded;
+
+    private final Counter failed;
+
+    private final Counter rejected;
+
+    private final Counter shortCircuited;
+
+    private final Counter retries;
+
+    private final Counter hedgesSent;
+
+    private final Counter hedgesWon;
+
+    /**
+     * Create an endpoint guard.
+     *
+     * @param name           The endpoint name, used in messages and as the metrics tag
+     * @param config         The blockchain configuration
+     * @param executor       Runs hedged reads
+     * @param meterRegistry  Receives the endpoint metrics
+     */
+    public ChainEndpoint(String name, BlockchainConfig config, Executor executor, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.circuitBreaker = new CircuitBreaker(config.getResilienceBreakerFailureThreshold(), config.getResilienceBreakerOpenMs());
+        this.bulkhead = new Semaphore(Math.max(1, config.getResilienceBulkheadMaxConcurrent()));
+        this.bulkheadWaitMs = config.getResilienceBulkheadMaxWaitMs();
+        this.maxAttempts = Math.max(1, config.getRetryMaxAttempts());
+        this.retryDelayMs = config.getRetryDelayMs();
+        this.retryMaxDelayMs = config.getRetryMaxDelayMs();
+        this.hedgeDelayMs = config.getResilienceHedgeDelayMs();
+        this.timeoutMs = config.getTimeoutMs();
+        this.executor = executor;
+        this.deadlineGuard = new DeadlineGuard(meterRegistry);
+
+        Gauge.builder("blockchain.endpoint.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .tag("endpoint", name)
+                .description("Circuit breaker state (0 closed, 1 half open, 2 open)")
+                .register(meterRegistry);
+        Gauge.builder("blockchain.endpoint.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .tag("endpoint", name)
+                .description("Free bulkhead permits")
+                .register(meterRegistry);
+        this.succeeded = calls(meterRegistry, "success");
+        this.failed = calls(meterRegistry, "failure");
+        this.rejected = calls(meterRegistry, "rejected");
+        this.shortCircuited = calls(meterRegistry, "short_circuited");
+        this.retries = Counter.builder("blockchain.endpoint.retries").tag("endpoint", name).register(meterRegistry);
+        this.hedgesSent = Counter.builder("blockchain.endpoint.hedges").tag("endpoint", name).tag("result", "sent").register(meterRegistry);
+        this.hedgesWon = Counter.builder("blockchain.endpoint.hedges").tag("endpoint", name).tag("result", "won").register(meterRegistry);
+    }
+
+    /**
+     * Make a single guarded call on the calling thread. Used for requests that must not be
+     * repeated, such as submitting a transaction.
+     *
+     * @param call The call
+     * @param <T>  The result type
+     * @return The result
+     * @throws ChainUnavailableException If the breaker is open or the bulkhead is full
+     */
+    public <T> T call(Supplier<T> call) {
+        deadlineGuard.check(DeadlineStage.CHAIN_CALL);
+        admit();
+        try {
+            return attempt(call);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Make a guarded, retried and hedged idempotent read.
+     *
+     * @param read The read
+     * @param <T>  The result type
+     * @return The result of the first attempt that succeeds
+     * @throws ChainUnavailableException If the breaker is open or the bulkhead is full
+     */
+    public <T> T read(Supplier<T> read) {
+        RuntimeException failure = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (attempt > 1) {
+                retries.increment();
+                try {
+                    Thread.sleep(backoff(attempt - 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            try {
+                return hedged(read);
+            } catch (ChainUnavailableException | DeadlineExceededException | HttpClientErrorException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                failure = e;
+                log.debug("Read from the {} endpoint failed on attempt {} of {}: {}", name, attempt, maxAttempts, e.getMessage());
+            }
+        }
+        throw failure != null ? failure : new ChainUnavailableException("Interrupted while reading from the " + name + " endpoint");
+    }
+
+    /**
+     * Check whether calls would currently be let through.
+     *
+     * @return False while the circuit breaker is open
+     */
+    public boolean isAvailable() {
+        return circuitBreaker.isCallPermitted();
+    }
+
+    /**
+     * Get the endpoint name.
+     *
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the circuit breaker state.
+     *
+     * @return The state
+     */
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Compute the delay before a retry: a uniformly random duration up to an exponentially
+     * growing cap, so retries from many callers spread out instead of arriving together.
+     */
+    long backoff(int retry) {
+        long cap = Math.min(retryMaxDelayMs, retryDelayMs << Math.min(retry - 1, 20));
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private <T> T hedged(Supplier<T> read) {
+        if (hedgeDelayMs <= 0) {
+            return call(read);
+        }
+
+        deadlineGuard.check(DeadlineStage.CHAIN_CALL);
+        admit();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        submit(read, result, pending, false);
+        try {
+            try {
+                return result.get(hedgeDelayMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (circuitBreaker.getState() == CircuitBreaker.State.CLOSED && bulkhead.tryAcquire()) {
+                    pending.incrementAndGet();
+                    hedgesSent.increment();
+                    submit(read, result, pending, true);
+                }
+            }
+            return result.get(Deadline.capMillis(timeoutMs), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            deadlineGuard.check(DeadlineStage.CHAIN_CALL);
+            throw new ResourceAccessException("Timed out reading from the " + name + " endpoint");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ChainUnavailableException("Interrupted while reading from the " + name + " endpoint");
+        }
+    }
+
+    private <T> void submit(Supplier<T> read, CompletableFuture<T> result, AtomicInteger pending, boolean hedge) {
+        try {
+            executor.execute(Deadline.propagate(() -> {
+                try {
+                    T value = attempt(read);
+                    if (hedge && !result.isDone()) {
+                        hedgesWon.increment();
+                    }
+                    result.complete(value);
+                } catch (RuntimeException e) {
+                    if (pending.decrementAndGet() == 0) {
+                        result.completeExceptionally(e);
+                    }
+                } finally {
+                    bulkhead.release();
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            circuitBreaker.release();
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(new ChainUnavailableException("The " + name + " endpoint is shutting down"));
+            }
+        }
+    }
+
+    private void admit() {
+        if (!circuitBreaker.tryAcquire()) {
+            shortCircuited.increment();
+            throw new ChainUnavailableException("Circuit breaker for the " + name + " endpoint is open");
+        }
+
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            circuitBreaker.release();
+            rejected.increment();
+            throw new ChainUnavailableException("Too many concurrent calls to the " + name + " endpoint");
+        }
+    }
+
+    private <T> T attempt(Supplier<T> call) {
+        try {
+            T result = call.get();
+            circuitBreaker.onSuccess();
+            succeeded.increment();
+            return result;
+        } catch (HttpClientErrorException e) {
+            // The endpoint answered; only the request was rejected
+            circuitBreaker.onSuccess();
+            succeeded.increment();
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            failed.increment();
+            throw e;
+        }
+    }
+
+    private Counter calls(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("blockchain.endpoint.calls")
+                .tag("endpoint", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
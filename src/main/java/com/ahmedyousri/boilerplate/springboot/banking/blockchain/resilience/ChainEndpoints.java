@@ -0,0 +1,56 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.resilience;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.util.DaemonThreads;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The guarded chain endpoints: the Cosmos REST API, the Tendermint RPC and the faucet. Each has
+ * its own bulkhead and circuit breaker, so a slow faucet does not starve balance queries.
+ * Hedged reads run on a shared pool whose size is bounded by the bulkheads.
+ */
+@Component
+public class ChainEndpoints {
+
+    private final ExecutorService executor;
+
+    private final ChainEndpoint rest;
+
+    private final ChainEndpoint rpc;
+
+    private final ChainEndpoint faucet;
+
+    public ChainEndpoints(BlockchainConfig blockchainConfig, MeterRegistry meterRegistry) {
+        MeterRegistry registry = blockchainConfig.isMetricsEnabled() ? meterRegistry : new SimpleMeterRegistry();
+        this.executor = Executors.newCachedThreadPool(DaemonThreads.named("chain-endpoint-"));
+        this.rest = new ChainEndpoint("rest", blockchainConfig, executor, registry);
+        this.rpc = new ChainEndpoint("rpc", blockchainConfig, executor, registry);
+        this.faucet = new ChainEndpoint("faucet", blockchainConfig, executor, registry);
+    }
+
+    /**
+     * Stop the hedged read pool.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ChainEndpoint getRest() {
+        return rest;
+    }
+
+    public ChainEndpoint getRpc() {
+        return rpc;
+    }
+
+    public ChainEndpoint getFaucet() {
+        return faucet;
+    }
+}
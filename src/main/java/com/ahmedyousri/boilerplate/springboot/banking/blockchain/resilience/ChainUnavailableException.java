@@ -0,0 +1,12 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.resilience;
+
+/**
+ * Thrown when a chain endpoint is not called because its circuit breaker is open or its
+ * bulkhead is full.
+ */
+public class ChainUnavailableException extends RuntimeException {
+
+    public ChainUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,125 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A circuit breaker that opens after a run of consecutive failures.
+ *
+ * <p>While open, calls are refused without touching the endpoint. Once the open interval has
+ * passed, the breaker is half open and lets a single trial call through: its success closes
+ * the breaker and its failure opens it again for another interval.</p>
+ */
+public class CircuitBreaker {
+
+    /**
+     * The state of a circuit breaker. The ordinal is exported as a gauge.
+     */
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final int failureThreshold;
+
+    private final long openNanos;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+
+    private volatile long openedAt;
+
+    /**
+     * Create a circuit breaker.
+     *
+     * @param failureThreshold The number of consecutive failures that opens the breaker
+     * @param openMs           How long the breaker stays open before a trial call is allowed
+     */
+    public CircuitBreaker(int failureThreshold, long openMs) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+    }
+
+    /**
+     * Ask to make a call. A caller that is allowed must report the outcome with
+     * {@link #onSuccess()} or {@link #onFailure()}, or hand the permission back with
+     * {@link #release()} if it did not make the call after all.
+     *
+     * @return True if the call may be made
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            State current = state.get();
+            switch (current) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.nanoTime() - openedAt < openNanos) {
+                        return false;
+                    }
+                    if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                        trialInFlight.set(false);
+                    }
+                    break;
+                default:
+                    return trialInFlight.compareAndSet(false, true);
+            }
+        }
+    }
+
+    /**
+     * Record a call that reached the endpoint and got an answer.
+     */
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.get() != State.CLOSED) {
+            state.set(State.CLOSED);
+            trialInFlight.set(false);
+        }
+    }
+
+    /**
+     * Record a call that failed or timed out.
+     */
+    public void onFailure() {
+        if (state.get() == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAt = System.nanoTime();
+            consecutiveFailures.set(0);
+            state.set(State.OPEN);
+            trialInFlight.set(false);
+        }
+    }
+
+    /**
+     * Hand back a permission that was not used for a call.
+     */
+    public void release() {
+        if (state.get() == State.HALF_OPEN) {
+            trialInFlight.set(false);
+        }
+    }
+
+    /**
+     * Check whether a call would be allowed, without asking to make one.
+     *
+     * @return False while the breaker is open and the open interval has not passed
+     */
+    public boolean isCallPermitted() {
+        return state.get() != State.OPEN || System.nanoTime() - openedAt >= openNanos;
+    }
+
+    /**
+     * Get the current state.
+     *
+     * @return The state
+     */
+    public State getState() {
+        return state.get();
+    }
+}
@@ -8,6 +8,7 @@ import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.Transacti
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 /**
  * Service for interacting with the blockchain.
@@ -65,6 +66,18 @@ public interface BlockchainService {
      */
     CompletableFuture<List<TransactionRecord>> getTransactionHistoryAsync(UUID accountId, int limit);
     
+    /**
+     * Stream the transaction history of an account on the blockchain, newest first.
+     * Implementations that page through the history fetch each page only when the stream reaches it,
+     * so long histories can be walked without holding them in memory. Close the stream when done.
+     *
+     * @param accountId The ID of the account
+     * @return The transaction history
+     */
+    default Stream<TransactionRecord> streamTransactionHistory(UUID accountId) {
+        return getTransactionHistory(accountId, Integer.MAX_VALUE).stream();
+    }
+    
     /**
      * Get a transaction on the blockchain.
      *
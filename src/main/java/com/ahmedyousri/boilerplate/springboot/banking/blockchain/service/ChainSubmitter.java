@@ -0,0 +1,53 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.service.LedgerAnchor;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.FinancialCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.service.DeadlineGuard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Submits the commands of ledger operations to the chain, unless the ledger is anchored on
+ * chain in batches instead, in which case nothing is submitted per operation.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChainSubmitter {
+
+    private final BlockchainService blockchainService;
+
+    private final LedgerAnchor ledgerAnchor;
+
+    private final DeadlineGuard deadlineGuard;
+
+    /**
+     * Check whether the ledger is anchored on chain in batches instead of each operation being
+     * submitted.
+     *
+     * @return True if commands are not submitted
+     */
+    public boolean isAnchored() {
+        return ledgerAnchor.isEnabled();
+    }
+
+    /**
+     * Submit a command to the chain, unless the ledger is anchored on chain in batches instead.
+     * The submission is abandoned when too little of the request deadline is left to record
+     * it in the ledger afterwards.
+     *
+     * @param command The command
+     * @return The chain response; without a transaction hash when the ledger is anchored
+     */
+    public BlockchainResponse submit(FinancialCommand command) {
+        if (isAnchored()) {
+            return BlockchainResponse.builder()
+                    .successful(true)
+                    .timestamp(LocalDateTime.now())
+                    .build();
+        }
+        return deadlineGuard.submit(() -> blockchainService.executeCommand(command));
+    }
+}
@@ -0,0 +1,43 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Entity recording the last block height a chain scanner has fully posted to the ledger.
+ */
+@Entity
+@Table(name = "blockchain_sync_checkpoints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncCheckpoint {
+
+    /**
+     * The name of the scanner.
+     */
+    @Id
+    @Column(name = "name", updatable = false, nullable = false, length = 64)
+    private String name;
+
+    /**
+     * The last processed block height.
+     */
+    @Column(name = "height", nullable = false)
+    private long height;
+
+    /**
+     * The timestamp when the checkpoint was last advanced.
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
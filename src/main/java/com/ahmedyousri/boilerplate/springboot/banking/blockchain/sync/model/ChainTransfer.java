@@ -0,0 +1,54 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * A successful bank send observed on the chain.
+ * A transaction may contain several sends; each is identified by its message index.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChainTransfer {
+
+    /**
+     * The hash of the transaction containing the send.
+     */
+    private String txHash;
+
+    /**
+     * The index of the send message in the transaction body.
+     */
+    private int messageIndex;
+
+    /**
+     * The height of the block containing the transaction.
+     */
+    private long height;
+
+    /**
+     * The sender address.
+     */
+    private String fromAddress;
+
+    /**
+     * The recipient address.
+     */
+    private String toAddress;
+
+    /**
+     * The amount in base units.
+     */
+    private BigDecimal amount;
+
+    /**
+     * The token denomination.
+     */
+    private String denom;
+}
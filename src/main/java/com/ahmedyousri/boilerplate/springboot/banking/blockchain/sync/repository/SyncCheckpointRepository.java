@@ -0,0 +1,28 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.repository;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.entity.SyncCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository for accessing SyncCheckpoint entities.
+ */
+@Repository
+public interface SyncCheckpointRepository extends JpaRepository<SyncCheckpoint, String> {
+
+    /**
+     * Find a checkpoint by name and lock it until the end of the transaction.
+     *
+     * @param name The name of the scanner
+     * @return The checkpoint
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM SyncCheckpoint c WHERE c.name = :name")
+    Optional<SyncCheckpoint> findByNameForUpdate(@Param("name") String name);
+}
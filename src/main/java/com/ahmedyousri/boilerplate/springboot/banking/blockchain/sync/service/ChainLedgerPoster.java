@@ -0,0 +1,175 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.account.service.AccountService;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.entity.JournalEntry;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.DepositPosting;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxBroadcaster;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.service.AccountAddressRegistry;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.entity.SyncCheckpoint;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.model.ChainTransfer;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.repository.SyncCheckpointRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.TransactionType;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.service.TransactionService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Posts inbound chain transfers to the ledger.
+ *
+ * <p>Each range of blocks is posted in one transaction together with the checkpoint that
+ * records it, so a range is either fully posted and checkpointed or not at all. The checkpoint
+ * row is locked first, so ranges are posted one at a time across the cluster, and a range at or
+ * below the checkpoint is skipped. Every credit uses a reference derived from its transaction
+ * hash and message index; the accounting service skips references it has already posted and
+ * the references are unique in the journal, so replaying a range is harmless.</p>
+ */
+@Service
+@RequiredArgsConstructor
+public class ChainLedgerPoster {
+
+    private static final Logger log = LoggerFactory.getLogger(ChainLedgerPoster.class);
+
+    private final BlockchainConfig blockchainConfig;
+    private final AccountAddressRegistry accountAddressRegistry;
+    private final CosmosTxBroadcaster txBroadcaster;
+    private final AccountRepository accountRepository;
+    private final AccountService accountService;
+    private final AccountingService accountingService;
+    private final TransactionService transactionService;
+    private final SyncCheckpointRepository checkpointRepository;
+
+    /**
+     * Get the height of a checkpoint, creating it at the given height if it does not exist yet.
+     * Commits on its own, so the checkpoint exists before any range is posted against it.
+     *
+     * @param checkpointName The name of the checkpoint
+     * @param initialHeight  The height to create the checkpoint at
+     * @return The height of the checkpoint
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long checkpoint(String checkpointName, long initialHeight) {
+        SyncCheckpoint checkpoint = checkpointRepository.findById(checkpointName).orElse(null);
+        if (checkpoint == null) {
+            checkpoint = checkpointRepository.save(new SyncCheckpoint(checkpointName, initialHeight, LocalDateTime.now()));
+            log.info("Chain sync starting after height {}", initialHeight);
+        }
+        return checkpoint.getHeight();
+    }
+
+    /**
+     * Post the transfers to our accounts from a range of blocks and advance the checkpoint, in a
+     * transaction of its own.
+     *
+     * @param checkpointName The name of the checkpoint to advance
+     * @param transfers      The transfers in the range
+     * @param toHeight       The last height of the range
+     * @return The number of credits posted; 0 if the checkpoint is already at or past the range
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, isolation = Isolation.READ_COMMITTED)
+    public int post(String checkpointName, List<ChainTransfer> transfers, long toHeight) {
+        // Another node may have posted the range while this one was fetching it
+        SyncCheckpoint checkpoint = checkpointRepository.findByNameForUpdate(checkpointName).orElse(null);
+        if (checkpoint != null && checkpoint.getHeight() >= toHeight) {
+            log.debug("Skipping blocks up to height {}, already posted through {}", toHeight, checkpoint.getHeight());
+            return 0;
+        }
+
+        Map<UUID, ChainTransfer> credits = new HashMap<>();
+        Map<UUID, UUID> recipients = new HashMap<>();
+        for (ChainTransfer transfer : transfers) {
+            Optional<UUID> accountId = match(transfer);
+            if (accountId.isPresent()) {
+                UUID referenceId = referenceId(transfer);
+                credits.put(referenceId, transfer);
+                recipients.put(referenceId, accountId.get());
+            }
+        }
+
+        int posted = 0;
+        if (!credits.isEmpty()) {
+            Map<UUID, Account> accounts = accountRepository.findAllById(new HashSet<>(recipients.values())).stream()
+                    .collect(Collectors.toMap(Account::getId, Function.identity()));
+
+            List<DepositPosting> deposits = new ArrayList<>(credits.size());
+            credits.forEach((referenceId, transfer) -> {
+                Account account = accounts.get(recipients.get(referenceId));
+                if (account != null) {
+                    deposits.add(new DepositPosting(account, transfer.getAmount(), description(transfer), referenceId));
+                }
+            });
+
+            Map<UUID, Account> credited = new HashMap<>();
+            for (JournalEntry journalEntry : accountingService.createDepositJournalEntries(deposits)) {
+                ChainTransfer transfer = credits.get(UUID.fromString(journalEntry.getReference()));
+                Account account = accounts.get(recipients.get(UUID.fromString(journalEntry.getReference())));
+                accountService.performCredit(account, transfer.getAmount());
+                transactionService.recordTransaction(account, TransactionType.CREDIT, transfer.getAmount(),
+                        description(transfer), journalEntry.getReference());
+                credited.put(account.getId(), account);
+                posted++;
+            }
+            accountRepository.saveAll(credited.values());
+        }
+
+        checkpointRepository.save(new SyncCheckpoint(checkpointName, toHeight, LocalDateTime.now()));
+        if (posted > 0) {
+            log.info("Posted {} chain credits through height {}", posted, toHeight);
+        }
+        return posted;
+    }
+
+    /**
+     * Find the account credited by a transfer. Transfers in other denominations, from ignored
+     * senders, from the signing account, or between our own addresses are already reflected in
+     * the ledger and are skipped.
+     *
+     * @param transfer The transfer
+     * @return The ID of the credited account, or empty if the transfer is not an inbound credit
+     */
+    private Optional<UUID> match(ChainTransfer transfer) {
+        if (!blockchainConfig.getSyncDenom().equals(transfer.getDenom())
+                || transfer.getAmount().signum() <= 0
+                || blockchainConfig.getSyncIgnoredSenders().contains(transfer.getFromAddress())
+                || (txBroadcaster.isEnabled() && txBroadcaster.getSignerAddress().equals(transfer.getFromAddress()))
+                || accountAddressRegistry.findAccountId(transfer.getFromAddress()).isPresent()) {
+            return Optional.empty();
+        }
+        return accountAddressRegistry.findAccountId(transfer.getToAddress());
+    }
+
+    /**
+     * Derive the ledger reference of a chain credit.
+     *
+     * @param transfer The transfer
+     * @return A reference that is the same every time the transfer is seen
+     */
+    static UUID referenceId(ChainTransfer transfer) {
+        String key = "cosmos:" + transfer.getTxHash() + ":" + transfer.getMessageIndex() + ":" + transfer.getDenom();
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String description(ChainTransfer transfer) {
+        return "Chain deposit from " + transfer.getFromAddress() + " (tx " + transfer.getTxHash() + ")";
+    }
+}
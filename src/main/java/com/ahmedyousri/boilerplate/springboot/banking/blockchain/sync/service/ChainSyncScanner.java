@@ -0,0 +1,242 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.listener.ChainEventListener;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.model.ChainEvent;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.model.ChainEventType;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.model.ChainTransfer;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.source.ChainTransferSource;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.service.JobCoordinator;
+import com.ahmedyousri.boilerplate.springboot.banking.util.DaemonThreads;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Scans committed blocks for inbound transfers to our addresses and posts them to the ledger.
+ *
+ * <p>Each pass resumes after the persisted checkpoint height and splits the blocks up to the
+ * chain head into fixed-size ranges. Up to {@code blockchain.sync.parallelism} ranges are
+ * fetched ahead concurrently, while ranges are posted strictly in height order, each in its own
+ * transaction that also advances the checkpoint. Lookahead is bounded, so a long catch-up after
+ * downtime holds at most that many ranges in memory. A pass keeps going until it reaches a
+ * head that did not move while it was catching up.</p>
+ *
+ * <p>When chain events are enabled, each new block also triggers a pass, so deposits are posted
+ * within a block time; the fixed-delay pass remains as a backstop.</p>
+ *
+ * <p>Passes run through the {@link JobCoordinator}, so a pass for an interval or a block runs on
+ * one node of the cluster. Passes of one node run one at a time.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "blockchain.sync.enabled", havingValue = "true")
+public class ChainSyncScanner implements ChainEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ChainSyncScanner.class);
+
+    /**
+     * Name of the checkpoint this scanner advances.
+     */
+    static final String CHECKPOINT_NAME = "cosmos";
+
+    private static final String SYNC_JOB = "chain-sync";
+
+    private final BlockchainConfig blockchainConfig;
+
+    private final ChainTransferSource transferSource;
+
+    private final ChainLedgerPoster ledgerPoster;
+
+    private final JobCoordinator jobCoordinator;
+
+    private final TaskScheduler taskScheduler;
+
+    private final ExecutorService fetchExecutor;
+
+    private final Object scanLock = new Object();
+
+    private ScheduledFuture<?> passes;
+
+    private final AtomicBoolean scanRequested = new AtomicBoolean();
+
+    private volatile long lastHeight = -1;
+
+    public ChainSyncScanner(BlockchainConfig blockchainConfig,
+                            ChainTransferSource transferSource,
+                            ChainLedgerPoster ledgerPoster,
+                            JobCoordinator jobCoordinator,
+                            TaskScheduler taskScheduler) {
+        this.blockchainConfig = blockchainConfig;
+        this.transferSource = transferSource;
+        this.ledgerPoster = ledgerPoster;
+        this.jobCoordinator = jobCoordinator;
+        this.taskScheduler = taskScheduler;
+        this.fetchExecutor = Executors.newFixedThreadPool(
+                Math.max(1, blockchainConfig.getSyncParallelism()), DaemonThreads.named("chain-sync-fetch-"));
+    }
+
+    /**
+     * Start scanning, unless the mock chain is in use.
+     */
+    @PostConstruct
+    public void initialize() {
+        if (blockchainConfig.isMockEnabled()) {
+            log.info("Chain sync disabled while the mock blockchain is enabled");
+            return;
+        }
+
+        long intervalMs = Math.max(1, blockchainConfig.getSyncIntervalMs());
+        passes = taskScheduler.scheduleWithFixedDelay(() -> runScan("interval-" + System.currentTimeMillis() / intervalMs),
+                Instant.now(), Duration.ofMillis(intervalMs));
+        log.info("Chain sync started with {} block ranges and {} parallel fetches every {} ms",
+                blockchainConfig.getSyncRangeBlocks(), blockchainConfig.getSyncParallelism(), blockchainConfig.getSyncIntervalMs());
+    }
+
+    /**
+     * Stop scanning.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (passes != null) {
+            passes.cancel(true);
+        }
+        fetchExecutor.shutdownNow();
+    }
+
+    /**
+     * Request a pass when a new block is committed. Blocks arriving while a pass is queued are
+     * picked up by that pass.
+     *
+     * @param event The chain event
+     */
+    @Override
+    public void onChainEvent(ChainEvent event) {
+        if (event.getType() == ChainEventType.NEW_BLOCK && passes != null && event.getHeight() > lastHeight
+                && scanRequested.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                scanRequested.set(false);
+                runScan("block-" + event.getHeight());
+            }, Instant.now());
+        }
+    }
+
+    /**
+     * Get the last height posted to the ledger.
+     *
+     * @return The height, or -1 before the first pass
+     */
+    public long getLastHeight() {
+        return lastHeight;
+    }
+
+    /**
+     * Scan and post all blocks after the checkpoint up to the chain head.
+     *
+     * @return The number of credits posted
+     * @throws Exception If a range could not be fetched or posted; the checkpoint is left at the last posted range
+     */
+    public int scan() throws Exception {
+        long latest = transferSource.getLatestHeight();
+        long next = loadCheckpoint(latest) + 1;
+        int rangeBlocks = Math.max(1, blockchainConfig.getSyncRangeBlocks());
+        int lookahead = Math.max(1, blockchainConfig.getSyncParallelism());
+
+        Deque<PendingRange> inFlight = new ArrayDeque<>(lookahead);
+        int posted = 0;
+        try {
+            while (true) {
+                while (inFlight.size() < lookahead && next <= latest) {
+                    inFlight.add(fetch(next, Math.min(next + rangeBlocks - 1, latest)));
+                    next = inFlight.peekLast().toHeight + 1;
+                }
+
+                if (inFlight.isEmpty()) {
+                    // Blocks produced while catching up are scanned before the pass ends
+                    long head = transferSource.getLatestHeight();
+                    if (head <= latest) {
+                        return posted;
+                    }
+                    latest = head;
+                    continue;
+                }
+
+                PendingRange range = inFlight.poll();
+                posted += ledgerPoster.post(CHECKPOINT_NAME, await(range), range.toHeight);
+                lastHeight = range.toHeight;
+            }
+        } finally {
+            inFlight.forEach(range -> range.transfers.cancel(true));
+        }
+    }
+
+    /**
+     * Run a pass on whichever node leases it first; the others skip a run it completed.
+     */
+    private void runScan(String runKey) {
+        synchronized (scanLock) {
+            jobCoordinator.runOnce(SYNC_JOB, runKey, () -> {
+                try {
+                    scan();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    log.warn("Chain sync pass failed at height {}: {}", lastHeight, e.getMessage());
+                }
+            });
+        }
+    }
+
+    private long loadCheckpoint(long latest) {
+        long start = blockchainConfig.getSyncStartHeight() > 0 ? blockchainConfig.getSyncStartHeight() - 1 : latest;
+        lastHeight = ledgerPoster.checkpoint(CHECKPOINT_NAME, start);
+        return lastHeight;
+    }
+
+    private PendingRange fetch(long fromHeight, long toHeight) {
+        return new PendingRange(toHeight,
+                CompletableFuture.supplyAsync(() -> transferSource.getTransfers(fromHeight, toHeight), fetchExecutor));
+    }
+
+    private List<ChainTransfer> await(PendingRange range) throws Exception {
+        try {
+            return range.transfers.get(blockchainConfig.getTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (TimeoutException e) {
+            throw new TimeoutException("Timed out fetching blocks up to height " + range.toHeight);
+        }
+    }
+
+    /**
+     * A block range whose transfers are being fetched.
+     */
+    private static final class PendingRange {
+
+        private final long toHeight;
+
+        private final CompletableFuture<List<ChainTransfer>> transfers;
+
+        private PendingRange(long toHeight, CompletableFuture<List<ChainTransfer>> transfers) {
+            this.toHeight = toHeight;
+            this.transfers = transfers;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.source;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.model.ChainTransfer;
+
+import java.util.List;
+
+/**
+ * Source of the bank sends committed to the chain, read by block height range.
+ */
+public interface ChainTransferSource {
+
+    /**
+     * Get the height of the latest committed block.
+     *
+     * @return The height
+     */
+    long getLatestHeight();
+
+    /**
+     * Get the successful bank sends in a range of blocks.
+     *
+     * @param fromHeight The first height, inclusive
+     * @param toHeight   The last height, inclusive
+     * @return The sends, ordered by height
+     */
+    List<ChainTransfer> getTransfers(long fromHeight, long toHeight);
+}
@@ -0,0 +1,66 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.source;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.grpc.CosmosGrpcClient;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.model.ChainTransfer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads bank sends over the Cosmos gRPC tx service. Replaces the REST source when the gRPC
+ * transport is enabled.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "blockchain.cosmos.grpc.enabled", havingValue = "true")
+public class GrpcChainTransferSource implements ChainTransferSource {
+
+    private final CosmosGrpcClient grpcClient;
+
+    public GrpcChainTransferSource(CosmosGrpcClient grpcClient) {
+        this.grpcClient = grpcClient;
+    }
+
+    @Override
+    public long getLatestHeight() {
+        return CosmosGrpcClient.join(grpcClient.getLatestHeight());
+    }
+
+    @Override
+    public List<ChainTransfer> getTransfers(long fromHeight, long toHeight) {
+        String query = RestChainTransferSource.rangeQuery(fromHeight, toHeight);
+
+        List<ChainTransfer> transfers = new ArrayList<>();
+        long seen = 0;
+        for (int page = 1; ; page++) {
+            CosmosGrpcClient.TxPage txPage = CosmosGrpcClient.join(
+                    grpcClient.searchTxsPage(query, page, RestChainTransferSource.PAGE_SIZE, true));
+            for (CosmosGrpcClient.TxResult tx : txPage.getTxs()) {
+                if (tx.getCode() != 0) {
+                    continue;
+                }
+                for (CosmosGrpcClient.BankSend send : tx.getBankSends()) {
+                    for (CosmosGrpcClient.Coin coin : send.getAmount()) {
+                        transfers.add(ChainTransfer.builder()
+                                .txHash(tx.getTxHash())
+                                .messageIndex(send.getMessageIndex())
+                                .height(tx.getHeight())
+                                .fromAddress(send.getFromAddress())
+                                .toAddress(send.getToAddress())
+                                .amount(new BigDecimal(coin.getAmount()))
+                                .denom(coin.getDenom())
+                                .build());
+                    }
+                }
+            }
+            seen += txPage.getTxs().size();
+            if (txPage.getTxs().size() < RestChainTransferSource.PAGE_SIZE || seen >= txPage.getTotal()) {
+                return transfers;
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.source;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxEncoder;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.model.ChainTransfer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads bank sends from the Cosmos REST gateway with one event query per height range,
+ * paging through the results in ascending height order.
+ */
+@Component
+public class RestChainTransferSource implements ChainTransferSource {
+
+    static final int PAGE_SIZE = 100;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final BlockchainConfig blockchainConfig;
+
+    private final RestTemplate restTemplate;
+
+    public RestChainTransferSource(BlockchainConfig blockchainConfig, RestTemplate restTemplate) {
+        this.blockchainConfig = blockchainConfig;
+        this.restTemplate = restTemplate;
+    }
+
+    @Override
+    public long getLatestHeight() {
+        String url = blockchainConfig.getCosmosRestEndpoint() + "/cosmos/base/tendermint/v1beta1/blocks/latest";
+        JsonNode response = read(restTemplate.getForObject(url, String.class));
+        return response.path("block").path("header").path("height").asLong();
+    }
+
+    @Override
+    public List<ChainTransfer> getTransfers(long fromHeight, long toHeight) {
+        String url = blockchainConfig.getCosmosRestEndpoint()
+                + "/cosmos/tx/v1beta1/txs?query={query}&page={page}&limit={limit}&order_by=ORDER_BY_ASC";
+        String query = rangeQuery(fromHeight, toHeight);
+
+        List<ChainTransfer> transfers = new ArrayList<>();
+        long seen = 0;
+        for (int page = 1; ; page++) {
+            JsonNode response = read(restTemplate.getForObject(url, String.class, query, page, PAGE_SIZE));
+            JsonNode txs = response.path("txs");
+            JsonNode txResponses = response.path("tx_responses");
+            for (int i = 0; i < txResponses.size(); i++) {
+                JsonNode txResponse = txResponses.get(i);
+                if (txResponse.path("code").asInt() != 0) {
+                    continue;
+                }
+                JsonNode messages = txs.path(i).path("body").path("messages");
+                for (int index = 0; index < messages.size(); index++) {
+                    JsonNode message = messages.get(index);
+                    if (!CosmosTxEncoder.MSG_SEND_TYPE_URL.equals(message.path("@type").asText())) {
+                        continue;
+                    }
+                    for (JsonNode coin : message.path("amount")) {
+                        transfers.add(ChainTransfer.builder()
+                                .txHash(txResponse.path("txhash").asText())
+                                .messageIndex(index)
+                                .height(txResponse.path("height").asLong())
+                                .fromAddress(message.path("from_address").asText())
+                                .toAddress(message.path("to_address").asText())
+                                .amount(new BigDecimal(coin.path("amount").asText("0")))
+                                .denom(coin.path("denom").asText())
+                                .build());
+                    }
+                }
+            }
+            seen += txResponses.size();
+            if (txResponses.size() < PAGE_SIZE || seen >= response.path("total").asLong()) {
+                return transfers;
+            }
+        }
+    }
+
+    /**
+     * Build the event query for the bank sends in a height range.
+     *
+     * @param fromHeight The first height, inclusive
+     * @param toHeight   The last height, inclusive
+     * @return The query
+     */
+    static String rangeQuery(long fromHeight, long toHeight) {
+        return "tx.height>=" + fromHeight + " AND tx.height<=" + toHeight
+                + " AND message.action='" + CosmosTxEncoder.MSG_SEND_TYPE_URL + "'";
+    }
+
+    private static JsonNode read(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("Invalid response from Cosmos REST gateway", e);
+        }
+    }
+}
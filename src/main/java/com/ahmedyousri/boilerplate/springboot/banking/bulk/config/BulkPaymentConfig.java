@@ -0,0 +1,37 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the ingestion and execution of bulk payment files.
+ */
+@Configuration
+@Getter
+public class BulkPaymentConfig {
+
+    /**
+     * The number of lines validated and staged together.
+     */
+    @Value("${app.transfers.bulk.chunk.size:1000}")
+    private int chunkSize;
+
+    @Value("${app.transfers.bulk.validation.threads:4}")
+    private int validationThreads;
+
+    /**
+     * The most chunks read ahead of validation; bounds the memory an upload holds.
+     */
+    @Value("${app.transfers.bulk.max.pending.chunks:8}")
+    private int maxPendingChunks;
+
+    /**
+     * The number of partitions of source accounts executed in parallel.
+     */
+    @Value("${app.transfers.bulk.execution.partitions:8}")
+    private int executionPartitions;
+
+    @Value("${app.transfers.bulk.max.lines:1000000}")
+    private int maxLines;
+}
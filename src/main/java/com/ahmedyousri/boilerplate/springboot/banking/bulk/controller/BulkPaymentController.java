@@ -0,0 +1,140 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.controller;
+
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentFile;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentLine;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.mapper.BulkPaymentMapper;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.service.BulkPaymentService;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.service.CurrentCustomerService;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.annotation.RequestDeadline;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Controller for bulk payment files.
+ * This provides endpoints for uploading a file of payments and following its execution.
+ */
+@RestController
+@RequestMapping("/api/v1/transfers/bulk")
+@RequiredArgsConstructor
+public class BulkPaymentController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final BulkPaymentService bulkPaymentService;
+    private final CurrentCustomerService currentCustomerService;
+    private final BulkPaymentMapper bulkPaymentMapper;
+
+    /**
+     * Upload a bulk payment file. The request body is the file itself, read as it arrives; the
+     * lines are validated before the response and executed afterwards.
+     *
+     * @param format   The file format, CSV or PAIN_001; taken from the content type if not given
+     * @param fileName The file name, if any
+     * @param request  The request
+     * @return The file, with the outcome of the validation of its lines
+     */
+    @PostMapping
+    @RequestDeadline(millis = 0)
+    public ResponseEntity<BulkPaymentMapper.BulkPaymentFileDTO> uploadFile(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String fileName,
+            HttpServletRequest request) throws IOException {
+        Customer customer = currentCustomerService.getCurrentCustomer();
+        BulkPaymentFile file = bulkPaymentService.submit(
+                customer, resolveFormat(format, request.getContentType()), fileName, request.getInputStream());
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(bulkPaymentMapper.toBulkPaymentFileDTO(file, bulkPaymentService.countLines(file.getId())));
+    }
+
+    /**
+     * Get a bulk payment file with the progress of its execution.
+     *
+     * @param fileId The file ID
+     * @return The file
+     */
+    @GetMapping("/{fileId}")
+    public ResponseEntity<BulkPaymentMapper.BulkPaymentFileDTO> getFile(@PathVariable UUID fileId) {
+        Customer customer = currentCustomerService.getCurrentCustomer();
+        BulkPaymentFile file = bulkPaymentService.getFile(customer, fileId);
+
+        return ResponseEntity.ok(bulkPaymentMapper.toBulkPaymentFileDTO(file, bulkPaymentService.countLines(fileId)));
+    }
+
+    /**
+     * Get the lines of a bulk payment file, in the order of the file.
+     *
+     * @param fileId The file ID
+     * @param status Optional filter by line status
+     * @param after  The line number of the last line of the previous page
+     * @param size   The page size
+     * @return The lines, with the line number to ask for the next page after, if there is one
+     */
+    @GetMapping("/{fileId}/lines")
+    public ResponseEntity<Map<String, Object>> getLines(
+            @PathVariable UUID fileId,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "0") int after,
+            @RequestParam(defaultValue = "100") int size) {
+        Customer customer = currentCustomerService.getCurrentCustomer();
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<BulkPaymentLine> lines = bulkPaymentService.getLines(customer, fileId, parseStatus(status), after, pageSize);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("fileId", fileId);
+        response.put("lines", bulkPaymentMapper.toBulkPaymentLineDTOList(lines));
+        if (lines.size() == pageSize) {
+            response.put("nextAfter", lines.get(lines.size() - 1).getLineNumber());
+        }
+
+        return ResponseEntity.ok(response);
+    }
+
+    private static BulkPaymentFile.FileFormat resolveFormat(String format, String contentType) {
+        if (format != null && !format.isBlank()) {
+            // pain.001 may be given with its version, such as pain.001.001.03
+            String normalized = format.trim().toUpperCase().replace('.', '_').replace('-', '_');
+            if (normalized.startsWith(BulkPaymentFile.FileFormat.PAIN_001.name())) {
+                return BulkPaymentFile.FileFormat.PAIN_001;
+            }
+            try {
+                return BulkPaymentFile.FileFormat.valueOf(normalized);
+            } catch (IllegalArgumentException e) {
+                throw new BusinessRuleException("Unsupported payment file format: " + format, "UNSUPPORTED_FILE_FORMAT");
+            }
+        }
+        if (contentType != null) {
+            String type = contentType.toLowerCase();
+            if (type.startsWith("text/csv")) {
+                return BulkPaymentFile.FileFormat.CSV;
+            }
+            if (type.contains("xml")) {
+                return BulkPaymentFile.FileFormat.PAIN_001;
+            }
+        }
+        throw new BusinessRuleException("The payment file format must be given as text/csv or application/xml, "
+                + "or with the format parameter", "UNSUPPORTED_FILE_FORMAT");
+    }
+
+    private static BulkPaymentLine.LineStatus parseStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        try {
+            return BulkPaymentLine.LineStatus.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessRuleException("Unknown line status: " + status, "INVALID_LINE_STATUS");
+        }
+    }
+}
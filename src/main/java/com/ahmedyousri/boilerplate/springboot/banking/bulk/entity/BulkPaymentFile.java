@@ -0,0 +1,77 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.entity;
+
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing an uploaded bulk payment file, whose lines are staged as
+ * {@link BulkPaymentLine}s and executed as transfers.
+ */
+@Entity
+@Table(name = "bulk_payment_files")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPaymentFile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "customer_id", nullable = false)
+    private Customer customer;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private FileFormat format;
+
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private FileStatus status;
+
+    /**
+     * The number of lines staged; known once the file is ingested.
+     */
+    private Integer lineCount;
+
+    /**
+     * The number of lines rejected by validation.
+     */
+    private Integer invalidCount;
+
+    /**
+     * Why the file could not be ingested, when it failed.
+     */
+    @Column(length = 1000)
+    private String errorMessage;
+
+    @Column(nullable = false)
+    private LocalDateTime receivedAt;
+
+    private LocalDateTime ingestedAt;
+
+    private LocalDateTime completedAt;
+
+    public enum FileFormat {
+        CSV,
+        PAIN_001
+    }
+
+    public enum FileStatus {
+        INGESTING,
+        EXECUTING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,89 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing one payment of a bulk payment file, staged with the outcome of its
+ * validation and, once executed, of its transfer.
+ *
+ * <p>Lines are inserted in batches with plain JDBC by the BulkPaymentStager, so the file is
+ * referenced by ID rather than by association.</p>
+ */
+@Entity
+@Table(name = "bulk_payment_lines")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPaymentLine {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID fileId;
+
+    /**
+     * The position of the payment in the file, from 1.
+     */
+    @Column(nullable = false)
+    private int lineNumber;
+
+    /**
+     * The end-to-end ID the client gave the payment, if any.
+     */
+    private String endToEndId;
+
+    /**
+     * The account to debit, once resolved.
+     */
+    private UUID sourceAccountId;
+
+    /**
+     * The account to credit, once resolved.
+     */
+    private UUID destinationAccountId;
+
+    /**
+     * The account to credit, as given in the file.
+     */
+    private String destinationAccount;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    private String currencyCode;
+
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private LineStatus status;
+
+    private String errorCode;
+
+    @Column(length = 1000)
+    private String errorMessage;
+
+    /**
+     * The transfer executing the line.
+     */
+    private UUID transferId;
+
+    private LocalDateTime processedAt;
+
+    public enum LineStatus {
+        VALID,
+        INVALID,
+        COMPLETED,
+        FAILED
+    }
+}
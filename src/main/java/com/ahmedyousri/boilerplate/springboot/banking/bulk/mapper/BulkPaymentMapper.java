@@ -0,0 +1,143 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.mapper;
+
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentFile;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentLine;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Mapper for bulk payment entities.
+ * Converts bulk payment files and lines to DTOs for API responses.
+ */
+@Component
+public class BulkPaymentMapper {
+
+    /**
+     * Convert a BulkPaymentFile to a BulkPaymentFileDTO.
+     *
+     * @param file       The file to convert
+     * @param lineCounts The number of lines of each status
+     * @return The file DTO
+     */
+    public BulkPaymentFileDTO toBulkPaymentFileDTO(BulkPaymentFile file, Map<BulkPaymentLine.LineStatus, Long> lineCounts) {
+        if (file == null) {
+            return null;
+        }
+
+        BulkPaymentFileDTO dto = new BulkPaymentFileDTO();
+        dto.setId(file.getId());
+        dto.setFormat(file.getFormat().name());
+        dto.setFileName(file.getFileName());
+        dto.setStatus(file.getStatus().name());
+        dto.setLineCount(file.getLineCount());
+        dto.setInvalidCount(file.getInvalidCount());
+        dto.setPendingCount(lineCounts.getOrDefault(BulkPaymentLine.LineStatus.VALID, 0L));
+        dto.setCompletedCount(lineCounts.getOrDefault(BulkPaymentLine.LineStatus.COMPLETED, 0L));
+        dto.setFailedCount(lineCounts.getOrDefault(BulkPaymentLine.LineStatus.FAILED, 0L));
+        dto.setErrorMessage(file.getErrorMessage());
+        dto.setReceivedAt(toOffsetDateTime(file.getReceivedAt()));
+        dto.setIngestedAt(toOffsetDateTime(file.getIngestedAt()));
+        dto.setCompletedAt(toOffsetDateTime(file.getCompletedAt()));
+
+        return dto;
+    }
+
+    /**
+     * Convert a BulkPaymentLine to a BulkPaymentLineDTO.
+     *
+     * @param line The line to convert
+     * @return The line DTO
+     */
+    public BulkPaymentLineDTO toBulkPaymentLineDTO(BulkPaymentLine line) {
+        if (line == null) {
+            return null;
+        }
+
+        BulkPaymentLineDTO dto = new BulkPaymentLineDTO();
+        dto.setLineNumber(line.getLineNumber());
+        dto.setEndToEndId(line.getEndToEndId());
+        dto.setSourceAccountId(line.getSourceAccountId());
+        dto.setDestinationAccount(line.getDestinationAccount());
+        dto.setAmount(line.getAmount());
+        dto.setCurrencyCode(line.getCurrencyCode());
+        dto.setDescription(line.getDescription());
+        dto.setStatus(line.getStatus().name());
+        dto.setErrorCode(line.getErrorCode());
+        dto.setErrorMessage(line.getErrorMessage());
+        dto.setTransferId(line.getTransferId());
+        dto.setProcessedAt(toOffsetDateTime(line.getProcessedAt()));
+
+        return dto;
+    }
+
+    /**
+     * Convert a list of BulkPaymentLine to a list of BulkPaymentLineDTO.
+     *
+     * @param lines The lines to convert
+     * @return The line DTOs
+     */
+    public List<BulkPaymentLineDTO> toBulkPaymentLineDTOList(List<BulkPaymentLine> lines) {
+        if (lines == null) {
+            return null;
+        }
+
+        return lines.stream()
+                .map(this::toBulkPaymentLineDTO)
+                .collect(Collectors.toList());
+    }
+
+    private OffsetDateTime toOffsetDateTime(LocalDateTime localDateTime) {
+        if (localDateTime == null) {
+            return null;
+        }
+        return localDateTime.atOffset(ZoneOffset.UTC);
+    }
+
+    /**
+     * DTO for BulkPaymentFile.
+     */
+    @Data
+    public static class BulkPaymentFileDTO {
+        private UUID id;
+        private String format;
+        private String fileName;
+        private String status;
+        private Integer lineCount;
+        private Integer invalidCount;
+        private long pendingCount;
+        private long completedCount;
+        private long failedCount;
+        private String errorMessage;
+        private OffsetDateTime receivedAt;
+        private OffsetDateTime ingestedAt;
+        private OffsetDateTime completedAt;
+    }
+
+    /**
+     * DTO for BulkPaymentLine.
+     */
+    @Data
+    public static class BulkPaymentLineDTO {
+        private int lineNumber;
+        private String endToEndId;
+        private UUID sourceAccountId;
+        private String destinationAccount;
+        private BigDecimal amount;
+        private String currencyCode;
+        private String description;
+        private String status;
+        private String errorCode;
+        private String errorMessage;
+        private UUID transferId;
+        private OffsetDateTime processedAt;
+    }
+}
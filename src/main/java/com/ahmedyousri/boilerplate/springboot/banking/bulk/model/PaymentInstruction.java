@@ -0,0 +1,38 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.model;
+
+import lombok.Value;
+
+/**
+ * One payment read from a bulk payment file, as given in the file and not yet validated.
+ */
+@Value
+public class PaymentInstruction {
+
+    /**
+     * The position of the payment in the file, from 1.
+     */
+    int lineNumber;
+
+    /**
+     * The account to debit: an account ID, number or IBAN.
+     */
+    String sourceAccount;
+
+    /**
+     * The account to credit: an account ID, number or IBAN.
+     */
+    String destinationAccount;
+
+    String amount;
+
+    String currencyCode;
+
+    String description;
+
+    String endToEndId;
+
+    /**
+     * Why the payment could not be read, or null.
+     */
+    String parseError;
+}
@@ -0,0 +1,144 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.parser;
+
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentFile;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.model.PaymentInstruction;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads bulk payment files in CSV, one payment per record after a header record.
+ *
+ * <p>The header names the columns, in any order and case: {@code source_account},
+ * {@code destination_account}, {@code amount}, {@code currency}, and optionally
+ * {@code description} and {@code end_to_end_id}. Fields may be quoted, with quotes doubled
+ * inside them, as in RFC 4180.</p>
+ */
+@Component
+public class CsvPaymentParser implements PaymentFileParser {
+
+    private static final String SOURCE_ACCOUNT = "sourceaccount";
+
+    private static final String DESTINATION_ACCOUNT = "destinationaccount";
+
+    private static final String AMOUNT = "amount";
+
+    private static final String CURRENCY = "currency";
+
+    private static final String DESCRIPTION = "description";
+
+    private static final String END_TO_END_ID = "endtoendid";
+
+    private static final List<String> REQUIRED_COLUMNS = List.of(SOURCE_ACCOUNT, DESTINATION_ACCOUNT, AMOUNT, CURRENCY);
+
+    @Override
+    public BulkPaymentFile.FileFormat getFormat() {
+        return BulkPaymentFile.FileFormat.CSV;
+    }
+
+    @Override
+    public void parse(InputStream input, Consumer<PaymentInstruction> sink) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<String> header = readRecord(reader);
+        if (header == null) {
+            throw new BusinessRuleException("The payment file is empty", "INVALID_PAYMENT_FILE");
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(normalize(header.get(i)), i);
+        }
+        columns.putIfAbsent(CURRENCY, columns.get("currencycode"));
+        for (String column : REQUIRED_COLUMNS) {
+            if (columns.get(column) == null) {
+                throw new BusinessRuleException("The payment file has no " + column + " column", "INVALID_PAYMENT_FILE");
+            }
+        }
+
+        int lineNumber = 0;
+        List<String> record;
+        while ((record = readRecord(reader)) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            lineNumber++;
+            String parseError = record.size() == header.size() ? null
+                    : "Expected " + header.size() + " fields but found " + record.size();
+            sink.accept(new PaymentInstruction(
+                    lineNumber,
+                    field(record, columns, SOURCE_ACCOUNT),
+                    field(record, columns, DESTINATION_ACCOUNT),
+                    field(record, columns, AMOUNT),
+                    field(record, columns, CURRENCY),
+                    field(record, columns, DESCRIPTION),
+                    field(record, columns, END_TO_END_ID),
+                    parseError));
+        }
+    }
+
+    /**
+     * Read the fields of the next record, or null at the end of the file.
+     */
+    static List<String> readRecord(Reader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String normalize(String column) {
+        return column.replaceAll("[\\s_\\-\\uFEFF]", "").toLowerCase(Locale.ROOT);
+    }
+}
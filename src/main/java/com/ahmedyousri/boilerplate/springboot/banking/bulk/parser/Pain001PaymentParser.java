@@ -0,0 +1,154 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.parser;
+
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentFile;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.model.PaymentInstruction;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads bulk payment files in ISO 20022 pain.001 (CustomerCreditTransferInitiation), one
+ * payment per credit transfer transaction ({@code CdtTrfTxInf}).
+ *
+ * <p>The file is read with a streaming parser, so each payment is passed on as soon as its
+ * element closes. Elements are matched by local name, whichever version of the message the
+ * namespace names. Each payment is debited from the debtor account of its payment information
+ * block ({@code PmtInf}); accounts are read from their {@code IBAN} or {@code Othr/Id}.
+ * Document type definitions are refused, so no external entity is ever resolved.</p>
+ */
+@Component
+public class Pain001PaymentParser implements PaymentFileParser {
+
+    private final XMLInputFactory xmlInputFactory;
+
+    public Pain001PaymentParser() {
+        xmlInputFactory = XMLInputFactory.newFactory();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    @Override
+    public BulkPaymentFile.FileFormat getFormat() {
+        return BulkPaymentFile.FileFormat.PAIN_001;
+    }
+
+    @Override
+    public void parse(InputStream input, Consumer<PaymentInstruction> sink) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = xmlInputFactory.createXMLStreamReader(input);
+            read(reader, sink);
+        } catch (XMLStreamException e) {
+            throw new BusinessRuleException("Malformed pain.001 file: " + e.getMessage(), "INVALID_PAYMENT_FILE");
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // The input is closed by its owner
+                }
+            }
+        }
+    }
+
+    private void read(XMLStreamReader reader, Consumer<PaymentInstruction> sink) throws XMLStreamException {
+        List<String> path = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        boolean documentSeen = false;
+        String debtorAccount = null;
+        Transaction transaction = null;
+        int lineNumber = 0;
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    String name = reader.getLocalName();
+                    if (path.isEmpty()) {
+                        documentSeen = true;
+                    }
+                    path.add(name);
+                    text.setLength(0);
+                    if (name.equals("PmtInf")) {
+                        debtorAccount = null;
+                    } else if (name.equals("CdtTrfTxInf")) {
+                        transaction = new Transaction();
+                    } else if (transaction != null && name.equals("InstdAmt")) {
+                        transaction.currencyCode = reader.getAttributeValue(null, "Ccy");
+                    }
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> text.append(reader.getText());
+                case XMLStreamConstants.END_ELEMENT -> {
+                    String value = text.toString().trim();
+                    text.setLength(0);
+                    if (isAccount(path, "DbtrAcct")) {
+                        debtorAccount = value;
+                    } else if (transaction != null) {
+                        if (isAccount(path, "CdtrAcct")) {
+                            transaction.creditorAccount = value;
+                        } else if (endsWith(path, "PmtId", "EndToEndId")) {
+                            transaction.endToEndId = value;
+                        } else if (endsWith(path, "Amt", "InstdAmt")) {
+                            transaction.amount = value;
+                        } else if (endsWith(path, "RmtInf", "Ustrd")) {
+                            transaction.remittance = transaction.remittance == null ? value : transaction.remittance + " " + value;
+                        } else if (endsWith(path, "CdtTrfTxInf")) {
+                            lineNumber++;
+                            sink.accept(new PaymentInstruction(lineNumber, debtorAccount, transaction.creditorAccount,
+                                    transaction.amount, transaction.currencyCode, transaction.remittance,
+                                    transaction.endToEndId, null));
+                            transaction = null;
+                        }
+                    }
+                    path.remove(path.size() - 1);
+                }
+                default -> {
+                    // Comments, processing instructions and whitespace carry no payment data
+                }
+            }
+        }
+
+        if (!documentSeen) {
+            throw new BusinessRuleException("The payment file is empty", "INVALID_PAYMENT_FILE");
+        }
+    }
+
+    /**
+     * Check whether the element closing is the identifier of an account, by IBAN or otherwise.
+     */
+    private static boolean isAccount(List<String> path, String account) {
+        return endsWith(path, account, "Id", "IBAN") || endsWith(path, account, "Id", "Othr", "Id");
+    }
+
+    private static boolean endsWith(List<String> path, String... names) {
+        if (path.size() < names.length) {
+            return false;
+        }
+        int offset = path.size() - names.length;
+        for (int i = 0; i < names.length; i++) {
+            if (!path.get(offset + i).equals(names[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The fields of a credit transfer transaction read so far.
+     */
+    private static class Transaction {
+        private String endToEndId;
+        private String amount;
+        private String currencyCode;
+        private String creditorAccount;
+        private String remittance;
+    }
+}
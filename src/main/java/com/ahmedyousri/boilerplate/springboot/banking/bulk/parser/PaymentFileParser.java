@@ -0,0 +1,33 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.parser;
+
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentFile;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.model.PaymentInstruction;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Reads the payments of a bulk payment file as it streams in, without holding the file.
+ */
+public interface PaymentFileParser {
+
+    /**
+     * Get the file format read.
+     *
+     * @return The format
+     */
+    BulkPaymentFile.FileFormat getFormat();
+
+    /**
+     * Read the payments of a file in order. A payment that cannot be read is passed on with a
+     * parse error, so it is reported on its line; a file that cannot be read at all is rejected.
+     *
+     * @param input The file
+     * @param sink  Receives each payment
+     * @throws IOException           If the file cannot be read from the input
+     * @throws BusinessRuleException If the file is not in the format
+     */
+    void parse(InputStream input, Consumer<PaymentInstruction> sink) throws IOException;
+}
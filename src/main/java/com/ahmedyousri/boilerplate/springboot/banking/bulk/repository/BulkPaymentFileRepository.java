@@ -0,0 +1,15 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.repository;
+
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentFile;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BulkPaymentFileRepository extends JpaRepository<BulkPaymentFile, UUID> {
+
+    Optional<BulkPaymentFile> findByCustomerAndId(Customer customer, UUID id);
+}
@@ -0,0 +1,91 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.repository;
+
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentLine;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BulkPaymentLineRepository extends JpaRepository<BulkPaymentLine, UUID> {
+
+    String STATUS = "com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentLine.LineStatus.";
+
+    /**
+     * Get a line, locking it until the end of the current transaction.
+     *
+     * @param id The line ID
+     * @return The locked line
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM BulkPaymentLine l WHERE l.id = :id")
+    Optional<BulkPaymentLine> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Count the lines of a file by status.
+     *
+     * @param fileId The file ID
+     * @return Pairs of status and count
+     */
+    @Query("SELECT l.status, COUNT(l) FROM BulkPaymentLine l WHERE l.fileId = :fileId GROUP BY l.status")
+    List<Object[]> countByStatus(@Param("fileId") UUID fileId);
+
+    /**
+     * Get the accounts debited by the lines of a file still to be executed.
+     *
+     * @param fileId The file ID
+     * @return The account IDs
+     */
+    @Query("SELECT DISTINCT l.sourceAccountId FROM BulkPaymentLine l WHERE l.fileId = :fileId " +
+           "AND l.status = " + STATUS + "VALID")
+    List<UUID> findSourceAccountIds(@Param("fileId") UUID fileId);
+
+    /**
+     * Get the page of lines still to be executed that debit an account, following a line, in
+     * the order of the file.
+     *
+     * @param fileId          The file ID
+     * @param sourceAccountId The account ID
+     * @param afterLine       The line number of the last line of the previous page
+     * @param pageable        The page size
+     * @return The lines
+     */
+    @Query("SELECT l FROM BulkPaymentLine l WHERE l.fileId = :fileId AND l.sourceAccountId = :sourceAccountId " +
+           "AND l.status = " + STATUS + "VALID AND l.lineNumber > :afterLine ORDER BY l.lineNumber")
+    List<BulkPaymentLine> findExecutable(@Param("fileId") UUID fileId,
+                                         @Param("sourceAccountId") UUID sourceAccountId,
+                                         @Param("afterLine") int afterLine,
+                                         Pageable pageable);
+
+    List<BulkPaymentLine> findByFileIdAndLineNumberGreaterThanOrderByLineNumber(UUID fileId, int lineNumber, Pageable pageable);
+
+    List<BulkPaymentLine> findByFileIdAndStatusAndLineNumberGreaterThanOrderByLineNumber(
+            UUID fileId, BulkPaymentLine.LineStatus status, int lineNumber, Pageable pageable);
+
+    /**
+     * Record that a line still to be executed failed.
+     *
+     * @param id           The line ID
+     * @param errorCode    The error code
+     * @param errorMessage The error message
+     * @param processedAt  When the line was executed
+     * @return The number of lines updated
+     */
+    @Modifying
+    @Query("UPDATE BulkPaymentLine l SET l.status = " + STATUS + "FAILED, l.errorCode = :errorCode, " +
+           "l.errorMessage = :errorMessage, l.processedAt = :processedAt " +
+           "WHERE l.id = :id AND l.status = " + STATUS + "VALID")
+    int fail(@Param("id") UUID id,
+             @Param("errorCode") String errorCode,
+             @Param("errorMessage") String errorMessage,
+             @Param("processedAt") LocalDateTime processedAt);
+}
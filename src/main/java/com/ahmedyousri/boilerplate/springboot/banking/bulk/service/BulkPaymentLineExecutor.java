@@ -0,0 +1,75 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentLine;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.repository.BulkPaymentLineRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.service.TransferService;
+import com.ahmedyousri.boilerplate.springboot.model.generated.TransferCreationRequest;
+import com.ahmedyousri.boilerplate.springboot.model.generated.TransferResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Executes the lines of a bulk payment file as transfers, one transaction per line.
+ */
+@Component
+@RequiredArgsConstructor
+public class BulkPaymentLineExecutor {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final BulkPaymentLineRepository lineRepository;
+
+    private final TransferService transferService;
+
+    /**
+     * Execute a line, recording the transfer on it in the same transaction. A line already
+     * executed is left as it is, so a file can be executed again after an interruption.
+     *
+     * @param lineId   The line ID
+     * @param customer The customer who uploaded the file
+     * @return Whether the line was executed
+     */
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    public boolean execute(UUID lineId, Customer customer) {
+        BulkPaymentLine line = lineRepository.findByIdForUpdate(lineId).orElse(null);
+        if (line == null || line.getStatus() != BulkPaymentLine.LineStatus.VALID) {
+            return false;
+        }
+
+        TransferCreationRequest request = new TransferCreationRequest();
+        request.setSourceAccountId(line.getSourceAccountId());
+        request.setDestinationAccountId(line.getDestinationAccountId());
+        request.setType(TransferCreationRequest.TypeEnum.INTERNAL);
+        request.setAmount(line.getAmount().toPlainString());
+        request.setCurrencyCode(line.getCurrencyCode());
+        request.setReference(line.getDescription());
+        TransferResponse transfer = transferService.createTransfer(customer, request);
+
+        line.setStatus(BulkPaymentLine.LineStatus.COMPLETED);
+        line.setTransferId(transfer.getId());
+        line.setProcessedAt(LocalDateTime.now());
+        lineRepository.save(line);
+        return true;
+    }
+
+    /**
+     * Record that a line failed to execute, in a transaction of its own since the one executing
+     * the line has rolled back.
+     *
+     * @param lineId       The line ID
+     * @param errorCode    The error code
+     * @param errorMessage The error message
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void fail(UUID lineId, String errorCode, String errorMessage) {
+        lineRepository.fail(lineId, errorCode,
+                BulkPaymentValidator.truncate(errorMessage, MAX_ERROR_LENGTH), LocalDateTime.now());
+    }
+}
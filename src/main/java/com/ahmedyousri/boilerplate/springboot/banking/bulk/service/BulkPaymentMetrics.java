@@ -0,0 +1,108 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentFile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of bulk payment files, published on the actuator metrics endpoint: lines ingested by
+ * format and validation result, ingestion time and throughput, line executions by result and
+ * the time from receiving a file until its last line is executed.
+ */
+@Component
+public class BulkPaymentMetrics {
+
+    private static final Duration MAX_INGESTION = Duration.ofMinutes(30);
+
+    private static final Duration MAX_COMPLETION = Duration.ofHours(6);
+
+    private final MeterRegistry registry;
+
+    public BulkPaymentMetrics(MeterRegistry meterRegistry) {
+        this.registry = meterRegistry;
+    }
+
+    /**
+     * Record a file ingested.
+     *
+     * @param format  The file format
+     * @param valid   The number of valid lines
+     * @param invalid The number of invalid lines
+     * @param nanos   The time taken to read, validate and stage the file
+     */
+    public void recordIngestion(BulkPaymentFile.FileFormat format, int valid, int invalid, long nanos) {
+        lines(format, "valid").increment(valid);
+        lines(format, "invalid").increment(invalid);
+        Timer.builder("bulk.payments.ingestion.duration")
+                .description("Time taken to read, validate and stage a bulk payment file")
+                .tag("format", format.name())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(MAX_INGESTION)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (nanos > 0) {
+            DistributionSummary.builder("bulk.payments.ingestion.throughput")
+                    .description("Lines ingested per second of a bulk payment file")
+                    .baseUnit("lines/s")
+                    .tag("format", format.name())
+                    .register(registry)
+                    .record((valid + invalid) * (double) TimeUnit.SECONDS.toNanos(1) / nanos);
+        }
+    }
+
+    /**
+     * Count a file that could not be ingested.
+     *
+     * @param format The file format
+     */
+    public void countFailedFile(BulkPaymentFile.FileFormat format) {
+        Counter.builder("bulk.payments.files.failed")
+                .description("Bulk payment files that could not be ingested")
+                .tag("format", format.name())
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Count a line executed.
+     *
+     * @param result {@code success}, or the error code of the failure
+     */
+    public void countExecution(String result) {
+        Counter.builder("bulk.payments.executions")
+                .description("Bulk payment lines executed, by result")
+                .tag("result", result)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Record the time from receiving a file until its last line was executed.
+     *
+     * @param duration The time
+     */
+    public void recordCompletion(Duration duration) {
+        Timer.builder("bulk.payments.completion.duration")
+                .description("Time from receiving a bulk payment file until its last line was executed")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(MAX_COMPLETION)
+                .register(registry)
+                .record(duration);
+    }
+
+    private Counter lines(BulkPaymentFile.FileFormat format, String result) {
+        return Counter.builder("bulk.payments.lines")
+                .description("Bulk payment lines ingested, by validation result")
+                .tag("format", format.name())
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,405 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.config.BulkPaymentConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentFile;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentLine;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.model.PaymentInstruction;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.parser.PaymentFileParser;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.repository.BulkPaymentFileRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.repository.BulkPaymentLineRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.ResourceNotFoundException;
+import com.ahmedyousri.boilerplate.springboot.banking.util.DaemonThreads;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ingests bulk payment files and executes their lines as transfers.
+ *
+ * <p>A file is read as it is uploaded, without holding it in memory: the parser hands over one
+ * payment at a time, payments are gathered into chunks, and each chunk is validated and staged
+ * on a pool of validation threads while the next one is read. The number of chunks read ahead
+ * of validation is bounded, so a large file holds a few chunks in memory at a time.</p>
+ *
+ * <p>Once staged, the valid lines are executed in the background, each as a transfer in a
+ * transaction of its own. The accounts debited by the file are spread over partitions, each
+ * executed by one thread, so the lines debiting an account run one after another in the order
+ * of the file and never contend for its lock, while lines debiting different accounts run in
+ * parallel. A line that fails is recorded as failed and the rest of the file goes on.</p>
+ *
+ * <p>Lines are staged with their validation outcome and executed lines with their transfer, so
+ * the progress of a file is read from its lines. A file whose execution is interrupted by the
+ * node stopping keeps its remaining lines valid; executing it again skips the lines done.</p>
+ */
+@Service
+public class BulkPaymentService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkPaymentService.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final BulkPaymentFileRepository fileRepository;
+
+    private final BulkPaymentLineRepository lineRepository;
+
+    private final AccountRepository accountRepository;
+
+    private final Map<BulkPaymentFile.FileFormat, PaymentFileParser> parsers = new EnumMap<>(BulkPaymentFile.FileFormat.class);
+
+    private final BulkPaymentValidator validator;
+
+    private final BulkPaymentStager stager;
+
+    private final BulkPaymentLineExecutor lineExecutor;
+
+    private final BulkPaymentMetrics metrics;
+
+    private final BulkPaymentConfig config;
+
+    private ExecutorService validationPool;
+
+    private ExecutorService executionPool;
+
+    public BulkPaymentService(BulkPaymentFileRepository fileRepository,
+                              BulkPaymentLineRepository lineRepository,
+                              AccountRepository accountRepository,
+                              List<PaymentFileParser> parsers,
+                              BulkPaymentValidator validator,
+                              BulkPaymentStager stager,
+                              BulkPaymentLineExecutor lineExecutor,
+                              BulkPaymentMetrics metrics,
+                              BulkPaymentConfig config) {
+        this.fileRepository = fileRepository;
+        this.lineRepository = lineRepository;
+        this.accountRepository = accountRepository;
+        for (PaymentFileParser parser : parsers) {
+            this.parsers.put(parser.getFormat(), parser);
+        }
+        this.validator = validator;
+        this.stager = stager;
+        this.lineExecutor = lineExecutor;
+        this.metrics = metrics;
+        this.config = config;
+    }
+
+    /**
+     * Start the validation and execution pools.
+     */
+    @PostConstruct
+    public void initialize() {
+        validationPool = Executors.newFixedThreadPool(config.getValidationThreads(), DaemonThreads.named("bulk-validation-"));
+        executionPool = Executors.newFixedThreadPool(config.getExecutionPartitions(), DaemonThreads.named("bulk-execution-"));
+    }
+
+    /**
+     * Stop the pools. Lines not yet executed stay valid.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (validationPool != null) {
+            validationPool.shutdownNow();
+        }
+        if (executionPool != null) {
+            executionPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Ingest a file and start executing its valid lines in the background.
+     *
+     * @param customer The customer uploading the file
+     * @param format   The file format
+     * @param fileName The file name, if known
+     * @param content  The file content, read as it arrives
+     * @return The file, executing
+     */
+    public BulkPaymentFile submit(Customer customer, BulkPaymentFile.FileFormat format, String fileName, InputStream content) {
+        BulkPaymentFile file = ingest(customer, format, fileName, content);
+        execute(file, customer);
+        return file;
+    }
+
+    /**
+     * Read, validate and stage the lines of a file.
+     *
+     * @param customer The customer uploading the file
+     * @param format   The file format
+     * @param fileName The file name, if known
+     * @param content  The file content, read as it arrives
+     * @return The file, executing, or completed if it has no valid lines
+     * @throws BusinessRuleException if the file cannot be read; no lines are kept
+     */
+    public BulkPaymentFile ingest(Customer customer, BulkPaymentFile.FileFormat format, String fileName, InputStream content) {
+        PaymentFileParser parser = parsers.get(format);
+        if (parser == null) {
+            throw new BusinessRuleException("Unsupported payment file format: " + format, "UNSUPPORTED_FILE_FORMAT");
+        }
+
+        BulkPaymentFile file = fileRepository.save(BulkPaymentFile.builder()
+                .customer(customer)
+                .format(format)
+                .fileName(fileName)
+                .status(BulkPaymentFile.FileStatus.INGESTING)
+                .receivedAt(LocalDateTime.now())
+                .build());
+        UUID fileId = file.getId();
+        long start = System.nanoTime();
+
+        Map<String, Account> ownedAccounts = validator.index(accountRepository.findByCustomer(customer));
+        Semaphore pendingChunks = new Semaphore(config.getMaxPendingChunks());
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        AtomicInteger valid = new AtomicInteger();
+        AtomicInteger invalid = new AtomicInteger();
+        List<PaymentInstruction> buffer = new ArrayList<>(config.getChunkSize());
+        AtomicInteger lineCount = new AtomicInteger();
+
+        try {
+            parser.parse(content, instruction -> {
+                if (lineCount.incrementAndGet() > config.getMaxLines()) {
+                    throw new BusinessRuleException("The payment file has more than " + config.getMaxLines() + " payments",
+                            "BULK_FILE_TOO_LARGE");
+                }
+                buffer.add(instruction);
+                if (buffer.size() == config.getChunkSize()) {
+                    chunks.add(stage(fileId, new ArrayList<>(buffer), ownedAccounts, pendingChunks, valid, invalid));
+                    buffer.clear();
+                }
+            });
+            if (!buffer.isEmpty()) {
+                chunks.add(stage(fileId, new ArrayList<>(buffer), ownedAccounts, pendingChunks, valid, invalid));
+            }
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+        } catch (IOException | RuntimeException e) {
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).exceptionally(ignored -> null).join();
+            throw reject(file, e);
+        }
+
+        file.setLineCount(valid.get() + invalid.get());
+        file.setInvalidCount(invalid.get());
+        file.setIngestedAt(LocalDateTime.now());
+        file.setStatus(valid.get() > 0 ? BulkPaymentFile.FileStatus.EXECUTING : BulkPaymentFile.FileStatus.COMPLETED);
+        if (valid.get() == 0) {
+            file.setCompletedAt(file.getIngestedAt());
+        }
+        file = fileRepository.save(file);
+
+        metrics.recordIngestion(format, valid.get(), invalid.get(), System.nanoTime() - start);
+        log.info("Ingested bulk payment file {} with {} valid and {} invalid lines", fileId, valid.get(), invalid.get());
+        return file;
+    }
+
+    /**
+     * Execute the valid lines of a file in the background, then mark the file completed.
+     *
+     * @param file     The file
+     * @param customer The customer who uploaded the file
+     * @return Completes once every line has been executed
+     */
+    public CompletableFuture<Void> execute(BulkPaymentFile file, Customer customer) {
+        if (file.getStatus() != BulkPaymentFile.FileStatus.EXECUTING) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        int partitionCount = config.getExecutionPartitions();
+        List<List<UUID>> partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (UUID accountId : lineRepository.findSourceAccountIds(file.getId())) {
+            partitions.get(Math.floorMod(accountId.hashCode(), partitionCount)).add(accountId);
+        }
+
+        List<CompletableFuture<Void>> executions = new ArrayList<>();
+        for (List<UUID> accountIds : partitions) {
+            if (accountIds.isEmpty()) {
+                continue;
+            }
+            executions.add(CompletableFuture.runAsync(() -> {
+                for (UUID accountId : accountIds) {
+                    executeAccount(file.getId(), accountId, customer);
+                }
+            }, executionPool));
+        }
+
+        return CompletableFuture.allOf(executions.toArray(new CompletableFuture[0]))
+                .whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        log.error("Execution of bulk payment file {} stopped: {}", file.getId(), e.getMessage(), e);
+                    } else {
+                        complete(file.getId());
+                    }
+                });
+    }
+
+    /**
+     * Get a file of the customer.
+     *
+     * @param customer The customer
+     * @param fileId   The file ID
+     * @return The file
+     */
+    public BulkPaymentFile getFile(Customer customer, UUID fileId) {
+        return fileRepository.findByCustomerAndId(customer, fileId)
+                .orElseThrow(() -> new ResourceNotFoundException("BulkPaymentFile", "id", fileId));
+    }
+
+    /**
+     * Count the lines of a file by status.
+     *
+     * @param fileId The file ID
+     * @return The number of lines of each status
+     */
+    public Map<BulkPaymentLine.LineStatus, Long> countLines(UUID fileId) {
+        Map<BulkPaymentLine.LineStatus, Long> counts = new EnumMap<>(BulkPaymentLine.LineStatus.class);
+        for (BulkPaymentLine.LineStatus status : BulkPaymentLine.LineStatus.values()) {
+            counts.put(status, 0L);
+        }
+        for (Object[] row : lineRepository.countByStatus(fileId)) {
+            counts.put((BulkPaymentLine.LineStatus) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    /**
+     * Get a page of the lines of a file of the customer, in the order of the file.
+     *
+     * @param customer  The customer
+     * @param fileId    The file ID
+     * @param status    Optional filter by line status
+     * @param afterLine The line number of the last line of the previous page, or 0
+     * @param size      The page size
+     * @return The lines
+     */
+    public List<BulkPaymentLine> getLines(Customer customer, UUID fileId, BulkPaymentLine.LineStatus status,
+                                          int afterLine, int size) {
+        getFile(customer, fileId);
+        PageRequest page = PageRequest.of(0, size);
+        return status == null
+                ? lineRepository.findByFileIdAndLineNumberGreaterThanOrderByLineNumber(fileId, afterLine, page)
+                : lineRepository.findByFileIdAndStatusAndLineNumberGreaterThanOrderByLineNumber(fileId, status, afterLine, page);
+    }
+
+    /**
+     * Validate and stage a chunk on the validation pool, waiting while too many chunks are pending.
+     */
+    private CompletableFuture<Void> stage(UUID fileId, List<PaymentInstruction> chunk, Map<String, Account> ownedAccounts,
+                                          Semaphore pendingChunks, AtomicInteger valid, AtomicInteger invalid) {
+        try {
+            pendingChunks.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while ingesting a payment file", e);
+        }
+
+        try {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    List<BulkPaymentLine> lines = validator.validate(fileId, chunk, ownedAccounts);
+                    stager.stage(lines);
+                    int rejected = (int) lines.stream()
+                            .filter(line -> line.getStatus() == BulkPaymentLine.LineStatus.INVALID)
+                            .count();
+                    invalid.addAndGet(rejected);
+                    valid.addAndGet(lines.size() - rejected);
+                } finally {
+                    pendingChunks.release();
+                }
+            }, validationPool);
+        } catch (RuntimeException e) {
+            pendingChunks.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Mark a file that could not be ingested as failed and discard its staged lines.
+     */
+    private BusinessRuleException reject(BulkPaymentFile file, Exception e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        BusinessRuleException rejection = cause instanceof BusinessRuleException businessRuleException
+                ? businessRuleException
+                : new BusinessRuleException("The payment file could not be read: " + cause.getMessage(), "INVALID_PAYMENT_FILE");
+
+        stager.discard(file.getId());
+        file.setStatus(BulkPaymentFile.FileStatus.FAILED);
+        file.setErrorMessage(BulkPaymentValidator.truncate(rejection.getMessage(), MAX_ERROR_LENGTH));
+        file.setCompletedAt(LocalDateTime.now());
+        fileRepository.save(file);
+
+        metrics.countFailedFile(file.getFormat());
+        log.warn("Bulk payment file {} could not be ingested: {}", file.getId(), rejection.getMessage());
+        return rejection;
+    }
+
+    /**
+     * Execute the valid lines of a file debiting an account, in the order of the file.
+     */
+    private void executeAccount(UUID fileId, UUID accountId, Customer customer) {
+        int afterLine = 0;
+        while (true) {
+            List<BulkPaymentLine> lines = lineRepository.findExecutable(fileId, accountId, afterLine,
+                    PageRequest.of(0, config.getChunkSize()));
+            for (BulkPaymentLine line : lines) {
+                executeLine(line, customer);
+            }
+            if (lines.size() < config.getChunkSize()) {
+                return;
+            }
+            afterLine = lines.get(lines.size() - 1).getLineNumber();
+        }
+    }
+
+    private void executeLine(BulkPaymentLine line, Customer customer) {
+        try {
+            if (lineExecutor.execute(line.getId(), customer)) {
+                metrics.countExecution("success");
+            }
+        } catch (BusinessRuleException e) {
+            lineExecutor.fail(line.getId(), e.getErrorCode(), e.getMessage());
+            metrics.countExecution(e.getErrorCode());
+        } catch (RuntimeException e) {
+            log.warn("Line {} of bulk payment file {} failed: {}", line.getLineNumber(), line.getFileId(), e.getMessage());
+            lineExecutor.fail(line.getId(), "EXECUTION_FAILED", e.getMessage());
+            metrics.countExecution("EXECUTION_FAILED");
+        }
+    }
+
+    /**
+     * Mark a file completed once its lines have been executed.
+     */
+    private void complete(UUID fileId) {
+        BulkPaymentFile file = fileRepository.findById(fileId).orElse(null);
+        if (file == null || file.getStatus() != BulkPaymentFile.FileStatus.EXECUTING) {
+            return;
+        }
+        file.setStatus(BulkPaymentFile.FileStatus.COMPLETED);
+        file.setCompletedAt(LocalDateTime.now());
+        fileRepository.save(file);
+
+        metrics.recordCompletion(Duration.between(file.getReceivedAt(), file.getCompletedAt()));
+        log.info("Executed bulk payment file {}: {}", fileId, countLines(fileId));
+    }
+}
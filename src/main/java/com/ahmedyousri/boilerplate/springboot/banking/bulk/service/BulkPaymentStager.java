@@ -0,0 +1,67 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentLine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stages the validated lines of a bulk payment file, a chunk per transaction.
+ *
+ * <p>Lines are written with a JDBC batch insert rather than through the entity manager, so a
+ * chunk costs a round trip to the database instead of one per line and nothing is held in the
+ * persistence context.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class BulkPaymentStager {
+
+    private static final String INSERT_LINE = "INSERT INTO bulk_payment_lines (id, file_id, line_number, end_to_end_id, "
+            + "source_account_id, destination_account_id, destination_account, amount, currency_code, description, "
+            + "status, error_code, error_message) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String DELETE_LINES = "DELETE FROM bulk_payment_lines WHERE file_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Insert a chunk of lines in a transaction of its own.
+     *
+     * @param lines The lines
+     */
+    public void stage(List<BulkPaymentLine> lines) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_LINE, lines, lines.size(), (statement, line) -> {
+                    statement.setObject(1, line.getId());
+                    statement.setObject(2, line.getFileId());
+                    statement.setInt(3, line.getLineNumber());
+                    statement.setString(4, line.getEndToEndId());
+                    statement.setObject(5, line.getSourceAccountId());
+                    statement.setObject(6, line.getDestinationAccountId());
+                    statement.setString(7, line.getDestinationAccount());
+                    statement.setBigDecimal(8, line.getAmount());
+                    statement.setString(9, line.getCurrencyCode());
+                    statement.setString(10, line.getDescription());
+                    statement.setString(11, line.getStatus().name());
+                    statement.setString(12, line.getErrorCode());
+                    statement.setString(13, line.getErrorMessage());
+                }));
+    }
+
+    /**
+     * Delete the lines staged for a file that could not be ingested.
+     *
+     * @param fileId The file ID
+     * @return The number of lines deleted
+     */
+    public int discard(UUID fileId) {
+        return new TransactionTemplate(transactionManager).execute(status -> jdbcTemplate.update(DELETE_LINES, fileId));
+    }
+}
@@ -0,0 +1,205 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentLine;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.model.PaymentInstruction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Validates the payments of a bulk payment file a chunk at a time, resolving their accounts.
+ *
+ * <p>The accounts to debit must belong to the customer uploading the file; they are resolved
+ * from the customer's accounts loaded once per file. The accounts to credit are looked up once
+ * per chunk. Checks that depend on balances and limits at the time of execution are left to the
+ * transfer executing each line.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class BulkPaymentValidator {
+
+    private static final int MAX_AMOUNT_SCALE = 4;
+
+    private static final int MAX_STRING_LENGTH = 255;
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final AccountRepository accountRepository;
+
+    /**
+     * Index the accounts of a customer by ID, account number and IBAN.
+     *
+     * @param accounts The customer's accounts
+     * @return The accounts by each of their identifiers
+     */
+    public Map<String, Account> index(List<Account> accounts) {
+        Map<String, Account> indexed = new HashMap<>();
+        for (Account account : accounts) {
+            indexed.put(account.getId().toString(), account);
+            if (account.getAccountNumber() != null) {
+                indexed.put(account.getAccountNumber(), account);
+            }
+            if (account.getIban() != null) {
+                indexed.put(account.getIban(), account);
+            }
+        }
+        return indexed;
+    }
+
+    /**
+     * Validate a chunk of payments.
+     *
+     * @param fileId        The file ID
+     * @param chunk         The payments
+     * @param ownedAccounts The accounts of the customer, as returned by {@link #index}
+     * @return A line per payment, VALID or INVALID
+     */
+    public List<BulkPaymentLine> validate(UUID fileId, List<PaymentInstruction> chunk, Map<String, Account> ownedAccounts) {
+        Map<String, Account> destinations = resolveDestinations(chunk, ownedAccounts);
+        List<BulkPaymentLine> lines = new ArrayList<>(chunk.size());
+        for (PaymentInstruction instruction : chunk) {
+            lines.add(validate(fileId, instruction, ownedAccounts, destinations));
+        }
+        return lines;
+    }
+
+    private BulkPaymentLine validate(UUID fileId, PaymentInstruction instruction,
+                                     Map<String, Account> ownedAccounts, Map<String, Account> destinations) {
+        BulkPaymentLine line = BulkPaymentLine.builder()
+                .id(UUID.randomUUID())
+                .fileId(fileId)
+                .lineNumber(instruction.getLineNumber())
+                .endToEndId(truncate(instruction.getEndToEndId(), MAX_STRING_LENGTH))
+                .destinationAccount(truncate(instruction.getDestinationAccount(), MAX_STRING_LENGTH))
+                .currencyCode(truncate(instruction.getCurrencyCode(), MAX_STRING_LENGTH))
+                .description(truncate(instruction.getDescription(), MAX_STRING_LENGTH))
+                .status(BulkPaymentLine.LineStatus.VALID)
+                .build();
+
+        if (instruction.getParseError() != null) {
+            return reject(line, "INVALID_LINE", instruction.getParseError());
+        }
+        if (isBlank(instruction.getSourceAccount()) || isBlank(instruction.getDestinationAccount())
+                || isBlank(instruction.getAmount()) || isBlank(instruction.getCurrencyCode())) {
+            return reject(line, "MISSING_FIELD", "Source account, destination account, amount and currency are required");
+        }
+
+        Account source = ownedAccounts.get(instruction.getSourceAccount());
+        if (source == null) {
+            return reject(line, "SOURCE_ACCOUNT_NOT_OWNED",
+                    "Source account " + instruction.getSourceAccount() + " is not an account of the customer");
+        }
+        line.setSourceAccountId(source.getId());
+        if (source.getStatus() != AccountStatus.ACTIVE) {
+            return reject(line, "SOURCE_ACCOUNT_INACTIVE", "Source account is not active");
+        }
+
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(instruction.getAmount());
+        } catch (NumberFormatException e) {
+            return reject(line, "INVALID_AMOUNT", "Amount is not a number: " + instruction.getAmount());
+        }
+        if (amount.signum() <= 0 || amount.stripTrailingZeros().scale() > MAX_AMOUNT_SCALE) {
+            return reject(line, "INVALID_AMOUNT",
+                    "Amount must be positive with at most " + MAX_AMOUNT_SCALE + " decimal places");
+        }
+        line.setAmount(amount);
+
+        if (!source.getCurrencyCode().equals(instruction.getCurrencyCode())) {
+            return reject(line, "CURRENCY_MISMATCH", "Currency does not match the source account");
+        }
+
+        Account destination = destinations.get(instruction.getDestinationAccount());
+        if (destination == null) {
+            return reject(line, "UNKNOWN_DESTINATION_ACCOUNT",
+                    "Destination account " + instruction.getDestinationAccount() + " was not found");
+        }
+        line.setDestinationAccountId(destination.getId());
+        if (destination.getId().equals(source.getId())) {
+            return reject(line, "SAME_ACCOUNT_TRANSFER", "Source and destination accounts must be different");
+        }
+        if (destination.getStatus() != AccountStatus.ACTIVE) {
+            return reject(line, "DESTINATION_ACCOUNT_INACTIVE", "Destination account is not active");
+        }
+        return line;
+    }
+
+    /**
+     * Look up the accounts to credit of a chunk, by ID, account number or IBAN.
+     */
+    private Map<String, Account> resolveDestinations(List<PaymentInstruction> chunk, Map<String, Account> ownedAccounts) {
+        Map<String, Account> destinations = new HashMap<>();
+        Set<UUID> ids = new HashSet<>();
+        Set<String> references = new HashSet<>();
+        for (PaymentInstruction instruction : chunk) {
+            String reference = instruction.getDestinationAccount();
+            if (isBlank(reference)) {
+                continue;
+            }
+            Account owned = ownedAccounts.get(reference);
+            if (owned != null) {
+                destinations.put(reference, owned);
+                continue;
+            }
+            UUID id = parseUuid(reference);
+            if (id != null) {
+                ids.add(id);
+            } else {
+                references.add(reference);
+            }
+        }
+
+        if (!ids.isEmpty()) {
+            for (Account account : accountRepository.findAllById(ids)) {
+                destinations.put(account.getId().toString(), account);
+            }
+        }
+        if (!references.isEmpty()) {
+            for (Account account : accountRepository.findByAccountNumberIn(references)) {
+                destinations.put(account.getAccountNumber(), account);
+            }
+            for (Account account : accountRepository.findByIbanIn(references)) {
+                destinations.put(account.getIban(), account);
+            }
+        }
+        return destinations;
+    }
+
+    private static BulkPaymentLine reject(BulkPaymentLine line, String errorCode, String errorMessage) {
+        line.setStatus(BulkPaymentLine.LineStatus.INVALID);
+        line.setErrorCode(errorCode);
+        line.setErrorMessage(truncate(errorMessage, MAX_ERROR_LENGTH));
+        return line;
+    }
+
+    private static UUID parseUuid(String value) {
+        if (value.length() != 36) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
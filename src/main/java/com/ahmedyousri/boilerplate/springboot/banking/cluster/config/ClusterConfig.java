@@ -0,0 +1,57 @@
+package com.ahmedyousri.boilerplate.springboot.banking.cluster.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Configuration for running scheduled jobs across the nodes of a cluster. Scheduling is enabled
+ * here, since the jobs coordinate through the cluster rather than each running on every node.
+ * The periodic work of every service runs on the one scheduler defined here, rather than on a
+ * scheduler thread of its own.
+ */
+@Configuration
+@EnableScheduling
+@Getter
+public class ClusterConfig {
+
+    @Value("${app.cluster.heartbeat.interval.ms:5000}")
+    private long heartbeatIntervalMs;
+
+    /**
+     * A node without a heartbeat for this long is considered gone, and its leases expire.
+     */
+    @Value("${app.cluster.node.timeout.ms:30000}")
+    private long nodeTimeoutMs;
+
+    /**
+     * The number of shards batch jobs are split into; more than the nodes, so they even out.
+     */
+    @Value("${app.cluster.shards:16}")
+    private int shards;
+
+    /**
+     * The threads of the shared scheduler; enough for every periodic task to have one, as a job
+     * coordinated with other nodes may wait on them while holding its thread.
+     */
+    @Value("${app.cluster.scheduler.threads:16}")
+    private int schedulerThreads;
+
+    /**
+     * The scheduler of {@code @Scheduled} jobs and of the periodic work of the services.
+     *
+     * @return The task scheduler
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(Math.max(1, schedulerThreads));
+        taskScheduler.setThreadNamePrefix("scheduler-");
+        taskScheduler.setDaemon(true);
+        taskScheduler.setRemoveOnCancelPolicy(true);
+        return taskScheduler;
+    }
+}
@@ -0,0 +1,43 @@
+package com.ahmedyousri.boilerplate.springboot.banking.cluster.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Entity recording a running node of the cluster and its last heartbeat.
+ */
+@Entity
+@Table(name = "cluster_nodes")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterNode {
+
+    /**
+     * The ID of the node, unique to each start.
+     */
+    @Id
+    @Column(name = "node_id", updatable = false, nullable = false)
+    private String nodeId;
+
+    /**
+     * The timestamp when the node joined.
+     */
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    /**
+     * The timestamp of the last heartbeat of the node.
+     */
+    @Column(name = "heartbeat_at", nullable = false)
+    private LocalDateTime heartbeatAt;
+}
@@ -0,0 +1,55 @@
+package com.ahmedyousri.boilerplate.springboot.banking.cluster.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Entity recording which node runs a shard of a job, and the last run of the shard completed.
+ */
+@Entity
+@Table(name = "job_leases")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLease {
+
+    /**
+     * The name of the job and the index of the shard.
+     */
+    @Id
+    @Column(name = "name", updatable = false, nullable = false, length = 128)
+    private String name;
+
+    /**
+     * The node running the shard, or null when none is.
+     */
+    @Column(name = "owner")
+    private String owner;
+
+    /**
+     * The timestamp when the lease expires unless the owner renews it.
+     */
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    /**
+     * The key of the last run of the shard completed.
+     */
+    @Column(name = "completed_run", length = 64)
+    private String completedRun;
+
+    /**
+     * The timestamp when the last run of the shard completed.
+     */
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,22 @@
+package com.ahmedyousri.boilerplate.springboot.banking.cluster.model;
+
+/**
+ * The outcome of claiming a shard of a job for a run.
+ */
+public enum LeaseClaim {
+
+    /**
+     * The shard was leased to the claiming node.
+     */
+    CLAIMED,
+
+    /**
+     * Another node holds the shard.
+     */
+    HELD,
+
+    /**
+     * The shard has already completed the run.
+     */
+    COMPLETED
+}
@@ -0,0 +1,59 @@
+package com.ahmedyousri.boilerplate.springboot.banking.cluster.model;
+
+import lombok.Value;
+
+import java.math.BigInteger;
+import java.util.UUID;
+
+/**
+ * One of a number of equal ranges of the UUID keyspace. Random UUIDs are spread evenly, so a
+ * job split into shards by ID gives each shard a similar share of the rows, and each shard is
+ * read with a range condition on the primary key.
+ */
+@Value
+public class Shard {
+
+    /**
+     * The whole keyspace.
+     */
+    public static final Shard ALL = new Shard(0, 1);
+
+    int index;
+
+    int count;
+
+    /**
+     * Get the lowest ID in the shard.
+     *
+     * @return The ID
+     */
+    public UUID getFirstId() {
+        return new UUID(start(index), 0L);
+    }
+
+    /**
+     * Get the highest ID in the shard.
+     *
+     * @return The ID
+     */
+    public UUID getLastId() {
+        return index == count - 1 ? new UUID(-1L, -1L) : new UUID(start(index + 1) - 1, -1L);
+    }
+
+    /**
+     * Check whether an ID is in the shard. IDs are ordered as unsigned bytes, as the database
+     * orders them.
+     *
+     * @param id The ID
+     * @return Whether the ID is in the shard
+     */
+    public boolean contains(UUID id) {
+        long high = id.getMostSignificantBits();
+        return Long.compareUnsigned(high, start(index)) >= 0
+                && (index == count - 1 || Long.compareUnsigned(high, start(index + 1)) < 0);
+    }
+
+    private long start(int shard) {
+        return BigInteger.valueOf(shard).shiftLeft(Long.SIZE).divide(BigInteger.valueOf(count)).longValue();
+    }
+}
@@ -0,0 +1,51 @@
+package com.ahmedyousri.boilerplate.springboot.banking.cluster.repository;
+
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.entity.ClusterNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for accessing ClusterNode entities.
+ */
+@Repository
+public interface ClusterNodeRepository extends JpaRepository<ClusterNode, String> {
+
+    /**
+     * Record a heartbeat of a node.
+     *
+     * @param nodeId The node ID
+     * @param now    The current time
+     * @return The number of nodes updated; 0 if the node was removed
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ClusterNode n SET n.heartbeatAt = :now WHERE n.nodeId = :nodeId")
+    int heartbeat(@Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+
+    /**
+     * Get the IDs of the nodes with a heartbeat since a time, in order.
+     *
+     * @param since The time
+     * @return The node IDs
+     */
+    @Query("SELECT n.nodeId FROM ClusterNode n WHERE n.heartbeatAt >= :since ORDER BY n.nodeId")
+    List<String> findLiveNodeIds(@Param("since") LocalDateTime since);
+
+    /**
+     * Remove nodes without a heartbeat since a time.
+     *
+     * @param timestamp The cutoff timestamp
+     * @return The number of nodes removed
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ClusterNode n WHERE n.heartbeatAt < :timestamp")
+    int deleteByHeartbeatAtBefore(@Param("timestamp") LocalDateTime timestamp);
+}
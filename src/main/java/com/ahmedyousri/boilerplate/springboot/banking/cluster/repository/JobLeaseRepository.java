@@ -0,0 +1,54 @@
+package com.ahmedyousri.boilerplate.springboot.banking.cluster.repository;
+
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.entity.JobLease;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository for accessing JobLease entities.
+ */
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    /**
+     * Get a lease, locking it until the end of the current transaction.
+     *
+     * @param name The lease name
+     * @return The locked lease
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM JobLease l WHERE l.name = :name")
+    Optional<JobLease> findByIdForUpdate(@Param("name") String name);
+
+    /**
+     * Extend the leases held by a node.
+     *
+     * @param owner     The node ID
+     * @param expiresAt When the leases expire
+     * @return The number of leases extended
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE JobLease l SET l.expiresAt = :expiresAt WHERE l.owner = :owner")
+    int renew(@Param("owner") String owner, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Give up the leases held by a node.
+     *
+     * @param owner The node ID
+     * @return The number of leases released
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE JobLease l SET l.owner = null, l.expiresAt = null WHERE l.owner = :owner")
+    int releaseAll(@Param("owner") String owner);
+}
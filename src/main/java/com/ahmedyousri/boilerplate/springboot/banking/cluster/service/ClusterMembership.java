@@ -0,0 +1,141 @@
+package com.ahmedyousri.boilerplate.springboot.banking.cluster.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.config.ClusterConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.entity.ClusterNode;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.repository.ClusterNodeRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.repository.JobLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Membership of this node in the cluster.
+ *
+ * <p>The node registers itself when it starts and records a heartbeat every
+ * {@code app.cluster.heartbeat.interval.ms}, which also extends the job leases it holds. A node
+ * that stops without leaving, or stalls, is dropped from the live nodes after
+ * {@code app.cluster.node.timeout.ms}, and its leases expire at the same time, so other nodes
+ * take over its shards.</p>
+ */
+@Service
+public class ClusterMembership {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterMembership.class);
+
+    /**
+     * Nodes without a heartbeat for this many timeouts are removed.
+     */
+    private static final int STALE_TIMEOUTS = 10;
+
+    private final ClusterNodeRepository nodeRepository;
+
+    private final JobLeaseRepository leaseRepository;
+
+    private final ClusterConfig config;
+
+    private final TaskScheduler taskScheduler;
+
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+
+    private ScheduledFuture<?> heartbeats;
+
+    public ClusterMembership(ClusterNodeRepository nodeRepository,
+                             JobLeaseRepository leaseRepository,
+                             ClusterConfig config,
+                             TaskScheduler taskScheduler) {
+        this.nodeRepository = nodeRepository;
+        this.leaseRepository = leaseRepository;
+        this.config = config;
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * Join the cluster and start recording heartbeats.
+     */
+    @PostConstruct
+    public void join() {
+        LocalDateTime now = LocalDateTime.now();
+        nodeRepository.save(new ClusterNode(nodeId, now, now));
+
+        heartbeats = taskScheduler.scheduleWithFixedDelay(this::runHeartbeat,
+                Instant.now().plusMillis(config.getHeartbeatIntervalMs()), Duration.ofMillis(config.getHeartbeatIntervalMs()));
+        log.info("Joined the cluster as {}", nodeId);
+    }
+
+    /**
+     * Leave the cluster, releasing the leases of this node so other nodes take them over at once.
+     */
+    @PreDestroy
+    public void leave() {
+        if (heartbeats != null) {
+            heartbeats.cancel(true);
+        }
+        try {
+            leaseRepository.releaseAll(nodeId);
+            nodeRepository.deleteById(nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to leave the cluster: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Record a heartbeat of this node and extend its leases.
+     */
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        if (nodeRepository.heartbeat(nodeId, now) == 0) {
+            // Removed while stalled for too long
+            nodeRepository.save(new ClusterNode(nodeId, now, now));
+            log.warn("Rejoined the cluster as {}", nodeId);
+        }
+        leaseRepository.renew(nodeId, leaseExpiry(now));
+        nodeRepository.deleteByHeartbeatAtBefore(now.minus(Duration.ofMillis(config.getNodeTimeoutMs() * STALE_TIMEOUTS)));
+    }
+
+    /**
+     * Get the ID of this node.
+     *
+     * @return The node ID
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Get the IDs of the nodes with a recent heartbeat, in order.
+     *
+     * @return The node IDs
+     */
+    public List<String> getLiveNodes() {
+        return nodeRepository.findLiveNodeIds(LocalDateTime.now().minus(Duration.ofMillis(config.getNodeTimeoutMs())));
+    }
+
+    /**
+     * Get when a lease taken now expires unless renewed by a heartbeat.
+     *
+     * @param now The current time
+     * @return The expiry
+     */
+    public LocalDateTime leaseExpiry(LocalDateTime now) {
+        return now.plus(Duration.ofMillis(config.getNodeTimeoutMs()));
+    }
+
+    private void runHeartbeat() {
+        try {
+            heartbeat();
+        } catch (RuntimeException e) {
+            log.warn("Cluster heartbeat failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.ahmedyousri.boilerplate.springboot.banking.cluster.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.config.ClusterConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.model.LeaseClaim;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.model.Shard;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Runs scheduled jobs once across the cluster instead of once on every node.
+ *
+ * <p>A job is split into shards, each leased by one node at a time and marked complete for the
+ * run once its work commits. Every node that starts the run works through the shards, starting
+ * from a different one according to its position among the live nodes, and runs each shard it
+ * can lease; adding nodes therefore spreads the shards over more of them. A node that finishes
+ * its pass waits while other nodes still hold shards, and takes over the shards of a node that
+ * stops, once its lease expires. A job with a single shard runs on a single node.</p>
+ *
+ * <p>Each node runs each shard of a run at most once; a shard that fails is released for the
+ * other nodes to retry.</p>
+ */
+@Service
+@RequiredArgsConstructor
+public class JobCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(JobCoordinator.class);
+
+    private final JobLeases jobLeases;
+
+    private final ClusterMembership membership;
+
+    private final ClusterConfig config;
+
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Run the shards of a job for a run, each in a transaction of its own.
+     *
+     * @param job    The job name
+     * @param runKey The key of the run; the same on every node, such as the date of a daily job
+     * @param shards The number of shards
+     * @param task   The work of a shard
+     * @return The number of shards run on this node
+     */
+    public int run(String job, String runKey, int shards, Consumer<Shard> task) {
+        return run(job, runKey, shards, task, new TransactionTemplate(transactionManager));
+    }
+
+    /**
+     * Run a job on a single node for a run, in a transaction.
+     *
+     * @param job    The job name
+     * @param runKey The key of the run
+     * @param task   The work of the job
+     * @return Whether the job ran on this node
+     */
+    public boolean runOnce(String job, String runKey, Runnable task) {
+        return run(job, runKey, 1, shard -> task.run()) > 0;
+    }
+
+    /**
+     * Run a job on a single node for a run, outside a transaction, for a job whose steps each
+     * commit on their own, so a step that fails does not roll back the steps before it.
+     *
+     * @param job    The job name
+     * @param runKey The key of the run
+     * @param task   The work of the job
+     * @return Whether the job ran on this node
+     */
+    public boolean runOnceWithoutTransaction(String job, String runKey, Runnable task) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        return run(job, runKey, 1, shard -> task.run(), transactionTemplate) > 0;
+    }
+
+    private int run(String job, String runKey, int shards, Consumer<Shard> task, TransactionTemplate transactionTemplate) {
+        String owner = membership.getNodeId();
+        Set<Integer> attempted = new HashSet<>();
+        int first = firstShard(owner, shards);
+        int ran = 0;
+
+        while (true) {
+            boolean held = false;
+            for (int i = 0; i < shards; i++) {
+                int index = (first + i) % shards;
+                if (attempted.contains(index)) {
+                    continue;
+                }
+
+                String name = job + "/" + index;
+                LocalDateTime now = LocalDateTime.now();
+                LeaseClaim claim;
+                try {
+                    claim = jobLeases.claim(name, runKey, owner, now, membership.leaseExpiry(now));
+                } catch (DataIntegrityViolationException e) {
+                    // Another node created the lease first
+                    claim = LeaseClaim.HELD;
+                }
+                if (claim == LeaseClaim.HELD) {
+                    held = true;
+                }
+                if (claim != LeaseClaim.CLAIMED) {
+                    continue;
+                }
+
+                attempted.add(index);
+                Shard shard = new Shard(index, shards);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> task.accept(shard));
+                    jobLeases.complete(name, runKey, owner);
+                    ran++;
+                } catch (RuntimeException e) {
+                    log.error("Shard {} of {} failed for run {}: {}", index, job, runKey, e.getMessage(), e);
+                    jobLeases.release(name, owner);
+                }
+            }
+
+            if (!held) {
+                break;
+            }
+            try {
+                Thread.sleep(config.getHeartbeatIntervalMs());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        log.info("Ran {} of {} shards of {} for run {}", ran, shards, job, runKey);
+        return ran;
+    }
+
+    /**
+     * Spread the nodes over the shards, so they start without contending for the same ones.
+     */
+    private int firstShard(String owner, int shards) {
+        List<String> liveNodes = membership.getLiveNodes();
+        int position = Math.max(0, liveNodes.indexOf(owner));
+        return position * shards / Math.max(1, liveNodes.size());
+    }
+}
@@ -0,0 +1,90 @@
+package com.ahmedyousri.boilerplate.springboot.banking.cluster.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.entity.JobLease;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.model.LeaseClaim;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.repository.JobLeaseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Leases on the shards of jobs. Each call commits on its own, whatever transaction the caller
+ * is in, so other nodes see a lease as soon as it is taken.
+ */
+@Service
+@RequiredArgsConstructor
+public class JobLeases {
+
+    private final JobLeaseRepository leaseRepository;
+
+    /**
+     * Lease a shard for a run, unless the run of the shard has completed or another node holds
+     * an unexpired lease on it.
+     *
+     * @param name      The lease name
+     * @param runKey    The key of the run
+     * @param owner     The node ID
+     * @param now       The current time
+     * @param expiresAt When the lease expires unless renewed
+     * @return The outcome
+     * @throws org.springframework.dao.DataIntegrityViolationException If another node created the lease at the same time
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public LeaseClaim claim(String name, String runKey, String owner, LocalDateTime now, LocalDateTime expiresAt) {
+        JobLease lease = leaseRepository.findByIdForUpdate(name).orElse(null);
+        if (lease == null) {
+            leaseRepository.saveAndFlush(JobLease.builder().name(name).owner(owner).expiresAt(expiresAt).build());
+            return LeaseClaim.CLAIMED;
+        }
+        if (runKey.equals(lease.getCompletedRun())) {
+            return LeaseClaim.COMPLETED;
+        }
+        if (lease.getOwner() != null && !lease.getOwner().equals(owner) && lease.getExpiresAt().isAfter(now)) {
+            return LeaseClaim.HELD;
+        }
+
+        lease.setOwner(owner);
+        lease.setExpiresAt(expiresAt);
+        return LeaseClaim.CLAIMED;
+    }
+
+    /**
+     * Record that a shard completed a run, and release it.
+     *
+     * @param name   The lease name
+     * @param runKey The key of the run
+     * @param owner  The node ID
+     * @return Whether the node still held the lease
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean complete(String name, String runKey, String owner) {
+        JobLease lease = leaseRepository.findByIdForUpdate(name).orElse(null);
+        if (lease == null || !owner.equals(lease.getOwner())) {
+            return false;
+        }
+        lease.setCompletedRun(runKey);
+        lease.setCompletedAt(LocalDateTime.now());
+        lease.setOwner(null);
+        lease.setExpiresAt(null);
+        return true;
+    }
+
+    /**
+     * Release a shard without completing its run, so another node may run it.
+     *
+     * @param name  The lease name
+     * @param owner The node ID
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(String name, String owner) {
+        leaseRepository.findByIdForUpdate(name)
+                .filter(lease -> owner.equals(lease.getOwner()))
+                .ifPresent(lease -> {
+                    lease.setOwner(null);
+                    lease.setExpiresAt(null);
+                });
+    }
+}
@@ -0,0 +1,21 @@
+package com.ahmedyousri.boilerplate.springboot.banking.deadline.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to give a controller method its own request deadline instead of the default
+ * {@code app.deadline.default.ms}. Clients may ask for a shorter deadline with the
+ * {@code X-Request-Timeout-Ms} header, but not for a longer one.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequestDeadline {
+
+    /**
+     * The time allowed to handle a request, in milliseconds.
+     */
+    long millis();
+}
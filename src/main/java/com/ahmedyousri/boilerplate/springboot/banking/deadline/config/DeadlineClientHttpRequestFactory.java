@@ -0,0 +1,38 @@
+package com.ahmedyousri.boilerplate.springboot.banking.deadline.config;
+
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.model.Deadline;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * An HTTP request factory whose connect and read timeouts are capped at the budget left before
+ * the deadline of the request being served, so a slow node is abandoned when the caller would
+ * no longer wait for it.
+ */
+public class DeadlineClientHttpRequestFactory extends SimpleClientHttpRequestFactory {
+
+    private final int timeoutMs;
+
+    /**
+     * Create a request factory.
+     *
+     * @param timeoutMs The timeout of requests made outside a request with a deadline
+     */
+    public DeadlineClientHttpRequestFactory(long timeoutMs) {
+        this.timeoutMs = (int) timeoutMs;
+        setConnectTimeout(this.timeoutMs);
+        setReadTimeout(this.timeoutMs);
+    }
+
+    @Override
+    protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+        super.prepareConnection(connection, httpMethod);
+        if (Deadline.current() != null) {
+            int budget = (int) Deadline.capMillis(timeoutMs);
+            connection.setConnectTimeout(budget);
+            connection.setReadTimeout(budget);
+        }
+    }
+}
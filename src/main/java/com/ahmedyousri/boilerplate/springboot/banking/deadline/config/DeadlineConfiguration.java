@@ -0,0 +1,40 @@
+package com.ahmedyousri.boilerplate.springboot.banking.deadline.config;
+
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.interceptor.RequestDeadlineInterceptor;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.service.DeadlineGuard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration for request deadlines: the interceptor that establishes them for every request
+ * except actuator endpoints, and the transaction manager that applies them to database
+ * transactions.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class DeadlineConfiguration implements WebMvcConfigurer {
+
+    private final RequestDeadlineInterceptor requestDeadlineInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestDeadlineInterceptor).excludePathPatterns("/actuator/**");
+    }
+
+    /**
+     * The transaction manager, replacing the one Spring Boot would create.
+     */
+    @Bean
+    public JpaTransactionManager transactionManager(DeadlineGuard deadlineGuard,
+                                                    ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        DeadlineJpaTransactionManager transactionManager = new DeadlineJpaTransactionManager(deadlineGuard);
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ahmedyousri.boilerplate.springboot.banking.deadline.config;
+
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.model.Deadline;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.model.DeadlineStage;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.service.DeadlineGuard;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * A JPA transaction manager that bounds transactions by the deadline of the request they serve.
+ *
+ * <p>A transaction is not begun once the deadline has passed. Otherwise its timeout is capped
+ * at the remaining budget, which Hibernate applies as the query timeout of each statement, so
+ * a transaction held open by a slow chain call or a lock wait is cut off at the deadline.</p>
+ */
+public class DeadlineJpaTransactionManager extends JpaTransactionManager {
+
+    private final transient DeadlineGuard deadlineGuard;
+
+    public DeadlineJpaTransactionManager(DeadlineGuard deadlineGuard) {
+        this.deadlineGuard = deadlineGuard;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        deadlineGuard.check(DeadlineStage.TRANSACTION);
+        super.doBegin(transaction, definition);
+    }
+
+    @Override
+    protected int determineTimeout(TransactionDefinition definition) {
+        int timeout = super.determineTimeout(definition);
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return timeout;
+        }
+
+        // Statement timeouts are whole seconds
+        int remaining = (int) Math.max(1, (deadline.remainingMillis() + 999) / 1000);
+        return timeout == TransactionDefinition.TIMEOUT_DEFAULT ? remaining : Math.min(timeout, remaining);
+    }
+}
@@ -0,0 +1,65 @@
+package com.ahmedyousri.boilerplate.springboot.banking.deadline.interceptor;
+
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.annotation.RequestDeadline;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.model.Deadline;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Establishes the deadline of each request before its controller method runs, and removes
+ * it once the request completes.
+ *
+ * <p>The budget is the {@link RequestDeadline} of the controller method, or
+ * {@code app.deadline.default.ms} without one. A client may shorten it with the
+ * {@value #TIMEOUT_HEADER} header, for example to the time it will itself wait.</p>
+ */
+@Component
+public class RequestDeadlineInterceptor implements HandlerInterceptor {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    @Value("${app.deadline.default.ms:15000}")
+    private long defaultBudgetMs;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long budgetMs = defaultBudgetMs;
+        if (handler instanceof HandlerMethod handlerMethod) {
+            RequestDeadline requestDeadline = handlerMethod.getMethodAnnotation(RequestDeadline.class);
+            if (requestDeadline != null) {
+                budgetMs = requestDeadline.millis();
+            }
+        }
+
+        String requested = request.getHeader(TIMEOUT_HEADER);
+        if (requested != null && !requested.isBlank()) {
+            long requestedMs;
+            try {
+                requestedMs = Long.parseLong(requested.trim());
+            } catch (NumberFormatException e) {
+                throw new BusinessRuleException(TIMEOUT_HEADER + " must be a number of milliseconds", "INVALID_REQUEST_TIMEOUT");
+            }
+            if (requestedMs <= 0) {
+                throw new BusinessRuleException(TIMEOUT_HEADER + " must be positive", "INVALID_REQUEST_TIMEOUT");
+            }
+            budgetMs = budgetMs > 0 ? Math.min(budgetMs, requestedMs) : requestedMs;
+        }
+
+        Deadline.set(budgetMs > 0 ? Deadline.after(budgetMs) : null);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Deadline.set(null);
+    }
+
+    void setDefaultBudgetMs(long defaultBudgetMs) {
+        this.defaultBudgetMs = defaultBudgetMs;
+    }
+}
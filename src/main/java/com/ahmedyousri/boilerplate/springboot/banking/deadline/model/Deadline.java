@@ -0,0 +1,138 @@
+package com.ahmedyousri.boilerplate.springboot.banking.deadline.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The point in time by which a request must be answered.
+ *
+ * <p>The deadline of the request being handled is bound to its thread, so database transactions
+ * and chain calls made on its behalf can cap their own timeouts at the remaining budget. Work
+ * handed to other threads carries the deadline along when wrapped with {@link #propagate}.</p>
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    /**
+     * Create a deadline a budget from now.
+     *
+     * @param budgetMs The budget in milliseconds
+     * @return The deadline
+     */
+    public static Deadline after(long budgetMs) {
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs));
+    }
+
+    /**
+     * Get the deadline of the request handled by this thread.
+     *
+     * @return The deadline, or null outside a request with a deadline
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Bind a deadline to this thread.
+     *
+     * @param deadline The deadline, or null to remove it
+     */
+    public static void set(Deadline deadline) {
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+    }
+
+    /**
+     * Cap a timeout at the budget left before the deadline of this thread.
+     *
+     * @param timeoutMs The timeout in milliseconds
+     * @return The smaller of the timeout and the remaining budget, and at least 1, since a
+     *         timeout of 0 means no timeout to most clients
+     */
+    public static long capMillis(long timeoutMs) {
+        Deadline deadline = current();
+        if (deadline == null) {
+            return timeoutMs;
+        }
+        return Math.max(1, Math.min(timeoutMs, deadline.remainingMillis()));
+    }
+
+    /**
+     * Wrap work so that it runs under the deadline of this thread on whichever thread runs it.
+     *
+     * @param work The work
+     * @param <T>  The result type
+     * @return The wrapped work
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> work) {
+        Deadline deadline = current();
+        if (deadline == null) {
+            return work;
+        }
+        return () -> {
+            Deadline previous = current();
+            set(deadline);
+            try {
+                return work.get();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+
+    /**
+     * Wrap a task so that it runs under the deadline of this thread on whichever thread runs it.
+     *
+     * @param task The task
+     * @return The wrapped task
+     */
+    public static Runnable propagate(Runnable task) {
+        Supplier<Void> work = propagate(() -> {
+            task.run();
+            return null;
+        });
+        return work::get;
+    }
+
+    /**
+     * Get a deadline that falls a reserve earlier than this one.
+     *
+     * @param reserveMs The reserve in milliseconds
+     * @return The earlier deadline
+     */
+    public Deadline earlier(long reserveMs) {
+        return new Deadline(expiresAtNanos - TimeUnit.MILLISECONDS.toNanos(reserveMs));
+    }
+
+    /**
+     * Get the budget left.
+     *
+     * @return The milliseconds until the deadline, rounded up so that waiting for them outlasts
+     *         it; zero or negative once it has passed
+     */
+    public long remainingMillis() {
+        long remainingNanos = expiresAtNanos - System.nanoTime();
+        return remainingNanos <= 0
+                ? TimeUnit.NANOSECONDS.toMillis(remainingNanos)
+                : TimeUnit.NANOSECONDS.toMillis(remainingNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+    }
+
+    /**
+     * Check whether the deadline has passed.
+     *
+     * @return True once no budget is left
+     */
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+}
@@ -0,0 +1,47 @@
+package com.ahmedyousri.boilerplate.springboot.banking.deadline.model;
+
+/**
+ * A point in the handling of a request at which the remaining budget is checked, so work is
+ * abandoned before a stage starts rather than after it has run past the deadline.
+ */
+public enum DeadlineStage {
+
+    /**
+     * Beginning a database transaction.
+     */
+    TRANSACTION("beginning a database transaction"),
+
+    /**
+     * Submitting a command to the chain, leaving time to record it in the ledger.
+     */
+    CHAIN_SUBMIT("submitting to the chain"),
+
+    /**
+     * Making or retrying a call to a chain node.
+     */
+    CHAIN_CALL("calling a chain node");
+
+    private final String description;
+
+    DeadlineStage(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Get a description of the stage for error messages.
+     *
+     * @return The description
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Get the value of the stage metrics tag.
+     *
+     * @return The lower-case stage name
+     */
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
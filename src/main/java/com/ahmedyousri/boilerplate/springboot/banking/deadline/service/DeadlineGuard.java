@@ -0,0 +1,79 @@
+package com.ahmedyousri.boilerplate.springboot.banking.deadline.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.model.Deadline;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.model.DeadlineStage;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Checks the deadline of the current request before each stage of its handling, and counts the
+ * requests abandoned at each stage.
+ */
+@Component
+public class DeadlineGuard {
+
+    private final Map<DeadlineStage, Counter> exceeded = new EnumMap<>(DeadlineStage.class);
+
+    @Value("${app.deadline.ledger.reserve.ms:2000}")
+    private long ledgerReserveMs;
+
+    public DeadlineGuard(MeterRegistry meterRegistry) {
+        for (DeadlineStage stage : DeadlineStage.values()) {
+            exceeded.put(stage, Counter.builder("request.deadline.exceeded")
+                    .description("Requests abandoned because their deadline passed")
+                    .tag("stage", stage.tag())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Abandon the current request if its deadline has passed.
+     *
+     * @param stage The stage about to start
+     * @throws DeadlineExceededException If the deadline has passed
+     */
+    public void check(DeadlineStage stage) {
+        Deadline deadline = Deadline.current();
+        if (deadline != null && deadline.isExpired()) {
+            exceeded.get(stage).increment();
+            throw new DeadlineExceededException(stage);
+        }
+    }
+
+    /**
+     * Submit a command to the chain, holding back the ledger reserve from the budget of the
+     * submission. A command the chain accepted must still be recorded in the ledger, so the
+     * submission is only started if the reserve is left, and its node calls time out in time to
+     * leave it.
+     *
+     * @param submission The submission
+     * @param <T>        The result type
+     * @return The result
+     * @throws DeadlineExceededException If less than the reserve is left
+     */
+    public <T> T submit(Supplier<T> submission) {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return submission.get();
+        }
+
+        Deadline.set(deadline.earlier(ledgerReserveMs));
+        try {
+            check(DeadlineStage.CHAIN_SUBMIT);
+            return submission.get();
+        } finally {
+            Deadline.set(deadline);
+        }
+    }
+
+    void setLedgerReserveMs(long ledgerReserveMs) {
+        this.ledgerReserveMs = ledgerReserveMs;
+    }
+}
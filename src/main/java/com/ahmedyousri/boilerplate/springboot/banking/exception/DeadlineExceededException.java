@@ -0,0 +1,20 @@
+package com.ahmedyousri.boilerplate.springboot.banking.exception;
+
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.model.DeadlineStage;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class DeadlineExceededException extends RuntimeException {
+
+    private final DeadlineStage stage;
+
+    public DeadlineExceededException(DeadlineStage stage) {
+        super("Request deadline exceeded before " + stage.getDescription());
+        this.stage = stage;
+    }
+
+    public DeadlineStage getStage() {
+        return stage;
+    }
+}
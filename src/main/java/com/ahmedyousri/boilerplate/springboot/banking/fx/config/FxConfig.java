@@ -0,0 +1,37 @@
+package com.ahmedyousri.boilerplate.springboot.banking.fx.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for exchange rates and cross-currency transfers.
+ */
+@Configuration
+@Getter
+public class FxConfig {
+
+    /**
+     * Whether transfers may cross currencies; when disabled they are rejected as before.
+     */
+    @Value("${app.fx.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Where the rates are read from, as a Spring resource location such as {@code file:fx/rates.csv}.
+     */
+    @Value("${app.fx.rates.location:classpath:fx/rates.csv}")
+    private String ratesLocation;
+
+    /**
+     * How often the rates are read again.
+     */
+    @Value("${app.fx.refresh.interval.ms:60000}")
+    private long refreshIntervalMs;
+
+    /**
+     * How old the rates may get, when they fail to refresh, before conversions are refused.
+     */
+    @Value("${app.fx.max.age.ms:86400000}")
+    private long maxAgeMs;
+}
@@ -0,0 +1,34 @@
+package com.ahmedyousri.boilerplate.springboot.banking.fx.model;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * An amount converted from one currency to another.
+ */
+@Value
+public class FxConversion {
+
+    String fromCurrency;
+
+    String toCurrency;
+
+    BigDecimal amount;
+
+    BigDecimal convertedAmount;
+
+    /**
+     * The units of the currency converted to per unit of the currency converted from.
+     */
+    BigDecimal rate;
+
+    /**
+     * Whether the amount was converted between two different currencies.
+     *
+     * @return True if the currencies differ
+     */
+    public boolean isCrossCurrency() {
+        return !fromCurrency.equals(toCurrency);
+    }
+}
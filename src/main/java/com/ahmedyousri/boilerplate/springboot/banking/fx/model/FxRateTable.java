@@ -0,0 +1,223 @@
+package com.ahmedyousri.boilerplate.springboot.banking.fx.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of exchange rates between every pair of its currencies.
+ *
+ * <p>The cross rates are worked out once, when the table is built, and kept as longs scaled by
+ * {@link #RATE_UNIT} in one array, so a lookup is two probes of a small open-addressed index of
+ * the currency codes and an array read, without locks or allocation. A table is never changed:
+ * a refresh builds a new one and publishes it in place of the old, so a reader always sees one
+ * consistent set of rates.</p>
+ */
+public final class FxRateTable {
+
+    /**
+     * The number of decimal places of a rate.
+     */
+    public static final int RATE_SCALE = 9;
+
+    /**
+     * A rate of one.
+     */
+    public static final long RATE_UNIT = 1_000_000_000L;
+
+    /**
+     * The rate of a pair of currencies not in the table.
+     */
+    public static final long NO_RATE = 0;
+
+    private static final BigDecimal MAX_RATE = BigDecimal.valueOf(Long.MAX_VALUE, RATE_SCALE);
+
+    /**
+     * A table without rates.
+     */
+    public static final FxRateTable EMPTY = new FxRateTable(new String[0], new long[0], Instant.EPOCH);
+
+    private final String[] currencies;
+
+    private final long[] rates;
+
+    private final int[] keys;
+
+    private final int[] indexes;
+
+    private final int mask;
+
+    private final Instant asOf;
+
+    private FxRateTable(String[] currencies, long[] rates, Instant asOf) {
+        this.currencies = currencies;
+        this.rates = rates;
+        this.asOf = asOf;
+
+        // At most half full, so a probe soon reaches the code or an empty slot
+        int capacity = Integer.highestOneBit(Math.max(4, currencies.length * 2 - 1)) << 1;
+        this.keys = new int[capacity];
+        this.indexes = new int[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < currencies.length; i++) {
+            int key = pack(currencies[i]);
+            int slot = slot(key);
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            indexes[slot] = i;
+        }
+    }
+
+    /**
+     * Build a table from the value of each currency in a common base currency.
+     *
+     * @param values The value of one unit of each currency in the base currency
+     * @param asOf   When the rates were published
+     * @return The table
+     * @throws IllegalArgumentException If a currency code is not three letters, or a value is not positive
+     */
+    public static FxRateTable of(Map<String, BigDecimal> values, Instant asOf) {
+        String[] currencies = values.keySet().toArray(new String[0]);
+        Arrays.sort(currencies);
+        int size = currencies.length;
+        for (String currency : currencies) {
+            if (pack(currency) == 0) {
+                throw new IllegalArgumentException("Invalid currency code: " + currency);
+            }
+            if (values.get(currency) == null || values.get(currency).signum() <= 0) {
+                throw new IllegalArgumentException("Rate of " + currency + " must be positive");
+            }
+        }
+
+        long[] rates = new long[size * size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                BigDecimal rate = i == j ? BigDecimal.ONE : values.get(currencies[i])
+                        .divide(values.get(currencies[j]), RATE_SCALE, RoundingMode.HALF_UP);
+                if (rate.signum() == 0 || rate.compareTo(MAX_RATE) > 0) {
+                    throw new IllegalArgumentException(
+                            "Rate from " + currencies[i] + " to " + currencies[j] + " is out of range: " + rate);
+                }
+                rates[i * size + j] = rate.movePointRight(RATE_SCALE).longValueExact();
+            }
+        }
+        return new FxRateTable(currencies, rates, asOf);
+    }
+
+    /**
+     * Get the rate from one currency to another.
+     *
+     * @param from The currency to convert from
+     * @param to   The currency to convert to
+     * @return The units of {@code to} per unit of {@code from}, scaled by {@link #RATE_UNIT};
+     *         {@link #NO_RATE} if either currency is not in the table
+     */
+    public long rate(String from, String to) {
+        int i = indexOf(from);
+        int j = indexOf(to);
+        if (i < 0 || j < 0) {
+            return NO_RATE;
+        }
+        return rates[i * currencies.length + j];
+    }
+
+    /**
+     * Convert an amount at a rate, rounding half up, without allocating.
+     *
+     * @param units The amount, as a long scaled by the scale of money
+     * @param rate  The rate, scaled by {@link #RATE_UNIT}
+     * @return The converted amount, at the scale of the amount
+     * @throws ArithmeticException If the converted amount does not fit in a long
+     */
+    public static long convert(long units, long rate) {
+        if (units < 0) {
+            return -convert(Math.negateExact(units), rate);
+        }
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + rate);
+        }
+
+        // Divide the 128-bit product by the rate unit, 32 bits at a time, so no step overflows
+        long high = Math.multiplyHigh(units, rate);
+        long low = units * rate;
+        if (high >= 1L << 31) {
+            throw new ArithmeticException("Converted amount overflows");
+        }
+        long upper = (high << 32) | (low >>> 32);
+        long upperQuotient = upper / RATE_UNIT;
+        long lower = ((upper % RATE_UNIT) << 32) | (low & 0xFFFFFFFFL);
+        long remainder = lower % RATE_UNIT;
+        if (upperQuotient >= 1L << 31) {
+            throw new ArithmeticException("Converted amount overflows");
+        }
+        long quotient = Math.addExact(upperQuotient << 32, lower / RATE_UNIT);
+        return remainder * 2 >= RATE_UNIT ? Math.incrementExact(quotient) : quotient;
+    }
+
+    /**
+     * Get the currencies of the table.
+     *
+     * @return The currency codes, in order
+     */
+    public List<String> getCurrencies() {
+        return List.of(currencies);
+    }
+
+    /**
+     * Get the number of currencies in the table.
+     *
+     * @return The number of currencies
+     */
+    public int size() {
+        return currencies.length;
+    }
+
+    /**
+     * Get when the rates were published.
+     *
+     * @return The time
+     */
+    public Instant getAsOf() {
+        return asOf;
+    }
+
+    private int indexOf(String currency) {
+        int key = pack(currency);
+        if (key == 0) {
+            return -1;
+        }
+        for (int slot = slot(key); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return indexes[slot];
+            }
+        }
+        return -1;
+    }
+
+    private int slot(int key) {
+        return (key * 0x9E3779B9 >>> 16) & mask;
+    }
+
+    /**
+     * Pack a currency code of three upper-case letters into an int, or 0 if it is not one.
+     */
+    private static int pack(String currency) {
+        if (currency == null || currency.length() != 3) {
+            return 0;
+        }
+        int key = 0;
+        for (int i = 0; i < 3; i++) {
+            char c = currency.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return 0;
+            }
+            key = key << 8 | c;
+        }
+        return key;
+    }
+}
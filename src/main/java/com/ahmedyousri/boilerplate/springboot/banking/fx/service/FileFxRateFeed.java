@@ -0,0 +1,69 @@
+package com.ahmedyousri.boilerplate.springboot.banking.fx.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.fx.config.FxConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.fx.model.FxRateTable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads exchange rates from a CSV file of {@code currency,rate} lines, each giving the value of
+ * one unit of a currency in a common base currency. Blank lines, lines starting with {@code #}
+ * and a {@code currency,rate} header are skipped. The rates are taken as of when they are read.
+ */
+@Component
+@RequiredArgsConstructor
+public class FileFxRateFeed implements FxRateFeed {
+
+    private final ResourceLoader resourceLoader;
+
+    private final FxConfig config;
+
+    @Override
+    public FxRateTable load() throws IOException {
+        Resource resource = resourceLoader.getResource(config.getRatesLocation());
+        Map<String, BigDecimal> values = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.equalsIgnoreCase("currency,rate")) {
+                    continue;
+                }
+                int comma = line.indexOf(',');
+                if (comma < 0) {
+                    throw new IOException("Line " + lineNumber + " of " + config.getRatesLocation() + " has no rate");
+                }
+                String currency = line.substring(0, comma).trim();
+                try {
+                    if (values.put(currency, new BigDecimal(line.substring(comma + 1).trim())) != null) {
+                        throw new IOException("Line " + lineNumber + " of " + config.getRatesLocation()
+                                + " repeats " + currency);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IOException("Line " + lineNumber + " of " + config.getRatesLocation()
+                            + " has an invalid rate", e);
+                }
+            }
+        }
+
+        try {
+            return FxRateTable.of(values, Instant.now());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid rates in " + config.getRatesLocation() + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.ahmedyousri.boilerplate.springboot.banking.fx.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.fx.model.FxRateTable;
+
+import java.io.IOException;
+
+/**
+ * A source of exchange rates, read again on every refresh.
+ */
+public interface FxRateFeed {
+
+    /**
+     * Read the current rates.
+     *
+     * @return A new table of the rates
+     * @throws IOException If the rates cannot be read
+     */
+    FxRateTable load() throws IOException;
+}
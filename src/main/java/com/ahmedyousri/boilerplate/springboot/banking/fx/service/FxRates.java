@@ -0,0 +1,150 @@
+package com.ahmedyousri.boilerplate.springboot.banking.fx.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import com.ahmedyousri.boilerplate.springboot.banking.fx.config.FxConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.fx.model.FxConversion;
+import com.ahmedyousri.boilerplate.springboot.banking.fx.model.FxRateTable;
+import com.ahmedyousri.boilerplate.springboot.banking.util.MoneyUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Holds the current exchange rates and converts amounts with them.
+ *
+ * <p>The rates are an immutable {@link FxRateTable}, read again from the {@link FxRateFeed}
+ * every {@code app.fx.refresh.interval.ms} and published by replacing the table in a volatile
+ * field. A conversion reads the field once and uses that table throughout, so it never waits for
+ * a refresh and never mixes rates of two refreshes. A refresh that fails keeps the previous
+ * table, which is used until it is older than {@code app.fx.max.age.ms}.</p>
+ */
+@Service
+public class FxRates {
+
+    private static final Logger log = LoggerFactory.getLogger(FxRates.class);
+
+    private final FxRateFeed feed;
+
+    private final FxConfig config;
+
+    private volatile FxRateTable table = FxRateTable.EMPTY;
+
+    private final TaskScheduler taskScheduler;
+
+    private ScheduledFuture<?> refreshes;
+
+    public FxRates(FxRateFeed feed, FxConfig config, TaskScheduler taskScheduler) {
+        this.feed = feed;
+        this.config = config;
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * Read the rates and keep them refreshed, unless cross-currency transfers are disabled.
+     */
+    @PostConstruct
+    public void initialize() {
+        if (!config.isEnabled()) {
+            log.info("Exchange rates disabled");
+            return;
+        }
+
+        runRefresh();
+        refreshes = taskScheduler.scheduleWithFixedDelay(this::runRefresh,
+                Instant.now().plusMillis(config.getRefreshIntervalMs()), Duration.ofMillis(config.getRefreshIntervalMs()));
+    }
+
+    /**
+     * Stop refreshing the rates.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (refreshes != null) {
+            refreshes.cancel(true);
+        }
+    }
+
+    /**
+     * Read the rates from the feed and publish them.
+     *
+     * @return The number of currencies
+     * @throws IOException If the rates cannot be read; the previous rates are kept
+     */
+    public int refresh() throws IOException {
+        FxRateTable next = feed.load();
+        table = next;
+        return next.size();
+    }
+
+    /**
+     * Publish a table of rates in place of the current one.
+     *
+     * @param next The table
+     */
+    public void publish(FxRateTable next) {
+        table = next;
+    }
+
+    /**
+     * Get the current table of rates.
+     *
+     * @return The table
+     */
+    public FxRateTable getTable() {
+        return table;
+    }
+
+    /**
+     * Convert an amount from one currency to another at the current rate.
+     *
+     * @param amount The amount
+     * @param from   The currency of the amount
+     * @param to     The currency to convert to
+     * @return The conversion; the amount itself when the currencies are the same
+     * @throws BusinessRuleException If the amount cannot be converted
+     */
+    public FxConversion convert(BigDecimal amount, String from, String to) {
+        if (from.equals(to)) {
+            return new FxConversion(from, to, amount, amount, BigDecimal.ONE);
+        }
+        if (!config.isEnabled()) {
+            throw new BusinessRuleException("Cannot convert from " + from + " to " + to, "CURRENCY_MISMATCH");
+        }
+
+        FxRateTable current = table;
+        long rate = current.rate(from, to);
+        if (rate == FxRateTable.NO_RATE) {
+            throw new BusinessRuleException("No exchange rate from " + from + " to " + to, "FX_RATE_UNAVAILABLE");
+        }
+        if (current.getAsOf().plusMillis(config.getMaxAgeMs()).isBefore(Instant.now())) {
+            throw new BusinessRuleException("Exchange rates of " + current.getAsOf() + " are out of date", "FX_RATE_STALE");
+        }
+
+        try {
+            long units = MoneyUtil.round(amount).unscaledValue().longValueExact();
+            long converted = FxRateTable.convert(units, rate);
+            return new FxConversion(from, to, amount, BigDecimal.valueOf(converted, MoneyUtil.DEFAULT_SCALE),
+                    BigDecimal.valueOf(rate, FxRateTable.RATE_SCALE));
+        } catch (ArithmeticException e) {
+            throw new BusinessRuleException("Amount " + amount + " " + from + " is too large to convert", "FX_AMOUNT_TOO_LARGE");
+        }
+    }
+
+    private void runRefresh() {
+        try {
+            int currencies = refresh();
+            log.debug("Refreshed exchange rates of {} currencies", currencies);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to refresh exchange rates, keeping those of {}: {}", table.getAsOf(), e.getMessage());
+        }
+    }
+}
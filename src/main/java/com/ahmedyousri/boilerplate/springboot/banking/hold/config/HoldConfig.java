@@ -0,0 +1,58 @@
+package com.ahmedyousri.boilerplate.springboot.banking.hold.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for pre-authorization holds on accounts.
+ */
+@Configuration
+@Getter
+public class HoldConfig {
+
+    @Value("${app.holds.expiry.enabled:true}")
+    private boolean expiryEnabled;
+
+    /**
+     * How long a hold lasts when the authorization does not say.
+     */
+    @Value("${app.holds.default.ttl.ms:604800000}")
+    private long defaultTtlMs;
+
+    /**
+     * The longest a hold may last.
+     */
+    @Value("${app.holds.max.ttl.ms:2592000000}")
+    private long maxTtlMs;
+
+    /**
+     * The resolution of the timing wheel; holds are released within a tick of expiring.
+     */
+    @Value("${app.holds.tick.ms:1000}")
+    private long tickMs;
+
+    /**
+     * Holds expiring within this window are held in memory.
+     */
+    @Value("${app.holds.horizon.ms:3600000}")
+    private long horizonMs;
+
+    /**
+     * How often the window is loaded from the expiry index; shorter than the horizon.
+     */
+    @Value("${app.holds.load.interval.ms:300000}")
+    private long loadIntervalMs;
+
+    /**
+     * How many expired holds are released in one transaction.
+     */
+    @Value("${app.holds.expiry.batch.size:1000}")
+    private int expiryBatchSize;
+
+    /**
+     * The most holds held in memory; the rest of the window is loaded as they expire.
+     */
+    @Value("${app.holds.max.queued:1000000}")
+    private int maxQueued;
+}
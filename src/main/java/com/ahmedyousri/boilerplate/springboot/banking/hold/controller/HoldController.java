@@ -0,0 +1,132 @@
+package com.ahmedyousri.boilerplate.springboot.banking.hold.controller;
+
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.service.CurrentCustomerService;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import com.ahmedyousri.boilerplate.springboot.banking.hold.entity.Hold;
+import com.ahmedyousri.boilerplate.springboot.banking.hold.mapper.HoldMapper;
+import com.ahmedyousri.boilerplate.springboot.banking.hold.service.HoldService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Controller for pre-authorization holds on an account.
+ * This provides endpoints for authorizing a hold and then capturing or releasing it.
+ */
+@RestController
+@RequestMapping("/api/v1/accounts/{accountId}/holds")
+@RequiredArgsConstructor
+public class HoldController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final HoldService holdService;
+    private final CurrentCustomerService currentCustomerService;
+    private final HoldMapper holdMapper;
+
+    /**
+     * Authorize a hold on an account.
+     *
+     * @param accountId   The account ID
+     * @param amount      The amount to hold
+     * @param reference   The reference of the authorization; repeating it returns the same hold
+     * @param description Optional description of the hold
+     * @param ttlMs       Optional time until the hold expires
+     * @return The hold
+     */
+    @PostMapping
+    public ResponseEntity<HoldMapper.HoldDTO> authorize(
+            @PathVariable UUID accountId,
+            @RequestParam BigDecimal amount,
+            @RequestParam String reference,
+            @RequestParam(required = false) String description,
+            @RequestParam(required = false) Long ttlMs) {
+        Customer customer = currentCustomerService.getCurrentCustomer();
+        Hold hold = holdService.authorize(customer, accountId, amount, reference, description, ttlMs);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(holdMapper.toHoldDTO(hold));
+    }
+
+    /**
+     * Get the holds on an account, newest first.
+     *
+     * @param accountId The account ID
+     * @param status    The hold status; AUTHORIZED by default
+     * @param size      The most holds to return
+     * @return The holds
+     */
+    @GetMapping
+    public ResponseEntity<List<HoldMapper.HoldDTO>> getHolds(
+            @PathVariable UUID accountId,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "100") int size) {
+        Customer customer = currentCustomerService.getCurrentCustomer();
+        List<Hold> holds = holdService.getHolds(customer, accountId, parseStatus(status),
+                Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+
+        return ResponseEntity.ok(holdMapper.toHoldDTOList(holds));
+    }
+
+    /**
+     * Get a hold.
+     *
+     * @param accountId The account ID
+     * @param holdId    The hold ID
+     * @return The hold
+     */
+    @GetMapping("/{holdId}")
+    public ResponseEntity<HoldMapper.HoldDTO> getHold(@PathVariable UUID accountId, @PathVariable UUID holdId) {
+        Customer customer = currentCustomerService.getCurrentCustomer();
+
+        return ResponseEntity.ok(holdMapper.toHoldDTO(holdService.getHold(customer, accountId, holdId)));
+    }
+
+    /**
+     * Capture a hold.
+     *
+     * @param accountId The account ID
+     * @param holdId    The hold ID
+     * @param amount    Optional amount to capture, up to the amount held; all of it by default
+     * @return The captured hold
+     */
+    @PostMapping("/{holdId}/capture")
+    public ResponseEntity<HoldMapper.HoldDTO> capture(
+            @PathVariable UUID accountId,
+            @PathVariable UUID holdId,
+            @RequestParam(required = false) BigDecimal amount) {
+        Customer customer = currentCustomerService.getCurrentCustomer();
+
+        return ResponseEntity.ok(holdMapper.toHoldDTO(holdService.capture(customer, accountId, holdId, amount)));
+    }
+
+    /**
+     * Release a hold.
+     *
+     * @param accountId The account ID
+     * @param holdId    The hold ID
+     * @return The released hold
+     */
+    @PostMapping("/{holdId}/release")
+    public ResponseEntity<HoldMapper.HoldDTO> release(@PathVariable UUID accountId, @PathVariable UUID holdId) {
+        Customer customer = currentCustomerService.getCurrentCustomer();
+
+        return ResponseEntity.ok(holdMapper.toHoldDTO(holdService.release(customer, accountId, holdId)));
+    }
+
+    private static Hold.HoldStatus parseStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return Hold.HoldStatus.AUTHORIZED;
+        }
+        try {
+            return Hold.HoldStatus.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessRuleException("Unknown hold status: " + status, "INVALID_HOLD_STATUS");
+        }
+    }
+}
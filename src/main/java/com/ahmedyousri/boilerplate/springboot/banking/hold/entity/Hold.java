@@ -0,0 +1,75 @@
+package com.ahmedyousri.boilerplate.springboot.banking.hold.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity for a pre-authorization hold: an amount taken from the available balance of an account
+ * until it is captured, released or expires.
+ *
+ * <p>Authorizing a hold reduces only the available balance. Capturing it debits the current
+ * balance by the amount captured and gives back the rest of the hold to the available balance;
+ * releasing it, or letting it expire, gives back the whole hold.</p>
+ */
+@Entity
+@Table(name = "holds", uniqueConstraints = @UniqueConstraint(columnNames = {"account_id", "reference"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Hold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID accountId;
+
+    /**
+     * The reference of the authorization, such as the authorization code of a card payment; an
+     * authorization repeated with the same reference returns the same hold.
+     */
+    @Column(nullable = false)
+    private String reference;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal capturedAmount;
+
+    @Column(nullable = false)
+    private String currencyCode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private HoldStatus status;
+
+    private String description;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * When the hold was captured, released or expired.
+     */
+    private LocalDateTime closedAt;
+
+    public enum HoldStatus {
+        AUTHORIZED,
+        CAPTURED,
+        RELEASED,
+        EXPIRED
+    }
+}
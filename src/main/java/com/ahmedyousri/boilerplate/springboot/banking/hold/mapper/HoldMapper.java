@@ -0,0 +1,89 @@
+package com.ahmedyousri.boilerplate.springboot.banking.hold.mapper;
+
+import com.ahmedyousri.boilerplate.springboot.banking.hold.entity.Hold;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Mapper for hold entities.
+ * Converts holds to DTOs for API responses.
+ */
+@Component
+public class HoldMapper {
+
+    /**
+     * Convert a Hold to a HoldDTO.
+     *
+     * @param hold The hold to convert
+     * @return The hold DTO
+     */
+    public HoldDTO toHoldDTO(Hold hold) {
+        if (hold == null) {
+            return null;
+        }
+
+        HoldDTO dto = new HoldDTO();
+        dto.setId(hold.getId());
+        dto.setAccountId(hold.getAccountId());
+        dto.setReference(hold.getReference());
+        dto.setAmount(hold.getAmount());
+        dto.setCapturedAmount(hold.getCapturedAmount());
+        dto.setCurrencyCode(hold.getCurrencyCode());
+        dto.setStatus(hold.getStatus().name());
+        dto.setDescription(hold.getDescription());
+        dto.setExpiresAt(toOffsetDateTime(hold.getExpiresAt()));
+        dto.setCreatedAt(toOffsetDateTime(hold.getCreatedAt()));
+        dto.setClosedAt(toOffsetDateTime(hold.getClosedAt()));
+
+        return dto;
+    }
+
+    /**
+     * Convert a list of Hold to a list of HoldDTO.
+     *
+     * @param holds The holds to convert
+     * @return The hold DTOs
+     */
+    public List<HoldDTO> toHoldDTOList(List<Hold> holds) {
+        if (holds == null) {
+            return null;
+        }
+
+        return holds.stream()
+                .map(this::toHoldDTO)
+                .collect(Collectors.toList());
+    }
+
+    private OffsetDateTime toOffsetDateTime(LocalDateTime localDateTime) {
+        if (localDateTime == null) {
+            return null;
+        }
+        return localDateTime.atOffset(ZoneOffset.UTC);
+    }
+
+    /**
+     * DTO for Hold.
+     */
+    @Data
+    public static class HoldDTO {
+        private UUID id;
+        private UUID accountId;
+        private String reference;
+        private BigDecimal amount;
+        private BigDecimal capturedAmount;
+        private String currencyCode;
+        private String status;
+        private String description;
+        private OffsetDateTime expiresAt;
+        private OffsetDateTime createdAt;
+        private OffsetDateTime closedAt;
+    }
+}
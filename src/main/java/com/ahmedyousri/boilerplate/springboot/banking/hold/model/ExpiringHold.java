@@ -0,0 +1,22 @@
+package com.ahmedyousri.boilerplate.springboot.banking.hold.model;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An authorized hold and when it expires, read from the expiry index without loading the hold.
+ */
+@Value
+public class ExpiringHold {
+
+    UUID id;
+
+    UUID accountId;
+
+    BigDecimal amount;
+
+    LocalDateTime expiresAt;
+}
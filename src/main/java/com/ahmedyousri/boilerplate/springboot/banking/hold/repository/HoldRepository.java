@@ -0,0 +1,79 @@
+package com.ahmedyousri.boilerplate.springboot.banking.hold.repository;
+
+import com.ahmedyousri.boilerplate.springboot.banking.hold.entity.Hold;
+import com.ahmedyousri.boilerplate.springboot.banking.hold.model.ExpiringHold;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, UUID> {
+
+    String STATUS = "com.ahmedyousri.boilerplate.springboot.banking.hold.entity.Hold.HoldStatus.";
+
+    String EXPIRING_SELECT = "SELECT new com.ahmedyousri.boilerplate.springboot.banking.hold.model.ExpiringHold(" +
+            "h.id, h.accountId, h.amount, h.expiresAt) FROM Hold h ";
+
+    String EXPIRING_FILTERS = "WHERE h.status = " + STATUS + "AUTHORIZED AND h.expiresAt <= :until ";
+
+    String EXPIRING_ORDER = "ORDER BY h.expiresAt, h.id";
+
+    /**
+     * Find a hold and lock it until the end of the current transaction.
+     *
+     * @param id The hold ID
+     * @return The locked hold
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM Hold h WHERE h.id = :id")
+    Optional<Hold> findByIdForUpdate(@Param("id") UUID id);
+
+    Optional<Hold> findByAccountIdAndReference(UUID accountId, String reference);
+
+    List<Hold> findByAccountIdAndStatusOrderByCreatedAtDesc(UUID accountId, Hold.HoldStatus status, Pageable pageable);
+
+    /**
+     * Sum the holds authorized on an account.
+     *
+     * @param accountId The account ID
+     * @return The amount held
+     */
+    @Query("SELECT COALESCE(SUM(h.amount), 0) FROM Hold h WHERE h.accountId = :accountId AND h.status = " + STATUS + "AUTHORIZED")
+    BigDecimal sumAuthorized(@Param("accountId") UUID accountId);
+
+    /**
+     * Find the authorized holds expiring by a time, in order of expiry.
+     *
+     * @param until    The time
+     * @param pageable The page size
+     * @return The page of holds, with whether another follows
+     */
+    @Query(EXPIRING_SELECT + EXPIRING_FILTERS + EXPIRING_ORDER)
+    Slice<ExpiringHold> findExpiring(@Param("until") LocalDateTime until, Pageable pageable);
+
+    /**
+     * Find the authorized holds expiring by a time after a given hold, in order of expiry.
+     *
+     * @param until          The time
+     * @param afterExpiresAt When the last hold of the previous page expires
+     * @param afterId        The ID of the last hold of the previous page
+     * @param pageable       The page size
+     * @return The page of holds, with whether another follows
+     */
+    @Query(EXPIRING_SELECT + EXPIRING_FILTERS + "AND (h.expiresAt, h.id) > (:afterExpiresAt, :afterId) " + EXPIRING_ORDER)
+    Slice<ExpiringHold> findExpiringAfter(@Param("until") LocalDateTime until,
+                                          @Param("afterExpiresAt") LocalDateTime afterExpiresAt,
+                                          @Param("afterId") UUID afterId,
+                                          Pageable pageable);
+}
@@ -0,0 +1,87 @@
+package com.ahmedyousri.boilerplate.springboot.banking.hold.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.hold.model.ExpiringHold;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Releases expired holds, a batch per transaction.
+ *
+ * <p>A batch costs two JDBC batch updates whatever its size: one marks the holds expired, and
+ * only matches holds still authorized and due, so a hold captured or released meanwhile, or
+ * already expired by another node, is left alone; the other gives back the available balance of
+ * each account once for all of its holds that expired. Holds and then accounts are updated in
+ * the order of their IDs, the same order as a capture or release locks them, so expiring a batch
+ * never deadlocks with either.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class HoldExpirer {
+
+    private static final String EXPIRE_HOLD = "UPDATE holds SET status = 'EXPIRED', closed_at = ? "
+            + "WHERE id = ? AND status = 'AUTHORIZED' AND expires_at <= ?";
+
+    // The version is raised so an account read before the release cannot be saved over it
+    private static final String RELEASE_AVAILABLE = "UPDATE accounts SET available_balance = available_balance + ?, "
+            + "version = COALESCE(version, 0) + 1, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Expire a batch of holds in a transaction of its own.
+     *
+     * @param holds The holds
+     * @param now   The current time; holds not due by then are left alone
+     * @return The number of holds expired
+     */
+    public int expire(List<ExpiringHold> holds, LocalDateTime now) {
+        if (holds.isEmpty()) {
+            return 0;
+        }
+        List<ExpiringHold> ordered = new ArrayList<>(holds);
+        ordered.sort(Comparator.comparing(ExpiringHold::getId));
+        Timestamp timestamp = Timestamp.valueOf(now);
+
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            int[][] expired = jdbcTemplate.batchUpdate(EXPIRE_HOLD, ordered, ordered.size(), (statement, hold) -> {
+                statement.setTimestamp(1, timestamp);
+                statement.setObject(2, hold.getId());
+                statement.setTimestamp(3, timestamp);
+            });
+
+            Map<UUID, BigDecimal> released = new TreeMap<>();
+            int count = 0;
+            for (int i = 0; i < ordered.size(); i++) {
+                if (expired[0][i] > 0) {
+                    released.merge(ordered.get(i).getAccountId(), ordered.get(i).getAmount(), BigDecimal::add);
+                    count++;
+                }
+            }
+            if (count == 0) {
+                return 0;
+            }
+            List<Map.Entry<UUID, BigDecimal>> accounts = new ArrayList<>(released.entrySet());
+            jdbcTemplate.batchUpdate(RELEASE_AVAILABLE, accounts, accounts.size(), (statement, account) -> {
+                statement.setBigDecimal(1, account.getValue());
+                statement.setTimestamp(2, timestamp);
+                statement.setObject(3, account.getKey());
+            });
+            return count;
+        });
+    }
+}
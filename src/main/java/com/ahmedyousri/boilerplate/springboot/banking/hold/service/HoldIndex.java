@@ -0,0 +1,146 @@
+package com.ahmedyousri.boilerplate.springboot.banking.hold.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The authorized holds of each account that this node is waiting to expire.
+ *
+ * <p>The holds of an account are kept as the two halves of their IDs in arrays of longs, so a
+ * hold costs 16 bytes rather than a set entry and a UUID. Accounts rarely have more than a few
+ * holds at a time, so holds are found by scanning the arrays of their account. An account is
+ * dropped from the index with its last hold. Changes to an account are serialized; different
+ * accounts do not contend.</p>
+ */
+public class HoldIndex {
+
+    private final Map<UUID, AccountHolds> accounts = new ConcurrentHashMap<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Add a hold.
+     *
+     * @param accountId The account ID
+     * @param holdId    The hold ID
+     * @return Whether the hold was added; false if it was already in the index
+     */
+    public boolean add(UUID accountId, UUID holdId) {
+        boolean[] added = new boolean[1];
+        accounts.compute(accountId, (key, holds) -> {
+            AccountHolds result = holds != null ? holds : new AccountHolds();
+            added[0] = result.add(holdId);
+            return result;
+        });
+        if (added[0]) {
+            size.incrementAndGet();
+        }
+        return added[0];
+    }
+
+    /**
+     * Remove a hold.
+     *
+     * @param accountId The account ID
+     * @param holdId    The hold ID
+     * @return Whether the hold was in the index
+     */
+    public boolean remove(UUID accountId, UUID holdId) {
+        boolean[] removed = new boolean[1];
+        accounts.computeIfPresent(accountId, (key, holds) -> {
+            removed[0] = holds.remove(holdId);
+            return holds.count == 0 ? null : holds;
+        });
+        if (removed[0]) {
+            size.decrementAndGet();
+        }
+        return removed[0];
+    }
+
+    /**
+     * Check whether a hold is in the index.
+     *
+     * @param accountId The account ID
+     * @param holdId    The hold ID
+     * @return Whether the hold is in the index
+     */
+    public boolean contains(UUID accountId, UUID holdId) {
+        AccountHolds holds = accounts.get(accountId);
+        if (holds == null) {
+            return false;
+        }
+        synchronized (holds) {
+            return holds.indexOf(holdId) >= 0;
+        }
+    }
+
+    /**
+     * Get the number of holds in the index.
+     *
+     * @return The number of holds
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Get the number of accounts with holds in the index.
+     *
+     * @return The number of accounts
+     */
+    public int accountCount() {
+        return accounts.size();
+    }
+
+    /**
+     * The holds of one account. Changed only within a compute of the map, and read under its own
+     * lock.
+     */
+    private static final class AccountHolds {
+
+        private long[] high = new long[2];
+
+        private long[] low = new long[2];
+
+        private int count;
+
+        private synchronized boolean add(UUID holdId) {
+            if (indexOf(holdId) >= 0) {
+                return false;
+            }
+            if (count == high.length) {
+                high = Arrays.copyOf(high, count * 2);
+                low = Arrays.copyOf(low, count * 2);
+            }
+            high[count] = holdId.getMostSignificantBits();
+            low[count] = holdId.getLeastSignificantBits();
+            count++;
+            return true;
+        }
+
+        private synchronized boolean remove(UUID holdId) {
+            int index = indexOf(holdId);
+            if (index < 0) {
+                return false;
+            }
+            count--;
+            high[index] = high[count];
+            low[index] = low[count];
+            return true;
+        }
+
+        private int indexOf(UUID holdId) {
+            long mostSignificant = holdId.getMostSignificantBits();
+            long leastSignificant = holdId.getLeastSignificantBits();
+            for (int i = 0; i < count; i++) {
+                if (high[i] == mostSignificant && low[i] == leastSignificant) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.ahmedyousri.boilerplate.springboot.banking.hold.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.WithdrawCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.service.ConfirmationTracker;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.ChainSubmitter;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.InsufficientFundsException;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.ResourceNotFoundException;
+import com.ahmedyousri.boilerplate.springboot.banking.hold.config.HoldConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.hold.entity.Hold;
+import com.ahmedyousri.boilerplate.springboot.banking.hold.repository.HoldRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.TransactionType;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.service.TransactionService;
+import com.ahmedyousri.boilerplate.springboot.banking.util.MoneyUtil;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service for pre-authorization holds.
+ *
+ * <p>An authorization only locks the account, checks and reduces its available balance, and
+ * inserts the hold; nothing is journaled, recorded or sent on chain until the hold is captured,
+ * so card-style authorizations cost far less than a transfer. A capture or release locks the
+ * hold and then its account, the same order as {@link HoldExpirer}, so it waits for an expiry of
+ * the same hold in progress and then finds it no longer authorized.</p>
+ */
+@Service
+@RequiredArgsConstructor
+public class HoldService {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldService.class);
+
+    private final HoldRepository holdRepository;
+    private final AccountRepository accountRepository;
+    private final AccountingService accountingService;
+    private final TransactionService transactionService;
+    private final ChainSubmitter chainSubmitter;
+    private final ConfirmationTracker confirmationTracker;
+    private final HoldSweeper holdSweeper;
+    private final HoldConfig config;
+
+    /**
+     * Authorize a hold on an account. Authorizing again with the same reference returns the hold
+     * already authorized.
+     *
+     * @param customer    The customer
+     * @param accountId   The account ID
+     * @param amount      The amount to hold
+     * @param reference   The reference of the authorization
+     * @param description Description of the hold, or null
+     * @param ttlMs       How long the hold lasts, or null for the default
+     * @return The hold
+     * @throws BusinessRuleException If the hold is not allowed or the account has insufficient funds
+     */
+    @Transactional
+    public Hold authorize(Customer customer, UUID accountId, BigDecimal amount, String reference,
+                          String description, Long ttlMs) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new BusinessRuleException("Hold amount must be greater than zero", "INVALID_HOLD_AMOUNT");
+        }
+        if (reference == null || reference.isBlank()) {
+            throw new BusinessRuleException("Hold reference is required", "INVALID_HOLD_REFERENCE");
+        }
+        long ttl = ttlMs != null ? ttlMs : config.getDefaultTtlMs();
+        if (ttl <= 0 || ttl > config.getMaxTtlMs()) {
+            throw new BusinessRuleException("Hold must expire within " + config.getMaxTtlMs() + " ms", "INVALID_HOLD_EXPIRY");
+        }
+
+        Account account = lockAccount(customer, accountId);
+        Hold existing = holdRepository.findByAccountIdAndReference(accountId, reference).orElse(null);
+        if (existing != null) {
+            if (existing.getAmount().compareTo(amount) != 0) {
+                throw new BusinessRuleException(
+                        "Hold " + reference + " was already authorized for " + existing.getAmount(),
+                        "DUPLICATE_HOLD_REFERENCE");
+            }
+            return existing;
+        }
+        if (account.getStatus() != AccountStatus.ACTIVE) {
+            throw new BusinessRuleException("Account is not active", "ACCOUNT_INACTIVE");
+        }
+        if (account.getAvailableBalance().compareTo(amount) < 0) {
+            throw new InsufficientFundsException(account.getId(), amount, account.getAvailableBalance());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        account.setAvailableBalance(MoneyUtil.subtract(account.getAvailableBalance(), amount));
+        accountRepository.save(account);
+
+        Hold hold = holdRepository.save(Hold.builder()
+                .accountId(accountId)
+                .reference(reference)
+                .amount(amount)
+                .currencyCode(account.getCurrencyCode())
+                .status(Hold.HoldStatus.AUTHORIZED)
+                .description(description)
+                .expiresAt(now.plus(Duration.ofMillis(ttl)))
+                .createdAt(now)
+                .build());
+        holdSweeper.register(hold);
+
+        log.info("Authorized hold {} of {} {} on account {}", hold.getId(), amount, account.getCurrencyCode(), accountId);
+        return hold;
+    }
+
+    /**
+     * Capture a hold, debiting the account by the amount captured and giving back the rest of
+     * the hold to the available balance.
+     *
+     * @param customer  The customer
+     * @param accountId The account ID
+     * @param holdId    The hold ID
+     * @param amount    The amount to capture, up to the amount held; null for all of it
+     * @return The captured hold
+     * @throws BusinessRuleException If the hold is no longer authorized or the amount exceeds it
+     */
+    @Transactional
+    public Hold capture(Customer customer, UUID accountId, UUID holdId, BigDecimal amount) {
+        Hold hold = lockAuthorizedHold(accountId, holdId);
+        Account account = lockAccount(customer, accountId);
+        BigDecimal captured = amount != null ? amount : hold.getAmount();
+        if (captured.signum() <= 0) {
+            throw new BusinessRuleException("Capture amount must be greater than zero", "INVALID_HOLD_AMOUNT");
+        }
+        if (captured.compareTo(hold.getAmount()) > 0) {
+            throw new BusinessRuleException(
+                    "Cannot capture " + captured + " of a hold of " + hold.getAmount(), "HOLD_AMOUNT_EXCEEDED");
+        }
+        String description = hold.getDescription() != null ? hold.getDescription() : "Card payment " + hold.getReference();
+
+        // 1. Send the debit on chain, unless the ledger is anchored instead
+        WithdrawCommand command = new WithdrawCommand(accountId, captured, description);
+        command.setReferenceId(holdId);
+        BlockchainResponse response = chainSubmitter.submit(command);
+        if (!response.isSuccessful()) {
+            throw new BusinessRuleException(
+                    "Capture failed on blockchain: " + response.getErrorMessage(), response.getErrorCode());
+        }
+        String txHash = response.getTransactionHash();
+
+        // 2. Debit the captured amount; the rest of the hold becomes available again
+        LocalDateTime now = LocalDateTime.now();
+        account.setCurrentBalance(MoneyUtil.subtract(account.getCurrentBalance(), captured));
+        account.setAvailableBalance(MoneyUtil.add(account.getAvailableBalance(), hold.getAmount().subtract(captured)));
+        account.setLastTransactionDate(now);
+
+        // 3. Journal and record the debit
+        accountingService.createWithdrawalJournalEntry(account, captured, description, holdId);
+        transactionService.recordTransaction(account, TransactionType.DEBIT, captured, description, holdId.toString());
+        accountRepository.save(account);
+
+        hold.setStatus(Hold.HoldStatus.CAPTURED);
+        hold.setCapturedAmount(captured);
+        hold.setClosedAt(now);
+        holdSweeper.forget(hold);
+
+        if (txHash != null) {
+            confirmationTracker.track(txHash, holdId.toString());
+        }
+        log.info("Captured {} of hold {} on account {}", captured, holdId, accountId);
+        return holdRepository.save(hold);
+    }
+
+    /**
+     * Release a hold, giving back the whole amount to the available balance.
+     *
+     * @param customer  The customer
+     * @param accountId The account ID
+     * @param holdId    The hold ID
+     * @return The released hold
+     * @throws BusinessRuleException If the hold is no longer authorized
+     */
+    @Transactional
+    public Hold release(Customer customer, UUID accountId, UUID holdId) {
+        Hold hold = lockAuthorizedHold(accountId, holdId);
+        Account account = lockAccount(customer, accountId);
+
+        account.setAvailableBalance(MoneyUtil.add(account.getAvailableBalance(), hold.getAmount()));
+        accountRepository.save(account);
+
+        hold.setStatus(Hold.HoldStatus.RELEASED);
+        hold.setClosedAt(LocalDateTime.now());
+        holdSweeper.forget(hold);
+
+        log.info("Released hold {} of {} on account {}", holdId, hold.getAmount(), accountId);
+        return holdRepository.save(hold);
+    }
+
+    /**
+     * Get a hold on an account.
+     *
+     * @param customer  The customer
+     * @param accountId The account ID
+     * @param holdId    The hold ID
+     * @return The hold
+     */
+    @Transactional(readOnly = true)
+    public Hold getHold(Customer customer, UUID accountId, UUID holdId) {
+        findOwnedAccount(customer, accountId);
+        return holdRepository.findById(holdId)
+                .filter(hold -> hold.getAccountId().equals(accountId))
+                .orElseThrow(() -> new ResourceNotFoundException("Hold", "id", holdId));
+    }
+
+    /**
+     * Get the holds on an account with a status, newest first.
+     *
+     * @param customer  The customer
+     * @param accountId The account ID
+     * @param status    The status
+     * @param limit     The most holds to return
+     * @return The holds
+     */
+    @Transactional(readOnly = true)
+    public List<Hold> getHolds(Customer customer, UUID accountId, Hold.HoldStatus status, int limit) {
+        findOwnedAccount(customer, accountId);
+        return holdRepository.findByAccountIdAndStatusOrderByCreatedAtDesc(accountId, status, PageRequest.of(0, limit));
+    }
+
+    private Hold lockAuthorizedHold(UUID accountId, UUID holdId) {
+        Hold hold = holdRepository.findByIdForUpdate(holdId)
+                .filter(found -> found.getAccountId().equals(accountId))
+                .orElseThrow(() -> new ResourceNotFoundException("Hold", "id", holdId));
+        if (hold.getStatus() != Hold.HoldStatus.AUTHORIZED) {
+            throw new BusinessRuleException("Hold is " + hold.getStatus(), "HOLD_NOT_AUTHORIZED");
+        }
+        if (!hold.getExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new BusinessRuleException("Hold has expired", "HOLD_NOT_AUTHORIZED");
+        }
+        return hold;
+    }
+
+    private Account lockAccount(Customer customer, UUID accountId) {
+        Account account = accountRepository.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", accountId));
+        verifyOwnership(customer, account);
+        return account;
+    }
+
+    private Account findOwnedAccount(Customer customer, UUID accountId) {
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", accountId));
+        verifyOwnership(customer, account);
+        return account;
+    }
+
+    private static void verifyOwnership(Customer customer, Account account) {
+        if (!account.getCustomer().getId().equals(customer.getId())) {
+            throw new BusinessRuleException("Account does not belong to the authenticated customer",
+                    "ACCOUNT_OWNERSHIP_VIOLATION");
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.ahmedyousri.boilerplate.springboot.banking.hold.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.hold.config.HoldConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.hold.entity.Hold;
+import com.ahmedyousri.boilerplate.springboot.banking.hold.model.ExpiringHold;
+import com.ahmedyousri.boilerplate.springboot.banking.hold.repository.HoldRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.util.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Releases authorized holds when they expire.
+ *
+ * <p>Holds expiring within {@code app.holds.horizon.ms} are loaded from the expiry index into a
+ * {@link TimingWheel}, at most {@code app.holds.max.queued} of them, and the window is reloaded
+ * every {@code app.holds.load.interval.ms}; a hold authorized within the window is added once
+ * its transaction commits. The holds in the wheel are also kept in a {@link HoldIndex} by
+ * account, and a hold captured or released is dropped from the index, so it is skipped when its
+ * expiry comes round. Every tick, the holds that expired are released in batches of
+ * {@code app.holds.expiry.batch.size} with {@link HoldExpirer}.</p>
+ *
+ * <p>Every node loads the same window, and a hold expired by one node no longer matches the
+ * update of another, so each hold is released exactly once. Holds that expired while no node
+ * was running, or whose batch failed, are released after the next load.</p>
+ */
+@Service
+public class HoldSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldSweeper.class);
+
+    private static final int WHEEL_SIZE = 512;
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private final HoldRepository holdRepository;
+
+    private final HoldExpirer holdExpirer;
+
+    private final HoldConfig config;
+
+    private final TimingWheel<ExpiringHold> wheel;
+
+    private final HoldIndex index = new HoldIndex();
+
+    private final TaskScheduler taskScheduler;
+
+    private ScheduledFuture<?> loads;
+
+    private ScheduledFuture<?> ticks;
+
+    public HoldSweeper(HoldRepository holdRepository, HoldExpirer holdExpirer, HoldConfig config, TaskScheduler taskScheduler) {
+        this.holdRepository = holdRepository;
+        this.holdExpirer = holdExpirer;
+        this.config = config;
+        this.taskScheduler = taskScheduler;
+        this.wheel = new TimingWheel<>(Math.max(1, config.getTickMs()), WHEEL_SIZE, System.currentTimeMillis());
+    }
+
+    /**
+     * Start loading and expiring holds, unless disabled.
+     */
+    @PostConstruct
+    public void initialize() {
+        if (!config.isExpiryEnabled()) {
+            log.info("Hold expiry disabled");
+            return;
+        }
+
+        loads = taskScheduler.scheduleWithFixedDelay(this::runLoad, Instant.now(), Duration.ofMillis(config.getLoadIntervalMs()));
+        ticks = taskScheduler.scheduleAtFixedRate(this::runTick, Instant.now().plusMillis(config.getTickMs()),
+                Duration.ofMillis(config.getTickMs()));
+        log.info("Hold expiry started with a {} ms tick and a {} ms horizon", config.getTickMs(), config.getHorizonMs());
+    }
+
+    /**
+     * Stop loading and expiring holds. Holds left in the wheel are loaded again on restart.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (loads != null) {
+            loads.cancel(true);
+            ticks.cancel(true);
+        }
+    }
+
+    /**
+     * Register an authorized hold once the current transaction commits. Holds expiring beyond
+     * the window are left to a later load.
+     *
+     * @param hold The hold
+     */
+    public void register(Hold hold) {
+        if (ticks == null || hold.getExpiresAt().isAfter(LocalDateTime.now().plus(Duration.ofMillis(config.getHorizonMs())))) {
+            return;
+        }
+        ExpiringHold expiring = new ExpiringHold(hold.getId(), hold.getAccountId(), hold.getAmount(), hold.getExpiresAt());
+        afterCommit(() -> enqueue(expiring));
+    }
+
+    /**
+     * Drop a hold that was captured or released once the current transaction commits, so it is
+     * skipped when it would have expired.
+     *
+     * @param hold The hold
+     */
+    public void forget(Hold hold) {
+        afterCommit(() -> index.remove(hold.getAccountId(), hold.getId()));
+    }
+
+    /**
+     * Load the holds expiring within the window into the wheel.
+     *
+     * @return The number of holds added
+     */
+    public int load() {
+        LocalDateTime until = LocalDateTime.now().plus(Duration.ofMillis(config.getHorizonMs()));
+        Slice<ExpiringHold> page = holdRepository.findExpiring(until, PageRequest.of(0, LOAD_PAGE_SIZE));
+        int added = 0;
+        while (true) {
+            for (ExpiringHold hold : page.getContent()) {
+                added += enqueue(hold);
+            }
+            if (!page.hasNext() || index.size() >= config.getMaxQueued()) {
+                return added;
+            }
+            ExpiringHold last = page.getContent().get(page.getContent().size() - 1);
+            page = holdRepository.findExpiringAfter(until, last.getExpiresAt(), last.getId(),
+                    PageRequest.of(0, LOAD_PAGE_SIZE));
+        }
+    }
+
+    /**
+     * Release the holds in the wheel that expired by a time.
+     *
+     * @param nowMs The time in epoch milliseconds
+     * @return The number of holds released
+     */
+    public int expire(long nowMs) {
+        List<ExpiringHold> due = new ArrayList<>();
+        for (ExpiringHold hold : wheel.advance(nowMs)) {
+            if (index.contains(hold.getAccountId(), hold.getId())) {
+                due.add(hold);
+            }
+        }
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        // The expired holds of an account go in the same batch, so its balance is updated once
+        due.sort(Comparator.comparing(ExpiringHold::getAccountId));
+        LocalDateTime now = LocalDateTime.now();
+        int batchSize = Math.max(1, config.getExpiryBatchSize());
+        int released = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<ExpiringHold> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                released += holdExpirer.expire(batch, now);
+            } catch (RuntimeException e) {
+                log.warn("Failed to release {} expired holds: {}", batch.size(), e.getMessage());
+            } finally {
+                batch.forEach(hold -> index.remove(hold.getAccountId(), hold.getId()));
+            }
+        }
+        return released;
+    }
+
+    /**
+     * Get the number of holds waiting to expire in the wheel.
+     *
+     * @return The number of holds
+     */
+    public int getQueuedCount() {
+        return index.size();
+    }
+
+    private int enqueue(ExpiringHold hold) {
+        if (!index.add(hold.getAccountId(), hold.getId())) {
+            return 0;
+        }
+        wheel.add(hold, hold.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        return 1;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void runLoad() {
+        try {
+            int added = load();
+            if (added > 0) {
+                log.info("Loaded {} expiring holds; {} queued", added, index.size());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to load expiring holds: {}", e.getMessage());
+        }
+    }
+
+    private void runTick() {
+        try {
+            int released = expire(System.currentTimeMillis());
+            if (released > 0) {
+                log.info("Released {} expired holds", released);
+            }
+        } catch (RuntimeException e) {
+            log.error("Hold expiry tick failed", e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.ahmedyousri.boilerplate.springboot.banking.idempotency.service;
 
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.service.JobCoordinator;
 import com.ahmedyousri.boilerplate.springboot.banking.idempotency.entity.IdempotencyKey;
 import com.ahmedyousri.boilerplate.springboot.banking.idempotency.repository.IdempotencyKeyRepository;
 import lombok.RequiredArgsConstructor;
@@ -9,6 +10,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
@@ -23,7 +25,10 @@ public class IdempotencyService {
 
     private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
     
+    private static final String CLEANUP_JOB = "idempotency-cleanup";
+    
     private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final JobCoordinator jobCoordinator;
     
     /**
      * Checks if a request with the given key has already been processed.
@@ -91,13 +96,14 @@ public class IdempotencyService {
     
     /**
      * Cleans up expired idempotency keys.
-     * This method is scheduled to run daily.
+     * This method is scheduled to run daily, on a single node of the cluster.
      */
     @Scheduled(cron = "0 0 0 * * *") // Run daily at midnight
-    @Transactional
     public void cleanupExpiredKeys() {
-        LocalDateTime expiryThreshold = LocalDateTime.now().minusDays(7); // Keys expire after 7 days
-        int deleted = idempotencyKeyRepository.deleteByCreatedAtBefore(expiryThreshold);
-        log.info("Cleaned up {} expired idempotency keys", deleted);
+        jobCoordinator.runOnce(CLEANUP_JOB, LocalDate.now().toString(), () -> {
+            LocalDateTime expiryThreshold = LocalDateTime.now().minusDays(7); // Keys expire after 7 days
+            int deleted = idempotencyKeyRepository.deleteByCreatedAtBefore(expiryThreshold);
+            log.info("Cleaned up {} expired idempotency keys", deleted);
+        });
     }
 }
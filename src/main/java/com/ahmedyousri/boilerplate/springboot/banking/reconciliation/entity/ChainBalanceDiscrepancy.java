@@ -0,0 +1,54 @@
+package com.ahmedyousri.boilerplate.springboot.banking.reconciliation.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing an account whose chain balance differed from its ledger balance in a
+ * chain reconciliation run.
+ */
+@Entity
+@Table(name = "chain_balance_discrepancies")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChainBalanceDiscrepancy {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "run_id", nullable = false)
+    private UUID runId;
+
+    @Column(name = "account_id", nullable = false)
+    private UUID accountId;
+
+    @Column(name = "address", nullable = false, length = 128)
+    private String address;
+
+    @Column(name = "chain_balance", nullable = false, precision = 38, scale = 4)
+    private BigDecimal chainBalance;
+
+    @Column(name = "ledger_balance", nullable = false, precision = 38, scale = 4)
+    private BigDecimal ledgerBalance;
+
+    /**
+     * The chain balance minus the ledger balance.
+     */
+    @Column(name = "difference", nullable = false, precision = 38, scale = 4)
+    private BigDecimal difference;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
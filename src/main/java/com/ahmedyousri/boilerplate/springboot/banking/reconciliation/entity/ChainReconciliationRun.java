@@ -0,0 +1,77 @@
+package com.ahmedyousri.boilerplate.springboot.banking.reconciliation.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing one sweep comparing the chain balances of all mapped addresses with the
+ * ledger balances of their accounts, both as of one block height.
+ */
+@Entity
+@Table(name = "chain_reconciliation_runs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChainReconciliationRun {
+
+    @Id
+    private UUID id;
+
+    /**
+     * The height the chain balances were read at.
+     */
+    @Column(name = "height", nullable = false)
+    private long height;
+
+    /**
+     * The time of the block at that height; ledger balances include entries up to this time.
+     */
+    @Column(name = "block_time", nullable = false)
+    private LocalDateTime blockTime;
+
+    @Column(name = "denom", nullable = false, length = 128)
+    private String denom;
+
+    /**
+     * Whether chain balances came from one paged holder listing rather than per-address queries.
+     */
+    @Column(name = "holder_snapshot", nullable = false)
+    private boolean holderSnapshot;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private ChainReconciliationStatus status;
+
+    @Column(name = "addresses_checked", nullable = false)
+    private long addressesChecked;
+
+    /**
+     * The number of addresses whose chain balance could not be read.
+     */
+    @Column(name = "addresses_unverified", nullable = false)
+    private long addressesUnverified;
+
+    @Column(name = "discrepancy_count", nullable = false)
+    private long discrepancyCount;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
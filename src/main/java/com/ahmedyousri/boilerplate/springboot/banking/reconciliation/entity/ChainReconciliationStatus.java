@@ -0,0 +1,10 @@
+package com.ahmedyousri.boilerplate.springboot.banking.reconciliation.entity;
+
+/**
+ * Status of a chain reconciliation run.
+ */
+public enum ChainReconciliationStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,28 @@
+package com.ahmedyousri.boilerplate.springboot.banking.reconciliation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The latest committed block of the chain.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChainHead {
+
+    /**
+     * The height of the block.
+     */
+    private long height;
+
+    /**
+     * The time of the block, in the local time zone of the ledger.
+     */
+    private LocalDateTime time;
+}
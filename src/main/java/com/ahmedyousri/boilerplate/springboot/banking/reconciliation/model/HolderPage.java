@@ -0,0 +1,29 @@
+package com.ahmedyousri.boilerplate.springboot.banking.reconciliation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * A page of the addresses holding a denomination, with their balances.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HolderPage {
+
+    /**
+     * The balances of the page, by address.
+     */
+    private Map<String, BigDecimal> balances;
+
+    /**
+     * The key of the next page, or null on the last page.
+     */
+    private String nextKey;
+}
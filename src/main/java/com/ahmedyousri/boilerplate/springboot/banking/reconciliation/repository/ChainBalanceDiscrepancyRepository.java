@@ -0,0 +1,23 @@
+package com.ahmedyousri.boilerplate.springboot.banking.reconciliation.repository;
+
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.entity.ChainBalanceDiscrepancy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for managing ChainBalanceDiscrepancy entities.
+ */
+@Repository
+public interface ChainBalanceDiscrepancyRepository extends JpaRepository<ChainBalanceDiscrepancy, UUID> {
+
+    /**
+     * Find the discrepancies found by a run.
+     *
+     * @param runId The run ID
+     * @return The discrepancies, largest first
+     */
+    List<ChainBalanceDiscrepancy> findByRunIdOrderByDifferenceDesc(UUID runId);
+}
@@ -0,0 +1,22 @@
+package com.ahmedyousri.boilerplate.springboot.banking.reconciliation.repository;
+
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.entity.ChainReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for managing ChainReconciliationRun entities.
+ */
+@Repository
+public interface ChainReconciliationRunRepository extends JpaRepository<ChainReconciliationRun, UUID> {
+
+    /**
+     * Find the most recently started run.
+     *
+     * @return Optional containing the run if any
+     */
+    Optional<ChainReconciliationRun> findFirstByOrderByStartedAtDesc();
+}
@@ -0,0 +1,359 @@
+package com.ahmedyousri.boilerplate.springboot.banking.reconciliation.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.repository.JournalEntryLineRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.entity.AccountAddress;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.repository.AccountAddressRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.service.AccountAddressRegistry;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.service.JobCoordinator;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.entity.ChainBalanceDiscrepancy;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.entity.ChainReconciliationRun;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.entity.ChainReconciliationStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.model.ChainHead;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.model.HolderPage;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.repository.ChainBalanceDiscrepancyRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.repository.ChainReconciliationRunRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.source.ChainBalanceSource;
+import com.ahmedyousri.boilerplate.springboot.banking.util.DaemonThreads;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reconciles the chain balances of all mapped addresses with the ledger.
+ *
+ * <p>A sweep pins one block height: every chain balance is read at that height, and the ledger
+ * balance of each account is summed from the journal entries dated up to the time of that
+ * block. Mapped addresses are walked in keyset-paginated batches, and the ledger balances of a
+ * batch come from one grouped query. Chain balances come from the paged holder listing when the
+ * node supports it, so a sweep needs about one request per batch of funded addresses; otherwise
+ * each address is queried on a pool of {@code blockchain.reconciliation.concurrency} threads.
+ * Balances are cached for the height they were read at, so a sweep at a height that has not
+ * moved on does not query the node again.</p>
+ *
+ * <p>Accounts whose balances differ are recorded as discrepancies of the run. Addresses whose
+ * balance could not be read are counted as unverified rather than reported. Scheduled sweeps run
+ * through the {@link JobCoordinator}, on one node of the cluster per interval.</p>
+ */
+@Service
+public class ChainReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChainReconciliationService.class);
+
+    private static final UUID NIL_ACCOUNT_ID = new UUID(0L, 0L);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private static final String SWEEP_JOB = "chain-reconciliation";
+
+    private final BlockchainConfig blockchainConfig;
+
+    private final ChainBalanceSource balanceSource;
+
+    private final AccountAddressRegistry accountAddressRegistry;
+
+    private final AccountAddressRepository accountAddressRepository;
+
+    private final JournalEntryLineRepository journalEntryLineRepository;
+
+    private final ChainReconciliationRunRepository runRepository;
+
+    private final ChainBalanceDiscrepancyRepository discrepancyRepository;
+
+    private final JobCoordinator jobCoordinator;
+
+    private final TaskScheduler taskScheduler;
+
+    private final ExecutorService queryExecutor;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile HeightCache cache = new HeightCache(-1, "");
+
+    private volatile boolean holdersUnsupported;
+
+    private ScheduledFuture<?> sweeps;
+
+    public ChainReconciliationService(BlockchainConfig blockchainConfig,
+                                      ChainBalanceSource balanceSource,
+                                      AccountAddressRegistry accountAddressRegistry,
+                                      AccountAddressRepository accountAddressRepository,
+                                      JournalEntryLineRepository journalEntryLineRepository,
+                                      ChainReconciliationRunRepository runRepository,
+                                      ChainBalanceDiscrepancyRepository discrepancyRepository,
+                                      JobCoordinator jobCoordinator,
+                                      TaskScheduler taskScheduler) {
+        this.blockchainConfig = blockchainConfig;
+        this.balanceSource = balanceSource;
+        this.accountAddressRegistry = accountAddressRegistry;
+        this.accountAddressRepository = accountAddressRepository;
+        this.journalEntryLineRepository = journalEntryLineRepository;
+        this.runRepository = runRepository;
+        this.discrepancyRepository = discrepancyRepository;
+        this.jobCoordinator = jobCoordinator;
+        this.taskScheduler = taskScheduler;
+        this.queryExecutor = Executors.newFixedThreadPool(
+                Math.max(1, blockchainConfig.getReconciliationConcurrency()), DaemonThreads.named("chain-reconciliation-query-"));
+    }
+
+    /**
+     * Start sweeping, if enabled and the mock chain is not in use.
+     */
+    @PostConstruct
+    public void start() {
+        if (!blockchainConfig.isReconciliationEnabled()) {
+            return;
+        }
+        if (blockchainConfig.isMockEnabled()) {
+            log.info("Chain reconciliation disabled while the mock blockchain is enabled");
+            return;
+        }
+
+        long intervalMs = Math.max(1, blockchainConfig.getReconciliationIntervalMs());
+        sweeps = taskScheduler.scheduleWithFixedDelay(() -> runSweep("sweep-" + System.currentTimeMillis() / intervalMs),
+                Instant.now().plusMillis(intervalMs), Duration.ofMillis(intervalMs));
+        log.info("Chain reconciliation started every {} ms", intervalMs);
+    }
+
+    /**
+     * Stop sweeping.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (sweeps != null) {
+            sweeps.cancel(true);
+        }
+        queryExecutor.shutdownNow();
+    }
+
+    /**
+     * Reconcile all mapped addresses as of the latest block.
+     *
+     * @return The run, completed or failed
+     * @throws BusinessRuleException If a sweep is already running
+     */
+    public ChainReconciliationRun reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            throw new BusinessRuleException("A chain reconciliation is already running", "RECONCILIATION_RUNNING");
+        }
+        try {
+            return sweep();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Get the most recently started run.
+     *
+     * @return The run, or empty if there has been none
+     */
+    public Optional<ChainReconciliationRun> getLatestRun() {
+        return runRepository.findFirstByOrderByStartedAtDesc();
+    }
+
+    /**
+     * Get the discrepancies found by a run.
+     *
+     * @param runId The run ID
+     * @return The discrepancies, largest first
+     */
+    public List<ChainBalanceDiscrepancy> getDiscrepancies(UUID runId) {
+        return discrepancyRepository.findByRunIdOrderByDifferenceDesc(runId);
+    }
+
+    /**
+     * Run a sweep on whichever node leases it first. A sweep records its run as it goes, so it
+     * runs outside a transaction.
+     */
+    private void runSweep(String runKey) {
+        try {
+            jobCoordinator.runOnceWithoutTransaction(SWEEP_JOB, runKey, this::reconcile);
+        } catch (Exception e) {
+            log.warn("Chain reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    private ChainReconciliationRun sweep() {
+        ChainHead head = balanceSource.getHead();
+        String denom = blockchainConfig.getSyncDenom();
+        ChainReconciliationRun run = runRepository.save(ChainReconciliationRun.builder()
+                .id(UUID.randomUUID())
+                .height(head.getHeight())
+                .blockTime(head.getTime())
+                .denom(denom)
+                .status(ChainReconciliationStatus.RUNNING)
+                .startedAt(LocalDateTime.now())
+                .build());
+
+        long start = System.currentTimeMillis();
+        try {
+            HeightCache balances = cacheFor(head.getHeight(), denom);
+            run.setHolderSnapshot(loadHolders(balances));
+
+            int batchSize = Math.max(1, blockchainConfig.getReconciliationBatchSize());
+            UUID after = NIL_ACCOUNT_ID;
+            List<AccountAddress> batch;
+            do {
+                batch = accountAddressRepository.findBatchAfter(after, PageRequest.of(0, batchSize));
+                if (!batch.isEmpty()) {
+                    reconcileBatch(run, head, balances, batch);
+                    after = batch.get(batch.size() - 1).getAccountId();
+                }
+            } while (batch.size() == batchSize);
+
+            run.setStatus(ChainReconciliationStatus.COMPLETED);
+            log.info("Chain reconciliation at height {} checked {} addresses in {} ms: {} discrepancies, {} unverified",
+                    run.getHeight(), run.getAddressesChecked(), System.currentTimeMillis() - start,
+                    run.getDiscrepancyCount(), run.getAddressesUnverified());
+        } catch (Exception e) {
+            run.setStatus(ChainReconciliationStatus.FAILED);
+            String message = String.valueOf(e.getMessage());
+            run.setErrorMessage(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+            log.warn("Chain reconciliation at height {} failed after {} addresses: {}",
+                    run.getHeight(), run.getAddressesChecked(), e.getMessage());
+        }
+
+        run.setFinishedAt(LocalDateTime.now());
+        return runRepository.save(run);
+    }
+
+    private HeightCache cacheFor(long height, String denom) {
+        HeightCache current = cache;
+        if (current.height != height || !current.denom.equals(denom)) {
+            current = new HeightCache(height, denom);
+            cache = current;
+        }
+        return current;
+    }
+
+    /**
+     * Read the balances of all holders of the denomination, if the node can list them.
+     *
+     * @return True if the cache now holds every funded mapped address, so absent addresses hold nothing
+     */
+    private boolean loadHolders(HeightCache balances) {
+        if (balances.holdersLoaded) {
+            return true;
+        }
+        if (holdersUnsupported) {
+            return false;
+        }
+
+        String pageKey = null;
+        do {
+            HolderPage page = balanceSource.getHolders(balances.denom, balances.height, pageKey,
+                    Math.max(1, blockchainConfig.getReconciliationBatchSize()));
+            if (page == null) {
+                holdersUnsupported = true;
+                log.info("The node cannot list holders of {}, querying addresses one by one", balances.denom);
+                return false;
+            }
+            page.getBalances().forEach((address, amount) -> accountAddressRegistry.findAccountId(address)
+                    .ifPresent(accountId -> balances.balances.put(accountId, amount)));
+            pageKey = page.getNextKey();
+        } while (pageKey != null);
+
+        balances.holdersLoaded = true;
+        return true;
+    }
+
+    private void reconcileBatch(ChainReconciliationRun run, ChainHead head, HeightCache balances, List<AccountAddress> batch) {
+        if (!balances.holdersLoaded) {
+            List<CompletableFuture<Void>> queries = new ArrayList<>();
+            for (AccountAddress mapping : batch) {
+                if (!balances.balances.containsKey(mapping.getAccountId())) {
+                    queries.add(CompletableFuture
+                            .supplyAsync(() -> balanceSource.getBalance(mapping.getAddress(), balances.denom, balances.height), queryExecutor)
+                            .thenAccept(amount -> balances.balances.put(mapping.getAccountId(), amount))
+                            .exceptionally(e -> {
+                                log.debug("Could not read the balance of {}: {}", mapping.getAddress(), e.getMessage());
+                                return null;
+                            }));
+                }
+            }
+            CompletableFuture.allOf(queries.toArray(new CompletableFuture[0])).join();
+        }
+
+        List<UUID> accountIds = new ArrayList<>(batch.size());
+        batch.forEach(mapping -> accountIds.add(mapping.getAccountId()));
+        Map<UUID, BigDecimal> ledgerBalances = new HashMap<>();
+        for (Object[] row : journalEntryLineRepository.sumBalancesAsOf(accountIds, head.getTime())) {
+            ledgerBalances.put((UUID) row[0], (BigDecimal) row[1]);
+        }
+
+        List<ChainBalanceDiscrepancy> discrepancies = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (AccountAddress mapping : batch) {
+            BigDecimal chainBalance = balances.balances.get(mapping.getAccountId());
+            if (chainBalance == null) {
+                if (!balances.holdersLoaded) {
+                    run.setAddressesUnverified(run.getAddressesUnverified() + 1);
+                    continue;
+                }
+                chainBalance = BigDecimal.ZERO;
+            }
+            run.setAddressesChecked(run.getAddressesChecked() + 1);
+
+            BigDecimal ledgerBalance = ledgerBalances.getOrDefault(mapping.getAccountId(), BigDecimal.ZERO);
+            if (chainBalance.compareTo(ledgerBalance) != 0) {
+                discrepancies.add(ChainBalanceDiscrepancy.builder()
+                        .id(UUID.randomUUID())
+                        .runId(run.getId())
+                        .accountId(mapping.getAccountId())
+                        .address(mapping.getAddress())
+                        .chainBalance(chainBalance)
+                        .ledgerBalance(ledgerBalance)
+                        .difference(chainBalance.subtract(ledgerBalance))
+                        .createdAt(now)
+                        .build());
+            }
+        }
+
+        if (!discrepancies.isEmpty()) {
+            discrepancyRepository.saveAll(discrepancies);
+            run.setDiscrepancyCount(run.getDiscrepancyCount() + discrepancies.size());
+        }
+    }
+
+    /**
+     * Chain balances read at one height, by account.
+     */
+    private static final class HeightCache {
+
+        private final long height;
+
+        private final String denom;
+
+        private final Map<UUID, BigDecimal> balances = new ConcurrentHashMap<>();
+
+        private volatile boolean holdersLoaded;
+
+        private HeightCache(long height, String denom) {
+            this.height = height;
+            this.denom = denom;
+        }
+    }
+}
@@ -3,8 +3,13 @@ package com.ahmedyousri.boilerplate.springboot.banking.reconciliation.service;
 import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
 import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
 import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.config.ClusterConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.model.Shard;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.service.JobCoordinator;
 import com.ahmedyousri.boilerplate.springboot.banking.exception.ResourceNotFoundException;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.repository.ChainReconciliationRunRepository;
 import com.ahmedyousri.boilerplate.springboot.banking.transaction.repository.TransactionRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.service.TransferNetting;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +18,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -26,10 +33,16 @@ import java.util.UUID;
 public class ReconciliationService {
 
     private static final Logger log = LoggerFactory.getLogger(ReconciliationService.class);
+    
+    private static final String RECONCILIATION_JOB = "account-reconciliation";
 
     private final AccountRepository accountRepository;
     private final AccountingService accountingService;
     private final TransactionRepository transactionRepository;
+    private final ChainReconciliationRunRepository chainReconciliationRunRepository;
+    private final JobCoordinator jobCoordinator;
+    private final ClusterConfig clusterConfig;
+    private final TransferNetting transferNetting;
     
     /**
      * Validates that an account's balance matches the calculated balance from journals.
@@ -44,7 +57,7 @@ public class ReconciliationService {
             .orElseThrow(() -> new ResourceNotFoundException("Account", "id", accountId));
         
         // Get balance from accounting system
-        BigDecimal accountingBalance = accountingService.getAccountBalanceFromJournalEntries(account);
+        BigDecimal accountingBalance = getAccountingBalance(account);
         
         // Compare with current balance
         boolean isBalanced = account.getCurrentBalance().compareTo(accountingBalance) == 0;
@@ -59,14 +72,25 @@ public class ReconciliationService {
     
     /**
      * Reconciles all accounts to ensure balance consistency.
-     * This method is scheduled to run hourly.
+     * This method is scheduled to run hourly; the accounts are split into shards across the nodes of the cluster.
      */
     @Scheduled(cron = "0 0 * * * *") // Run hourly
-    @Transactional(readOnly = true)
     public void reconcileAllAccounts() {
         log.info("Starting scheduled account reconciliation");
         
-        List<Account> accounts = accountRepository.findAll();
+        String runKey = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).toString();
+        jobCoordinator.run(RECONCILIATION_JOB, runKey, clusterConfig.getShards(), this::reconcileAccounts);
+    }
+    
+    /**
+     * Reconciles the accounts of a shard to ensure balance consistency.
+     * 
+     * @param shard The shard of accounts
+     * @return The number of accounts with balance inconsistencies
+     */
+    @Transactional(readOnly = true)
+    public int reconcileAccounts(Shard shard) {
+        List<Account> accounts = accountRepository.findByIdBetween(shard.getFirstId(), shard.getLastId());
         List<Account> inconsistentAccounts = new ArrayList<>();
         
         for (Account account : accounts) {
@@ -77,12 +101,15 @@ public class ReconciliationService {
         }
         
         if (!inconsistentAccounts.isEmpty()) {
-            log.error("Found {} accounts with balance inconsistencies", inconsistentAccounts.size());
+            log.error("Found {} accounts with balance inconsistencies in shard {} of {}", 
+                    inconsistentAccounts.size(), shard.getIndex(), shard.getCount());
             // In a real system, this would trigger alerts to system administrators
             // and possibly initiate an automated correction process
         } else {
-            log.info("Account reconciliation completed successfully. All {} accounts are balanced.", accounts.size());
+            log.info("Account reconciliation completed successfully. All {} accounts in shard {} of {} are balanced.", 
+                    accounts.size(), shard.getIndex(), shard.getCount());
         }
+        return inconsistentAccounts.size();
     }
     
     /**
@@ -97,7 +124,7 @@ public class ReconciliationService {
         Account account = accountRepository.findById(accountId)
             .orElseThrow(() -> new ResourceNotFoundException("Account", "id", accountId));
         
-        BigDecimal accountingBalance = accountingService.getAccountBalanceFromJournalEntries(account);
+        BigDecimal accountingBalance = getAccountingBalance(account);
         BigDecimal currentBalance = account.getCurrentBalance();
         
         StringBuilder report = new StringBuilder();
@@ -148,7 +175,7 @@ public class ReconciliationService {
         if (!inconsistentAccounts.isEmpty()) {
             report.append("\nAccounts with Discrepancies:\n");
             for (Account account : inconsistentAccounts) {
-                BigDecimal accountingBalance = accountingService.getAccountBalanceFromJournalEntries(account);
+                BigDecimal accountingBalance = getAccountingBalance(account);
                 BigDecimal currentBalance = account.getCurrentBalance();
                 BigDecimal discrepancy = currentBalance.subtract(accountingBalance);
                 
@@ -166,6 +193,27 @@ public class ReconciliationService {
             log.info("Reconciliation completed successfully. All {} accounts are balanced.", accounts.size());
         }
         
+        // The chain side is reconciled by ChainReconciliationService; report its latest run
+        chainReconciliationRunRepository.findFirstByOrderByStartedAtDesc().ifPresent(run -> report
+                .append("\nChain Reconciliation at Height ").append(run.getHeight())
+                .append(": ").append(run.getStatus())
+                .append(", Addresses Checked: ").append(run.getAddressesChecked())
+                .append(", Unverified: ").append(run.getAddressesUnverified())
+                .append(", Discrepancies: ").append(run.getDiscrepancyCount())
+                .append("\n"));
+        
         return report.toString();
     }
+    
+    /**
+     * Get the balance of an account from its journal entries, including the netted transfers
+     * moved in its balance but not yet journaled.
+     * 
+     * @param account The account
+     * @return The accounting balance
+     */
+    private BigDecimal getAccountingBalance(Account account) {
+        return accountingService.getAccountBalanceFromJournalEntries(account)
+                .add(transferNetting.getOpenPosition(account.getId()));
+    }
 }
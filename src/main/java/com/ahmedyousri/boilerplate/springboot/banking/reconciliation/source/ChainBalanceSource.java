@@ -0,0 +1,41 @@
+package com.ahmedyousri.boilerplate.springboot.banking.reconciliation.source;
+
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.model.ChainHead;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.model.HolderPage;
+
+import java.math.BigDecimal;
+
+/**
+ * Source of chain balances as of a given block height.
+ */
+public interface ChainBalanceSource {
+
+    /**
+     * Get the latest committed block.
+     *
+     * @return The height and time of the block
+     */
+    ChainHead getHead();
+
+    /**
+     * Get a page of the addresses holding a denomination at a height. This lets a sweep read the
+     * balances of many addresses per request.
+     *
+     * @param denom   The denomination
+     * @param height  The height
+     * @param pageKey The key returned with the previous page, or null for the first page
+     * @param limit   The maximum number of holders in the page
+     * @return The page, or null if the node does not support listing holders
+     */
+    HolderPage getHolders(String denom, long height, String pageKey, int limit);
+
+    /**
+     * Get the balance of one address at a height.
+     *
+     * @param address The address
+     * @param denom   The denomination
+     * @param height  The height
+     * @return The balance, zero if the address holds none
+     */
+    BigDecimal getBalance(String address, String denom, long height);
+}
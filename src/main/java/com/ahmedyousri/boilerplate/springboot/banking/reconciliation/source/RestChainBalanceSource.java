@@ -0,0 +1,123 @@
+package com.ahmedyousri.boilerplate.springboot.banking.reconciliation.source;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.resilience.ChainEndpoint;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.resilience.ChainEndpoints;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.model.ChainHead;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.model.HolderPage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads balances from the Cosmos REST gateway. Queries are pinned to a height with the
+ * {@value #HEIGHT_HEADER} header, so every balance of a sweep reflects the same block. Holders
+ * are listed with the bank module's denom owners query, which returns up to a page of
+ * balances per request.
+ */
+@Component
+public class RestChainBalanceSource implements ChainBalanceSource {
+
+    /**
+     * The header that selects the height a gateway query is answered at.
+     */
+    static final String HEIGHT_HEADER = "x-cosmos-block-height";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final BlockchainConfig blockchainConfig;
+
+    private final RestTemplate restTemplate;
+
+    private final ChainEndpoint endpoint;
+
+    public RestChainBalanceSource(BlockchainConfig blockchainConfig, RestTemplate restTemplate, ChainEndpoints chainEndpoints) {
+        this.blockchainConfig = blockchainConfig;
+        this.restTemplate = restTemplate;
+        this.endpoint = chainEndpoints.getRest();
+    }
+
+    @Override
+    public ChainHead getHead() {
+        String url = blockchainConfig.getCosmosRestEndpoint() + "/cosmos/base/tendermint/v1beta1/blocks/latest";
+        JsonNode header = read(endpoint.read(() -> restTemplate.getForObject(url, String.class))).path("block").path("header");
+        return ChainHead.builder()
+                .height(header.path("height").asLong())
+                .time(OffsetDateTime.parse(header.path("time").asText())
+                        .atZoneSameInstant(ZoneId.systemDefault())
+                        .toLocalDateTime())
+                .build();
+    }
+
+    @Override
+    public HolderPage getHolders(String denom, long height, String pageKey, int limit) {
+        StringBuilder url = new StringBuilder(blockchainConfig.getCosmosRestEndpoint())
+                .append("/cosmos/bank/v1beta1/denom_owners/").append(encode(denom))
+                .append("?pagination.limit=").append(limit);
+        if (pageKey != null) {
+            url.append("&pagination.key=").append(encode(pageKey));
+        }
+
+        JsonNode response;
+        try {
+            response = read(get(URI.create(url.toString()), height));
+        } catch (HttpStatusCodeException e) {
+            if (e.getStatusCode().value() == HttpStatus.NOT_FOUND.value()
+                    || e.getStatusCode().value() == HttpStatus.NOT_IMPLEMENTED.value()) {
+                return null;
+            }
+            throw e;
+        }
+
+        Map<String, BigDecimal> balances = new LinkedHashMap<>();
+        for (JsonNode owner : response.path("denom_owners")) {
+            balances.put(owner.path("address").asText(), new BigDecimal(owner.path("balance").path("amount").asText("0")));
+        }
+        String nextKey = response.path("pagination").path("next_key").asText(null);
+        return HolderPage.builder()
+                .balances(balances)
+                .nextKey(nextKey == null || nextKey.isEmpty() ? null : nextKey)
+                .build();
+    }
+
+    @Override
+    public BigDecimal getBalance(String address, String denom, long height) {
+        URI uri = URI.create(blockchainConfig.getCosmosRestEndpoint() + "/cosmos/bank/v1beta1/balances/"
+                + encode(address) + "/by_denom?denom=" + encode(denom));
+        return new BigDecimal(read(get(uri, height)).path("balance").path("amount").asText("0"));
+    }
+
+    private String get(URI uri, long height) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HEIGHT_HEADER, Long.toString(height));
+        HttpEntity<Void> request = new HttpEntity<>(headers);
+        return endpoint.read(() -> restTemplate.exchange(uri, HttpMethod.GET, request, String.class).getBody());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static JsonNode read(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("Invalid response from Cosmos REST gateway", e);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
 import com.ahmedyousri.boilerplate.springboot.banking.customer.repository.CustomerRepository;
 import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
 import com.ahmedyousri.boilerplate.springboot.banking.exception.ResourceNotFoundException;
+import com.ahmedyousri.boilerplate.springboot.banking.security.velocity.service.VelocityLimiter;
 import com.ahmedyousri.boilerplate.springboot.model.User;
 import com.ahmedyousri.boilerplate.springboot.model.UserRole;
 import com.ahmedyousri.boilerplate.springboot.repository.UserRepository;
@@ -20,11 +21,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for security-related operations.
@@ -40,6 +37,7 @@ public class SecurityService {
     private final CustomerRepository customerRepository;
     private final AccountRepository accountRepository;
     private final AuditService auditService;
+    private final VelocityLimiter velocityLimiter;
     
     @Value("${app.security.transaction.daily-limit:10000}")
     private BigDecimal defaultDailyTransactionLimit;
@@ -47,12 +45,6 @@ public class SecurityService {
     @Value("${app.security.transaction.monthly-limit:50000}")
     private BigDecimal defaultMonthlyTransactionLimit;
     
-    // Cache for daily transaction amounts
-    private final Map<String, Map<String, BigDecimal>> dailyTransactionAmounts = new ConcurrentHashMap<>();
-    
-    // Cache for monthly transaction amounts
-    private final Map<String, Map<String, BigDecimal>> monthlyTransactionAmounts = new ConcurrentHashMap<>();
-    
     /**
      * Validate that the user has permission to perform an operation on an account.
      *
@@ -114,7 +106,9 @@ public class SecurityService {
     }
     
     /**
-     * Validate that a transaction does not exceed the user's transaction limits.
+     * Validate that a transaction does not exceed the user's transaction limits, and count it
+     * against them if it does not. The limits are over windows that slide with the clock rather
+     * than calendar days and months.
      *
      * @param username      The username of the user
      * @param amount        The amount of the transaction
@@ -135,20 +129,11 @@ public class SecurityService {
         BigDecimal dailyLimit = getDailyTransactionLimit(user);
         BigDecimal monthlyLimit = getMonthlyTransactionLimit(user);
         
-        // Get the current date
-        String today = LocalDateTime.now().toLocalDate().toString();
-        String month = LocalDateTime.now().toLocalDate().toString().substring(0, 7);
-        
-        // Get the user's daily transaction amount
-        Map<String, BigDecimal> userDailyAmounts = dailyTransactionAmounts.computeIfAbsent(username, k -> new HashMap<>());
-        BigDecimal dailyAmount = userDailyAmounts.getOrDefault(today, BigDecimal.ZERO);
-        
-        // Get the user's monthly transaction amount
-        Map<String, BigDecimal> userMonthlyAmounts = monthlyTransactionAmounts.computeIfAbsent(username, k -> new HashMap<>());
-        BigDecimal monthlyAmount = userMonthlyAmounts.getOrDefault(month, BigDecimal.ZERO);
+        // Count the transaction against the limits
+        VelocityLimiter.Outcome outcome = velocityLimiter.tryAcquire(username, amount, dailyLimit, monthlyLimit);
         
         // Check if the transaction would exceed the daily limit
-        if (dailyAmount.add(amount).compareTo(dailyLimit) > 0) {
+        if (outcome == VelocityLimiter.Outcome.DAILY_LIMIT_EXCEEDED) {
             log.warn("Transaction would exceed daily limit for user {}", username);
             
             // Log the security violation
@@ -168,7 +153,7 @@ public class SecurityService {
         }
         
         // Check if the transaction would exceed the monthly limit
-        if (monthlyAmount.add(amount).compareTo(monthlyLimit) > 0) {
+        if (outcome == VelocityLimiter.Outcome.MONTHLY_LIMIT_EXCEEDED) {
             log.warn("Transaction would exceed monthly limit for user {}", username);
             
             // Log the security violation
@@ -187,12 +172,6 @@ public class SecurityService {
             );
         }
         
-        // Update the user's daily transaction amount
-        userDailyAmounts.put(today, dailyAmount.add(amount));
-        
-        // Update the user's monthly transaction amount
-        userMonthlyAmounts.put(month, monthlyAmount.add(amount));
-        
         log.debug("Transaction limits validated successfully for user {}", username);
     }
     
@@ -245,22 +224,4 @@ public class SecurityService {
         // For simplicity, we'll just return the default limit
         return defaultMonthlyTransactionLimit;
     }
-    
-    /**
-     * Reset the daily transaction amounts.
-     * This method should be called at the end of each day.
-     */
-    public void resetDailyTransactionAmounts() {
-        log.info("Resetting daily transaction amounts");
-        dailyTransactionAmounts.clear();
-    }
-    
-    /**
-     * Reset the monthly transaction amounts.
-     * This method should be called at the end of each month.
-     */
-    public void resetMonthlyTransactionAmounts() {
-        log.info("Resetting monthly transaction amounts");
-        monthlyTransactionAmounts.clear();
-    }
 }
@@ -0,0 +1,64 @@
+package com.ahmedyousri.boilerplate.springboot.banking.security.velocity.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the velocity limits on the amounts users transact.
+ */
+@Configuration
+@Getter
+public class VelocityLimitConfig {
+
+    /**
+     * The length of the window of the daily limit; it slides with the clock.
+     */
+    @Value("${app.security.velocity.daily.window.ms:86400000}")
+    private long dailyWindowMs;
+
+    /**
+     * How many buckets the daily window is divided into; amounts leave the window a bucket at a time.
+     */
+    @Value("${app.security.velocity.daily.buckets:96}")
+    private int dailyBuckets;
+
+    @Value("${app.security.velocity.monthly.window.ms:2592000000}")
+    private long monthlyWindowMs;
+
+    @Value("${app.security.velocity.monthly.buckets:30}")
+    private int monthlyBuckets;
+
+    /**
+     * How long the counters of a user are kept after their last transaction. Anything shorter than
+     * the monthly window lets a user start the month over by pausing.
+     */
+    @Value("${app.security.velocity.idle.ttl.ms:2592000000}")
+    private long idleTtlMs;
+
+    /**
+     * How often the counters of idle users are evicted.
+     */
+    @Value("${app.security.velocity.sweep.interval.ms:60000}")
+    private long sweepIntervalMs;
+
+    /**
+     * Whether the counters are shared with the other nodes through the database, so a user cannot
+     * spend the limit once on every node.
+     */
+    @Value("${app.security.velocity.sync.enabled:false}")
+    private boolean syncEnabled;
+
+    /**
+     * How often the counters of this node are written to the database and those of the other
+     * nodes read back; a user can exceed a limit by what they spend on other nodes in this time.
+     */
+    @Value("${app.security.velocity.sync.interval.ms:1000}")
+    private long syncIntervalMs;
+
+    /**
+     * How many counter rows are written, or users read, in one statement.
+     */
+    @Value("${app.security.velocity.sync.batch.size:500}")
+    private int syncBatchSize;
+}
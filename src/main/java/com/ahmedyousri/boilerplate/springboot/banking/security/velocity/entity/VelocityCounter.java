@@ -0,0 +1,82 @@
+package com.ahmedyousri.boilerplate.springboot.banking.security.velocity.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity for the amount a user transacted on one node in one bucket of a velocity window.
+ *
+ * <p>Each node writes only its own rows, with the absolute amount of the bucket, so nodes never
+ * update the same row and a row written twice holds the same amount. The ID is derived from the
+ * node, user, window and bucket, so a node can update its rows without reading them first. Rows
+ * are kept until their bucket leaves the window, whatever happens to the node that wrote them,
+ * so a node that restarts still counts what it accepted before.</p>
+ */
+@Entity
+@Table(name = "velocity_counters")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VelocityCounter {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private String nodeId;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "window_name", nullable = false)
+    private Window window;
+
+    /**
+     * The bucket, as the number of bucket lengths since the epoch.
+     */
+    @Column(nullable = false)
+    private long bucketEpoch;
+
+    /**
+     * The amount in ten-thousandths of the currency unit.
+     */
+    @Column(nullable = false)
+    private long amount;
+
+    /**
+     * When the bucket leaves the window, after which the row is deleted.
+     */
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Get the ID of the row of a node, user, window and bucket.
+     *
+     * @param nodeId      The node ID
+     * @param username    The username
+     * @param window      The window
+     * @param bucketEpoch The bucket
+     * @return The row ID
+     */
+    public static UUID idFor(String nodeId, String username, Window window, long bucketEpoch) {
+        return UUID.nameUUIDFromBytes((nodeId + "|" + username + "|" + window + "|" + bucketEpoch)
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    public enum Window {
+        DAILY,
+        MONTHLY
+    }
+}
@@ -0,0 +1,114 @@
+package com.ahmedyousri.boilerplate.springboot.banking.security.velocity.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.security.velocity.entity.VelocityCounter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Velocity counters in the database, shared by the nodes of the cluster.
+ *
+ * <p>Counters are written and read with JDBC batches rather than through the entity manager, so
+ * a sync costs a few round trips to the database whatever the number of users.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class VelocityCounterStore {
+
+    private static final String UPDATE_COUNTER = "UPDATE velocity_counters SET amount = ?, updated_at = ? WHERE id = ?";
+
+    private static final String INSERT_COUNTER = "INSERT INTO velocity_counters (id, node_id, username, window_name, "
+            + "bucket_epoch, amount, expires_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_OTHER_NODES = "SELECT username, window_name, bucket_epoch, SUM(amount) "
+            + "FROM velocity_counters WHERE node_id <> ? AND expires_at > ? AND username IN (%s) "
+            + "GROUP BY username, window_name, bucket_epoch";
+
+    private static final String DELETE_EXPIRED = "DELETE FROM velocity_counters WHERE expires_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Write the counters of this node, updating the rows already written and inserting the rest,
+     * in a transaction of their own.
+     *
+     * @param counters The counters
+     */
+    public void write(List<VelocityCounter> counters) {
+        if (counters.isEmpty()) {
+            return;
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            int[][] updated = jdbcTemplate.batchUpdate(UPDATE_COUNTER, counters, counters.size(), (statement, counter) -> {
+                statement.setLong(1, counter.getAmount());
+                statement.setTimestamp(2, Timestamp.valueOf(counter.getUpdatedAt()));
+                statement.setObject(3, counter.getId());
+            });
+            List<VelocityCounter> missing = new ArrayList<>();
+            for (int i = 0; i < counters.size(); i++) {
+                // Drivers that cannot count the rows of a batch statement report SUCCESS_NO_INFO (-2)
+                if (updated[0][i] == 0) {
+                    missing.add(counters.get(i));
+                }
+            }
+            if (!missing.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_COUNTER, missing, missing.size(), (statement, counter) -> {
+                    statement.setObject(1, counter.getId());
+                    statement.setString(2, counter.getNodeId());
+                    statement.setString(3, counter.getUsername());
+                    statement.setString(4, counter.getWindow().name());
+                    statement.setLong(5, counter.getBucketEpoch());
+                    statement.setLong(6, counter.getAmount());
+                    statement.setTimestamp(7, Timestamp.valueOf(counter.getExpiresAt()));
+                    statement.setTimestamp(8, Timestamp.valueOf(counter.getUpdatedAt()));
+                });
+            }
+        });
+    }
+
+    /**
+     * Read what users transacted on the other nodes, summed over the nodes for each bucket.
+     *
+     * @param nodeId    The ID of this node
+     * @param usernames The usernames
+     * @param now       The current time; buckets that have left their window are not read
+     * @return A counter for each user, window and bucket, without node ID
+     */
+    public List<VelocityCounter> readOtherNodes(String nodeId, Collection<String> usernames, LocalDateTime now) {
+        if (usernames.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> args = new ArrayList<>(usernames.size() + 2);
+        args.add(nodeId);
+        args.add(Timestamp.valueOf(now));
+        args.addAll(usernames);
+        String sql = String.format(SELECT_OTHER_NODES, String.join(", ", Collections.nCopies(usernames.size(), "?")));
+        return jdbcTemplate.query(sql, (row, rowNum) -> VelocityCounter.builder()
+                .username(row.getString(1))
+                .window(VelocityCounter.Window.valueOf(row.getString(2)))
+                .bucketEpoch(row.getLong(3))
+                .amount(row.getLong(4))
+                .build(), args.toArray());
+    }
+
+    /**
+     * Delete the counters of buckets that have left their window, whichever node wrote them.
+     *
+     * @param now The current time
+     * @return The number of counters deleted
+     */
+    public int deleteExpired(LocalDateTime now) {
+        return jdbcTemplate.update(DELETE_EXPIRED, Timestamp.valueOf(now));
+    }
+}
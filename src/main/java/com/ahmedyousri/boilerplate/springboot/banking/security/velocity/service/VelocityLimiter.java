@@ -0,0 +1,338 @@
+package com.ahmedyousri.boilerplate.springboot.banking.security.velocity.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.service.ClusterMembership;
+import com.ahmedyousri.boilerplate.springboot.banking.security.velocity.config.VelocityLimitConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.security.velocity.entity.VelocityCounter;
+import com.ahmedyousri.boilerplate.springboot.banking.util.SlidingWindowCounter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Velocity limits on the amounts users transact, over daily and monthly windows that slide with
+ * the clock.
+ *
+ * <p>Each user has a {@link SlidingWindowCounter} per window, in ten-thousandths of the currency
+ * unit. A check adds the amount to both windows and then reads their sums, taking the amount back
+ * if either is over its limit, so concurrent checks for the same user take no lock and can never
+ * accept more than the limit between them; at worst one of them is refused when, in order, it
+ * would have fit. The counters of a user are evicted once the user has not transacted for
+ * {@code app.security.velocity.idle.ttl.ms}.</p>
+ *
+ * <p>With {@code app.security.velocity.sync.enabled}, every {@code app.security.velocity.sync.interval.ms}
+ * the counters of the users checked on this node are written to the database and what they
+ * transacted on the other nodes is read back into the counters. A user checked here after a
+ * pause longer than two intervals has the other nodes read first. If the database cannot be
+ * reached, checks carry on with the counters of this node.</p>
+ */
+@Service
+public class VelocityLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(VelocityLimiter.class);
+
+    private static final int SCALE = 4;
+
+    private final VelocityLimitConfig config;
+
+    private final VelocityCounterStore store;
+
+    private final ClusterMembership clusterMembership;
+
+    private final TaskScheduler taskScheduler;
+
+    /**
+     * Read once, as checks are on the path of every transaction.
+     */
+    private final boolean syncEnabled;
+
+    private final long syncIntervalMs;
+
+    private final Map<String, UserCounters> users = new ConcurrentHashMap<>();
+
+    /**
+     * The users checked since the last sync.
+     */
+    private final Set<String> checked = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Held by a sync, so the last one at shutdown does not write the same rows as one in progress.
+     */
+    private final Object syncLock = new Object();
+
+    private ScheduledFuture<?> sweeps;
+
+    private ScheduledFuture<?> syncs;
+
+    public VelocityLimiter(VelocityLimitConfig config, VelocityCounterStore store, ClusterMembership clusterMembership,
+                           TaskScheduler taskScheduler) {
+        this.config = config;
+        this.store = store;
+        this.clusterMembership = clusterMembership;
+        this.taskScheduler = taskScheduler;
+        this.syncEnabled = config.isSyncEnabled();
+        this.syncIntervalMs = config.getSyncIntervalMs();
+    }
+
+    /**
+     * Start evicting idle users and, if enabled, syncing with the other nodes.
+     */
+    @PostConstruct
+    public void start() {
+        sweeps = taskScheduler.scheduleWithFixedDelay(this::runSweep,
+                Instant.now().plusMillis(config.getSweepIntervalMs()), Duration.ofMillis(config.getSweepIntervalMs()));
+        if (syncEnabled) {
+            syncs = taskScheduler.scheduleWithFixedDelay(this::runSync,
+                    Instant.now().plusMillis(syncIntervalMs), Duration.ofMillis(syncIntervalMs));
+        }
+    }
+
+    /**
+     * Stop, writing the counters of the users checked since the last sync.
+     */
+    @PreDestroy
+    public void stop() {
+        if (sweeps != null) {
+            sweeps.cancel(true);
+        }
+        if (syncs != null) {
+            // A sync in progress is let finish; the last one waits for it
+            syncs.cancel(false);
+        }
+        if (syncEnabled) {
+            runSync();
+        }
+    }
+
+    /**
+     * Count an amount against the limits of a user, unless it would take the user over either.
+     *
+     * @param username     The username
+     * @param amount       The amount
+     * @param dailyLimit   The limit over the daily window
+     * @param monthlyLimit The limit over the monthly window
+     * @return Whether the amount was counted, or the limit it would have exceeded
+     */
+    public Outcome tryAcquire(String username, BigDecimal amount, BigDecimal dailyLimit, BigDecimal monthlyLimit) {
+        return tryAcquire(username, toUnits(amount, RoundingMode.CEILING),
+                toUnits(dailyLimit, RoundingMode.FLOOR), toUnits(monthlyLimit, RoundingMode.FLOOR),
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Count an amount in ten-thousandths against the limits of a user at a time.
+     */
+    Outcome tryAcquire(String username, long amount, long dailyLimit, long monthlyLimit, long nowMs) {
+        while (true) {
+            UserCounters counters = users.computeIfAbsent(username, key -> new UserCounters());
+            if (syncEnabled && nowMs - counters.syncedAtMs > 2 * syncIntervalMs) {
+                syncUser(username, counters, nowMs);
+            }
+            counters.lastUsedMs = nowMs;
+            counters.daily.add(amount, nowMs);
+            counters.monthly.add(amount, nowMs);
+
+            Outcome outcome = Outcome.ACCEPTED;
+            if (counters.daily.sum(nowMs) > dailyLimit) {
+                outcome = Outcome.DAILY_LIMIT_EXCEEDED;
+            } else if (counters.monthly.sum(nowMs) > monthlyLimit) {
+                outcome = Outcome.MONTHLY_LIMIT_EXCEEDED;
+            }
+            if (outcome != Outcome.ACCEPTED) {
+                counters.daily.add(-amount, nowMs);
+                counters.monthly.add(-amount, nowMs);
+            }
+            if (users.get(username) != counters) {
+                // Evicted while idle just as the user came back; count against fresh counters
+                continue;
+            }
+            if (outcome == Outcome.ACCEPTED && syncEnabled) {
+                checked.add(username);
+            }
+            return outcome;
+        }
+    }
+
+    /**
+     * Evict the counters of the users that have not transacted since a time.
+     *
+     * @param nowMs The current time
+     * @return The number of users evicted
+     */
+    public int evictIdle(long nowMs) {
+        long idleSince = nowMs - config.getIdleTtlMs();
+        int evicted = 0;
+        for (Iterator<Map.Entry<String, UserCounters>> it = users.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, UserCounters> entry = it.next();
+            if (entry.getValue().lastUsedMs < idleSince && !checked.contains(entry.getKey())) {
+                it.remove();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Write the counters of the users checked since the last sync, and read back what they
+     * transacted on the other nodes.
+     *
+     * @param nowMs The current time
+     */
+    public void sync(long nowMs) {
+        List<String> usernames = new ArrayList<>(checked);
+        checked.removeAll(usernames);
+
+        String nodeId = clusterMembership.getNodeId();
+        LocalDateTime now = toLocalDateTime(nowMs);
+        List<VelocityCounter> rows = new ArrayList<>();
+        for (String username : usernames) {
+            UserCounters counters = users.get(username);
+            if (counters == null) {
+                continue;
+            }
+            addRows(rows, nodeId, username, VelocityCounter.Window.DAILY, counters.daily, config.getDailyWindowMs(), nowMs, now);
+            addRows(rows, nodeId, username, VelocityCounter.Window.MONTHLY, counters.monthly, config.getMonthlyWindowMs(), nowMs, now);
+            if (rows.size() >= config.getSyncBatchSize()) {
+                store.write(rows);
+                rows.clear();
+            }
+        }
+        store.write(rows);
+
+        for (int from = 0; from < usernames.size(); from += config.getSyncBatchSize()) {
+            readOtherNodes(usernames.subList(from, Math.min(usernames.size(), from + config.getSyncBatchSize())), nowMs);
+        }
+    }
+
+    /**
+     * Get the number of users with counters held here.
+     *
+     * @return The number of users
+     */
+    public int size() {
+        return users.size();
+    }
+
+    private void syncUser(String username, UserCounters counters, long nowMs) {
+        try {
+            readOtherNodes(List.of(username), nowMs);
+        } catch (DataAccessException e) {
+            log.warn("Could not read the velocity counters of {} on other nodes: {}", username, e.getMessage());
+        }
+        counters.syncedAtMs = nowMs;
+    }
+
+    private void readOtherNodes(List<String> usernames, long nowMs) {
+        List<VelocityCounter> rows = store.readOtherNodes(clusterMembership.getNodeId(), usernames, toLocalDateTime(nowMs));
+        for (VelocityCounter row : rows) {
+            UserCounters counters = users.get(row.getUsername());
+            if (counters == null) {
+                continue;
+            }
+            SlidingWindowCounter counter = row.getWindow() == VelocityCounter.Window.DAILY ? counters.daily : counters.monthly;
+            counter.setRemote(row.getBucketEpoch(), row.getAmount(), nowMs);
+        }
+        for (String username : usernames) {
+            UserCounters counters = users.get(username);
+            if (counters != null) {
+                counters.syncedAtMs = nowMs;
+            }
+        }
+    }
+
+    private static void addRows(List<VelocityCounter> rows, String nodeId, String username, VelocityCounter.Window window,
+                                SlidingWindowCounter counter, long windowMs, long nowMs, LocalDateTime now) {
+        counter.forEachBucket(nowMs, (epoch, amount) -> {
+            // Buckets only read from other nodes have nothing to write
+            if (amount == 0) {
+                return;
+            }
+            rows.add(VelocityCounter.builder()
+                    .id(VelocityCounter.idFor(nodeId, username, window, epoch))
+                    .nodeId(nodeId)
+                    .username(username)
+                    .window(window)
+                    .bucketEpoch(epoch)
+                    .amount(amount)
+                    .expiresAt(toLocalDateTime((epoch + 1) * counter.getBucketMs() + windowMs))
+                    .updatedAt(now)
+                    .build());
+        });
+    }
+
+    private void runSweep() {
+        try {
+            long nowMs = System.currentTimeMillis();
+            int evicted = evictIdle(nowMs);
+            if (evicted > 0) {
+                log.debug("Evicted the velocity counters of {} idle users", evicted);
+            }
+            if (syncEnabled) {
+                store.deleteExpired(toLocalDateTime(nowMs));
+            }
+        } catch (RuntimeException e) {
+            log.error("Velocity counter sweep failed", e);
+        }
+    }
+
+    private void runSync() {
+        synchronized (syncLock) {
+            try {
+                sync(System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                log.warn("Velocity counter sync failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static long toUnits(BigDecimal amount, RoundingMode rounding) {
+        return amount.setScale(SCALE, rounding).unscaledValue().longValueExact();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneOffset.UTC);
+    }
+
+    /**
+     * The outcome of a check.
+     */
+    public enum Outcome {
+        ACCEPTED,
+        DAILY_LIMIT_EXCEEDED,
+        MONTHLY_LIMIT_EXCEEDED
+    }
+
+    /**
+     * The counters of a user.
+     */
+    private final class UserCounters {
+
+        private final SlidingWindowCounter daily = new SlidingWindowCounter(config.getDailyWindowMs(), config.getDailyBuckets());
+
+        private final SlidingWindowCounter monthly = new SlidingWindowCounter(config.getMonthlyWindowMs(), config.getMonthlyBuckets());
+
+        private volatile long lastUsedMs;
+
+        /**
+         * When what the user transacted on other nodes was last read; never to begin with.
+         */
+        private volatile long syncedAtMs = Long.MIN_VALUE / 2;
+    }
+}
@@ -1,6 +1,7 @@
 package com.ahmedyousri.boilerplate.springboot.banking.transaction.entity;
 
 import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -52,6 +53,15 @@ public class Transaction {
     @Column(nullable = false)
     private String referenceId;
     
+    private String blockchainTxHash;
+    
+    @Enumerated(EnumType.STRING)
+    private ChainStatus chainStatus;
+    
+    private Long blockHeight;
+    
+    private Integer confirmations;
+    
     @PrePersist
     protected void onCreate() {
         if (timestamp == null) {
@@ -1,14 +1,19 @@
 package com.ahmedyousri.boilerplate.springboot.banking.transaction.repository;
 
 import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
 import com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.Transaction;
 import com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.TransactionType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -104,6 +109,14 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
      */
     boolean existsByReferenceId(String referenceId);
     
+    /**
+     * Check if a transaction with any of the given reference IDs exists.
+     * 
+     * @param referenceIds The reference IDs
+     * @return True if a transaction with one of the reference IDs exists, false otherwise
+     */
+    boolean existsByReferenceIdIn(Collection<String> referenceIds);
+    
     /**
      * Check if a transaction with the given account, reference ID, and type exists.
      * 
@@ -113,4 +126,56 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
      * @return True if a transaction with the account, reference ID, and type exists, false otherwise
      */
     boolean existsByAccountAndReferenceIdAndType(Account account, String referenceId, TransactionType type);
+    
+    /**
+     * Record the on-chain state of the transactions settled by a blockchain transaction.
+     * 
+     * @param referenceId The reference ID of the transactions
+     * @param txHash The blockchain transaction hash
+     * @param chainStatus The on-chain state
+     * @param blockHeight The height of the including block, or null before inclusion
+     * @param confirmations The number of confirmations, or null before inclusion
+     * @return The number of transactions updated
+     */
+    @Modifying
+    @Query("UPDATE Transaction t SET t.blockchainTxHash = :txHash, t.chainStatus = :chainStatus, " +
+           "t.blockHeight = :blockHeight, t.confirmations = :confirmations WHERE t.referenceId = :referenceId")
+    int updateChainStatus(@Param("referenceId") String referenceId,
+                          @Param("txHash") String txHash,
+                          @Param("chainStatus") ChainStatus chainStatus,
+                          @Param("blockHeight") Long blockHeight,
+                          @Param("confirmations") Integer confirmations);
+    
+    /**
+     * Record the on-chain state of the transactions of several references settled by one
+     * blockchain transaction, such as the transfers of a netting settlement.
+     * 
+     * @param referenceIds The reference IDs of the transactions
+     * @param txHash The blockchain transaction hash
+     * @param chainStatus The on-chain state
+     * @return The number of transactions updated
+     */
+    @Modifying
+    @Query("UPDATE Transaction t SET t.blockchainTxHash = :txHash, t.chainStatus = :chainStatus " +
+           "WHERE t.referenceId IN :referenceIds")
+    int updateChainStatusByReferenceIds(@Param("referenceIds") Collection<String> referenceIds,
+                                        @Param("txHash") String txHash,
+                                        @Param("chainStatus") ChainStatus chainStatus);
+    
+    /**
+     * Record the on-chain state of the transactions already linked to a blockchain transaction.
+     * 
+     * @param txHash The blockchain transaction hash
+     * @param chainStatus The on-chain state
+     * @param blockHeight The height of the including block, or null before inclusion
+     * @param confirmations The number of confirmations, or null before inclusion
+     * @return The number of transactions updated
+     */
+    @Modifying
+    @Query("UPDATE Transaction t SET t.chainStatus = :chainStatus, t.blockHeight = :blockHeight, " +
+           "t.confirmations = :confirmations WHERE t.blockchainTxHash = :txHash")
+    int updateChainStatusByTxHash(@Param("txHash") String txHash,
+                                  @Param("chainStatus") ChainStatus chainStatus,
+                                  @Param("blockHeight") Long blockHeight,
+                                  @Param("confirmations") Integer confirmations);
 }
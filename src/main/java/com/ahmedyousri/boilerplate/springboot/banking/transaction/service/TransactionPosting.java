@@ -0,0 +1,39 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transaction.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.TransactionType;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * A transaction to be recorded as part of a batch.
+ */
+@Value
+public class TransactionPosting {
+
+    /**
+     * The account, with its balance after the transaction.
+     */
+    Account account;
+
+    /**
+     * The transaction type (DEBIT or CREDIT).
+     */
+    TransactionType type;
+
+    /**
+     * The transaction amount.
+     */
+    BigDecimal amount;
+
+    /**
+     * The transaction description.
+     */
+    String description;
+
+    /**
+     * The reference ID linking to the source operation.
+     */
+    String referenceId;
+}
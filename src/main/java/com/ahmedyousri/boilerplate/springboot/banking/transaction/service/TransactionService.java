@@ -29,6 +29,15 @@ public interface TransactionService {
     Transaction recordTransaction(Account account, TransactionType type, BigDecimal amount,
                                  String description, String referenceId);
     
+    /**
+     * Record the transactions of one operation together, such as both sides of a transfer,
+     * which share its reference ID. They are inserted in one batch.
+     * 
+     * @param postings The transactions to record
+     * @return The created transactions
+     */
+    List<Transaction> recordTransactions(List<TransactionPosting> postings);
+    
     /**
      * Get paginated transaction history for an account.
      * 
@@ -21,8 +21,11 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the TransactionService interface.
@@ -70,6 +73,41 @@ public class TransactionServiceImpl implements TransactionService {
         return savedTransaction;
     }
     
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Transaction> recordTransactions(List<TransactionPosting> postings) {
+        if (postings.isEmpty()) {
+            return List.of();
+        }
+        
+        Set<String> referenceIds = postings.stream().map(TransactionPosting::getReferenceId).collect(Collectors.toSet());
+        if (transactionRepository.existsByReferenceIdIn(referenceIds)) {
+            log.warn("Attempted duplicate transactions with referenceIds: {}", referenceIds);
+            throw new BusinessRuleException("Duplicate transaction detected", "DUPLICATE_TRANSACTION");
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> transactions = new ArrayList<>(postings.size());
+        for (TransactionPosting posting : postings) {
+            transactions.add(Transaction.builder()
+                    .account(posting.getAccount())
+                    .type(posting.getType())
+                    .amount(posting.getAmount())
+                    .currencyCode(posting.getAccount().getCurrencyCode())
+                    .balanceAfterTransaction(posting.getAccount().getCurrentBalance())
+                    .timestamp(now)
+                    .description(posting.getDescription())
+                    .referenceId(posting.getReferenceId())
+                    .build());
+        }
+        
+        List<Transaction> savedTransactions = transactionRepository.saveAll(transactions);
+        
+        log.info("Recorded {} transactions for references {}", savedTransactions.size(), referenceIds);
+        
+        return savedTransactions;
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public Page<Transaction> getAccountTransactions(UUID accountId, Pageable pageable) {
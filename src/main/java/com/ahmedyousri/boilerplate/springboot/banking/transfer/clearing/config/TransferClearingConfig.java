@@ -0,0 +1,63 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.config;
+
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.entity.ClearingBatch;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the clearing of external transfers.
+ */
+@Configuration
+@Getter
+public class TransferClearingConfig {
+
+    @Value("${app.transfers.clearing.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * How far apart the cut-offs are; external transfers are sent in one file per bank and cut-off.
+     */
+    @Value("${app.transfers.clearing.cutoff.interval.ms:3600000}")
+    private long cutoffIntervalMs;
+
+    /**
+     * How long after a cut-off its batches are closed, so closing does not wait on transfers
+     * added just before it; a transfer that finds its batch closed joins the next one.
+     */
+    @Value("${app.transfers.clearing.cutoff.grace.ms:60000}")
+    private long cutoffGraceMs;
+
+    /**
+     * How often batches past their cut-off and returned files are looked for.
+     */
+    @Value("${app.transfers.clearing.sweep.interval.ms:30000}")
+    private long sweepIntervalMs;
+
+    @Value("${app.transfers.clearing.directory:clearing/outbound}")
+    private String directory;
+
+    @Value("${app.transfers.clearing.returns.directory:clearing/returns}")
+    private String returnsDirectory;
+
+    @Value("${app.transfers.clearing.format:FIXED_WIDTH}")
+    private ClearingBatch.FileFormat format;
+
+    /**
+     * The bank code of this bank, as the originator of the clearing files.
+     */
+    @Value("${app.transfers.clearing.originator.bank.code:BANKITO}")
+    private String originatorBankCode;
+
+    /**
+     * The bank code external transfers are cleared through when their bank is not recorded.
+     */
+    @Value("${app.transfers.clearing.default.bank.code:CLEARING}")
+    private String defaultBankCode;
+
+    /**
+     * How many transfers are read at a time when writing a clearing file.
+     */
+    @Value("${app.transfers.clearing.batch.size:1000}")
+    private int batchSize;
+}
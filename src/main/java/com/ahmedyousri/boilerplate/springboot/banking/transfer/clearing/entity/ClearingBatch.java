@@ -0,0 +1,95 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity for the external transfers to one bank in one currency up to a cut-off, sent in one
+ * clearing file.
+ *
+ * <p>The ID of a batch is derived from its bank, currency and cut-off, so every node adding a
+ * transfer to it agrees on the ID without reading the batch. The counts are only taken when the
+ * batch closes; transfers do not update the batch as they are added.</p>
+ */
+@Entity
+@Table(name = "clearing_batches")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClearingBatch {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private String bankCode;
+
+    @Column(nullable = false)
+    private String currencyCode;
+
+    /**
+     * The time until which transfers are added to the batch.
+     */
+    @Column(nullable = false)
+    private LocalDateTime cutoffAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BatchStatus status;
+
+    private Integer itemCount;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal totalAmount;
+
+    @Enumerated(EnumType.STRING)
+    private FileFormat format;
+
+    private String fileName;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * When the clearing file was written and the batch journaled out of the clearing account.
+     */
+    private LocalDateTime closedAt;
+
+    /**
+     * When the withdrawals of the batch were sent on chain.
+     */
+    private LocalDateTime submittedAt;
+
+    /**
+     * Get the ID of the batch of a bank, currency and cut-off.
+     *
+     * @param bankCode     The destination bank code
+     * @param currencyCode The currency code
+     * @param cutoffAt     The cut-off
+     * @return The batch ID
+     */
+    public static UUID idFor(String bankCode, String currencyCode, LocalDateTime cutoffAt) {
+        return UUID.nameUUIDFromBytes((bankCode + "|" + currencyCode + "|" + cutoffAt)
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    public enum BatchStatus {
+        OPEN,
+        CLOSED,
+        SUBMITTED
+    }
+
+    public enum FileFormat {
+        FIXED_WIDTH,
+        PAIN_001
+    }
+}
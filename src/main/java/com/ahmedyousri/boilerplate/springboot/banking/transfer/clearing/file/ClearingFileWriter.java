@@ -0,0 +1,39 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.file;
+
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.entity.ClearingBatch;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model.ClearingFileHeader;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model.ClearingItem;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+/**
+ * Writes the clearing file of a batch as its transfers are read, without holding the batch.
+ */
+public interface ClearingFileWriter {
+
+    /**
+     * Get the file format written.
+     *
+     * @return The format
+     */
+    ClearingBatch.FileFormat getFormat();
+
+    /**
+     * Get the extension of the files written, without the dot.
+     *
+     * @return The extension
+     */
+    String getExtension();
+
+    /**
+     * Write a clearing file.
+     *
+     * @param output The file
+     * @param header The batch, with its totals
+     * @param items  The transfers of the batch, in the order to write them
+     * @throws IOException If the file cannot be written
+     */
+    void write(Writer output, ClearingFileHeader header, Iterator<ClearingItem> items) throws IOException;
+}
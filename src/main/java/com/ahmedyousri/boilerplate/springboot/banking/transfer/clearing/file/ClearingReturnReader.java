@@ -0,0 +1,214 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.file;
+
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model.ClearingReturn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reads the returns and rejects of transfers sent in clearing files, as a stream.
+ *
+ * <p>Two kinds of file are read, told apart by their first character. Fixed-width files hold a
+ * record per line: {@code R} for a return or {@code J} for a reject, then the reference (36),
+ * a reason code (4) and the reason; other records are skipped. XML files are ISO 20022 status
+ * reports (pain.002), of which rejected transactions ({@code TxSts} RJCT) are read, or payment
+ * returns (pacs.004). References are matched whether or not they have dashes, so the
+ * end-to-end IDs of pain.001 files are read back as transfer IDs.</p>
+ *
+ * <p>A record whose reference cannot be read is logged and skipped, so one bad record does not
+ * hold back the others of its file.</p>
+ */
+@Component
+public class ClearingReturnReader {
+
+    private static final Logger log = LoggerFactory.getLogger(ClearingReturnReader.class);
+
+    private static final int REFERENCE_END = 37;
+
+    private static final int REASON_CODE_END = 41;
+
+    private final XMLInputFactory xmlInputFactory;
+
+    public ClearingReturnReader() {
+        xmlInputFactory = XMLInputFactory.newFactory();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Read the returns and rejects of a file in order.
+     *
+     * @param input The file
+     * @param sink  Receives each return or reject
+     * @throws IOException If the file cannot be read
+     */
+    public void read(Reader input, Consumer<ClearingReturn> sink) throws IOException {
+        BufferedReader reader = input instanceof BufferedReader buffered ? buffered : new BufferedReader(input);
+        reader.mark(1);
+        int first = reader.read();
+        while (first == '\uFEFF' || (first != -1 && Character.isWhitespace(first))) {
+            reader.mark(1);
+            first = reader.read();
+        }
+        if (first == -1) {
+            return;
+        }
+        reader.reset();
+
+        if (first == '<') {
+            readXml(reader, sink);
+        } else {
+            readFixedWidth(reader, sink);
+        }
+    }
+
+    private void readFixedWidth(BufferedReader reader, Consumer<ClearingReturn> sink) throws IOException {
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty() || (line.charAt(0) != 'R' && line.charAt(0) != 'J')) {
+                continue;
+            }
+            UUID reference = parseReference(field(line, 1, REFERENCE_END));
+            if (reference == null) {
+                log.warn("Skipped return record on line {} with an unreadable reference", lineNumber);
+                continue;
+            }
+            sink.accept(new ClearingReturn(
+                    reference,
+                    line.charAt(0) == 'R' ? ClearingReturn.ReturnType.RETURN : ClearingReturn.ReturnType.REJECT,
+                    emptyToNull(field(line, REFERENCE_END, REASON_CODE_END)),
+                    emptyToNull(field(line, REASON_CODE_END, line.length()))));
+        }
+    }
+
+    private void readXml(Reader input, Consumer<ClearingReturn> sink) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = xmlInputFactory.createXMLStreamReader(input);
+            readTransactions(reader, sink);
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed return file: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // The input is closed by its owner
+                }
+            }
+        }
+    }
+
+    private void readTransactions(XMLStreamReader reader, Consumer<ClearingReturn> sink) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        String transaction = null;
+        String reference = null;
+        String status = null;
+        String reasonCode = null;
+        String reason = null;
+        boolean inReason = false;
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    String name = reader.getLocalName();
+                    text.setLength(0);
+                    if (name.equals("TxInfAndSts") || name.equals("TxInf")) {
+                        transaction = name;
+                        reference = null;
+                        status = null;
+                        reasonCode = null;
+                        reason = null;
+                    } else if (name.equals("Rsn")) {
+                        inReason = true;
+                    }
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> text.append(reader.getText());
+                case XMLStreamConstants.END_ELEMENT -> {
+                    String name = reader.getLocalName();
+                    String value = text.toString().trim();
+                    text.setLength(0);
+                    if (transaction == null) {
+                        continue;
+                    }
+                    switch (name) {
+                        case "OrgnlEndToEndId" -> reference = value;
+                        case "TxSts" -> status = value;
+                        case "Cd" -> reasonCode = inReason ? value : reasonCode;
+                        case "AddtlInf" -> reason = reason == null ? value : reason;
+                        case "Rsn" -> inReason = false;
+                        default -> {
+                            if (name.equals(transaction)) {
+                                emit(transaction, reference, status, reasonCode, reason, sink);
+                                transaction = null;
+                            }
+                        }
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    private static void emit(String transaction, String reference, String status, String reasonCode, String reason,
+                             Consumer<ClearingReturn> sink) {
+        // Status reports also list accepted transactions
+        boolean isReturn = transaction.equals("TxInf");
+        if (!isReturn && !"RJCT".equals(status)) {
+            return;
+        }
+        UUID id = parseReference(reference);
+        if (id == null) {
+            log.warn("Skipped {} with an unreadable reference: {}", isReturn ? "return" : "reject", reference);
+            return;
+        }
+        sink.accept(new ClearingReturn(id, isReturn ? ClearingReturn.ReturnType.RETURN : ClearingReturn.ReturnType.REJECT,
+                emptyToNull(reasonCode), emptyToNull(reason)));
+    }
+
+    /**
+     * Read a transfer ID, with or without dashes.
+     *
+     * @param reference The reference
+     * @return The transfer ID, or null if it is not one
+     */
+    static UUID parseReference(String reference) {
+        if (reference == null) {
+            return null;
+        }
+        String hex = reference.trim().replace("-", "");
+        if (hex.length() != 32) {
+            return null;
+        }
+        try {
+            return UUID.fromString(hex.substring(0, 8) + "-" + hex.substring(8, 12) + "-" + hex.substring(12, 16)
+                    + "-" + hex.substring(16, 20) + "-" + hex.substring(20));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String field(String line, int start, int end) {
+        if (start >= line.length()) {
+            return "";
+        }
+        return line.substring(start, Math.min(end, line.length())).trim();
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
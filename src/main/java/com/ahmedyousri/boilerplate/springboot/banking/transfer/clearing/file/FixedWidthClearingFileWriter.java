@@ -0,0 +1,117 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.file;
+
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.entity.ClearingBatch;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model.ClearingFileHeader;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model.ClearingItem;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+
+/**
+ * Writes clearing files of fixed-width records, one per line and padded with spaces to
+ * {@value #RECORD_LENGTH} characters: a header, a detail record per transfer and a trailer.
+ *
+ * <pre>
+ * H  originator bank (11), destination bank (11), currency (3), batch ID (36),
+ *    cut-off (14, yyyyMMddHHmmss), created (14)
+ * D  reference (36), source account (34), destination account (34), amount (18),
+ *    currency (3), description (35)
+ * T  item count (9), total amount (18)
+ * </pre>
+ *
+ * <p>Amounts are in ten-thousandths of the currency unit, as stored, right-aligned and padded
+ * with zeros. Text is left-aligned and cut to its field.</p>
+ */
+@Component
+public class FixedWidthClearingFileWriter implements ClearingFileWriter {
+
+    static final int RECORD_LENGTH = 200;
+
+    private static final int AMOUNT_SCALE = 4;
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    @Override
+    public ClearingBatch.FileFormat getFormat() {
+        return ClearingBatch.FileFormat.FIXED_WIDTH;
+    }
+
+    @Override
+    public String getExtension() {
+        return "txt";
+    }
+
+    @Override
+    public void write(Writer output, ClearingFileHeader header, Iterator<ClearingItem> items) throws IOException {
+        StringBuilder record = new StringBuilder(RECORD_LENGTH + 1);
+
+        record.append('H');
+        text(record, header.getOriginatorBankCode(), 11);
+        text(record, header.getDestinationBankCode(), 11);
+        text(record, header.getCurrencyCode(), 3);
+        text(record, header.getBatchId().toString(), 36);
+        text(record, TIMESTAMP.format(header.getCutoffAt()), 14);
+        text(record, TIMESTAMP.format(header.getCreatedAt()), 14);
+        end(output, record);
+
+        while (items.hasNext()) {
+            ClearingItem item = items.next();
+            record.append('D');
+            text(record, item.getReference().toString(), 36);
+            text(record, item.getSourceAccountNumber(), 34);
+            text(record, item.getDestinationAccountNumber(), 34);
+            amount(record, item.getAmount(), 18);
+            text(record, header.getCurrencyCode(), 3);
+            text(record, item.getDescription(), 35);
+            end(output, record);
+        }
+
+        record.append('T');
+        number(record, header.getItemCount(), 9);
+        amount(record, header.getTotalAmount(), 18);
+        end(output, record);
+    }
+
+    private static void text(StringBuilder record, String value, int width) {
+        String text = value != null ? value.replace('\r', ' ').replace('\n', ' ') : "";
+        if (text.length() > width) {
+            text = text.substring(0, width);
+        }
+        record.append(text);
+        pad(record, ' ', width - text.length());
+    }
+
+    private static void amount(StringBuilder record, BigDecimal amount, int width) {
+        number(record, amount.setScale(AMOUNT_SCALE, RoundingMode.UNNECESSARY).unscaledValue().toString(), width);
+    }
+
+    private static void number(StringBuilder record, long value, int width) {
+        number(record, Long.toString(value), width);
+    }
+
+    private static void number(StringBuilder record, String digits, int width) {
+        if (digits.length() > width) {
+            throw new IllegalArgumentException("Value " + digits + " does not fit in " + width + " digits");
+        }
+        pad(record, '0', width - digits.length());
+        record.append(digits);
+    }
+
+    private static void pad(StringBuilder record, char padding, int count) {
+        for (int i = 0; i < count; i++) {
+            record.append(padding);
+        }
+    }
+
+    private static void end(Writer output, StringBuilder record) throws IOException {
+        pad(record, ' ', RECORD_LENGTH - record.length());
+        record.append('\n');
+        output.append(record);
+        record.setLength(0);
+    }
+}
@@ -0,0 +1,156 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.file;
+
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.entity.ClearingBatch;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model.ClearingFileHeader;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model.ClearingItem;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.UUID;
+
+/**
+ * Writes clearing files in ISO 20022 pain.001.001.03 (CustomerCreditTransferInitiation): one
+ * payment information block ({@code PmtInf}) debiting the clearing account, with a credit
+ * transfer transaction ({@code CdtTrfTxInf}) per transfer.
+ *
+ * <p>The file is written with a streaming writer, each transaction as its transfer is read.
+ * The end-to-end ID of a transaction is the transfer ID without dashes, which fits the 35
+ * characters the message allows and is what status reports refer back to.</p>
+ */
+@Component
+public class Pain001ClearingFileWriter implements ClearingFileWriter {
+
+    static final String NAMESPACE = "urn:iso:std:iso:20022:tech:xsd:pain.001.001.03";
+
+    private static final int MAX_REMITTANCE_LENGTH = 140;
+
+    private final XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newFactory();
+
+    @Override
+    public ClearingBatch.FileFormat getFormat() {
+        return ClearingBatch.FileFormat.PAIN_001;
+    }
+
+    @Override
+    public String getExtension() {
+        return "xml";
+    }
+
+    @Override
+    public void write(Writer output, ClearingFileHeader header, Iterator<ClearingItem> items) throws IOException {
+        try {
+            XMLStreamWriter xml = xmlOutputFactory.createXMLStreamWriter(output);
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeStartElement("Document");
+            xml.writeDefaultNamespace(NAMESPACE);
+            xml.writeStartElement("CstmrCdtTrfInitn");
+
+            xml.writeStartElement("GrpHdr");
+            element(xml, "MsgId", endToEndId(header.getBatchId()));
+            element(xml, "CreDtTm", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(header.getCreatedAt().withNano(0)));
+            element(xml, "NbOfTxs", Integer.toString(header.getItemCount()));
+            element(xml, "CtrlSum", amount(header.getTotalAmount()));
+            xml.writeStartElement("InitgPty");
+            element(xml, "Nm", header.getOriginatorBankCode());
+            xml.writeEndElement();
+            xml.writeEndElement();
+
+            xml.writeStartElement("PmtInf");
+            element(xml, "PmtInfId", endToEndId(header.getBatchId()));
+            element(xml, "PmtMtd", "TRF");
+            element(xml, "BtchBookg", "true");
+            element(xml, "NbOfTxs", Integer.toString(header.getItemCount()));
+            element(xml, "CtrlSum", amount(header.getTotalAmount()));
+            element(xml, "ReqdExctnDt", DateTimeFormatter.ISO_LOCAL_DATE.format(header.getCutoffAt()));
+            xml.writeStartElement("Dbtr");
+            element(xml, "Nm", header.getOriginatorBankCode());
+            xml.writeEndElement();
+            xml.writeStartElement("DbtrAcct");
+            otherId(xml, header.getDebtorAccountNumber());
+            element(xml, "Ccy", header.getCurrencyCode());
+            xml.writeEndElement();
+            agent(xml, "DbtrAgt", header.getOriginatorBankCode());
+
+            while (items.hasNext()) {
+                ClearingItem item = items.next();
+                xml.writeStartElement("CdtTrfTxInf");
+                xml.writeStartElement("PmtId");
+                element(xml, "EndToEndId", endToEndId(item.getReference()));
+                xml.writeEndElement();
+                xml.writeStartElement("Amt");
+                xml.writeStartElement("InstdAmt");
+                xml.writeAttribute("Ccy", header.getCurrencyCode());
+                xml.writeCharacters(amount(item.getAmount()));
+                xml.writeEndElement();
+                xml.writeEndElement();
+                agent(xml, "CdtrAgt", header.getDestinationBankCode());
+                xml.writeStartElement("CdtrAcct");
+                otherId(xml, item.getDestinationAccountNumber());
+                xml.writeEndElement();
+                if (item.getDescription() != null && !item.getDescription().isBlank()) {
+                    xml.writeStartElement("RmtInf");
+                    String description = item.getDescription();
+                    element(xml, "Ustrd", description.length() > MAX_REMITTANCE_LENGTH
+                            ? description.substring(0, MAX_REMITTANCE_LENGTH) : description);
+                    xml.writeEndElement();
+                }
+                xml.writeEndElement();
+            }
+
+            xml.writeEndElement();
+            xml.writeEndElement();
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.flush();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write pain.001 file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get the end-to-end ID a transfer is sent with.
+     *
+     * @param reference The transfer ID
+     * @return The end-to-end ID
+     */
+    static String endToEndId(UUID reference) {
+        return reference.toString().replace("-", "");
+    }
+
+    private static String amount(BigDecimal amount) {
+        BigDecimal stripped = amount.stripTrailingZeros();
+        return (stripped.scale() < 2 ? stripped.setScale(2) : stripped).toPlainString();
+    }
+
+    private static void agent(XMLStreamWriter xml, String name, String bankCode) throws XMLStreamException {
+        xml.writeStartElement(name);
+        xml.writeStartElement("FinInstnId");
+        xml.writeStartElement("Othr");
+        element(xml, "Id", bankCode);
+        xml.writeEndElement();
+        xml.writeEndElement();
+        xml.writeEndElement();
+    }
+
+    private static void otherId(XMLStreamWriter xml, String id) throws XMLStreamException {
+        xml.writeStartElement("Id");
+        xml.writeStartElement("Othr");
+        element(xml, "Id", id);
+        xml.writeEndElement();
+        xml.writeEndElement();
+    }
+
+    private static void element(XMLStreamWriter xml, String name, String value) throws XMLStreamException {
+        xml.writeStartElement(name);
+        xml.writeCharacters(value);
+        xml.writeEndElement();
+    }
+}
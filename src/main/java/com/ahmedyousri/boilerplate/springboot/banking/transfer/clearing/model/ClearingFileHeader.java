@@ -0,0 +1,35 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * What a clearing file states about its batch, known before its transfers are written.
+ */
+@Value
+public class ClearingFileHeader {
+
+    UUID batchId;
+
+    String originatorBankCode;
+
+    String destinationBankCode;
+
+    String currencyCode;
+
+    /**
+     * The clearing account the transfers are paid from.
+     */
+    String debtorAccountNumber;
+
+    LocalDateTime cutoffAt;
+
+    LocalDateTime createdAt;
+
+    int itemCount;
+
+    BigDecimal totalAmount;
+}
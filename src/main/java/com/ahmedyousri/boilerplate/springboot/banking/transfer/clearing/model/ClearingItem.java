@@ -0,0 +1,27 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One transfer of a clearing batch, as written to the clearing file, read without loading the
+ * transfer.
+ */
+@Value
+public class ClearingItem {
+
+    /**
+     * The transfer ID, which returns and rejects refer to.
+     */
+    UUID reference;
+
+    String sourceAccountNumber;
+
+    String destinationAccountNumber;
+
+    BigDecimal amount;
+
+    String description;
+}
@@ -0,0 +1,35 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * A transfer sent in a clearing file and given back by the receiving bank.
+ */
+@Value
+public class ClearingReturn {
+
+    /**
+     * The transfer ID, as given in the clearing file.
+     */
+    UUID reference;
+
+    ReturnType type;
+
+    String reasonCode;
+
+    String reason;
+
+    public enum ReturnType {
+        /**
+         * Returned after the receiving bank accepted the file, such as to a closed account.
+         */
+        RETURN,
+
+        /**
+         * Rejected by the receiving bank before it was settled, such as for an invalid account.
+         */
+        REJECT
+    }
+}
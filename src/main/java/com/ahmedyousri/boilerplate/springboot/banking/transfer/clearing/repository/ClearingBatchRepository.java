@@ -0,0 +1,54 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.repository;
+
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.entity.ClearingBatch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ClearingBatchRepository extends JpaRepository<ClearingBatch, UUID> {
+
+    String STATUS = "com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.entity.ClearingBatch.BatchStatus.";
+
+    /**
+     * Get a batch, locking it until the end of the current transaction.
+     *
+     * @param id The batch ID
+     * @return The locked batch
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM ClearingBatch b WHERE b.id = :id")
+    Optional<ClearingBatch> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Get a batch, sharing a lock on it with other readers until the end of the current
+     * transaction, so it cannot be closed until that transaction ends.
+     *
+     * @param id The batch ID
+     * @return The batch
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT b FROM ClearingBatch b WHERE b.id = :id")
+    Optional<ClearingBatch> findByIdForShare(@Param("id") UUID id);
+
+    /**
+     * Get the batches left to settle: open batches past their cut-off, and closed batches whose
+     * withdrawals are not all on chain yet. Oldest cut-off first.
+     *
+     * @param closeBefore The time before which the cut-off of an open batch must be
+     * @param pageable    The page size
+     * @return The batch IDs
+     */
+    @Query("SELECT b.id FROM ClearingBatch b WHERE (b.status = " + STATUS + "OPEN AND b.cutoffAt <= :closeBefore) " +
+           "OR b.status = " + STATUS + "CLOSED ORDER BY b.cutoffAt")
+    List<UUID> findDue(@Param("closeBefore") LocalDateTime closeBefore, Pageable pageable);
+}
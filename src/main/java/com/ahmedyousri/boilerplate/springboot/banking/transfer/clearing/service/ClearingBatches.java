@@ -0,0 +1,47 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.entity.ClearingBatch;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.repository.ClearingBatchRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Opens clearing batches, each in a transaction of its own, so a batch opened by a transfer
+ * stays open for the others whether or not that transfer commits.
+ */
+@Service
+@RequiredArgsConstructor
+public class ClearingBatches {
+
+    private final ClearingBatchRepository batchRepository;
+
+    /**
+     * Open the batch of a bank, currency and cut-off, unless it exists.
+     *
+     * @param bankCode     The destination bank code
+     * @param currencyCode The currency code
+     * @param cutoffAt     The cut-off
+     * @return The batch ID
+     * @throws org.springframework.dao.DataIntegrityViolationException If another node opened the batch at the same time
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public UUID open(String bankCode, String currencyCode, LocalDateTime cutoffAt) {
+        UUID batchId = ClearingBatch.idFor(bankCode, currencyCode, cutoffAt);
+        if (!batchRepository.existsById(batchId)) {
+            batchRepository.saveAndFlush(ClearingBatch.builder()
+                    .id(batchId)
+                    .bankCode(bankCode)
+                    .currencyCode(currencyCode)
+                    .cutoffAt(cutoffAt)
+                    .status(ClearingBatch.BatchStatus.OPEN)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        return batchId;
+    }
+}
@@ -0,0 +1,393 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.account.service.AccountServiceImpl;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.DepositCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.WithdrawCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.service.ConfirmationTracker;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.ChainSubmitter;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.ResourceNotFoundException;
+import com.ahmedyousri.boilerplate.springboot.banking.system.service.SystemAccountService;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.TransactionType;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.repository.TransactionRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.service.TransactionService;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.config.TransferClearingConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.entity.ClearingBatch;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.file.ClearingFileWriter;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model.ClearingFileHeader;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model.ClearingItem;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model.ClearingReturn;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.repository.ClearingBatchRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.Transfer;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.repository.TransferRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Settles clearing batches: writes the clearing file of a batch and journals it out of the
+ * clearing account, withdraws its transfers on chain per source account, and credits back the
+ * transfers returned or rejected by the receiving bank.
+ */
+@Service
+public class ClearingSettler {
+
+    private static final Logger log = LoggerFactory.getLogger(ClearingSettler.class);
+
+    private static final int QUERY_CHUNK_SIZE = 1000;
+
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
+
+    private final ClearingBatchRepository batchRepository;
+
+    private final TransferRepository transferRepository;
+
+    private final TransactionRepository transactionRepository;
+
+    private final AccountRepository accountRepository;
+
+    private final AccountServiceImpl accountService;
+
+    private final AccountingService accountingService;
+
+    private final TransactionService transactionService;
+
+    private final SystemAccountService systemAccountService;
+
+    private final ChainSubmitter chainSubmitter;
+
+    private final ConfirmationTracker confirmationTracker;
+
+    private final TransferClearingConfig config;
+
+    private final Map<ClearingBatch.FileFormat, ClearingFileWriter> writers = new EnumMap<>(ClearingBatch.FileFormat.class);
+
+    public ClearingSettler(ClearingBatchRepository batchRepository,
+                           TransferRepository transferRepository,
+                           TransactionRepository transactionRepository,
+                           AccountRepository accountRepository,
+                           AccountServiceImpl accountService,
+                           AccountingService accountingService,
+                           TransactionService transactionService,
+                           SystemAccountService systemAccountService,
+                           ChainSubmitter chainSubmitter,
+                           ConfirmationTracker confirmationTracker,
+                           TransferClearingConfig config,
+                           List<ClearingFileWriter> writers) {
+        this.batchRepository = batchRepository;
+        this.transferRepository = transferRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.accountService = accountService;
+        this.accountingService = accountingService;
+        this.transactionService = transactionService;
+        this.systemAccountService = systemAccountService;
+        this.chainSubmitter = chainSubmitter;
+        this.confirmationTracker = confirmationTracker;
+        this.config = config;
+        writers.forEach(writer -> this.writers.put(writer.getFormat(), writer));
+    }
+
+    /**
+     * Close an open batch: write its clearing file, and journal its total out of the clearing
+     * account in one entry. The file is written under a temporary name and moved into place, so
+     * a file in the directory is always complete; a batch that fails to close stays open and
+     * its file is written again under the same name. The batch is locked first, so closing waits
+     * for the transfers joining it to commit, and transfers joining after it are turned away.
+     *
+     * @param batchId The batch ID
+     * @return Whether the batch was closed here, rather than already closed
+     */
+    @Transactional
+    public boolean close(UUID batchId) {
+        ClearingBatch batch = batchRepository.findByIdForUpdate(batchId).orElse(null);
+        if (batch == null || batch.getStatus() != ClearingBatch.BatchStatus.OPEN) {
+            return false;
+        }
+
+        int itemCount = Math.toIntExact(transferRepository.countCleared(batchId));
+        BigDecimal totalAmount = transferRepository.sumCleared(batchId);
+        batch.setItemCount(itemCount);
+        batch.setTotalAmount(totalAmount);
+        batch.setClosedAt(LocalDateTime.now());
+
+        // A batch whose only transfer rolled back has nothing to send
+        if (itemCount == 0) {
+            batch.setStatus(ClearingBatch.BatchStatus.SUBMITTED);
+            batch.setSubmittedAt(batch.getClosedAt());
+            batchRepository.save(batch);
+            return true;
+        }
+
+        Account clearingAccount = systemAccountService.getClearingAccount(batch.getCurrencyCode());
+        ClearingFileWriter writer = writers.get(config.getFormat());
+        if (writer == null) {
+            throw new IllegalStateException("No clearing file writer for format " + config.getFormat());
+        }
+        String fileName = "clearing-" + safe(batch.getBankCode()) + "-" + batch.getCurrencyCode() + "-"
+                + FILE_TIMESTAMP.format(batch.getCutoffAt()) + "." + writer.getExtension();
+
+        accountingService.createWithdrawalJournalEntry(clearingAccount, totalAmount,
+                "Clearing file " + fileName + " of " + itemCount + " transfers to bank " + batch.getBankCode(), batchId);
+
+        writeFile(writer, fileName, new ClearingFileHeader(batchId, config.getOriginatorBankCode(), batch.getBankCode(),
+                batch.getCurrencyCode(), clearingAccount.getAccountNumber(), batch.getCutoffAt(), batch.getClosedAt(),
+                itemCount, totalAmount));
+
+        batch.setFormat(writer.getFormat());
+        batch.setFileName(fileName);
+        if (chainSubmitter.isAnchored()) {
+            // The journal entry is anchored on chain; there is nothing to withdraw
+            batch.setStatus(ClearingBatch.BatchStatus.SUBMITTED);
+            batch.setSubmittedAt(batch.getClosedAt());
+        } else {
+            batch.setStatus(ClearingBatch.BatchStatus.CLOSED);
+        }
+        batchRepository.save(batch);
+
+        log.info("Closed clearing batch {} of {} transfers to bank {} for {} {} in {}",
+                batchId, itemCount, batch.getBankCode(), totalAmount, batch.getCurrencyCode(), fileName);
+        return true;
+    }
+
+    /**
+     * Get the source accounts of a closed batch whose transfers are not yet withdrawn on chain.
+     *
+     * @param batchId The batch ID
+     * @return The account IDs
+     */
+    @Transactional(readOnly = true)
+    public List<UUID> findUnsubmittedAccounts(UUID batchId) {
+        return transferRepository.findUnsubmittedClearingAccountIds(batchId);
+    }
+
+    /**
+     * Withdraw on chain, in one command, the transfers of a closed batch from one account that
+     * are not yet withdrawn. The account is locked, so a return of one of them waits, or is
+     * credited back before the withdrawal and left out of it.
+     *
+     * @param batchId   The batch ID
+     * @param accountId The source account ID
+     * @throws BusinessRuleException If the withdrawal fails on chain
+     */
+    @Transactional
+    public void withdraw(UUID batchId, UUID accountId) {
+        accountRepository.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", accountId));
+        BigDecimal amount = transferRepository.sumUnsubmittedClearing(batchId, accountId);
+        if (amount.signum() == 0) {
+            return;
+        }
+        List<String> referenceIds = transferRepository.findUnsubmittedClearingIds(batchId, accountId).stream()
+                .map(UUID::toString)
+                .toList();
+
+        WithdrawCommand command = new WithdrawCommand(accountId, amount,
+                "Clearing of " + referenceIds.size() + " external transfers");
+        command.setReferenceId(batchId);
+        BlockchainResponse response = chainSubmitter.submit(command);
+        if (!response.isSuccessful()) {
+            throw new BusinessRuleException(
+                    "Clearing withdrawal failed on blockchain: " + response.getErrorMessage(),
+                    response.getErrorCode());
+        }
+
+        String txHash = response.getTransactionHash();
+        transferRepository.updateClearingChainStatus(batchId, accountId, txHash, ChainStatus.SUBMITTED);
+        if (txHash == null) {
+            return;
+        }
+        for (int i = 0; i < referenceIds.size(); i += QUERY_CHUNK_SIZE) {
+            transactionRepository.updateChainStatusByReferenceIds(
+                    referenceIds.subList(i, Math.min(i + QUERY_CHUNK_SIZE, referenceIds.size())),
+                    txHash, ChainStatus.SUBMITTED);
+        }
+
+        // The transactions are linked by hash, since they do not share a reference
+        confirmationTracker.track(txHash, null);
+    }
+
+    /**
+     * Mark a closed batch as submitted once all its withdrawals are on chain.
+     *
+     * @param batchId The batch ID
+     * @return Whether the batch was marked
+     */
+    @Transactional
+    public boolean markSubmitted(UUID batchId) {
+        ClearingBatch batch = batchRepository.findByIdForUpdate(batchId).orElse(null);
+        if (batch == null || batch.getStatus() != ClearingBatch.BatchStatus.CLOSED
+                || !transferRepository.findUnsubmittedClearingAccountIds(batchId).isEmpty()) {
+            return false;
+        }
+        batch.setStatus(ClearingBatch.BatchStatus.SUBMITTED);
+        batch.setSubmittedAt(LocalDateTime.now());
+        batchRepository.save(batch);
+        return true;
+    }
+
+    /**
+     * Credit back a transfer returned or rejected by the receiving bank, matched by its
+     * reference. The funds come back through the cash account the batch was paid from.
+     *
+     * @param clearingReturn The return or reject
+     * @return Whether the transfer was credited back, rather than unknown, not yet sent or
+     *         already credited back
+     */
+    @Transactional
+    public boolean applyReturn(ClearingReturn clearingReturn) {
+        UUID transferId = clearingReturn.getReference();
+        UUID sourceAccountId = transferRepository.findById(transferId)
+                .map(transfer -> transfer.getSourceAccount().getId())
+                .orElse(null);
+        if (sourceAccountId == null) {
+            log.warn("No transfer matches clearing {} {}", clearingReturn.getType(), transferId);
+            return false;
+        }
+
+        // Locked in the order of a withdrawal: the account, then the transfer
+        Account sourceAccount = accountRepository.findByIdForUpdate(sourceAccountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", sourceAccountId));
+        Transfer transfer = transferRepository.findByIdForUpdate(transferId)
+                .orElseThrow(() -> new ResourceNotFoundException("Transfer", "id", transferId));
+        if (transfer.getClearingBatchId() == null || transfer.getStatus() != Transfer.TransferStatus.COMPLETED) {
+            log.warn("Ignored clearing {} of transfer {} in status {}", clearingReturn.getType(), transferId,
+                    transfer.getStatus());
+            return false;
+        }
+        ClearingBatch batch = batchRepository.findById(transfer.getClearingBatchId()).orElse(null);
+        if (batch == null || batch.getStatus() == ClearingBatch.BatchStatus.OPEN) {
+            log.warn("Ignored clearing {} of transfer {} not yet sent", clearingReturn.getType(), transferId);
+            return false;
+        }
+
+        String reason = clearingReturn.getType() == ClearingReturn.ReturnType.RETURN ? "Returned" : "Rejected";
+        if (clearingReturn.getReasonCode() != null) {
+            reason += " (" + clearingReturn.getReasonCode() + ")";
+        }
+        if (clearingReturn.getReason() != null) {
+            reason += ": " + clearingReturn.getReason();
+        }
+        String description = reason + " transfer to " + transfer.getDestinationAccountNumber();
+
+        // The amount debited is credited back, in the currency of the source account
+        BigDecimal amount = transfer.getSourceAmount() != null ? transfer.getSourceAmount() : transfer.getAmount();
+
+        // Only a transfer already withdrawn on chain is deposited back there
+        if (transfer.getChainStatus() != null) {
+            BlockchainResponse response = chainSubmitter.submit(new DepositCommand(
+                    sourceAccount.getId(), amount, description, sourceAccount.getCurrencyCode()));
+            if (!response.isSuccessful()) {
+                throw new BusinessRuleException(
+                        "Clearing return failed on blockchain: " + response.getErrorMessage(),
+                        response.getErrorCode());
+            }
+        }
+
+        // The return has a reference of its own, so chain updates of the transfer leave it alone
+        UUID returnId = UUID.randomUUID();
+        accountService.performCredit(sourceAccount, amount);
+        accountingService.createCompensatingJournalEntry(sourceAccount, amount, description, returnId);
+        transactionService.recordTransaction(sourceAccount, TransactionType.CREDIT, amount, description,
+                returnId.toString());
+        accountRepository.save(sourceAccount);
+
+        transfer.setStatus(Transfer.TransferStatus.COMPENSATED);
+        transfer.setCancellationReason(reason);
+        transferRepository.save(transfer);
+
+        log.info("Credited back transfer {} of {} {}: {}", transferId, amount, sourceAccount.getCurrencyCode(), reason);
+        return true;
+    }
+
+    private void writeFile(ClearingFileWriter writer, String fileName, ClearingFileHeader header) {
+        try {
+            Path directory = Paths.get(config.getDirectory());
+            Files.createDirectories(directory);
+            Path partial = directory.resolve(fileName + ".part");
+            try (Writer output = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+                writer.write(output, header, new ClearingItems(header.getBatchId()));
+            }
+            Files.move(partial, directory.resolve(fileName),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write clearing file " + fileName, e);
+        }
+    }
+
+    private static String safe(String bankCode) {
+        return bankCode.replaceAll("[^A-Za-z0-9]", "_");
+    }
+
+    /**
+     * The transfers of a batch, read a page at a time as the file is written.
+     */
+    private class ClearingItems implements Iterator<ClearingItem> {
+
+        private final UUID batchId;
+
+        private List<ClearingItem> page = List.of();
+
+        private int position;
+
+        private UUID afterId = FIRST_ID;
+
+        private boolean last;
+
+        ClearingItems(UUID batchId) {
+            this.batchId = batchId;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (position < page.size()) {
+                return true;
+            }
+            if (last) {
+                return false;
+            }
+            page = transferRepository.findClearingItems(batchId, afterId, PageRequest.of(0, config.getBatchSize()));
+            position = 0;
+            last = page.size() < config.getBatchSize();
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getReference();
+            }
+            return !page.isEmpty();
+        }
+
+        @Override
+        public ClearingItem next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.get(position++);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.account.service.AccountServiceImpl;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.service.JobCoordinator;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.ResourceNotFoundException;
+import com.ahmedyousri.boilerplate.springboot.banking.system.service.SystemAccountService;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.TransactionType;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.service.TransactionService;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.config.TransferClearingConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.entity.ClearingBatch;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.file.ClearingReturnReader;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.repository.ClearingBatchRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.Transfer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Clears external transfers in batches, one per destination bank, currency and cut-off.
+ *
+ * <p>A cleared transfer debits its source account and credits the clearing account when it is
+ * made, and records the customer-visible transaction, but sends nothing out: it joins the batch
+ * of its bank for the next cut-off. Once a cut-off has passed, each of its batches is written to
+ * one clearing file and journaled out of the clearing account in one entry, and the transfers
+ * of each source account are withdrawn on chain in one command. One clearing run replaces an
+ * outbound chain command and journal entry per transfer.</p>
+ *
+ * <p>A transfer joins its batch under a lock shared with the other transfers joining it, which
+ * closing the batch takes exclusively: closing waits for the transfers in the batch to commit,
+ * and a transfer that finds its batch already closed joins the batch of the next cut-off.
+ * Batches are closed a grace period after their cut-off, which only keeps closing from waiting
+ * on transfers made just before it. Returns and rejects are read from files dropped in the returns
+ * directory, each claimed by moving it, so of several nodes only one reads it, and credited back
+ * to the transfers they name. Each sweep runs through the {@link JobCoordinator}, on one node of
+ * the cluster.</p>
+ */
+@Service
+public class TransferClearing {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferClearing.class);
+
+    private static final String PROCESSING_DIRECTORY = "processing";
+
+    private static final String PROCESSED_DIRECTORY = "processed";
+
+    private static final String SWEEP_JOB = "transfer-clearing";
+
+    private final ClearingBatchRepository batchRepository;
+
+    private final ClearingBatches batches;
+
+    private final ClearingSettler settler;
+
+    private final ClearingReturnReader returnReader;
+
+    private final AccountRepository accountRepository;
+
+    private final AccountServiceImpl accountService;
+
+    private final AccountingService accountingService;
+
+    private final TransactionService transactionService;
+
+    private final SystemAccountService systemAccountService;
+
+    private final TransferClearingConfig config;
+
+    private final JobCoordinator jobCoordinator;
+
+    private final TaskScheduler taskScheduler;
+
+    /**
+     * The batches known to be open, and their cut-off, so each node opens a batch once.
+     */
+    private final Map<UUID, LocalDateTime> openBatches = new ConcurrentHashMap<>();
+
+    private ScheduledFuture<?> sweeps;
+
+    public TransferClearing(ClearingBatchRepository batchRepository,
+                            ClearingBatches batches,
+                            ClearingSettler settler,
+                            ClearingReturnReader returnReader,
+                            AccountRepository accountRepository,
+                            AccountServiceImpl accountService,
+                            AccountingService accountingService,
+                            TransactionService transactionService,
+                            SystemAccountService systemAccountService,
+                            TransferClearingConfig config,
+                            JobCoordinator jobCoordinator,
+                            TaskScheduler taskScheduler) {
+        this.batchRepository = batchRepository;
+        this.batches = batches;
+        this.settler = settler;
+        this.returnReader = returnReader;
+        this.accountRepository = accountRepository;
+        this.accountService = accountService;
+        this.accountingService = accountingService;
+        this.transactionService = transactionService;
+        this.systemAccountService = systemAccountService;
+        this.config = config;
+        this.jobCoordinator = jobCoordinator;
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * Start settling batches past their cut-off and reading returns, if clearing is enabled.
+     */
+    @PostConstruct
+    public void initialize() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        sweeps = taskScheduler.scheduleWithFixedDelay(this::runSweep, Instant.now().plusMillis(config.getSweepIntervalMs()),
+                Duration.ofMillis(config.getSweepIntervalMs()));
+        log.info("External transfer clearing started with a {} ms cut-off interval, writing {} files to {}",
+                config.getCutoffIntervalMs(), config.getFormat(), config.getDirectory());
+    }
+
+    /**
+     * Stop settling. Batches past their cut-off are settled by the next node to sweep.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (sweeps != null) {
+            sweeps.cancel(true);
+        }
+    }
+
+    /**
+     * Check whether external transfers are cleared in batches.
+     *
+     * @return True if external transfers are cleared
+     */
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Give an external transfer without a bank code, such as one to a payee, the default bank
+     * code to be cleared through. Done before the transfer is saved, as the bank code is required.
+     *
+     * @param transfer The transfer
+     */
+    public void assignBankCode(Transfer transfer) {
+        if (transfer.getDestinationBankCode() == null || transfer.getDestinationBankCode().isBlank()) {
+            transfer.setDestinationBankCode(config.getDefaultBankCode());
+        }
+    }
+
+    /**
+     * Debit an external transfer from its source account into the clearing account, and add it
+     * to the batch of its bank for the next cut-off. A transfer made in another currency is
+     * debited into the clearing account of the source currency, and is paid out of the clearing
+     * account of its own currency when its batch is closed.
+     *
+     * @param transfer The transfer, with its bank code
+     * @param source   The source account
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void route(Transfer transfer, Account source) {
+        transfer.setClearingBatchId(joinBatch(transfer.getDestinationBankCode(), transfer.getCurrencyCode(),
+                LocalDateTime.now()));
+
+        String description = "Transfer to " + transfer.getDestinationAccountNumber();
+        BigDecimal amount = transfer.getSourceAmount() != null ? transfer.getSourceAmount() : transfer.getAmount();
+        Account clearingAccount = systemAccountService.getClearingAccount(source.getCurrencyCode());
+
+        accountService.performDebit(source, amount);
+        accountingService.createTransferJournalEntry(source, clearingAccount, amount, description, transfer.getId());
+        transactionService.recordTransaction(source, TransactionType.DEBIT, amount, description,
+                String.valueOf(transfer.getId()));
+        accountRepository.save(source);
+    }
+
+    /**
+     * Get the cut-off a transfer made at a time is sent at: the next multiple of the cut-off
+     * interval since the epoch, in the local time zone of the node.
+     *
+     * @param now The time of the transfer
+     * @return The cut-off
+     */
+    public LocalDateTime cutoffFor(LocalDateTime now) {
+        long interval = config.getCutoffIntervalMs();
+        long millis = now.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long cutoff = (Math.floorDiv(millis, interval) + 1) * interval;
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(cutoff), ZoneId.systemDefault());
+    }
+
+    /**
+     * Settle the batches whose cut-off passed: close each one, then withdraw its transfers on
+     * chain per source account.
+     *
+     * @param now The current time
+     * @return The number of batches settled to the end
+     */
+    public int settleDue(LocalDateTime now) {
+        LocalDateTime closeBefore = now.minus(Duration.ofMillis(config.getCutoffGraceMs()));
+        forgetPastCutoffs(now);
+
+        int settled = 0;
+        List<UUID> due = batchRepository.findDue(closeBefore, PageRequest.of(0, config.getBatchSize()));
+        for (UUID batchId : due) {
+            try {
+                settler.close(batchId);
+                for (UUID accountId : settler.findUnsubmittedAccounts(batchId)) {
+                    settler.withdraw(batchId, accountId);
+                }
+                if (settler.markSubmitted(batchId)) {
+                    settled++;
+                }
+            } catch (Exception e) {
+                // Left as it is, and taken up again by the next sweep
+                log.error("Failed to settle clearing batch {}: {}", batchId, e.getMessage(), e);
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * Credit back the transfers returned or rejected in a file.
+     *
+     * @param input The file
+     * @return The number of transfers credited back
+     * @throws IOException If the file cannot be read
+     */
+    public int processReturns(Reader input) throws IOException {
+        AtomicInteger applied = new AtomicInteger();
+        returnReader.read(input, clearingReturn -> {
+            try {
+                if (settler.applyReturn(clearingReturn)) {
+                    applied.incrementAndGet();
+                }
+            } catch (Exception e) {
+                log.error("Failed to apply clearing {} of transfer {}: {}", clearingReturn.getType(),
+                        clearingReturn.getReference(), e.getMessage(), e);
+            }
+        });
+        return applied.get();
+    }
+
+    /**
+     * Read the return files dropped in the returns directory. A file is first moved aside, so no
+     * other node reads it, and then into the processed directory.
+     *
+     * @return The number of transfers credited back
+     */
+    public int pollReturns() {
+        Path directory = Paths.get(config.getReturnsDirectory());
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+
+        int applied = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, Files::isRegularFile)) {
+            for (Path file : files) {
+                Path claimed = claim(file, directory.resolve(PROCESSING_DIRECTORY));
+                if (claimed == null) {
+                    continue;
+                }
+                try (Reader input = Files.newBufferedReader(claimed, StandardCharsets.UTF_8)) {
+                    int count = processReturns(input);
+                    applied += count;
+                    log.info("Read clearing return file {}: {} transfers credited back", file.getFileName(), count);
+                } catch (IOException e) {
+                    log.error("Failed to read clearing return file {}: {}", file.getFileName(), e.getMessage(), e);
+                }
+                move(claimed, directory.resolve(PROCESSED_DIRECTORY));
+            }
+        } catch (IOException e) {
+            log.error("Failed to list clearing return files in {}: {}", directory, e.getMessage(), e);
+        }
+        return applied;
+    }
+
+    /**
+     * Get the batch a transfer made at a time joins, and lock it against closing until the
+     * transfer commits. The batch of the cut-off of the transfer, or of a later one if that is
+     * already closed.
+     */
+    private UUID joinBatch(String bankCode, String currencyCode, LocalDateTime now) {
+        LocalDateTime cutoffAt = cutoffFor(now);
+        while (true) {
+            UUID batchId = openBatch(bankCode, currencyCode, cutoffAt);
+            ClearingBatch batch = batchRepository.findByIdForShare(batchId)
+                    .orElseThrow(() -> new ResourceNotFoundException("ClearingBatch", "id", batchId));
+            if (batch.getStatus() == ClearingBatch.BatchStatus.OPEN) {
+                return batchId;
+            }
+            // Closed already, so the transfer is sent at the next cut-off
+            openBatches.remove(batchId);
+            cutoffAt = cutoffAt.plus(Duration.ofMillis(config.getCutoffIntervalMs()));
+        }
+    }
+
+    private UUID openBatch(String bankCode, String currencyCode, LocalDateTime cutoffAt) {
+        UUID batchId = ClearingBatch.idFor(bankCode, currencyCode, cutoffAt);
+        if (!openBatches.containsKey(batchId)) {
+            try {
+                batches.open(bankCode, currencyCode, cutoffAt);
+            } catch (DataIntegrityViolationException e) {
+                // Opened by another node at the same time
+            }
+            openBatches.put(batchId, cutoffAt);
+        }
+        return batchId;
+    }
+
+    private void forgetPastCutoffs(LocalDateTime now) {
+        openBatches.values().removeIf(cutoffAt -> !cutoffAt.isAfter(now));
+    }
+
+    private static Path claim(Path file, Path processing) {
+        try {
+            Files.createDirectories(processing);
+            return Files.move(file, processing.resolve(file.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Claimed by another node
+            return null;
+        }
+    }
+
+    private static void move(Path file, Path target) {
+        try {
+            Files.createDirectories(target);
+            Files.move(file, target.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error("Failed to move clearing return file {}: {}", file, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Settle due batches and read returns on one node per sweep interval. Each step commits on
+     * its own, so the sweep runs outside a transaction.
+     */
+    private void runSweep() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            // Batches opened by this node are forgotten here even when another node settles them
+            forgetPastCutoffs(now);
+            String runKey = "sweep-" + System.currentTimeMillis() / Math.max(1, config.getSweepIntervalMs());
+            jobCoordinator.runOnceWithoutTransaction(SWEEP_JOB, runKey, () -> {
+                settleDue(now);
+                pollReturns();
+            });
+        } catch (Exception e) {
+            log.error("Clearing sweep failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.ahmedyousri.boilerplate.springboot.banking.transfer.controller;
 
 import com.ahmedyousri.boilerplate.springboot.api.TransfersApi;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.annotation.RequestDeadline;
 import com.ahmedyousri.boilerplate.springboot.banking.transfer.service.TransferService;
 import com.ahmedyousri.boilerplate.springboot.model.generated.*;
 import lombok.RequiredArgsConstructor;
@@ -40,6 +41,7 @@ public class TransferController implements TransfersApi {
     }
     
     @Override
+    @RequestDeadline(millis = 20_000)
     public ResponseEntity<TransferResponse> _createTransfer(
             TransferCreationRequest transferCreationRequest) {
         TransferResponse response = transferService.createTransfer(transferCreationRequest);
@@ -53,14 +55,16 @@ public class TransferController implements TransfersApi {
             Optional<LocalDate> startDate, 
             Optional<LocalDate> endDate, 
             Optional<Integer> page, 
-            Optional<Integer> pageSize) {
+            Optional<Integer> pageSize, 
+            Optional<String> cursor) {
         TransfersListResponse response = transferService.getCustomerTransfers(
                 status.orElse(null), 
                 type.orElse(null), 
                 startDate.orElse(null), 
                 endDate.orElse(null), 
                 page.orElse(null), 
-                pageSize.orElse(null));
+                pageSize.orElse(null), 
+                cursor.orElse(null));
         return ResponseEntity.ok(response);
     }
     
@@ -1,6 +1,7 @@
 package com.ahmedyousri.boilerplate.springboot.banking.transfer.entity;
 
 import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
 import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -44,6 +45,20 @@ public class Transfer {
     @Column(nullable = false)
     private String currencyCode;
     
+    /**
+     * The amount debited from the source account, in its currency; the amount itself unless the
+     * transfer is made in another currency.
+     */
+    @Column(precision = 19, scale = 4)
+    private BigDecimal sourceAmount;
+    
+    /**
+     * The rate the amount was converted at, from the currency of the transfer to that of the
+     * account in another currency, when the transfer crosses currencies.
+     */
+    @Column(precision = 19, scale = 9)
+    private BigDecimal exchangeRate;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private TransferType type;
@@ -59,12 +74,42 @@ public class Transfer {
     
     private LocalDateTime scheduledFor;
     
+    /**
+     * The node and claim holding the lease to execute a scheduled transfer.
+     */
+    private String leaseOwner;
+    
+    /**
+     * When the lease to execute a scheduled transfer expires, and another node may claim it.
+     */
+    private LocalDateTime leaseExpiresAt;
+    
     private LocalDateTime completedAt;
     
     private String cancellationReason;
     
     private String referenceId;
     
+    private String blockchainTxHash;
+    
+    @Enumerated(EnumType.STRING)
+    private ChainStatus chainStatus;
+    
+    private Long blockHeight;
+    
+    private Integer confirmations;
+    
+    /**
+     * The netting settlement that posts the journal entry and chain command of an internal
+     * transfer, when internal transfers are netted.
+     */
+    private UUID settlementId;
+    
+    /**
+     * The clearing batch an external transfer is sent in, when external transfers are cleared.
+     */
+    private UUID clearingBatchId;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
     private Customer customer;
@@ -4,6 +4,7 @@ import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
 import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
 import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.RecurringTransfer;
 import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.Transfer;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.model.TransferSummary;
 import com.ahmedyousri.boilerplate.springboot.model.generated.*;
 import org.springframework.stereotype.Component;
 
@@ -17,6 +18,11 @@ import java.util.stream.Collectors;
 @Component
 public class TransferMapper {
     
+    /**
+     * The bank code recorded for transfers to accounts held at this bank.
+     */
+    public static final String INTERNAL_BANK_CODE = "INTERNAL";
+    
     /**
      * Convert Transfer entity to TransferResponse DTO
      */
@@ -52,6 +58,31 @@ public class TransferMapper {
         return response;
     }
     
+    /**
+     * Convert a TransferSummary read by a listing query to TransferResponse DTO
+     */
+    public TransferResponse toTransferResponse(TransferSummary transfer) {
+        if (transfer == null) {
+            return null;
+        }
+        
+        TransferResponse response = new TransferResponse();
+        response.setId(transfer.getId());
+        response.setSourceAccountId(transfer.getSourceAccountId());
+        response.setDestinationAccountNumber(transfer.getDestinationAccountNumber());
+        
+        Money amount = new Money();
+        amount.setAmount(transfer.getAmount().toString());
+        amount.setCurrencyCode(transfer.getCurrencyCode());
+        response.setAmount(amount);
+        
+        response.setType(TransferResponse.TypeEnum.fromValue(transfer.getType().getValue()));
+        response.setStatus(TransferResponse.StatusEnum.fromValue(transfer.getStatus().getValue()));
+        response.setCompletedAt(transfer.getCompletedAt() != null ? toOffsetDateTime(transfer.getCompletedAt()) : null);
+        
+        return response;
+    }
+    
     /**
      * Convert Transfer entity to TransferDetailResponse DTO
      */
@@ -109,7 +140,7 @@ public class TransferMapper {
                 .destinationAccountNumber(request.getDestinationAccountId() != null ? 
                     request.getDestinationAccountId().toString() : 
                     (request.getPayeeId() != null ? "Payee-" + request.getPayeeId() : null))
-                .destinationBankCode(null) // getBankCode() method doesn't exist
+                .destinationBankCode(request.getDestinationAccountId() != null ? INTERNAL_BANK_CODE : null)
                 .amount(new BigDecimal(request.getAmount()))
                 .currencyCode(request.getCurrencyCode())
                 .type(Transfer.TransferType.fromValue(request.getType().getValue()))
@@ -209,6 +240,19 @@ public class TransferMapper {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Convert a list of TransferSummary rows to TransferResponse DTOs
+     */
+    public List<TransferResponse> toTransferSummaryResponseList(List<TransferSummary> transfers) {
+        if (transfers == null) {
+            return null;
+        }
+        
+        return transfers.stream()
+                .map(this::toTransferResponse)
+                .collect(Collectors.toList());
+    }
+    
     /**
      * Convert a list of RecurringTransfer entities to RecurringTransferResponse DTOs
      */
@@ -0,0 +1,66 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.model;
+
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * The position after the last transfer of a page, in the listing order of newest first with
+ * ties broken by ID. Clients receive it as an opaque token and pass it back to get the next page.
+ */
+@Value
+public class TransferCursor {
+
+    private static final String SEPARATOR = "|";
+
+    LocalDateTime createdAt;
+
+    UUID id;
+
+    /**
+     * Get the cursor after a transfer.
+     *
+     * @param transfer The last transfer of a page
+     * @return The cursor
+     */
+    public static TransferCursor after(TransferSummary transfer) {
+        return new TransferCursor(transfer.getCreatedAt(), transfer.getId());
+    }
+
+    /**
+     * Encode the cursor as a token.
+     *
+     * @return The token
+     */
+    public String encode() {
+        String position = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token issued by {@link #encode()}.
+     *
+     * @param token The token
+     * @return The cursor
+     * @throws BusinessRuleException If the token is not a cursor
+     */
+    public static TransferCursor decode(String token) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = position.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("No separator");
+            }
+            return new TransferCursor(
+                    LocalDateTime.parse(position.substring(0, separator)),
+                    UUID.fromString(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessRuleException("Invalid pagination cursor", "INVALID_CURSOR");
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.model;
+
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.Transfer;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The columns of a transfer shown in transfer lists, read directly by the listing query
+ * without loading the transfer or its accounts.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferSummary {
+
+    private UUID id;
+
+    /**
+     * The ID of the source account, read from the foreign key column.
+     */
+    private UUID sourceAccountId;
+
+    private String destinationAccountNumber;
+
+    private BigDecimal amount;
+
+    private String currencyCode;
+
+    private Transfer.TransferType type;
+
+    private Transfer.TransferStatus status;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime completedAt;
+}
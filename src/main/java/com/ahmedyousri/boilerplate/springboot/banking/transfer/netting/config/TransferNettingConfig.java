@@ -0,0 +1,31 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the netting of internal transfers.
+ */
+@Configuration
+@Getter
+public class TransferNettingConfig {
+
+    @Value("${app.transfers.netting.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * How long the transfers between two accounts are accumulated before their net is settled.
+     */
+    @Value("${app.transfers.netting.window.ms:60000}")
+    private long windowMs;
+
+    /**
+     * How often settlements whose window has closed are looked for.
+     */
+    @Value("${app.transfers.netting.sweep.interval.ms:1000}")
+    private long sweepIntervalMs;
+
+    @Value("${app.transfers.netting.batch.size:100}")
+    private int batchSize;
+}
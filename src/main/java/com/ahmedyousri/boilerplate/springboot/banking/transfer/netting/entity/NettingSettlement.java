@@ -0,0 +1,83 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.entity;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity accumulating the internal transfers between two accounts over a window, settled with
+ * one journal entry and one chain command for their net amount.
+ *
+ * <p>The accounts of a pair are ordered by ID, so transfers in both directions accumulate in
+ * the same settlement; a positive net amount moves from the first account to the second.</p>
+ */
+@Entity
+@Table(name = "netting_settlements")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NettingSettlement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    /**
+     * The account of the pair with the lower ID.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "first_account_id", nullable = false)
+    private Account firstAccount;
+
+    /**
+     * The account of the pair with the higher ID.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "second_account_id", nullable = false)
+    private Account secondAccount;
+
+    @Column(nullable = false)
+    private String currencyCode;
+
+    /**
+     * The amount moved from the first account to the second, less the amount moved back.
+     */
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal netAmount;
+
+    /**
+     * The amount moved in both directions.
+     */
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal grossAmount;
+
+    @Column(nullable = false)
+    private int transferCount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SettlementStatus status;
+
+    /**
+     * When the first transfer of the window was accumulated.
+     */
+    @Column(nullable = false)
+    private LocalDateTime openedAt;
+
+    private LocalDateTime settledAt;
+
+    private String blockchainTxHash;
+
+    public enum SettlementStatus {
+        OPEN,
+        SETTLED
+    }
+}
@@ -0,0 +1,69 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.repository;
+
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.entity.NettingSettlement;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface NettingSettlementRepository extends JpaRepository<NettingSettlement, UUID> {
+
+    String OPEN = "com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.entity.NettingSettlement.SettlementStatus.OPEN";
+
+    /**
+     * Get the open settlement of a pair of accounts, locking it until the end of the current
+     * transaction.
+     *
+     * @param firstAccountId  The account of the pair with the lower ID
+     * @param secondAccountId The account of the pair with the higher ID
+     * @return The locked settlement
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM NettingSettlement s WHERE s.firstAccount.id = :firstAccountId " +
+           "AND s.secondAccount.id = :secondAccountId AND s.status = " + OPEN)
+    Optional<NettingSettlement> findOpenForUpdate(@Param("firstAccountId") UUID firstAccountId,
+                                                  @Param("secondAccountId") UUID secondAccountId);
+
+    /**
+     * Get a settlement, locking it until the end of the current transaction.
+     *
+     * @param id The settlement ID
+     * @return The locked settlement
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM NettingSettlement s WHERE s.id = :id")
+    Optional<NettingSettlement> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Get the open settlements whose window closed, oldest first.
+     *
+     * @param openedBefore The time before which their window opened
+     * @param pageable     The page size
+     * @return The settlement IDs
+     */
+    @Query("SELECT s.id FROM NettingSettlement s WHERE s.status = " + OPEN + " AND s.openedAt <= :openedBefore " +
+           "ORDER BY s.openedAt")
+    List<UUID> findDue(@Param("openedBefore") LocalDateTime openedBefore, Pageable pageable);
+
+    /**
+     * Get the net amount moved into an account by transfers not yet settled, which its balance
+     * includes but its journal entries do not yet.
+     *
+     * @param accountId The account ID
+     * @return The net amount; negative when more moved out
+     */
+    @Query("SELECT COALESCE(SUM(CASE WHEN s.secondAccount.id = :accountId THEN s.netAmount ELSE -s.netAmount END), 0) " +
+           "FROM NettingSettlement s WHERE s.status = " + OPEN + " " +
+           "AND (s.firstAccount.id = :accountId OR s.secondAccount.id = :accountId)")
+    BigDecimal sumOpenPosition(@Param("accountId") UUID accountId);
+}
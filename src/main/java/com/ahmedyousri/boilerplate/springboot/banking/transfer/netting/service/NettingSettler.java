@@ -0,0 +1,119 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.TransferCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.service.ConfirmationTracker;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.ChainSubmitter;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.repository.TransactionRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.entity.NettingSettlement;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.repository.NettingSettlementRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.repository.TransferRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Settles netting settlements: one journal entry and one chain command for the net amount of
+ * the transfers between two accounts, linked to each of the transfers and their transactions.
+ */
+@Service
+@RequiredArgsConstructor
+public class NettingSettler {
+
+    private static final Logger log = LoggerFactory.getLogger(NettingSettler.class);
+
+    private static final int QUERY_CHUNK_SIZE = 1000;
+
+    private final NettingSettlementRepository settlementRepository;
+
+    private final TransferRepository transferRepository;
+
+    private final TransactionRepository transactionRepository;
+
+    private final AccountingService accountingService;
+
+    private final ChainSubmitter chainSubmitter;
+
+    private final ConfirmationTracker confirmationTracker;
+
+    /**
+     * Settle an open settlement. A settlement that fails on chain is rolled back and stays open,
+     * accumulating transfers until it is settled again.
+     *
+     * @param settlementId The settlement ID
+     * @return Whether the settlement was settled here, rather than already settled
+     * @throws BusinessRuleException If the settlement fails on chain
+     */
+    @Transactional
+    public boolean settle(UUID settlementId) {
+        NettingSettlement settlement = settlementRepository.findByIdForUpdate(settlementId).orElse(null);
+        if (settlement == null || settlement.getStatus() != NettingSettlement.SettlementStatus.OPEN) {
+            return false;
+        }
+
+        settlement.setStatus(NettingSettlement.SettlementStatus.SETTLED);
+        settlement.setSettledAt(LocalDateTime.now());
+
+        // Transfers that cancel out leave nothing to post
+        int direction = settlement.getNetAmount().signum();
+        if (direction != 0) {
+            Account source = direction > 0 ? settlement.getFirstAccount() : settlement.getSecondAccount();
+            Account destination = direction > 0 ? settlement.getSecondAccount() : settlement.getFirstAccount();
+            BigDecimal amount = settlement.getNetAmount().abs();
+            String description = "Netted settlement of " + settlement.getTransferCount() + " transfers from "
+                    + source.getAccountNumber() + " to " + destination.getAccountNumber();
+
+            accountingService.createTransferJournalEntry(source, destination, amount, description, settlementId);
+
+            BlockchainResponse response = chainSubmitter.submit(new TransferCommand(source.getId(), destination.getId(),
+                    amount, description, settlement.getCurrencyCode(), settlementId));
+            if (!response.isSuccessful()) {
+                throw new BusinessRuleException(
+                        "Netted settlement failed on blockchain: " + response.getErrorMessage(),
+                        response.getErrorCode());
+            }
+            trackOnChain(settlement, response.getTransactionHash());
+        }
+
+        settlementRepository.save(settlement);
+        log.info("Settled {} transfers between accounts {} and {} with a net amount of {} {}",
+                settlement.getTransferCount(), settlement.getFirstAccount().getId(), settlement.getSecondAccount().getId(),
+                settlement.getNetAmount(), settlement.getCurrencyCode());
+        return true;
+    }
+
+    /**
+     * Link the blockchain transaction to the transfers of the settlement and their
+     * transactions, and track its confirmations.
+     */
+    private void trackOnChain(NettingSettlement settlement, String txHash) {
+        if (txHash == null) {
+            return;
+        }
+        settlement.setBlockchainTxHash(txHash);
+        transferRepository.updateSettlementChainStatus(settlement.getId(), txHash, ChainStatus.SUBMITTED);
+
+        List<String> referenceIds = transferRepository.findIdsBySettlementId(settlement.getId()).stream()
+                .map(UUID::toString)
+                .toList();
+        for (int i = 0; i < referenceIds.size(); i += QUERY_CHUNK_SIZE) {
+            transactionRepository.updateChainStatusByReferenceIds(
+                    referenceIds.subList(i, Math.min(i + QUERY_CHUNK_SIZE, referenceIds.size())),
+                    txHash, ChainStatus.SUBMITTED);
+        }
+
+        // The transactions are linked by hash, since they do not share a reference
+        confirmationTracker.track(txHash, null);
+    }
+}
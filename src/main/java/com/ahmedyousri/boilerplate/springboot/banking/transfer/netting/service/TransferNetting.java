@@ -0,0 +1,189 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.service.JobCoordinator;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.config.TransferNettingConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.entity.NettingSettlement;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.repository.NettingSettlementRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Nets internal transfers between the same two accounts over a window.
+ *
+ * <p>A netted transfer moves both balances and records both customer-visible transactions when
+ * it is made, as any internal transfer does, but leaves its journal entry and chain command to
+ * the open settlement of the pair of accounts. Once the window of a settlement closes, it is
+ * posted as one journal entry and one chain command for the net amount, so transfers back and
+ * forth between two accounts cost one ledger and one chain write per window. Until then the
+ * balances of both accounts include the open settlement and their journal entries do not.</p>
+ *
+ * <p>Settlements are stored, so transfers accumulated when a node stops are settled by the
+ * next sweep of any node. Each sweep runs through the {@link JobCoordinator}, on one node of the
+ * cluster.</p>
+ */
+@Service
+public class TransferNetting {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferNetting.class);
+
+    private static final String SWEEP_JOB = "transfer-netting";
+
+    private final NettingSettlementRepository settlementRepository;
+
+    private final NettingSettler settler;
+
+    private final TransferNettingConfig config;
+
+    private final JobCoordinator jobCoordinator;
+
+    private final TaskScheduler taskScheduler;
+
+    private ScheduledFuture<?> sweeps;
+
+    public TransferNetting(NettingSettlementRepository settlementRepository,
+                           NettingSettler settler,
+                           TransferNettingConfig config,
+                           JobCoordinator jobCoordinator,
+                           TaskScheduler taskScheduler) {
+        this.settlementRepository = settlementRepository;
+        this.settler = settler;
+        this.config = config;
+        this.jobCoordinator = jobCoordinator;
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * Start settling closed windows, if netting is enabled.
+     */
+    @PostConstruct
+    public void initialize() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        sweeps = taskScheduler.scheduleWithFixedDelay(this::runSweep, Instant.now().plusMillis(config.getSweepIntervalMs()),
+                Duration.ofMillis(config.getSweepIntervalMs()));
+        log.info("Internal transfer netting started with a {} ms window", config.getWindowMs());
+    }
+
+    /**
+     * Stop settling. Open settlements are settled by the next node to sweep.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (sweeps != null) {
+            sweeps.cancel(true);
+        }
+    }
+
+    /**
+     * Check whether internal transfers are netted.
+     *
+     * @return True if internal transfers are netted
+     */
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Add a transfer to the open settlement of its pair of accounts, opening one if there is
+     * none. Both accounts must be locked, which keeps transfers of the pair from opening two
+     * settlements at once.
+     *
+     * @param source      The account debited
+     * @param destination The account credited
+     * @param amount      The amount
+     * @return The settlement of the transfer
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public NettingSettlement add(Account source, Account destination, BigDecimal amount) {
+        boolean forward = source.getId().compareTo(destination.getId()) < 0;
+        Account first = forward ? source : destination;
+        Account second = forward ? destination : source;
+
+        NettingSettlement settlement = settlementRepository.findOpenForUpdate(first.getId(), second.getId())
+                .orElseGet(() -> NettingSettlement.builder()
+                        .firstAccount(first)
+                        .secondAccount(second)
+                        .currencyCode(source.getCurrencyCode())
+                        .netAmount(BigDecimal.ZERO)
+                        .grossAmount(BigDecimal.ZERO)
+                        .status(NettingSettlement.SettlementStatus.OPEN)
+                        .openedAt(LocalDateTime.now())
+                        .build());
+
+        settlement.setNetAmount(forward ? settlement.getNetAmount().add(amount) : settlement.getNetAmount().subtract(amount));
+        settlement.setGrossAmount(settlement.getGrossAmount().add(amount));
+        settlement.setTransferCount(settlement.getTransferCount() + 1);
+        return settlementRepository.save(settlement);
+    }
+
+    /**
+     * Get the net amount moved into an account by transfers not yet settled.
+     *
+     * @param accountId The account ID
+     * @return The net amount; negative when more moved out
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getOpenPosition(UUID accountId) {
+        return settlementRepository.sumOpenPosition(accountId);
+    }
+
+    /**
+     * Settle the open settlements whose window closed.
+     *
+     * @param now The current time
+     * @return The number of settlements settled
+     */
+    public int settleDue(LocalDateTime now) {
+        LocalDateTime openedBefore = now.minus(Duration.ofMillis(config.getWindowMs()));
+        int settled = 0;
+        while (true) {
+            List<UUID> due = settlementRepository.findDue(openedBefore, PageRequest.of(0, config.getBatchSize()));
+            boolean failed = false;
+            for (UUID settlementId : due) {
+                try {
+                    if (settler.settle(settlementId)) {
+                        settled++;
+                    }
+                } catch (Exception e) {
+                    // Left open, and retried by the next sweep
+                    log.error("Failed to settle netting settlement {}: {}", settlementId, e.getMessage(), e);
+                    failed = true;
+                }
+            }
+            if (failed || due.size() < config.getBatchSize()) {
+                return settled;
+            }
+        }
+    }
+
+    /**
+     * Settle due settlements on one node per sweep interval. Each settlement commits on its own,
+     * so the sweep runs outside a transaction.
+     */
+    private void runSweep() {
+        try {
+            String runKey = "sweep-" + System.currentTimeMillis() / Math.max(1, config.getSweepIntervalMs());
+            jobCoordinator.runOnceWithoutTransaction(SWEEP_JOB, runKey, () -> settleDue(LocalDateTime.now()));
+        } catch (Exception e) {
+            log.error("Netting sweep failed: {}", e.getMessage(), e);
+        }
+    }
+}
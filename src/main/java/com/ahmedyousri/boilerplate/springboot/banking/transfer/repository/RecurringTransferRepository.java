@@ -63,6 +63,16 @@ public interface RecurringTransferRepository extends JpaRepository<RecurringTran
      */
     List<RecurringTransfer> findByNextExecutionAtLessThanEqual(LocalDateTime dateTime);
     
+    /**
+     * Find recurring transfers due by the given date with IDs in a range, such as a shard of a batch job.
+     * 
+     * @param dateTime The date to compare with
+     * @param firstId  The lowest ID
+     * @param lastId   The highest ID
+     * @return List of recurring transfers that need to be executed
+     */
+    List<RecurringTransfer> findByNextExecutionAtLessThanEqualAndIdBetween(LocalDateTime dateTime, UUID firstId, UUID lastId);
+    
     /**
      * Find recurring transfers with next execution date less than or equal to the given date.
      * 
@@ -1,12 +1,25 @@
 package com.ahmedyousri.boilerplate.springboot.banking.transfer.repository;
 
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
 import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model.ClearingItem;
 import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.Transfer;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.model.TransferSummary;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.scheduling.model.DueTransfer;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,6 +27,31 @@ import java.util.UUID;
 @Repository
 public interface TransferRepository extends JpaRepository<Transfer, UUID>, JpaSpecificationExecutor<Transfer> {
     
+    String SUMMARY_SELECT = "SELECT new com.ahmedyousri.boilerplate.springboot.banking.transfer.model.TransferSummary(" +
+            "t.id, t.sourceAccount.id, t.destinationAccountNumber, t.amount, t.currencyCode, " +
+            "t.type, t.status, t.createdAt, t.completedAt) FROM Transfer t ";
+    
+    String SUMMARY_FILTERS = "WHERE t.customer.id = :customerId " +
+            "AND (:status IS NULL OR t.status = :status) " +
+            "AND (:type IS NULL OR t.type = :type) " +
+            "AND (:from IS NULL OR t.createdAt >= :from) " +
+            "AND (:until IS NULL OR t.createdAt < :until) ";
+    
+    String SUMMARY_ORDER = "ORDER BY t.createdAt DESC, t.id DESC";
+    
+    String STATUS = "com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.Transfer.TransferStatus.";
+    
+    String DUE_SELECT = "SELECT new com.ahmedyousri.boilerplate.springboot.banking.transfer.scheduling.model.DueTransfer(" +
+            "t.id, t.scheduledFor) FROM Transfer t ";
+    
+    String DUE_FILTERS = "WHERE t.status = " + STATUS + "SCHEDULED AND t.scheduledFor <= :until ";
+    
+    String DUE_ORDER = "ORDER BY t.scheduledFor, t.id";
+    
+    String CLEARED = "WHERE t.clearingBatchId = :batchId AND t.status = " + STATUS + "COMPLETED ";
+    
+    String CLEARED_UNSUBMITTED = CLEARED + "AND t.sourceAccount.id = :accountId AND t.chainStatus IS NULL";
+    
     List<Transfer> findByCustomer(Customer customer);
     
     List<Transfer> findByCustomerAndStatus(Customer customer, Transfer.TransferStatus status);
@@ -42,4 +80,238 @@ public interface TransferRepository extends JpaRepository<Transfer, UUID>, JpaSp
     boolean existsByReferenceIdAndType(String referenceId, Transfer.TransferType type);
     
     Optional<Transfer> findByReferenceId(String referenceId);
+    
+    /**
+     * List the first page of the transfers of a customer, newest first.
+     * Only the listed columns are read, and the source account ID comes from the foreign key,
+     * so neither transfers nor accounts are loaded.
+     * 
+     * @param customerId The customer ID
+     * @param status The status to filter by, or null
+     * @param type The type to filter by, or null
+     * @param from The earliest creation time, or null
+     * @param until The creation time to list until, exclusive, or null
+     * @param pageable The page size, and an offset for clients still paging by number
+     * @return The page of transfers, with whether another follows
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_FILTERS + SUMMARY_ORDER)
+    Slice<TransferSummary> findSummaries(@Param("customerId") UUID customerId,
+                                         @Param("status") Transfer.TransferStatus status,
+                                         @Param("type") Transfer.TransferType type,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("until") LocalDateTime until,
+                                         Pageable pageable);
+    
+    /**
+     * List the transfers of a customer that follow a position in the order of
+     * {@link #findSummaries}. The query seeks to the position in the
+     * (customer_id, created_at, id) index instead of skipping the rows before it, so every
+     * page costs the same as the first.
+     * 
+     * @param customerId The customer ID
+     * @param status The status to filter by, or null
+     * @param type The type to filter by, or null
+     * @param from The earliest creation time, or null
+     * @param until The creation time to list until, exclusive, or null
+     * @param afterCreatedAt The creation time of the last transfer of the previous page
+     * @param afterId The ID of the last transfer of the previous page
+     * @param pageable The page size
+     * @return The page of transfers, with whether another follows
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_FILTERS + "AND (t.createdAt, t.id) < (:afterCreatedAt, :afterId) " + SUMMARY_ORDER)
+    Slice<TransferSummary> findSummariesAfter(@Param("customerId") UUID customerId,
+                                              @Param("status") Transfer.TransferStatus status,
+                                              @Param("type") Transfer.TransferType type,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("until") LocalDateTime until,
+                                              @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                              @Param("afterId") UUID afterId,
+                                              Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE Transfer t SET t.chainStatus = :chainStatus, t.blockHeight = :blockHeight, " +
+           "t.confirmations = :confirmations WHERE t.blockchainTxHash = :txHash")
+    int updateChainStatus(@Param("txHash") String txHash,
+                          @Param("chainStatus") ChainStatus chainStatus,
+                          @Param("blockHeight") Long blockHeight,
+                          @Param("confirmations") Integer confirmations);
+    
+    /**
+     * Get a transfer, locking it until the end of the current transaction.
+     * 
+     * @param id The transfer ID
+     * @return The locked transfer
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transfer t WHERE t.id = :id")
+    Optional<Transfer> findByIdForUpdate(@Param("id") UUID id);
+    
+    /**
+     * Get the first page of scheduled transfers due by a time, earliest first.
+     * 
+     * @param until    The time
+     * @param pageable The page size
+     * @return The page of transfers, with whether another follows
+     */
+    @Query(DUE_SELECT + DUE_FILTERS + DUE_ORDER)
+    Slice<DueTransfer> findDue(@Param("until") LocalDateTime until, Pageable pageable);
+    
+    /**
+     * Get the page of scheduled transfers due by a time that follows the last transfer of the
+     * previous page.
+     * 
+     * @param until              The time
+     * @param afterScheduledFor  When the last transfer of the previous page is due
+     * @param afterId            The ID of the last transfer of the previous page
+     * @param pageable           The page size
+     * @return The page of transfers, with whether another follows
+     */
+    @Query(DUE_SELECT + DUE_FILTERS + "AND (t.scheduledFor, t.id) > (:afterScheduledFor, :afterId) " + DUE_ORDER)
+    Slice<DueTransfer> findDueAfter(@Param("until") LocalDateTime until,
+                                    @Param("afterScheduledFor") LocalDateTime afterScheduledFor,
+                                    @Param("afterId") UUID afterId,
+                                    Pageable pageable);
+    
+    /**
+     * Get scheduled transfers whose execution lease expired before they were executed.
+     * 
+     * @param now      The current time
+     * @param pageable The page size
+     * @return The transfers
+     */
+    @Query(DUE_SELECT + "WHERE t.status = " + STATUS + "PROCESSING AND t.leaseExpiresAt < :now " + DUE_ORDER)
+    List<DueTransfer> findExpiredLeases(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    /**
+     * Lease scheduled transfers that are due and not leased by another node, moving them to
+     * PROCESSING.
+     * 
+     * @param ids       The transfer IDs
+     * @param owner     The lease owner
+     * @param now       The current time
+     * @param expiresAt When the lease expires
+     * @return The number of transfers leased
+     */
+    @Modifying
+    @Query("UPDATE Transfer t SET t.status = " + STATUS + "PROCESSING, t.leaseOwner = :owner, " +
+           "t.leaseExpiresAt = :expiresAt WHERE t.id IN :ids AND t.scheduledFor <= :now " +
+           "AND (t.status = " + STATUS + "SCHEDULED " +
+           "OR (t.status = " + STATUS + "PROCESSING AND t.leaseExpiresAt < :now))")
+    int claimDue(@Param("ids") Collection<UUID> ids,
+                 @Param("owner") String owner,
+                 @Param("now") LocalDateTime now,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Query("SELECT t.id FROM Transfer t WHERE t.id IN :ids AND t.leaseOwner = :owner " +
+           "AND t.status = " + STATUS + "PROCESSING")
+    List<UUID> findLeased(@Param("ids") Collection<UUID> ids, @Param("owner") String owner);
+    
+    @Modifying
+    @Query("UPDATE Transfer t SET t.status = " + STATUS + "FAILED WHERE t.id = :id AND t.leaseOwner = :owner " +
+           "AND t.status = " + STATUS + "PROCESSING")
+    int failLeased(@Param("id") UUID id, @Param("owner") String owner);
+    
+    /**
+     * Get the IDs of the transfers settled by a netting settlement.
+     * 
+     * @param settlementId The settlement ID
+     * @return The transfer IDs
+     */
+    @Query("SELECT t.id FROM Transfer t WHERE t.settlementId = :settlementId")
+    List<UUID> findIdsBySettlementId(@Param("settlementId") UUID settlementId);
+    
+    /**
+     * Record the blockchain transaction of a netting settlement on the transfers it settles.
+     * 
+     * @param settlementId The settlement ID
+     * @param txHash The blockchain transaction hash
+     * @param chainStatus The on-chain state
+     * @return The number of transfers updated
+     */
+    @Modifying
+    @Query("UPDATE Transfer t SET t.blockchainTxHash = :txHash, t.chainStatus = :chainStatus " +
+           "WHERE t.settlementId = :settlementId")
+    int updateSettlementChainStatus(@Param("settlementId") UUID settlementId,
+                                    @Param("txHash") String txHash,
+                                    @Param("chainStatus") ChainStatus chainStatus);
+    
+    /**
+     * Count the transfers sent in a clearing batch, not counting those returned.
+     * 
+     * @param batchId The batch ID
+     * @return The number of transfers
+     */
+    @Query("SELECT COUNT(t) FROM Transfer t " + CLEARED)
+    long countCleared(@Param("batchId") UUID batchId);
+    
+    /**
+     * Sum the transfers sent in a clearing batch, not counting those returned.
+     * 
+     * @param batchId The batch ID
+     * @return The total amount
+     */
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transfer t " + CLEARED)
+    BigDecimal sumCleared(@Param("batchId") UUID batchId);
+    
+    /**
+     * List the transfers of a clearing batch as they are written to its file, in order of ID.
+     * Only the written columns are read, so neither transfers nor accounts are loaded.
+     * 
+     * @param batchId The batch ID
+     * @param afterId The ID of the last transfer of the previous page
+     * @param pageable The page size
+     * @return The page of transfers
+     */
+    @Query("SELECT new com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model.ClearingItem(" +
+           "t.id, t.sourceAccount.accountNumber, t.destinationAccountNumber, t.amount, t.description) " +
+           "FROM Transfer t " + CLEARED + "AND t.id > :afterId ORDER BY t.id")
+    List<ClearingItem> findClearingItems(@Param("batchId") UUID batchId,
+                                         @Param("afterId") UUID afterId,
+                                         Pageable pageable);
+    
+    /**
+     * Get the source accounts of the transfers of a clearing batch not yet withdrawn on chain.
+     * 
+     * @param batchId The batch ID
+     * @return The account IDs
+     */
+    @Query("SELECT DISTINCT t.sourceAccount.id FROM Transfer t " + CLEARED + "AND t.chainStatus IS NULL")
+    List<UUID> findUnsubmittedClearingAccountIds(@Param("batchId") UUID batchId);
+    
+    /**
+     * Get the transfers of a clearing batch from an account not yet withdrawn on chain.
+     * 
+     * @param batchId The batch ID
+     * @param accountId The source account ID
+     * @return The transfer IDs
+     */
+    @Query("SELECT t.id FROM Transfer t " + CLEARED_UNSUBMITTED)
+    List<UUID> findUnsubmittedClearingIds(@Param("batchId") UUID batchId, @Param("accountId") UUID accountId);
+    
+    /**
+     * Sum the transfers of a clearing batch from an account not yet withdrawn on chain, in the
+     * currency of the account.
+     * 
+     * @param batchId The batch ID
+     * @param accountId The source account ID
+     * @return The total amount
+     */
+    @Query("SELECT COALESCE(SUM(COALESCE(t.sourceAmount, t.amount)), 0) FROM Transfer t " + CLEARED_UNSUBMITTED)
+    BigDecimal sumUnsubmittedClearing(@Param("batchId") UUID batchId, @Param("accountId") UUID accountId);
+    
+    /**
+     * Record the withdrawal on chain of the transfers of a clearing batch from an account.
+     * 
+     * @param batchId The batch ID
+     * @param accountId The source account ID
+     * @param txHash The blockchain transaction hash, or null
+     * @param chainStatus The on-chain state
+     * @return The number of transfers updated
+     */
+    @Modifying
+    @Query("UPDATE Transfer t SET t.blockchainTxHash = :txHash, t.chainStatus = :chainStatus " + CLEARED_UNSUBMITTED)
+    int updateClearingChainStatus(@Param("batchId") UUID batchId,
+                                  @Param("accountId") UUID accountId,
+                                  @Param("txHash") String txHash,
+                                  @Param("chainStatus") ChainStatus chainStatus);
 }
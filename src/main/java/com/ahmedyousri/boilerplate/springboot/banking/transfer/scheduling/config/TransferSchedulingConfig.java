@@ -0,0 +1,52 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.scheduling.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the execution of scheduled transfers.
+ */
+@Configuration
+@Getter
+public class TransferSchedulingConfig {
+
+    @Value("${app.transfers.scheduling.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * The resolution of the timing wheel; transfers are dispatched within a tick of being due.
+     */
+    @Value("${app.transfers.scheduling.tick.ms:100}")
+    private long tickMs;
+
+    /**
+     * Transfers due within this window are held in memory.
+     */
+    @Value("${app.transfers.scheduling.horizon.ms:600000}")
+    private long horizonMs;
+
+    /**
+     * How often the window is loaded from the due-time index; shorter than the horizon.
+     */
+    @Value("${app.transfers.scheduling.load.interval.ms:60000}")
+    private long loadIntervalMs;
+
+    /**
+     * How long a node holds the transfers it claimed before another node may claim them.
+     */
+    @Value("${app.transfers.scheduling.lease.ms:300000}")
+    private long leaseMs;
+
+    @Value("${app.transfers.scheduling.batch.size:100}")
+    private int batchSize;
+
+    @Value("${app.transfers.scheduling.dispatch.threads:4}")
+    private int dispatchThreads;
+
+    /**
+     * The most transfers held in memory; the rest of the window is loaded as they are executed.
+     */
+    @Value("${app.transfers.scheduling.max.queued:100000}")
+    private int maxQueued;
+}
@@ -0,0 +1,18 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.scheduling.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A scheduled transfer and when it is due, read from the due-time index without loading the
+ * transfer.
+ */
+@Value
+public class DueTransfer {
+
+    UUID id;
+
+    LocalDateTime scheduledFor;
+}
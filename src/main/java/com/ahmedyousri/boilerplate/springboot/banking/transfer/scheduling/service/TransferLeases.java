@@ -0,0 +1,56 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.scheduling.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.repository.TransferRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Leases that let exactly one node execute each scheduled transfer.
+ *
+ * <p>A node claims a batch of due transfers with one conditional update, which only matches
+ * transfers still SCHEDULED or whose lease has expired, so of nodes claiming the same transfer
+ * only one succeeds. The transfer is then executed under a lock on its row, and only while the
+ * lease is still held by the claim; a node claiming it again after the lease expired waits for
+ * that lock, and no longer matches once the transfer has completed.</p>
+ */
+@Service
+@RequiredArgsConstructor
+public class TransferLeases {
+
+    private final TransferRepository transferRepository;
+
+    /**
+     * Lease the due transfers of a batch that no other node holds.
+     *
+     * @param transferIds The transfer IDs
+     * @param owner       The lease owner, unique to the claim
+     * @param now         The current time
+     * @param expiresAt   When the lease expires
+     * @return The IDs of the transfers leased
+     */
+    @Transactional
+    public List<UUID> claim(Collection<UUID> transferIds, String owner, LocalDateTime now, LocalDateTime expiresAt) {
+        if (transferIds.isEmpty() || transferRepository.claimDue(transferIds, owner, now, expiresAt) == 0) {
+            return List.of();
+        }
+        return transferRepository.findLeased(transferIds, owner);
+    }
+
+    /**
+     * Mark a leased transfer as failed.
+     *
+     * @param transferId The transfer ID
+     * @param owner      The lease owner
+     * @return Whether the lease was still held
+     */
+    @Transactional
+    public boolean fail(UUID transferId, String owner) {
+        return transferRepository.failLeased(transferId, owner) > 0;
+    }
+}
@@ -0,0 +1,283 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.scheduling.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.repository.TransferRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.scheduling.config.TransferSchedulingConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.scheduling.model.DueTransfer;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.service.TransferService;
+import com.ahmedyousri.boilerplate.springboot.banking.util.DaemonThreads;
+import com.ahmedyousri.boilerplate.springboot.banking.util.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executes scheduled transfers when they are due.
+ *
+ * <p>Transfers due within {@code app.transfers.scheduling.horizon.ms} are loaded from the
+ * due-time index into a {@link TimingWheel}, at most {@code app.transfers.scheduling.max.queued}
+ * of them, and the window is reloaded every {@code app.transfers.scheduling.load.interval.ms};
+ * transfers due later are not read at all. A transfer scheduled within the window is added to
+ * the wheel once its transaction commits. Every tick, the transfers that fell due are
+ * dispatched in batches: each batch is leased with {@link TransferLeases}, and only the
+ * transfers leased are executed, so each runs on exactly one node.</p>
+ *
+ * <p>Each load also picks up transfers that fell due while no node was running, and transfers
+ * whose lease expired because the node executing them stopped, so these are executed at the
+ * next tick.</p>
+ */
+@Service
+public class TransferScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferScheduler.class);
+
+    private static final int WHEEL_SIZE = 512;
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private final TransferRepository transferRepository;
+
+    private final TransferLeases transferLeases;
+
+    private final TransferService transferService;
+
+    private final TransferSchedulingConfig config;
+
+    private final TimingWheel<UUID> wheel;
+
+    /**
+     * Transfers in the wheel or being dispatched, so a load does not add them again.
+     */
+    private final Set<UUID> queued = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService dispatchExecutor;
+
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final AtomicLong claims = new AtomicLong();
+
+    private final TaskScheduler taskScheduler;
+
+    private ScheduledFuture<?> loads;
+
+    private ScheduledFuture<?> ticks;
+
+    /**
+     * Create the scheduler. The transfer service is resolved lazily, since scheduling a transfer
+     * registers it here.
+     */
+    public TransferScheduler(TransferRepository transferRepository,
+                             TransferLeases transferLeases,
+                             @Lazy TransferService transferService,
+                             TransferSchedulingConfig config,
+                             TaskScheduler taskScheduler) {
+        this.transferRepository = transferRepository;
+        this.transferLeases = transferLeases;
+        this.transferService = transferService;
+        this.config = config;
+        this.taskScheduler = taskScheduler;
+        this.wheel = new TimingWheel<>(Math.max(1, config.getTickMs()), WHEEL_SIZE, System.currentTimeMillis());
+        this.dispatchExecutor = Executors.newFixedThreadPool(
+                Math.max(1, config.getDispatchThreads()), DaemonThreads.named("transfer-dispatch-"));
+    }
+
+    /**
+     * Start loading and dispatching, unless disabled.
+     */
+    @PostConstruct
+    public void initialize() {
+        if (!config.isEnabled()) {
+            log.info("Scheduled transfer execution disabled");
+            return;
+        }
+
+        loads = taskScheduler.scheduleWithFixedDelay(this::runLoad, Instant.now(), Duration.ofMillis(config.getLoadIntervalMs()));
+        ticks = taskScheduler.scheduleAtFixedRate(this::runTick, Instant.now().plusMillis(config.getTickMs()),
+                Duration.ofMillis(config.getTickMs()));
+        log.info("Scheduled transfer execution started on {} with a {} ms tick and a {} ms horizon",
+                nodeId, config.getTickMs(), config.getHorizonMs());
+    }
+
+    /**
+     * Stop loading and dispatching. Transfers leased but not executed are claimed again once
+     * their lease expires.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (loads != null) {
+            loads.cancel(true);
+            ticks.cancel(true);
+        }
+        dispatchExecutor.shutdownNow();
+    }
+
+    /**
+     * Register a scheduled transfer once the current transaction commits. Transfers due beyond
+     * the window are left to a later load.
+     *
+     * @param transferId   The transfer ID
+     * @param scheduledFor When the transfer is due
+     */
+    public void register(UUID transferId, LocalDateTime scheduledFor) {
+        if (ticks == null || scheduledFor.isAfter(LocalDateTime.now().plus(Duration.ofMillis(config.getHorizonMs())))) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(transferId, scheduledFor);
+                }
+            });
+        } else {
+            enqueue(transferId, scheduledFor);
+        }
+    }
+
+    /**
+     * Load the transfers due within the window, and those whose lease expired, into the wheel.
+     *
+     * @return The number of transfers added
+     */
+    public int load() {
+        LocalDateTime now = LocalDateTime.now();
+        int added = 0;
+        for (DueTransfer transfer : transferRepository.findExpiredLeases(now, PageRequest.of(0, LOAD_PAGE_SIZE))) {
+            added += enqueue(transfer.getId(), transfer.getScheduledFor());
+        }
+
+        LocalDateTime until = now.plus(Duration.ofMillis(config.getHorizonMs()));
+        Slice<DueTransfer> page = transferRepository.findDue(until, PageRequest.of(0, LOAD_PAGE_SIZE));
+        while (true) {
+            for (DueTransfer transfer : page.getContent()) {
+                added += enqueue(transfer.getId(), transfer.getScheduledFor());
+            }
+            if (!page.hasNext() || queued.size() >= config.getMaxQueued()) {
+                return added;
+            }
+            DueTransfer last = page.getContent().get(page.getContent().size() - 1);
+            page = transferRepository.findDueAfter(until, last.getScheduledFor(), last.getId(),
+                    PageRequest.of(0, LOAD_PAGE_SIZE));
+        }
+    }
+
+    /**
+     * Lease a batch of due transfers and execute those leased.
+     *
+     * @param transferIds The transfer IDs
+     * @return The number of transfers executed
+     */
+    public int dispatch(List<UUID> transferIds) {
+        String owner = nodeId + "#" + claims.incrementAndGet();
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<UUID> leased = transferLeases.claim(transferIds, owner, now, now.plus(Duration.ofMillis(config.getLeaseMs())));
+            int executed = 0;
+            for (UUID transferId : leased) {
+                try {
+                    if (transferService.executeScheduledTransfer(transferId, owner) != null) {
+                        executed++;
+                    }
+                } catch (Exception e) {
+                    log.warn("Scheduled transfer {} failed: {}", transferId, e.getMessage());
+                    fail(transferId, owner);
+                }
+            }
+            if (leased.size() < transferIds.size()) {
+                log.debug("{} of {} due transfers were cancelled or leased by another node",
+                        transferIds.size() - leased.size(), transferIds.size());
+            }
+            return executed;
+        } catch (RuntimeException e) {
+            log.warn("Failed to lease {} due transfers: {}", transferIds.size(), e.getMessage());
+            return 0;
+        } finally {
+            transferIds.forEach(queued::remove);
+        }
+    }
+
+    /**
+     * Get the number of transfers in the wheel or being dispatched.
+     *
+     * @return The number of transfers
+     */
+    public int getQueuedCount() {
+        return queued.size();
+    }
+
+    /**
+     * Advance the wheel to a time.
+     *
+     * @param nowMs The time in epoch milliseconds
+     * @return The IDs of the transfers due by then
+     */
+    List<UUID> advance(long nowMs) {
+        return wheel.advance(nowMs);
+    }
+
+    private int enqueue(UUID transferId, LocalDateTime scheduledFor) {
+        if (!queued.add(transferId)) {
+            return 0;
+        }
+        wheel.add(transferId, scheduledFor.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        return 1;
+    }
+
+    private void fail(UUID transferId, String owner) {
+        try {
+            transferLeases.fail(transferId, owner);
+        } catch (RuntimeException e) {
+            // The lease expires and the transfer is claimed again
+            log.warn("Failed to mark scheduled transfer {} as failed: {}", transferId, e.getMessage());
+        }
+    }
+
+    private void runLoad() {
+        try {
+            int added = load();
+            if (added > 0) {
+                log.info("Loaded {} due transfers; {} queued", added, queued.size());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to load due transfers: {}", e.getMessage());
+        }
+    }
+
+    private void runTick() {
+        List<UUID> due = advance(System.currentTimeMillis());
+        int batchSize = Math.max(1, config.getBatchSize());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<UUID> batch = new ArrayList<>(due.subList(from, Math.min(from + batchSize, due.size())));
+            try {
+                dispatchExecutor.execute(() -> dispatch(batch));
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the transfers are loaded again on restart
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.account.service.AccountService;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.entity.JournalEntry;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.ResourceNotFoundException;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.TransactionType;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.service.TransactionPosting;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.service.TransactionService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Moves money between two of our own accounts within the ledger.
+ *
+ * <p>Both accounts are locked before either balance is read, always in the order of their IDs,
+ * so two transfers between the same accounts in opposite directions wait for each other
+ * instead of deadlocking. The transfer is then posted as one balanced journal entry that debits
+ * the source and credits the destination, and both customer-visible transactions are inserted
+ * in one batch. A netted transfer only moves the balances and records the transactions; its
+ * journal entry is posted later for the net of the transfers between the two accounts. A
+ * transfer between accounts in different currencies is posted through the clearing account of
+ * each currency instead.</p>
+ */
+@Service
+@RequiredArgsConstructor
+public class InternalTransferEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(InternalTransferEngine.class);
+
+    private final AccountRepository accountRepository;
+    private final AccountService accountService;
+    private final AccountingService accountingService;
+    private final TransactionService transactionService;
+
+    /**
+     * Lock accounts until the end of the current transaction, in the order of their IDs.
+     *
+     * @param accountIds The account IDs
+     * @return The locked accounts by ID
+     * @throws ResourceNotFoundException If an account does not exist
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<UUID, Account> lock(Collection<UUID> accountIds) {
+        Map<UUID, Account> accounts = new LinkedHashMap<>();
+        for (UUID accountId : new TreeSet<>(accountIds)) {
+            accounts.put(accountId, accountRepository.findByIdForUpdate(accountId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Account", "id", accountId)));
+        }
+        return accounts;
+    }
+
+    /**
+     * Lock both accounts and transfer between them.
+     *
+     * @param sourceAccountId      The account to debit
+     * @param destinationAccountId The account to credit
+     * @param amount               The amount
+     * @param description          Description of the transfer, or null
+     * @param referenceId          Reference to the transfer, shared by its journal entry and both transactions
+     * @return The journal entry of the transfer
+     * @throws ResourceNotFoundException If either account does not exist
+     * @throws BusinessRuleException     If the transfer is not allowed or the source has insufficient funds
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public JournalEntry transfer(UUID sourceAccountId, UUID destinationAccountId, BigDecimal amount,
+                                 String description, UUID referenceId) {
+        Map<UUID, Account> accounts = lock(List.of(sourceAccountId, destinationAccountId));
+        return post(accounts.get(sourceAccountId), accounts.get(destinationAccountId), amount, description, referenceId);
+    }
+
+    /**
+     * Transfer between two accounts already locked with {@link #lock(Collection)}.
+     *
+     * @param source      The account to debit
+     * @param destination The account to credit
+     * @param amount      The amount
+     * @param description Description of the transfer, or null
+     * @param referenceId Reference to the transfer, shared by its journal entry and both transactions
+     * @return The journal entry of the transfer
+     * @throws BusinessRuleException If the transfer is not allowed or the source has insufficient funds
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public JournalEntry post(Account source, Account destination, BigDecimal amount,
+                             String description, UUID referenceId) {
+        move(source, destination, amount, description, referenceId);
+
+        // Create one journal entry debiting the source and crediting the destination
+        return accountingService.createTransferJournalEntry(source, destination, amount,
+                "Transfer from " + source.getAccountNumber() + " to " + destination.getAccountNumber() + suffix(description),
+                referenceId);
+    }
+
+    /**
+     * Move the balances of two accounts already locked with {@link #lock(Collection)} and record
+     * both customer-visible transactions, leaving the journal entry to the caller, such as a
+     * transfer netted with others.
+     *
+     * @param source      The account to debit
+     * @param destination The account to credit
+     * @param amount      The amount
+     * @param description Description of the transfer, or null
+     * @param referenceId Reference to the transfer, shared by both transactions
+     * @throws BusinessRuleException If the transfer is not allowed or the source has insufficient funds
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void move(Account source, Account destination, BigDecimal amount,
+                     String description, UUID referenceId) {
+        validate(source, destination);
+        if (!source.getCurrencyCode().equals(destination.getCurrencyCode())) {
+            throw new BusinessRuleException(
+                    "Cannot transfer from " + source.getCurrencyCode() + " to " + destination.getCurrencyCode(),
+                    "CURRENCY_MISMATCH");
+        }
+
+        // 1. Move the balances
+        accountService.performDebit(source, amount);
+        accountService.performCredit(destination, amount);
+
+        // 2. Record both customer-visible transactions
+        transactionService.recordTransactions(List.of(
+                new TransactionPosting(source, TransactionType.DEBIT, amount,
+                        "Transfer to " + destination.getAccountNumber() + suffix(description), referenceId.toString()),
+                new TransactionPosting(destination, TransactionType.CREDIT, amount,
+                        "Transfer from " + source.getAccountNumber() + suffix(description), referenceId.toString())));
+
+        // 3. Save both accounts
+        accountRepository.saveAll(List.of(source, destination));
+
+        log.info("Transferred {} {} from account {} to account {}",
+                amount, source.getCurrencyCode(), source.getId(), destination.getId());
+    }
+
+    /**
+     * Transfer between two accounts in different currencies, already locked with
+     * {@link #lock(Collection)}, posted through the clearing account of each currency.
+     *
+     * @param source            The account to debit
+     * @param destination       The account to credit
+     * @param sourceAmount      The amount to debit, in the currency of the source
+     * @param destinationAmount The amount to credit, in the currency of the destination
+     * @param description       Description of the transfer, or null
+     * @param referenceId       Reference to the transfer, shared by its journal entry and both transactions
+     * @return The journal entry of the transfer
+     * @throws BusinessRuleException If the transfer is not allowed or the source has insufficient funds
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public JournalEntry exchange(Account source, Account destination, BigDecimal sourceAmount,
+                                 BigDecimal destinationAmount, String description, UUID referenceId) {
+        validate(source, destination);
+
+        // 1. Move the balances, each in its own currency
+        accountService.performDebit(source, sourceAmount);
+        accountService.performCredit(destination, destinationAmount);
+
+        // 2. Record both customer-visible transactions
+        transactionService.recordTransactions(List.of(
+                new TransactionPosting(source, TransactionType.DEBIT, sourceAmount,
+                        "Transfer to " + destination.getAccountNumber() + suffix(description), referenceId.toString()),
+                new TransactionPosting(destination, TransactionType.CREDIT, destinationAmount,
+                        "Transfer from " + source.getAccountNumber() + suffix(description), referenceId.toString())));
+
+        // 3. Save both accounts
+        accountRepository.saveAll(List.of(source, destination));
+
+        log.info("Exchanged {} {} from account {} to {} {} on account {}", sourceAmount, source.getCurrencyCode(),
+                source.getId(), destinationAmount, destination.getCurrencyCode(), destination.getId());
+
+        // 4. Create one journal entry through the clearing accounts of both currencies
+        return accountingService.createExchangeJournalEntry(source, sourceAmount, destination, destinationAmount,
+                "Transfer from " + source.getAccountNumber() + " to " + destination.getAccountNumber() + suffix(description),
+                referenceId);
+    }
+
+    /**
+     * Check that a transfer between two accounts is allowed, before anything of it is submitted
+     * on chain. Posting the transfer checks it again.
+     *
+     * @param source      The account to debit
+     * @param destination The account to credit
+     * @throws BusinessRuleException If the accounts are the same, or the destination is not active
+     */
+    public void validate(Account source, Account destination) {
+        if (source.getId().equals(destination.getId())) {
+            throw new BusinessRuleException("Cannot transfer to the source account", "SAME_ACCOUNT_TRANSFER");
+        }
+        if (destination.getStatus() != AccountStatus.ACTIVE) {
+            throw new BusinessRuleException("Destination account is not active", "DESTINATION_ACCOUNT_INACTIVE");
+        }
+    }
+
+    private static String suffix(String description) {
+        return description == null || description.isBlank() ? "" : ": " + description;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ahmedyousri.boilerplate.springboot.banking.transfer.service;
 
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
 import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.Transfer;
 import com.ahmedyousri.boilerplate.springboot.model.generated.*;
 
@@ -15,9 +16,10 @@ public interface TransferService {
      * @param type Optional filter by transfer type
      * @param startDate Optional start date for filtering transfers
      * @param endDate Optional end date for filtering transfers
-     * @param page Optional page number for pagination
+     * @param page Optional page number for pagination, ignored when a cursor is given
      * @param pageSize Optional number of items per page
-     * @return List of transfers
+     * @param cursor Optional cursor from the previous page
+     * @return List of transfers, with the cursor of the next page if there is one
      */
     TransfersListResponse getCustomerTransfers(
         String status, 
@@ -25,7 +27,8 @@ public interface TransferService {
         LocalDate startDate, 
         LocalDate endDate, 
         Integer page, 
-        Integer pageSize
+        Integer pageSize,
+        String cursor
     );
     
     /**
@@ -36,6 +39,15 @@ public interface TransferService {
      */
     TransferResponse createTransfer(TransferCreationRequest request);
     
+    /**
+     * Create a new transfer on behalf of a customer, such as for a line of a bulk payment file
+     * 
+     * @param customer The customer making the transfer
+     * @param request Transfer creation details
+     * @return Created transfer details
+     */
+    TransferResponse createTransfer(Customer customer, TransferCreationRequest request);
+    
     /**
      * Get details of a specific transfer
      * 
@@ -109,4 +121,13 @@ public interface TransferService {
      * @return The executed transfer
      */
     Transfer executeRecurringTransfer(com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.RecurringTransfer recurringTransfer);
+    
+    /**
+     * Execute a scheduled transfer that fell due, while its lease is held
+     * 
+     * @param transferId ID of the scheduled transfer
+     * @param leaseOwner Owner of the lease on the transfer
+     * @return The executed transfer, or null if the lease is no longer held
+     */
+    Transfer executeScheduledTransfer(UUID transferId, String leaseOwner);
 }
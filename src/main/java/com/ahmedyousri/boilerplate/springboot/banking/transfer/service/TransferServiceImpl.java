@@ -2,22 +2,34 @@ package com.ahmedyousri.boilerplate.springboot.banking.transfer.service;
 
 import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
 import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.service.ConfirmationTracker;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.ChainSubmitter;
 import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
 import com.ahmedyousri.boilerplate.springboot.banking.customer.service.CurrentCustomerService;
 import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.DeadlineExceededException;
 import com.ahmedyousri.boilerplate.springboot.banking.exception.ResourceNotFoundException;
+import com.ahmedyousri.boilerplate.springboot.banking.fx.model.FxConversion;
+import com.ahmedyousri.boilerplate.springboot.banking.fx.service.FxRates;
+import com.ahmedyousri.boilerplate.springboot.banking.system.service.SystemAccountService;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.service.TransferClearing;
 import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.RecurringTransfer;
 import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.Transfer;
 import com.ahmedyousri.boilerplate.springboot.banking.transfer.mapper.TransferMapper;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.model.TransferCursor;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.model.TransferSummary;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.service.TransferNetting;
 import com.ahmedyousri.boilerplate.springboot.banking.transfer.repository.RecurringTransferRepository;
 import com.ahmedyousri.boilerplate.springboot.banking.transfer.repository.TransferRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.scheduling.service.TransferScheduler;
 import com.ahmedyousri.boilerplate.springboot.model.generated.*;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,7 +38,9 @@ import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -43,7 +57,14 @@ public class TransferServiceImpl implements TransferService {
     private final com.ahmedyousri.boilerplate.springboot.banking.account.service.AccountServiceImpl accountService;
     private final com.ahmedyousri.boilerplate.springboot.banking.transaction.service.TransactionService transactionService;
     private final com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService accountingService;
-    private final com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.BlockchainService blockchainService;
+    private final ChainSubmitter chainSubmitter;
+    private final ConfirmationTracker confirmationTracker;
+    private final InternalTransferEngine internalTransferEngine;
+    private final TransferScheduler transferScheduler;
+    private final TransferNetting transferNetting;
+    private final TransferClearing transferClearing;
+    private final FxRates fxRates;
+    private final SystemAccountService systemAccountService;
     
     @Override
     @Transactional(readOnly = true)
@@ -53,52 +74,39 @@ public class TransferServiceImpl implements TransferService {
             LocalDate startDate, 
             LocalDate endDate, 
             Integer page, 
-            Integer pageSize
+            Integer pageSize,
+            String cursor
     ) {
         Customer customer = currentCustomerService.getCurrentCustomer();
         
-        Pageable pageable = PageRequest.of(
-                page != null ? page - 1 : 0, 
-                pageSize != null ? pageSize : 20, 
-                Sort.by("createdAt").descending()
-        );
-        
-        List<Transfer> transfers;
-        
-        if (status != null && type != null) {
-            transfers = transferRepository.findAll((root, query, cb) -> 
-                cb.and(
-                    cb.equal(root.get("customer"), customer),
-                    cb.equal(root.get("status"), Transfer.TransferStatus.fromValue(status)),
-                    cb.equal(root.get("type"), Transfer.TransferType.fromValue(type))
-                ), 
-                pageable
-            ).getContent();
-        } else if (status != null) {
-            transfers = transferRepository.findAll((root, query, cb) -> 
-                cb.and(
-                    cb.equal(root.get("customer"), customer),
-                    cb.equal(root.get("status"), Transfer.TransferStatus.fromValue(status))
-                ), 
-                pageable
-            ).getContent();
-        } else if (type != null) {
-            transfers = transferRepository.findAll((root, query, cb) -> 
-                cb.and(
-                    cb.equal(root.get("customer"), customer),
-                    cb.equal(root.get("type"), Transfer.TransferType.fromValue(type))
-                ), 
-                pageable
-            ).getContent();
-        } else {
-            transfers = transferRepository.findAll((root, query, cb) -> 
-                cb.equal(root.get("customer"), customer), 
-                pageable
-            ).getContent();
+        // A page number is only used by clients that do not pass a cursor
+        TransferCursor after = cursor != null && !cursor.isBlank() ? TransferCursor.decode(cursor) : null;
+        int size = pageSize != null ? pageSize : 20;
+        int pageIndex = after == null && page != null ? page - 1 : 0;
+        
+        Transfer.TransferStatus statusFilter = status != null ? Transfer.TransferStatus.fromValue(status) : null;
+        Transfer.TransferType typeFilter = type != null ? Transfer.TransferType.fromValue(type) : null;
+        LocalDateTime from = startDate != null ? startDate.atStartOfDay() : null;
+        LocalDateTime until = endDate != null ? endDate.plusDays(1).atStartOfDay() : null;
+        
+        Slice<TransferSummary> transfers = after != null
+                ? transferRepository.findSummariesAfter(customer.getId(), statusFilter, typeFilter, from, until,
+                        after.getCreatedAt(), after.getId(), PageRequest.of(0, size))
+                : transferRepository.findSummaries(customer.getId(), statusFilter, typeFilter, from, until,
+                        PageRequest.of(pageIndex, size));
+        
+        // No total is counted; the next cursor tells whether another page follows
+        PaginationMetadata pagination = new PaginationMetadata();
+        pagination.setCurrentPage(pageIndex + 1);
+        pagination.setPageSize(size);
+        if (transfers.hasNext()) {
+            List<TransferSummary> content = transfers.getContent();
+            pagination.setNextCursor(TransferCursor.after(content.get(content.size() - 1)).encode());
         }
         
         TransfersListResponse response = new TransfersListResponse();
-        response.setTransfers(transferMapper.toTransferResponseList(transfers));
+        response.setTransfers(transferMapper.toTransferSummaryResponseList(transfers.getContent()));
+        response.setPagination(pagination);
         
         return response;
     }
@@ -106,42 +114,78 @@ public class TransferServiceImpl implements TransferService {
     @Override
     @Transactional(isolation = Isolation.SERIALIZABLE)
     public TransferResponse createTransfer(TransferCreationRequest request) {
-        Customer customer = currentCustomerService.getCurrentCustomer();
-        
-        // Validate source account
-        Account sourceAccount = accountRepository.findById(request.getSourceAccountId())
-                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", request.getSourceAccountId()));
+        return createTransfer(currentCustomerService.getCurrentCustomer(), request);
+    }
+    
+    @Override
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    public TransferResponse createTransfer(Customer customer, TransferCreationRequest request) {
+        // Validate source account; an internal transfer locks both accounts before reading either balance
+        UUID destinationAccountId = request.getDestinationAccountId();
+        Account sourceAccount;
+        Account destinationAccount = null;
+        if (destinationAccountId != null) {
+            Map<UUID, Account> accounts = internalTransferEngine.lock(
+                    List.of(request.getSourceAccountId(), destinationAccountId));
+            sourceAccount = accounts.get(request.getSourceAccountId());
+            destinationAccount = accounts.get(destinationAccountId);
+            internalTransferEngine.validate(sourceAccount, destinationAccount);
+        } else {
+            sourceAccount = accountRepository.findById(request.getSourceAccountId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Account", "id", request.getSourceAccountId()));
+        }
         
         // Verify account ownership
         if (!sourceAccount.getCustomer().getId().equals(customer.getId())) {
             throw new BusinessRuleException("Account does not belong to the customer", "ACCOUNT_NOT_OWNED");
         }
         
-        // Validate sufficient funds with a margin for fees if applicable
+        // Convert the amount into the currency of each account it moves between
         BigDecimal transferAmount = new BigDecimal(request.getAmount());
-        if (sourceAccount.getAvailableBalance().compareTo(transferAmount) < 0) {
+        String currencyCode = request.getCurrencyCode() != null ? request.getCurrencyCode() : sourceAccount.getCurrencyCode();
+        FxConversion conversion = convert(transferAmount, currencyCode, sourceAccount, destinationAccount);
+        BigDecimal sourceAmount = sourceAmount(conversion, transferAmount, sourceAccount);
+        BigDecimal destinationAmount = destinationAmount(conversion, transferAmount, destinationAccount);
+        
+        // Validate sufficient funds with a margin for fees if applicable
+        if (sourceAccount.getAvailableBalance().compareTo(sourceAmount) < 0) {
             throw new BusinessRuleException("Insufficient funds", "INSUFFICIENT_FUNDS");
         }
         
         // Create transfer with PENDING status
         Transfer transfer = transferMapper.toTransfer(request, sourceAccount, customer);
         transfer.setStatus(Transfer.TransferStatus.PENDING);
+        transfer.setCurrencyCode(currencyCode);
+        transfer.setSourceAmount(sourceAmount);
+        if (conversion.isCrossCurrency()) {
+            transfer.setExchangeRate(conversion.getRate());
+        }
+        if (destinationAccount == null && transferClearing.isEnabled()) {
+            transferClearing.assignBankCode(transfer);
+        }
         Transfer savedTransfer = transferRepository.save(transfer);
         
         // Use a consistent transaction ID for all operations
         UUID transactionId = savedTransfer.getId();
         
         try {
-            // Create and execute blockchain command for transfer
-            UUID destinationAccountId = null;
-            try {
-                destinationAccountId = UUID.fromString(transfer.getDestinationAccountNumber());
-            } catch (IllegalArgumentException e) {
-                // Not a UUID, might be an external account number
-                log.debug("Destination account number is not a UUID: {}", transfer.getDestinationAccountNumber());
-            }
-            
-            if (destinationAccountId != null) {
+            if (destinationAccount != null && conversion.isCrossCurrency()) {
+                // Internal transfer between currencies, withdrawn in one and deposited in the other
+                String txHash = exchangeOnChain(sourceAccount, sourceAmount, destinationAccount, destinationAmount,
+                        transfer.getDescription(), transactionId);
+                trackOnChain(savedTransfer, txHash);
+                
+                // Debit and credit each in its own currency through the clearing accounts of both
+                internalTransferEngine.exchange(sourceAccount, destinationAccount, sourceAmount, destinationAmount,
+                        transfer.getDescription(), transactionId);
+            } else if (destinationAccount != null && transferNetting.isEnabled()) {
+                // Internal transfer netted with the others between the two accounts; the balances
+                // move now, the journal entry and chain command follow for the net of the window
+                internalTransferEngine.move(
+                        sourceAccount, destinationAccount, transfer.getAmount(), transfer.getDescription(), transactionId);
+                savedTransfer.setSettlementId(
+                        transferNetting.add(sourceAccount, destinationAccount, transfer.getAmount()).getId());
+            } else if (destinationAccount != null) {
                 // Internal transfer to another account in our system
                 com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.TransferCommand command = 
                     new com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.TransferCommand(
@@ -154,7 +198,7 @@ public class TransferServiceImpl implements TransferService {
                     );
                 
                 com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse response = 
-                    blockchainService.executeCommand(command);
+                    chainSubmitter.submit(command);
                 
                 if (!response.isSuccessful()) {
                     throw new BusinessRuleException(
@@ -164,17 +208,26 @@ public class TransferServiceImpl implements TransferService {
                 }
                 
                 log.info("Blockchain transfer successful with transaction hash: {}", response.getTransactionHash());
+                trackOnChain(savedTransfer, response.getTransactionHash());
+                
+                // Debit the source and credit the destination with one balanced journal entry
+                internalTransferEngine.post(
+                        sourceAccount, destinationAccount, transfer.getAmount(), transfer.getDescription(), transactionId);
+            } else if (transferClearing.isEnabled()) {
+                // External transfer cleared with the others to the same bank; the source is debited
+                // into the clearing account now, the clearing file and chain withdrawal follow at cut-off
+                transferClearing.route(savedTransfer, sourceAccount);
             } else {
                 // External transfer, use withdraw command
                 com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.WithdrawCommand command = 
                     new com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.WithdrawCommand(
                         sourceAccount.getId(),
-                        transfer.getAmount(),
+                        sourceAmount,
                         "External Transfer to " + transfer.getDestinationAccountNumber()
                     );
                 
                 com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse response = 
-                    blockchainService.executeCommand(command);
+                    chainSubmitter.submit(command);
                 
                 if (!response.isSuccessful()) {
                     throw new BusinessRuleException(
@@ -185,32 +238,45 @@ public class TransferServiceImpl implements TransferService {
                 
                 log.info("Blockchain withdrawal for external transfer successful with transaction hash: {}", 
                         response.getTransactionHash());
+                trackOnChain(savedTransfer, response.getTransactionHash());
+                
+                // 1. Perform debit operation on source account
+                accountService.performDebit(sourceAccount, sourceAmount);
+                
+                // 2. Create journal entry for the transfer; one in another currency is paid out of
+                // the cash account of its currency through the clearing accounts of both
+                if (conversion.isCrossCurrency()) {
+                    accountingService.createExchangeJournalEntry(
+                            sourceAccount,
+                            sourceAmount,
+                            systemAccountService.getCashAccount(currencyCode),
+                            transferAmount,
+                            "Transfer to " + transfer.getDestinationAccountNumber(),
+                            transactionId
+                    );
+                } else {
+                    accountingService.createWithdrawalJournalEntry(
+                            sourceAccount, 
+                            sourceAmount, 
+                            "Transfer to " + transfer.getDestinationAccountNumber(),
+                            transactionId
+                    );
+                }
+                
+                // 3. Record debit transaction
+                transactionService.recordTransaction(
+                        sourceAccount,
+                        com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.TransactionType.DEBIT,
+                        sourceAmount,
+                        "Transfer to " + transfer.getDestinationAccountNumber(),
+                        String.valueOf(transactionId)
+                );
+                
+                // 4. Save the updated account
+                accountRepository.save(sourceAccount);
             }
             
-            // 1. Perform debit operation on source account
-            accountService.performDebit(sourceAccount, transfer.getAmount());
-            
-            // 2. Create journal entry for the transfer
-            accountingService.createWithdrawalJournalEntry(
-                    sourceAccount, 
-                    transfer.getAmount(), 
-                    "Transfer to " + transfer.getDestinationAccountNumber(),
-                    transactionId
-            );
-            
-            // 3. Record debit transaction
-            transactionService.recordTransaction(
-                    sourceAccount,
-                    com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.TransactionType.DEBIT,
-                    transfer.getAmount(),
-                    "Transfer to " + transfer.getDestinationAccountNumber(),
-                    String.valueOf(transactionId)
-            );
-            
-            // 4. Save the updated account
-            accountRepository.save(sourceAccount);
-            
-            // 5. Update transfer status to COMPLETED
+            // Update transfer status to COMPLETED
             savedTransfer.setStatus(Transfer.TransferStatus.COMPLETED);
             savedTransfer.setCompletedAt(LocalDateTime.now());
             Transfer completedTransfer = transferRepository.save(savedTransfer);
@@ -218,6 +284,10 @@ public class TransferServiceImpl implements TransferService {
             log.info("Created transfer: {} for customer: {}", savedTransfer.getId(), customer.getId());
             
             return transferMapper.toTransferResponse(completedTransfer);
+        } catch (DeadlineExceededException e) {
+            // Abandoned before reaching the chain; nothing of the transfer is kept
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            throw e;
         } catch (Exception e) {
             // Mark the transfer as FAILED without rolling back the transaction
             TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
@@ -275,7 +345,7 @@ public class TransferServiceImpl implements TransferService {
                 );
             
             com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse response = 
-                blockchainService.executeCommand(command);
+                chainSubmitter.submit(command);
             
             if (!response.isSuccessful()) {
                 log.warn("Failed to process refund on blockchain: {} - {}", 
@@ -353,99 +423,13 @@ public class TransferServiceImpl implements TransferService {
                 .type(Transfer.TransferType.SCHEDULED)
                 .status(Transfer.TransferStatus.SCHEDULED)
                 .description(request.getReference())
-                .scheduledFor(LocalDateTime.from(request.getScheduledDate()))
+                .scheduledFor(request.getScheduledDate().atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime())
                 .customer(customer)
                 .build();
         
-        // Save transfer first to get ID
+        // Executed by the scheduler when due; nothing is debited until then
         Transfer savedTransfer = transferRepository.save(transfer);
-        
-        try {
-            // Create and execute blockchain command for scheduled transfer
-            UUID destinationAccountId = null;
-            try {
-                destinationAccountId = UUID.fromString(transfer.getDestinationAccountNumber());
-            } catch (IllegalArgumentException e) {
-                // Not a UUID, might be an external account number
-                log.debug("Destination account number is not a UUID: {}", transfer.getDestinationAccountNumber());
-            }
-            
-            if (destinationAccountId != null) {
-                // Internal transfer to another account in our system
-                com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.TransferCommand command = 
-                    new com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.TransferCommand(
-                        sourceAccount.getId(),
-                        destinationAccountId,
-                        transfer.getAmount(),
-                        "Scheduled Transfer: " + (transfer.getDescription() != null ? transfer.getDescription() : ""),
-                        transfer.getCurrencyCode(),
-                        savedTransfer.getId()
-                    );
-                
-                com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse response = 
-                    blockchainService.executeCommand(command);
-                
-                if (!response.isSuccessful()) {
-                    throw new BusinessRuleException(
-                        "Scheduled transfer failed on blockchain: " + response.getErrorMessage(),
-                        response.getErrorCode()
-                    );
-                }
-                
-                log.info("Blockchain scheduled transfer successful with transaction hash: {}", response.getTransactionHash());
-            } else {
-                // External transfer, use withdraw command
-                com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.WithdrawCommand command = 
-                    new com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.WithdrawCommand(
-                        sourceAccount.getId(),
-                        transfer.getAmount(),
-                        "Scheduled External Transfer to " + transfer.getDestinationAccountNumber()
-                    );
-                
-                com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse response = 
-                    blockchainService.executeCommand(command);
-                
-                if (!response.isSuccessful()) {
-                    throw new BusinessRuleException(
-                        "Scheduled transfer failed on blockchain: " + response.getErrorMessage(),
-                        response.getErrorCode()
-                    );
-                }
-                
-                log.info("Blockchain withdrawal for scheduled external transfer successful with transaction hash: {}", 
-                        response.getTransactionHash());
-            }
-            
-            // Perform debit operation
-            accountService.performDebit(sourceAccount, transfer.getAmount());
-            
-            // Create journal entry for the scheduled transfer (double-entry accounting)
-            accountingService.createWithdrawalJournalEntry(
-                    sourceAccount, 
-                    transfer.getAmount(), 
-                    "Scheduled Transfer to " + transfer.getDestinationAccountNumber(),
-                    savedTransfer.getId()
-            );
-            
-            // Record transaction
-            transactionService.recordTransaction(
-                    sourceAccount,
-                    com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.TransactionType.DEBIT,
-                    transfer.getAmount(),
-                    "Scheduled Transfer to " + transfer.getDestinationAccountNumber(),
-                    String.valueOf(savedTransfer.getId())
-            );
-            
-            // Save the updated account
-            accountRepository.save(sourceAccount);
-        } catch (Exception e) {
-            // If any exception occurs, mark the transfer as FAILED
-            savedTransfer.setStatus(Transfer.TransferStatus.FAILED);
-            transferRepository.save(savedTransfer);
-            
-            log.error("Failed to process scheduled transfer: {}", e.getMessage());
-            throw e;
-        }
+        transferScheduler.register(savedTransfer.getId(), savedTransfer.getScheduledFor());
         
         log.info("Scheduled transfer: {} for customer: {}", savedTransfer.getId(), customer.getId());
         
@@ -592,15 +576,40 @@ public class TransferServiceImpl implements TransferService {
         log.info("Executing recurring transfer: {}", recurringTransfer.getId());
         
         // Validate source account
-        Account sourceAccount = recurringTransfer.getSourceAccount();
-        if (sourceAccount == null) {
+        if (recurringTransfer.getSourceAccount() == null) {
             throw new BusinessRuleException(
                     "Source account not found for recurring transfer", 
                     "SOURCE_ACCOUNT_NOT_FOUND");
         }
         
+        UUID destinationAccountId = null;
+        try {
+            destinationAccountId = UUID.fromString(recurringTransfer.getDestinationAccountNumber());
+        } catch (IllegalArgumentException e) {
+            // Not a UUID, might be an external account number
+            log.debug("Destination account number is not a UUID: {}", recurringTransfer.getDestinationAccountNumber());
+        }
+        
+        // An internal transfer locks both accounts before reading either balance
+        UUID sourceAccountId = recurringTransfer.getSourceAccount().getId();
+        Account sourceAccount = recurringTransfer.getSourceAccount();
+        Account destinationAccount = null;
+        if (destinationAccountId != null) {
+            Map<UUID, Account> accounts = internalTransferEngine.lock(List.of(sourceAccountId, destinationAccountId));
+            sourceAccount = accounts.get(sourceAccountId);
+            destinationAccount = accounts.get(destinationAccountId);
+            internalTransferEngine.validate(sourceAccount, destinationAccount);
+        }
+        
+        // Convert the amount into the currency of each account it moves between
+        String currencyCode = recurringTransfer.getCurrencyCode() != null
+                ? recurringTransfer.getCurrencyCode() : sourceAccount.getCurrencyCode();
+        FxConversion conversion = convert(recurringTransfer.getAmount(), currencyCode, sourceAccount, destinationAccount);
+        BigDecimal sourceAmount = sourceAmount(conversion, recurringTransfer.getAmount(), sourceAccount);
+        BigDecimal destinationAmount = destinationAmount(conversion, recurringTransfer.getAmount(), destinationAccount);
+        
         // Validate account balance
-        if (sourceAccount.getAvailableBalance().compareTo(recurringTransfer.getAmount()) < 0) {
+        if (sourceAccount.getAvailableBalance().compareTo(sourceAmount) < 0) {
             throw new BusinessRuleException(
                     "Insufficient funds for recurring transfer", 
                     "INSUFFICIENT_FUNDS");
@@ -612,7 +621,9 @@ public class TransferServiceImpl implements TransferService {
                 .destinationAccountNumber(recurringTransfer.getDestinationAccountNumber())
                 .destinationBankCode(recurringTransfer.getDestinationBankCode())
                 .amount(recurringTransfer.getAmount())
-                .currencyCode(recurringTransfer.getCurrencyCode())
+                .currencyCode(currencyCode)
+                .sourceAmount(sourceAmount)
+                .exchangeRate(conversion.isCrossCurrency() ? conversion.getRate() : null)
                 .type(Transfer.TransferType.RECURRING)
                 .status(Transfer.TransferStatus.PENDING)
                 .description(recurringTransfer.getDescription() + " (Recurring)")
@@ -624,16 +635,16 @@ public class TransferServiceImpl implements TransferService {
         Transfer savedTransfer = transferRepository.save(transfer);
         
         try {
-            // Create and execute blockchain command for transfer
-            UUID destinationAccountId = null;
-            try {
-                destinationAccountId = UUID.fromString(transfer.getDestinationAccountNumber());
-            } catch (IllegalArgumentException e) {
-                // Not a UUID, might be an external account number
-                log.debug("Destination account number is not a UUID: {}", transfer.getDestinationAccountNumber());
-            }
-            
-            if (destinationAccountId != null) {
+            if (destinationAccount != null && conversion.isCrossCurrency()) {
+                // Internal transfer between currencies, withdrawn in one and deposited in the other
+                String txHash = exchangeOnChain(sourceAccount, sourceAmount, destinationAccount, destinationAmount,
+                        transfer.getDescription(), savedTransfer.getId());
+                trackOnChain(savedTransfer, txHash);
+                
+                // Debit and credit each in its own currency through the clearing accounts of both
+                internalTransferEngine.exchange(sourceAccount, destinationAccount, sourceAmount, destinationAmount,
+                        transfer.getDescription(), savedTransfer.getId());
+            } else if (destinationAccount != null) {
                 // Internal transfer to another account in our system
                 com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.TransferCommand command = 
                     new com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.TransferCommand(
@@ -646,7 +657,7 @@ public class TransferServiceImpl implements TransferService {
                     );
                 
                 com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse response = 
-                    blockchainService.executeCommand(command);
+                    chainSubmitter.submit(command);
                 
                 if (!response.isSuccessful()) {
                     throw new BusinessRuleException(
@@ -656,17 +667,22 @@ public class TransferServiceImpl implements TransferService {
                 }
                 
                 log.info("Blockchain recurring transfer successful with transaction hash: {}", response.getTransactionHash());
+                trackOnChain(savedTransfer, response.getTransactionHash());
+                
+                // Debit the source and credit the destination with one balanced journal entry
+                internalTransferEngine.post(
+                        sourceAccount, destinationAccount, transfer.getAmount(), transfer.getDescription(), savedTransfer.getId());
             } else {
                 // External transfer, use withdraw command
                 com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.WithdrawCommand command = 
                     new com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.WithdrawCommand(
                         sourceAccount.getId(),
-                        transfer.getAmount(),
+                        sourceAmount,
                         "Recurring External Transfer to " + transfer.getDestinationAccountNumber()
                     );
                 
                 com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse response = 
-                    blockchainService.executeCommand(command);
+                    chainSubmitter.submit(command);
                 
                 if (!response.isSuccessful()) {
                     throw new BusinessRuleException(
@@ -677,31 +693,44 @@ public class TransferServiceImpl implements TransferService {
                 
                 log.info("Blockchain withdrawal for recurring external transfer successful with transaction hash: {}", 
                         response.getTransactionHash());
+                trackOnChain(savedTransfer, response.getTransactionHash());
+                
+                // Perform debit operation
+                accountService.performDebit(sourceAccount, sourceAmount);
+                
+                // Create journal entry for the recurring transfer (double-entry accounting); one in
+                // another currency is paid out of the cash account of its currency
+                if (conversion.isCrossCurrency()) {
+                    accountingService.createExchangeJournalEntry(
+                            sourceAccount,
+                            sourceAmount,
+                            systemAccountService.getCashAccount(currencyCode),
+                            transfer.getAmount(),
+                            "Recurring Transfer to " + transfer.getDestinationAccountNumber(),
+                            savedTransfer.getId()
+                    );
+                } else {
+                    accountingService.createWithdrawalJournalEntry(
+                            sourceAccount, 
+                            sourceAmount, 
+                            "Recurring Transfer to " + transfer.getDestinationAccountNumber(),
+                            savedTransfer.getId()
+                    );
+                }
+                
+                // Record transaction
+                transactionService.recordTransaction(
+                        sourceAccount,
+                        com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.TransactionType.DEBIT,
+                        sourceAmount,
+                        "Recurring Transfer to " + transfer.getDestinationAccountNumber(),
+                        String.valueOf(savedTransfer.getId())
+                );
+                
+                // Save the updated account
+                accountRepository.save(sourceAccount);
             }
             
-            // Perform debit operation
-            accountService.performDebit(sourceAccount, transfer.getAmount());
-            
-            // Create journal entry for the recurring transfer (double-entry accounting)
-            accountingService.createWithdrawalJournalEntry(
-                    sourceAccount, 
-                    transfer.getAmount(), 
-                    "Recurring Transfer to " + transfer.getDestinationAccountNumber(),
-                    savedTransfer.getId()
-            );
-            
-            // Record transaction
-            transactionService.recordTransaction(
-                    sourceAccount,
-                    com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.TransactionType.DEBIT,
-                    transfer.getAmount(),
-                    "Recurring Transfer to " + transfer.getDestinationAccountNumber(),
-                    String.valueOf(savedTransfer.getId())
-            );
-            
-            // Save the updated account
-            accountRepository.save(sourceAccount);
-            
             // Update transfer status to COMPLETED
             savedTransfer.setStatus(Transfer.TransferStatus.COMPLETED);
             savedTransfer.setCompletedAt(LocalDateTime.now());
@@ -720,4 +749,245 @@ public class TransferServiceImpl implements TransferService {
             throw new BusinessRuleException("Recurring transfer failed: " + e.getMessage(), "TRANSFER_FAILED");
         }
     }
+    
+    @Override
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    public Transfer executeScheduledTransfer(UUID transferId, String leaseOwner) {
+        // Locked for the whole execution, so a node claiming the transfer after the lease expired waits for it
+        Transfer transfer = transferRepository.findByIdForUpdate(transferId)
+                .orElseThrow(() -> new ResourceNotFoundException("Transfer", "id", transferId));
+        if (transfer.getStatus() != Transfer.TransferStatus.PROCESSING || !leaseOwner.equals(transfer.getLeaseOwner())) {
+            log.info("Skipping scheduled transfer {}, no longer leased by {}", transferId, leaseOwner);
+            return null;
+        }
+        
+        log.info("Executing scheduled transfer: {}", transferId);
+        
+        UUID destinationAccountId = null;
+        try {
+            destinationAccountId = UUID.fromString(transfer.getDestinationAccountNumber());
+        } catch (IllegalArgumentException e) {
+            // Not a UUID, might be an external account number
+            log.debug("Destination account number is not a UUID: {}", transfer.getDestinationAccountNumber());
+        }
+        
+        // An internal transfer locks both accounts before reading either balance
+        UUID sourceAccountId = transfer.getSourceAccount().getId();
+        Account sourceAccount;
+        Account destinationAccount = null;
+        if (destinationAccountId != null) {
+            Map<UUID, Account> accounts = internalTransferEngine.lock(List.of(sourceAccountId, destinationAccountId));
+            sourceAccount = accounts.get(sourceAccountId);
+            destinationAccount = accounts.get(destinationAccountId);
+            internalTransferEngine.validate(sourceAccount, destinationAccount);
+        } else {
+            sourceAccount = accountRepository.findByIdForUpdate(sourceAccountId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Account", "id", sourceAccountId));
+        }
+        
+        // Convert the amount into the currency of each account it moves between, at the rates of today
+        String currencyCode = transfer.getCurrencyCode() != null ? transfer.getCurrencyCode() : sourceAccount.getCurrencyCode();
+        FxConversion conversion = convert(transfer.getAmount(), currencyCode, sourceAccount, destinationAccount);
+        BigDecimal sourceAmount = sourceAmount(conversion, transfer.getAmount(), sourceAccount);
+        BigDecimal destinationAmount = destinationAmount(conversion, transfer.getAmount(), destinationAccount);
+        transfer.setCurrencyCode(currencyCode);
+        transfer.setSourceAmount(sourceAmount);
+        transfer.setExchangeRate(conversion.isCrossCurrency() ? conversion.getRate() : null);
+        
+        // The balance may have changed since the transfer was scheduled
+        if (sourceAccount.getAvailableBalance().compareTo(sourceAmount) < 0) {
+            throw new BusinessRuleException(
+                    "Insufficient funds for scheduled transfer", 
+                    "INSUFFICIENT_FUNDS");
+        }
+        
+        if (destinationAccount != null && conversion.isCrossCurrency()) {
+            // Internal transfer between currencies, withdrawn in one and deposited in the other
+            String txHash = exchangeOnChain(sourceAccount, sourceAmount, destinationAccount, destinationAmount,
+                    transfer.getDescription(), transferId);
+            trackOnChain(transfer, txHash);
+            
+            // Debit and credit each in its own currency through the clearing accounts of both
+            internalTransferEngine.exchange(sourceAccount, destinationAccount, sourceAmount, destinationAmount,
+                    transfer.getDescription(), transferId);
+        } else if (destinationAccount != null) {
+            // Internal transfer to another account in our system
+            com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.TransferCommand command = 
+                new com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.TransferCommand(
+                    sourceAccount.getId(),
+                    destinationAccountId,
+                    transfer.getAmount(),
+                    "Scheduled Transfer: " + (transfer.getDescription() != null ? transfer.getDescription() : ""),
+                    transfer.getCurrencyCode(),
+                    transferId
+                );
+            
+            BlockchainResponse response = chainSubmitter.submit(command);
+            
+            if (!response.isSuccessful()) {
+                throw new BusinessRuleException(
+                    "Scheduled transfer failed on blockchain: " + response.getErrorMessage(),
+                    response.getErrorCode()
+                );
+            }
+            
+            log.info("Blockchain scheduled transfer successful with transaction hash: {}", response.getTransactionHash());
+            trackOnChain(transfer, response.getTransactionHash());
+            
+            // Debit the source and credit the destination with one balanced journal entry
+            internalTransferEngine.post(
+                    sourceAccount, destinationAccount, transfer.getAmount(), transfer.getDescription(), transferId);
+        } else {
+            // External transfer, use withdraw command
+            com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.WithdrawCommand command = 
+                new com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.WithdrawCommand(
+                    sourceAccount.getId(),
+                    sourceAmount,
+                    "Scheduled External Transfer to " + transfer.getDestinationAccountNumber()
+                );
+            
+            BlockchainResponse response = chainSubmitter.submit(command);
+            
+            if (!response.isSuccessful()) {
+                throw new BusinessRuleException(
+                    "Scheduled transfer failed on blockchain: " + response.getErrorMessage(),
+                    response.getErrorCode()
+                );
+            }
+            
+            log.info("Blockchain withdrawal for scheduled external transfer successful with transaction hash: {}", 
+                    response.getTransactionHash());
+            trackOnChain(transfer, response.getTransactionHash());
+            
+            // Perform debit operation
+            accountService.performDebit(sourceAccount, sourceAmount);
+            
+            // Create journal entry for the scheduled transfer (double-entry accounting); one in
+            // another currency is paid out of the cash account of its currency
+            if (conversion.isCrossCurrency()) {
+                accountingService.createExchangeJournalEntry(
+                        sourceAccount,
+                        sourceAmount,
+                        systemAccountService.getCashAccount(currencyCode),
+                        transfer.getAmount(),
+                        "Scheduled Transfer to " + transfer.getDestinationAccountNumber(),
+                        transferId
+                );
+            } else {
+                accountingService.createWithdrawalJournalEntry(
+                        sourceAccount, 
+                        sourceAmount, 
+                        "Scheduled Transfer to " + transfer.getDestinationAccountNumber(),
+                        transferId
+                );
+            }
+            
+            // Record transaction
+            transactionService.recordTransaction(
+                    sourceAccount,
+                    com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.TransactionType.DEBIT,
+                    sourceAmount,
+                    "Scheduled Transfer to " + transfer.getDestinationAccountNumber(),
+                    String.valueOf(transferId)
+            );
+            
+            // Save the updated account
+            accountRepository.save(sourceAccount);
+        }
+        
+        // Update transfer status to COMPLETED
+        transfer.setStatus(Transfer.TransferStatus.COMPLETED);
+        transfer.setCompletedAt(LocalDateTime.now());
+        Transfer completedTransfer = transferRepository.save(transfer);
+        
+        log.info("Executed scheduled transfer: {} for customer: {}", transferId, transfer.getCustomer().getId());
+        
+        return completedTransfer;
+    }
+    
+    /**
+     * Convert the amount of a transfer into the currency of the account on the other side: the
+     * source account for an external transfer, and for an internal one whichever of its two
+     * accounts is not in the currency of the transfer.
+     * 
+     * @param amount The amount of the transfer
+     * @param currencyCode The currency of the transfer
+     * @param source The source account
+     * @param destination The destination account, or null for an external transfer
+     * @return The conversion; from and to the same currency when the transfer does not cross currencies
+     * @throws BusinessRuleException If the transfer cannot be converted
+     */
+    private FxConversion convert(BigDecimal amount, String currencyCode, Account source, Account destination) {
+        if (destination == null || currencyCode.equals(destination.getCurrencyCode())) {
+            return fxRates.convert(amount, currencyCode, source.getCurrencyCode());
+        }
+        if (currencyCode.equals(source.getCurrencyCode())) {
+            return fxRates.convert(amount, currencyCode, destination.getCurrencyCode());
+        }
+        throw new BusinessRuleException(
+                "Transfer must be in the currency of the source or the destination account", "CURRENCY_MISMATCH");
+    }
+    
+    /**
+     * Get the amount a conversion debits from the source account, in the currency of the account.
+     */
+    private static BigDecimal sourceAmount(FxConversion conversion, BigDecimal amount, Account source) {
+        return conversion.getToCurrency().equals(source.getCurrencyCode()) ? conversion.getConvertedAmount() : amount;
+    }
+    
+    /**
+     * Get the amount a conversion credits to the destination account, in the currency of the
+     * account; the amount of the transfer for an external one.
+     */
+    private static BigDecimal destinationAmount(FxConversion conversion, BigDecimal amount, Account destination) {
+        return destination != null && conversion.getToCurrency().equals(destination.getCurrencyCode())
+                ? conversion.getConvertedAmount() : amount;
+    }
+    
+    /**
+     * Move a transfer between currencies on chain as a withdrawal in one and a deposit in the
+     * other, unless the ledger is anchored on chain instead.
+     * 
+     * @return The hash of the withdrawal; null when the ledger is anchored
+     */
+    private String exchangeOnChain(Account source, BigDecimal sourceAmount, Account destination,
+                                   BigDecimal destinationAmount, String description, UUID transactionId) {
+        String suffix = description != null ? description : "";
+        com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.WithdrawCommand withdrawal = 
+            new com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.WithdrawCommand(
+                source.getId(), sourceAmount, "Transfer: " + suffix);
+        withdrawal.setReferenceId(transactionId);
+        BlockchainResponse withdrawn = chainSubmitter.submit(withdrawal);
+        if (!withdrawn.isSuccessful()) {
+            throw new BusinessRuleException(
+                "Transfer failed on blockchain: " + withdrawn.getErrorMessage(), withdrawn.getErrorCode());
+        }
+        
+        com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.DepositCommand deposit = 
+            new com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.DepositCommand(
+                destination.getId(), destinationAmount, "Transfer: " + suffix, destination.getCurrencyCode());
+        deposit.setReferenceId(transactionId);
+        BlockchainResponse deposited = chainSubmitter.submit(deposit);
+        if (!deposited.isSuccessful()) {
+            throw new BusinessRuleException(
+                "Transfer failed on blockchain: " + deposited.getErrorMessage(), deposited.getErrorCode());
+        }
+        if (deposited.getTransactionHash() != null) {
+            confirmationTracker.track(deposited.getTransactionHash(), String.valueOf(transactionId));
+        }
+        return withdrawn.getTransactionHash();
+    }
+    
+    /**
+     * Record the blockchain transaction that settles a transfer and track its confirmations.
+     * The ledger transactions of the transfer are referenced by its ID.
+     */
+    private void trackOnChain(Transfer transfer, String txHash) {
+        if (txHash == null) {
+            return;
+        }
+        transfer.setBlockchainTxHash(txHash);
+        transfer.setChainStatus(ChainStatus.SUBMITTED);
+        confirmationTracker.track(txHash, String.valueOf(transfer.getId()));
+    }
 }
@@ -0,0 +1,168 @@
+package com.ahmedyousri.boilerplate.springboot.banking.util;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Bech32 (BIP-173) encoding as used by Cosmos SDK account addresses.
+ */
+public final class Bech32 {
+
+    private static final String CHARSET = "qpzry9x8gf2tvdw0s3jn54khce6mua7l";
+
+    private static final int[] GENERATORS = {0x3b6a57b2, 0x26508e6d, 0x1ea119fa, 0x3d4233dd, 0x2a1462b3};
+
+    private static final int CHECKSUM_LENGTH = 6;
+
+    private static final byte[] CHARSET_REVERSE = new byte[128];
+
+    static {
+        Arrays.fill(CHARSET_REVERSE, (byte) -1);
+        for (int i = 0; i < CHARSET.length(); i++) {
+            CHARSET_REVERSE[CHARSET.charAt(i)] = (byte) i;
+        }
+    }
+
+    private Bech32() {
+    }
+
+    /**
+     * Encode bytes as a Bech32 string.
+     *
+     * @param humanReadablePart The prefix, e.g. "cosmos"
+     * @param data              The payload bytes
+     * @return The encoded string
+     */
+    public static String encode(String humanReadablePart, byte[] data) {
+        byte[] values = convertBits(data, 8, 5, true);
+        byte[] checksum = createChecksum(humanReadablePart, values);
+
+        StringBuilder builder = new StringBuilder(humanReadablePart.length() + 1 + values.length + CHECKSUM_LENGTH);
+        builder.append(humanReadablePart).append('1');
+        for (byte value : values) {
+            builder.append(CHARSET.charAt(value));
+        }
+        for (byte value : checksum) {
+            builder.append(CHARSET.charAt(value));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Decode a Bech32 string and verify its checksum.
+     *
+     * @param expectedHumanReadablePart The prefix the string must carry
+     * @param encoded                   The encoded string
+     * @return The payload bytes
+     * @throws IllegalArgumentException If the string is not valid Bech32 or has a different prefix
+     */
+    public static byte[] decode(String expectedHumanReadablePart, String encoded) {
+        if (encoded == null || encoded.length() > 90) {
+            throw new IllegalArgumentException("Invalid bech32 string length");
+        }
+        boolean hasLower = !encoded.equals(encoded.toUpperCase(Locale.ROOT));
+        boolean hasUpper = !encoded.equals(encoded.toLowerCase(Locale.ROOT));
+        if (hasLower && hasUpper) {
+            throw new IllegalArgumentException("Mixed-case bech32 string");
+        }
+        String normalized = encoded.toLowerCase(Locale.ROOT);
+
+        int separator = normalized.lastIndexOf('1');
+        if (separator < 1 || separator + CHECKSUM_LENGTH + 1 > normalized.length()) {
+            throw new IllegalArgumentException("Missing bech32 separator or checksum");
+        }
+        String humanReadablePart = normalized.substring(0, separator);
+        if (!humanReadablePart.equals(expectedHumanReadablePart)) {
+            throw new IllegalArgumentException("Unexpected bech32 prefix: " + humanReadablePart);
+        }
+
+        byte[] values = new byte[normalized.length() - separator - 1];
+        for (int i = 0; i < values.length; i++) {
+            char c = normalized.charAt(separator + 1 + i);
+            if (c >= 128 || CHARSET_REVERSE[c] == -1) {
+                throw new IllegalArgumentException("Invalid bech32 character: " + c);
+            }
+            values[i] = CHARSET_REVERSE[c];
+        }
+        if (polymod(expandHumanReadablePart(humanReadablePart), values) != 1) {
+            throw new IllegalArgumentException("Invalid bech32 checksum");
+        }
+
+        byte[] data = new byte[values.length - CHECKSUM_LENGTH];
+        System.arraycopy(values, 0, data, 0, data.length);
+        return convertBits(data, 5, 8, false);
+    }
+
+    private static byte[] createChecksum(String humanReadablePart, byte[] values) {
+        byte[] expanded = expandHumanReadablePart(humanReadablePart);
+        byte[] padded = new byte[values.length + CHECKSUM_LENGTH];
+        System.arraycopy(values, 0, padded, 0, values.length);
+        int mod = polymod(expanded, padded) ^ 1;
+
+        byte[] checksum = new byte[CHECKSUM_LENGTH];
+        for (int i = 0; i < CHECKSUM_LENGTH; i++) {
+            checksum[i] = (byte) ((mod >>> (5 * (5 - i))) & 31);
+        }
+        return checksum;
+    }
+
+    private static byte[] expandHumanReadablePart(String humanReadablePart) {
+        int length = humanReadablePart.length();
+        byte[] expanded = new byte[length * 2 + 1];
+        for (int i = 0; i < length; i++) {
+            char c = humanReadablePart.charAt(i);
+            expanded[i] = (byte) (c >> 5);
+            expanded[i + length + 1] = (byte) (c & 31);
+        }
+        return expanded;
+    }
+
+    private static int polymod(byte[] prefix, byte[] values) {
+        int checksum = 1;
+        checksum = polymodStep(checksum, prefix);
+        return polymodStep(checksum, values);
+    }
+
+    private static int polymodStep(int checksum, byte[] values) {
+        for (byte value : values) {
+            int top = checksum >>> 25;
+            checksum = ((checksum & 0x1ffffff) << 5) ^ (value & 0xff);
+            for (int i = 0; i < 5; i++) {
+                if (((top >>> i) & 1) != 0) {
+                    checksum ^= GENERATORS[i];
+                }
+            }
+        }
+        return checksum;
+    }
+
+    private static byte[] convertBits(byte[] data, int fromBits, int toBits, boolean pad) {
+        int accumulator = 0;
+        int bits = 0;
+        int maxValue = (1 << toBits) - 1;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * fromBits / toBits + 1);
+
+        for (byte value : data) {
+            int unsigned = value & 0xff;
+            if ((unsigned >>> fromBits) != 0) {
+                throw new IllegalArgumentException("Invalid data for bit conversion");
+            }
+            accumulator = (accumulator << fromBits) | unsigned;
+            bits += fromBits;
+            while (bits >= toBits) {
+                bits -= toBits;
+                out.write((accumulator >>> bits) & maxValue);
+            }
+        }
+
+        if (pad) {
+            if (bits > 0) {
+                out.write((accumulator << (toBits - bits)) & maxValue);
+            }
+        } else if (bits >= fromBits || ((accumulator << (toBits - bits)) & maxValue) != 0) {
+            throw new IllegalArgumentException("Invalid padding in bit conversion");
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,28 @@
+package com.ahmedyousri.boilerplate.springboot.banking.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factory for the worker pools of services, whose threads must not keep the JVM alive.
+ */
+public final class DaemonThreads {
+
+    private DaemonThreads() {
+    }
+
+    /**
+     * Create a factory of daemon threads numbered after a prefix.
+     *
+     * @param prefix The prefix of the thread names
+     * @return The thread factory
+     */
+    public static ThreadFactory named(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
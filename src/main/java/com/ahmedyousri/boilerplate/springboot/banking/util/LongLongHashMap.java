@@ -0,0 +1,202 @@
+package com.ahmedyousri.boilerplate.springboot.banking.util;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open-addressing hash map from primitive long keys to primitive long values.
+ * Uses two flat arrays instead of boxed entries, so each mapping costs about 32 bytes
+ * at the default load factor. Writers are serialized; readers use optimistic reads
+ * and only fall back to a read lock when they race with a writer.
+ */
+public class LongLongHashMap {
+
+    private static final long EMPTY = 0L;
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private final StampedLock lock = new StampedLock();
+
+    private final long missingValue;
+
+    private long[] keys;
+
+    private long[] values;
+
+    private int size;
+
+    private boolean hasZeroKey;
+
+    private long zeroValue;
+
+    /**
+     * Create a map.
+     *
+     * @param expectedSize The number of mappings to size the table for
+     * @param missingValue The value returned for keys that are not present
+     */
+    public LongLongHashMap(int expectedSize, long missingValue) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.missingValue = missingValue;
+    }
+
+    /**
+     * Get the value for a key.
+     *
+     * @param key The key
+     * @return The value, or the missing value if the key is not present
+     */
+    public long get(long key) {
+        long stamp = lock.tryOptimisticRead();
+        long value = find(key);
+        if (lock.validate(stamp)) {
+            return value;
+        }
+
+        stamp = lock.readLock();
+        try {
+            return find(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Check whether a key is present.
+     *
+     * @param key The key
+     * @return True if the key is present
+     */
+    public boolean containsKey(long key) {
+        return get(key) != missingValue;
+    }
+
+    /**
+     * Associate a value with a key, replacing any previous value.
+     *
+     * @param key   The key
+     * @param value The value
+     * @return The previous value, or the missing value if the key was not present
+     */
+    public long put(long key, long value) {
+        long stamp = lock.writeLock();
+        try {
+            if (key == EMPTY) {
+                long previous = hasZeroKey ? zeroValue : missingValue;
+                if (!hasZeroKey) {
+                    size++;
+                }
+                hasZeroKey = true;
+                zeroValue = value;
+                return previous;
+            }
+
+            int mask = keys.length - 1;
+            int index = mix(key) & mask;
+            while (keys[index] != EMPTY) {
+                if (keys[index] == key) {
+                    long previous = values[index];
+                    values[index] = value;
+                    return previous;
+                }
+                index = (index + 1) & mask;
+            }
+
+            // Publish the value before the key so optimistic readers never see a key with a stale value
+            values[index] = value;
+            keys[index] = key;
+            if (++size > keys.length * LOAD_FACTOR) {
+                resize();
+            }
+            return missingValue;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Get the number of mappings.
+     *
+     * @return The size
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Remove all mappings.
+     */
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            Arrays.fill(keys, EMPTY);
+            Arrays.fill(values, 0L);
+            size = 0;
+            hasZeroKey = false;
+            zeroValue = 0L;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private long find(long key) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : missingValue;
+        }
+
+        long[] currentKeys = keys;
+        long[] currentValues = values;
+        if (currentKeys.length != currentValues.length) {
+            // Torn read during a resize; the caller's stamp validation will fail and retry
+            return missingValue;
+        }
+        int mask = currentKeys.length - 1;
+        int index = mix(key) & mask;
+        for (int probes = 0; probes < currentKeys.length; probes++) {
+            long candidate = currentKeys[index];
+            if (candidate == EMPTY) {
+                return missingValue;
+            }
+            if (candidate == key) {
+                return currentValues[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        long[] newKeys = new long[oldKeys.length << 1];
+        long[] newValues = new long[oldValues.length << 1];
+        int mask = newKeys.length - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY) {
+                int index = mix(key) & mask;
+                while (newKeys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                newKeys[index] = key;
+                newValues[index] = oldValues[i];
+            }
+        }
+
+        keys = newKeys;
+        values = newValues;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
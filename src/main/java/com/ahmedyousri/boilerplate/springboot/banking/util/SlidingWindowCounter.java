@@ -0,0 +1,184 @@
+package com.ahmedyousri.boilerplate.springboot.banking.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sum of the amounts added over a window of time that slides with the clock.
+ *
+ * <p>The window is a ring of buckets, each covering a fixed span of epoch milliseconds. An amount
+ * is added to the bucket of the time it is added at, and the sum is taken over the buckets of the
+ * window ending at the time it is read, so amounts drop out of the sum a bucket at a time as the
+ * window moves past them rather than all at once on a reset. A bucket whose span has left the
+ * window is replaced by a fresh one the first time its slot is used again.</p>
+ *
+ * <p>Each bucket counts with a {@link LongAdder}, so threads adding to the same bucket do not
+ * contend, and a bucket also holds an amount set from elsewhere, such as the amounts added to the
+ * same window on other nodes. Adds, sums and replacing buckets take no locks.</p>
+ */
+public class SlidingWindowCounter {
+
+    private final long bucketMs;
+
+    private final int bucketCount;
+
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    /**
+     * Create a counter.
+     *
+     * @param windowMs    The length of the window
+     * @param bucketCount The number of buckets the window is divided into
+     */
+    public SlidingWindowCounter(long windowMs, int bucketCount) {
+        if (bucketCount < 1) {
+            throw new IllegalArgumentException("Bucket count must be positive: " + bucketCount);
+        }
+        if (windowMs < bucketCount || windowMs % bucketCount != 0) {
+            throw new IllegalArgumentException("Window of " + windowMs + " ms cannot be divided into "
+                    + bucketCount + " buckets");
+        }
+        this.bucketMs = windowMs / bucketCount;
+        this.bucketCount = bucketCount;
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    /**
+     * Add an amount.
+     *
+     * @param amount The amount; negative to take back an amount added at the same time
+     * @param nowMs  The time it is added at
+     */
+    public void add(long amount, long nowMs) {
+        Bucket bucket = bucket(epochOf(nowMs));
+        if (bucket != null) {
+            bucket.local.add(amount);
+        }
+    }
+
+    /**
+     * Get the sum of the amounts in the window ending at a time, including the amounts set from
+     * elsewhere.
+     *
+     * @param nowMs The time
+     * @return The sum
+     */
+    public long sum(long nowMs) {
+        long current = epochOf(nowMs);
+        long sum = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && isLive(bucket.epoch, current)) {
+                sum += bucket.local.sum() + bucket.remote;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Set the amount added elsewhere in the bucket of an epoch, if it is still in the window.
+     *
+     * @param epoch  The bucket epoch, as given by {@link #epochOf(long)}
+     * @param amount The amount
+     * @param nowMs  The current time
+     */
+    public void setRemote(long epoch, long amount, long nowMs) {
+        if (!isLive(epoch, epochOf(nowMs))) {
+            return;
+        }
+        Bucket bucket = bucket(epoch);
+        if (bucket != null) {
+            bucket.remote = amount;
+        }
+    }
+
+    /**
+     * Visit the buckets in the window ending at a time with the amounts added here.
+     *
+     * @param nowMs   The time
+     * @param visitor The visitor
+     */
+    public void forEachBucket(long nowMs, BucketVisitor visitor) {
+        long current = epochOf(nowMs);
+        for (int i = 0; i < bucketCount; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && isLive(bucket.epoch, current)) {
+                visitor.visit(bucket.epoch, bucket.local.sum());
+            }
+        }
+    }
+
+    /**
+     * Get the epoch of the bucket a time falls in.
+     *
+     * @param timeMs The time
+     * @return The bucket epoch
+     */
+    public long epochOf(long timeMs) {
+        return Math.floorDiv(timeMs, bucketMs);
+    }
+
+    /**
+     * Get the length of a bucket.
+     *
+     * @return The bucket length in milliseconds
+     */
+    public long getBucketMs() {
+        return bucketMs;
+    }
+
+    private boolean isLive(long epoch, long current) {
+        return epoch <= current && epoch > current - bucketCount;
+    }
+
+    /**
+     * Get the bucket of an epoch, replacing the one in its slot if that is older.
+     *
+     * @return The bucket, or null if the slot already holds a newer one, which only happens when
+     * the epoch has left the window
+     */
+    private Bucket bucket(long epoch) {
+        int slot = (int) Math.floorMod(epoch, (long) bucketCount);
+        while (true) {
+            Bucket bucket = buckets.get(slot);
+            if (bucket != null && bucket.epoch == epoch) {
+                return bucket;
+            }
+            if (bucket != null && bucket.epoch > epoch) {
+                return null;
+            }
+            Bucket fresh = new Bucket(epoch);
+            if (buckets.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    /**
+     * Visitor of the buckets of a counter.
+     */
+    @FunctionalInterface
+    public interface BucketVisitor {
+
+        /**
+         * Visit a bucket.
+         *
+         * @param epoch  The bucket epoch
+         * @param amount The sum of the amounts added here
+         */
+        void visit(long epoch, long amount);
+    }
+
+    private static final class Bucket {
+
+        private final long epoch;
+
+        private final LongAdder local = new LongAdder();
+
+        private volatile long remote;
+
+        private Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+}
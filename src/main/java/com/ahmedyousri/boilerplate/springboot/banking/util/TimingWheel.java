@@ -0,0 +1,159 @@
+package com.ahmedyousri.boilerplate.springboot.banking.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel of items due at times in epoch milliseconds.
+ *
+ * <p>Level 0 has one slot per tick; each slot of a higher level spans a whole turn of the level
+ * below it, and levels are added when an item is due beyond the ones so far. Adding an item
+ * appends it to a single slot whatever its due time, so it costs the same for an item due in a
+ * second as for one due in a month. When time reaches the slot of a higher level, its items are
+ * spread over the levels below, and each item expires in the tick it is due. An item is never
+ * expired before its due time, and one already overdue expires at the next advance.</p>
+ *
+ * <p>Adds and advances are serialized, so items may be added from any thread.</p>
+ *
+ * @param <T> The item type
+ */
+public class TimingWheel<T> {
+
+    private final long tickMs;
+
+    private final int bits;
+
+    private final int mask;
+
+    private final List<List<Entry<T>>[]> levels = new ArrayList<>();
+
+    /**
+     * The next tick to expire.
+     */
+    private long currentTick;
+
+    private int size;
+
+    /**
+     * Create a wheel.
+     *
+     * @param tickMs    The length of a tick
+     * @param wheelSize The number of slots of each level; a power of two
+     * @param startMs   The time to start at
+     */
+    public TimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMs);
+        }
+        if (wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.tickMs = tickMs;
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.currentTick = Math.floorDiv(startMs, tickMs);
+        levels.add(newLevel());
+    }
+
+    /**
+     * Add an item.
+     *
+     * @param item  The item
+     * @param dueMs The time the item is due
+     */
+    public synchronized void add(T item, long dueMs) {
+        // Rounded up, so the item does not expire before it is due
+        long dueTick = -Math.floorDiv(-dueMs, tickMs);
+        place(new Entry<>(item, Math.max(dueTick, currentTick)));
+        size++;
+    }
+
+    /**
+     * Advance to a time and remove the items due by then.
+     *
+     * @param nowMs The time
+     * @return The items due, in order of their due ticks
+     */
+    public synchronized List<T> advance(long nowMs) {
+        long targetTick = Math.floorDiv(nowMs, tickMs);
+        List<T> expired = new ArrayList<>();
+        while (currentTick <= targetTick) {
+            if (size == 0) {
+                currentTick = targetTick + 1;
+                break;
+            }
+
+            // Spread the slots reached on higher levels over the levels below, highest first
+            for (int level = levels.size() - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (bits * level)) - 1)) == 0) {
+                    List<Entry<T>> entries = take(level, currentTick);
+                    if (entries != null) {
+                        entries.forEach(this::place);
+                    }
+                }
+            }
+
+            List<Entry<T>> entries = take(0, currentTick);
+            if (entries != null) {
+                for (Entry<T> entry : entries) {
+                    expired.add(entry.item);
+                }
+                size -= entries.size();
+            }
+            currentTick++;
+        }
+        return expired;
+    }
+
+    /**
+     * Get the number of items not yet expired.
+     *
+     * @return The number of items
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private void place(Entry<T> entry) {
+        long delta = entry.dueTick - currentTick;
+        int level = 0;
+        while (bits * (level + 1) < Long.SIZE - 1 && (delta >>> (bits * (level + 1))) != 0) {
+            level++;
+        }
+        while (levels.size() <= level) {
+            levels.add(newLevel());
+        }
+
+        List<Entry<T>>[] slots = levels.get(level);
+        int slot = (int) ((entry.dueTick >>> (bits * level)) & mask);
+        if (slots[slot] == null) {
+            slots[slot] = new ArrayList<>();
+        }
+        slots[slot].add(entry);
+    }
+
+    private List<Entry<T>> take(int level, long tick) {
+        List<Entry<T>>[] slots = levels.get(level);
+        int slot = (int) ((tick >>> (bits * level)) & mask);
+        List<Entry<T>> entries = slots[slot];
+        slots[slot] = null;
+        return entries;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Entry<T>>[] newLevel() {
+        return new List[mask + 1];
+    }
+
+    private static final class Entry<T> {
+
+        private final T item;
+
+        private final long dueTick;
+
+        private Entry(T item, long dueTick) {
+            this.item = item;
+            this.dueTick = dueTick;
+        }
+    }
+}
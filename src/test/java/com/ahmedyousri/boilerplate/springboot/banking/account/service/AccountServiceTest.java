@@ -7,8 +7,10 @@ import com.ahmedyousri.boilerplate.springboot.banking.account.mapper.AccountMapp
 import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
 import com.ahmedyousri.boilerplate.springboot.banking.account.repository.StatementRepository;
 import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.service.ConfirmationTracker;
 import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse;
 import com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.BlockchainService;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.ChainSubmitter;
 import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
 import com.ahmedyousri.boilerplate.springboot.banking.customer.service.CurrentCustomerService;
 import com.ahmedyousri.boilerplate.springboot.banking.exception.InsufficientFundsException;
@@ -57,6 +59,12 @@ public class AccountServiceTest {
     @Mock
     private BlockchainService blockchainService;
 
+    @Mock
+    private ConfirmationTracker confirmationTracker;
+
+    @Mock
+    private ChainSubmitter chainSubmitter;
+
     @InjectMocks
     private AccountServiceImpl accountService;
 
@@ -195,7 +203,7 @@ public class AccountServiceTest {
         
         when(currentCustomerService.getCurrentCustomer()).thenReturn(testCustomer);
         when(accountRepository.findById(accountId)).thenReturn(Optional.of(testAccount));
-        when(blockchainService.executeCommand(any())).thenReturn(
+        when(chainSubmitter.submit(any())).thenReturn(
                 BlockchainResponse.builder()
                         .successful(true)
                         .transactionHash("mock-tx-hash")
@@ -225,7 +233,7 @@ public class AccountServiceTest {
         
         // Verify interactions
         verify(accountRepository, times(2)).findById(accountId);
-        verify(blockchainService).executeCommand(any());
+        verify(chainSubmitter).submit(any());
         verify(accountingService).createDepositJournalEntry(eq(testAccount), eq(amount), eq(description), any(UUID.class));
         verify(transactionService).recordTransaction(
                 eq(testAccount), 
@@ -245,7 +253,7 @@ public class AccountServiceTest {
         
         when(currentCustomerService.getCurrentCustomer()).thenReturn(testCustomer);
         when(accountRepository.findById(accountId)).thenReturn(Optional.of(testAccount));
-        when(blockchainService.executeCommand(any())).thenReturn(
+        when(chainSubmitter.submit(any())).thenReturn(
                 BlockchainResponse.builder()
                         .successful(true)
                         .transactionHash("mock-tx-hash")
@@ -275,7 +283,7 @@ public class AccountServiceTest {
         
         // Verify interactions
         verify(accountRepository, times(2)).findById(accountId);
-        verify(blockchainService).executeCommand(any());
+        verify(chainSubmitter).submit(any());
         verify(accountingService).createWithdrawalJournalEntry(eq(testAccount), eq(amount), eq(description), any(UUID.class));
         verify(transactionService).recordTransaction(
                 eq(testAccount), 
@@ -302,6 +310,6 @@ public class AccountServiceTest {
         });
         
         // Verify no blockchain interaction happened
-        verify(blockchainService, never()).executeCommand(any());
+        verify(chainSubmitter, never()).submit(any());
     }
 }
@@ -0,0 +1,90 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.merkle;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the MerkleTree.
+ */
+public class MerkleTreeTest {
+
+    @Test
+    public void testIncrementalRootMatchesRecursiveDefinition() {
+        // Arrange
+        MerkleTree tree = new MerkleTree();
+        List<byte[]> leaves = new ArrayList<>();
+
+        for (int size = 1; size <= 70; size++) {
+            // Act
+            byte[] leaf = MerkleTree.leafHash(("entry-" + size).getBytes(StandardCharsets.UTF_8));
+            leaves.add(leaf);
+            tree.append(leaf);
+
+            // Assert
+            assertArrayEquals(recursiveRoot(leaves, 0, leaves.size()), tree.root(), "Root of " + size + " leaves");
+        }
+    }
+
+    @Test
+    public void testEveryProofVerifiesAndTamperingIsDetected() {
+        for (int size = 1; size <= 33; size++) {
+            // Arrange
+            MerkleTree tree = new MerkleTree();
+            for (int i = 0; i < size; i++) {
+                tree.append(MerkleTree.leafHash(("entry-" + i).getBytes(StandardCharsets.UTF_8)));
+            }
+            byte[] root = tree.root();
+
+            // Act
+            List<List<byte[]>> proofs = tree.proofs();
+
+            // Assert
+            for (int i = 0; i < size; i++) {
+                List<byte[]> path = proofs.get(i);
+                assertTrue(MerkleTree.verify(tree.getLeaf(i), i, size, path, root), "Leaf " + i + " of " + size);
+                assertFalse(MerkleTree.verify(MerkleTree.leafHash(new byte[]{1}), i, size, path, root));
+                if (size > 1) {
+                    assertFalse(MerkleTree.verify(tree.getLeaf(i), (i + 1) % size, size, path, root));
+                    List<byte[]> tampered = new ArrayList<>(path);
+                    tampered.set(0, MerkleTree.leafHash(new byte[]{2}));
+                    assertFalse(MerkleTree.verify(tree.getLeaf(i), i, size, tampered, root));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyTreeRootIsHashOfEmptyString() throws Exception {
+        // Arrange
+        MerkleTree tree = new MerkleTree();
+
+        // Act
+        byte[] root = tree.root();
+
+        // Assert
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", HexFormat.of().formatHex(root));
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(new byte[0]), root);
+        assertTrue(tree.proofs().isEmpty());
+    }
+
+    /**
+     * The Merkle tree hash of RFC 6962, section 2.1.
+     */
+    private static byte[] recursiveRoot(List<byte[]> leaves, int from, int to) {
+        if (to - from == 1) {
+            return leaves.get(from);
+        }
+        int split = 1;
+        while (split * 2 < to - from) {
+            split *= 2;
+        }
+        return MerkleTree.nodeHash(recursiveRoot(leaves, from, from + split), recursiveRoot(leaves, from + split, to));
+    }
+}
@@ -0,0 +1,246 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.entity.JournalEntry;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.entity.JournalEntryLine;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.repository.JournalEntryRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.entity.AnchorBatch;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.entity.AnchorProof;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.model.AnchorVerification;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.repository.AnchorBatchRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.repository.AnchorProofRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.Confirmation;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.service.ConfirmationTracker;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxBroadcaster;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.service.JobCoordinator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the LedgerAnchor.
+ */
+public class LedgerAnchorTest {
+
+    private BlockchainConfig blockchainConfig;
+
+    private AnchorWriter anchorWriter;
+
+    private AnchorBatchRepository batchRepository;
+
+    private AnchorProofRepository proofRepository;
+
+    private JournalEntryRepository journalEntryRepository;
+
+    private CosmosTxBroadcaster txBroadcaster;
+
+    private ConfirmationTracker confirmationTracker;
+
+    private JobCoordinator jobCoordinator;
+
+    private LedgerAnchor ledgerAnchor;
+
+    @BeforeEach
+    public void setUp() {
+        blockchainConfig = mock(BlockchainConfig.class);
+        when(blockchainConfig.isAnchoringEnabled()).thenReturn(true);
+        when(blockchainConfig.getTimeoutMs()).thenReturn(5000L);
+        when(blockchainConfig.getCosmosSigningFeeDenom()).thenReturn("stake");
+
+        anchorWriter = mock(AnchorWriter.class);
+        batchRepository = mock(AnchorBatchRepository.class);
+        proofRepository = mock(AnchorProofRepository.class);
+        journalEntryRepository = mock(JournalEntryRepository.class);
+        txBroadcaster = mock(CosmosTxBroadcaster.class);
+        confirmationTracker = mock(ConfirmationTracker.class);
+
+        // This node wins every coordinated run unless a test says otherwise
+        jobCoordinator = mock(JobCoordinator.class);
+        when(jobCoordinator.runOnce(anyString(), anyString(), any())).thenAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(2)).run();
+            return true;
+        });
+
+        ledgerAnchor = new LedgerAnchor(blockchainConfig, anchorWriter, batchRepository, proofRepository,
+                journalEntryRepository, txBroadcaster, confirmationTracker, jobCoordinator, mock(TaskScheduler.class));
+    }
+
+    @Test
+    public void testCloseWindowStoresOneRootWithVerifiableProofs() {
+        // Arrange
+        List<JournalEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            entries.add(journalEntry(new BigDecimal("10.00").add(BigDecimal.valueOf(i))));
+        }
+        ledgerAnchor.append(entries);
+        ledgerAnchor.append(entries.get(0));
+
+        // Act
+        AnchorBatch batch = ledgerAnchor.closeWindow();
+
+        // Assert
+        assertNotNull(batch);
+        assertEquals(7, batch.getLeafCount());
+        assertEquals(0, ledgerAnchor.getPendingCount());
+
+        List<AnchorProof> proofs = savedProofs();
+        assertEquals(7, proofs.size());
+        for (int i = 0; i < entries.size(); i++) {
+            JournalEntry entry = entries.get(i);
+            AnchorProof proof = proofs.get(i);
+            when(proofRepository.findById(entry.getId())).thenReturn(Optional.of(proof));
+            when(batchRepository.findById(batch.getId())).thenReturn(Optional.of(batch));
+            when(journalEntryRepository.findById(entry.getId())).thenReturn(Optional.of(entry));
+
+            AnchorVerification verification = ledgerAnchor.verify(entry.getId());
+            assertTrue(verification.isVerified(), "Entry " + i);
+            assertEquals(i, verification.getLeafIndex());
+        }
+    }
+
+    @Test
+    public void testVerifyDetectsAlteredEntry() {
+        // Arrange
+        JournalEntry entry = journalEntry(new BigDecimal("25.00"));
+        ledgerAnchor.append(List.of(entry, journalEntry(new BigDecimal("5.00"))));
+        AnchorBatch batch = ledgerAnchor.closeWindow();
+        AnchorProof proof = savedProofs().get(0);
+        when(proofRepository.findById(entry.getId())).thenReturn(Optional.of(proof));
+        when(batchRepository.findById(batch.getId())).thenReturn(Optional.of(batch));
+        when(journalEntryRepository.findById(entry.getId())).thenReturn(Optional.of(entry));
+
+        // Act
+        entry.getEntryLines().get(1).setAmount(new BigDecimal("2500.00"));
+        AnchorVerification verification = ledgerAnchor.verify(entry.getId());
+
+        // Assert
+        assertFalse(verification.isLeafMatches());
+        assertTrue(verification.isProofValid());
+        assertFalse(verification.isVerified());
+    }
+
+    @Test
+    public void testLeafHashIgnoresAmountScaleAndLineOrder() {
+        // Arrange
+        JournalEntry entry = journalEntry(new BigDecimal("10.00"));
+        JournalEntry reloaded = JournalEntry.builder()
+                .id(entry.getId())
+                .reference(entry.getReference())
+                .description(entry.getDescription())
+                .build();
+        for (int i = entry.getEntryLines().size() - 1; i >= 0; i--) {
+            JournalEntryLine line = entry.getEntryLines().get(i);
+            reloaded.getEntryLines().add(line(line.getAccount(), line.getEntryType(), new BigDecimal("10.0000")));
+        }
+
+        // Act & Assert
+        assertArrayEquals(LedgerAnchor.leafHash(entry), LedgerAnchor.leafHash(reloaded));
+        reloaded.setReference("other");
+        assertFalse(Arrays.equals(LedgerAnchor.leafHash(entry), LedgerAnchor.leafHash(reloaded)));
+    }
+
+    @Test
+    public void testClosedWindowIsPublishedInOneTransaction() {
+        // Arrange
+        List<JournalEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            entries.add(journalEntry(BigDecimal.ONE));
+        }
+        ledgerAnchor.append(entries);
+        when(txBroadcaster.isEnabled()).thenReturn(true);
+        when(txBroadcaster.getSignerAddress()).thenReturn("cosmos1signer");
+        when(txBroadcaster.send(anyString(), any(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture("ANCHORTX"));
+        when(confirmationTracker.track(eq("ANCHORTX"), any())).thenReturn(CompletableFuture.completedFuture(
+                Confirmation.builder().txHash("ANCHORTX").status(ChainStatus.CONFIRMED).height(42).build()));
+        List<AnchorBatch> unpublished = new ArrayList<>();
+        doAnswer(invocation -> unpublished.add(invocation.getArgument(0)))
+                .when(anchorWriter).save(any(), any());
+        when(batchRepository.findByBlockchainTxHashIsNullOrderByWindowEndAsc()).thenReturn(unpublished);
+
+        // Act
+        AnchorBatch batch = ledgerAnchor.closeWindow();
+
+        // Assert
+        verify(txBroadcaster, times(1)).send(eq("cosmos1signer"), eq(BigDecimal.ONE), eq("stake"),
+                startsWith(LedgerAnchor.MEMO_PREFIX + batch.getId() + ":50:" + batch.getMerkleRoot()));
+        verify(anchorWriter).updateChainStatus(batch.getId(), "ANCHORTX", ChainStatus.SUBMITTED, null);
+        verify(anchorWriter).updateChainStatus(batch.getId(), "ANCHORTX", ChainStatus.CONFIRMED, 42L);
+    }
+
+    @Test
+    public void testClosedWindowIsNotPublishedWhenAnotherNodePublishes() {
+        // Arrange
+        ledgerAnchor.append(List.of(journalEntry(BigDecimal.ONE), journalEntry(BigDecimal.TEN)));
+        when(txBroadcaster.isEnabled()).thenReturn(true);
+        when(jobCoordinator.runOnce(eq("ledger-anchor-publish"), anyString(), any())).thenReturn(false);
+
+        // Act
+        AnchorBatch batch = ledgerAnchor.closeWindow();
+
+        // Assert
+        assertNotNull(batch);
+        verify(anchorWriter).save(any(), any());
+        verify(txBroadcaster, never()).send(anyString(), any(), anyString(), anyString());
+        verify(batchRepository, never()).findByBlockchainTxHashIsNullOrderByWindowEndAsc();
+    }
+
+    @Test
+    public void testFailedStoreKeepsEntriesForNextWindow() {
+        // Arrange
+        ledgerAnchor.append(List.of(journalEntry(BigDecimal.ONE), journalEntry(BigDecimal.TEN)));
+        doThrow(new IllegalStateException("database down")).when(anchorWriter).save(any(), any());
+
+        // Act
+        AnchorBatch batch = ledgerAnchor.closeWindow();
+
+        // Assert
+        assertNull(batch);
+        assertEquals(2, ledgerAnchor.getPendingCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AnchorProof> savedProofs() {
+        ArgumentCaptor<List<AnchorProof>> proofs = ArgumentCaptor.forClass(List.class);
+        verify(anchorWriter).save(any(AnchorBatch.class), proofs.capture());
+        return proofs.getValue();
+    }
+
+    private static JournalEntry journalEntry(BigDecimal amount) {
+        JournalEntry entry = JournalEntry.builder()
+                .id(UUID.randomUUID())
+                .reference(UUID.randomUUID().toString())
+                .description("Transfer")
+                .build();
+        entry.getEntryLines().add(line(Account.builder().id(UUID.randomUUID()).build(), JournalEntryLine.EntryType.DEBIT, amount));
+        entry.getEntryLines().add(line(Account.builder().id(UUID.randomUUID()).build(), JournalEntryLine.EntryType.CREDIT, amount));
+        return entry;
+    }
+
+    private static JournalEntryLine line(Account account, JournalEntryLine.EntryType entryType, BigDecimal amount) {
+        return JournalEntryLine.builder()
+                .account(account)
+                .entryType(entryType)
+                .amount(amount)
+                .currencyCode("USD")
+                .build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.Confirmation;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.model.ChainEvent;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.model.ChainEventType;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.source.TendermintRpcClient;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.metrics.ChainMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the ConfirmationTracker.
+ */
+public class ConfirmationTrackerTest {
+
+    private BlockchainConfig config;
+
+    private TendermintRpcClient rpcClient;
+
+    private final List<Confirmation> written = new CopyOnWriteArrayList<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ConfirmationTracker tracker;
+
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    @BeforeEach
+    public void setUp() {
+        config = mock(BlockchainConfig.class);
+        when(config.getConfirmationBlocks()).thenReturn(3);
+        when(config.getConfirmationTimeoutBlocks()).thenReturn(5);
+        when(config.getEventsPollingIntervalMs()).thenReturn(60_000L);
+        when(config.isMetricsEnabled()).thenReturn(true);
+        rpcClient = mock(TendermintRpcClient.class);
+        when(rpcClient.searchTxs(anyLong(), anyLong())).thenReturn(List.of());
+
+        ChainStatusWriter writer = mock(ChainStatusWriter.class);
+        doAnswer(invocation -> written.addAll(invocation.<Collection<Confirmation>>getArgument(0)))
+                .when(writer).write(any());
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.initialize();
+        tracker = new ConfirmationTracker(config, rpcClient, writer, new ChainMetrics(config, meterRegistry), taskScheduler);
+        tracker.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tracker.shutdown();
+        taskScheduler.shutdown();
+    }
+
+    @Test
+    public void testMovesThroughIncludedToConfirmedAndNotifiesWaiter() throws Exception {
+        // Arrange
+        tracker.pass(10);
+        CompletableFuture<Confirmation> confirmation = tracker.track("HASH1", "ref-1");
+        when(rpcClient.searchTxs(10, 11)).thenReturn(List.of(tx("HASH1", 11, 0)));
+
+        // Act
+        tracker.pass(10);
+        tracker.pass(11);
+        tracker.pass(12);
+        boolean doneBeforeConfirmations = confirmation.isDone();
+        tracker.pass(13);
+
+        // Assert
+        assertFalse(doneBeforeConfirmations);
+        assertEquals(ChainStatus.CONFIRMED, confirmation.get().getStatus());
+        assertEquals(3, confirmation.get().getConfirmations());
+        assertEquals(11, confirmation.get().getHeight());
+        assertEquals(List.of(ChainStatus.SUBMITTED, ChainStatus.INCLUDED, ChainStatus.CONFIRMED),
+                written.stream().map(Confirmation::getStatus).toList());
+        assertTrue(written.stream().allMatch(change -> "ref-1".equals(change.getReference())));
+        assertEquals(0, tracker.getOutstandingCount());
+        assertEquals(1, meterRegistry.get("blockchain.tx.inclusion").tag("result", "success").timer().count());
+        assertEquals(0.0, meterRegistry.get("blockchain.confirmation.outstanding").gauge().value());
+    }
+
+    @Test
+    public void testTxEventWithFailedResultFailsWithoutSearching() throws Exception {
+        // Arrange
+        tracker.pass(20);
+        CompletableFuture<Confirmation> confirmation = tracker.track("HASH2", null);
+        tracker.pass(20);
+
+        // Act
+        tracker.onChainEvent(tx("HASH2", 21, 5));
+
+        // Assert
+        Confirmation result = confirmation.get(5, TimeUnit.SECONDS);
+        assertEquals(ChainStatus.FAILED, result.getStatus());
+        assertEquals(5, result.getCode());
+        assertEquals(21, result.getHeight());
+        verify(rpcClient).searchTxs(19, 20);
+        verify(rpcClient, never()).searchTxs(eq(20L), anyLong());
+    }
+
+    @Test
+    public void testTracksManyHashesWithOneSearchPerPassAndExpiresMissing() throws Exception {
+        // Arrange
+        when(config.getConfirmationBlocks()).thenReturn(1);
+        tracker.pass(1);
+        List<CompletableFuture<Confirmation>> confirmations = new ArrayList<>();
+        List<ChainEvent> included = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            confirmations.add(tracker.track("HASH" + i, "ref-" + i));
+            if (i % 2 == 0) {
+                included.add(tx("HASH" + i, 2, 0));
+            }
+        }
+        when(rpcClient.searchTxs(1, 2)).thenReturn(included);
+
+        // Act
+        tracker.pass(1);
+        tracker.pass(2);
+        long confirmedAtTwo = confirmations.stream().filter(CompletableFuture::isDone).count();
+        for (long height = 3; height <= 6; height++) {
+            tracker.pass(height);
+        }
+
+        // Assert
+        assertEquals(10_000, confirmedAtTwo);
+        for (int i = 0; i < confirmations.size(); i++) {
+            Confirmation result = confirmations.get(i).get();
+            assertEquals(i % 2 == 0 ? ChainStatus.CONFIRMED : ChainStatus.FAILED, result.getStatus());
+        }
+        verify(rpcClient, times(6)).searchTxs(anyLong(), anyLong());
+        assertEquals(0, tracker.getOutstandingCount());
+    }
+
+    private static ChainEvent tx(String hash, long height, int code) {
+        return ChainEvent.builder().type(ChainEventType.TX).txHash(hash).height(height).code(code).build();
+    }
+}
@@ -0,0 +1,143 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.DepositCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.service.ChainStatusWriter;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.service.ConfirmationTracker;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxBroadcaster;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxTransport;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.stub.Faults;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.stub.StubCosmosChain;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.source.TendermintRpcClient;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.metrics.ChainMetrics;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.repository.AccountAddressRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.service.AccountAddressRegistry;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.resilience.ChainEndpoints;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the throughput and tail latency of deposits from submission to confirmation against
+ * a stub chain with long-tailed node latency and a 1% faucet error rate. All deposits are
+ * submitted at once, so submit latency includes the wait for the service pool. Run with
+ * {@code mvn test -Dbenchmark=true -Dtest=CosmosDepositBenchmarkTest}; results are logged rather
+ * than asserted, because they depend on the host.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class CosmosDepositBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CosmosDepositBenchmarkTest.class);
+
+    private static final int DEPOSITS = 2_000;
+
+    private static final long BLOCK_TIME_MS = 200;
+
+    @Test
+    public void benchmarkDeposits() throws Exception {
+        // Arrange
+        AccountAddressRegistry registry = new AccountAddressRegistry(mock(AccountAddressRepository.class));
+        try (StubCosmosChain chain = new StubCosmosChain(BLOCK_TIME_MS, 7)) {
+            chain.setFaults(StubCosmosChain.Route.FAUCET, Faults.of(Faults.Latency.logNormal(8, 80), 0.01));
+            chain.setFaults(StubCosmosChain.Route.RPC, Faults.of(Faults.Latency.logNormal(2, 20), 0));
+
+            BlockchainConfig config = mock(BlockchainConfig.class);
+            when(config.getResilienceBulkheadMaxConcurrent()).thenReturn(64);
+            when(config.getResilienceBreakerFailureThreshold()).thenReturn(50);
+            when(config.getTimeoutMs()).thenReturn(5000L);
+            when(config.getCosmosRpcEndpoint()).thenReturn(chain.endpoint());
+            when(config.getConfirmationBlocks()).thenReturn(1);
+            when(config.getConfirmationTimeoutBlocks()).thenReturn(100);
+            when(config.getEventsPollingIntervalMs()).thenReturn(BLOCK_TIME_MS / 4);
+            when(config.isMetricsEnabled()).thenReturn(true);
+            ChainEndpoints chainEndpoints = new ChainEndpoints(config, new SimpleMeterRegistry());
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            ChainMetrics chainMetrics = new ChainMetrics(config, meterRegistry);
+            CosmosBlockchainService service = new CosmosBlockchainService(new RestTemplate(), registry,
+                    new CosmosTxBroadcaster(mock(BlockchainConfig.class), mock(CosmosTxTransport.class)),
+                    chainEndpoints, chainMetrics, chain.endpoint(), chain.endpoint(), chain.endpoint(), StubCosmosChain.CHAIN_ID);
+            ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+            taskScheduler.initialize();
+            ConfirmationTracker tracker = new ConfirmationTracker(config, new TendermintRpcClient(config, new RestTemplate()),
+                    mock(ChainStatusWriter.class), chainMetrics, taskScheduler);
+            tracker.start();
+
+            List<Long> submitNanos = Collections.synchronizedList(new ArrayList<>());
+            List<Long> confirmNanos = Collections.synchronizedList(new ArrayList<>());
+            AtomicInteger fabricated = new AtomicInteger();
+            List<CompletableFuture<?>> deposits = new ArrayList<>();
+
+            try {
+                // Act
+                long start = System.nanoTime();
+                for (int i = 0; i < DEPOSITS; i++) {
+                    long submitted = System.nanoTime();
+                    deposits.add(service.executeCommandAsync(deposit(UUID.randomUUID())).thenCompose(response -> {
+                        submitNanos.add(System.nanoTime() - submitted);
+                        if (response.getTransactionHash() == null || response.getTransactionHash().startsWith("TX_")) {
+                            fabricated.incrementAndGet();
+                            return CompletableFuture.completedFuture(null);
+                        }
+                        return tracker.track(response.getTransactionHash(), null).thenAccept(confirmation -> {
+                            if (confirmation.getStatus() == ChainStatus.CONFIRMED) {
+                                confirmNanos.add(System.nanoTime() - submitted);
+                            }
+                        });
+                    }));
+                }
+                CompletableFuture.allOf(deposits.toArray(new CompletableFuture[0])).get(5, TimeUnit.MINUTES);
+                long elapsed = System.nanoTime() - start;
+
+                // Assert
+                assertEquals(DEPOSITS, submitNanos.size());
+                assertEquals(DEPOSITS - fabricated.get(), confirmNanos.size());
+                log.info("{} deposits in {} ms ({} per second), {} faucet errors, {} blocks",
+                        DEPOSITS, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                        String.format("%.0f", DEPOSITS / (elapsed / 1e9)), fabricated.get(), chain.getHeight());
+                log.info("Submit latency: p50 {} ms, p99 {} ms", millis(submitNanos, 0.5), millis(submitNanos, 0.99));
+                log.info("Submit to confirmation: p50 {} ms, p99 {} ms", millis(confirmNanos, 0.5), millis(confirmNanos, 0.99));
+            } finally {
+                tracker.shutdown();
+                taskScheduler.shutdown();
+                chainEndpoints.shutdown();
+            }
+        }
+    }
+
+    private static DepositCommand deposit(UUID accountId) {
+        return DepositCommand.builder()
+                .accountId(accountId)
+                .amount(BigDecimal.ONE)
+                .currencyCode("USD")
+                .description("Benchmark deposit")
+                .build();
+    }
+
+    private static String millis(List<Long> nanos, double quantile) {
+        List<Long> sorted = new ArrayList<>(nanos);
+        Collections.sort(sorted);
+        if (sorted.isEmpty()) {
+            return "-";
+        }
+        long value = sorted.get(Math.min(sorted.size() - 1, (int) (quantile * sorted.size())));
+        return String.format("%.1f", value / 1e6);
+    }
+}
@@ -0,0 +1,139 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.DepositCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxBroadcaster;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxTransport;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.stub.Faults;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.stub.StubCosmosChain;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.metrics.ChainMetrics;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.AccountBalance;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.TransactionRecord;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.repository.AccountAddressRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.service.AccountAddressRegistry;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.resilience.ChainEndpoints;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the deposit path of the CosmosBlockchainService end to end against a stub chain.
+ */
+public class CosmosDepositPathTest {
+
+    private final AccountAddressRegistry registry = new AccountAddressRegistry(mock(AccountAddressRepository.class));
+
+    private final UUID accountId = UUID.randomUUID();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StubCosmosChain chain;
+
+    private ChainEndpoints chainEndpoints;
+
+    private CosmosBlockchainService service;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        start(0);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        chainEndpoints.shutdown();
+        chain.close();
+    }
+
+    @Test
+    public void testDepositIsIncludedInNextBlock() {
+        // Act
+        BlockchainResponse response = service.executeCommand(deposit());
+        int pendingBeforeBlock = chain.getPendingCount();
+        long height = chain.commitBlock();
+
+        // Assert
+        assertTrue(response.isSuccessful());
+        assertEquals(1, pendingBeforeBlock);
+
+        TransactionRecord transaction = service.getTransaction(response.getTransactionHash());
+        assertEquals(height, transaction.getBlockNumber());
+        assertEquals("COMPLETED", transaction.getStatus());
+        assertEquals(accountId, transaction.getToAccount());
+
+        AccountBalance balance = service.getAccountBalance(accountId);
+        assertEquals(0, BigDecimal.ONE.compareTo(balance.getBalance()));
+        assertEquals(height, balance.getBlockNumber());
+
+        List<TransactionRecord> history = service.getTransactionHistory(accountId, 10);
+        assertEquals(List.of(response.getTransactionHash()), history.stream().map(TransactionRecord::getHash).toList());
+    }
+
+    @Test
+    public void testFaucetErrorFabricatesHash() {
+        // Arrange
+        chain.setFaults(StubCosmosChain.Route.FAUCET, Faults.of(Faults.Latency.NONE, 1.0));
+
+        // Act
+        BlockchainResponse response = service.executeCommand(deposit());
+
+        // Assert
+        assertTrue(response.getTransactionHash().startsWith("TX_ERROR_"));
+        assertEquals(0, chain.getPendingCount());
+        assertEquals(1, chain.getRequestCount(StubCosmosChain.Route.FAUCET));
+        assertEquals(1.0, meterRegistry.get("blockchain.tx.fabricated").tag("reason", "error").counter().count());
+    }
+
+    @Test
+    public void testBlockClockIncludesDeposits() throws Exception {
+        // Arrange
+        tearDown();
+        start(20);
+
+        // Act
+        BlockchainResponse response = service.executeCommand(deposit());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (chain.getPendingCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Assert
+        assertEquals(0, chain.getPendingCount());
+        assertNotNull(service.getTransaction(response.getTransactionHash()));
+    }
+
+    private void start(long blockTimeMs) throws IOException {
+        chain = new StubCosmosChain(blockTimeMs, 42);
+
+        BlockchainConfig config = mock(BlockchainConfig.class);
+        when(config.getResilienceBulkheadMaxConcurrent()).thenReturn(4);
+        when(config.getResilienceBreakerFailureThreshold()).thenReturn(5);
+        when(config.getTimeoutMs()).thenReturn(5000L);
+        when(config.isMetricsEnabled()).thenReturn(true);
+        chainEndpoints = new ChainEndpoints(config, new SimpleMeterRegistry());
+        service = new CosmosBlockchainService(new RestTemplate(), registry,
+                new CosmosTxBroadcaster(mock(BlockchainConfig.class), mock(CosmosTxTransport.class)),
+                chainEndpoints, new ChainMetrics(config, meterRegistry),
+                chain.endpoint(), chain.endpoint(), chain.endpoint(), StubCosmosChain.CHAIN_ID);
+    }
+
+    private DepositCommand deposit() {
+        return DepositCommand.builder()
+                .accountId(accountId)
+                .amount(new BigDecimal("1"))
+                .currencyCode("USD")
+                .description("Deposit")
+                .build();
+    }
+}
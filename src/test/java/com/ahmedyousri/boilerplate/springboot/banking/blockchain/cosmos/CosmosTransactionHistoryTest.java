@@ -0,0 +1,184 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxBroadcaster;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxTransport;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.metrics.ChainMetrics;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.TransactionRecord;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.repository.AccountAddressRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.service.AccountAddressRegistry;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.resilience.ChainEndpoints;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the paged transaction history of the CosmosBlockchainService against a stub gateway.
+ */
+public class CosmosTransactionHistoryTest {
+
+    private final AccountAddressRegistry registry = new AccountAddressRegistry(mock(AccountAddressRepository.class));
+
+    private final UUID accountId = UUID.randomUUID();
+
+    private final List<String> queries = new CopyOnWriteArrayList<>();
+
+    private HttpServer server;
+
+    private ChainEndpoints chainEndpoints;
+
+    private CosmosBlockchainService service;
+
+    private String address;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        address = registry.getAddress(accountId);
+
+        // Received at heights 10, 8, 6, 4, 2 and sent at heights 9, 7, 5, 3, 1, with a self-send at height 6
+        List<String> received = new ArrayList<>();
+        List<String> sent = new ArrayList<>();
+        for (int height = 10; height >= 1; height--) {
+            if (height % 2 == 0) {
+                received.add(tx("R" + height, height, "cosmos1peer", address));
+            } else {
+                sent.add(tx("S" + height, height, address, "cosmos1peer"));
+            }
+        }
+        String selfSend = tx("SELF", 6, address, address);
+        received.add(2, selfSend);
+        sent.add(2, selfSend);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/cosmos/tx/v1beta1/txs", exchange -> {
+            String query = URLDecoder.decode(exchange.getRequestURI().getRawQuery(), StandardCharsets.UTF_8);
+            queries.add(query);
+            Map<String, String> params = params(query);
+            List<String> txs = params.get("events").startsWith("transfer.recipient") ? received : sent;
+            int limit = Integer.parseInt(params.get("pagination.limit"));
+            int offset = Integer.parseInt(params.getOrDefault("pagination.offset", "0"));
+            List<String> page = txs.subList(Math.min(offset, txs.size()), Math.min(offset + limit, txs.size()));
+            respond(exchange, "{\"txs\":[],\"tx_responses\":[" + String.join(",", page) + "],"
+                    + "\"pagination\":{\"next_key\":null,\"total\":\"" + txs.size() + "\"}}");
+        });
+        server.start();
+
+        String endpoint = "http://127.0.0.1:" + server.getAddress().getPort();
+        BlockchainConfig config = mock(BlockchainConfig.class);
+        when(config.getResilienceBulkheadMaxConcurrent()).thenReturn(4);
+        when(config.getResilienceBreakerFailureThreshold()).thenReturn(5);
+        when(config.getTimeoutMs()).thenReturn(5000L);
+        chainEndpoints = new ChainEndpoints(config, new SimpleMeterRegistry());
+        service = new CosmosBlockchainService(new RestTemplate(), registry,
+                new CosmosTxBroadcaster(mock(BlockchainConfig.class), mock(CosmosTxTransport.class)),
+                chainEndpoints, new ChainMetrics(mock(BlockchainConfig.class), new SimpleMeterRegistry()),
+                endpoint, endpoint, endpoint, "quicktest");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+        chainEndpoints.shutdown();
+    }
+
+    @Test
+    public void testHistoryIsMergedNewestFirstWithoutDuplicates() {
+        // Act
+        List<TransactionRecord> history = service.getTransactionHistory(accountId, 100);
+
+        // Assert
+        assertEquals(List.of("R10", "S9", "R8", "S7", "SELF", "R6", "S5", "R4", "S3", "R2", "S1"),
+                history.stream().map(TransactionRecord::getHash).collect(Collectors.toList()));
+        assertEquals("Received from cosmos1peer", history.get(0).getDescription());
+        assertEquals("Sent to cosmos1peer", history.get(1).getDescription());
+        assertEquals(accountId, history.get(0).getToAccount());
+        assertTrue(queries.stream().allMatch(query -> query.contains("order_by=ORDER_BY_DESC")));
+    }
+
+    @Test
+    public void testLimitBoundsThePageSize() {
+        // Act
+        List<TransactionRecord> history = service.getTransactionHistory(accountId, 3);
+
+        // Assert
+        assertEquals(List.of("R10", "S9", "R8"), history.stream().map(TransactionRecord::getHash).collect(Collectors.toList()));
+        assertEquals(2, queries.size());
+        assertTrue(queries.stream().allMatch(query -> query.contains("pagination.limit=3")));
+    }
+
+    @Test
+    public void testStreamFetchesPagesAsItIsConsumed() {
+        // Act
+        List<String> hashes;
+        try (Stream<TransactionRecord> history = service.streamTransactionHistory(accountId)) {
+            hashes = history.limit(2).map(TransactionRecord::getHash).collect(Collectors.toList());
+        }
+
+        // Assert
+        assertEquals(List.of("R10", "S9"), hashes);
+        assertEquals(2, queries.size());
+        assertTrue(queries.stream().noneMatch(query -> query.contains("pagination.offset")));
+    }
+
+    @Test
+    public void testSmallPagesAreFollowedByOffset() {
+        // Act
+        List<TransactionRecord> history = service.getTransactionHistory(accountId, 2);
+        List<TransactionRecord> more;
+        try (Stream<TransactionRecord> stream = service.streamTransactionHistory(accountId)) {
+            more = stream.collect(Collectors.toList());
+        }
+
+        // Assert
+        assertEquals(2, history.size());
+        assertEquals(11, more.size());
+        assertTrue(queries.stream().anyMatch(query -> query.contains("pagination.limit=2")));
+    }
+
+    private static String tx(String hash, long height, String from, String to) {
+        return "{\"height\":\"" + height + "\",\"txhash\":\"" + hash + "\",\"code\":0,"
+                + "\"tx\":{\"body\":{\"messages\":[{\"@type\":\"/cosmos.bank.v1beta1.MsgSend\",\"from_address\":\"" + from
+                + "\",\"to_address\":\"" + to + "\",\"amount\":[{\"denom\":\"stake\",\"amount\":\"" + height + "\"}]}]}},"
+                + "\"timestamp\":\"2024-03-01T12:00:00Z\",\"events\":[]}";
+    }
+
+    private static Map<String, String> params(String query) {
+        Map<String, String> params = new HashMap<>();
+        for (String param : query.split("&")) {
+            int split = param.indexOf('=');
+            params.put(param.substring(0, split), param.substring(split + 1));
+        }
+        return params;
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.TransactionRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the CosmosTxDecoder.
+ */
+public class CosmosTxDecoderTest {
+
+    private static final String SEND = "{\"height\":\"42\",\"txhash\":\"HASH1\",\"code\":0,\"gas_wanted\":\"200000\",\"gas_used\":\"51234\","
+            + "\"raw_log\":\"[]\",\"logs\":[{\"events\":[{\"type\":\"transfer\",\"attributes\":[{\"key\":\"amount\",\"value\":\"5stake\"}]}]}],"
+            + "\"tx\":{\"@type\":\"/cosmos.tx.v1beta1.Tx\",\"body\":{\"messages\":[{\"@type\":\"/cosmos.bank.v1beta1.MsgSend\","
+            + "\"from_address\":\"cosmos1from\",\"to_address\":\"cosmos1to\",\"amount\":[{\"denom\":\"uatom\",\"amount\":\"1500\"},"
+            + "{\"denom\":\"stake\",\"amount\":\"7\"}]},{\"@type\":\"/cosmos.bank.v1beta1.MsgSend\",\"from_address\":\"cosmos1other\"}],"
+            + "\"memo\":\"note\"},\"auth_info\":{\"fee\":{\"amount\":[]}},\"signatures\":[\"c2ln\"]},"
+            + "\"timestamp\":\"2024-03-01T12:30:00Z\",\"events\":[{\"type\":\"tx\",\"attributes\":[]}]}";
+
+    private static final String FAILED = "{\"height\":\"41\",\"txhash\":\"HASH2\",\"code\":5,"
+            + "\"tx\":{\"body\":{\"messages\":[{\"@type\":\"/cosmos.staking.v1beta1.MsgDelegate\",\"delegator_address\":\"cosmos1from\","
+            + "\"amount\":{\"denom\":\"stake\",\"amount\":\"10\"}}]}},\"timestamp\":\"2024-03-01T12:29:00Z\"}";
+
+    @Test
+    public void testDecodeSearchReadsRecordsAndPagination() throws IOException {
+        // Arrange
+        String body = "{\"txs\":[{\"body\":{}}],\"tx_responses\":[" + SEND + "," + FAILED + "],"
+                + "\"pagination\":{\"next_key\":\"a2V5\",\"total\":\"9\"},\"total\":\"9\"}";
+
+        // Act
+        CosmosTxDecoder.TxPage page = CosmosTxDecoder.decodeSearch(stream(body), 10);
+
+        // Assert
+        assertEquals(2, page.getRecords().size());
+        assertEquals("a2V5", page.getNextKey());
+        assertEquals(9, page.getTotal());
+        assertFalse(page.isTruncated());
+
+        TransactionRecord send = page.getRecords().get(0);
+        assertEquals("HASH1", send.getHash());
+        assertEquals("HASH1", send.getTransactionHash());
+        assertEquals(42, send.getBlockNumber());
+        assertEquals("cosmos1from", send.getFrom());
+        assertEquals("cosmos1to", send.getTo());
+        assertEquals(new BigDecimal("1500"), send.getAmount());
+        assertEquals("uatom", send.getCurrencyCode());
+        assertEquals(200000, send.getGasLimit());
+        assertEquals(51234, send.getGasUsed());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 12, 30), send.getCreatedAt());
+        assertEquals("COMPLETED", send.getStatus());
+
+        TransactionRecord failed = page.getRecords().get(1);
+        assertEquals("FAILED", failed.getStatus());
+        assertEquals(BigDecimal.ZERO, failed.getAmount());
+        assertEquals("stake", failed.getCurrencyCode());
+        assertNull(failed.getFrom());
+    }
+
+    @Test
+    public void testDecodeSearchStopsAtLimit() throws IOException {
+        // Arrange
+        String body = "{\"tx_responses\":[" + SEND + "," + FAILED + ",{\"broken\":";
+
+        // Act
+        CosmosTxDecoder.TxPage page = CosmosTxDecoder.decodeSearch(stream(body), 1);
+
+        // Assert
+        assertEquals(1, page.getRecords().size());
+        assertTrue(page.isTruncated());
+        assertNull(page.getNextKey());
+    }
+
+    @Test
+    public void testDecodeSearchWithoutResults() throws IOException {
+        // Act
+        CosmosTxDecoder.TxPage page = CosmosTxDecoder.decodeSearch(
+                stream("{\"txs\":[],\"tx_responses\":[],\"pagination\":{\"next_key\":null,\"total\":\"0\"}}"), 10);
+
+        // Assert
+        assertTrue(page.getRecords().isEmpty());
+        assertNull(page.getNextKey());
+    }
+
+    @Test
+    public void testDecodeTx() throws IOException {
+        // Arrange
+        String body = "{\"tx\":{\"body\":{\"messages\":[]}},\"tx_response\":" + SEND + "}";
+
+        // Act
+        TransactionRecord transaction = CosmosTxDecoder.decodeTx(stream(body));
+
+        // Assert
+        assertEquals("HASH1", transaction.getHash());
+        assertEquals("cosmos1to", transaction.getTo());
+        assertEquals(new BigDecimal("1500"), transaction.getAmount());
+        assertNull(CosmosTxDecoder.decodeTx(stream("{\"code\":5,\"message\":\"tx not found\"}")));
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
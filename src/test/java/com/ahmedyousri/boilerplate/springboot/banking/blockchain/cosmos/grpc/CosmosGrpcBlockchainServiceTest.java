@@ -0,0 +1,127 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.grpc;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.CosmosBlockchainService;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.AccountSequenceManager;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxTransport;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.AccountBalance;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.TransactionRecord;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.repository.AccountAddressRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.service.AccountAddressRegistry;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for the CosmosGrpcBlockchainService and CosmosGrpcClient against an in-process stub node.
+ */
+public class CosmosGrpcBlockchainServiceTest {
+
+    private StubCosmosNode node;
+
+    private Server server;
+
+    private ManagedChannel channel;
+
+    private CosmosGrpcClient client;
+
+    private AccountAddressRegistry registry;
+
+    private CosmosGrpcBlockchainService service;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        node = new StubCosmosNode();
+        String name = InProcessServerBuilder.generateName();
+        InProcessServerBuilder serverBuilder = InProcessServerBuilder.forName(name).directExecutor();
+        node.services().forEach(serverBuilder::addService);
+        server = serverBuilder.build().start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        client = new CosmosGrpcClient(channel, 5000);
+        registry = new AccountAddressRegistry(mock(AccountAddressRepository.class));
+        service = new CosmosGrpcBlockchainService(client, registry, mock(CosmosBlockchainService.class));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    public void testAccountBalanceCombinesBalanceAndHeight() {
+        // Arrange
+        UUID accountId = UUID.randomUUID();
+        node.balances.put(registry.getAddress(accountId), "1500");
+
+        // Act
+        AccountBalance balance = service.getAccountBalance(accountId);
+
+        // Assert
+        assertEquals(new BigDecimal("1500"), balance.getBalance());
+        assertEquals("stake", balance.getCurrencyCode());
+        assertEquals(StubCosmosNode.HEIGHT, balance.getBlockNumber());
+        assertEquals(registry.getAddress(accountId), balance.getAddress());
+    }
+
+    @Test
+    public void testTransactionDecodesBankSendAndBlockHash() {
+        // Arrange
+        UUID fromAccountId = UUID.randomUUID();
+        UUID toAccountId = UUID.randomUUID();
+        node.addTx("HASH1", registry.getAddress(fromAccountId), registry.getAddress(toAccountId), "250");
+
+        // Act
+        TransactionRecord transaction = service.getTransaction("HASH1");
+        List<TransactionRecord> history = service.getTransactionHistory(toAccountId, 10);
+
+        // Assert
+        assertEquals("HASH1", transaction.getTransactionHash());
+        assertEquals(new BigDecimal("250"), transaction.getAmount());
+        assertEquals(fromAccountId, transaction.getFromAccount());
+        assertEquals(toAccountId, transaction.getToAccount());
+        assertEquals(StubCosmosNode.HEIGHT, transaction.getBlockNumber());
+        assertEquals("ABCD0102", transaction.getBlockHash());
+        assertEquals("COMPLETED", transaction.getStatus());
+        assertNotNull(transaction.getConfirmedAt());
+        assertEquals(1, history.size());
+        assertTrue(history.get(0).getDescription().startsWith("Received from "));
+    }
+
+    @Test
+    public void testBroadcastTransportAndConcurrentQueriesShareChannel() throws Exception {
+        // Arrange
+        CosmosTxTransport transport = client;
+        List<CompletableFuture<List<CosmosGrpcClient.Coin>>> queries = new ArrayList<>();
+
+        // Act
+        AccountSequenceManager.AccountInfo account = transport.loadAccount("cosmos1signer");
+        CosmosTxTransport.BroadcastResult result = transport.broadcastSync(new byte[]{1, 2, 3});
+        for (int i = 0; i < 200; i++) {
+            queries.add(client.getAllBalances("cosmos1query" + i));
+        }
+        CompletableFuture.allOf(queries.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(7, account.getAccountNumber());
+        assertEquals(3, account.getSequence());
+        assertEquals(0, result.getCode());
+        assertEquals("BROADCAST1", result.getTxHash());
+        for (CompletableFuture<List<CosmosGrpcClient.Coin>> query : queries) {
+            assertEquals("0", query.get().get(0).getAmount());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.grpc;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.CosmosBlockchainService;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxBroadcaster;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxTransport;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.metrics.ChainMetrics;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.repository.AccountAddressRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.service.AccountAddressRegistry;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.resilience.ChainEndpoints;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.BlockchainService;
+import com.sun.management.ThreadMXBean;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the latency and allocation of balance queries over the REST/JSON path and the gRPC
+ * path against local stub nodes. Run with {@code mvn test -Dbenchmark=true
+ * -Dtest=CosmosTransportBenchmarkTest}; results are logged rather than asserted, because they
+ * depend on the host.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class CosmosTransportBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CosmosTransportBenchmarkTest.class);
+
+    private static final int WARMUP_ITERATIONS = 1_000;
+
+    private static final int MEASURED_ITERATIONS = 3_000;
+
+    private static final int CONCURRENCY = 64;
+
+    private static final String BALANCE_JSON = "{\"balances\":[{\"denom\":\"stake\",\"amount\":\"1500\"}],"
+            + "\"pagination\":{\"next_key\":null,\"total\":\"1\"}}";
+
+    private static final String STATUS_JSON = "{\"jsonrpc\":\"2.0\",\"id\":-1,\"result\":{\"node_info\":{\"network\":\"quicktest\"},"
+            + "\"sync_info\":{\"latest_block_hash\":\"ABCD0102\",\"latest_block_height\":\"42\",\"catching_up\":false}}}";
+
+    @Test
+    public void benchmarkBalanceQueries() throws Exception {
+        // Arrange
+        AccountAddressRegistry registry = new AccountAddressRegistry(mock(AccountAddressRepository.class));
+        UUID accountId = UUID.randomUUID();
+
+        // Without TCP_NODELAY the split header and body writes stall on delayed ACKs
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        httpServer.createContext("/cosmos/bank/v1beta1/balances/", exchange -> respond(exchange, BALANCE_JSON));
+        httpServer.createContext("/status", exchange -> respond(exchange, STATUS_JSON));
+        httpServer.setExecutor(Executors.newFixedThreadPool(CONCURRENCY));
+        httpServer.start();
+        String httpEndpoint = "http://127.0.0.1:" + httpServer.getAddress().getPort();
+        CosmosBlockchainService restService = new CosmosBlockchainService(new RestTemplate(), registry,
+                new CosmosTxBroadcaster(mock(BlockchainConfig.class), mock(CosmosTxTransport.class)),
+                new ChainEndpoints(endpointConfig(), new SimpleMeterRegistry()),
+                new ChainMetrics(endpointConfig(), new SimpleMeterRegistry()),
+                httpEndpoint, httpEndpoint, httpEndpoint, "quicktest");
+
+        StubCosmosNode node = new StubCosmosNode();
+        node.balances.put(registry.getAddress(accountId), "1500");
+        NettyServerBuilder serverBuilder = NettyServerBuilder.forAddress(new InetSocketAddress("127.0.0.1", 0));
+        node.services().forEach(serverBuilder::addService);
+        Server grpcServer = serverBuilder.build().start();
+        ManagedChannel channel = NettyChannelBuilder.forAddress("127.0.0.1", grpcServer.getPort())
+                .usePlaintext()
+                .keepAliveTime(30, TimeUnit.SECONDS)
+                .build();
+        CosmosGrpcBlockchainService grpcService = new CosmosGrpcBlockchainService(
+                new CosmosGrpcClient(channel, 5000), registry, mock(CosmosBlockchainService.class));
+
+        try {
+            // Act
+            Result rest = measure(restService, accountId);
+            Result grpc = measure(grpcService, accountId);
+
+            // Assert
+            log.info("REST/JSON: {}", rest);
+            log.info("gRPC:      {}", grpc);
+            assertEquals(grpcService.getAccountBalance(accountId).getBalance(), restService.getAccountBalance(accountId).getBalance());
+        } finally {
+            channel.shutdownNow();
+            grpcServer.shutdownNow();
+            httpServer.stop(0);
+        }
+    }
+
+    private static Result measure(BlockchainService service, UUID accountId) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            service.getAccountBalance(accountId);
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            service.getAccountBalance(accountId);
+        }
+        long sequentialNanos = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ITERATIONS / CONCURRENCY; round++) {
+            List<CompletableFuture<?>> inFlight = new ArrayList<>(CONCURRENCY);
+            for (int i = 0; i < CONCURRENCY; i++) {
+                inFlight.add(service.getAccountBalanceAsync(accountId));
+            }
+            CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        }
+        long concurrentNanos = System.nanoTime() - start;
+
+        return new Result(
+                sequentialNanos / 1_000.0 / MEASURED_ITERATIONS,
+                allocated / (double) MEASURED_ITERATIONS,
+                (MEASURED_ITERATIONS / CONCURRENCY * CONCURRENCY) / (concurrentNanos / 1e9));
+    }
+
+    /**
+     * Sum the bytes allocated by all live threads, which includes transport threads that
+     * decode responses on behalf of the caller.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(allocated, 0);
+        }
+        return total;
+    }
+
+    private static BlockchainConfig endpointConfig() {
+        BlockchainConfig config = mock(BlockchainConfig.class);
+        when(config.getResilienceBulkheadMaxConcurrent()).thenReturn(CONCURRENCY);
+        when(config.getResilienceBreakerFailureThreshold()).thenReturn(5);
+        when(config.getTimeoutMs()).thenReturn(5000L);
+        return config;
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static final class Result {
+
+        private final double latencyMicros;
+
+        private final double allocatedBytesPerCall;
+
+        private final double concurrentCallsPerSecond;
+
+        Result(double latencyMicros, double allocatedBytesPerCall, double concurrentCallsPerSecond) {
+            this.latencyMicros = latencyMicros;
+            this.allocatedBytesPerCall = allocatedBytesPerCall;
+            this.concurrentCallsPerSecond = concurrentCallsPerSecond;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.1f us/call sequential, %.0f bytes allocated/call, %.0f calls/s at concurrency %d",
+                    latencyMicros, allocatedBytesPerCall, concurrentCallsPerSecond, CONCURRENCY);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.grpc;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxEncoder;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.stub.ServerCalls;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * A Cosmos node stub serving the gRPC methods used by the CosmosGrpcClient with canned
+ * protobuf responses. Responses are encoded with the same field writer as the client.
+ */
+class StubCosmosNode {
+
+    static final long HEIGHT = 42;
+
+    static final byte[] BLOCK_HASH = {(byte) 0xAB, (byte) 0xCD, 0x01, 0x02};
+
+    final Map<String, String> balances = new ConcurrentHashMap<>();
+
+    final Map<String, byte[]> txs = new ConcurrentHashMap<>();
+
+    final AtomicLong broadcasts = new AtomicLong();
+
+    long accountNumber = 7;
+
+    long sequence = 3;
+
+    /**
+     * Build the service definitions, one per Cosmos gRPC service.
+     *
+     * @return The services to register on a server
+     */
+    List<ServerServiceDefinition> services() {
+        Map<String, ServerServiceDefinition.Builder> builders = new LinkedHashMap<>();
+        bind(builders, CosmosGrpcClient.ALL_BALANCES, request -> allBalances(ProtoFields.parse(request).string(1)));
+        bind(builders, CosmosGrpcClient.ACCOUNT, request -> account());
+        bind(builders, CosmosGrpcClient.GET_LATEST_BLOCK, request -> block());
+        bind(builders, CosmosGrpcClient.GET_BLOCK_BY_HEIGHT, request -> block());
+        bind(builders, CosmosGrpcClient.GET_TX, request -> getTx(ProtoFields.parse(request).string(1)));
+        bind(builders, CosmosGrpcClient.GET_TXS_EVENT, request -> getTxsEvent());
+        bind(builders, CosmosGrpcClient.BROADCAST_TX, request -> broadcastTx());
+
+        List<ServerServiceDefinition> services = new ArrayList<>();
+        builders.values().forEach(builder -> services.add(builder.build()));
+        return services;
+    }
+
+    /**
+     * Encode a transaction with a single bank send and register it under a hash.
+     */
+    void addTx(String hash, String from, String to, String amount) {
+        byte[] body = CosmosTxEncoder.txBody(CosmosTxEncoder.msgSend(from, to, amount, "stake"), null);
+        txs.put(hash, ProtoFields.encode(out -> out.writeByteArray(1, body)));
+    }
+
+    private byte[] allBalances(String address) {
+        String amount = balances.getOrDefault(address, "0");
+        byte[] coin = ProtoFields.encode(out -> {
+            out.writeString(1, "stake");
+            out.writeString(2, amount);
+        });
+        return ProtoFields.encode(out -> out.writeByteArray(1, coin));
+    }
+
+    private byte[] account() {
+        byte[] baseAccount = ProtoFields.encode(out -> {
+            out.writeString(1, "cosmos1signer");
+            out.writeUInt64(3, accountNumber);
+            out.writeUInt64(4, sequence);
+        });
+        byte[] any = ProtoFields.encode(out -> {
+            out.writeString(1, "/cosmos.auth.v1beta1.BaseAccount");
+            out.writeByteArray(2, baseAccount);
+        });
+        return ProtoFields.encode(out -> out.writeByteArray(1, any));
+    }
+
+    private byte[] block() {
+        byte[] blockId = ProtoFields.encode(out -> out.writeByteArray(1, BLOCK_HASH));
+        byte[] header = ProtoFields.encode(out -> out.writeInt64(3, HEIGHT));
+        byte[] block = ProtoFields.encode(out -> out.writeByteArray(1, header));
+        return ProtoFields.encode(out -> {
+            out.writeByteArray(1, blockId);
+            out.writeByteArray(2, block);
+        });
+    }
+
+    private byte[] getTx(String hash) {
+        return ProtoFields.encode(out -> {
+            out.writeByteArray(1, txs.getOrDefault(hash, new byte[0]));
+            out.writeByteArray(2, txResponse(hash));
+        });
+    }
+
+    private byte[] getTxsEvent() {
+        return ProtoFields.encode(out -> {
+            for (Map.Entry<String, byte[]> tx : txs.entrySet()) {
+                out.writeByteArray(1, tx.getValue());
+                out.writeByteArray(2, txResponse(tx.getKey()));
+            }
+        });
+    }
+
+    private byte[] broadcastTx() {
+        String hash = "BROADCAST" + broadcasts.incrementAndGet();
+        return ProtoFields.encode(out -> out.writeByteArray(1, txResponse(hash)));
+    }
+
+    private static byte[] txResponse(String hash) {
+        return ProtoFields.encode(out -> {
+            out.writeInt64(1, HEIGHT);
+            out.writeString(2, hash);
+            out.writeString(12, "2025-01-02T03:04:05Z");
+        });
+    }
+
+    private static void bind(Map<String, ServerServiceDefinition.Builder> builders,
+                             MethodDescriptor<byte[], byte[]> method,
+                             UnaryOperator<byte[]> handler) {
+        builders.computeIfAbsent(method.getServiceName(), ServerServiceDefinition::builder)
+                .addMethod(method, ServerCalls.asyncUnaryCall((request, responseObserver) -> {
+                    responseObserver.onNext(handler.apply(request));
+                    responseObserver.onCompleted();
+                }));
+    }
+}
@@ -0,0 +1,208 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the CosmosTxBroadcaster against a stub chain that enforces account sequences
+ * and verifies signatures the way the mempool check does.
+ */
+public class CosmosTxBroadcasterTest {
+
+    private static final String PRIVATE_KEY = "0x21d1f574cb16b188b38df1edd82cc99f2c14dea0bb192a7389732c2f28e92c7b";
+
+    private static final long ACCOUNT_NUMBER = 7;
+
+    private CosmosTxBroadcaster broadcaster;
+
+    @AfterEach
+    public void tearDown() {
+        if (broadcaster != null) {
+            broadcaster.shutdown();
+        }
+    }
+
+    @Test
+    public void testPipelinedSendsRecoverFromStaleSequence() throws Exception {
+        // Arrange: the committed sequence lags the mempool, as it does while earlier transactions are pending
+        StubChain chain = new StubChain(12, 9);
+        broadcaster = new CosmosTxBroadcaster(config(), new RestCosmosTxTransport(config(), chain.restTemplate()));
+        broadcaster.initialize();
+
+        // Act
+        List<CompletableFuture<String>> sends = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            sends.add(broadcaster.send("cosmos1wdtem7vfw6ymewcu8dr4rz5xlhjj225ah3k9z0", new BigDecimal(i + 1), "stake", "pipelined " + i));
+        }
+        CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+
+        // Assert
+        Set<String> hashes = new HashSet<>();
+        for (CompletableFuture<String> send : sends) {
+            hashes.add(send.get());
+        }
+        assertEquals(100, hashes.size());
+        assertEquals(112, chain.sequence);
+        assertEquals(0, chain.invalidSignatures);
+        assertTrue(chain.mismatches > 0);
+    }
+
+    @Test
+    public void testRejectedTransactionFailsWithoutConsumingSequence() throws Exception {
+        // Arrange
+        StubChain chain = new StubChain(0, 0);
+        chain.rejectAmount = "13";
+        broadcaster = new CosmosTxBroadcaster(config(), new RestCosmosTxTransport(config(), chain.restTemplate()));
+        broadcaster.initialize();
+
+        // Act
+        CompletableFuture<String> rejected = broadcaster.send("cosmos1wdtem7vfw6ymewcu8dr4rz5xlhjj225ah3k9z0", new BigDecimal("13"), "stake", null);
+        CompletableFuture<String> accepted = broadcaster.send("cosmos1wdtem7vfw6ymewcu8dr4rz5xlhjj225ah3k9z0", new BigDecimal("14"), "stake", null);
+
+        // Assert
+        Exception error = assertThrows(Exception.class, () -> rejected.get(10, TimeUnit.SECONDS));
+        assertTrue(error.getMessage().contains("insufficient funds"), error.getMessage());
+        assertNotNull(accepted.get(10, TimeUnit.SECONDS));
+        assertEquals(1, chain.sequence);
+    }
+
+    @Test
+    public void testParseExpectedSequence() {
+        assertEquals(5L, CosmosTxBroadcaster.parseExpectedSequence("account sequence mismatch, expected 5, got 7: incorrect account sequence"));
+        assertNull(CosmosTxBroadcaster.parseExpectedSequence("out of gas"));
+    }
+
+    private BlockchainConfig config() {
+        BlockchainConfig blockchainConfig = mock(BlockchainConfig.class);
+        when(blockchainConfig.isCosmosSigningEnabled()).thenReturn(true);
+        when(blockchainConfig.getCosmosSigningParallelism()).thenReturn(4);
+        when(blockchainConfig.getCosmosSigningGasLimit()).thenReturn(200000L);
+        when(blockchainConfig.getCosmosSigningFeeAmount()).thenReturn("0");
+        when(blockchainConfig.getCosmosSigningFeeDenom()).thenReturn("stake");
+        when(blockchainConfig.getSystemAccountPrivateKey()).thenReturn(PRIVATE_KEY);
+        when(blockchainConfig.getCosmosChainId()).thenReturn("quicktest");
+        when(blockchainConfig.getCosmosRestEndpoint()).thenReturn("http://stub");
+        when(blockchainConfig.getRetryMaxAttempts()).thenReturn(3);
+        return blockchainConfig;
+    }
+
+    /**
+     * Minimal stand-in for the mempool check of a single-node chain.
+     */
+    private static class StubChain {
+
+        private final byte[] publicKey = new CosmosSigner(PRIVATE_KEY, "cosmos").getPublicKey();
+
+        private long sequence;
+
+        private final long committedSequence;
+
+        private int mismatches;
+
+        private int invalidSignatures;
+
+        private String rejectAmount;
+
+        StubChain(long sequence, long committedSequence) {
+            this.sequence = sequence;
+            this.committedSequence = committedSequence;
+        }
+
+        RestTemplate restTemplate() {
+            RestTemplate restTemplate = mock(RestTemplate.class);
+            when(restTemplate.getForObject(startsWith("http://stub/cosmos/auth/v1beta1/accounts/"), eq(String.class)))
+                    .thenAnswer(invocation -> "{\"account\":{\"account_number\":\"" + ACCOUNT_NUMBER
+                            + "\",\"sequence\":\"" + committedSequence + "\"}}");
+            when(restTemplate.postForObject(eq("http://stub/cosmos/tx/v1beta1/txs"), any(HttpEntity.class), eq(String.class)))
+                    .thenAnswer(invocation -> {
+                        Map<?, ?> body = (Map<?, ?>) ((HttpEntity<?>) invocation.getArgument(1)).getBody();
+                        return checkTx(Base64.getDecoder().decode((String) body.get("tx_bytes")));
+                    });
+            return restTemplate;
+        }
+
+        synchronized String checkTx(byte[] txBytes) throws IOException {
+            List<byte[]> txRaw = fields(txBytes);
+            byte[] bodyBytes = txRaw.get(0);
+            byte[] authInfoBytes = txRaw.get(1);
+            byte[] signature = txRaw.get(2);
+
+            List<byte[]> signerInfo = fields(fields(authInfoBytes).get(0));
+            // A zero sequence is the default value and is omitted from the encoding
+            long txSequence = signerInfo.size() > 2 ? CodedInputStream.newInstance(signerInfo.get(2)).readUInt64() : 0;
+            byte[] signDoc = CosmosTxEncoder.signDoc(bodyBytes, authInfoBytes, "quicktest", ACCOUNT_NUMBER);
+            if (!Secp256k1.verify(CosmosSigner.sha256(signDoc), signature, publicKey)) {
+                invalidSignatures++;
+                return response(4, "", "signature verification failed");
+            }
+            if (txSequence != sequence) {
+                mismatches++;
+                return response(32, "", "account sequence mismatch, expected " + sequence + ", got " + txSequence
+                        + ": incorrect account sequence");
+            }
+
+            byte[] msgSend = fields(fields(fields(bodyBytes).get(0)).get(1)).get(2);
+            String amount = new String(fields(msgSend).get(1));
+            if (amount.equals(rejectAmount)) {
+                return response(5, "", "insufficient funds");
+            }
+            sequence++;
+            return response(0, HexFormat.of().formatHex(CosmosSigner.sha256(txBytes)).toUpperCase(), "");
+        }
+
+        private static String response(int code, String txHash, String rawLog) {
+            return "{\"tx_response\":{\"code\":" + code + ",\"txhash\":\"" + txHash + "\",\"raw_log\":\"" + rawLog + "\"}}";
+        }
+
+        /**
+         * Read fields 1..n of a message in order; varints are returned as their encoded bytes.
+         */
+        private static List<byte[]> fields(byte[] message) throws IOException {
+            CodedInputStream input = CodedInputStream.newInstance(message);
+            List<byte[]> fields = new ArrayList<>();
+            int tag;
+            while ((tag = input.readTag()) != 0) {
+                int field = tag >>> 3;
+                while (fields.size() < field) {
+                    fields.add(new byte[0]);
+                }
+                if ((tag & 7) == 0) {
+                    long value = input.readUInt64();
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    CodedOutputStream varint = CodedOutputStream.newInstance(out);
+                    varint.writeUInt64NoTag(value);
+                    varint.flush();
+                    fields.set(field - 1, out.toByteArray());
+                } else {
+                    fields.set(field - 1, input.readByteArray());
+                }
+            }
+            return fields;
+        }
+    }
+}
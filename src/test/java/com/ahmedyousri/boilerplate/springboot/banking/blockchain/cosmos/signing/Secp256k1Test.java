@@ -0,0 +1,60 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing;
+
+import com.ahmedyousri.boilerplate.springboot.banking.util.Ripemd160;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Secp256k1 signer and the digests used to derive addresses.
+ */
+public class Secp256k1Test {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    @Test
+    public void testRipemd160MatchesReferenceVectors() {
+        assertEquals("9c1185a5c5e9fc54612808977ee8f548b2258d31", HEX.formatHex(Ripemd160.digest(new byte[0])));
+        assertEquals("8eb208f7e05d987a9b044a8e98c6b087f15a0bfc",
+                HEX.formatHex(Ripemd160.digest("abc".getBytes(StandardCharsets.US_ASCII))));
+        assertEquals("12a053384a9c0c88e405a06c27dcf49ada62eb2b",
+                HEX.formatHex(Ripemd160.digest("abcdbcdecdefdefgefghfghighijhijkijkljklmklmnlmnomnopnopq".getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    @Test
+    public void testDeterministicSignatureMatchesReferenceVector() {
+        // Arrange
+        byte[] privateKey = HEX.parseHex("0000000000000000000000000000000000000000000000000000000000000001");
+        byte[] hash = CosmosSigner.sha256("Satoshi Nakamoto".getBytes(StandardCharsets.US_ASCII));
+
+        // Act
+        byte[] publicKey = Secp256k1.publicKey(privateKey);
+        byte[] signature = Secp256k1.sign(hash, privateKey);
+
+        // Assert
+        assertEquals("0279be667ef9dcbbac55a06295ce870b07029bfcdb2dce28d959f2815b16f81798", HEX.formatHex(publicKey));
+        assertEquals("934b1ea10a4b3c1757e2b0c017d0b6143ce3c9a7e6a4a49860d7a6ab210ee3d8"
+                + "2442ce9d2b916064108014783e923ec36b49743e2ffa1c4496f01a512aafd9e5", HEX.formatHex(signature));
+        assertTrue(Secp256k1.verify(hash, signature, publicKey));
+        hash[0] ^= 1;
+        assertFalse(Secp256k1.verify(hash, signature, publicKey));
+    }
+
+    @Test
+    public void testSignerDerivesCosmosAddress() {
+        // Arrange
+        CosmosSigner signer = new CosmosSigner("0x21d1f574cb16b188b38df1edd82cc99f2c14dea0bb192a7389732c2f28e92c7b", "cosmos");
+        byte[] signDoc = "sign doc".getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        byte[] signature = signer.sign(signDoc);
+
+        // Assert
+        assertTrue(signer.getAddress().startsWith("cosmos1"));
+        assertEquals(45, signer.getAddress().length());
+        assertTrue(Secp256k1.verify(CosmosSigner.sha256(signDoc), signature, signer.getPublicKey()));
+    }
+}
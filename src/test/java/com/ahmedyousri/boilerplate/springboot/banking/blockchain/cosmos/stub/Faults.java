@@ -0,0 +1,100 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.stub;
+
+import java.util.Random;
+
+/**
+ * The faults a {@link StubCosmosChain} injects into the requests of one route: a latency drawn
+ * from a distribution before each response, and a rate of requests answered with a server error.
+ */
+public final class Faults {
+
+    /**
+     * No added latency and no errors.
+     */
+    public static final Faults NONE = new Faults(Latency.NONE, 0);
+
+    private final Latency latency;
+
+    private final double errorRate;
+
+    private Faults(Latency latency, double errorRate) {
+        this.latency = latency;
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Create faults.
+     *
+     * @param latency   The latency added before each response
+     * @param errorRate The fraction of requests answered with 503, between 0 and 1
+     * @return The faults
+     */
+    public static Faults of(Latency latency, double errorRate) {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Error rate must be between 0 and 1: " + errorRate);
+        }
+        return new Faults(latency, errorRate);
+    }
+
+    Latency getLatency() {
+        return latency;
+    }
+
+    double getErrorRate() {
+        return errorRate;
+    }
+
+    /**
+     * A latency distribution.
+     */
+    @FunctionalInterface
+    public interface Latency {
+
+        /**
+         * No added latency.
+         */
+        Latency NONE = random -> 0;
+
+        /**
+         * Draw a latency.
+         *
+         * @param random The source of randomness
+         * @return The latency in milliseconds
+         */
+        long sampleMillis(Random random);
+
+        /**
+         * Always the same latency.
+         *
+         * @param millis The latency in milliseconds
+         * @return The distribution
+         */
+        static Latency fixed(long millis) {
+            return random -> millis;
+        }
+
+        /**
+         * A latency spread evenly over a range.
+         *
+         * @param minMillis The lowest latency in milliseconds
+         * @param maxMillis The highest latency in milliseconds
+         * @return The distribution
+         */
+        static Latency uniform(long minMillis, long maxMillis) {
+            return random -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis + 1));
+        }
+
+        /**
+         * A long-tailed latency, log-normally distributed with the given median and 99th percentile.
+         *
+         * @param medianMillis The median latency in milliseconds
+         * @param p99Millis    The 99th percentile latency in milliseconds
+         * @return The distribution
+         */
+        static Latency logNormal(double medianMillis, double p99Millis) {
+            // The 99th percentile of a standard normal distribution
+            double sigma = Math.log(p99Millis / medianMillis) / 2.3263;
+            return random -> Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+        }
+    }
+}
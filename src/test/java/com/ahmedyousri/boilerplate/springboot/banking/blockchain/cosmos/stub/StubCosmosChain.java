@@ -0,0 +1,633 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A local stand-in for a Cosmos node, serving on one port the REST gateway, Tendermint RPC and
+ * faucet endpoints used by {@code CosmosBlockchainService} and its collaborators:
+ * {@code /cosmos/bank/v1beta1/balances}, {@code /cosmos/tx/v1beta1/txs},
+ * {@code /cosmos/base/tendermint/v1beta1/blocks/latest}, {@code /status}, {@code /block},
+ * {@code /blockchain}, {@code /tx_search} and {@code /credit}.
+ *
+ * <p>Faucet credits wait in a mempool and are included in the next block. Blocks are committed
+ * every {@code blockTimeMs} by a background clock, or only by {@link #commitBlock()} when the block
+ * time is 0. Each route can be given {@link Faults}: a latency distribution applied before every
+ * response and a rate of requests answered with 503. Randomness comes from one seeded source, so
+ * a run with the same seed and request order injects the same faults.</p>
+ *
+ * <p>Signed broadcasts are not served; decoding them would need the protobuf tx codec, so deposits
+ * and transfers are exercised through the faucet.</p>
+ */
+public class StubCosmosChain implements AutoCloseable {
+
+    public static final String DENOM = "stake";
+
+    public static final String CHAIN_ID = "quicktest";
+
+    public static final String FAUCET_ADDRESS = "cosmos1stubfaucet";
+
+    private static final String MSG_SEND = "/cosmos.bank.v1beta1.MsgSend";
+
+    private static final Pattern CONDITION = Pattern.compile("([\\w.]+)\\s*(>=|<=|>|<|=)\\s*'?([^']*)'?");
+
+    private static final Pattern COIN = Pattern.compile("(\\d+(?:\\.\\d+)?)([a-zA-Z/]+)");
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * The endpoint groups a request can belong to, each with its own faults.
+     */
+    public enum Route {
+        REST, RPC, FAUCET
+    }
+
+    private final HttpServer server;
+
+    private final ExecutorService handlers;
+
+    private final ScheduledExecutorService clock;
+
+    private final Random random;
+
+    private final Map<Route, Faults> faults = new ConcurrentHashMap<>();
+
+    private final Map<Route, AtomicLong> requests = new EnumMap<>(Route.class);
+
+    // Chain state below is guarded by this
+
+    private final List<Tx> mempool = new ArrayList<>();
+
+    private final List<Tx> txs = new ArrayList<>();
+
+    private final Map<String, Tx> txsByHash = new HashMap<>();
+
+    private final Map<String, BigDecimal> balances = new HashMap<>();
+
+    private final List<Block> blocks = new ArrayList<>();
+
+    /**
+     * Start a stub chain at height 1.
+     *
+     * @param blockTimeMs The time between blocks, or 0 to commit blocks only on request
+     * @param seed        The seed of the injected faults and generated hashes
+     * @throws IOException If the server cannot be started
+     */
+    public StubCosmosChain(long blockTimeMs, long seed) throws IOException {
+        for (Route route : Route.values()) {
+            requests.put(route, new AtomicLong());
+        }
+        random = new Random(seed);
+        commitBlock();
+
+        // Without TCP_NODELAY the split header and body writes stall on delayed ACKs
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        handlers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-cosmos");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(handlers);
+        server.start();
+
+        clock = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stub-cosmos-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (blockTimeMs > 0) {
+            clock.scheduleAtFixedRate(this::commitBlock, blockTimeMs, blockTimeMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Get the base URL of the REST, RPC and faucet endpoints, which share one port.
+     *
+     * @return The URL
+     */
+    public String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Inject faults into the requests of a route.
+     *
+     * @param route  The route
+     * @param faults The faults, or {@link Faults#NONE}
+     */
+    public void setFaults(Route route, Faults faults) {
+        this.faults.put(route, faults);
+    }
+
+    /**
+     * Get the number of requests received on a route, including those answered with errors.
+     *
+     * @param route The route
+     * @return The number of requests
+     */
+    public long getRequestCount(Route route) {
+        return requests.get(route).get();
+    }
+
+    /**
+     * Set the balance of an address directly, as if at genesis.
+     *
+     * @param address The address
+     * @param amount  The amount of {@link #DENOM}
+     */
+    public synchronized void fund(String address, BigDecimal amount) {
+        balances.put(address, amount);
+    }
+
+    /**
+     * Get the committed balance of an address.
+     *
+     * @param address The address
+     * @return The amount of {@link #DENOM}
+     */
+    public synchronized BigDecimal getBalance(String address) {
+        return balances.getOrDefault(address, BigDecimal.ZERO);
+    }
+
+    /**
+     * Get the height of the latest block.
+     *
+     * @return The height
+     */
+    public synchronized long getHeight() {
+        return blocks.size();
+    }
+
+    /**
+     * Get the number of transactions waiting for a block.
+     *
+     * @return The mempool size
+     */
+    public synchronized int getPendingCount() {
+        return mempool.size();
+    }
+
+    /**
+     * Commit a block with every transaction in the mempool.
+     *
+     * @return The height of the block
+     */
+    public synchronized long commitBlock() {
+        Block block = new Block(blocks.size() + 1, Instant.now().truncatedTo(ChronoUnit.MILLIS), randomHash(), mempool.size());
+        for (Tx tx : mempool) {
+            tx.height = block.height;
+            tx.time = block.time;
+            if (!FAUCET_ADDRESS.equals(tx.from)) {
+                balances.merge(tx.from, tx.amount.negate(), BigDecimal::add);
+            }
+            balances.merge(tx.to, tx.amount, BigDecimal::add);
+            txs.add(tx);
+            txsByHash.put(tx.hash, tx);
+        }
+        mempool.clear();
+        blocks.add(block);
+        return block.height;
+    }
+
+    @Override
+    public void close() {
+        clock.shutdownNow();
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        Route route = "/credit".equals(path) ? Route.FAUCET : path.startsWith("/cosmos/") ? Route.REST : Route.RPC;
+        requests.get(route).incrementAndGet();
+        try {
+            Faults routeFaults = faults.getOrDefault(route, Faults.NONE);
+            long delay = routeFaults.getLatency().sampleMillis(random);
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+            if (random.nextDouble() < routeFaults.getErrorRate()) {
+                respond(exchange, 503, error(14, "injected fault"));
+                return;
+            }
+            Map<String, List<String>> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            if ("POST".equals(exchange.getRequestMethod())) {
+                if (route == Route.FAUCET) {
+                    credit(exchange);
+                } else {
+                    respond(exchange, 501, error(12, "signed broadcasts are not supported by the stub"));
+                }
+            } else if (route == Route.REST) {
+                rest(exchange, path, query);
+            } else if (route == Route.RPC) {
+                rpc(exchange, path, query);
+            } else {
+                respond(exchange, 405, error(12, "method not allowed"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            respond(exchange, 500, error(1, String.valueOf(e.getMessage())));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void credit(HttpExchange exchange) throws IOException {
+        JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+        String address = request.path("address").asText("");
+        if (address.isEmpty() || !request.path("coins").isArray() || request.path("coins").isEmpty()) {
+            respond(exchange, 400, error(3, "address and coins are required"));
+            return;
+        }
+        Matcher coin = COIN.matcher(request.path("coins").get(0).asText());
+        if (!coin.matches()) {
+            respond(exchange, 400, error(3, "invalid coin: " + request.path("coins").get(0).asText()));
+            return;
+        }
+
+        Tx tx = new Tx(randomHash(), FAUCET_ADDRESS, address, new BigDecimal(coin.group(1)), coin.group(2));
+        synchronized (this) {
+            mempool.add(tx);
+        }
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("tx_hash", tx.hash);
+        respond(exchange, 200, response);
+    }
+
+    private void rest(HttpExchange exchange, String path, Map<String, List<String>> query) throws IOException {
+        String balancesPrefix = "/cosmos/bank/v1beta1/balances/";
+        String txsPath = "/cosmos/tx/v1beta1/txs";
+        if (path.startsWith(balancesPrefix)) {
+            String address = path.substring(balancesPrefix.length());
+            if (address.endsWith("/by_denom")) {
+                ObjectNode response = objectMapper.createObjectNode();
+                response.set("balance", coin(getBalance(address.substring(0, address.length() - "/by_denom".length())), DENOM));
+                respond(exchange, 200, response);
+                return;
+            }
+            BigDecimal balance = getBalance(address);
+            ObjectNode response = objectMapper.createObjectNode();
+            ArrayNode coins = response.putArray("balances");
+            if (balance.signum() != 0) {
+                coins.add(coin(balance, DENOM));
+            }
+            response.set("pagination", pagination(coins.size()));
+            respond(exchange, 200, response);
+        } else if (path.startsWith(txsPath + "/")) {
+            String hash = path.substring(txsPath.length() + 1);
+            Tx tx;
+            synchronized (this) {
+                tx = txsByHash.get(hash);
+            }
+            if (tx == null) {
+                respond(exchange, 404, error(5, "tx not found: " + hash));
+                return;
+            }
+            ObjectNode response = objectMapper.createObjectNode();
+            response.set("tx", txBody(tx));
+            response.set("tx_response", txResponse(tx));
+            respond(exchange, 200, response);
+        } else if (path.equals(txsPath)) {
+            List<String> conditions = new ArrayList<>(query.getOrDefault("events", List.of()));
+            conditions.addAll(query.getOrDefault("query", List.of()));
+            List<Tx> matches = search(conditions, "ORDER_BY_DESC".equals(first(query, "order_by")));
+            int limit = Integer.parseInt(first(query, "pagination.limit", first(query, "limit", "100")));
+            int offset = query.containsKey("pagination.offset")
+                    ? Integer.parseInt(first(query, "pagination.offset"))
+                    : (Integer.parseInt(first(query, "page", "1")) - 1) * limit;
+
+            ObjectNode response = objectMapper.createObjectNode();
+            ArrayNode bodies = response.putArray("txs");
+            ArrayNode responses = response.putArray("tx_responses");
+            for (Tx tx : matches.subList(Math.min(offset, matches.size()), Math.min(offset + limit, matches.size()))) {
+                bodies.add(txBody(tx));
+                responses.add(txResponse(tx));
+            }
+            response.set("pagination", pagination(matches.size()));
+            response.put("total", String.valueOf(matches.size()));
+            respond(exchange, 200, response);
+        } else if (path.equals("/cosmos/base/tendermint/v1beta1/blocks/latest")) {
+            Block block;
+            synchronized (this) {
+                block = blocks.get(blocks.size() - 1);
+            }
+            respond(exchange, 200, block(block));
+        } else {
+            respond(exchange, 404, error(12, "not implemented by the stub: " + path));
+        }
+    }
+
+    private void rpc(HttpExchange exchange, String path, Map<String, List<String>> query) throws IOException {
+        ObjectNode result = objectMapper.createObjectNode();
+        switch (path) {
+            case "/status" -> {
+                Block block;
+                synchronized (this) {
+                    block = blocks.get(blocks.size() - 1);
+                }
+                result.putObject("node_info").put("network", CHAIN_ID);
+                ObjectNode syncInfo = result.putObject("sync_info");
+                syncInfo.put("latest_block_hash", block.hash);
+                syncInfo.put("latest_block_height", String.valueOf(block.height));
+                syncInfo.put("latest_block_time", block.time.toString());
+                syncInfo.put("catching_up", false);
+            }
+            case "/block" -> {
+                Block block;
+                List<String> hashes = new ArrayList<>();
+                synchronized (this) {
+                    long height = Long.parseLong(first(query, "height", String.valueOf(blocks.size())));
+                    if (height < 1 || height > blocks.size()) {
+                        respond(exchange, 500, rpcError("height " + height + " must be less than or equal to the current blockchain height " + blocks.size()));
+                        return;
+                    }
+                    block = blocks.get((int) height - 1);
+                    txs.stream().filter(tx -> tx.height == height).forEach(tx -> hashes.add(tx.hash));
+                }
+                result = block(block);
+                ArrayNode data = ((ObjectNode) result.path("block")).putObject("data").putArray("txs");
+                hashes.forEach(hash -> data.add(Base64.getEncoder().encodeToString(HexFormat.of().parseHex(hash))));
+            }
+            case "/blockchain" -> {
+                List<Block> latest;
+                synchronized (this) {
+                    long max = Long.parseLong(first(query, "maxHeight", String.valueOf(blocks.size())));
+                    long min = Long.parseLong(first(query, "minHeight", String.valueOf(Math.max(1, max - 19))));
+                    latest = new ArrayList<>(blocks.subList((int) Math.max(0, min - 1), (int) Math.min(blocks.size(), max)));
+                    result.put("last_height", String.valueOf(blocks.size()));
+                }
+                Collections.reverse(latest);
+                ArrayNode metas = result.putArray("block_metas");
+                for (Block block : latest) {
+                    ObjectNode meta = block(block);
+                    meta.put("num_txs", String.valueOf(block.txCount));
+                    meta.set("header", meta.path("block").path("header"));
+                    meta.remove("block");
+                    metas.add(meta);
+                }
+            }
+            case "/tx_search" -> {
+                List<Tx> matches = search(List.of(unquote(first(query, "query", ""))), "desc".equals(unquote(first(query, "order_by", "asc"))));
+                int perPage = Integer.parseInt(first(query, "per_page", "30"));
+                int offset = (Integer.parseInt(first(query, "page", "1")) - 1) * perPage;
+                ArrayNode results = result.putArray("txs");
+                for (Tx tx : matches.subList(Math.min(offset, matches.size()), Math.min(offset + perPage, matches.size()))) {
+                    ObjectNode item = results.addObject();
+                    item.put("hash", tx.hash);
+                    item.put("height", String.valueOf(tx.height));
+                    item.put("index", 0);
+                    item.putObject("tx_result").put("code", 0);
+                }
+                result.put("total_count", String.valueOf(matches.size()));
+            }
+            default -> {
+                respond(exchange, 404, rpcError("not implemented by the stub: " + path));
+                return;
+            }
+        }
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.put("id", -1);
+        response.set("result", result);
+        respond(exchange, 200, response);
+    }
+
+    /**
+     * Find the committed transactions matching every condition of the event queries, ordered by height.
+     */
+    private List<Tx> search(List<String> queries, boolean newestFirst) {
+        Predicate<Tx> filter = tx -> true;
+        for (String query : queries) {
+            for (String condition : query.split(" AND ")) {
+                Matcher matcher = CONDITION.matcher(condition.trim());
+                if (matcher.matches()) {
+                    filter = filter.and(condition(matcher.group(1), matcher.group(2), matcher.group(3)));
+                }
+            }
+        }
+
+        List<Tx> matches = new ArrayList<>();
+        synchronized (this) {
+            for (Tx tx : txs) {
+                if (filter.test(tx)) {
+                    matches.add(tx);
+                }
+            }
+        }
+        if (newestFirst) {
+            Collections.reverse(matches);
+        }
+        return matches;
+    }
+
+    private static Predicate<Tx> condition(String key, String operator, String value) {
+        return switch (key) {
+            case "transfer.recipient", "coin_received.receiver" -> tx -> tx.to.equals(value);
+            case "transfer.sender", "coin_spent.spender", "message.sender" -> tx -> tx.from.equals(value);
+            case "tx.hash" -> tx -> tx.hash.equalsIgnoreCase(value);
+            case "tx.height" -> tx -> {
+                long height = Long.parseLong(value);
+                return switch (operator) {
+                    case ">" -> tx.height > height;
+                    case ">=" -> tx.height >= height;
+                    case "<" -> tx.height < height;
+                    case "<=" -> tx.height <= height;
+                    default -> tx.height == height;
+                };
+            };
+            // Every stub transaction is a bank send, so other attributes match
+            default -> tx -> true;
+        };
+    }
+
+    private ObjectNode txBody(Tx tx) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("@type", "/cosmos.tx.v1beta1.Tx");
+        ObjectNode message = body.putObject("body").putArray("messages").addObject();
+        message.put("@type", MSG_SEND);
+        message.put("from_address", tx.from);
+        message.put("to_address", tx.to);
+        message.putArray("amount").add(coin(tx.amount, tx.denom));
+        return body;
+    }
+
+    private ObjectNode txResponse(Tx tx) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("height", String.valueOf(tx.height));
+        response.put("txhash", tx.hash);
+        response.put("code", 0);
+        response.put("gas_wanted", "200000");
+        response.put("gas_used", "80000");
+        response.set("tx", txBody(tx));
+        response.put("timestamp", tx.time.truncatedTo(ChronoUnit.SECONDS).toString());
+        return response;
+    }
+
+    private ObjectNode block(Block block) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.putObject("block_id").put("hash", block.hash);
+        ObjectNode header = response.putObject("block").putObject("header");
+        header.put("chain_id", CHAIN_ID);
+        header.put("height", String.valueOf(block.height));
+        header.put("time", block.time.toString());
+        return response;
+    }
+
+    private static ObjectNode coin(BigDecimal amount, String denom) {
+        ObjectNode coin = objectMapper.createObjectNode();
+        coin.put("denom", denom);
+        coin.put("amount", amount.toPlainString());
+        return coin;
+    }
+
+    private static ObjectNode pagination(long total) {
+        ObjectNode pagination = objectMapper.createObjectNode();
+        pagination.putNull("next_key");
+        pagination.put("total", String.valueOf(total));
+        return pagination;
+    }
+
+    private static ObjectNode error(int code, String message) {
+        ObjectNode error = objectMapper.createObjectNode();
+        error.put("code", code);
+        error.put("message", message);
+        error.putArray("details");
+        return error;
+    }
+
+    private static ObjectNode rpcError(String data) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.put("id", -1);
+        ObjectNode error = response.putObject("error");
+        error.put("code", -32603);
+        error.put("message", "Internal error");
+        error.put("data", data);
+        return response;
+    }
+
+    private String randomHash() {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return HexFormat.of().withUpperCase().formatHex(bytes);
+    }
+
+    private static Map<String, List<String>> parseQuery(String rawQuery) {
+        Map<String, List<String>> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            String name = URLDecoder.decode(separator < 0 ? parameter : parameter.substring(0, separator), StandardCharsets.UTF_8);
+            String value = separator < 0 ? "" : URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8);
+            parameters.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+        }
+        return parameters;
+    }
+
+    private static String first(Map<String, List<String>> query, String name) {
+        return first(query, name, null);
+    }
+
+    private static String first(Map<String, List<String>> query, String name, String defaultValue) {
+        List<String> values = query.get(name);
+        return values == null || values.isEmpty() ? defaultValue : values.get(0);
+    }
+
+    private static String unquote(String value) {
+        return value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"") ? value.substring(1, value.length() - 1) : value;
+    }
+
+    private static void respond(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * A bank send, pending until a block includes it.
+     */
+    private static final class Tx {
+
+        private final String hash;
+
+        private final String from;
+
+        private final String to;
+
+        private final BigDecimal amount;
+
+        private final String denom;
+
+        private long height;
+
+        private Instant time;
+
+        private Tx(String hash, String from, String to, BigDecimal amount, String denom) {
+            this.hash = hash;
+            this.from = from;
+            this.to = to;
+            this.amount = amount;
+            this.denom = denom;
+        }
+    }
+
+    /**
+     * A committed block.
+     */
+    private static final class Block {
+
+        private final long height;
+
+        private final Instant time;
+
+        private final String hash;
+
+        private final int txCount;
+
+        private Block(long height, Instant time, String hash, int txCount) {
+            this.height = height;
+            this.time = time;
+            this.hash = hash;
+            this.txCount = txCount;
+        }
+    }
+}
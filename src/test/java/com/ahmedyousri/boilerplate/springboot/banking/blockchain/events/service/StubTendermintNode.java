@@ -0,0 +1,241 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A Tendermint RPC stand-in serving the websocket subscription and the {@code status} and
+ * {@code tx_search} endpoints on one local port. Committing a block records it and pushes its
+ * events to the open subscriptions; while offline, websocket upgrades are refused.
+ */
+class StubTendermintNode implements AutoCloseable {
+
+    private static final Pattern RANGE = Pattern.compile("tx\\.height>(\\d+) AND tx\\.height<=(\\d+)");
+
+    private final ServerSocket serverSocket;
+
+    private final List<Socket> subscribers = new CopyOnWriteArrayList<>();
+
+    private final List<String[]> txs = new CopyOnWriteArrayList<>();
+
+    final AtomicInteger subscriptions = new AtomicInteger();
+
+    final AtomicInteger connections = new AtomicInteger();
+
+    private volatile long height;
+
+    private volatile boolean offline;
+
+    StubTendermintNode() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::accept, "stub-tendermint");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    /**
+     * Commit a block with the given transactions, each given as a hash and result code.
+     */
+    synchronized void commitBlock(Object... hashesAndCodes) {
+        height++;
+        for (int i = 0; i < hashesAndCodes.length; i += 2) {
+            String hash = (String) hashesAndCodes[i];
+            int code = (Integer) hashesAndCodes[i + 1];
+            txs.add(new String[]{hash, String.valueOf(height), String.valueOf(code)});
+            push("{\"jsonrpc\":\"2.0\",\"id\":2,\"result\":{\"query\":\"tm.event='Tx'\",\"data\":{\"type\":\"tendermint/event/Tx\","
+                    + "\"value\":{\"TxResult\":{\"height\":\"" + height + "\",\"index\":0,\"tx\":\"AQID\",\"result\":{\"code\":" + code + "}}}},"
+                    + "\"events\":{\"tx.hash\":[\"" + hash + "\"],\"tm.event\":[\"Tx\"]}}}");
+        }
+        push("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"query\":\"tm.event='NewBlock'\",\"data\":{\"type\":\"tendermint/event/NewBlock\","
+                + "\"value\":{\"block\":{\"header\":{\"height\":\"" + height + "\"}},\"block_id\":{\"hash\":\"BLOCK" + height + "\"}}},"
+                + "\"events\":{\"tm.event\":[\"NewBlock\"]}}}");
+    }
+
+    /**
+     * Drop the open subscriptions and refuse new ones until brought back online.
+     */
+    void setOffline(boolean offline) {
+        this.offline = offline;
+        if (offline) {
+            for (Socket socket : subscribers) {
+                closeQuietly(socket);
+            }
+            subscribers.clear();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        setOffline(true);
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread handler = new Thread(() -> handle(socket), "stub-tendermint-conn");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try {
+            socket.setTcpNoDelay(true);
+            List<String> head = readHead(socket.getInputStream());
+            String target = head.get(0).split(" ")[1];
+            String key = null;
+            for (String header : head) {
+                if (header.toLowerCase().startsWith("sec-websocket-key:")) {
+                    key = header.substring(header.indexOf(':') + 1).trim();
+                }
+            }
+
+            if (key == null) {
+                respond(socket, target);
+                return;
+            }
+            if (offline) {
+                socket.getOutputStream().write("HTTP/1.1 503 Service Unavailable\r\nContent-Length: 0\r\nConnection: close\r\n\r\n"
+                        .getBytes(StandardCharsets.US_ASCII));
+                socket.close();
+                return;
+            }
+
+            String accept = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1")
+                    .digest((key + "258EAFA5-E914-47DA-95CA-C5AB0DC85B11").getBytes(StandardCharsets.US_ASCII)));
+            synchronized (this) {
+                socket.getOutputStream().write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                        + "Sec-WebSocket-Accept: " + accept + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                subscribers.add(socket);
+            }
+            connections.incrementAndGet();
+            readFrames(socket);
+        } catch (Exception e) {
+            closeQuietly(socket);
+        }
+    }
+
+    private void respond(Socket socket, String target) throws IOException {
+        String body;
+        if (target.startsWith("/status")) {
+            body = "{\"jsonrpc\":\"2.0\",\"id\":-1,\"result\":{\"sync_info\":{\"latest_block_hash\":\"BLOCK" + height
+                    + "\",\"latest_block_height\":\"" + height + "\"}}}";
+        } else {
+            Matcher range = RANGE.matcher(URLDecoder.decode(target, StandardCharsets.UTF_8));
+            boolean found = range.find();
+            long from = found ? Long.parseLong(range.group(1)) : 0;
+            long to = found ? Long.parseLong(range.group(2)) : height;
+            List<String> matches = new ArrayList<>();
+            for (String[] tx : txs) {
+                long txHeight = Long.parseLong(tx[1]);
+                if (txHeight > from && txHeight <= to) {
+                    matches.add("{\"hash\":\"" + tx[0] + "\",\"height\":\"" + tx[1] + "\",\"index\":0,\"tx_result\":{\"code\":" + tx[2] + "}}");
+                }
+            }
+            body = "{\"jsonrpc\":\"2.0\",\"id\":-1,\"result\":{\"txs\":[" + String.join(",", matches) + "],\"total_count\":\"" + matches.size() + "\"}}";
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        OutputStream out = socket.getOutputStream();
+        out.write(("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: " + bytes.length
+                + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(bytes);
+        out.flush();
+        socket.close();
+    }
+
+    private void readFrames(Socket socket) throws IOException {
+        InputStream in = socket.getInputStream();
+        while (true) {
+            int first = in.read();
+            if (first < 0 || (first & 0x0F) == 0x8) {
+                closeQuietly(socket);
+                return;
+            }
+            int second = in.read();
+            long length = second & 0x7F;
+            if (length == 126) {
+                length = (in.read() << 8) | in.read();
+            } else if (length == 127) {
+                length = 0;
+                for (int i = 0; i < 8; i++) {
+                    length = (length << 8) | in.read();
+                }
+            }
+            byte[] mask = in.readNBytes(4);
+            byte[] payload = in.readNBytes((int) length);
+            for (int i = 0; i < payload.length; i++) {
+                payload[i] ^= mask[i % 4];
+            }
+            if (new String(payload, StandardCharsets.UTF_8).contains("\"subscribe\"")) {
+                subscriptions.incrementAndGet();
+            }
+        }
+    }
+
+    private void push(String message) {
+        byte[] payload = message.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        frame.write(0x81);
+        if (payload.length < 126) {
+            frame.write(payload.length);
+        } else {
+            frame.write(126);
+            frame.write(payload.length >> 8);
+            frame.write(payload.length & 0xFF);
+        }
+        frame.writeBytes(payload);
+        for (Socket socket : subscribers) {
+            try {
+                socket.getOutputStream().write(frame.toByteArray());
+            } catch (IOException e) {
+                subscribers.remove(socket);
+            }
+        }
+    }
+
+    private static List<String> readHead(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int matched = 0;
+        while (matched < 4) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Connection closed");
+            }
+            head.write(b);
+            matched = (b == '\r' || b == '\n') && (matched % 2 == 0) == (b == '\r') ? matched + 1 : (b == '\r' ? 1 : 0);
+        }
+        return List.of(head.toString(StandardCharsets.US_ASCII).trim().split("\r\n"));
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Already closed
+        }
+    }
+}
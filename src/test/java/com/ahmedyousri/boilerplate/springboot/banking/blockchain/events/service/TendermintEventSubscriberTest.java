@@ -0,0 +1,168 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.model.ChainEvent;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.model.ChainEventType;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.events.source.TendermintRpcClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the TendermintEventSubscriber against a local websocket stand-in.
+ */
+public class TendermintEventSubscriberTest {
+
+    private StubTendermintNode node;
+
+    private BlockchainConfig config;
+
+    private TendermintEventSubscriber subscriber;
+
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    private final BlockingQueue<ChainEvent> received = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        node = new StubTendermintNode();
+        config = mock(BlockchainConfig.class);
+        when(config.getCosmosRpcEndpoint()).thenReturn(node.endpoint());
+        when(config.getTimeoutMs()).thenReturn(5000L);
+        when(config.getRetryDelayMs()).thenReturn(20L);
+        when(config.getEventsReconnectMaxDelayMs()).thenReturn(100L);
+        when(config.getEventsPingIntervalMs()).thenReturn(100L);
+        when(config.getEventsQueueCapacity()).thenReturn(16);
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.initialize();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (subscriber != null) {
+            subscriber.shutdown();
+        }
+        taskScheduler.shutdown();
+        node.close();
+    }
+
+    @Test
+    public void testDeliversLiveBlockAndTxEvents() throws Exception {
+        // Arrange
+        subscriber = new TendermintEventSubscriber(config, new TendermintRpcClient(config, new RestTemplate()), List.of(received::add), taskScheduler);
+        subscriber.start();
+        awaitSubscriptions(2);
+
+        // Act
+        node.commitBlock("TX1", 0);
+        node.commitBlock();
+
+        // Assert
+        assertEvent(ChainEventType.TX, 1, "TX1", 0);
+        assertEvent(ChainEventType.NEW_BLOCK, 1, null, 0);
+        ChainEvent block = assertEvent(ChainEventType.NEW_BLOCK, 2, null, 0);
+        assertEquals("BLOCK2", block.getBlockHash());
+        assertEquals(2, subscriber.getLastHeight());
+    }
+
+    @Test
+    public void testReconnectsAndBackfillsMissedHeights() throws Exception {
+        // Arrange
+        subscriber = new TendermintEventSubscriber(config, new TendermintRpcClient(config, new RestTemplate()), List.of(received::add), taskScheduler);
+        subscriber.start();
+        awaitSubscriptions(2);
+        node.commitBlock("TX1", 0);
+        assertEvent(ChainEventType.TX, 1, "TX1", 0);
+        assertEvent(ChainEventType.NEW_BLOCK, 1, null, 0);
+
+        // Act
+        node.setOffline(true);
+        node.commitBlock("TX2", 5);
+        node.commitBlock("TX3", 0);
+        node.commitBlock();
+        node.setOffline(false);
+        awaitSubscriptions(4);
+        awaitHeight(4);
+        node.commitBlock("TX5", 0);
+
+        // Assert
+        assertEvent(ChainEventType.TX, 2, "TX2", 5);
+        assertEvent(ChainEventType.TX, 3, "TX3", 0);
+        assertEquals("BLOCK4", assertEvent(ChainEventType.NEW_BLOCK, 4, null, 0).getBlockHash());
+        assertEvent(ChainEventType.TX, 5, "TX5", 0);
+        assertEvent(ChainEventType.NEW_BLOCK, 5, null, 0);
+        assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+        assertTrue(node.connections.get() >= 2);
+    }
+
+    @Test
+    public void testSlowListenerIsBoundedByQueueWithoutLosingEvents() throws Exception {
+        // Arrange
+        when(config.getEventsQueueCapacity()).thenReturn(2);
+        CountDownLatch release = new CountDownLatch(1);
+        subscriber = new TendermintEventSubscriber(config, new TendermintRpcClient(config, new RestTemplate()), List.of(event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(event);
+        }), taskScheduler);
+        subscriber.start();
+        awaitSubscriptions(2);
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            node.commitBlock();
+        }
+        Thread.sleep(200);
+        int queued = subscriber.getQueueSize();
+        release.countDown();
+
+        // Assert
+        assertTrue(queued <= 2);
+        for (int height = 1; height <= 50; height++) {
+            assertEvent(ChainEventType.NEW_BLOCK, height, null, 0);
+        }
+    }
+
+    private ChainEvent assertEvent(ChainEventType type, long height, String txHash, int code) throws InterruptedException {
+        ChainEvent event = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event, "Expected " + type + " at height " + height);
+        assertEquals(type, event.getType());
+        assertEquals(height, event.getHeight());
+        if (txHash != null) {
+            assertEquals(txHash, event.getTxHash());
+        }
+        assertEquals(code, event.getCode());
+        return event;
+    }
+
+    private void awaitHeight(long height) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (subscriber.getLastHeight() < height && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(height, subscriber.getLastHeight());
+    }
+
+    private void awaitSubscriptions(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (node.subscriptions.get() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, node.subscriptions.get());
+    }
+}
@@ -0,0 +1,101 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.metrics;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.DepositCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the ChainMetrics.
+ */
+public class ChainMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ChainMetrics chainMetrics;
+
+    @BeforeEach
+    public void setUp() {
+        BlockchainConfig config = mock(BlockchainConfig.class);
+        when(config.isMetricsEnabled()).thenReturn(true);
+        meterRegistry = new SimpleMeterRegistry();
+        chainMetrics = new ChainMetrics(config, meterRegistry);
+    }
+
+    @Test
+    public void testTimesStagesByOutcome() {
+        // Act
+        String hash = chainMetrics.time(ChainStage.FAUCET, () -> "HASH1");
+        assertThrows(IllegalStateException.class, () -> chainMetrics.time(ChainStage.FAUCET, () -> {
+            throw new IllegalStateException("faucet down");
+        }));
+
+        // Assert
+        assertEquals("HASH1", hash);
+        assertEquals(1, stageTimer("faucet", "success").count());
+        assertEquals(1, stageTimer("faucet", "failure").count());
+        assertEquals(3, stageTimer("faucet", "success").takeSnapshot().percentileValues().length);
+    }
+
+    @Test
+    public void testTimesCommandsByResultAndCountsFabricatedHashes() {
+        // Arrange
+        DepositCommand command = DepositCommand.builder().build();
+
+        // Act
+        chainMetrics.time(command, () -> BlockchainResponse.builder().successful(true).build());
+        chainMetrics.time(command, () -> BlockchainResponse.builder().successful(false).errorCode("CHAIN_UNAVAILABLE").build());
+        chainMetrics.countFabricatedHash("error");
+        chainMetrics.countFabricatedHash("error");
+
+        // Assert
+        assertEquals(1, meterRegistry.get("blockchain.command.duration")
+                .tag("command", "DepositCommand").tag("result", "success").timer().count());
+        assertEquals(1, meterRegistry.get("blockchain.command.duration")
+                .tag("command", "DepositCommand").tag("result", "CHAIN_UNAVAILABLE").timer().count());
+        assertEquals(2.0, meterRegistry.get("blockchain.tx.fabricated").tag("reason", "error").counter().count());
+    }
+
+    @Test
+    public void testReportsActiveTasksOfMonitoredPool() throws Exception {
+        // Arrange
+        ExecutorService pool = chainMetrics.monitor(Executors.newFixedThreadPool(2), "test-pool");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            // Act
+            pool.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // Assert
+            assertEquals(1.0, meterRegistry.get("executor.active").tag("name", "test-pool").gauge().value());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private Timer stageTimer(String stage, String outcome) {
+        return meterRegistry.get("blockchain.stage.duration").tag("stage", stage).tag("outcome", outcome).timer();
+    }
+}
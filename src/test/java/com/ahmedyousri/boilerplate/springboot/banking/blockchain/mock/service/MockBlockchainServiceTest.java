@@ -1,200 +1,227 @@
-/*
 package com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.service;
 
-import command.blockchain.banking.com.ahmedyousri.boilerplate.springboot.DepositCommand;
-import model.mock.blockchain.banking.com.ahmedyousri.boilerplate.springboot.MockAccount;
-import model.mock.blockchain.banking.com.ahmedyousri.boilerplate.springboot.MockBlock;
-import model.mock.blockchain.banking.com.ahmedyousri.boilerplate.springboot.MockTransaction;
-import model.blockchain.banking.com.ahmedyousri.boilerplate.springboot.AccountBalance;
-import model.blockchain.banking.com.ahmedyousri.boilerplate.springboot.BlockchainResponse;
-import model.blockchain.banking.com.ahmedyousri.boilerplate.springboot.TransactionRecord;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.DepositCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.TransferCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.WithdrawCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.model.MockAccount;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.model.MockBlock;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.AccountBalance;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.TransactionRecord;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.MockitoAnnotations;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
-*/
 /**
  * Tests for the MockBlockchainService.
- *//*
-
+ */
 public class MockBlockchainServiceTest {
 
-    @Mock
-    private MockBlockchainState mockBlockchainState;
-
-    @InjectMocks
+    private MockBlockchainState blockchainState;
     private MockBlockchainService mockBlockchainService;
 
-    private UUID accountId;
-    private BigDecimal amount;
-    private String description;
-    private String currencyCode;
-
     @BeforeEach
     public void setup() {
-        MockitoAnnotations.openMocks(this);
-        accountId = UUID.randomUUID();
-        amount = new BigDecimal("100.00");
-        description = "Test deposit";
-        currencyCode = "USD";
+        BlockchainConfig blockchainConfig = mock(BlockchainConfig.class);
+        when(blockchainConfig.getMockBlockTimeMs()).thenReturn(60_000L);
+        when(blockchainConfig.getMockBlockMaxTransactions()).thenReturn(100_000);
+        when(blockchainConfig.getMockValidationParallelism()).thenReturn(2);
+
+        // The producer thread is not started; blocks are mined explicitly
+        blockchainState = new MockBlockchainState(blockchainConfig);
+        mockBlockchainService = new MockBlockchainService(blockchainState, blockchainConfig);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        blockchainState.shutdown();
     }
 
     @Test
-    public void testExecuteDepositCommand() {
+    public void testDepositIsAdmittedThenIncluded() {
         // Arrange
-        DepositCommand depositCommand = new DepositCommand(accountId, amount, description, currencyCode);
-        
-        // Mock the behavior of the blockchain state
-        MockAccount mockAccount = MockAccount.builder()
-                .id(accountId)
-                .balance(amount)
-                .currencyCode(currencyCode)
-                .build();
-        
-        // Mock the behavior of the blockchain state
-        when(mockBlockchainState.deposit(eq(accountId), eq(amount), eq(description), eq(currencyCode)))
-            .thenReturn("mock-tx-hash-123");
-        
-        // Mock the transaction
-        MockTransaction mockTransaction = mock(MockTransaction.class);
-        when(mockTransaction.getHash()).thenReturn("mock-tx-hash-123");
-        when(mockTransaction.getBlockNumber()).thenReturn(1L);
-        when(mockTransaction.getGasUsed()).thenReturn(21000L);
-        
-        // Mock the block
-        MockBlock mockBlock = mock(MockBlock.class);
-        when(mockBlock.getHash()).thenReturn("mock-block-hash-123");
-        when(mockBlock.getNumber()).thenReturn(1L);
-        
-        when(mockBlockchainState.getTransactionByHash("mock-tx-hash-123")).thenReturn(mockTransaction);
-        when(mockBlockchainState.getBlockByNumber(1L)).thenReturn(mockBlock);
+        UUID accountId = UUID.randomUUID();
+        DepositCommand depositCommand = new DepositCommand(accountId, new BigDecimal("100.00"), "Test deposit", "USD");
 
         // Act
         BlockchainResponse response = mockBlockchainService.executeCommand(depositCommand);
+        MockBlock block = mockBlockchainService.minePendingTransactions();
 
         // Assert
-        assertNotNull(response);
         assertTrue(response.isSuccessful());
-        assertEquals("mock-tx-hash-123", response.getTransactionHash());
-        
-        // Verify that the deposit method was called with the correct parameters
-        verify(mockBlockchainState).deposit(accountId, amount, description, currencyCode);
+        assertNotNull(response.getTransactionHash());
+        assertNotNull(block);
+        assertEquals(1, block.getTransactionCount());
+        assertEquals(0, new BigDecimal("100.00").compareTo(mockBlockchainService.getAccountBalance(accountId).getBalance()));
+
+        TransactionRecord record = mockBlockchainService.getTransaction(response.getTransactionHash());
+        assertEquals("CONFIRMED", record.getStatus());
+        assertEquals(block.getNumber(), record.getBlockNumber());
+        assertEquals(block.getHash(), record.getBlockHash());
     }
 
     @Test
-    public void testGetAccountBalance() {
+    public void testWithdrawWithInsufficientFundsIsRejected() {
         // Arrange
-        MockAccount mockAccount = MockAccount.builder()
-                .id(accountId)
-                .balance(new BigDecimal("500.00"))
-                .currencyCode("USD")
-                .build();
-        
-        when(mockBlockchainState.getAccountById(accountId)).thenReturn(mockAccount);
-        when(mockBlockchainState.getCurrentBlockNumber()).thenReturn(12345L);
-        
+        UUID accountId = UUID.randomUUID();
+        mockBlockchainService.executeCommand(new DepositCommand(accountId, new BigDecimal("10.00"), "Seed", "USD"));
+
         // Act
-        AccountBalance actualBalance = mockBlockchainService.getAccountBalance(accountId);
+        BlockchainResponse response = mockBlockchainService.executeCommand(
+                new WithdrawCommand(accountId, new BigDecimal("25.00"), "Too much"));
+
+        // Assert
+        assertFalse(response.isSuccessful());
+        assertEquals("INSUFFICIENT_FUNDS", response.getErrorCode());
+        assertEquals(1, blockchainState.getPendingTransactionCount());
+    }
+
+    @Test
+    public void testTransactionThatFailsValidationIsDroppedFromTheBlock() {
+        // Arrange
+        UUID frozenId = UUID.randomUUID();
+        UUID activeId = UUID.randomUUID();
+        UUID recipientId = UUID.randomUUID();
+        mockBlockchainService.executeCommand(new DepositCommand(frozenId, new BigDecimal("50.00"), "Seed", "USD"));
+        mockBlockchainService.executeCommand(new DepositCommand(activeId, new BigDecimal("50.00"), "Seed", "USD"));
+        mockBlockchainService.minePendingTransactions();
+        String dropped = mockBlockchainService.executeCommand(
+                new TransferCommand(frozenId, recipientId, new BigDecimal("20.00"), "Transfer", "USD", null)).getTransactionHash();
+        String kept = mockBlockchainService.executeCommand(
+                new TransferCommand(activeId, recipientId, new BigDecimal("5.00"), "Transfer", "USD", null)).getTransactionHash();
+
+        // Act: the sender is frozen after its transaction was admitted
+        blockchainState.getAccountById(frozenId).setStatus(MockAccount.AccountStatus.FROZEN);
+        MockBlock block = mockBlockchainService.minePendingTransactions();
 
         // Assert
-        assertNotNull(actualBalance);
-        assertEquals(accountId, actualBalance.getAccountId());
-        assertEquals(new BigDecimal("500.00"), actualBalance.getBalance());
-        assertEquals("USD", actualBalance.getCurrencyCode());
-        assertEquals(12345L, actualBalance.getBlockNumber());
-        
-        // Verify that the getAccountById method was called with the correct parameters
-        verify(mockBlockchainState).getAccountById(accountId);
+        assertEquals(List.of(kept), block.getTransactionHashes());
+        assertEquals("FAILED", mockBlockchainService.getTransaction(dropped).getStatus());
+        assertEquals(0, new BigDecimal("50.00").compareTo(mockBlockchainService.getAccountBalance(frozenId).getBalance()));
+        assertEquals(0, new BigDecimal("5.00").compareTo(mockBlockchainService.getAccountBalance(recipientId).getBalance()));
+    }
+
+    @Test
+    public void testTransactionWhoseCreditWasSpentStaysInTheBlock() {
+        // Arrange
+        UUID frozenId = UUID.randomUUID();
+        UUID recipientId = UUID.randomUUID();
+        UUID onwardId = UUID.randomUUID();
+        mockBlockchainService.executeCommand(new DepositCommand(frozenId, new BigDecimal("50.00"), "Seed", "USD"));
+        mockBlockchainService.minePendingTransactions();
+        String spent = mockBlockchainService.executeCommand(
+                new TransferCommand(frozenId, recipientId, new BigDecimal("20.00"), "Transfer", "USD", null)).getTransactionHash();
+        String onward = mockBlockchainService.executeCommand(
+                new TransferCommand(recipientId, onwardId, new BigDecimal("20.00"), "Transfer", "USD", null)).getTransactionHash();
+
+        // Act: the sender is frozen after the recipient spent its credit
+        blockchainState.getAccountById(frozenId).setStatus(MockAccount.AccountStatus.FROZEN);
+        MockBlock block = mockBlockchainService.minePendingTransactions();
+
+        // Assert
+        assertEquals(List.of(spent, onward), block.getTransactionHashes());
+        assertEquals("CONFIRMED", mockBlockchainService.getTransaction(spent).getStatus());
+        assertEquals(0, new BigDecimal("30.00").compareTo(mockBlockchainService.getAccountBalance(frozenId).getBalance()));
+        assertEquals(0, new BigDecimal("20.00").compareTo(mockBlockchainService.getAccountBalance(onwardId).getBalance()));
+    }
+
+    @Test
+    public void testAsyncCommandCompletesOnInclusion() throws Exception {
+        // Arrange
+        UUID accountId = UUID.randomUUID();
+
+        // Act
+        CompletableFuture<BlockchainResponse> future = mockBlockchainService.executeCommandAsync(
+                new DepositCommand(accountId, new BigDecimal("5.00"), "Async", "USD"));
+        assertFalse(future.isDone());
+        MockBlock block = mockBlockchainService.minePendingTransactions();
+
+        // Assert
+        BlockchainResponse response = future.get(5, TimeUnit.SECONDS);
+        assertTrue(response.isSuccessful());
+        assertEquals(block.getNumber(), response.getBlockNumber());
+        assertEquals(block.getHash(), response.getBlockHash());
     }
 
     @Test
-    public void testGetTransaction() {
+    public void testHashesAreDeterministicAcrossResets() {
         // Arrange
-        String transactionHash = "mock-tx-hash-123";
-        UUID fromAccountId = UUID.randomUUID();
-        UUID toAccountId = UUID.randomUUID();
-        
-        // Create mock transaction
-        MockTransaction mockTransaction = MockTransaction.builder()
-                .hash(transactionHash)
-                .from("0xsender")
-                .to("0xrecipient")
-                .amount(amount)
-                .description(description)
-                .currencyCode(currencyCode)
-                .blockNumber(12345L)
-                .build();
-        
-        // Create mock accounts
-        MockAccount fromAccount = MockAccount.builder()
-                .id(fromAccountId)
-                .address("0xsender")
-                .build();
-        
-        MockAccount toAccount = MockAccount.builder()
-                .id(toAccountId)
-                .address("0xrecipient")
-                .build();
-        
-        when(mockBlockchainState.getTransactionByHash(transactionHash)).thenReturn(mockTransaction);
-        when(mockBlockchainState.getAccountByAddress("0xsender")).thenReturn(fromAccount);
-        when(mockBlockchainState.getAccountByAddress("0xrecipient")).thenReturn(toAccount);
+        UUID accountId = UUID.randomUUID();
+        DepositCommand depositCommand = new DepositCommand(accountId, new BigDecimal("1.00"), "Deposit", "USD");
 
         // Act
-        TransactionRecord actualTransaction = mockBlockchainService.getTransaction(transactionHash);
+        String firstTx = mockBlockchainService.executeCommand(depositCommand).getTransactionHash();
+        String firstBlock = mockBlockchainService.minePendingTransactions().getHash();
+        mockBlockchainService.reset();
+        String secondTx = mockBlockchainService.executeCommand(depositCommand).getTransactionHash();
+        String secondBlock = mockBlockchainService.minePendingTransactions().getHash();
 
         // Assert
-        assertNotNull(actualTransaction);
-        assertEquals(transactionHash, actualTransaction.getTransactionHash());
-        assertEquals(fromAccountId, actualTransaction.getFromAccount());
-        assertEquals(toAccountId, actualTransaction.getToAccount());
-        assertEquals(amount, actualTransaction.getAmount());
-        assertEquals(description, actualTransaction.getDescription());
-        assertEquals(currencyCode, actualTransaction.getCurrencyCode());
-        
-        // Verify that the getTransactionByHash method was called with the correct parameters
-        verify(mockBlockchainState).getTransactionByHash(transactionHash);
+        assertEquals(firstTx, secondTx);
+        assertEquals(firstBlock, secondBlock);
     }
 
     @Test
-    public void testGetTransactions() {
+    public void testConcurrentTransfersConserveBalances() throws Exception {
         // Arrange
-        TransactionRecord transaction1 = new TransactionRecord();
-        transaction1.setTransactionHash("mock-tx-hash-1");
-        transaction1.setFromAccount(accountId);
-        transaction1.setAmount(new BigDecimal("100.00"));
-        
-        TransactionRecord transaction2 = new TransactionRecord();
-        transaction2.setTransactionHash("mock-tx-hash-2");
-        transaction2.setFromAccount(accountId);
-        transaction2.setAmount(new BigDecimal("200.00"));
-        
-        List<TransactionRecord> expectedTransactions = List.of(transaction1, transaction2);
-        
-        when(mockBlockchainState.getTransactions(accountId)).thenReturn(expectedTransactions);
+        int accounts = 16;
+        int transfersPerThread = 5_000;
+        int threads = 8;
+        List<UUID> accountIds = new ArrayList<>();
+        for (int i = 0; i < accounts; i++) {
+            UUID accountId = UUID.randomUUID();
+            accountIds.add(accountId);
+            mockBlockchainService.executeCommand(new DepositCommand(accountId, new BigDecimal("1000.00"), "Seed", "USD"));
+        }
+        Set<String> hashes = ConcurrentHashMap.newKeySet();
 
         // Act
-        List<TransactionRecord> actualTransactions = mockBlockchainService.getTransactions(accountId);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < transfersPerThread; i++) {
+                    UUID from = accountIds.get((offset + i) % accounts);
+                    UUID to = accountIds.get((offset + i + 1) % accounts);
+                    BlockchainResponse response = mockBlockchainService.executeCommand(
+                            new TransferCommand(from, to, new BigDecimal("0.01"), "Transfer", "USD", null));
+                    if (response.isSuccessful()) {
+                        hashes.add(response.getTransactionHash());
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        MockBlock block = mockBlockchainService.minePendingTransactions();
 
         // Assert
-        assertNotNull(actualTransactions);
-        assertEquals(2, actualTransactions.size());
-        assertEquals("mock-tx-hash-1", actualTransactions.get(0).getTransactionHash());
-        assertEquals("mock-tx-hash-2", actualTransactions.get(1).getTransactionHash());
-        
-        // Verify that the getTransactions method was called with the correct parameters
-        verify(mockBlockchainState).getTransactions(accountId);
+        assertEquals(threads * transfersPerThread, hashes.size());
+        assertEquals(accounts + threads * transfersPerThread, block.getTransactionCount());
+        BigDecimal total = accountIds.stream()
+                .map(mockBlockchainService::getAccountBalance)
+                .map(AccountBalance::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, new BigDecimal("16000.00").compareTo(total));
     }
 }
-*/
@@ -0,0 +1,121 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.store;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.model.MockBlock;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.model.MockTransaction;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.mock.service.MockBlockchainState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the MockBlockLog.
+ */
+public class MockBlockLogTest {
+
+    @TempDir
+    Path directory;
+
+    private BlockchainConfig storeConfig() {
+        BlockchainConfig blockchainConfig = mock(BlockchainConfig.class);
+        when(blockchainConfig.getMockBlockTimeMs()).thenReturn(60_000L);
+        when(blockchainConfig.getMockBlockMaxTransactions()).thenReturn(1_000);
+        when(blockchainConfig.getMockValidationParallelism()).thenReturn(1);
+        when(blockchainConfig.isMockStoreEnabled()).thenReturn(true);
+        when(blockchainConfig.getMockStoreDirectory()).thenReturn(directory.toString());
+        when(blockchainConfig.getMockStoreSegmentSizeBytes()).thenReturn(4096);
+        when(blockchainConfig.getMockStoreSnapshotIntervalBlocks()).thenReturn(3);
+        when(blockchainConfig.getMockHeapMaxBlocks()).thenReturn(2);
+        return blockchainConfig;
+    }
+
+    @Test
+    public void testStateIsRestoredFromSnapshotAndTail() {
+        // Arrange
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        MockBlockchainState state = new MockBlockchainState(storeConfig());
+        String firstHash = state.submitDeposit(alice, new BigDecimal("100.00"), "Seed", "USD").getHash();
+        state.mineBlock();
+        for (int i = 0; i < 20; i++) {
+            state.submitTransfer(alice, bob, new BigDecimal("1.50"), "Transfer " + i, "USD", null);
+            state.mineBlock();
+        }
+        state.submitWithdrawal(bob, new BigDecimal("5.00"), "Cash");
+        MockBlock lastBlock = state.mineBlock();
+        state.shutdown();
+
+        // Act
+        MockBlockchainState restored = new MockBlockchainState(storeConfig());
+
+        // Assert
+        assertEquals(lastBlock.getNumber(), restored.getCurrentBlockNumber());
+        assertEquals(lastBlock.getHash(), restored.getLatestBlock().getHash());
+        assertEquals(0, new BigDecimal("70.00").compareTo(restored.getBalance(alice)));
+        assertEquals(0, new BigDecimal("25.00").compareTo(restored.getBalance(bob)));
+
+        // Histories are rebuilt from the heap window only, blocks 21 and 22, not the whole log
+        assertEquals(1, restored.getTransactionHistory(alice).size());
+        assertEquals(2, restored.getTransactionHistory(bob).size());
+
+        // Block 1 is outside the heap window and must come from the log
+        assertFalse(restored.getBlocksByNumber().containsKey(1L));
+        MockBlock firstBlock = restored.getBlockByNumber(1);
+        assertEquals(firstBlock.getHash(), restored.getBlockByHash(firstBlock.getHash()).getHash());
+        MockTransaction firstTransaction = restored.getTransactionByHash(firstHash);
+        assertEquals(MockTransaction.TransactionStatus.CONFIRMED, firstTransaction.getStatus());
+        assertEquals(alice, firstTransaction.getToAccountId());
+        assertEquals(0, new BigDecimal("100.00").compareTo(firstTransaction.getAmount()));
+
+        // New transactions continue the sender's nonce sequence without colliding
+        String next = restored.submitTransfer(alice, bob, new BigDecimal("1.00"), "After restart", "USD", null).getHash();
+        assertNull(restored.getBlockByHash(next));
+        assertEquals(lastBlock.getNumber() + 1, restored.mineBlock().getNumber());
+        restored.shutdown();
+    }
+
+    @Test
+    public void testCorruptTailRecordIsTruncated() throws Exception {
+        // Arrange
+        UUID alice = UUID.randomUUID();
+        MockBlockchainState state = new MockBlockchainState(storeConfig());
+        state.submitDeposit(alice, new BigDecimal("10.00"), "One", "USD");
+        state.mineBlock();
+        state.submitDeposit(alice, new BigDecimal("20.00"), "Two", "USD");
+        MockBlock second = state.mineBlock();
+        state.shutdown();
+
+        List<Path> segments;
+        try (var files = Files.list(directory)) {
+            segments = files.filter(path -> path.getFileName().toString().startsWith("segment-")).sorted().toList();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segments.get(segments.size() - 1).toFile(), "rw")) {
+            // Flip a byte inside the payload of the second record
+            file.seek(0);
+            int firstLength = file.readInt();
+            file.seek(8L + firstLength + 8 + 20);
+            int value = file.read();
+            file.seek(8L + firstLength + 8 + 20);
+            file.write(value ^ 0xFF);
+        }
+
+        // Act
+        MockBlockLog blockLog = MockBlockLog.open(directory, 4096);
+
+        // Assert
+        assertEquals(second.getNumber() - 1, blockLog.getLastHeight());
+        assertNull(blockLog.readBlock(second.getHash()));
+        assertEquals(0, new BigDecimal("10.00").compareTo(blockLog.getCommittedAccounts().get(alice).getBalance()));
+        blockLog.close();
+    }
+}
@@ -0,0 +1,101 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.entity.AccountAddress;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.repository.AccountAddressRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.util.Bech32;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the AccountAddressRegistry.
+ */
+public class AccountAddressRegistryTest {
+
+    private static final String ALICE_ADDRESS = "cosmos186yzfgjzdlgekev8nga3yk8h7zeavxxrzlzrw9";
+
+    @Test
+    public void testDerivedAddressIsDeterministicBech32() {
+        // Arrange
+        UUID accountId = UUID.randomUUID();
+
+        // Act
+        String address = AccountAddressRegistry.deriveAddress(accountId);
+
+        // Assert
+        assertEquals(address, AccountAddressRegistry.deriveAddress(accountId));
+        assertNotEquals(address, AccountAddressRegistry.deriveAddress(UUID.randomUUID()));
+        assertTrue(address.startsWith("cosmos1"));
+        assertEquals(20, Bech32.decode("cosmos", address).length);
+        assertEquals(ALICE_ADDRESS, Bech32.encode("cosmos", Bech32.decode("cosmos", ALICE_ADDRESS)));
+    }
+
+    @Test
+    public void testPreloadIndexesBothDirections() {
+        // Arrange
+        AccountAddressRepository repository = mock(AccountAddressRepository.class);
+        List<AccountAddress> mappings = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID accountId = new UUID(1L, i);
+            mappings.add(new AccountAddress(accountId, AccountAddressRegistry.deriveAddress(accountId), LocalDateTime.now()));
+        }
+        UUID aliceAccountId = new UUID(2L, 0L);
+        when(repository.findBatchAfter(any(UUID.class), any(Pageable.class)))
+                .thenReturn(mappings)
+                .thenReturn(List.of(new AccountAddress(aliceAccountId, ALICE_ADDRESS, LocalDateTime.now())));
+        AccountAddressRegistry registry = new AccountAddressRegistry(repository);
+
+        // Act
+        registry.preload();
+
+        // Assert
+        assertEquals(10_001, registry.size());
+        UUID accountId = new UUID(1L, 4242L);
+        assertEquals(Optional.of(accountId), registry.findAccountId(AccountAddressRegistry.deriveAddress(accountId)));
+        assertEquals(AccountAddressRegistry.deriveAddress(accountId), registry.getAddress(accountId));
+        assertEquals(ALICE_ADDRESS, registry.getAddress(aliceAccountId));
+        assertEquals(Optional.of(aliceAccountId), registry.findAccountId(ALICE_ADDRESS));
+        assertEquals(Optional.empty(), registry.findAccountId(AccountAddressRegistry.deriveAddress(aliceAccountId)));
+        assertEquals(Optional.empty(), registry.findAccountId("not-an-address"));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    public void testConcurrentFirstUseRegistersOnce() throws Exception {
+        // Arrange
+        AccountAddressRepository repository = mock(AccountAddressRepository.class);
+        when(repository.findBatchAfter(any(UUID.class), any(Pageable.class))).thenReturn(List.of());
+        AccountAddressRegistry registry = new AccountAddressRegistry(repository);
+        registry.preload();
+        UUID accountId = UUID.randomUUID();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            results.add(executor.submit(() -> registry.getAddress(accountId)));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        for (Future<String> result : results) {
+            assertEquals(AccountAddressRegistry.deriveAddress(accountId), result.get());
+        }
+        verify(repository, times(1)).save(any(AccountAddress.class));
+        assertEquals(Optional.of(accountId), registry.findAccountId(AccountAddressRegistry.deriveAddress(accountId)));
+    }
+}
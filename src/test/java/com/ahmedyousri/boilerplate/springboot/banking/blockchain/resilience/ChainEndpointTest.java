@@ -0,0 +1,226 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.resilience;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.model.Deadline;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the ChainEndpoint guard.
+ */
+public class ChainEndpointTest {
+
+    private BlockchainConfig config;
+
+    private MeterRegistry meterRegistry;
+
+    private ChainEndpoints endpoints;
+
+    @BeforeEach
+    public void setUp() {
+        config = mock(BlockchainConfig.class);
+        when(config.isMetricsEnabled()).thenReturn(true);
+        when(config.getResilienceBulkheadMaxConcurrent()).thenReturn(4);
+        when(config.getResilienceBulkheadMaxWaitMs()).thenReturn(10L);
+        when(config.getResilienceBreakerFailureThreshold()).thenReturn(3);
+        when(config.getResilienceBreakerOpenMs()).thenReturn(100L);
+        when(config.getRetryMaxAttempts()).thenReturn(1);
+        when(config.getTimeoutMs()).thenReturn(5000L);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (endpoints != null) {
+            endpoints.shutdown();
+        }
+    }
+
+    @Test
+    public void testBreakerOpensAfterFailuresFailsFastAndRecovers() throws Exception {
+        // Arrange
+        ChainEndpoint endpoint = endpoint();
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertThrows(ResourceAccessException.class, () -> endpoint.read(() -> {
+                calls.incrementAndGet();
+                throw new ResourceAccessException("Connection refused");
+            }));
+        }
+        CircuitBreaker.State afterFailures = endpoint.getState();
+        assertThrows(ChainUnavailableException.class, () -> endpoint.read(calls::incrementAndGet));
+        boolean availableWhileOpen = endpoint.isAvailable();
+        Thread.sleep(150);
+        String result = endpoint.read(() -> "ok");
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, afterFailures);
+        assertFalse(availableWhileOpen);
+        assertEquals(3, calls.get());
+        assertEquals("ok", result);
+        assertEquals(CircuitBreaker.State.CLOSED, endpoint.getState());
+        assertEquals(1.0, calls("short_circuited"));
+        assertEquals(0.0, meterRegistry.get("blockchain.endpoint.circuit.state").tag("endpoint", "rest").gauge().value());
+    }
+
+    @Test
+    public void testBulkheadRejectsCallsBeyondItsLimit() throws Exception {
+        // Arrange
+        ChainEndpoint endpoint = endpoint();
+        CountDownLatch started = new CountDownLatch(4);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<?>[] inFlight = new CompletableFuture<?>[4];
+        for (int i = 0; i < inFlight.length; i++) {
+            inFlight[i] = CompletableFuture.runAsync(() -> endpoint.call(() -> {
+                started.countDown();
+                return await(release);
+            }));
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        ChainUnavailableException rejected = assertThrows(ChainUnavailableException.class, () -> endpoint.call(() -> "late"));
+        release.countDown();
+        CompletableFuture.allOf(inFlight).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(rejected.getMessage().contains("concurrent"));
+        assertEquals(1.0, calls("rejected"));
+        assertEquals(CircuitBreaker.State.CLOSED, endpoint.getState());
+        assertEquals("again", endpoint.call(() -> "again"));
+    }
+
+    @Test
+    public void testRetriesTransientFailuresWithJitteredBackoff() {
+        // Arrange
+        when(config.getRetryMaxAttempts()).thenReturn(3);
+        when(config.getRetryDelayMs()).thenReturn(10L);
+        when(config.getRetryMaxDelayMs()).thenReturn(25L);
+        ChainEndpoint endpoint = endpoint();
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act
+        String result = endpoint.read(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ResourceAccessException("Read timed out");
+            }
+            return "balance";
+        });
+
+        // Assert
+        assertEquals("balance", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, meterRegistry.get("blockchain.endpoint.retries").tag("endpoint", "rest").counter().count());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(endpoint.backoff(1) <= 10);
+            assertTrue(endpoint.backoff(2) <= 20);
+            assertTrue(endpoint.backoff(10) <= 25);
+        }
+    }
+
+    @Test
+    public void testClientErrorsDoNotTripTheBreakerOrRetry() {
+        // Arrange
+        when(config.getRetryMaxAttempts()).thenReturn(3);
+        ChainEndpoint endpoint = endpoint();
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            assertThrows(HttpClientErrorException.class, () -> endpoint.read(() -> {
+                calls.incrementAndGet();
+                throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+            }));
+        }
+
+        // Assert
+        assertEquals(5, calls.get());
+        assertEquals(CircuitBreaker.State.CLOSED, endpoint.getState());
+    }
+
+    @Test
+    public void testHedgedReadReturnsTheFirstAnswer() {
+        // Arrange
+        when(config.getResilienceHedgeDelayMs()).thenReturn(20L);
+        ChainEndpoint endpoint = endpoint();
+        CountDownLatch slowPrimary = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        long start = System.nanoTime();
+        String result = endpoint.read(() -> calls.incrementAndGet() == 1 ? await(slowPrimary) : "hedge");
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        slowPrimary.countDown();
+
+        // Assert
+        assertEquals("hedge", result);
+        assertTrue(elapsedMs < 2000, "Hedged read took " + elapsedMs + " ms");
+        assertEquals(1.0, meterRegistry.get("blockchain.endpoint.hedges").tag("endpoint", "rest").tag("result", "sent").counter().count());
+        assertEquals(1.0, meterRegistry.get("blockchain.endpoint.hedges").tag("endpoint", "rest").tag("result", "won").counter().count());
+    }
+
+    @Test
+    public void testReadsStopAtTheRequestDeadline() {
+        // Arrange
+        when(config.getResilienceHedgeDelayMs()).thenReturn(20L);
+        when(config.getRetryMaxAttempts()).thenReturn(3);
+        ChainEndpoint endpoint = endpoint();
+        CountDownLatch slowNode = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Deadline.set(Deadline.after(200));
+
+        try {
+            // Act
+            long start = System.nanoTime();
+            assertThrows(DeadlineExceededException.class, () -> endpoint.read(() -> {
+                calls.incrementAndGet();
+                return await(slowNode);
+            }));
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // Assert
+            assertTrue(elapsedMs < 2000, "Read took " + elapsedMs + " ms");
+            assertEquals(2, calls.get());
+            assertEquals(1.0, meterRegistry.get("request.deadline.exceeded").tag("stage", "chain_call").counter().count());
+        } finally {
+            Deadline.set(null);
+            slowNode.countDown();
+        }
+    }
+
+    private ChainEndpoint endpoint() {
+        endpoints = new ChainEndpoints(config, meterRegistry);
+        return endpoints.getRest();
+    }
+
+    private double calls(String outcome) {
+        return meterRegistry.get("blockchain.endpoint.calls").tag("endpoint", "rest").tag("outcome", outcome).counter().count();
+    }
+
+    private static String await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "primary";
+    }
+}
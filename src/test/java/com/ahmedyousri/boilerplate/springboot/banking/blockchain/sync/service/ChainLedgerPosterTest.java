@@ -0,0 +1,151 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.account.service.AccountService;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.entity.JournalEntry;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.DepositPosting;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.cosmos.signing.CosmosTxBroadcaster;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.repository.AccountAddressRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.service.AccountAddressRegistry;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.entity.SyncCheckpoint;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.model.ChainTransfer;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.repository.SyncCheckpointRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the ChainLedgerPoster.
+ */
+public class ChainLedgerPosterTest {
+
+    private static final String EXTERNAL_ADDRESS = "cosmos1wdtem7vfw6ymewcu8dr4rz5xlhjj225ah3k9z0";
+
+    private static final String FAUCET_ADDRESS = "cosmos186yzfgjzdlgekev8nga3yk8h7zeavxxrzlzrw9";
+
+    private final Set<String> postedReferences = new HashSet<>();
+
+    private AccountAddressRegistry registry;
+
+    private AccountService accountService;
+
+    private SyncCheckpointRepository checkpointRepository;
+
+    private ChainLedgerPoster poster;
+
+    private Account account;
+
+    private Account otherAccount;
+
+    @BeforeEach
+    public void setUp() {
+        BlockchainConfig config = mock(BlockchainConfig.class);
+        when(config.getSyncDenom()).thenReturn("stake");
+        when(config.getSyncIgnoredSenders()).thenReturn(List.of(FAUCET_ADDRESS));
+
+        account = Account.builder().id(UUID.randomUUID()).currencyCode("USD").build();
+        otherAccount = Account.builder().id(UUID.randomUUID()).currencyCode("USD").build();
+        AccountRepository accountRepository = mock(AccountRepository.class);
+        when(accountRepository.findAllById(any())).thenReturn(List.of(account, otherAccount));
+
+        // Emulates the accounting service skipping references that were already posted
+        AccountingService accountingService = mock(AccountingService.class);
+        when(accountingService.createDepositJournalEntries(anyList())).thenAnswer(invocation -> {
+            List<JournalEntry> created = new ArrayList<>();
+            for (DepositPosting deposit : invocation.<List<DepositPosting>>getArgument(0)) {
+                if (postedReferences.add(deposit.getReferenceId().toString())) {
+                    created.add(JournalEntry.builder().reference(deposit.getReferenceId().toString()).build());
+                }
+            }
+            return created;
+        });
+
+        registry = new AccountAddressRegistry(mock(AccountAddressRepository.class));
+        registry.getAddress(account.getId());
+        registry.getAddress(otherAccount.getId());
+        accountService = mock(AccountService.class);
+        checkpointRepository = mock(SyncCheckpointRepository.class);
+        poster = new ChainLedgerPoster(config, registry, mock(CosmosTxBroadcaster.class), accountRepository,
+                accountService, accountingService, mock(TransactionService.class), checkpointRepository);
+    }
+
+    @Test
+    public void testOnlyInboundCreditsToOurAccountsArePosted() {
+        // Arrange
+        String ours = registry.getAddress(account.getId());
+        String otherOurs = registry.getAddress(otherAccount.getId());
+        List<ChainTransfer> transfers = List.of(
+                new ChainTransfer("TX1", 0, 10, EXTERNAL_ADDRESS, ours, new BigDecimal("25"), "stake"),
+                new ChainTransfer("TX2", 0, 11, EXTERNAL_ADDRESS, ours, new BigDecimal("25"), "uatom"),
+                new ChainTransfer("TX3", 0, 12, otherOurs, ours, new BigDecimal("25"), "stake"),
+                new ChainTransfer("TX4", 0, 13, FAUCET_ADDRESS, ours, new BigDecimal("25"), "stake"),
+                new ChainTransfer("TX5", 0, 14, EXTERNAL_ADDRESS, EXTERNAL_ADDRESS, new BigDecimal("25"), "stake"));
+
+        // Act
+        int posted = poster.post("cosmos", transfers, 20);
+
+        // Assert
+        assertEquals(1, posted);
+        verify(accountService).performCredit(account, new BigDecimal("25"));
+        verify(accountService, never()).performCredit(eq(otherAccount), any());
+        ArgumentCaptor<SyncCheckpoint> checkpoint = ArgumentCaptor.forClass(SyncCheckpoint.class);
+        verify(checkpointRepository).save(checkpoint.capture());
+        assertEquals(20, checkpoint.getValue().getHeight());
+    }
+
+    @Test
+    public void testReplayedRangeIsNotCreditedTwice() {
+        // Arrange
+        String ours = registry.getAddress(account.getId());
+        List<ChainTransfer> transfers = List.of(
+                new ChainTransfer("TX1", 0, 10, EXTERNAL_ADDRESS, ours, new BigDecimal("5"), "stake"),
+                new ChainTransfer("TX1", 1, 10, EXTERNAL_ADDRESS, ours, new BigDecimal("7"), "stake"));
+
+        // Act
+        int first = poster.post("cosmos", transfers, 10);
+        int replay = poster.post("cosmos", transfers, 10);
+
+        // Assert
+        assertEquals(2, first);
+        assertEquals(0, replay);
+        verify(accountService).performCredit(account, new BigDecimal("5"));
+        verify(accountService).performCredit(account, new BigDecimal("7"));
+        assertNotEquals(ChainLedgerPoster.referenceId(transfers.get(0)), ChainLedgerPoster.referenceId(transfers.get(1)));
+    }
+
+    @Test
+    public void testRangeAlreadyCheckpointedByAnotherNodeIsSkipped() {
+        // Arrange
+        String ours = registry.getAddress(account.getId());
+        List<ChainTransfer> transfers = List.of(
+                new ChainTransfer("TX1", 0, 10, EXTERNAL_ADDRESS, ours, new BigDecimal("5"), "stake"));
+        when(checkpointRepository.findByNameForUpdate("cosmos"))
+                .thenReturn(Optional.of(new SyncCheckpoint("cosmos", 10, null)));
+
+        // Act
+        int posted = poster.post("cosmos", transfers, 10);
+
+        // Assert
+        assertEquals(0, posted);
+        verify(accountService, never()).performCredit(any(), any());
+        verify(checkpointRepository, never()).save(any());
+    }
+}
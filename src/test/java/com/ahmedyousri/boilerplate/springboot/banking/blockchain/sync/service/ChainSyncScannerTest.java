@@ -0,0 +1,157 @@
+package com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.entity.SyncCheckpoint;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.model.ChainTransfer;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.sync.source.ChainTransferSource;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.service.JobCoordinator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the ChainSyncScanner with an in-memory chain and checkpoint store.
+ */
+public class ChainSyncScannerTest {
+
+    private final Map<String, SyncCheckpoint> checkpoints = new ConcurrentHashMap<>();
+
+    private final List<Long> postedHeights = new CopyOnWriteArrayList<>();
+
+    private StubChain chain;
+
+    private ChainLedgerPoster poster;
+
+    private ChainSyncScanner scanner;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        BlockchainConfig config = mock(BlockchainConfig.class);
+        when(config.getSyncRangeBlocks()).thenReturn(100);
+        when(config.getSyncParallelism()).thenReturn(4);
+        when(config.getSyncStartHeight()).thenReturn(1L);
+        when(config.getTimeoutMs()).thenReturn(5000L);
+
+        poster = mock(ChainLedgerPoster.class);
+        when(poster.checkpoint(anyString(), anyLong())).thenAnswer(invocation -> checkpoints.computeIfAbsent(
+                invocation.getArgument(0), name -> new SyncCheckpoint(name, invocation.getArgument(1), null)).getHeight());
+        when(poster.post(anyString(), anyList(), anyLong())).thenAnswer(invocation -> {
+            long toHeight = invocation.getArgument(2);
+            List<ChainTransfer> transfers = invocation.getArgument(1);
+            postedHeights.add(toHeight);
+            checkpoints.put(invocation.getArgument(0), new SyncCheckpoint(invocation.getArgument(0), toHeight, null));
+            chain.assertWithinLookahead(toHeight);
+            return transfers.size();
+        });
+
+        chain = new StubChain(1050);
+        scanner = new ChainSyncScanner(config, chain, poster, mock(JobCoordinator.class), mock(TaskScheduler.class));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scanner.shutdown();
+    }
+
+    @Test
+    public void testCatchUpPostsRangesInOrderWithBoundedLookahead() throws Exception {
+        // Act
+        int posted = scanner.scan();
+
+        // Assert
+        assertEquals(1050, posted);
+        assertEquals(11, postedHeights.size());
+        assertEquals(100L, postedHeights.get(0));
+        assertEquals(1050L, postedHeights.get(10));
+        for (int i = 1; i < postedHeights.size(); i++) {
+            assertTrue(postedHeights.get(i) > postedHeights.get(i - 1));
+        }
+        assertEquals(1050, checkpoints.get(ChainSyncScanner.CHECKPOINT_NAME).getHeight());
+        assertTrue(chain.maxConcurrentFetches.get() <= 4);
+    }
+
+    @Test
+    public void testFailedRangeResumesFromCheckpoint() throws Exception {
+        // Arrange
+        chain.failAtHeight = 501;
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> scanner.scan());
+        long checkpointAfterFailure = checkpoints.get(ChainSyncScanner.CHECKPOINT_NAME).getHeight();
+        chain.failAtHeight = -1;
+        chain.latest = 1200;
+        int posted = scanner.scan();
+
+        // Assert
+        assertEquals(500, checkpointAfterFailure);
+        assertEquals(700, posted);
+        assertEquals(1200, scanner.getLastHeight());
+    }
+
+    /**
+     * A chain with one transfer per block that tracks how far fetches run ahead of posting.
+     */
+    private class StubChain implements ChainTransferSource {
+
+        private final AtomicInteger concurrentFetches = new AtomicInteger();
+
+        private final AtomicInteger maxConcurrentFetches = new AtomicInteger();
+
+        private volatile long highestFetched;
+
+        private volatile long latest;
+
+        private volatile long failAtHeight = -1;
+
+        StubChain(long latest) {
+            this.latest = latest;
+        }
+
+        @Override
+        public long getLatestHeight() {
+            return latest;
+        }
+
+        @Override
+        public List<ChainTransfer> getTransfers(long fromHeight, long toHeight) {
+            maxConcurrentFetches.accumulateAndGet(concurrentFetches.incrementAndGet(), Math::max);
+            try {
+                highestFetched = Math.max(highestFetched, toHeight);
+                if (fromHeight == failAtHeight) {
+                    throw new IllegalStateException("Node unavailable");
+                }
+                Thread.sleep(5);
+                ChainTransfer[] transfers = new ChainTransfer[(int) (toHeight - fromHeight + 1)];
+                for (long height = fromHeight; height <= toHeight; height++) {
+                    transfers[(int) (height - fromHeight)] = new ChainTransfer("TX" + height, 0, height,
+                            "cosmos1sender", "cosmos1recipient", BigDecimal.ONE, "stake");
+                }
+                return List.of(transfers);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                concurrentFetches.decrementAndGet();
+            }
+        }
+
+        void assertWithinLookahead(long postedHeight) {
+            assertTrue(highestFetched - postedHeight <= 3 * 100, "Fetched too far ahead of posting");
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.parser;
+
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.model.PaymentInstruction;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the CsvPaymentParser.
+ */
+public class CsvPaymentParserTest {
+
+    private final CsvPaymentParser parser = new CsvPaymentParser();
+
+    @Test
+    public void testReadsColumnsByHeaderInAnyOrder() throws IOException {
+        // Arrange
+        String csv = "\uFEFFAmount,Currency Code,Destination-Account,source_account,Description\r\n"
+                + "10.50,USD,ACC002,ACC001,\"Rent, March\"\r\n"
+                + "\r\n"
+                + "7,EUR,ACC003,ACC001,\"Say \"\"hi\"\"\"\r\n";
+
+        // Act
+        List<PaymentInstruction> payments = parse(csv);
+
+        // Assert
+        assertEquals(2, payments.size());
+        PaymentInstruction first = payments.get(0);
+        assertEquals(1, first.getLineNumber());
+        assertEquals("ACC001", first.getSourceAccount());
+        assertEquals("ACC002", first.getDestinationAccount());
+        assertEquals("10.50", first.getAmount());
+        assertEquals("USD", first.getCurrencyCode());
+        assertEquals("Rent, March", first.getDescription());
+        assertNull(first.getEndToEndId());
+        assertNull(first.getParseError());
+        assertEquals(2, payments.get(1).getLineNumber());
+        assertEquals("Say \"hi\"", payments.get(1).getDescription());
+    }
+
+    @Test
+    public void testReportsRecordsWithTheWrongNumberOfFields() throws IOException {
+        // Arrange
+        String csv = "source_account,destination_account,amount,currency\n"
+                + "ACC001,ACC002,5\n";
+
+        // Act
+        List<PaymentInstruction> payments = parse(csv);
+
+        // Assert
+        assertEquals(1, payments.size());
+        assertEquals("Expected 4 fields but found 3", payments.get(0).getParseError());
+    }
+
+    @Test
+    public void testRejectsFilesWithoutARequiredColumn() {
+        // Act & Assert
+        BusinessRuleException exception = assertThrows(BusinessRuleException.class,
+                () -> parse("source_account,amount,currency\nACC001,5,USD\n"));
+        assertEquals("INVALID_PAYMENT_FILE", exception.getErrorCode());
+        assertThrows(BusinessRuleException.class, () -> parse(""));
+    }
+
+    private List<PaymentInstruction> parse(String csv) throws IOException {
+        List<PaymentInstruction> payments = new ArrayList<>();
+        parser.parse(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), payments::add);
+        return payments;
+    }
+}
@@ -0,0 +1,103 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.parser;
+
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.model.PaymentInstruction;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Pain001PaymentParser.
+ */
+public class Pain001PaymentParserTest {
+
+    private static final String DOCUMENT = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <Document xmlns="urn:iso:std:iso:20022:tech:xsd:pain.001.001.03">
+              <CstmrCdtTrfInitn>
+                <GrpHdr><MsgId>MSG-1</MsgId><NbOfTxs>3</NbOfTxs></GrpHdr>
+                <PmtInf>
+                  <PmtInfId>PMT-1</PmtInfId>
+                  <DbtrAcct><Id><IBAN>GB00BANK00000000000001</IBAN></Id></DbtrAcct>
+                  <CdtTrfTxInf>
+                    <PmtId><EndToEndId>E2E-1</EndToEndId></PmtId>
+                    <Amt><InstdAmt Ccy="EUR">120.00</InstdAmt></Amt>
+                    <CdtrAcct><Id><IBAN>GB00BANK00000000000002</IBAN></Id></CdtrAcct>
+                    <RmtInf><Ustrd>Invoice 1</Ustrd></RmtInf>
+                  </CdtTrfTxInf>
+                  <CdtTrfTxInf>
+                    <PmtId><EndToEndId>E2E-2</EndToEndId></PmtId>
+                    <Amt><InstdAmt Ccy="EUR">5</InstdAmt></Amt>
+                    <CdtrAcct><Id><Othr><Id>ACC003</Id></Othr></Id></CdtrAcct>
+                  </CdtTrfTxInf>
+                </PmtInf>
+                <PmtInf>
+                  <DbtrAcct><Id><Othr><Id>ACC009</Id></Othr></Id></DbtrAcct>
+                  <CdtTrfTxInf>
+                    <Amt><InstdAmt Ccy="USD">1.25</InstdAmt></Amt>
+                    <CdtrAcct><Id><IBAN>GB00BANK00000000000002</IBAN></Id></CdtrAcct>
+                  </CdtTrfTxInf>
+                </PmtInf>
+              </CstmrCdtTrfInitn>
+            </Document>
+            """;
+
+    private final Pain001PaymentParser parser = new Pain001PaymentParser();
+
+    @Test
+    public void testReadsEachCreditTransferWithTheDebtorOfItsPaymentInformation() throws IOException {
+        // Act
+        List<PaymentInstruction> payments = parse(DOCUMENT);
+
+        // Assert
+        assertEquals(3, payments.size());
+        PaymentInstruction first = payments.get(0);
+        assertEquals(1, first.getLineNumber());
+        assertEquals("GB00BANK00000000000001", first.getSourceAccount());
+        assertEquals("GB00BANK00000000000002", first.getDestinationAccount());
+        assertEquals("120.00", first.getAmount());
+        assertEquals("EUR", first.getCurrencyCode());
+        assertEquals("Invoice 1", first.getDescription());
+        assertEquals("E2E-1", first.getEndToEndId());
+        assertEquals("ACC003", payments.get(1).getDestinationAccount());
+        assertEquals("GB00BANK00000000000001", payments.get(1).getSourceAccount());
+        assertEquals("ACC009", payments.get(2).getSourceAccount());
+        assertEquals("USD", payments.get(2).getCurrencyCode());
+        assertNull(payments.get(2).getDescription());
+    }
+
+    @Test
+    public void testRefusesDocumentTypeDefinitions() {
+        // Arrange
+        String xml = "<?xml version=\"1.0\"?><!DOCTYPE Document [<!ENTITY x SYSTEM \"file:///etc/passwd\">]>"
+                + "<Document><CstmrCdtTrfInitn><PmtInf><CdtTrfTxInf><RmtInf><Ustrd>&x;</Ustrd></RmtInf>"
+                + "</CdtTrfTxInf></PmtInf></CstmrCdtTrfInitn></Document>";
+
+        // Act & Assert
+        List<PaymentInstruction> payments = new ArrayList<>();
+        assertThrows(BusinessRuleException.class, () -> parser.parse(
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), payments::add));
+        assertTrue(payments.stream().noneMatch(payment -> payment.getDescription() != null
+                && payment.getDescription().contains("root")));
+    }
+
+    @Test
+    public void testRejectsMalformedFiles() {
+        // Act & Assert
+        BusinessRuleException exception = assertThrows(BusinessRuleException.class,
+                () -> parse("<Document><CstmrCdtTrfInitn>"));
+        assertEquals("INVALID_PAYMENT_FILE", exception.getErrorCode());
+    }
+
+    private List<PaymentInstruction> parse(String xml) throws IOException {
+        List<PaymentInstruction> payments = new ArrayList<>();
+        parser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), payments::add);
+        return payments;
+    }
+}
@@ -0,0 +1,271 @@
+package com.ahmedyousri.boilerplate.springboot.banking.bulk.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountType;
+import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.config.BulkPaymentConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentFile;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.entity.BulkPaymentLine;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.parser.CsvPaymentParser;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.parser.Pain001PaymentParser;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.repository.BulkPaymentFileRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.repository.BulkPaymentLineRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.CustomerStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.repository.CustomerRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.service.TransferService;
+import com.ahmedyousri.boilerplate.springboot.model.generated.TransferCreationRequest;
+import com.ahmedyousri.boilerplate.springboot.model.generated.TransferResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the BulkPaymentService: ingestion, validation and execution of bulk payment files.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({BulkPaymentService.class, BulkPaymentValidator.class, BulkPaymentStager.class, BulkPaymentLineExecutor.class,
+        CsvPaymentParser.class, Pain001PaymentParser.class, BulkPaymentServiceTest.Services.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BulkPaymentServiceTest {
+
+    @TestConfiguration
+    static class Services {
+
+        @Bean
+        BulkPaymentConfig bulkPaymentConfig() {
+            BulkPaymentConfig config = mock(BulkPaymentConfig.class);
+            when(config.getChunkSize()).thenReturn(2);
+            when(config.getValidationThreads()).thenReturn(2);
+            when(config.getMaxPendingChunks()).thenReturn(1);
+            when(config.getExecutionPartitions()).thenReturn(2);
+            when(config.getMaxLines()).thenReturn(100);
+            return config;
+        }
+
+        @Bean
+        TransferService transferService() {
+            return mock(TransferService.class);
+        }
+
+        @Bean
+        BulkPaymentMetrics bulkPaymentMetrics() {
+            return new BulkPaymentMetrics(new SimpleMeterRegistry());
+        }
+    }
+
+    @Autowired
+    private BulkPaymentService bulkPaymentService;
+
+    @Autowired
+    private BulkPaymentFileRepository fileRepository;
+
+    @Autowired
+    private BulkPaymentLineRepository lineRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private BulkPaymentConfig config;
+
+    private final List<TransferCreationRequest> transfers = Collections.synchronizedList(new ArrayList<>());
+
+    private Customer customer;
+
+    private Customer otherCustomer;
+
+    private Account payroll;
+
+    private Account savings;
+
+    private Account payee;
+
+    @BeforeEach
+    public void setUp() {
+        reset(transferService);
+        when(config.getMaxLines()).thenReturn(100);
+        when(transferService.createTransfer(any(Customer.class), any())).thenAnswer(invocation -> {
+            TransferCreationRequest request = invocation.getArgument(1);
+            if (new BigDecimal(request.getAmount()).compareTo(new BigDecimal("999")) == 0) {
+                throw new BusinessRuleException("Insufficient funds", "INSUFFICIENT_FUNDS");
+            }
+            transfers.add(request);
+            TransferResponse response = new TransferResponse();
+            response.setId(UUID.randomUUID());
+            return response;
+        });
+
+        customer = customer("bulk-test@example.com");
+        otherCustomer = customer("bulk-payee@example.com");
+        payroll = account("BULK000001", "GB00BULK00000000000001", customer);
+        savings = account("BULK000002", null, customer);
+        payee = account("BULK000003", "GB00BULK00000000000003", otherCustomer);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        lineRepository.deleteAll();
+        fileRepository.deleteAll();
+        accountRepository.deleteAll(List.of(payroll, savings, payee));
+        customerRepository.deleteAll(List.of(customer, otherCustomer));
+        transfers.clear();
+    }
+
+    @Test
+    public void testValidatesStagesAndExecutesEachLine() throws Exception {
+        // Arrange
+        String csv = "source_account,destination_account,amount,currency,description\n"
+                + "BULK000001,GB00BULK00000000000003,10.00,USD,Salary 1\n"
+                + "BULK000002,BULK000001,5,USD,Sweep\n"
+                + "BULK000001,BULK000003,20.00,USD,Salary 2\n"
+                + "BULK000003,BULK000001,1,USD,Not ours\n"
+                + "BULK000001,BULK999999,1,USD,Unknown payee\n"
+                + "BULK000001,BULK000003,-4,USD,Negative\n"
+                + "BULK000001,BULK000003,4,EUR,Wrong currency\n"
+                + "BULK000001,BULK000003,30.00,USD,Salary 3\n";
+
+        // Act
+        BulkPaymentFile file = bulkPaymentService.ingest(customer, BulkPaymentFile.FileFormat.CSV, "payroll.csv", stream(csv));
+        bulkPaymentService.execute(file, customer).get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(8, file.getLineCount());
+        assertEquals(4, file.getInvalidCount());
+        assertEquals(BulkPaymentFile.FileStatus.COMPLETED, fileRepository.findById(file.getId()).orElseThrow().getStatus());
+
+        List<BulkPaymentLine> lines = lines(file.getId());
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8), lines.stream().map(BulkPaymentLine::getLineNumber).toList());
+        assertEquals("SOURCE_ACCOUNT_NOT_OWNED", lines.get(3).getErrorCode());
+        assertEquals("UNKNOWN_DESTINATION_ACCOUNT", lines.get(4).getErrorCode());
+        assertEquals("INVALID_AMOUNT", lines.get(5).getErrorCode());
+        assertEquals("CURRENCY_MISMATCH", lines.get(6).getErrorCode());
+        for (int index : List.of(0, 1, 2, 7)) {
+            assertEquals(BulkPaymentLine.LineStatus.COMPLETED, lines.get(index).getStatus());
+            assertNotNull(lines.get(index).getTransferId());
+        }
+        assertEquals(payee.getId(), lines.get(0).getDestinationAccountId());
+
+        // Assert: the lines debiting an account run in the order of the file
+        assertEquals(4, transfers.size());
+        List<Integer> payrollAmounts = transfers.stream()
+                .filter(request -> request.getSourceAccountId().equals(payroll.getId()))
+                .map(request -> new BigDecimal(request.getAmount()).intValueExact())
+                .toList();
+        assertEquals(List.of(10, 20, 30), payrollAmounts);
+        assertEquals(Map.of(BulkPaymentLine.LineStatus.VALID, 0L, BulkPaymentLine.LineStatus.INVALID, 4L,
+                        BulkPaymentLine.LineStatus.COMPLETED, 4L, BulkPaymentLine.LineStatus.FAILED, 0L),
+                bulkPaymentService.countLines(file.getId()));
+    }
+
+    @Test
+    public void testRecordsLinesThatFailToExecuteAndGoesOn() throws Exception {
+        // Arrange
+        String csv = "source_account,destination_account,amount,currency\n"
+                + "BULK000001,BULK000003,999,USD\n"
+                + "BULK000001,BULK000003,1,USD\n";
+
+        // Act
+        BulkPaymentFile file = bulkPaymentService.ingest(customer, BulkPaymentFile.FileFormat.CSV, null, stream(csv));
+        bulkPaymentService.execute(file, customer).get(10, TimeUnit.SECONDS);
+        bulkPaymentService.execute(file, customer).get(10, TimeUnit.SECONDS);
+
+        // Assert: executing the file again leaves the lines done alone
+        List<BulkPaymentLine> lines = lines(file.getId());
+        assertEquals(BulkPaymentLine.LineStatus.FAILED, lines.get(0).getStatus());
+        assertEquals("INSUFFICIENT_FUNDS", lines.get(0).getErrorCode());
+        assertEquals(BulkPaymentLine.LineStatus.COMPLETED, lines.get(1).getStatus());
+        assertEquals(1, transfers.size());
+        verify(transferService, times(2)).createTransfer(any(Customer.class), any());
+    }
+
+    @Test
+    public void testFailsFilesThatCannotBeReadWithoutKeepingTheirLines() {
+        // Arrange: chunks of two lines, so a chunk is staged before the limit is reached
+        when(config.getMaxLines()).thenReturn(3);
+        StringBuilder csv = new StringBuilder("source_account,destination_account,amount,currency\n");
+        for (int i = 0; i < 5; i++) {
+            csv.append("BULK000001,BULK000003,1,USD\n");
+        }
+
+        // Act
+        BusinessRuleException tooLarge = assertThrows(BusinessRuleException.class, () ->
+                bulkPaymentService.ingest(customer, BulkPaymentFile.FileFormat.CSV, null, stream(csv.toString())));
+        BusinessRuleException malformed = assertThrows(BusinessRuleException.class, () ->
+                bulkPaymentService.ingest(customer, BulkPaymentFile.FileFormat.PAIN_001, null, stream("<Document>")));
+
+        // Assert
+        assertEquals("BULK_FILE_TOO_LARGE", tooLarge.getErrorCode());
+        assertEquals("INVALID_PAYMENT_FILE", malformed.getErrorCode());
+        List<BulkPaymentFile> files = fileRepository.findAll();
+        assertEquals(2, files.size());
+        assertTrue(files.stream().allMatch(file -> file.getStatus() == BulkPaymentFile.FileStatus.FAILED));
+        assertEquals(0, lineRepository.count());
+        verifyNoInteractions(transferService);
+    }
+
+    private List<BulkPaymentLine> lines(UUID fileId) {
+        return lineRepository.findByFileIdAndLineNumberGreaterThanOrderByLineNumber(fileId, 0, PageRequest.of(0, 100));
+    }
+
+    private Customer customer(String email) {
+        return customerRepository.save(Customer.builder()
+                .firstName("Bulk")
+                .lastName("Test")
+                .email(email)
+                .status(CustomerStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private Account account(String accountNumber, String iban, Customer owner) {
+        return accountRepository.save(Account.builder()
+                .accountNumber(accountNumber)
+                .iban(iban)
+                .type(AccountType.CHECKING_ACCOUNT)
+                .currencyCode("USD")
+                .status(AccountStatus.ACTIVE)
+                .currentBalance(BigDecimal.valueOf(1000))
+                .availableBalance(BigDecimal.valueOf(1000))
+                .customer(owner)
+                .build());
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,68 @@
+package com.ahmedyousri.boilerplate.springboot.banking.cluster.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Shard.
+ */
+public class ShardTest {
+
+    @Test
+    public void testEachIdIsInExactlyOneShard() {
+        // Arrange
+        int count = 7;
+
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = UUID.randomUUID();
+
+            // Act
+            int matches = 0;
+            for (int index = 0; index < count; index++) {
+                Shard shard = new Shard(index, count);
+                if (shard.contains(id)) {
+                    matches++;
+                    // Assert: the bounds the shard is queried with agree
+                    assertTrue(compareUnsigned(shard.getFirstId(), id) <= 0);
+                    assertTrue(compareUnsigned(id, shard.getLastId()) <= 0);
+                }
+            }
+
+            // Assert
+            assertEquals(1, matches, "Shards containing " + id);
+        }
+    }
+
+    @Test
+    public void testShardsAreContiguous() {
+        // Arrange
+        int count = 16;
+
+        // Act & Assert
+        assertEquals(new UUID(0L, 0L), new Shard(0, count).getFirstId());
+        assertEquals(new UUID(-1L, -1L), new Shard(count - 1, count).getLastId());
+        for (int index = 1; index < count; index++) {
+            UUID previousLast = new Shard(index - 1, count).getLastId();
+            UUID first = new Shard(index, count).getFirstId();
+            assertEquals(previousLast.getMostSignificantBits() + 1, first.getMostSignificantBits());
+            assertEquals(-1L, previousLast.getLeastSignificantBits());
+            assertEquals(0L, first.getLeastSignificantBits());
+        }
+    }
+
+    @Test
+    public void testAllContainsEveryId() {
+        // Act & Assert
+        assertTrue(Shard.ALL.contains(new UUID(0L, 0L)));
+        assertTrue(Shard.ALL.contains(new UUID(-1L, -1L)));
+        assertTrue(Shard.ALL.contains(UUID.randomUUID()));
+    }
+
+    private static int compareUnsigned(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,227 @@
+package com.ahmedyousri.boilerplate.springboot.banking.cluster.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountType;
+import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.config.ClusterConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.model.Shard;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.repository.JobLeaseRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.CustomerStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the JobCoordinator and the shard queries the coordinated jobs read with.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(JobLeases.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JobCoordinatorTest {
+
+    private static final String JOB = "test-job";
+
+    private static final int SHARDS = 4;
+
+    @Autowired
+    private JobLeases jobLeases;
+
+    @Autowired
+    private JobLeaseRepository leaseRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void tearDown() {
+        leaseRepository.deleteAll();
+    }
+
+    @Test
+    public void testEachShardRunsOnceAcrossNodes() {
+        // Arrange
+        JobCoordinator nodeA = coordinator("node-a");
+        JobCoordinator nodeB = coordinator("node-b");
+        Set<Integer> shardsRun = ConcurrentHashMap.newKeySet();
+        List<Integer> runs = new ArrayList<>();
+
+        // Act
+        int ranOnA = nodeA.run(JOB, "2024-03-01", SHARDS, shard -> record(shard, shardsRun, runs));
+        int ranOnB = nodeB.run(JOB, "2024-03-01", SHARDS, shard -> record(shard, shardsRun, runs));
+        int ranNextDay = nodeB.run(JOB, "2024-03-02", SHARDS, shard -> runs.add(shard.getIndex()));
+
+        // Assert
+        assertEquals(SHARDS, ranOnA + ranOnB);
+        assertEquals(Set.of(0, 1, 2, 3), shardsRun);
+        assertEquals(SHARDS, ranNextDay);
+        assertEquals(2 * SHARDS, runs.size());
+    }
+
+    @Test
+    public void testFailedShardIsRetriedByAnotherNode() {
+        // Arrange
+        JobCoordinator nodeA = coordinator("node-a");
+        JobCoordinator nodeB = coordinator("node-b");
+
+        // Act
+        int ranOnA = nodeA.run(JOB, "2024-03-01", SHARDS, shard -> {
+            if (shard.getIndex() == 2) {
+                throw new IllegalStateException("Shard failed");
+            }
+        });
+        List<Integer> retried = new ArrayList<>();
+        int ranOnB = nodeB.run(JOB, "2024-03-01", SHARDS, shard -> retried.add(shard.getIndex()));
+
+        // Assert
+        assertEquals(SHARDS - 1, ranOnA);
+        assertEquals(1, ranOnB);
+        assertEquals(List.of(2), retried);
+    }
+
+    @Test
+    public void testWaitsForShardsHeldByAnotherNode() throws Exception {
+        // Arrange: node A holds a shard, and stops before its lease expires
+        LocalDateTime now = LocalDateTime.now();
+        jobLeases.claim(JOB + "/1", "2024-03-01", "node-a", now, now.plusSeconds(1));
+        JobCoordinator nodeB = coordinator("node-b");
+        List<Integer> runs = new ArrayList<>();
+
+        // Act
+        CompletableFuture<Integer> ranOnB = CompletableFuture.supplyAsync(
+                () -> nodeB.run(JOB, "2024-03-01", SHARDS, shard -> runs.add(shard.getIndex())));
+
+        // Assert: node B takes over the shard once the lease expires
+        assertEquals(SHARDS, ranOnB.get(10, TimeUnit.SECONDS));
+        assertEquals(Set.of(0, 1, 2, 3), new HashSet<>(runs));
+        assertEquals(1, runs.get(runs.size() - 1));
+    }
+
+    @Test
+    public void testRunOnceRunsOnASingleNode() {
+        // Arrange
+        JobCoordinator nodeA = coordinator("node-a");
+        JobCoordinator nodeB = coordinator("node-b");
+        List<String> runs = new ArrayList<>();
+
+        // Act
+        boolean ranOnA = nodeA.runOnce("cleanup", "2024-03", () -> runs.add("node-a"));
+        boolean ranOnB = nodeB.runOnce("cleanup", "2024-03", () -> runs.add("node-b"));
+
+        // Assert
+        assertTrue(ranOnA);
+        assertFalse(ranOnB);
+        assertEquals(List.of("node-a"), runs);
+    }
+
+    @Test
+    public void testRunOnceWithoutTransactionRunsOutsideATransaction() {
+        // Arrange
+        JobCoordinator nodeA = coordinator("node-a");
+        JobCoordinator nodeB = coordinator("node-b");
+        List<Boolean> transactional = new ArrayList<>();
+
+        // Act
+        boolean ranOnA = nodeA.runOnceWithoutTransaction("sweep", "sweep-1",
+                () -> transactional.add(TransactionSynchronizationManager.isActualTransactionActive()));
+        boolean ranOnB = nodeB.runOnceWithoutTransaction("sweep", "sweep-1",
+                () -> transactional.add(TransactionSynchronizationManager.isActualTransactionActive()));
+
+        // Assert
+        assertTrue(ranOnA);
+        assertFalse(ranOnB);
+        assertEquals(List.of(false), transactional);
+    }
+
+    @Test
+    public void testShardsPartitionTheAccounts() {
+        // Arrange
+        Customer customer = customerRepository.save(Customer.builder()
+                .firstName("Shard")
+                .lastName("Test")
+                .email("shard-test@example.com")
+                .status(CustomerStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .build());
+        List<UUID> accountIds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            accountIds.add(accountRepository.save(Account.builder()
+                    .accountNumber(String.format("SHARD%05d", i))
+                    .type(AccountType.CHECKING_ACCOUNT)
+                    .currencyCode("USD")
+                    .status(AccountStatus.ACTIVE)
+                    .currentBalance(BigDecimal.ZERO)
+                    .availableBalance(BigDecimal.ZERO)
+                    .customer(customer)
+                    .build()).getId());
+        }
+
+        try {
+            // Act
+            List<UUID> found = new ArrayList<>();
+            for (int index = 0; index < SHARDS; index++) {
+                Shard shard = new Shard(index, SHARDS);
+                for (Account account : accountRepository.findByIdBetween(shard.getFirstId(), shard.getLastId())) {
+                    // Assert: the database orders IDs as the shard does
+                    assertTrue(shard.contains(account.getId()));
+                    found.add(account.getId());
+                }
+            }
+
+            // Assert
+            assertEquals(accountIds.size(), found.size());
+            assertEquals(new HashSet<>(accountIds), new HashSet<>(found));
+        } finally {
+            accountRepository.deleteAllById(accountIds);
+            customerRepository.delete(customer);
+        }
+    }
+
+    private JobCoordinator coordinator(String nodeId) {
+        ClusterMembership membership = mock(ClusterMembership.class);
+        when(membership.getNodeId()).thenReturn(nodeId);
+        when(membership.getLiveNodes()).thenReturn(List.of("node-a", "node-b"));
+        when(membership.leaseExpiry(any())).thenAnswer(invocation ->
+                invocation.<LocalDateTime>getArgument(0).plusSeconds(30));
+        ClusterConfig config = mock(ClusterConfig.class);
+        when(config.getHeartbeatIntervalMs()).thenReturn(50L);
+        return new JobCoordinator(jobLeases, membership, config, transactionManager);
+    }
+
+    private static void record(Shard shard, Set<Integer> shardsRun, List<Integer> runs) {
+        assertTrue(shardsRun.add(shard.getIndex()), "Shard ran twice: " + shard.getIndex());
+        runs.add(shard.getIndex());
+    }
+}
@@ -0,0 +1,102 @@
+package com.ahmedyousri.boilerplate.springboot.banking.deadline.interceptor;
+
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.annotation.RequestDeadline;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.model.Deadline;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the RequestDeadlineInterceptor.
+ */
+public class RequestDeadlineInterceptorTest {
+
+    private RequestDeadlineInterceptor interceptor;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    public void setUp() {
+        interceptor = new RequestDeadlineInterceptor();
+        interceptor.setDefaultBudgetMs(15_000);
+        request = new MockHttpServletRequest();
+        response = new MockHttpServletResponse();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Deadline.set(null);
+    }
+
+    @Test
+    public void testUsesTheBudgetOfTheControllerMethod() throws Exception {
+        // Act
+        interceptor.preHandle(request, response, handler("slow"));
+
+        // Assert
+        long remaining = Deadline.current().remainingMillis();
+        assertTrue(remaining > 15_000 && remaining <= 20_000, "Remaining " + remaining + " ms");
+    }
+
+    @Test
+    public void testHeaderShortensButDoesNotExtendTheBudget() throws Exception {
+        // Act
+        request.addHeader(RequestDeadlineInterceptor.TIMEOUT_HEADER, "3000");
+        interceptor.preHandle(request, response, handler("plain"));
+        long shortened = Deadline.current().remainingMillis();
+
+        MockHttpServletRequest longer = new MockHttpServletRequest();
+        longer.addHeader(RequestDeadlineInterceptor.TIMEOUT_HEADER, "60000");
+        interceptor.preHandle(longer, response, handler("plain"));
+        long capped = Deadline.current().remainingMillis();
+
+        // Assert
+        assertTrue(shortened <= 3000, "Remaining " + shortened + " ms");
+        assertTrue(capped > 3000 && capped <= 15_000, "Remaining " + capped + " ms");
+    }
+
+    @Test
+    public void testRejectsAnInvalidHeader() {
+        // Arrange
+        request.addHeader(RequestDeadlineInterceptor.TIMEOUT_HEADER, "soon");
+
+        // Act & Assert
+        BusinessRuleException exception = assertThrows(BusinessRuleException.class,
+                () -> interceptor.preHandle(request, response, handler("plain")));
+        assertEquals("INVALID_REQUEST_TIMEOUT", exception.getErrorCode());
+    }
+
+    @Test
+    public void testClearsTheDeadlineAfterTheRequest() throws Exception {
+        // Arrange
+        interceptor.preHandle(request, response, handler("plain"));
+
+        // Act
+        interceptor.afterCompletion(request, response, handler("plain"), null);
+
+        // Assert
+        assertNull(Deadline.current());
+    }
+
+    private HandlerMethod handler(String method) throws NoSuchMethodException {
+        return new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(method));
+    }
+
+    public static class Endpoints {
+
+        public void plain() {
+        }
+
+        @RequestDeadline(millis = 20_000)
+        public void slow() {
+        }
+    }
+}
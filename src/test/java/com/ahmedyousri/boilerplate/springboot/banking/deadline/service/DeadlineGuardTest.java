@@ -0,0 +1,98 @@
+package com.ahmedyousri.boilerplate.springboot.banking.deadline.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.model.Deadline;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.model.DeadlineStage;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the DeadlineGuard.
+ */
+public class DeadlineGuardTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private DeadlineGuard deadlineGuard;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        deadlineGuard = new DeadlineGuard(meterRegistry);
+        deadlineGuard.setLedgerReserveMs(1000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Deadline.set(null);
+    }
+
+    @Test
+    public void testChecksPassWithoutADeadline() {
+        // Act
+        deadlineGuard.check(DeadlineStage.TRANSACTION);
+        String result = deadlineGuard.submit(() -> "HASH1");
+
+        // Assert
+        assertEquals("HASH1", result);
+        assertEquals(0.0, exceeded("transaction"));
+    }
+
+    @Test
+    public void testAbandonsAndCountsStagesPastTheDeadline() {
+        // Arrange
+        Deadline.set(Deadline.after(0));
+
+        // Act
+        DeadlineExceededException exception = assertThrows(DeadlineExceededException.class,
+                () -> deadlineGuard.check(DeadlineStage.TRANSACTION));
+
+        // Assert
+        assertEquals(DeadlineStage.TRANSACTION, exception.getStage());
+        assertEquals(1.0, exceeded("transaction"));
+        assertEquals(0.0, exceeded("chain_call"));
+    }
+
+    @Test
+    public void testDoesNotSubmitWithoutTheLedgerReserve() {
+        // Arrange
+        Deadline.set(Deadline.after(500));
+        AtomicInteger submissions = new AtomicInteger();
+
+        // Act
+        assertThrows(DeadlineExceededException.class, () -> deadlineGuard.submit(submissions::incrementAndGet));
+
+        // Assert
+        assertEquals(0, submissions.get());
+        assertEquals(1.0, exceeded("chain_submit"));
+    }
+
+    @Test
+    public void testSubmitsWithinTheBudgetLessTheReserve() {
+        // Arrange
+        Deadline deadline = Deadline.after(10_000);
+        Deadline.set(deadline);
+        AtomicReference<Long> budgetDuringSubmission = new AtomicReference<>();
+
+        // Act
+        deadlineGuard.submit(() -> {
+            budgetDuringSubmission.set(Deadline.current().remainingMillis());
+            return "HASH1";
+        });
+
+        // Assert
+        assertTrue(budgetDuringSubmission.get() <= 9000, "Budget was " + budgetDuringSubmission.get() + " ms");
+        assertSame(deadline, Deadline.current());
+    }
+
+    private double exceeded(String stage) {
+        return meterRegistry.get("request.deadline.exceeded").tag("stage", stage).counter().count();
+    }
+}
@@ -0,0 +1,70 @@
+package com.ahmedyousri.boilerplate.springboot.banking.fx.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the FxRateTable.
+ */
+public class FxRateTableTest {
+
+    private static final FxRateTable TABLE = FxRateTable.of(Map.of(
+            "USD", BigDecimal.ONE,
+            "EUR", new BigDecimal("1.0856"),
+            "JPY", new BigDecimal("0.006712")), Instant.now());
+
+    @Test
+    public void testWorksOutCrossRatesBetweenEveryPair() {
+        // Assert
+        assertEquals(List.of("EUR", "JPY", "USD"), TABLE.getCurrencies());
+        assertEquals(FxRateTable.RATE_UNIT, TABLE.rate("EUR", "EUR"));
+        assertEquals(1_085_600_000L, TABLE.rate("EUR", "USD"));
+        assertEquals(921_149_595L, TABLE.rate("USD", "EUR"));
+        assertEquals(161_740_166_865L, TABLE.rate("EUR", "JPY"));
+        assertEquals(FxRateTable.NO_RATE, TABLE.rate("USD", "GBP"));
+        assertEquals(FxRateTable.NO_RATE, TABLE.rate("usd", "EUR"));
+        assertEquals(FxRateTable.NO_RATE, TABLE.rate(null, "EUR"));
+        assertEquals(FxRateTable.NO_RATE, FxRateTable.EMPTY.rate("USD", "EUR"));
+    }
+
+    @Test
+    public void testConvertsLikeBigDecimalRoundingHalfUp() {
+        // Arrange
+        Random random = new Random(42);
+        long[] amounts = {0, 1, 4_999, 5_000, 123_456_789, Long.MAX_VALUE / FxRateTable.RATE_UNIT};
+
+        for (int i = 0; i < 10_000; i++) {
+            long units = i < amounts.length ? amounts[i] : random.nextLong() & 0xFFFFFFFFFFFL;
+            long rate = i < amounts.length ? 921_149_595L : 1 + (random.nextLong() & 0xFFFFFFFFFFL);
+
+            // Act
+            long converted = FxRateTable.convert(units, rate);
+
+            // Assert
+            long expected = BigDecimal.valueOf(units).multiply(BigDecimal.valueOf(rate, FxRateTable.RATE_SCALE))
+                    .setScale(0, RoundingMode.HALF_UP).longValueExact();
+            assertEquals(expected, converted, units + " at " + rate);
+            assertEquals(-expected, FxRateTable.convert(-units, rate));
+        }
+        assertThrows(ArithmeticException.class, () -> FxRateTable.convert(Long.MAX_VALUE, 2 * FxRateTable.RATE_UNIT));
+    }
+
+    @Test
+    public void testRejectsInvalidRates() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> FxRateTable.of(Map.of("US", BigDecimal.ONE), Instant.now()));
+        assertThrows(IllegalArgumentException.class,
+                () -> FxRateTable.of(Map.of("USD", BigDecimal.ONE, "EUR", BigDecimal.ZERO), Instant.now()));
+        assertThrows(IllegalArgumentException.class,
+                () -> FxRateTable.of(Map.of("USD", BigDecimal.ONE, "XXX", new BigDecimal("1E-12")), Instant.now()));
+    }
+}
@@ -0,0 +1,126 @@
+package com.ahmedyousri.boilerplate.springboot.banking.fx.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.fx.config.FxConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.fx.model.FxRateTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Benchmark for rate lookups and conversions with FxRates: four threads convert between 150
+ * currencies while another publishes a new table every millisecond, and one thread counts the
+ * bytes it allocates for a million conversions. Run with -Dbenchmark=true.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class FxRatesBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(FxRatesBenchmarkTest.class);
+
+    private static final int CURRENCIES = 150;
+
+    private static final int THREADS = 4;
+
+    private static final int CONVERSIONS_PER_THREAD = 20_000_000;
+
+    @Test
+    public void testLookupsTakeNanosecondsWithoutLocksOrAllocation() throws Exception {
+        // Arrange
+        String[] codes = new String[CURRENCIES];
+        for (int i = 0; i < CURRENCIES; i++) {
+            codes[i] = "" + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26) + 'X';
+        }
+        FxRates fxRates = new FxRates(mock(FxRateFeed.class), mock(FxConfig.class), mock(TaskScheduler.class));
+        FxRateTable[] tables = {table(codes, 0), table(codes, 1)};
+        fxRates.publish(tables[0]);
+        for (int i = 0; i < 1_000_000; i++) {
+            convert(fxRates, codes, i);
+        }
+
+        // Act: conversions while the rates are refreshed; the tables are built up front, so the
+        // publisher only measures the cost of a swap to the readers
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread publisher = new Thread(() -> {
+            for (int version = 1; running.get(); version++) {
+                fxRates.publish(tables[version % 2]);
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        publisher.setDaemon(true);
+        publisher.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        Future<?>[] futures = new Future<?>[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            futures[t] = pool.submit(() -> {
+                long checksum = 0;
+                for (int i = 0; i < CONVERSIONS_PER_THREAD; i++) {
+                    checksum += convert(fxRates, codes, i + offset);
+                }
+                assertNotEquals(0, checksum);
+            });
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNs = System.nanoTime() - start;
+        running.set(false);
+        publisher.join();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        // Act: bytes allocated by this thread for a million conversions
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long checksum = 0;
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1_000_000; i++) {
+            checksum += convert(fxRates, codes, i);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // Assert
+        // Per core, so the bound holds however many cores the threads share
+        double nsPerConversion = (double) elapsedNs * Math.min(THREADS, Runtime.getRuntime().availableProcessors())
+                / THREADS / CONVERSIONS_PER_THREAD;
+        log.info("{} conversions on {} threads in {} ms: {} ns each per core; {} bytes allocated for a million (checksum {})",
+                (long) THREADS * CONVERSIONS_PER_THREAD, THREADS, TimeUnit.NANOSECONDS.toMillis(elapsedNs),
+                String.format("%.1f", nsPerConversion), allocated, checksum);
+        assertTrue(nsPerConversion < 100, "Conversion took " + nsPerConversion + " ns");
+        assertTrue(allocated < 1024, "Allocated " + allocated + " bytes");
+    }
+
+    private static long convert(FxRates fxRates, String[] codes, int i) {
+        long rate = fxRates.getTable().rate(codes[i % CURRENCIES], codes[(i * 7 + 3) % CURRENCIES]);
+        return FxRateTable.convert(1_000_000 + i, rate);
+    }
+
+    private static FxRateTable table(String[] codes, int version) {
+        Map<String, BigDecimal> values = new LinkedHashMap<>();
+        for (int i = 0; i < codes.length; i++) {
+            values.put(codes[i], BigDecimal.valueOf(1_000 + i * 37 + version % 100, 3));
+        }
+        return FxRateTable.of(values, Instant.now());
+    }
+}
@@ -0,0 +1,100 @@
+package com.ahmedyousri.boilerplate.springboot.banking.fx.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import com.ahmedyousri.boilerplate.springboot.banking.fx.config.FxConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.fx.model.FxConversion;
+import com.ahmedyousri.boilerplate.springboot.banking.fx.model.FxRateTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the FxRates.
+ */
+public class FxRatesTest {
+
+    @TempDir
+    Path directory;
+
+    private Path ratesFile;
+
+    private FxConfig config;
+
+    private FxRates fxRates;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        ratesFile = directory.resolve("rates.csv");
+        Files.writeString(ratesFile, "# Rates in USD\ncurrency,rate\nUSD,1\nEUR,1.0856\n");
+
+        config = mock(FxConfig.class);
+        when(config.isEnabled()).thenReturn(true);
+        when(config.getRatesLocation()).thenReturn("file:" + ratesFile);
+        when(config.getMaxAgeMs()).thenReturn(60_000L);
+        fxRates = new FxRates(new FileFxRateFeed(new DefaultResourceLoader(), config), config,
+                mock(TaskScheduler.class));
+    }
+
+    @Test
+    public void testConvertsWithTheRatesReadFromTheFile() throws IOException {
+        // Act
+        int currencies = fxRates.refresh();
+        FxConversion conversion = fxRates.convert(new BigDecimal("100.00"), "EUR", "USD");
+        FxConversion same = fxRates.convert(new BigDecimal("100.00"), "EUR", "EUR");
+
+        // Assert
+        assertEquals(2, currencies);
+        assertTrue(conversion.isCrossCurrency());
+        assertEquals(0, new BigDecimal("108.56").compareTo(conversion.getConvertedAmount()));
+        assertEquals(0, new BigDecimal("1.0856").compareTo(conversion.getRate()));
+        assertFalse(same.isCrossCurrency());
+        assertEquals("FX_RATE_UNAVAILABLE", assertThrows(BusinessRuleException.class,
+                () -> fxRates.convert(BigDecimal.ONE, "EUR", "GBP")).getErrorCode());
+    }
+
+    @Test
+    public void testKeepsTheRatesWhenARefreshFails() throws IOException {
+        // Arrange
+        fxRates.refresh();
+        FxRateTable table = fxRates.getTable();
+        Files.writeString(ratesFile, "USD,1\nEUR,not a rate\n");
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> fxRates.refresh());
+        assertSame(table, fxRates.getTable());
+
+        Files.writeString(ratesFile, "USD,1\nEUR,1.10\nGBP,1.25\n");
+        fxRates.refresh();
+        assertNotSame(table, fxRates.getTable());
+        assertEquals(0, new BigDecimal("125.00").compareTo(
+                fxRates.convert(new BigDecimal("100"), "GBP", "USD").getConvertedAmount()));
+    }
+
+    @Test
+    public void testRefusesConversionsWithOutOfDateRatesOrWhenDisabled() {
+        // Arrange
+        fxRates.publish(FxRateTable.of(Map.of("USD", BigDecimal.ONE, "EUR", new BigDecimal("1.0856")),
+                Instant.now().minusSeconds(61)));
+
+        // Act & Assert
+        assertEquals("FX_RATE_STALE", assertThrows(BusinessRuleException.class,
+                () -> fxRates.convert(BigDecimal.ONE, "EUR", "USD")).getErrorCode());
+        when(config.isEnabled()).thenReturn(false);
+        assertEquals("CURRENCY_MISMATCH", assertThrows(BusinessRuleException.class,
+                () -> fxRates.convert(BigDecimal.ONE, "EUR", "USD")).getErrorCode());
+        assertEquals(BigDecimal.ONE, fxRates.convert(BigDecimal.ONE, "USD", "USD").getConvertedAmount());
+    }
+}
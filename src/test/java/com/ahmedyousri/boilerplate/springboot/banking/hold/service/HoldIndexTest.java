@@ -0,0 +1,59 @@
+package com.ahmedyousri.boilerplate.springboot.banking.hold.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the HoldIndex.
+ */
+public class HoldIndexTest {
+
+    @Test
+    public void testKeepsTheHoldsOfEachAccount() {
+        // Arrange
+        HoldIndex index = new HoldIndex();
+        UUID account = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        List<UUID> holds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            holds.add(UUID.randomUUID());
+        }
+
+        // Act
+        holds.forEach(hold -> index.add(account, hold));
+        boolean addedAgain = index.add(account, holds.get(0));
+        index.add(other, holds.get(1));
+
+        // Assert
+        assertFalse(addedAgain);
+        assertEquals(11, index.size());
+        assertEquals(2, index.accountCount());
+        assertTrue(holds.stream().allMatch(hold -> index.contains(account, hold)));
+        assertFalse(index.contains(other, holds.get(0)));
+    }
+
+    @Test
+    public void testDropsAnAccountWithItsLastHold() {
+        // Arrange
+        HoldIndex index = new HoldIndex();
+        UUID account = UUID.randomUUID();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        index.add(account, first);
+        index.add(account, second);
+
+        // Act & Assert
+        assertTrue(index.remove(account, first));
+        assertFalse(index.remove(account, first));
+        assertTrue(index.contains(account, second));
+        assertTrue(index.remove(account, second));
+        assertEquals(0, index.size());
+        assertEquals(0, index.accountCount());
+        assertFalse(index.remove(UUID.randomUUID(), second));
+    }
+}
@@ -0,0 +1,224 @@
+package com.ahmedyousri.boilerplate.springboot.banking.hold.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountType;
+import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.service.LedgerAnchor;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.service.ConfirmationTracker;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.BlockchainService;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.ChainSubmitter;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.CustomerStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.repository.CustomerRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.service.DeadlineGuard;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.InsufficientFundsException;
+import com.ahmedyousri.boilerplate.springboot.banking.hold.config.HoldConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.hold.entity.Hold;
+import com.ahmedyousri.boilerplate.springboot.banking.hold.repository.HoldRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.TransactionType;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the HoldService and the HoldSweeper.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({HoldService.class, HoldSweeper.class, HoldExpirer.class, ChainSubmitter.class, HoldServiceTest.Services.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class HoldServiceTest {
+
+    @TestConfiguration
+    static class Services {
+
+        @Bean
+        HoldConfig holdConfig() {
+            HoldConfig config = mock(HoldConfig.class);
+            when(config.getDefaultTtlMs()).thenReturn(604_800_000L);
+            when(config.getMaxTtlMs()).thenReturn(2_592_000_000L);
+            when(config.getTickMs()).thenReturn(100L);
+            when(config.getHorizonMs()).thenReturn(3_600_000L);
+            when(config.getExpiryBatchSize()).thenReturn(2);
+            when(config.getMaxQueued()).thenReturn(1000);
+            return config;
+        }
+
+        @Bean
+        AccountingService accountingService() {
+            return mock(AccountingService.class);
+        }
+
+        @Bean
+        TransactionService transactionService() {
+            return mock(TransactionService.class);
+        }
+
+        @Bean
+        BlockchainService blockchainService() {
+            return mock(BlockchainService.class);
+        }
+
+        @Bean
+        LedgerAnchor ledgerAnchor() {
+            LedgerAnchor ledgerAnchor = mock(LedgerAnchor.class);
+            when(ledgerAnchor.isEnabled()).thenReturn(true);
+            return ledgerAnchor;
+        }
+
+        @Bean
+        DeadlineGuard deadlineGuard() {
+            return new DeadlineGuard(new SimpleMeterRegistry());
+        }
+
+        @Bean
+        ConfirmationTracker confirmationTracker() {
+            return mock(ConfirmationTracker.class);
+        }
+
+        @Bean
+        ThreadPoolTaskScheduler taskScheduler() {
+            return new ThreadPoolTaskScheduler();
+        }
+    }
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private HoldSweeper holdSweeper;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private AccountingService accountingService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BlockchainService blockchainService;
+
+    private Customer customer;
+
+    private Account account;
+
+    @BeforeEach
+    public void setUp() {
+        reset(accountingService, transactionService, blockchainService);
+        customer = customerRepository.save(Customer.builder()
+                .firstName("Hold")
+                .lastName("Test")
+                .email("hold-test@example.com")
+                .status(CustomerStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .build());
+        account = accountRepository.save(Account.builder()
+                .accountNumber("HLD0000001")
+                .type(AccountType.CHECKING_ACCOUNT)
+                .currencyCode("USD")
+                .status(AccountStatus.ACTIVE)
+                .currentBalance(new BigDecimal("100.00"))
+                .availableBalance(new BigDecimal("100.00"))
+                .customer(customer)
+                .build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        holdRepository.deleteAll();
+        accountRepository.deleteById(account.getId());
+        customerRepository.delete(customer);
+    }
+
+    @Test
+    public void testAuthorizesOnTheAvailableBalanceAndCapturesPartOfTheHold() {
+        // Act
+        Hold hold = holdService.authorize(customer, account.getId(), new BigDecimal("60.00"), "AUTH-1", "Hotel", null);
+        Hold repeated = holdService.authorize(customer, account.getId(), new BigDecimal("60.00"), "AUTH-1", "Hotel", null);
+        Account authorized = accountRepository.findById(account.getId()).orElseThrow();
+
+        // Assert: only the available balance is reduced, once
+        assertEquals(hold.getId(), repeated.getId());
+        assertEquals(0, new BigDecimal("100.00").compareTo(authorized.getCurrentBalance()));
+        assertEquals(0, new BigDecimal("40.00").compareTo(authorized.getAvailableBalance()));
+        assertThrows(InsufficientFundsException.class, () ->
+                holdService.authorize(customer, account.getId(), new BigDecimal("40.01"), "AUTH-2", null, null));
+        assertThrows(BusinessRuleException.class, () ->
+                holdService.authorize(customer, account.getId(), new BigDecimal("10.00"), "AUTH-1", null, null));
+        verifyNoInteractions(accountingService, transactionService);
+
+        // Act
+        Hold captured = holdService.capture(customer, account.getId(), hold.getId(), new BigDecimal("45.00"));
+        Account settled = accountRepository.findById(account.getId()).orElseThrow();
+
+        // Assert: the captured amount is debited and the rest of the hold is available again
+        assertEquals(Hold.HoldStatus.CAPTURED, captured.getStatus());
+        assertEquals(0, new BigDecimal("55.00").compareTo(settled.getCurrentBalance()));
+        assertEquals(0, new BigDecimal("55.00").compareTo(settled.getAvailableBalance()));
+        verify(accountingService).createWithdrawalJournalEntry(any(), eq(new BigDecimal("45.00")), eq("Hotel"), eq(hold.getId()));
+        verify(transactionService).recordTransaction(any(), eq(TransactionType.DEBIT), eq(new BigDecimal("45.00")),
+                eq("Hotel"), eq(hold.getId().toString()));
+        verifyNoInteractions(blockchainService);
+        BusinessRuleException again = assertThrows(BusinessRuleException.class, () ->
+                holdService.release(customer, account.getId(), hold.getId()));
+        assertEquals("HOLD_NOT_AUTHORIZED", again.getErrorCode());
+    }
+
+    @Test
+    public void testReleasesExpiredHoldsInBatches() throws Exception {
+        // Arrange: three holds that expire at once, and one released long before it would have
+        Hold released = holdService.authorize(customer, account.getId(), new BigDecimal("5.00"), "EXP-4", null, 3_600_000L);
+        holdService.release(customer, account.getId(), released.getId());
+        Hold first = holdService.authorize(customer, account.getId(), new BigDecimal("10.00"), "EXP-1", null, 1L);
+        holdService.authorize(customer, account.getId(), new BigDecimal("20.00"), "EXP-2", null, 1L);
+        holdService.authorize(customer, account.getId(), new BigDecimal("30.00"), "EXP-3", null, 1L);
+        Thread.sleep(10);
+
+        // Act
+        int loaded = holdSweeper.load();
+        int expired = holdSweeper.expire(System.currentTimeMillis() + 1_000);
+
+        // Assert
+        assertEquals(3, loaded);
+        assertEquals(3, expired);
+        assertEquals(0, holdSweeper.getQueuedCount());
+        Account after = accountRepository.findById(account.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("100.00").compareTo(after.getAvailableBalance()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(after.getCurrentBalance()));
+        assertEquals(Hold.HoldStatus.EXPIRED, holdRepository.findById(first.getId()).orElseThrow().getStatus());
+        assertEquals(Hold.HoldStatus.RELEASED, holdRepository.findById(released.getId()).orElseThrow().getStatus());
+        assertEquals(0, holdSweeper.load());
+        assertThrows(BusinessRuleException.class, () ->
+                holdService.capture(customer, account.getId(), first.getId(), null));
+    }
+}
@@ -0,0 +1,233 @@
+package com.ahmedyousri.boilerplate.springboot.banking.reconciliation.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.repository.JournalEntryLineRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.config.BlockchainConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.entity.AccountAddress;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.repository.AccountAddressRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.registry.service.AccountAddressRegistry;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.service.JobCoordinator;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.entity.ChainBalanceDiscrepancy;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.entity.ChainReconciliationRun;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.entity.ChainReconciliationStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.model.ChainHead;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.model.HolderPage;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.repository.ChainBalanceDiscrepancyRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.repository.ChainReconciliationRunRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.reconciliation.source.ChainBalanceSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the ChainReconciliationService.
+ */
+public class ChainReconciliationServiceTest {
+
+    private static final LocalDateTime BLOCK_TIME = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private ChainBalanceSource balanceSource;
+
+    private AccountAddressRegistry accountAddressRegistry;
+
+    private AccountAddressRepository accountAddressRepository;
+
+    private JournalEntryLineRepository journalEntryLineRepository;
+
+    private ChainBalanceDiscrepancyRepository discrepancyRepository;
+
+    private ChainReconciliationService service;
+
+    private final List<AccountAddress> mappings = new ArrayList<>();
+
+    private final Map<UUID, BigDecimal> ledgerBalances = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() {
+        BlockchainConfig blockchainConfig = mock(BlockchainConfig.class);
+        when(blockchainConfig.getSyncDenom()).thenReturn("stake");
+        when(blockchainConfig.getReconciliationBatchSize()).thenReturn(2);
+        when(blockchainConfig.getReconciliationConcurrency()).thenReturn(4);
+
+        balanceSource = mock(ChainBalanceSource.class);
+        when(balanceSource.getHead()).thenReturn(ChainHead.builder().height(100).time(BLOCK_TIME).build());
+
+        accountAddressRegistry = mock(AccountAddressRegistry.class);
+        when(accountAddressRegistry.findAccountId(anyString())).thenAnswer(invocation -> mappings.stream()
+                .filter(mapping -> mapping.getAddress().equals(invocation.getArgument(0)))
+                .map(AccountAddress::getAccountId)
+                .findFirst());
+
+        accountAddressRepository = mock(AccountAddressRepository.class);
+        // Databases order UUIDs as unsigned bytes, which matches their string form but not UUID.compareTo
+        when(accountAddressRepository.findBatchAfter(any(), any())).thenAnswer(invocation -> {
+            String after = invocation.getArgument(0).toString();
+            return mappings.stream()
+                    .filter(mapping -> mapping.getAccountId().toString().compareTo(after) > 0)
+                    .sorted(Comparator.comparing(mapping -> mapping.getAccountId().toString()))
+                    .limit(2)
+                    .toList();
+        });
+
+        journalEntryLineRepository = mock(JournalEntryLineRepository.class);
+        when(journalEntryLineRepository.sumBalancesAsOf(anyCollection(), eq(BLOCK_TIME))).thenAnswer(invocation -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (UUID accountId : invocation.<Collection<UUID>>getArgument(0)) {
+                if (ledgerBalances.containsKey(accountId)) {
+                    rows.add(new Object[]{accountId, ledgerBalances.get(accountId)});
+                }
+            }
+            return rows;
+        });
+
+        ChainReconciliationRunRepository runRepository = mock(ChainReconciliationRunRepository.class);
+        when(runRepository.save(any(ChainReconciliationRun.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        discrepancyRepository = mock(ChainBalanceDiscrepancyRepository.class);
+
+        service = new ChainReconciliationService(blockchainConfig, balanceSource, accountAddressRegistry,
+                accountAddressRepository, journalEntryLineRepository, runRepository, discrepancyRepository,
+                mock(JobCoordinator.class), mock(TaskScheduler.class));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    public void testReconcileFromHolderSnapshotReportsDiscrepancies() {
+        // Arrange
+        AccountAddress matching = mapping("cosmos1matching");
+        AccountAddress drifted = mapping("cosmos1drifted");
+        AccountAddress unfunded = mapping("cosmos1unfunded");
+        ledgerBalances.put(matching.getAccountId(), new BigDecimal("150.0000"));
+        ledgerBalances.put(drifted.getAccountId(), new BigDecimal("80"));
+        ledgerBalances.put(unfunded.getAccountId(), new BigDecimal("5"));
+
+        Map<String, BigDecimal> firstPage = new HashMap<>();
+        firstPage.put("cosmos1matching", new BigDecimal("150"));
+        firstPage.put("cosmos1unknown", new BigDecimal("999"));
+        when(balanceSource.getHolders(eq("stake"), eq(100L), isNull(), anyInt()))
+                .thenReturn(HolderPage.builder().balances(firstPage).nextKey("page2").build());
+        when(balanceSource.getHolders(eq("stake"), eq(100L), eq("page2"), anyInt()))
+                .thenReturn(HolderPage.builder().balances(Map.of("cosmos1drifted", new BigDecimal("100"))).build());
+
+        // Act
+        ChainReconciliationRun run = service.reconcile();
+
+        // Assert
+        assertEquals(ChainReconciliationStatus.COMPLETED, run.getStatus());
+        assertTrue(run.isHolderSnapshot());
+        assertEquals(100, run.getHeight());
+        assertEquals(3, run.getAddressesChecked());
+        assertEquals(0, run.getAddressesUnverified());
+        assertEquals(2, run.getDiscrepancyCount());
+        verify(balanceSource, never()).getBalance(anyString(), anyString(), anyLong());
+
+        Map<UUID, ChainBalanceDiscrepancy> discrepancies = savedDiscrepancies();
+        assertEquals(2, discrepancies.size());
+        assertEquals(0, new BigDecimal("20").compareTo(discrepancies.get(drifted.getAccountId()).getDifference()));
+        assertEquals(0, new BigDecimal("-5").compareTo(discrepancies.get(unfunded.getAccountId()).getDifference()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(discrepancies.get(unfunded.getAccountId()).getChainBalance()));
+    }
+
+    @Test
+    public void testReconcileQueriesEachAddressWhenHoldersCannotBeListed() {
+        // Arrange
+        AccountAddress matching = mapping("cosmos1matching");
+        AccountAddress drifted = mapping("cosmos1drifted");
+        AccountAddress failing = mapping("cosmos1failing");
+        ledgerBalances.put(matching.getAccountId(), new BigDecimal("10"));
+        ledgerBalances.put(drifted.getAccountId(), new BigDecimal("10"));
+        when(balanceSource.getHolders(anyString(), anyLong(), any(), anyInt())).thenReturn(null);
+        when(balanceSource.getBalance("cosmos1matching", "stake", 100L)).thenReturn(new BigDecimal("10"));
+        when(balanceSource.getBalance("cosmos1drifted", "stake", 100L)).thenReturn(new BigDecimal("7"));
+        when(balanceSource.getBalance("cosmos1failing", "stake", 100L)).thenThrow(new IllegalStateException("timeout"));
+
+        // Act
+        ChainReconciliationRun run = service.reconcile();
+
+        // Assert
+        assertEquals(ChainReconciliationStatus.COMPLETED, run.getStatus());
+        assertFalse(run.isHolderSnapshot());
+        assertEquals(2, run.getAddressesChecked());
+        assertEquals(1, run.getAddressesUnverified());
+        assertEquals(1, run.getDiscrepancyCount());
+        assertTrue(savedDiscrepancies().containsKey(drifted.getAccountId()));
+        assertFalse(savedDiscrepancies().containsKey(failing.getAccountId()));
+    }
+
+    @Test
+    public void testReconcileAtUnchangedHeightReusesCachedBalances() {
+        // Arrange
+        mapping("cosmos1first");
+        mapping("cosmos1second");
+        when(balanceSource.getHolders(anyString(), anyLong(), any(), anyInt())).thenReturn(null);
+        when(balanceSource.getBalance(anyString(), eq("stake"), eq(100L))).thenReturn(BigDecimal.ZERO);
+
+        // Act
+        service.reconcile();
+        ChainReconciliationRun second = service.reconcile();
+
+        // Assert
+        assertEquals(2, second.getAddressesChecked());
+        verify(balanceSource, times(1)).getHolders(anyString(), anyLong(), any(), anyInt());
+        verify(balanceSource, times(2)).getBalance(anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    public void testReconcileRecordsFailedRun() {
+        // Arrange
+        mapping("cosmos1first");
+        when(balanceSource.getHolders(anyString(), anyLong(), any(), anyInt()))
+                .thenThrow(new IllegalStateException("node unavailable"));
+
+        // Act
+        ChainReconciliationRun run = service.reconcile();
+
+        // Assert
+        assertEquals(ChainReconciliationStatus.FAILED, run.getStatus());
+        assertEquals("node unavailable", run.getErrorMessage());
+        assertNotNull(run.getFinishedAt());
+    }
+
+    private AccountAddress mapping(String address) {
+        AccountAddress mapping = AccountAddress.builder()
+                .accountId(UUID.randomUUID())
+                .address(address)
+                .createdAt(LocalDateTime.now())
+                .build();
+        mappings.add(mapping);
+        return mapping;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<UUID, ChainBalanceDiscrepancy> savedDiscrepancies() {
+        ArgumentCaptor<List<ChainBalanceDiscrepancy>> captor = ArgumentCaptor.forClass(List.class);
+        verify(discrepancyRepository, atLeast(0)).saveAll(captor.capture());
+        Map<UUID, ChainBalanceDiscrepancy> byAccount = new HashMap<>();
+        captor.getAllValues().forEach(batch -> batch.forEach(d -> byAccount.put(d.getAccountId(), d)));
+        return byAccount;
+    }
+}
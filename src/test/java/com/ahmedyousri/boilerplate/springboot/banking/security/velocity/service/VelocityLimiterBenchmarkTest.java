@@ -0,0 +1,124 @@
+package com.ahmedyousri.boilerplate.springboot.banking.security.velocity.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.service.ClusterMembership;
+import com.ahmedyousri.boilerplate.springboot.banking.security.velocity.config.VelocityLimitConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Benchmark for the VelocityLimiter: 100,000 checks a second for ten seconds, spread over
+ * 10,000 users with a few heavy ones, at a fixed rate so latency is measured from when each check
+ * was due. Run with -Dbenchmark=true.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class VelocityLimiterBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(VelocityLimiterBenchmarkTest.class);
+
+    private static final int CHECKS_PER_SECOND = 100_000;
+
+    private static final int SECONDS = 10;
+
+    private static final int THREADS = 8;
+
+    private static final int USERS = 10_000;
+
+    private static final int HEAVY_USERS = 10;
+
+    private static final BigDecimal DAILY_LIMIT = new BigDecimal("10000");
+
+    private static final BigDecimal MONTHLY_LIMIT = new BigDecimal("50000");
+
+    @Test
+    public void testHundredThousandChecksPerSecond() throws Exception {
+        // Arrange
+        VelocityLimiter limiter = new VelocityLimiter(config(), mock(VelocityCounterStore.class), mock(ClusterMembership.class),
+                mock(TaskScheduler.class));
+        // Warm up, and hold counters for every user, so the run measures steady state
+        for (int i = 0; i < USERS; i++) {
+            for (int j = 0; j < 20; j++) {
+                limiter.tryAcquire("user-" + i, BigDecimal.ONE, DAILY_LIMIT, MONTHLY_LIMIT);
+            }
+        }
+        int checksPerThread = CHECKS_PER_SECOND * SECONDS / THREADS;
+        long intervalNs = TimeUnit.SECONDS.toNanos(1) * THREADS / CHECKS_PER_SECOND;
+        long[][] latencies = new long[THREADS][checksPerThread];
+        AtomicLong accepted = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        // Act
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            long[] threadLatencies = latencies[t];
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long threadAccepted = 0;
+                for (int i = 0; i < checksPerThread; i++) {
+                    long dueNs = start + i * intervalNs;
+                    long waitNs = dueNs - System.nanoTime();
+                    if (waitNs > 0) {
+                        LockSupport.parkNanos(waitNs);
+                    }
+                    // One check in ten is for a heavy user, who soon reaches the limits
+                    String username = random.nextInt(10) == 0
+                            ? "heavy-" + random.nextInt(HEAVY_USERS)
+                            : "user-" + random.nextInt(USERS);
+                    BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 50_000), 2);
+                    if (limiter.tryAcquire(username, amount, DAILY_LIMIT, MONTHLY_LIMIT) == VelocityLimiter.Outcome.ACCEPTED) {
+                        threadAccepted++;
+                    }
+                    threadLatencies[i] = System.nanoTime() - dueNs;
+                }
+                accepted.addAndGet(threadAccepted);
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+        long elapsedNs = System.nanoTime() - start;
+
+        // Assert
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        long checks = all.length;
+        long rate = checks * TimeUnit.SECONDS.toNanos(1) / elapsedNs;
+        log.info("{} checks for {} users on {} threads in {} ms ({}/s), {} accepted; latency p50 {} us, p99 {} us, p99.9 {} us, max {} us",
+                checks, USERS + HEAVY_USERS, THREADS, TimeUnit.NANOSECONDS.toMillis(elapsedNs), rate, accepted.get(),
+                micros(all, 0.50), micros(all, 0.99), micros(all, 0.999), all[all.length - 1] / 1_000);
+        assertTrue(rate >= CHECKS_PER_SECOND * 95L / 100, "Kept up with " + rate + " checks a second");
+        assertTrue(micros(all, 0.99) < 10_000, "p99 latency of " + micros(all, 0.99) + " us");
+        assertTrue(accepted.get() < checks, "The heavy users were never refused");
+    }
+
+    /**
+     * The configuration is read on every check, so the mock records no invocations.
+     */
+    private static VelocityLimitConfig config() {
+        VelocityLimitConfig config = mock(VelocityLimitConfig.class, withSettings().stubOnly());
+        when(config.getDailyWindowMs()).thenReturn(TimeUnit.DAYS.toMillis(1));
+        when(config.getDailyBuckets()).thenReturn(96);
+        when(config.getMonthlyWindowMs()).thenReturn(TimeUnit.DAYS.toMillis(30));
+        when(config.getMonthlyBuckets()).thenReturn(30);
+        when(config.getIdleTtlMs()).thenReturn(TimeUnit.DAYS.toMillis(30));
+        return config;
+    }
+
+    private static long micros(long[] sortedNs, double percentile) {
+        return sortedNs[(int) Math.min(sortedNs.length - 1, Math.round(percentile * sortedNs.length))] / 1_000;
+    }
+}
@@ -0,0 +1,167 @@
+package com.ahmedyousri.boilerplate.springboot.banking.security.velocity.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.service.ClusterMembership;
+import com.ahmedyousri.boilerplate.springboot.banking.security.velocity.config.VelocityLimitConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ahmedyousri.boilerplate.springboot.banking.security.velocity.service.VelocityLimiter.Outcome.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the VelocityLimiter.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({VelocityCounterStore.class, VelocityLimiterTest.Services.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class VelocityLimiterTest {
+
+    private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+
+    private static final long NOW_MS = 1_800_000_000_000L;
+
+    /**
+     * 100.0000 and 250.0000 in ten-thousandths.
+     */
+    private static final long DAILY_LIMIT = 1_000_000;
+
+    private static final long MONTHLY_LIMIT = 2_500_000;
+
+    @TestConfiguration
+    static class Services {
+
+        @Bean
+        VelocityLimitConfig velocityLimitConfig() {
+            VelocityLimitConfig config = mock(VelocityLimitConfig.class);
+            when(config.getDailyWindowMs()).thenReturn(DAY_MS);
+            when(config.getDailyBuckets()).thenReturn(96);
+            when(config.getMonthlyWindowMs()).thenReturn(30 * DAY_MS);
+            when(config.getMonthlyBuckets()).thenReturn(30);
+            when(config.getIdleTtlMs()).thenReturn(3_600_000L);
+            when(config.isSyncEnabled()).thenReturn(true);
+            when(config.getSyncIntervalMs()).thenReturn(1_000L);
+            when(config.getSyncBatchSize()).thenReturn(2);
+            return config;
+        }
+    }
+
+    @Autowired
+    private VelocityLimitConfig config;
+
+    @Autowired
+    private VelocityCounterStore store;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM velocity_counters");
+    }
+
+    @Test
+    public void testRefusesAmountsOverEitherLimitUntilTheyLeaveTheWindow() {
+        // Arrange
+        VelocityLimiter limiter = limiterOn("node-a");
+
+        // Act & Assert: 100 on the first day
+        assertEquals(ACCEPTED, limiter.tryAcquire("alice", 600_000, DAILY_LIMIT, MONTHLY_LIMIT, NOW_MS));
+        assertEquals(ACCEPTED, limiter.tryAcquire("alice", 400_000, DAILY_LIMIT, MONTHLY_LIMIT, NOW_MS + 1_000));
+        assertEquals(DAILY_LIMIT_EXCEEDED, limiter.tryAcquire("alice", 1, DAILY_LIMIT, MONTHLY_LIMIT, NOW_MS + 2_000));
+
+        // 100 more once the first day has left the daily window
+        long secondDay = NOW_MS + DAY_MS + TimeUnit.MINUTES.toMillis(15);
+        assertEquals(ACCEPTED, limiter.tryAcquire("alice", 1_000_000, DAILY_LIMIT, MONTHLY_LIMIT, secondDay));
+
+        // 60 would take the month to 260
+        long thirdDay = secondDay + DAY_MS + TimeUnit.MINUTES.toMillis(15);
+        assertEquals(MONTHLY_LIMIT_EXCEEDED, limiter.tryAcquire("alice", 600_000, DAILY_LIMIT, MONTHLY_LIMIT, thirdDay));
+        assertEquals(ACCEPTED, limiter.tryAcquire("alice", 500_000, DAILY_LIMIT, MONTHLY_LIMIT, thirdDay));
+
+        // Idle users are only evicted once their counters are written
+        assertEquals(0, limiter.evictIdle(thirdDay + 2 * 3_600_000L));
+        limiter.sync(thirdDay);
+        assertEquals(1, limiter.evictIdle(thirdDay + 2 * 3_600_000L));
+        assertEquals(0, limiter.size());
+    }
+
+    @Test
+    public void testConcurrentChecksNeverAcceptMoreThanTheLimit() throws Exception {
+        // Arrange
+        VelocityLimiter limiter = limiterOn("node-a");
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // Act: 8000 checks of one unit against a daily limit of 5000
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    if (limiter.tryAcquire("bob", 1, 5_000, MONTHLY_LIMIT, NOW_MS + i) == ACCEPTED) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+
+        // Assert: a check may be refused while others are in flight, but the limit is never exceeded
+        assertTrue(accepted.get() <= 5_000, "Accepted " + accepted.get());
+        assertTrue(accepted.get() > 5_000 - 8, "Accepted " + accepted.get());
+        assertEquals(DAILY_LIMIT_EXCEEDED, limiter.tryAcquire("bob", 5_001 - accepted.get(), 5_000, MONTHLY_LIMIT, NOW_MS + 1_000));
+    }
+
+    @Test
+    public void testSharesCountersBetweenNodesThroughTheDatabase() {
+        // Arrange
+        VelocityLimiter nodeA = limiterOn("node-a");
+        VelocityLimiter nodeB = limiterOn("node-b");
+        assertEquals(ACCEPTED, nodeA.tryAcquire("carol", 700_000, DAILY_LIMIT, MONTHLY_LIMIT, NOW_MS));
+        nodeA.sync(NOW_MS);
+
+        // Act & Assert: node B reads what carol spent on node A the first time it checks her
+        assertEquals(DAILY_LIMIT_EXCEEDED, nodeB.tryAcquire("carol", 400_000, DAILY_LIMIT, MONTHLY_LIMIT, NOW_MS + 10));
+        assertEquals(ACCEPTED, nodeB.tryAcquire("carol", 300_000, DAILY_LIMIT, MONTHLY_LIMIT, NOW_MS + 20));
+        nodeB.sync(NOW_MS + 20);
+
+        // Node A reads node B back when carol comes back after a pause
+        assertEquals(DAILY_LIMIT_EXCEEDED, nodeA.tryAcquire("carol", 1, DAILY_LIMIT, MONTHLY_LIMIT, NOW_MS + 5_000));
+
+        // A daily and a monthly row per node, all gone once the month has passed
+        assertEquals(4L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM velocity_counters", Long.class));
+        assertEquals(0, store.deleteExpired(toLocalDateTime(NOW_MS + DAY_MS)));
+        assertEquals(2, store.deleteExpired(toLocalDateTime(NOW_MS + 2 * DAY_MS)));
+        assertEquals(2, store.deleteExpired(toLocalDateTime(NOW_MS + 31 * DAY_MS)));
+    }
+
+    private VelocityLimiter limiterOn(String nodeId) {
+        ClusterMembership membership = mock(ClusterMembership.class);
+        when(membership.getNodeId()).thenReturn(nodeId);
+        return new VelocityLimiter(config, store, membership, mock(TaskScheduler.class));
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,87 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.file;
+
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model.ClearingReturn;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the ClearingReturnReader.
+ */
+public class ClearingReturnReaderTest {
+
+    private final ClearingReturnReader reader = new ClearingReturnReader();
+
+    @Test
+    public void testReadsReturnAndRejectRecordsOfFixedWidth() throws IOException {
+        // Arrange
+        UUID returned = UUID.randomUUID();
+        UUID rejected = UUID.randomUUID();
+        String file = "HOTHERBANK  BANKITO    USD\n"
+                + "R" + returned + "AC04Account closed\n"
+                + "Rnot-a-reference                       AC01\n"
+                + "J" + rejected + "AC01\n"
+                + "T000000002\n";
+
+        // Act
+        List<ClearingReturn> returns = read(file);
+
+        // Assert
+        assertEquals(2, returns.size());
+        assertEquals(new ClearingReturn(returned, ClearingReturn.ReturnType.RETURN, "AC04", "Account closed"), returns.get(0));
+        assertEquals(new ClearingReturn(rejected, ClearingReturn.ReturnType.REJECT, "AC01", null), returns.get(1));
+    }
+
+    @Test
+    public void testReadsRejectedTransactionsOfStatusReportsAndPaymentReturns() throws IOException {
+        // Arrange
+        UUID rejected = UUID.randomUUID();
+        UUID accepted = UUID.randomUUID();
+        UUID returned = UUID.randomUUID();
+        String statusReport = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <Document xmlns="urn:iso:std:iso:20022:tech:xsd:pain.002.001.03">
+                  <CstmrPmtStsRpt>
+                    <OrgnlPmtInfAndSts>
+                      <TxInfAndSts>
+                        <OrgnlEndToEndId>%s</OrgnlEndToEndId>
+                        <TxSts>RJCT</TxSts>
+                        <StsRsnInf><Rsn><Cd>AC01</Cd></Rsn><AddtlInf>Incorrect account number</AddtlInf></StsRsnInf>
+                      </TxInfAndSts>
+                      <TxInfAndSts>
+                        <OrgnlEndToEndId>%s</OrgnlEndToEndId>
+                        <TxSts>ACCP</TxSts>
+                      </TxInfAndSts>
+                    </OrgnlPmtInfAndSts>
+                  </CstmrPmtStsRpt>
+                </Document>
+                """.formatted(rejected.toString().replace("-", ""), accepted.toString().replace("-", ""));
+        String paymentReturn = """
+                <Document xmlns="urn:iso:std:iso:20022:tech:xsd:pacs.004.001.02">
+                  <PmtRtr><TxInf><OrgnlEndToEndId>%s</OrgnlEndToEndId>
+                    <RtrRsnInf><Rsn><Cd>AC04</Cd></Rsn></RtrRsnInf></TxInf></PmtRtr>
+                </Document>
+                """.formatted(returned);
+
+        // Act
+        List<ClearingReturn> rejects = read(statusReport);
+        List<ClearingReturn> returns = read(paymentReturn);
+
+        // Assert
+        assertEquals(List.of(new ClearingReturn(rejected, ClearingReturn.ReturnType.REJECT, "AC01",
+                "Incorrect account number")), rejects);
+        assertEquals(List.of(new ClearingReturn(returned, ClearingReturn.ReturnType.RETURN, "AC04", null)), returns);
+    }
+
+    private List<ClearingReturn> read(String file) throws IOException {
+        List<ClearingReturn> returns = new ArrayList<>();
+        reader.read(new StringReader(file), returns::add);
+        return returns;
+    }
+}
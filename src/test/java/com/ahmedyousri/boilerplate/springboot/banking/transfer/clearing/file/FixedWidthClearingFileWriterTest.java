@@ -0,0 +1,66 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.file;
+
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model.ClearingFileHeader;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model.ClearingItem;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the FixedWidthClearingFileWriter.
+ */
+public class FixedWidthClearingFileWriterTest {
+
+    private final FixedWidthClearingFileWriter writer = new FixedWidthClearingFileWriter();
+
+    @Test
+    public void testWritesHeaderDetailsAndTrailerOfFixedWidth() throws IOException {
+        // Arrange
+        UUID batchId = UUID.randomUUID();
+        UUID reference = UUID.randomUUID();
+        ClearingFileHeader header = new ClearingFileHeader(batchId, "BANKITO", "OTHERBANK", "USD", "SYS-CLEARING-USD",
+                LocalDateTime.of(2026, 3, 2, 14, 0), LocalDateTime.of(2026, 3, 2, 14, 1, 30), 2, new BigDecimal("130.5"));
+        List<ClearingItem> items = List.of(
+                new ClearingItem(reference, "ACC0001", "DE89370400440532013000", new BigDecimal("120.0000"), "Rent\nMarch"),
+                new ClearingItem(UUID.randomUUID(), "ACC0002", "X".repeat(40), new BigDecimal("10.5"), null));
+        StringWriter output = new StringWriter();
+
+        // Act
+        writer.write(output, header, items.iterator());
+
+        // Assert
+        String[] records = output.toString().split("\n");
+        assertEquals(4, records.length);
+        for (String record : records) {
+            assertEquals(FixedWidthClearingFileWriter.RECORD_LENGTH, record.length());
+        }
+        assertTrue(records[0].startsWith("HBANKITO    OTHERBANK  USD" + batchId + "2026030214000020260302140130"));
+        assertEquals("D" + reference, records[1].substring(0, 37));
+        assertEquals("ACC0001", records[1].substring(37, 71).trim());
+        assertEquals("DE89370400440532013000", records[1].substring(71, 105).trim());
+        assertEquals("000000000001200000", records[1].substring(105, 123));
+        assertEquals("USD", records[1].substring(123, 126));
+        assertEquals("Rent March", records[1].substring(126, 161).trim());
+        assertEquals("X".repeat(34), records[2].substring(71, 105));
+        assertEquals("T000000002000000000001305000", records[3].trim());
+    }
+
+    @Test
+    public void testRefusesAmountsFinerThanTheFileCarries() {
+        // Arrange
+        ClearingFileHeader header = new ClearingFileHeader(UUID.randomUUID(), "BANKITO", "OTHERBANK", "USD",
+                "SYS-CLEARING-USD", LocalDateTime.now(), LocalDateTime.now(), 1, new BigDecimal("0.00001"));
+        List<ClearingItem> items = List.of(
+                new ClearingItem(UUID.randomUUID(), "ACC0001", "ACC0002", new BigDecimal("0.00001"), null));
+
+        // Act & Assert
+        assertThrows(ArithmeticException.class, () -> writer.write(new StringWriter(), header, items.iterator()));
+    }
+}
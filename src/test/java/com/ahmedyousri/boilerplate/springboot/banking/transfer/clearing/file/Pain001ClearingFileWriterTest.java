@@ -0,0 +1,58 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.file;
+
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.model.PaymentInstruction;
+import com.ahmedyousri.boilerplate.springboot.banking.bulk.parser.Pain001PaymentParser;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model.ClearingFileHeader;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.model.ClearingItem;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Pain001ClearingFileWriter.
+ */
+public class Pain001ClearingFileWriterTest {
+
+    @Test
+    public void testWritesACreditTransferPerTransferThatReadsBackAsPain001() throws IOException {
+        // Arrange
+        UUID reference = UUID.randomUUID();
+        ClearingFileHeader header = new ClearingFileHeader(UUID.randomUUID(), "BANKITO", "OTHERBANK", "EUR",
+                "SYS-CLEARING-EUR", LocalDateTime.of(2026, 3, 2, 14, 0), LocalDateTime.of(2026, 3, 2, 14, 1),
+                2, new BigDecimal("125.2500"));
+        List<ClearingItem> items = List.of(
+                new ClearingItem(reference, "ACC0001", "DE89370400440532013000", new BigDecimal("120.0000"), "Rent & co"),
+                new ClearingItem(UUID.randomUUID(), "ACC0002", "FR7630006000011234567890189", new BigDecimal("5.2500"), null));
+        StringWriter output = new StringWriter();
+
+        // Act
+        new Pain001ClearingFileWriter().write(output, header, items.iterator());
+
+        // Assert
+        String xml = output.toString();
+        assertTrue(xml.contains("<NbOfTxs>2</NbOfTxs><CtrlSum>125.25</CtrlSum>"));
+        assertTrue(xml.contains("<EndToEndId>" + reference.toString().replace("-", "") + "</EndToEndId>"));
+        assertTrue(xml.contains("<CdtrAgt><FinInstnId><Othr><Id>OTHERBANK</Id></Othr></FinInstnId></CdtrAgt>"));
+
+        List<PaymentInstruction> payments = new ArrayList<>();
+        new Pain001PaymentParser().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), payments::add);
+        assertEquals(2, payments.size());
+        assertEquals("SYS-CLEARING-EUR", payments.get(0).getSourceAccount());
+        assertEquals("DE89370400440532013000", payments.get(0).getDestinationAccount());
+        assertEquals("120.00", payments.get(0).getAmount());
+        assertEquals("EUR", payments.get(0).getCurrencyCode());
+        assertEquals("Rent & co", payments.get(0).getDescription());
+        assertEquals("5.25", payments.get(1).getAmount());
+        assertNull(payments.get(1).getParseError());
+    }
+}
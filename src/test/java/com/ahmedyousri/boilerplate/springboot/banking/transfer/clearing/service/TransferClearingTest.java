@@ -0,0 +1,354 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountType;
+import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.account.service.AccountServiceImpl;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.service.LedgerAnchor;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.DepositCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.WithdrawCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.service.ConfirmationTracker;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.BlockchainService;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.ChainSubmitter;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.service.JobCoordinator;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.CustomerStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.repository.CustomerRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.service.DeadlineGuard;
+import com.ahmedyousri.boilerplate.springboot.banking.system.service.SystemAccountService;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.service.TransactionService;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.config.TransferClearingConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.entity.ClearingBatch;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.file.ClearingReturnReader;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.file.FixedWidthClearingFileWriter;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.repository.ClearingBatchRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.Transfer;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.repository.TransferRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the TransferClearing and the ClearingSettler.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({TransferClearing.class, ClearingBatches.class, ClearingSettler.class, FixedWidthClearingFileWriter.class,
+        ClearingReturnReader.class, ChainSubmitter.class, TransferClearingTest.Services.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TransferClearingTest {
+
+    @TestConfiguration
+    static class Services {
+
+        @Bean
+        TransferClearingConfig transferClearingConfig() {
+            TransferClearingConfig config = mock(TransferClearingConfig.class);
+            when(config.getCutoffIntervalMs()).thenReturn(3_600_000L);
+            when(config.getCutoffGraceMs()).thenReturn(60_000L);
+            when(config.getBatchSize()).thenReturn(2);
+            when(config.getFormat()).thenReturn(ClearingBatch.FileFormat.FIXED_WIDTH);
+            when(config.getOriginatorBankCode()).thenReturn("BANKITO");
+            when(config.getDefaultBankCode()).thenReturn("CLEARING");
+            return config;
+        }
+
+        @Bean
+        AccountServiceImpl accountService() {
+            return mock(AccountServiceImpl.class);
+        }
+
+        @Bean
+        AccountingService accountingService() {
+            return mock(AccountingService.class);
+        }
+
+        @Bean
+        TransactionService transactionService() {
+            return mock(TransactionService.class);
+        }
+
+        @Bean
+        SystemAccountService systemAccountService() {
+            SystemAccountService systemAccountService = mock(SystemAccountService.class);
+            when(systemAccountService.getClearingAccount("USD")).thenReturn(Account.builder()
+                    .accountNumber("SYS-CLEARING-USD")
+                    .currencyCode("USD")
+                    .build());
+            return systemAccountService;
+        }
+
+        @Bean
+        BlockchainService blockchainService() {
+            return mock(BlockchainService.class);
+        }
+
+        @Bean
+        LedgerAnchor ledgerAnchor() {
+            return mock(LedgerAnchor.class);
+        }
+
+        @Bean
+        DeadlineGuard deadlineGuard() {
+            return new DeadlineGuard(new SimpleMeterRegistry());
+        }
+
+        @Bean
+        ConfirmationTracker confirmationTracker() {
+            return mock(ConfirmationTracker.class);
+        }
+
+        @Bean
+        JobCoordinator jobCoordinator() {
+            return mock(JobCoordinator.class);
+        }
+
+        @Bean
+        TaskScheduler taskScheduler() {
+            return mock(TaskScheduler.class);
+        }
+    }
+
+    @Autowired
+    private TransferClearing transferClearing;
+
+    @Autowired
+    private ClearingBatchRepository batchRepository;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransferClearingConfig config;
+
+    @Autowired
+    private AccountServiceImpl accountService;
+
+    @Autowired
+    private AccountingService accountingService;
+
+    @Autowired
+    private BlockchainService blockchainService;
+
+    @Autowired
+    private ConfirmationTracker confirmationTracker;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;
+
+    private Customer customer;
+
+    private Account first;
+
+    private Account second;
+
+    @BeforeEach
+    public void setUp() {
+        reset(accountService, accountingService, blockchainService, confirmationTracker);
+        when(config.getDirectory()).thenReturn(directory.resolve("outbound").toString());
+        when(blockchainService.executeCommand(any())).thenReturn(BlockchainResponse.builder()
+                .successful(true)
+                .transactionHash("CLEARTX")
+                .build());
+
+        customer = customerRepository.save(Customer.builder()
+                .firstName("Clearing")
+                .lastName("Test")
+                .email("clearing-test@example.com")
+                .status(CustomerStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .build());
+        first = account("CLR0000001");
+        second = account("CLR0000002");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        transferRepository.deleteAll();
+        batchRepository.deleteAll();
+        accountRepository.deleteAllById(List.of(first.getId(), second.getId()));
+        customerRepository.delete(customer);
+    }
+
+    @Test
+    public void testClearsTransfersInOneFilePerBankAtTheirCutoff() throws Exception {
+        // Arrange
+        UUID rent = transfer(first, "BANKA", "100.00");
+        transfer(first, "BANKA", "20.00");
+        transfer(second, "BANKA", "5.50");
+        UUID payee = transfer(second, null, "7.00");
+        ClearingBatch batch = batchRepository.findById(transferRepository.findById(rent).orElseThrow().getClearingBatchId())
+                .orElseThrow();
+        LocalDateTime cutoffAt = batch.getCutoffAt();
+
+        // Act
+        int beforeGraceEnds = transferClearing.settleDue(cutoffAt.plusSeconds(59));
+        int afterGraceEnds = transferClearing.settleDue(cutoffAt.plusSeconds(61));
+
+        // Assert: two batches, one with the transfers to bank A and one through the default bank
+        assertEquals(0, beforeGraceEnds);
+        assertEquals(2, afterGraceEnds);
+        assertEquals(cutoffAt, transferClearing.cutoffFor(cutoffAt.minusNanos(1)));
+        assertEquals("CLEARING", transferRepository.findById(payee).orElseThrow().getDestinationBankCode());
+
+        ClearingBatch closed = batchRepository.findById(batch.getId()).orElseThrow();
+        assertEquals(ClearingBatch.BatchStatus.SUBMITTED, closed.getStatus());
+        assertEquals(3, closed.getItemCount());
+        assertEquals(0, new BigDecimal("125.50").compareTo(closed.getTotalAmount()));
+
+        List<String> records = Files.readAllLines(directory.resolve("outbound").resolve(closed.getFileName()));
+        assertEquals(5, records.size());
+        assertEquals(3, records.stream().filter(record -> record.startsWith("D")).count());
+        assertTrue(records.stream().anyMatch(record -> record.startsWith("D" + rent)));
+        try (Stream<Path> files = Files.list(directory.resolve("outbound"))) {
+            assertEquals(2, files.filter(path -> !path.toString().endsWith(".part")).count());
+        }
+
+        // Assert: one journal entry per batch, and one chain withdrawal per source account and batch
+        verify(accountingService).createWithdrawalJournalEntry(any(), eq(new BigDecimal("125.5000")), anyString(),
+                eq(batch.getId()));
+        ArgumentCaptor<WithdrawCommand> commands = ArgumentCaptor.forClass(WithdrawCommand.class);
+        verify(blockchainService, times(3)).executeCommand(commands.capture());
+        Map<UUID, BigDecimal> bankA = commands.getAllValues().stream()
+                .filter(command -> command.getReferenceId().equals(batch.getId()))
+                .collect(Collectors.toMap(WithdrawCommand::getAccountId, WithdrawCommand::getAmount));
+        assertEquals(0, new BigDecimal("120.00").compareTo(bankA.get(first.getId())));
+        assertEquals(0, new BigDecimal("5.50").compareTo(bankA.get(second.getId())));
+        verify(confirmationTracker, times(3)).track(eq("CLEARTX"), isNull());
+        Transfer cleared = transferRepository.findById(rent).orElseThrow();
+        assertEquals("CLEARTX", cleared.getBlockchainTxHash());
+        assertEquals(ChainStatus.SUBMITTED, cleared.getChainStatus());
+    }
+
+    @Test
+    public void testSendsTransfersMadeAfterTheirBatchClosedAtTheNextCutoff() {
+        // Arrange
+        UUID early = transfer(first, "BANKC", "40.00");
+        ClearingBatch batch = batchRepository.findById(transferRepository.findById(early).orElseThrow()
+                .getClearingBatchId()).orElseThrow();
+        transferClearing.settleDue(batch.getCutoffAt().plusMinutes(2));
+
+        // Act: made before the cut-off, but after its batch was closed
+        UUID late = transfer(second, "BANKC", "15.00");
+
+        // Assert
+        ClearingBatch closed = batchRepository.findById(batch.getId()).orElseThrow();
+        assertEquals(1, closed.getItemCount());
+        assertEquals(0, new BigDecimal("40.00").compareTo(closed.getTotalAmount()));
+        UUID nextBatchId = transferRepository.findById(late).orElseThrow().getClearingBatchId();
+        assertNotEquals(batch.getId(), nextBatchId);
+        ClearingBatch next = batchRepository.findById(nextBatchId).orElseThrow();
+        assertEquals(ClearingBatch.BatchStatus.OPEN, next.getStatus());
+        assertEquals(batch.getCutoffAt().plusHours(1), next.getCutoffAt());
+    }
+
+    @Test
+    public void testCreditsBackReturnedTransfersMatchedByReference() throws Exception {
+        // Arrange
+        UUID returned = transfer(first, "BANKB", "100.00");
+        UUID kept = transfer(first, "BANKB", "20.00");
+        ClearingBatch batch = batchRepository.findById(transferRepository.findById(returned).orElseThrow()
+                .getClearingBatchId()).orElseThrow();
+        String file = "R" + returned + "AC04Account closed\n"
+                + "J" + UUID.randomUUID() + "AC01\n";
+
+        // Act
+        int beforeSent = transferClearing.processReturns(new StringReader(file));
+        transferClearing.settleDue(batch.getCutoffAt().plusMinutes(2));
+        int afterSent = transferClearing.processReturns(new StringReader(file));
+        int again = transferClearing.processReturns(new StringReader(file));
+
+        // Assert
+        assertEquals(0, beforeSent);
+        assertEquals(1, afterSent);
+        assertEquals(0, again);
+        Transfer compensated = transferRepository.findById(returned).orElseThrow();
+        assertEquals(Transfer.TransferStatus.COMPENSATED, compensated.getStatus());
+        assertEquals("Returned (AC04): Account closed", compensated.getCancellationReason());
+        assertEquals(Transfer.TransferStatus.COMPLETED, transferRepository.findById(kept).orElseThrow().getStatus());
+        verify(accountService).performCredit(any(), eq(new BigDecimal("100.0000")));
+        verify(accountingService).createCompensatingJournalEntry(any(), eq(new BigDecimal("100.0000")), anyString(), any());
+        ArgumentCaptor<DepositCommand> deposit = ArgumentCaptor.forClass(DepositCommand.class);
+        verify(blockchainService).executeCommand(deposit.capture());
+        assertEquals(first.getId(), deposit.getValue().getAccountId());
+        assertEquals(0, new BigDecimal("100.00").compareTo(deposit.getValue().getAmount()));
+    }
+
+    private UUID transfer(Account account, String bankCode, String amount) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Account source = accountRepository.findById(account.getId()).orElseThrow();
+            Transfer transfer = Transfer.builder()
+                    .sourceAccount(source)
+                    .destinationAccountNumber("DE89370400440532013000")
+                    .destinationBankCode(bankCode)
+                    .amount(new BigDecimal(amount))
+                    .currencyCode("USD")
+                    .type(Transfer.TransferType.EXTERNAL)
+                    .status(Transfer.TransferStatus.PENDING)
+                    .customer(customer)
+                    .build();
+            transferClearing.assignBankCode(transfer);
+            transferRepository.save(transfer);
+            transferClearing.route(transfer, source);
+            transfer.setStatus(Transfer.TransferStatus.COMPLETED);
+            return transferRepository.save(transfer).getId();
+        });
+    }
+
+    private Account account(String accountNumber) {
+        return accountRepository.save(Account.builder()
+                .accountNumber(accountNumber)
+                .type(AccountType.CHECKING_ACCOUNT)
+                .currencyCode("USD")
+                .status(AccountStatus.ACTIVE)
+                .currentBalance(BigDecimal.valueOf(1000))
+                .availableBalance(BigDecimal.valueOf(1000))
+                .customer(customer)
+                .build());
+    }
+}
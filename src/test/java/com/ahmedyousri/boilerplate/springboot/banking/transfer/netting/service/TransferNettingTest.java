@@ -0,0 +1,281 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountType;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.service.LedgerAnchor;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.TransferCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.model.ChainStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.service.ConfirmationTracker;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.BlockchainService;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.ChainSubmitter;
+import com.ahmedyousri.boilerplate.springboot.banking.cluster.service.JobCoordinator;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.CustomerStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.service.DeadlineGuard;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.Transaction;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.TransactionType;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.Transfer;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.config.TransferNettingConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.entity.NettingSettlement;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.repository.NettingSettlementRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the TransferNetting and the NettingSettler.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({TransferNetting.class, NettingSettler.class, ChainSubmitter.class, TransferNettingTest.Services.class})
+public class TransferNettingTest {
+
+    @TestConfiguration
+    static class Services {
+
+        @Bean
+        TransferNettingConfig transferNettingConfig() {
+            TransferNettingConfig config = mock(TransferNettingConfig.class);
+            when(config.getWindowMs()).thenReturn(60_000L);
+            when(config.getBatchSize()).thenReturn(2);
+            return config;
+        }
+
+        @Bean
+        AccountingService accountingService() {
+            return mock(AccountingService.class);
+        }
+
+        @Bean
+        BlockchainService blockchainService() {
+            return mock(BlockchainService.class);
+        }
+
+        @Bean
+        LedgerAnchor ledgerAnchor() {
+            return mock(LedgerAnchor.class);
+        }
+
+        @Bean
+        DeadlineGuard deadlineGuard() {
+            return new DeadlineGuard(new SimpleMeterRegistry());
+        }
+
+        @Bean
+        ConfirmationTracker confirmationTracker() {
+            return mock(ConfirmationTracker.class);
+        }
+
+        @Bean
+        JobCoordinator jobCoordinator() {
+            return mock(JobCoordinator.class);
+        }
+
+        @Bean
+        TaskScheduler taskScheduler() {
+            return mock(TaskScheduler.class);
+        }
+    }
+
+    @Autowired
+    private TransferNetting transferNetting;
+
+    @Autowired
+    private NettingSettlementRepository settlementRepository;
+
+    @Autowired
+    private AccountingService accountingService;
+
+    @Autowired
+    private BlockchainService blockchainService;
+
+    @Autowired
+    private ConfirmationTracker confirmationTracker;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Customer customer;
+
+    private Account low;
+
+    private Account high;
+
+    @BeforeEach
+    public void setUp() {
+        reset(accountingService, blockchainService, confirmationTracker);
+        when(blockchainService.executeCommand(any())).thenReturn(BlockchainResponse.builder()
+                .successful(true)
+                .transactionHash("NETTX")
+                .build());
+
+        customer = entityManager.persist(Customer.builder()
+                .firstName("Netting")
+                .lastName("Test")
+                .email("netting-test@example.com")
+                .status(CustomerStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .build());
+        Account first = account("NET0000001");
+        Account second = account("NET0000002");
+        boolean ordered = first.getId().compareTo(second.getId()) < 0;
+        low = ordered ? first : second;
+        high = ordered ? second : first;
+    }
+
+    @Test
+    public void testTransfersInBothDirectionsAccumulateInOneSettlement() {
+        // Act
+        NettingSettlement settlement = transferNetting.add(high, low, new BigDecimal("100.00"));
+        transferNetting.add(low, high, new BigDecimal("30.00"));
+        transferNetting.add(high, low, new BigDecimal("5.00"));
+        entityManager.flush();
+
+        // Assert
+        NettingSettlement open = settlementRepository.findById(settlement.getId()).orElseThrow();
+        assertEquals(1, settlementRepository.count());
+        assertSame(low, open.getFirstAccount());
+        assertEquals(0, new BigDecimal("-75.00").compareTo(open.getNetAmount()));
+        assertEquals(0, new BigDecimal("135.00").compareTo(open.getGrossAmount()));
+        assertEquals(3, open.getTransferCount());
+        assertEquals(0, new BigDecimal("75.00").compareTo(transferNetting.getOpenPosition(low.getId())));
+        assertEquals(0, new BigDecimal("-75.00").compareTo(transferNetting.getOpenPosition(high.getId())));
+    }
+
+    @Test
+    public void testSettlesTheNetOnceItsWindowCloses() {
+        // Arrange
+        NettingSettlement settlement = transferNetting.add(high, low, new BigDecimal("100.00"));
+        UUID first = transfer(high, settlement, "100.00");
+        transferNetting.add(low, high, new BigDecimal("30.00"));
+        UUID second = transfer(low, settlement, "30.00");
+        entityManager.flush();
+        LocalDateTime opened = settlement.getOpenedAt();
+
+        // Act
+        int beforeWindowCloses = transferNetting.settleDue(opened.plusSeconds(59));
+        int afterWindowCloses = transferNetting.settleDue(opened.plusSeconds(61));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert: one journal entry and one chain command, from high to low for the net
+        assertEquals(0, beforeWindowCloses);
+        assertEquals(1, afterWindowCloses);
+        verify(accountingService).createTransferJournalEntry(any(), any(), eq(new BigDecimal("70.00")),
+                anyString(), eq(settlement.getId()));
+        ArgumentCaptor<TransferCommand> command = ArgumentCaptor.forClass(TransferCommand.class);
+        verify(blockchainService).executeCommand(command.capture());
+        assertEquals(high.getId(), command.getValue().getFromAccountId());
+        assertEquals(low.getId(), command.getValue().getToAccountId());
+        assertEquals(0, new BigDecimal("70.00").compareTo(command.getValue().getAmount()));
+        verify(confirmationTracker).track(eq("NETTX"), isNull());
+
+        NettingSettlement settled = settlementRepository.findById(settlement.getId()).orElseThrow();
+        assertEquals(NettingSettlement.SettlementStatus.SETTLED, settled.getStatus());
+        assertEquals(0, BigDecimal.ZERO.compareTo(transferNetting.getOpenPosition(low.getId())));
+        for (UUID transferId : new UUID[] {first, second}) {
+            assertEquals("NETTX", entityManager.find(Transfer.class, transferId).getBlockchainTxHash());
+        }
+        Transaction transaction = entityManager.getEntityManager()
+                .createQuery("SELECT t FROM Transaction t WHERE t.referenceId = :referenceId", Transaction.class)
+                .setParameter("referenceId", first.toString())
+                .getSingleResult();
+        assertEquals("NETTX", transaction.getBlockchainTxHash());
+        assertEquals(ChainStatus.SUBMITTED, transaction.getChainStatus());
+    }
+
+    @Test
+    public void testTransfersThatCancelOutPostNothing() {
+        // Arrange
+        NettingSettlement settlement = transferNetting.add(low, high, new BigDecimal("40.00"));
+        transferNetting.add(high, low, new BigDecimal("40.00"));
+        entityManager.flush();
+
+        // Act
+        int settled = transferNetting.settleDue(settlement.getOpenedAt().plusMinutes(2));
+
+        // Assert
+        assertEquals(1, settled);
+        verifyNoInteractions(accountingService, blockchainService, confirmationTracker);
+    }
+
+    @Test
+    public void testSettlementThatFailsOnChainStaysOpen() {
+        // Arrange
+        when(blockchainService.executeCommand(any())).thenReturn(BlockchainResponse.builder()
+                .successful(false)
+                .errorMessage("Chain unavailable")
+                .errorCode("CHAIN_UNAVAILABLE")
+                .build());
+        NettingSettlement settlement = transferNetting.add(low, high, new BigDecimal("10.00"));
+        entityManager.flush();
+
+        // Act
+        int settled = transferNetting.settleDue(settlement.getOpenedAt().plusMinutes(2));
+
+        // Assert
+        assertEquals(0, settled);
+        entityManager.clear();
+        assertEquals(NettingSettlement.SettlementStatus.OPEN,
+                settlementRepository.findById(settlement.getId()).orElseThrow().getStatus());
+    }
+
+    private Account account(String accountNumber) {
+        return entityManager.persist(Account.builder()
+                .accountNumber(accountNumber)
+                .type(AccountType.CHECKING_ACCOUNT)
+                .currencyCode("USD")
+                .status(AccountStatus.ACTIVE)
+                .currentBalance(new BigDecimal("1000.00"))
+                .availableBalance(new BigDecimal("1000.00"))
+                .customer(customer)
+                .build());
+    }
+
+    private UUID transfer(Account source, NettingSettlement settlement, String amount) {
+        Transfer transfer = entityManager.persist(Transfer.builder()
+                .sourceAccount(source)
+                .destinationAccountNumber("NET")
+                .destinationBankCode("BANK")
+                .amount(new BigDecimal(amount))
+                .currencyCode("USD")
+                .type(Transfer.TransferType.INTERNAL)
+                .status(Transfer.TransferStatus.COMPLETED)
+                .settlementId(settlement.getId())
+                .customer(customer)
+                .build());
+        entityManager.persist(Transaction.builder()
+                .account(source)
+                .type(TransactionType.DEBIT)
+                .amount(new BigDecimal(amount))
+                .currencyCode("USD")
+                .balanceAfterTransaction(BigDecimal.ZERO)
+                .timestamp(LocalDateTime.now())
+                .referenceId(transfer.getId().toString())
+                .build());
+        return transfer.getId();
+    }
+}
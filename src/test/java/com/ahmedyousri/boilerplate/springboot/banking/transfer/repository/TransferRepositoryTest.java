@@ -0,0 +1,154 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.repository;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountType;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.CustomerStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.Transfer;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.model.TransferCursor;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.model.TransferSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the transfer listing query of the TransferRepository.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class TransferRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Customer customer;
+
+    private Account account;
+
+    @BeforeEach
+    public void setUp() {
+        customer = entityManager.persist(customer("list-test@example.com"));
+        account = entityManager.persist(account(customer, "LIST000001"));
+
+        // 25 transfers over 5 days, five created at the same instant on each day
+        for (int i = 0; i < 25; i++) {
+            Transfer transfer = entityManager.persist(transfer(customer, account,
+                    i % 2 == 0 ? Transfer.TransferStatus.COMPLETED : Transfer.TransferStatus.FAILED));
+            transfer.setCreatedAt(START.plusDays(i / 5));
+        }
+
+        // Another customer's transfer is never listed
+        Customer other = entityManager.persist(customer("other-list-test@example.com"));
+        entityManager.persist(transfer(other, entityManager.persist(account(other, "LIST000002")), Transfer.TransferStatus.COMPLETED));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void testCursorPagesListEachTransferOnceNewestFirst() {
+        // Act
+        List<TransferSummary> listed = new ArrayList<>();
+        TransferCursor cursor = null;
+        int pages = 0;
+        do {
+            Slice<TransferSummary> page = cursor == null
+                    ? transferRepository.findSummaries(customer.getId(), null, null, null, null, PageRequest.of(0, 7))
+                    : transferRepository.findSummariesAfter(customer.getId(), null, null, null, null,
+                            cursor.getCreatedAt(), cursor.getId(), PageRequest.of(0, 7));
+            listed.addAll(page.getContent());
+            cursor = page.hasNext() ? TransferCursor.decode(TransferCursor.after(page.getContent().get(6)).encode()) : null;
+            pages++;
+        } while (cursor != null);
+
+        // Assert
+        assertEquals(4, pages);
+        assertEquals(25, listed.size());
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < listed.size(); i++) {
+            assertTrue(ids.add(listed.get(i).getId()), "Listed twice: " + listed.get(i).getId());
+            assertEquals(account.getId(), listed.get(i).getSourceAccountId());
+            if (i > 0) {
+                assertFalse(listed.get(i).getCreatedAt().isAfter(listed.get(i - 1).getCreatedAt()));
+            }
+        }
+    }
+
+    @Test
+    public void testFiltersByStatusAndCreationTime() {
+        // Act
+        Slice<TransferSummary> page = transferRepository.findSummaries(customer.getId(),
+                Transfer.TransferStatus.COMPLETED, Transfer.TransferType.INTERNAL,
+                START.plusDays(1), START.plusDays(3), PageRequest.of(0, 20));
+
+        // Assert
+        assertFalse(page.hasNext());
+        assertEquals(5, page.getContent().size());
+        assertTrue(page.getContent().stream().allMatch(transfer -> transfer.getStatus() == Transfer.TransferStatus.COMPLETED
+                && !transfer.getCreatedAt().isBefore(START.plusDays(1))
+                && transfer.getCreatedAt().isBefore(START.plusDays(3))));
+    }
+
+    @Test
+    public void testRejectsMalformedCursors() {
+        // Act & Assert
+        assertEquals("INVALID_CURSOR", assertThrows(BusinessRuleException.class,
+                () -> TransferCursor.decode("not a cursor")).getErrorCode());
+    }
+
+    private static Customer customer(String email) {
+        return Customer.builder()
+                .firstName("List")
+                .lastName("Test")
+                .email(email)
+                .status(CustomerStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static Account account(Customer customer, String accountNumber) {
+        return Account.builder()
+                .accountNumber(accountNumber)
+                .type(AccountType.CHECKING_ACCOUNT)
+                .currencyCode("USD")
+                .status(AccountStatus.ACTIVE)
+                .currentBalance(BigDecimal.ZERO)
+                .availableBalance(BigDecimal.ZERO)
+                .customer(customer)
+                .build();
+    }
+
+    private static Transfer transfer(Customer customer, Account account, Transfer.TransferStatus status) {
+        return Transfer.builder()
+                .sourceAccount(account)
+                .destinationAccountNumber("DEST")
+                .destinationBankCode("BANK")
+                .amount(BigDecimal.TEN)
+                .currencyCode("USD")
+                .type(Transfer.TransferType.INTERNAL)
+                .status(status)
+                .customer(customer)
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.scheduling.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountType;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.CustomerStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.Transfer;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.repository.TransferRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.scheduling.model.DueTransfer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the TransferLeases and the due-time queries of the TransferRepository.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(TransferLeases.class)
+public class TransferLeasesTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    @Autowired
+    private TransferLeases transferLeases;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Customer customer;
+
+    private Account account;
+
+    @BeforeEach
+    public void setUp() {
+        customer = entityManager.persist(Customer.builder()
+                .firstName("Schedule")
+                .lastName("Test")
+                .email("schedule-test@example.com")
+                .status(CustomerStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .build());
+        account = entityManager.persist(Account.builder()
+                .accountNumber("SCHED00001")
+                .type(AccountType.CHECKING_ACCOUNT)
+                .currencyCode("USD")
+                .status(AccountStatus.ACTIVE)
+                .currentBalance(BigDecimal.ZERO)
+                .availableBalance(BigDecimal.ZERO)
+                .customer(customer)
+                .build());
+    }
+
+    @Test
+    public void testOnlyOneClaimLeasesATransfer() {
+        // Arrange
+        UUID due = scheduled(NOW.minusMinutes(1), Transfer.TransferStatus.SCHEDULED);
+        UUID notDue = scheduled(NOW.plusMinutes(1), Transfer.TransferStatus.SCHEDULED);
+        UUID cancelled = scheduled(NOW.minusMinutes(1), Transfer.TransferStatus.CANCELLED);
+        List<UUID> batch = List.of(due, notDue, cancelled);
+
+        // Act
+        List<UUID> first = transferLeases.claim(batch, "node-a#1", NOW, NOW.plusMinutes(5));
+        List<UUID> second = transferLeases.claim(batch, "node-b#1", NOW, NOW.plusMinutes(5));
+
+        // Assert
+        assertEquals(List.of(due), first);
+        assertEquals(List.of(), second);
+        entityManager.clear();
+        Transfer leased = transferRepository.findById(due).orElseThrow();
+        assertEquals(Transfer.TransferStatus.PROCESSING, leased.getStatus());
+        assertEquals("node-a#1", leased.getLeaseOwner());
+    }
+
+    @Test
+    public void testExpiredLeasesAreClaimedAgain() {
+        // Arrange
+        UUID due = scheduled(NOW.minusMinutes(10), Transfer.TransferStatus.SCHEDULED);
+        transferLeases.claim(List.of(due), "node-a#1", NOW.minusMinutes(10), NOW.minusMinutes(5));
+
+        // Act
+        List<DueTransfer> expired = transferRepository.findExpiredLeases(NOW, PageRequest.of(0, 10));
+        List<UUID> reclaimed = transferLeases.claim(List.of(due), "node-b#1", NOW, NOW.plusMinutes(5));
+
+        // Assert
+        assertEquals(List.of(due), expired.stream().map(DueTransfer::getId).toList());
+        assertEquals(List.of(due), reclaimed);
+        assertFalse(transferLeases.fail(due, "node-a#1"));
+        assertTrue(transferLeases.fail(due, "node-b#1"));
+        entityManager.clear();
+        assertEquals(Transfer.TransferStatus.FAILED, transferRepository.findById(due).orElseThrow().getStatus());
+    }
+
+    @Test
+    public void testDueTransfersArePagedEarliestFirst() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            scheduled(NOW.plusMinutes(i), Transfer.TransferStatus.SCHEDULED);
+        }
+        scheduled(NOW.plusMinutes(2), Transfer.TransferStatus.SCHEDULED);
+        scheduled(NOW.plusHours(1), Transfer.TransferStatus.SCHEDULED);
+        scheduled(NOW, Transfer.TransferStatus.COMPLETED);
+
+        // Act
+        List<DueTransfer> loaded = new ArrayList<>();
+        Slice<DueTransfer> page = transferRepository.findDue(NOW.plusMinutes(10), PageRequest.of(0, 4));
+        loaded.addAll(page.getContent());
+        while (page.hasNext()) {
+            DueTransfer last = loaded.get(loaded.size() - 1);
+            page = transferRepository.findDueAfter(NOW.plusMinutes(10), last.getScheduledFor(), last.getId(), PageRequest.of(0, 4));
+            loaded.addAll(page.getContent());
+        }
+
+        // Assert
+        assertEquals(6, loaded.size());
+        assertEquals(6, loaded.stream().map(DueTransfer::getId).distinct().count());
+        for (int i = 1; i < loaded.size(); i++) {
+            assertFalse(loaded.get(i).getScheduledFor().isBefore(loaded.get(i - 1).getScheduledFor()));
+        }
+    }
+
+    private UUID scheduled(LocalDateTime scheduledFor, Transfer.TransferStatus status) {
+        Transfer transfer = entityManager.persist(Transfer.builder()
+                .sourceAccount(account)
+                .destinationAccountNumber("DEST")
+                .destinationBankCode("BANK")
+                .amount(BigDecimal.TEN)
+                .currencyCode("USD")
+                .type(Transfer.TransferType.SCHEDULED)
+                .status(status)
+                .scheduledFor(scheduledFor)
+                .customer(customer)
+                .build());
+        entityManager.flush();
+        return transfer.getId();
+    }
+}
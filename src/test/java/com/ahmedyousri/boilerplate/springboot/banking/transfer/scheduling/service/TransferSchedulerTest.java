@@ -0,0 +1,119 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.scheduling.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.Transfer;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.repository.TransferRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.scheduling.config.TransferSchedulingConfig;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.scheduling.model.DueTransfer;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.service.TransferService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the TransferScheduler.
+ */
+public class TransferSchedulerTest {
+
+    private TransferRepository transferRepository;
+
+    private TransferLeases transferLeases;
+
+    private TransferService transferService;
+
+    private TransferScheduler scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        TransferSchedulingConfig config = mock(TransferSchedulingConfig.class);
+        when(config.getTickMs()).thenReturn(100L);
+        when(config.getHorizonMs()).thenReturn(600_000L);
+        when(config.getLeaseMs()).thenReturn(300_000L);
+        when(config.getBatchSize()).thenReturn(100);
+        when(config.getDispatchThreads()).thenReturn(1);
+        when(config.getMaxQueued()).thenReturn(1000);
+
+        transferRepository = mock(TransferRepository.class);
+        when(transferRepository.findExpiredLeases(any(), any())).thenReturn(List.of());
+        transferLeases = mock(TransferLeases.class);
+        transferService = mock(TransferService.class);
+        scheduler = new TransferScheduler(transferRepository, transferLeases, transferService, config, mock(TaskScheduler.class));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testLoadsEachDueTransferOnceAndReleasesItWhenDue() {
+        // Arrange: one transfer missed while no node was running, one due in a minute
+        LocalDateTime now = LocalDateTime.now();
+        DueTransfer overdue = new DueTransfer(UUID.randomUUID(), now.minusHours(1));
+        DueTransfer upcoming = new DueTransfer(UUID.randomUUID(), now.plusMinutes(1));
+        when(transferRepository.findDue(any(), any())).thenReturn(new SliceImpl<>(List.of(overdue, upcoming)));
+
+        // Act
+        int firstLoad = scheduler.load();
+        int secondLoad = scheduler.load();
+
+        // Assert
+        assertEquals(2, firstLoad);
+        assertEquals(0, secondLoad);
+        assertEquals(List.of(overdue.getId()), scheduler.advance(millis(now)));
+        assertEquals(List.of(), scheduler.advance(millis(now.plusSeconds(59))));
+        assertEquals(List.of(upcoming.getId()), scheduler.advance(millis(now.plusMinutes(1)) + 100));
+    }
+
+    @Test
+    public void testExecutesOnlyTheTransfersLeased() {
+        // Arrange
+        UUID leased = UUID.randomUUID();
+        UUID leasedElsewhere = UUID.randomUUID();
+        when(transferLeases.claim(eq(List.of(leased, leasedElsewhere)), anyString(), any(), any()))
+                .thenReturn(List.of(leased));
+        when(transferService.executeScheduledTransfer(eq(leased), anyString())).thenReturn(new Transfer());
+
+        // Act
+        int executed = scheduler.dispatch(List.of(leased, leasedElsewhere));
+
+        // Assert
+        assertEquals(1, executed);
+        verify(transferService, never()).executeScheduledTransfer(eq(leasedElsewhere), anyString());
+        verify(transferLeases, never()).fail(any(), anyString());
+        assertEquals(0, scheduler.getQueuedCount());
+    }
+
+    @Test
+    public void testMarksTransfersThatFailToExecuteAsFailed() {
+        // Arrange
+        UUID transferId = UUID.randomUUID();
+        when(transferLeases.claim(any(), anyString(), any(), any())).thenReturn(List.of(transferId));
+        when(transferService.executeScheduledTransfer(eq(transferId), anyString()))
+                .thenThrow(new BusinessRuleException("Insufficient funds", "INSUFFICIENT_FUNDS"));
+
+        // Act
+        int executed = scheduler.dispatch(List.of(transferId));
+
+        // Assert
+        assertEquals(0, executed);
+        verify(transferLeases).fail(eq(transferId), anyString());
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,177 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountType;
+import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.account.service.AccountService;
+import com.ahmedyousri.boilerplate.springboot.banking.account.service.AccountServiceImpl;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.CustomerStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.repository.CustomerRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.repository.TransactionRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.service.TransactionServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Contention benchmark for the InternalTransferEngine: concurrent transfers between random
+ * pairs of accounts, in both directions, must never deadlock. Run with -Dbenchmark=true.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({InternalTransferEngine.class, TransactionServiceImpl.class, InternalTransferBenchmarkTest.Services.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class InternalTransferBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(InternalTransferBenchmarkTest.class);
+
+    private static final int ACCOUNTS = 10_000;
+
+    private static final int TRANSFERS = 20_000;
+
+    private static final int THREADS = 16;
+
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000.00");
+
+    @Autowired
+    private InternalTransferEngine engine;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TestConfiguration
+    static class Services {
+
+        /**
+         * The balance operations of the account service are plain arithmetic.
+         */
+        @Bean
+        AccountService accountService() {
+            AccountServiceImpl accountService = mock(AccountServiceImpl.class);
+            doCallRealMethod().when(accountService).performDebit(any(), any());
+            doCallRealMethod().when(accountService).performCredit(any(), any());
+            return accountService;
+        }
+
+        @Bean
+        AccountingService accountingService() {
+            return mock(AccountingService.class);
+        }
+    }
+
+    @Test
+    public void testRandomPairsNeverDeadlock() throws Exception {
+        // Arrange
+        List<UUID> accountIds = openAccounts();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger lockFailures = new AtomicInteger();
+        AtomicInteger otherFailures = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        // Act
+        long start = System.nanoTime();
+        for (int i = 0; i < TRANSFERS; i++) {
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                UUID source = accountIds.get(random.nextInt(ACCOUNTS));
+                UUID destination = accountIds.get(random.nextInt(ACCOUNTS));
+                while (destination.equals(source)) {
+                    destination = accountIds.get(random.nextInt(ACCOUNTS));
+                }
+                UUID to = destination;
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            engine.transfer(source, to, BigDecimal.ONE, "Benchmark", UUID.randomUUID()));
+                    completed.incrementAndGet();
+                } catch (ConcurrencyFailureException e) {
+                    lockFailures.incrementAndGet();
+                } catch (RuntimeException e) {
+                    otherFailures.incrementAndGet();
+                    log.warn("Transfer failed: {}", e.getMessage());
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.MINUTES));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        BigDecimal total = accountRepository.findAll().stream()
+                .map(Account::getCurrentBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        log.info("{} transfers between {} accounts on {} threads in {} ms ({}/s): {} completed, {} lock failures, {} other failures",
+                TRANSFERS, ACCOUNTS, THREADS, elapsedMs, TRANSFERS * 1000L / Math.max(1, elapsedMs),
+                completed.get(), lockFailures.get(), otherFailures.get());
+        assertEquals(0, lockFailures.get(), "Transfers that deadlocked or timed out waiting for a lock");
+        assertEquals(0, otherFailures.get());
+        assertEquals(TRANSFERS, completed.get());
+        assertEquals(2L * TRANSFERS, transactionRepository.count());
+        assertEquals(0, OPENING_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)).compareTo(total));
+    }
+
+    private List<UUID> openAccounts() {
+        Customer customer = customerRepository.save(Customer.builder()
+                .firstName("Benchmark")
+                .lastName("Customer")
+                .email("transfer-benchmark@example.com")
+                .status(CustomerStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        List<Account> accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(Account.builder()
+                    .accountNumber(String.format("BENCH%06d", i))
+                    .type(AccountType.CHECKING_ACCOUNT)
+                    .currencyCode("USD")
+                    .status(AccountStatus.ACTIVE)
+                    .currentBalance(OPENING_BALANCE)
+                    .availableBalance(OPENING_BALANCE)
+                    .customer(customer)
+                    .build());
+        }
+        return accountRepository.saveAll(accounts).stream().map(Account::getId).toList();
+    }
+}
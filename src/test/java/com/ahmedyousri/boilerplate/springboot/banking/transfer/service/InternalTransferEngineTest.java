@@ -0,0 +1,172 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.account.service.AccountServiceImpl;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.InsufficientFundsException;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.entity.TransactionType;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.service.TransactionPosting;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the InternalTransferEngine.
+ */
+public class InternalTransferEngineTest {
+
+    private AccountRepository accountRepository;
+
+    private AccountingService accountingService;
+
+    private TransactionService transactionService;
+
+    private InternalTransferEngine engine;
+
+    private Account low;
+
+    private Account high;
+
+    @BeforeEach
+    public void setUp() {
+        low = account(new UUID(0, 1), "LOW", "100.00");
+        high = account(new UUID(0, 2), "HIGH", "50.00");
+
+        accountRepository = mock(AccountRepository.class);
+        when(accountRepository.findByIdForUpdate(low.getId())).thenReturn(Optional.of(low));
+        when(accountRepository.findByIdForUpdate(high.getId())).thenReturn(Optional.of(high));
+
+        // The balance operations of the account service are plain arithmetic
+        AccountServiceImpl accountService = mock(AccountServiceImpl.class);
+        doCallRealMethod().when(accountService).performDebit(any(), any());
+        doCallRealMethod().when(accountService).performCredit(any(), any());
+
+        accountingService = mock(AccountingService.class);
+        transactionService = mock(TransactionService.class);
+        engine = new InternalTransferEngine(accountRepository, accountService, accountingService, transactionService);
+    }
+
+    @Test
+    public void testLocksAccountsInIdOrderWhicheverWayMoneyMoves() {
+        // Act
+        engine.transfer(high.getId(), low.getId(), new BigDecimal("10.00"), null, UUID.randomUUID());
+        engine.transfer(low.getId(), high.getId(), new BigDecimal("10.00"), null, UUID.randomUUID());
+
+        // Assert
+        InOrder inOrder = inOrder(accountRepository);
+        for (int i = 0; i < 2; i++) {
+            inOrder.verify(accountRepository).findByIdForUpdate(low.getId());
+            inOrder.verify(accountRepository).findByIdForUpdate(high.getId());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPostsOneJournalEntryAndBothTransactions() {
+        // Arrange
+        UUID referenceId = UUID.randomUUID();
+
+        // Act
+        engine.transfer(low.getId(), high.getId(), new BigDecimal("30.00"), "Rent", referenceId);
+
+        // Assert
+        assertEquals(0, new BigDecimal("70.00").compareTo(low.getAvailableBalance()));
+        assertEquals(0, new BigDecimal("80.00").compareTo(high.getAvailableBalance()));
+        verify(accountingService).createTransferJournalEntry(eq(low), eq(high), eq(new BigDecimal("30.00")),
+                eq("Transfer from LOW to HIGH: Rent"), eq(referenceId));
+        verify(accountingService, never()).createWithdrawalJournalEntry(any(), any(), anyString(), any());
+
+        ArgumentCaptor<List<TransactionPosting>> postings = ArgumentCaptor.forClass(List.class);
+        verify(transactionService).recordTransactions(postings.capture());
+        assertEquals(2, postings.getValue().size());
+        assertEquals(TransactionType.DEBIT, postings.getValue().get(0).getType());
+        assertSame(low, postings.getValue().get(0).getAccount());
+        assertEquals(TransactionType.CREDIT, postings.getValue().get(1).getType());
+        assertSame(high, postings.getValue().get(1).getAccount());
+        assertTrue(postings.getValue().stream().allMatch(posting -> posting.getReferenceId().equals(referenceId.toString())));
+        verify(accountRepository).saveAll(List.of(low, high));
+    }
+
+    @Test
+    public void testRejectsTransfersThatCannotBePosted() {
+        // Arrange
+        Account euros = account(new UUID(0, 3), "EUR", "10.00");
+        euros.setCurrencyCode("EUR");
+        when(accountRepository.findByIdForUpdate(euros.getId())).thenReturn(Optional.of(euros));
+
+        // Act & Assert
+        assertEquals("SAME_ACCOUNT_TRANSFER", assertThrows(BusinessRuleException.class,
+                () -> engine.transfer(low.getId(), low.getId(), BigDecimal.ONE, null, UUID.randomUUID())).getErrorCode());
+        assertEquals("CURRENCY_MISMATCH", assertThrows(BusinessRuleException.class,
+                () -> engine.transfer(low.getId(), euros.getId(), BigDecimal.ONE, null, UUID.randomUUID())).getErrorCode());
+        assertThrows(InsufficientFundsException.class,
+                () -> engine.transfer(high.getId(), low.getId(), new BigDecimal("50.01"), null, UUID.randomUUID()));
+        verify(transactionService, never()).recordTransactions(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExchangesBetweenCurrenciesThroughTheClearingAccounts() {
+        // Arrange
+        Account euros = account(new UUID(0, 3), "EUR", "10.00");
+        euros.setCurrencyCode("EUR");
+        UUID referenceId = UUID.randomUUID();
+
+        // Act
+        engine.exchange(low, euros, new BigDecimal("30.00"), new BigDecimal("27.63"), null, referenceId);
+
+        // Assert
+        assertEquals(0, new BigDecimal("70.00").compareTo(low.getAvailableBalance()));
+        assertEquals(0, new BigDecimal("37.63").compareTo(euros.getAvailableBalance()));
+        verify(accountingService).createExchangeJournalEntry(eq(low), eq(new BigDecimal("30.00")), eq(euros),
+                eq(new BigDecimal("27.63")), eq("Transfer from LOW to EUR"), eq(referenceId));
+        verify(accountingService, never()).createTransferJournalEntry(any(), any(), any(), anyString(), any());
+
+        ArgumentCaptor<List<TransactionPosting>> postings = ArgumentCaptor.forClass(List.class);
+        verify(transactionService).recordTransactions(postings.capture());
+        assertEquals(0, new BigDecimal("30.00").compareTo(postings.getValue().get(0).getAmount()));
+        assertEquals(0, new BigDecimal("27.63").compareTo(postings.getValue().get(1).getAmount()));
+        assertThrows(InsufficientFundsException.class,
+                () -> engine.exchange(high, euros, new BigDecimal("50.01"), BigDecimal.ONE, null, UUID.randomUUID()));
+    }
+
+    @Test
+    public void testMovesBalancesWithoutAJournalEntryForNettedTransfers() {
+        // Act
+        engine.move(low, high, new BigDecimal("30.00"), null, UUID.randomUUID());
+
+        // Assert
+        assertEquals(0, new BigDecimal("70.00").compareTo(low.getAvailableBalance()));
+        assertEquals(0, new BigDecimal("80.00").compareTo(high.getAvailableBalance()));
+        verify(transactionService).recordTransactions(anyList());
+        verifyNoInteractions(accountingService);
+    }
+
+    private static Account account(UUID id, String accountNumber, String balance) {
+        return Account.builder()
+                .id(id)
+                .accountNumber(accountNumber)
+                .currencyCode("USD")
+                .status(AccountStatus.ACTIVE)
+                .currentBalance(new BigDecimal(balance))
+                .availableBalance(new BigDecimal(balance))
+                .build();
+    }
+}
@@ -0,0 +1,175 @@
+package com.ahmedyousri.boilerplate.springboot.banking.transfer.service;
+
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.Account;
+import com.ahmedyousri.boilerplate.springboot.banking.account.entity.AccountStatus;
+import com.ahmedyousri.boilerplate.springboot.banking.account.repository.AccountRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.account.service.AccountServiceImpl;
+import com.ahmedyousri.boilerplate.springboot.banking.accounting.service.AccountingService;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.anchoring.service.LedgerAnchor;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.command.WithdrawCommand;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.confirmation.service.ConfirmationTracker;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.model.BlockchainResponse;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.BlockchainService;
+import com.ahmedyousri.boilerplate.springboot.banking.blockchain.service.ChainSubmitter;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.entity.Customer;
+import com.ahmedyousri.boilerplate.springboot.banking.customer.service.CurrentCustomerService;
+import com.ahmedyousri.boilerplate.springboot.banking.deadline.service.DeadlineGuard;
+import com.ahmedyousri.boilerplate.springboot.banking.exception.BusinessRuleException;
+import com.ahmedyousri.boilerplate.springboot.banking.fx.model.FxConversion;
+import com.ahmedyousri.boilerplate.springboot.banking.fx.service.FxRates;
+import com.ahmedyousri.boilerplate.springboot.banking.system.service.SystemAccountService;
+import com.ahmedyousri.boilerplate.springboot.banking.transaction.service.TransactionService;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.clearing.service.TransferClearing;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.entity.Transfer;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.mapper.TransferMapper;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.netting.service.TransferNetting;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.repository.RecurringTransferRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.repository.TransferRepository;
+import com.ahmedyousri.boilerplate.springboot.banking.transfer.scheduling.service.TransferScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the TransferServiceImpl.
+ */
+public class TransferServiceImplTest {
+
+    private static final String LEASE_OWNER = "node-1";
+
+    private TransferRepository transferRepository;
+
+    private AccountingService accountingService;
+
+    private BlockchainService blockchainService;
+
+    private InternalTransferEngine internalTransferEngine;
+
+    private FxRates fxRates;
+
+    private SystemAccountService systemAccountService;
+
+    private TransferServiceImpl transferService;
+
+    private Account source;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        source = account(new UUID(0, 1), "SRC", "USD");
+
+        transferRepository = mock(TransferRepository.class);
+        when(transferRepository.save(any(Transfer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        AccountRepository accountRepository = mock(AccountRepository.class);
+        when(accountRepository.findByIdForUpdate(source.getId())).thenReturn(Optional.of(source));
+
+        // The balance operations of the account service are plain arithmetic
+        AccountServiceImpl accountService = mock(AccountServiceImpl.class);
+        doCallRealMethod().when(accountService).performDebit(any(), any());
+
+        accountingService = mock(AccountingService.class);
+        blockchainService = mock(BlockchainService.class);
+        when(blockchainService.executeCommand(any())).thenReturn(BlockchainResponse.builder()
+                .successful(true)
+                .transactionHash("TX")
+                .build());
+        DeadlineGuard deadlineGuard = mock(DeadlineGuard.class);
+        when(deadlineGuard.submit(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+
+        // Only the checks of the engine are real; posting is verified on the mock
+        internalTransferEngine = mock(InternalTransferEngine.class);
+        doCallRealMethod().when(internalTransferEngine).validate(any(), any());
+        fxRates = mock(FxRates.class);
+        systemAccountService = mock(SystemAccountService.class);
+
+        ChainSubmitter chainSubmitter = new ChainSubmitter(blockchainService, mock(LedgerAnchor.class), deadlineGuard);
+
+        transferService = new TransferServiceImpl(mock(CurrentCustomerService.class), transferRepository,
+                mock(RecurringTransferRepository.class), accountRepository, mock(TransferMapper.class), accountService,
+                mock(TransactionService.class), accountingService, chainSubmitter, mock(ConfirmationTracker.class),
+                internalTransferEngine, mock(TransferScheduler.class),
+                mock(TransferNetting.class), mock(TransferClearing.class), fxRates,
+                systemAccountService);
+    }
+
+    @Test
+    public void testRejectsAScheduledTransferBeforeSubmittingItOnChain() {
+        // Arrange
+        Account closed = account(new UUID(0, 2), "CLOSED", "USD");
+        closed.setStatus(AccountStatus.CLOSED);
+        Transfer transfer = scheduled(closed.getId().toString(), "10.00", "USD");
+        when(internalTransferEngine.lock(anyCollection()))
+                .thenReturn(Map.of(source.getId(), source, closed.getId(), closed));
+
+        // Act & Assert
+        BusinessRuleException exception = assertThrows(BusinessRuleException.class,
+                () -> transferService.executeScheduledTransfer(transfer.getId(), LEASE_OWNER));
+        assertEquals("DESTINATION_ACCOUNT_INACTIVE", exception.getErrorCode());
+        verifyNoInteractions(blockchainService);
+        verify(internalTransferEngine, never()).post(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testConvertsAScheduledTransferIntoTheCurrencyOfTheSourceAccount() {
+        // Arrange
+        Transfer transfer = scheduled("DE89370400440532013000", "20.00", "EUR");
+        when(fxRates.convert(new BigDecimal("20.00"), "EUR", "USD")).thenReturn(
+                new FxConversion("EUR", "USD", new BigDecimal("20.00"), new BigDecimal("21.60"), new BigDecimal("1.08")));
+        Account cash = account(new UUID(0, 3), "CASH-EUR", "EUR");
+        when(systemAccountService.getCashAccount("EUR")).thenReturn(cash);
+
+        // Act
+        Transfer executed = transferService.executeScheduledTransfer(transfer.getId(), LEASE_OWNER);
+
+        // Assert
+        assertEquals(Transfer.TransferStatus.COMPLETED, executed.getStatus());
+        assertEquals(0, new BigDecimal("21.60").compareTo(executed.getSourceAmount()));
+        assertEquals(0, new BigDecimal("1.08").compareTo(executed.getExchangeRate()));
+        assertEquals(0, new BigDecimal("78.40").compareTo(source.getAvailableBalance()));
+        verify(blockchainService).executeCommand(argThat(command -> command instanceof WithdrawCommand
+                && new BigDecimal("21.60").compareTo(((WithdrawCommand) command).getAmount()) == 0));
+        verify(accountingService).createExchangeJournalEntry(eq(source), eq(new BigDecimal("21.60")), eq(cash),
+                eq(new BigDecimal("20.00")), any(), eq(transfer.getId()));
+        verify(accountingService, never()).createWithdrawalJournalEntry(any(), any(), any(), any());
+    }
+
+    private Transfer scheduled(String destination, String amount, String currencyCode) {
+        Transfer transfer = Transfer.builder()
+                .id(UUID.randomUUID())
+                .sourceAccount(source)
+                .destinationAccountNumber(destination)
+                .destinationBankCode("BANKITO")
+                .amount(new BigDecimal(amount))
+                .currencyCode(currencyCode)
+                .type(Transfer.TransferType.SCHEDULED)
+                .status(Transfer.TransferStatus.PROCESSING)
+                .leaseOwner(LEASE_OWNER)
+                .customer(Customer.builder().id(UUID.randomUUID()).build())
+                .build();
+        when(transferRepository.findByIdForUpdate(transfer.getId())).thenReturn(Optional.of(transfer));
+        return transfer;
+    }
+
+    private static Account account(UUID id, String accountNumber, String currencyCode) {
+        return Account.builder()
+                .id(id)
+                .accountNumber(accountNumber)
+                .currencyCode(currencyCode)
+                .status(AccountStatus.ACTIVE)
+                .currentBalance(new BigDecimal("100.00"))
+                .availableBalance(new BigDecimal("100.00"))
+                .build();
+    }
+}
@@ -0,0 +1,92 @@
+package com.ahmedyousri.boilerplate.springboot.banking.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the SlidingWindowCounter.
+ */
+public class SlidingWindowCounterTest {
+
+    @Test
+    public void testAmountsLeaveTheWindowABucketAtATime() {
+        // Arrange: a window of 100 ms in 4 buckets of 25 ms
+        SlidingWindowCounter counter = new SlidingWindowCounter(100, 4);
+        counter.add(10, 1_000);
+        counter.add(20, 1_030);
+        counter.add(30, 1_060);
+
+        // Act & Assert
+        assertEquals(60, counter.sum(1_060));
+        assertEquals(60, counter.sum(1_099));
+        assertEquals(50, counter.sum(1_100));
+        assertEquals(30, counter.sum(1_125));
+        assertEquals(0, counter.sum(1_150));
+    }
+
+    @Test
+    public void testReusesTheSlotOfABucketThatLeftTheWindow() {
+        // Arrange
+        SlidingWindowCounter counter = new SlidingWindowCounter(100, 4);
+        counter.add(10, 0);
+
+        // Act: the same slot, a whole window later
+        counter.add(5, 100);
+
+        // Assert
+        assertEquals(5, counter.sum(100));
+    }
+
+    @Test
+    public void testAddsAmountsSetFromElsewhere() {
+        // Arrange
+        SlidingWindowCounter counter = new SlidingWindowCounter(100, 4);
+        counter.add(10, 1_000);
+
+        // Act
+        counter.setRemote(counter.epochOf(1_000), 7, 1_010);
+        counter.setRemote(counter.epochOf(1_050), 3, 1_060);
+        counter.setRemote(counter.epochOf(1_050), 4, 1_060);
+        counter.setRemote(counter.epochOf(800), 100, 1_060);
+
+        // Assert: the last amount set for a bucket counts, and buckets out of the window are ignored
+        assertEquals(21, counter.sum(1_060));
+        Map<Long, Long> local = new HashMap<>();
+        counter.forEachBucket(1_060, local::put);
+        assertEquals(Map.of(counter.epochOf(1_000), 10L, counter.epochOf(1_050), 0L), local);
+    }
+
+    @Test
+    public void testCountsEveryConcurrentAdd() throws Exception {
+        // Arrange
+        SlidingWindowCounter counter = new SlidingWindowCounter(1_000, 10);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // Act: threads add while the time moves through every bucket
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    counter.add(1, i / 10);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+
+        // Assert
+        assertEquals(80_000, counter.sum(999));
+    }
+
+    @Test
+    public void testRejectsAWindowThatDoesNotDivideIntoBuckets() {
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindowCounter(100, 3));
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindowCounter(100, 0));
+    }
+}
@@ -0,0 +1,56 @@
+package com.ahmedyousri.boilerplate.springboot.banking.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark for the TimingWheel: millions of items due up to a month ahead, as scheduled
+ * transfers are, added and then expired a day at a time. Run with -Dbenchmark=true.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class TimingWheelBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TimingWheelBenchmarkTest.class);
+
+    private static final int ITEMS = 2_000_000;
+
+    private static final long MONTH_MS = TimeUnit.DAYS.toMillis(30);
+
+    @Test
+    public void testAddAndExpireMillionsOfItems() {
+        // Arrange
+        Random random = new Random(7);
+        long[] dueTimes = new long[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            dueTimes[i] = (long) (random.nextDouble() * MONTH_MS);
+        }
+        TimingWheel<Integer> wheel = new TimingWheel<>(100, 512, 0);
+
+        // Act
+        long start = System.nanoTime();
+        for (int i = 0; i < ITEMS; i++) {
+            wheel.add(i, dueTimes[i]);
+        }
+        long addNs = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int expired = 0;
+        for (long now = 0; now <= MONTH_MS; now += TimeUnit.DAYS.toMillis(1)) {
+            expired += wheel.advance(now).size();
+        }
+        long advanceNs = System.nanoTime() - start;
+
+        // Assert
+        log.info("Added {} items in {} ms ({} ns each); expired a month of them in {} ms",
+                ITEMS, TimeUnit.NANOSECONDS.toMillis(addNs), addNs / ITEMS, TimeUnit.NANOSECONDS.toMillis(advanceNs));
+        assertEquals(ITEMS, expired);
+        assertEquals(0, wheel.size());
+    }
+}
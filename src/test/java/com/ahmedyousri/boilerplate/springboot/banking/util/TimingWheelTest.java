@@ -0,0 +1,77 @@
+package com.ahmedyousri.boilerplate.springboot.banking.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the TimingWheel.
+ */
+public class TimingWheelTest {
+
+    @Test
+    public void testExpiresItemsInTheTickTheyAreDue() {
+        // Arrange
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.add("late", 250);
+        wheel.add("early", 100);
+
+        // Act & Assert
+        assertEquals(List.of(), wheel.advance(99));
+        assertEquals(List.of("early"), wheel.advance(100));
+        assertEquals(List.of(), wheel.advance(299));
+        assertEquals(List.of("late"), wheel.advance(300));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testExpiresOverdueItemsAtTheNextAdvance() {
+        // Arrange
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 10_000);
+        wheel.add("overdue", 500);
+
+        // Act & Assert
+        assertEquals(List.of("overdue"), wheel.advance(10_000));
+    }
+
+    @Test
+    public void testCascadesItemsDueMoreThanATurnAhead() {
+        // Arrange: 4 slots of 10 ms, so items span several levels
+        Random random = new Random(42);
+        TimingWheel<Integer> wheel = new TimingWheel<>(10, 4, 0);
+        Map<Integer, Long> dueTimes = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            long dueMs = random.nextInt(1_000_000);
+            dueTimes.put(i, dueMs);
+            wheel.add(i, dueMs);
+        }
+
+        // Act
+        List<Integer> expired = new ArrayList<>();
+        for (long now = 0; now <= 1_000_000; now += 1 + random.nextInt(3_000)) {
+            for (Integer item : wheel.advance(now)) {
+                // Assert: never before its due time, and within a tick of it
+                assertTrue(dueTimes.get(item) <= now, "Expired early: " + item);
+                assertTrue(dueTimes.get(item) > now - 3_010, "Expired late: " + item);
+                expired.add(item);
+            }
+        }
+        expired.addAll(wheel.advance(1_000_010));
+
+        // Assert
+        assertEquals(5_000, expired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testRejectsWheelSizesThatAreNotPowersOfTwo() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<>(100, 100, 0));
+    }
+}